@@ -20,6 +20,7 @@ public class AbsIntBenchmark<ACTION, LOCATION> implements ICsvProviderProvider<O
 	private final Map<Integer, Integer> mAction2Fixpoints;
 	private int mLastAction;
 	private int mMaxVariables;
+	private long mPostApplications;
 
 	public AbsIntBenchmark() {
 		mAction2Visits = new HashMap<>();
@@ -27,6 +28,7 @@ public class AbsIntBenchmark<ACTION, LOCATION> implements ICsvProviderProvider<O
 		mAction2Widen = new HashMap<>();
 		mAction2Fixpoints = new HashMap<>();
 		mMaxVariables = 0;
+		mPostApplications = 0;
 	}
 
 	@Override
@@ -51,6 +53,17 @@ public class AbsIntBenchmark<ACTION, LOCATION> implements ICsvProviderProvider<O
 		addOrIncrement(mAction2Fixpoints);
 	}
 
+	/**
+	 * Count applications of the post operator, i.e., one for each (pair of) disjunct(s) of a pre state.
+	 */
+	public void addPostApplications(final int applications) {
+		mPostApplications += applications;
+	}
+
+	public long getPostApplications() {
+		return mPostApplications;
+	}
+
 	public void addMaxVariables(final int varCount) {
 		if (varCount > mMaxVariables) {
 			mMaxVariables = varCount;
@@ -76,6 +89,7 @@ public class AbsIntBenchmark<ACTION, LOCATION> implements ICsvProviderProvider<O
 				mAction2Visits.entrySet().stream().map(a -> a.getValue()).reduce((a, b) -> a + b);
 		sb.append("Visited ").append(mAction2Visits.size()).append(" different actions ").append(visits.get())
 				.append(" times. ");
+		sb.append("Applied post operator ").append(mPostApplications).append(" times. ");
 
 		if (mAction2Merges.isEmpty()) {
 			sb.append("Never merged. ");
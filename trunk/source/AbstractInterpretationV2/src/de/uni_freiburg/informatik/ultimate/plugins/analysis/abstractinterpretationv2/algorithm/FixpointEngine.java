@@ -35,6 +35,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -50,6 +51,7 @@ import de.uni_freiburg.informatik.ultimate.modelcheckerutils.absint.IAbstractSta
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.absint.IAbstractStateBinaryOperator;
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.absint.IVariableProvider;
 import de.uni_freiburg.informatik.ultimate.plugins.analysis.abstractinterpretationv2.preferences.AbsIntPrefInitializer;
+import de.uni_freiburg.informatik.ultimate.plugins.analysis.abstractinterpretationv2.preferences.AbsIntPrefInitializer.IterationOrder;
 import de.uni_freiburg.informatik.ultimate.util.CoreUtil;
 import de.uni_freiburg.informatik.ultimate.util.datastructures.relation.Pair;
 
@@ -64,6 +66,7 @@ public class FixpointEngine<STATE extends IAbstractState<STATE>, ACTION, VARDECL
 
 	private final int mMaxUnwindings;
 	private final int mMaxParallelStates;
+	private final IterationOrder mIterationOrder;
 
 	private final ITransitionProvider<ACTION, LOC> mTransitionProvider;
 	private final IAbstractStateStorage<STATE, ACTION, LOC> mStateStorage;
@@ -92,6 +95,7 @@ public class FixpointEngine<STATE extends IAbstractState<STATE>, ACTION, VARDECL
 		mDebugHelper = params.getDebugHelper();
 		mMaxUnwindings = params.getMaxUnwindings();
 		mMaxParallelStates = params.getMaxParallelStates();
+		mIterationOrder = params.getIterationOrder();
 		mSummaryMap = new SummaryMap<>(mTransitionProvider, mLogger);
 		mUseHierachicalPre = mDomain.useHierachicalPre();
 	}
@@ -99,7 +103,8 @@ public class FixpointEngine<STATE extends IAbstractState<STATE>, ACTION, VARDECL
 	@Override
 	public AbsIntResult<STATE, ACTION, LOC> run(final Collection<? extends LOC> initialNodes, final Script script) {
 		mLogger.info("Starting fixpoint engine with domain " + mDomain.getClass().getSimpleName() + " (maxUnwinding="
-				+ mMaxUnwindings + ", maxParallelStates=" + mMaxParallelStates + ")");
+				+ mMaxUnwindings + ", maxParallelStates=" + mMaxParallelStates + ", iterationOrder=" + mIterationOrder
+				+ ")");
 		mResult = new AbsIntResult<>(script, mDomain, mTransitionProvider, mVarProvider);
 		mDomain.beforeFixpointComputation();
 		calculateFixpoint(initialNodes);
@@ -111,7 +116,7 @@ public class FixpointEngine<STATE extends IAbstractState<STATE>, ACTION, VARDECL
 	}
 
 	private void calculateFixpoint(final Collection<? extends LOC> start) {
-		final Deque<WorklistItem<STATE, ACTION, VARDECL, LOC>> worklist = new ArrayDeque<>();
+		final Queue<WorklistItem<STATE, ACTION, VARDECL, LOC>> worklist = createWorklist(start);
 		final IAbstractPostOperator<STATE, ACTION> postOp = mDomain.getPostOperator();
 		final IAbstractStateBinaryOperator<STATE> wideningOp = mDomain.getWideningOperator();
 		final Set<ACTION> reachedErrors = new HashSet<>();
@@ -124,7 +129,7 @@ public class FixpointEngine<STATE extends IAbstractState<STATE>, ACTION, VARDECL
 		while (!worklist.isEmpty()) {
 			checkTimeout();
 
-			final WorklistItem<STATE, ACTION, VARDECL, LOC> currentItem = worklist.removeFirst();
+			final WorklistItem<STATE, ACTION, VARDECL, LOC> currentItem = worklist.remove();
 			mResult.getBenchmark().addIteration(currentItem.getAction());
 
 			if (mLogger.isDebugEnabled()) {
@@ -167,6 +172,21 @@ public class FixpointEngine<STATE extends IAbstractState<STATE>, ACTION, VARDECL
 		}
 	}
 
+	private Queue<WorklistItem<STATE, ACTION, VARDECL, LOC>> createWorklist(final Collection<? extends LOC> start) {
+		switch (mIterationOrder) {
+		case FIFO:
+			return new ArrayDeque<>();
+		case WTO:
+			final WtoWorklist<STATE, ACTION, VARDECL, LOC> worklist = new WtoWorklist<>(mTransitionProvider, start);
+			if (mLogger.isDebugEnabled()) {
+				mLogger.debug("Weak topological order: " + worklist.getWeakTopologicalOrder());
+			}
+			return worklist;
+		default:
+			throw new UnsupportedOperationException("Unknown iteration order " + mIterationOrder);
+		}
+	}
+
 	/**
 	 * This method checks whether the current item can be ignored by a summary. This is the case if this item is a call
 	 * to a procedure for which a summary is already calculated. In this case, the item will count as processed and
@@ -179,7 +199,7 @@ public class FixpointEngine<STATE extends IAbstractState<STATE>, ACTION, VARDECL
 	 */
 	private boolean useSummaryInstead(final WorklistItem<STATE, ACTION, VARDECL, LOC> currentItem,
 			final DisjunctiveAbstractState<STATE> postState,
-			final Deque<WorklistItem<STATE, ACTION, VARDECL, LOC>> worklist) {
+			final Queue<WorklistItem<STATE, ACTION, VARDECL, LOC>> worklist) {
 		final ACTION callAction = currentItem.getAction();
 		if (!mTransitionProvider.isEnteringScope(callAction)) {
 			// can only use summary if entering a scope
@@ -237,16 +257,22 @@ public class FixpointEngine<STATE extends IAbstractState<STATE>, ACTION, VARDECL
 					preState.defineVariablesAfter(mVarProvider, currentAction, hierachicalPreState);
 			mResult.getBenchmark().addMaxVariables(preStateWithFreshVariables.getVariables().size());
 
+			final DisjunctiveAbstractState<STATE> stateAfterLeaving;
 			if (mUseHierachicalPre && mTransitionProvider.isLeavingScope(currentAction)) {
-				postState = hierachicalPreState.apply(postOp, preState, currentAction);
+				stateAfterLeaving = hierachicalPreState;
 			} else {
-				postState = preStateWithFreshVariables.apply(postOp, preState, currentAction);
+				stateAfterLeaving = preStateWithFreshVariables;
 			}
+			postState = stateAfterLeaving.apply(postOp, preState, currentAction);
+			// the post operator is applied to each pair of disjuncts
+			mResult.getBenchmark()
+					.addPostApplications(stateAfterLeaving.getStates().size() * preState.getStates().size());
 			isHierachicalPostResultBottom(postState, currentItem);
 
 		} else {
 			preStateWithFreshVariables = preState;
 			postState = preState.apply(postOp, currentAction);
+			mResult.getBenchmark().addPostApplications(preState.getStates().size());
 		}
 
 		assert postState != null;
@@ -9,6 +9,7 @@ import de.uni_freiburg.informatik.ultimate.modelcheckerutils.absint.IAbstractSta
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.absint.IVariableProvider;
 import de.uni_freiburg.informatik.ultimate.plugins.analysis.abstractinterpretationv2.Activator;
 import de.uni_freiburg.informatik.ultimate.plugins.analysis.abstractinterpretationv2.preferences.AbsIntPrefInitializer;
+import de.uni_freiburg.informatik.ultimate.plugins.analysis.abstractinterpretationv2.preferences.AbsIntPrefInitializer.IterationOrder;
 
 /**
  *
@@ -26,6 +27,7 @@ public class FixpointEngineParameters<STATE extends IAbstractState<STATE>, ACTIO
 	private final IProgressAwareTimer mTimer;
 	private final int mMaxUnwindings;
 	private final int mMaxParallelStates;
+	private final IterationOrder mIterationOrder;
 	private final ILogger mLogger;
 
 	/**
@@ -51,17 +53,18 @@ public class FixpointEngineParameters<STATE extends IAbstractState<STATE>, ACTIO
 		final IPreferenceProvider ups = services.getPreferenceProvider(Activator.PLUGIN_ID);
 		mMaxUnwindings = ups.getInt(AbsIntPrefInitializer.LABEL_ITERATIONS_UNTIL_WIDENING);
 		mMaxParallelStates = ups.getInt(AbsIntPrefInitializer.LABEL_MAX_PARALLEL_STATES);
+		mIterationOrder = ups.getEnum(AbsIntPrefInitializer.LABEL_ITERATION_ORDER, IterationOrder.class);
 	}
 
 	/**
 	 * Create {@link FixpointEngineParameters} by specifying all fields.
 	 */
-	private FixpointEngineParameters(final ITransitionProvider<ACTION, LOC> transitionProvider,
+	FixpointEngineParameters(final ITransitionProvider<ACTION, LOC> transitionProvider,
 			final IAbstractStateStorage<STATE, ACTION, LOC> storage,
 			final IVariableProvider<STATE, ACTION> varProvider, final ILoopDetector<ACTION> loopDetector,
 			final IAbstractDomain<STATE, ACTION> domain, final IDebugHelper<STATE, ACTION, VARDECL, LOC> debugHelper,
 			final IProgressAwareTimer timer, final ILogger logger, final int maxUnwindings,
-			final int maxParallelStates) {
+			final int maxParallelStates, final IterationOrder iterationOrder) {
 		mTransitionProvider = transitionProvider;
 		mStorage = storage;
 		mVarProvider = varProvider;
@@ -72,6 +75,7 @@ public class FixpointEngineParameters<STATE extends IAbstractState<STATE>, ACTIO
 		mLogger = logger;
 		mMaxUnwindings = maxUnwindings;
 		mMaxParallelStates = maxParallelStates;
+		mIterationOrder = iterationOrder;
 	}
 
 	/**
@@ -90,7 +94,7 @@ public class FixpointEngineParameters<STATE extends IAbstractState<STATE>, ACTIO
 			throw new IllegalArgumentException("transitionProvider may not be null");
 		}
 		return new FixpointEngineParameters<>(transitionProvider, mStorage, mVarProvider, mLoopDetector, mDomain,
-				mDebugHelper, mTimer, mLogger, mMaxUnwindings, mMaxParallelStates);
+				mDebugHelper, mTimer, mLogger, mMaxUnwindings, mMaxParallelStates, mIterationOrder);
 	}
 
 	public FixpointEngineParameters<STATE, ACTION, VARDECL, LOC>
@@ -99,7 +103,7 @@ public class FixpointEngineParameters<STATE extends IAbstractState<STATE>, ACTIO
 			throw new IllegalArgumentException("storage may not be null");
 		}
 		return new FixpointEngineParameters<>(mTransitionProvider, storage, mVarProvider, mLoopDetector, mDomain,
-				mDebugHelper, mTimer, mLogger, mMaxUnwindings, mMaxParallelStates);
+				mDebugHelper, mTimer, mLogger, mMaxUnwindings, mMaxParallelStates, mIterationOrder);
 	}
 
 	public FixpointEngineParameters<STATE, ACTION, VARDECL, LOC>
@@ -108,7 +112,7 @@ public class FixpointEngineParameters<STATE extends IAbstractState<STATE>, ACTIO
 			throw new IllegalArgumentException("varProvider may not be null");
 		}
 		return new FixpointEngineParameters<>(mTransitionProvider, mStorage, varProvider, mLoopDetector, mDomain,
-				mDebugHelper, mTimer, mLogger, mMaxUnwindings, mMaxParallelStates);
+				mDebugHelper, mTimer, mLogger, mMaxUnwindings, mMaxParallelStates, mIterationOrder);
 	}
 
 	public FixpointEngineParameters<STATE, ACTION, VARDECL, LOC>
@@ -117,7 +121,7 @@ public class FixpointEngineParameters<STATE extends IAbstractState<STATE>, ACTIO
 			throw new IllegalArgumentException("loopDetector may not be null");
 		}
 		return new FixpointEngineParameters<>(mTransitionProvider, mStorage, mVarProvider, loopDetector, mDomain,
-				mDebugHelper, mTimer, mLogger, mMaxUnwindings, mMaxParallelStates);
+				mDebugHelper, mTimer, mLogger, mMaxUnwindings, mMaxParallelStates, mIterationOrder);
 	}
 
 	public FixpointEngineParameters<STATE, ACTION, VARDECL, LOC>
@@ -126,7 +130,7 @@ public class FixpointEngineParameters<STATE extends IAbstractState<STATE>, ACTIO
 			throw new IllegalArgumentException("domain may not be null");
 		}
 		return new FixpointEngineParameters<>(mTransitionProvider, mStorage, mVarProvider, mLoopDetector, domain,
-				mDebugHelper, mTimer, mLogger, mMaxUnwindings, mMaxParallelStates);
+				mDebugHelper, mTimer, mLogger, mMaxUnwindings, mMaxParallelStates, mIterationOrder);
 	}
 
 	public FixpointEngineParameters<STATE, ACTION, VARDECL, LOC>
@@ -135,7 +139,7 @@ public class FixpointEngineParameters<STATE extends IAbstractState<STATE>, ACTIO
 			throw new IllegalArgumentException("debugHelper may not be null");
 		}
 		return new FixpointEngineParameters<>(mTransitionProvider, mStorage, mVarProvider, mLoopDetector, mDomain,
-				debugHelper, mTimer, mLogger, mMaxUnwindings, mMaxParallelStates);
+				debugHelper, mTimer, mLogger, mMaxUnwindings, mMaxParallelStates, mIterationOrder);
 	}
 
 	public FixpointEngineParameters<STATE, ACTION, VARDECL, LOC> setTimer(final IProgressAwareTimer timer) {
@@ -143,7 +147,7 @@ public class FixpointEngineParameters<STATE extends IAbstractState<STATE>, ACTIO
 			throw new IllegalArgumentException("timer may not be null");
 		}
 		return new FixpointEngineParameters<>(mTransitionProvider, mStorage, mVarProvider, mLoopDetector, mDomain,
-				mDebugHelper, timer, mLogger, mMaxUnwindings, mMaxParallelStates);
+				mDebugHelper, timer, mLogger, mMaxUnwindings, mMaxParallelStates, mIterationOrder);
 	}
 
 	public FixpointEngineParameters<STATE, ACTION, VARDECL, LOC> setMaxUnwindings(final int maxUnwindings) {
@@ -151,7 +155,7 @@ public class FixpointEngineParameters<STATE extends IAbstractState<STATE>, ACTIO
 			throw new IllegalArgumentException("maxUnwindings must be larger than zero");
 		}
 		return new FixpointEngineParameters<>(mTransitionProvider, mStorage, mVarProvider, mLoopDetector, mDomain,
-				mDebugHelper, mTimer, mLogger, maxUnwindings, mMaxParallelStates);
+				mDebugHelper, mTimer, mLogger, maxUnwindings, mMaxParallelStates, mIterationOrder);
 	}
 
 	public FixpointEngineParameters<STATE, ACTION, VARDECL, LOC> setMaxParallelStates(final int maxParallelStates) {
@@ -159,7 +163,16 @@ public class FixpointEngineParameters<STATE extends IAbstractState<STATE>, ACTIO
 			throw new IllegalArgumentException("maxParallelStates must be larger than zero");
 		}
 		return new FixpointEngineParameters<>(mTransitionProvider, mStorage, mVarProvider, mLoopDetector, mDomain,
-				mDebugHelper, mTimer, mLogger, mMaxUnwindings, maxParallelStates);
+				mDebugHelper, mTimer, mLogger, mMaxUnwindings, maxParallelStates, mIterationOrder);
+	}
+
+	public FixpointEngineParameters<STATE, ACTION, VARDECL, LOC>
+			setIterationOrder(final IterationOrder iterationOrder) {
+		if (iterationOrder == null) {
+			throw new IllegalArgumentException("iterationOrder may not be null");
+		}
+		return new FixpointEngineParameters<>(mTransitionProvider, mStorage, mVarProvider, mLoopDetector, mDomain,
+				mDebugHelper, mTimer, mLogger, mMaxUnwindings, mMaxParallelStates, iterationOrder);
 	}
 
 	public boolean isValid() {
@@ -193,6 +206,9 @@ public class FixpointEngineParameters<STATE extends IAbstractState<STATE>, ACTIO
 		if (getMaxParallelStates() <= 0) {
 			throw new IllegalArgumentException("Wrong value for max parallel states");
 		}
+		if (getIterationOrder() == null) {
+			throw new IllegalArgumentException("Missing iteration order");
+		}
 		return true;
 	}
 
@@ -235,4 +251,8 @@ public class FixpointEngineParameters<STATE extends IAbstractState<STATE>, ACTIO
 	public int getMaxParallelStates() {
 		return mMaxParallelStates;
 	}
+
+	public IterationOrder getIterationOrder() {
+		return mIterationOrder;
+	}
 }
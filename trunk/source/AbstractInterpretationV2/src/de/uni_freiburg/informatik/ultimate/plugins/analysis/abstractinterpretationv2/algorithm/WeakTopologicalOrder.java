@@ -0,0 +1,293 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE AbstractInterpretationV2 plug-in.
+ *
+ * The ULTIMATE AbstractInterpretationV2 plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE AbstractInterpretationV2 plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE AbstractInterpretationV2 plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE AbstractInterpretationV2 plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE AbstractInterpretationV2 plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.plugins.analysis.abstractinterpretationv2.algorithm;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Weak topological ordering (WTO) of a directed graph as defined by Bourdoncle ("Efficient chaotic iteration strategies
+ * with widenings", 1993).
+ * <p>
+ * A WTO is a hierarchical ordering of the nodes into nested components, e.g., <code>1 2 (3 4 (5 6) 7) 8</code>. Each
+ * component starts with its head; every back edge of the graph leads to the head of a component that contains the
+ * source of the edge. The recursive iteration strategy stabilizes a component (including all nested components) before
+ * it proceeds with the nodes after this component. If the nodes are processed in the order of their
+ * {@link #getPosition(Object) position} in the WTO, i.e., if the node with the smallest position is always processed
+ * first, each inner component is stabilized before the analysis leaves it.
+ * <p>
+ * The construction follows Bourdoncle's algorithm, but uses an explicit stack instead of recursion such that large
+ * graphs do not overflow the call stack.
+ *
+ * @param <V>
+ *            The type of the nodes.
+ */
+public final class WeakTopologicalOrder<V> {
+
+	private static final int FINISHED = Integer.MAX_VALUE;
+
+	private final Function<V, Collection<V>> mSuccessors;
+	private final Map<V, Integer> mDfn;
+	private final Deque<V> mStack;
+	private final Deque<Frame<V>> mFrames;
+	private int mNum;
+
+	private final Map<V, Integer> mPositions;
+	private final Set<V> mHeads;
+	private final List<Element<V>> mElements;
+
+	/**
+	 * Compute the WTO of all nodes reachable from the given roots.
+	 *
+	 * @param roots
+	 *            The start nodes of the graph.
+	 * @param successors
+	 *            A function that returns the successors of a node.
+	 */
+	public WeakTopologicalOrder(final Collection<? extends V> roots, final Function<V, Collection<V>> successors) {
+		mSuccessors = successors;
+		mDfn = new HashMap<>();
+		mStack = new ArrayDeque<>();
+		mFrames = new ArrayDeque<>();
+		mNum = 0;
+
+		final Deque<Element<V>> partition = new ArrayDeque<>();
+		for (final V root : roots) {
+			if (getDfn(root) == 0) {
+				mFrames.push(new Frame<>(root, null, partition));
+				run();
+			}
+		}
+		mElements = new ArrayList<>(partition);
+
+		mPositions = new HashMap<>();
+		mHeads = new HashSet<>();
+		number(mElements);
+	}
+
+	/**
+	 * @return The position of a node in the WTO, or {@link Integer#MAX_VALUE} if the node is not reachable from the
+	 *         roots.
+	 */
+	public int getPosition(final V node) {
+		final Integer pos = mPositions.get(node);
+		if (pos == null) {
+			return Integer.MAX_VALUE;
+		}
+		return pos;
+	}
+
+	/**
+	 * @return true iff the node is the head of a component.
+	 */
+	public boolean isHead(final V node) {
+		return mHeads.contains(node);
+	}
+
+	/**
+	 * @return An unmodifiable view of the nodes that are heads of components.
+	 */
+	public Set<V> getHeads() {
+		return Collections.unmodifiableSet(mHeads);
+	}
+
+	/**
+	 * @return All reachable nodes in the order of their position.
+	 */
+	public List<V> getNodes() {
+		final List<V> rtr = new ArrayList<>(mPositions.size());
+		collect(mElements, rtr);
+		return rtr;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder();
+		append(mElements, sb);
+		return sb.toString();
+	}
+
+	private void run() {
+		while (!mFrames.isEmpty()) {
+			final Frame<V> frame = mFrames.peek();
+			if (frame.mSuccessors == null) {
+				// first visit of this frame
+				if (frame.mComponentOf == null) {
+					mStack.push(frame.mNode);
+					mNum++;
+					mDfn.put(frame.mNode, mNum);
+					frame.mHead = mNum;
+				}
+				frame.mSuccessors = mSuccessors.apply(frame.mNode).iterator();
+			}
+
+			if (frame.mSuccessors.hasNext()) {
+				final V succ = frame.mSuccessors.next();
+				final int succDfn = getDfn(succ);
+				if (succDfn == 0) {
+					// the nodes of a component are added to the partition of the component
+					final Deque<Element<V>> target = frame.mComponentOf == null ? frame.mPartition : frame.mComponent;
+					mFrames.push(new Frame<>(succ, null, target));
+				} else if (frame.mComponentOf == null) {
+					frame.updateHead(succDfn);
+				}
+				continue;
+			}
+
+			mFrames.pop();
+			if (frame.mComponentOf != null) {
+				// a component is finished
+				frame.mPartition.push(new Element<>(frame.mNode, new ArrayList<>(frame.mComponent)));
+				returnToParent(frame.mHead);
+				continue;
+			}
+
+			final V node = frame.mNode;
+			if (frame.mHead == getDfn(node)) {
+				mDfn.put(node, FINISHED);
+				V elem = mStack.pop();
+				if (frame.mLoop) {
+					while (!elem.equals(node)) {
+						mDfn.put(elem, 0);
+						elem = mStack.pop();
+					}
+					// visit the successors again to compute the component of node; the result of the visit is
+					// returned to the parent when the component is finished
+					final Frame<V> component = new Frame<>(node, node, frame.mPartition);
+					component.mHead = frame.mHead;
+					mFrames.push(component);
+					continue;
+				}
+				frame.mPartition.push(new Element<>(node, null));
+			}
+			returnToParent(frame.mHead);
+		}
+	}
+
+	private void returnToParent(final int head) {
+		final Frame<V> parent = mFrames.peek();
+		if (parent != null && parent.mComponentOf == null) {
+			parent.updateHead(head);
+		}
+	}
+
+	private int getDfn(final V node) {
+		final Integer dfn = mDfn.get(node);
+		if (dfn == null) {
+			return 0;
+		}
+		return dfn;
+	}
+
+	private void number(final List<Element<V>> elements) {
+		for (final Element<V> elem : elements) {
+			mPositions.put(elem.mNode, mPositions.size());
+			if (elem.mComponent != null) {
+				mHeads.add(elem.mNode);
+				number(elem.mComponent);
+			}
+		}
+	}
+
+	private static <V> void collect(final List<Element<V>> elements, final List<V> nodes) {
+		for (final Element<V> elem : elements) {
+			nodes.add(elem.mNode);
+			if (elem.mComponent != null) {
+				collect(elem.mComponent, nodes);
+			}
+		}
+	}
+
+	private static <V> void append(final List<Element<V>> elements, final StringBuilder sb) {
+		final Iterator<Element<V>> iter = elements.iterator();
+		while (iter.hasNext()) {
+			final Element<V> elem = iter.next();
+			if (elem.mComponent == null) {
+				sb.append(elem.mNode);
+			} else {
+				sb.append('(').append(elem.mNode);
+				if (!elem.mComponent.isEmpty()) {
+					sb.append(' ');
+				}
+				append(elem.mComponent, sb);
+				sb.append(')');
+			}
+			if (iter.hasNext()) {
+				sb.append(' ');
+			}
+		}
+	}
+
+	/**
+	 * A node of the WTO, either a single node (if mComponent is null) or the head of a component.
+	 */
+	private static final class Element<V> {
+		private final V mNode;
+		private final List<Element<V>> mComponent;
+
+		private Element(final V node, final List<Element<V>> component) {
+			mNode = node;
+			mComponent = component;
+		}
+	}
+
+	/**
+	 * Replaces a call of visit (if mComponentOf is null) or component (otherwise) in Bourdoncle's recursive algorithm.
+	 */
+	private static final class Frame<V> {
+		private final V mNode;
+		private final V mComponentOf;
+		private final Deque<Element<V>> mPartition;
+		private final Deque<Element<V>> mComponent;
+		private Iterator<V> mSuccessors;
+		private int mHead;
+		private boolean mLoop;
+
+		private Frame(final V node, final V componentOf, final Deque<Element<V>> partition) {
+			mNode = node;
+			mComponentOf = componentOf;
+			mPartition = partition;
+			mComponent = componentOf == null ? null : new ArrayDeque<>();
+		}
+
+		private void updateHead(final int min) {
+			if (min <= mHead) {
+				mHead = min;
+				mLoop = true;
+			}
+		}
+	}
+}
@@ -27,9 +27,11 @@
 package de.uni_freiburg.informatik.ultimate.plugins.analysis.abstractinterpretationv2.algorithm;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -223,6 +225,15 @@ final class WorklistItem<STATE extends IAbstractState<STATE>, ACTION, VARDECL, L
 		return rtr;
 	}
 
+	/**
+	 *
+	 * @return The scope stack items of this item, starting with the current scope. Two items whose lists are equal
+	 *         share their state storages, hierarchical pre states, and loop counters.
+	 */
+	List<?> getScopeStackItems() {
+		return new ArrayList<>(mScopes);
+	}
+
 	Deque<Pair<ACTION, DisjunctiveAbstractState<STATE>>> getScopeWideningStack() {
 		final Deque<Pair<ACTION, DisjunctiveAbstractState<STATE>>> rtr = new ArrayDeque<>();
 		final Iterator<ScopeStackItem> scopeIter = mScopes.descendingIterator();
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE AbstractInterpretationV2 plug-in.
+ *
+ * The ULTIMATE AbstractInterpretationV2 plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE AbstractInterpretationV2 plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE AbstractInterpretationV2 plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE AbstractInterpretationV2 plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE AbstractInterpretationV2 plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.plugins.analysis.abstractinterpretationv2.algorithm;
+
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.stream.Collectors;
+
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.absint.IAbstractState;
+import de.uni_freiburg.informatik.ultimate.util.datastructures.relation.Pair;
+
+/**
+ * A worklist for the {@link FixpointEngine} that always returns the item whose action starts at the location with the
+ * smallest position in a {@link WeakTopologicalOrder} of the control flow graph. Items with the same position are
+ * returned in the order in which they were added.
+ * <p>
+ * Processing the items in this order stabilizes inner loops before the iteration continues with the rest of an outer
+ * loop, i.e., it follows Bourdoncle's recursive iteration strategy.
+ * <p>
+ * If an item is added while another item for the same action and the same scope stack is still pending, the pending
+ * item is replaced by the new one instead of scheduling the action twice. The state of the new item is the state that
+ * is currently stored for the source location of the action, and thus covers the state of the pending item. Both items
+ * share the scope stack items, and with them the state storages, the hierarchical pre states, and the loop counters,
+ * hence the replacement does not lose any loop state. Items that reach the same action with different scope stacks,
+ * e.g., items that originate from different start edges, are scheduled separately.
+ *
+ * @param <STATE>
+ *            The type of the abstract states.
+ * @param <ACTION>
+ *            The type of the actions.
+ * @param <VARDECL>
+ *            The type of the variable declarations.
+ * @param <LOC>
+ *            The type of the locations.
+ */
+final class WtoWorklist<STATE extends IAbstractState<STATE>, ACTION, VARDECL, LOC>
+		extends AbstractQueue<WorklistItem<STATE, ACTION, VARDECL, LOC>> {
+
+	private final ITransitionProvider<ACTION, LOC> mTransitionProvider;
+	private final WeakTopologicalOrder<LOC> mWto;
+	private final PriorityQueue<Entry<ACTION, STATE, LOC>> mQueue;
+	private final Map<Pair<ACTION, List<?>>, WorklistItem<STATE, ACTION, VARDECL, LOC>> mPending;
+	private long mNextSequenceNumber;
+	private int mReplacedItems;
+
+	/**
+	 * Create a new worklist and compute the {@link WeakTopologicalOrder} of all locations that are reachable from the
+	 * given start locations.
+	 *
+	 * @param transitionProvider
+	 *            The transition provider that defines the control flow graph.
+	 * @param start
+	 *            The locations from which the analysis starts.
+	 */
+	WtoWorklist(final ITransitionProvider<ACTION, LOC> transitionProvider, final Collection<? extends LOC> start) {
+		mTransitionProvider = transitionProvider;
+		mWto = new WeakTopologicalOrder<>(start, loc -> mTransitionProvider.getSuccessorActions(loc).stream()
+				.map(mTransitionProvider::getTarget).collect(Collectors.toList()));
+		mQueue = new PriorityQueue<>();
+		mPending = new HashMap<>();
+		mNextSequenceNumber = 0;
+		mReplacedItems = 0;
+	}
+
+	@Override
+	public boolean offer(final WorklistItem<STATE, ACTION, VARDECL, LOC> item) {
+		final Pair<ACTION, List<?>> key = new Pair<>(item.getAction(), item.getScopeStackItems());
+		if (mPending.put(key, item) != null) {
+			// the pending item keeps its place in the queue
+			mReplacedItems++;
+			return true;
+		}
+		final int position = mWto.getPosition(mTransitionProvider.getSource(item.getAction()));
+		mQueue.add(new Entry<>(key, position, mNextSequenceNumber));
+		mNextSequenceNumber++;
+		return true;
+	}
+
+	@Override
+	public WorklistItem<STATE, ACTION, VARDECL, LOC> poll() {
+		final Entry<ACTION, STATE, LOC> entry = mQueue.poll();
+		if (entry == null) {
+			return null;
+		}
+		return mPending.remove(entry.mKey);
+	}
+
+	@Override
+	public WorklistItem<STATE, ACTION, VARDECL, LOC> peek() {
+		final Entry<ACTION, STATE, LOC> entry = mQueue.peek();
+		if (entry == null) {
+			return null;
+		}
+		return mPending.get(entry.mKey);
+	}
+
+	@Override
+	public Iterator<WorklistItem<STATE, ACTION, VARDECL, LOC>> iterator() {
+		return Collections.unmodifiableCollection(mPending.values()).iterator();
+	}
+
+	@Override
+	public int size() {
+		return mQueue.size();
+	}
+
+	/**
+	 * @return The number of items that were not added because they replaced a pending item.
+	 */
+	int getReplacedItems() {
+		return mReplacedItems;
+	}
+
+	WeakTopologicalOrder<LOC> getWeakTopologicalOrder() {
+		return mWto;
+	}
+
+	private static final class Entry<ACTION, STATE extends IAbstractState<STATE>, LOC>
+			implements Comparable<Entry<ACTION, STATE, LOC>> {
+		private final Pair<ACTION, List<?>> mKey;
+		private final int mPosition;
+		private final long mSequenceNumber;
+
+		private Entry(final Pair<ACTION, List<?>> key, final int position, final long sequenceNumber) {
+			mKey = key;
+			mPosition = position;
+			mSequenceNumber = sequenceNumber;
+		}
+
+		@Override
+		public int compareTo(final Entry<ACTION, STATE, LOC> other) {
+			final int cmp = Integer.compare(mPosition, other.mPosition);
+			if (cmp != 0) {
+				return cmp;
+			}
+			return Long.compare(mSequenceNumber, other.mSequenceNumber);
+		}
+	}
+}
@@ -136,6 +136,15 @@ public class OctMatrix {
 	 */
 	private static final Consumer<OctMatrix> sDefaultShortestPathClosure = OctMatrix::shortestPathClosurePrimitiveSparse;
 
+	/**
+	 * Compute cached closures on a {@link PrimitiveOctMatrix} if possible. The
+	 * result is the same as for {@link #sDefaultShortestPathClosure}, but
+	 * without allocating an {@link OctValue} for each update of an entry.
+	 * Matrices whose entries cannot be handled exactly by machine numbers
+	 * fall back to {@link #sDefaultShortestPathClosure}.
+	 */
+	private static final boolean sUsePrimitiveClosure = true;
+
 	/**
 	 * Size of this matrix (size = #rows = #columns). Size is always an even
 	 * number.
@@ -722,6 +731,14 @@ public class OctMatrix {
 		if (mStrongClosure != null) {
 			return mStrongClosure;
 		}
+		if (sUsePrimitiveClosure) {
+			final OctMatrix strongClosure = primitiveClosure(false);
+			if (strongClosure != null) {
+				strongClosure.mStrongClosure = mStrongClosure = strongClosure;
+				strongClosure.mTightClosure = mTightClosure;
+				return strongClosure;
+			}
+		}
 		return strongClosure(sDefaultShortestPathClosure);
 	}
 
@@ -764,9 +781,40 @@ public class OctMatrix {
 		if (mTightClosure != null) {
 			return mTightClosure;
 		}
+		if (sUsePrimitiveClosure) {
+			final OctMatrix tightClosure = primitiveClosure(true);
+			if (tightClosure != null) {
+				tightClosure.mStrongClosure = mStrongClosure;
+				tightClosure.mTightClosure = mTightClosure = tightClosure;
+				return tightClosure;
+			}
+		}
 		return tightClosure(sDefaultShortestPathClosure);
 	}
 
+	/**
+	 * Computes the strong or tight closure of this matrix using a
+	 * {@link PrimitiveOctMatrix}. Unchanged entries of the closure are shared
+	 * with this matrix. The cached closures are not updated.
+	 *
+	 * @param tight
+	 *            Compute the tight closure instead of the strong closure
+	 * @return Closure or {@code null} if the closure cannot be computed
+	 *         exactly using machine numbers
+	 */
+	private OctMatrix primitiveClosure(final boolean tight) {
+		final PrimitiveOctMatrix primitive = PrimitiveOctMatrix.fromOctMatrix(this);
+		if (primitive == null) {
+			return null;
+		}
+		final PrimitiveOctMatrix closure = primitive.copy();
+		final boolean exact = tight ? closure.tightClosureInPlace() : closure.strongClosureInPlace();
+		if (!exact) {
+			return null;
+		}
+		return closure.toOctMatrix(this, primitive);
+	}
+
 	/**
 	 * @return The tight closure of this matrix was already computed and cached
 	 */
@@ -0,0 +1,464 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE AbstractInterpretationV2 plug-in.
+ *
+ * The ULTIMATE AbstractInterpretationV2 plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE AbstractInterpretationV2 plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE AbstractInterpretationV2 plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE AbstractInterpretationV2 plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE AbstractInterpretationV2 plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+
+package de.uni_freiburg.informatik.ultimate.plugins.analysis.abstractinterpretationv2.domain.relational.octagon;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * Octagon matrix over machine numbers. This is an alternative backend for {@link OctMatrix} that stores the block
+ * lower triangular matrix in a flat {@code double[]} (using the same layout as {@link OctMatrix}) and represents
+ * infinity by {@link Double#POSITIVE_INFINITY}.
+ * <p>
+ * Closure, join, widening, and copy do not allocate any objects. The results are always the same as for
+ * {@link OctMatrix}. Matrices whose entries cannot be represented exactly as doubles are rejected by
+ * {@link #fromOctMatrix(OctMatrix)}. The closures detect whether an intermediate result could leave the range in
+ * which double arithmetic is exact and report this, such that the caller can fall back to {@link OctMatrix}.
+ * <p>
+ * The closures are exact for the following reason. If all finite entries are multiples of 2^-s and no absolute value
+ * exceeds 2^(52-s), then all sums and halves of entries are multiples of 2^-(s+1) with absolute values below
+ * 2^(53-(s+1)), which are exactly representable. We ensure that the input entries are at most a quarter of this
+ * limit and abort as soon as an entry would drop below minus half of the limit (which happens only for octagons with
+ * negative cycles).
+ */
+public class PrimitiveOctMatrix {
+
+	private static final double INF = Double.POSITIVE_INFINITY;
+
+	/**
+	 * Absolute values up to this bound are converted from and to longs without loss of precision.
+	 */
+	private static final double MAX_EXACT_LONG = 0x1p53;
+
+	/**
+	 * Size of this matrix (size = #rows = #columns). Size is always an even number.
+	 */
+	private final int mSize;
+
+	/**
+	 * Entries of the block lower triangular matrix, see {@link OctMatrix}.
+	 */
+	private final double[] mEntries;
+
+	/**
+	 * Index of finite entries in the current block row, reused by all closure computations on this matrix.
+	 */
+	private int[] mRowIndex;
+
+	/**
+	 * Index of finite entries in the current block column, reused by all closure computations on this matrix.
+	 */
+	private int[] mColIndex;
+
+	/**
+	 * Creates a new matrix of the given size. Initially, all entries are infinity.
+	 *
+	 * @param variables
+	 *            Number of variables (= 2 * #rows = 2 * #columns) of the matrix
+	 */
+	public PrimitiveOctMatrix(final int variables) {
+		mSize = variables * 2;
+		mEntries = new double[2 * (variables * variables + variables)];
+		Arrays.fill(mEntries, INF);
+	}
+
+	/**
+	 * Converts an {@link OctMatrix} into a primitive octagon matrix.
+	 *
+	 * @param m
+	 *            Octagon matrix
+	 * @return Primitive octagon matrix with the same entries or {@code null} if some entry cannot be represented
+	 *         exactly as a double
+	 */
+	public static PrimitiveOctMatrix fromOctMatrix(final OctMatrix m) {
+		final PrimitiveOctMatrix result = new PrimitiveOctMatrix(m.variables());
+		int index = 0;
+		for (int row = 0; row < result.mSize; ++row) {
+			final int maxCol = row | 1;
+			for (int col = 0; col <= maxCol; ++col) {
+				final double value = exactDouble(m.get(row, col));
+				if (Double.isNaN(value)) {
+					return null;
+				}
+				result.mEntries[index] = value;
+				++index;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Converts this matrix into an {@link OctMatrix}.
+	 *
+	 * @return Octagon matrix with the same entries
+	 */
+	public OctMatrix toOctMatrix() {
+		return toOctMatrix(null, null);
+	}
+
+	/**
+	 * Converts this matrix into an {@link OctMatrix}, re-using the entries of another octagon matrix where possible.
+	 *
+	 * @param original
+	 *            Octagon matrix whose entries can be re-used or {@code null}
+	 * @param primitiveOriginal
+	 *            Primitive version of {@code original} or {@code null}
+	 * @return Octagon matrix with the same entries
+	 */
+	OctMatrix toOctMatrix(final OctMatrix original, final PrimitiveOctMatrix primitiveOriginal) {
+		final OctMatrix result = new OctMatrix(variables());
+		int index = 0;
+		for (int row = 0; row < mSize; ++row) {
+			final int maxCol = row | 1;
+			for (int col = 0; col <= maxCol; ++col) {
+				final double value = mEntries[index];
+				if (primitiveOriginal != null && primitiveOriginal.mEntries[index] == value) {
+					result.set(row, col, original.get(row, col));
+				} else {
+					result.set(row, col, toOctValue(value));
+				}
+				++index;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return The exact value of an {@link OctValue} as a double or {@link Double#NaN} if there is no such double
+	 */
+	private static double exactDouble(final OctValue v) {
+		if (v.isInfinity()) {
+			return INF;
+		}
+		final BigDecimal value = v.getValue();
+		if (value.signum() == 0) {
+			return 0;
+		}
+		if (value.scale() == 0 && value.precision() <= 15) {
+			return value.longValue();
+		}
+		final double d = value.doubleValue();
+		if (Double.isInfinite(d) || Math.abs(d) < Double.MIN_NORMAL || new BigDecimal(d).compareTo(value) != 0) {
+			return Double.NaN;
+		}
+		return d;
+	}
+
+	private static OctValue toOctValue(final double d) {
+		if (d == INF) {
+			return OctValue.INFINITY;
+		} else if (d == 0) {
+			return OctValue.ZERO;
+		} else if (d == Math.rint(d) && Math.abs(d) <= MAX_EXACT_LONG) {
+			return new OctValue(BigDecimal.valueOf((long) d));
+		}
+		return new OctValue(new BigDecimal(d));
+	}
+
+	/**
+	 * Creates a copy of this matrix.
+	 *
+	 * @return Copy of this matrix
+	 */
+	public PrimitiveOctMatrix copy() {
+		final PrimitiveOctMatrix copy = new PrimitiveOctMatrix(variables());
+		System.arraycopy(mEntries, 0, copy.mEntries, 0, mEntries.length);
+		return copy;
+	}
+
+	/**
+	 * Overwrites all entries of this matrix with the entries of another matrix of the same size.
+	 *
+	 * @param source
+	 *            Matrix to be copied
+	 */
+	public void copyFrom(final PrimitiveOctMatrix source) {
+		checkCompatibility(source);
+		System.arraycopy(source.mEntries, 0, mEntries, 0, mEntries.length);
+	}
+
+	public int getSize() {
+		return mSize;
+	}
+
+	public int variables() {
+		return mSize / 2;
+	}
+
+	/**
+	 * Reads an entry of this matrix. This method can also read entries of the block upper triangular matrix.
+	 *
+	 * @param row
+	 *            Matrix row (zero-based)
+	 * @param col
+	 *            Matrix column (zero-based)
+	 * @return Matrix entry in the given row and column
+	 */
+	public double get(final int row, final int col) {
+		return mEntries[indexOf(row, col)];
+	}
+
+	/**
+	 * Writes an entry of this matrix (and its coherent entry).
+	 *
+	 * @param row
+	 *            Matrix row (zero-based)
+	 * @param col
+	 *            Matrix column (zero-based)
+	 * @param value
+	 *            New value, must not be {@link Double#NaN} or negative infinity
+	 */
+	public void set(final int row, final int col, final double value) {
+		assert !Double.isNaN(value) && value != Double.NEGATIVE_INFINITY : "Not a valid matrix entry: " + value;
+		mEntries[indexOf(row, col)] = value;
+	}
+
+	private int indexOf(final int row, final int col) {
+		assert row < mSize && col < mSize : row + "," + col + " is not an index for matrix of size " + mSize + ".";
+		if (row < col) {
+			return indexOfLower(col ^ 1, row ^ 1);
+		}
+		return indexOfLower(row, col);
+	}
+
+	private static int indexOfLower(final int row, final int col) {
+		return col + (row + 1) * (row + 1) / 2;
+	}
+
+	private void checkCompatibility(final PrimitiveOctMatrix other) {
+		if (other.mSize != mSize) {
+			final String msg = "Incompatible matrices of sizes " + mSize + " and " + other.mSize + ".";
+			throw new IllegalArgumentException(msg);
+		}
+	}
+
+	/**
+	 * Checks whether this and another matrix of the same size have the same entries.
+	 *
+	 * @param other
+	 *            Other matrix
+	 * @return The matrices are equal
+	 */
+	public boolean isEqualTo(final PrimitiveOctMatrix other) {
+		checkCompatibility(other);
+		return Arrays.equals(mEntries, other.mEntries);
+	}
+
+	/**
+	 * Checks for negative self loops in the graph represented by this adjacency matrix.
+	 *
+	 * @return a negative self loop exists
+	 * @see OctMatrix#hasNegativeSelfLoop()
+	 */
+	public boolean hasNegativeSelfLoop() {
+		for (int i = 0; i < mSize; ++i) {
+			if (mEntries[indexOfLower(i, i)] < 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Replaces this matrix by its strong closure, see {@link OctMatrix#strongClosure(java.util.function.Consumer)}.
+	 *
+	 * @return {@code true} if the closure was computed. {@code false} if the closure cannot be computed exactly using
+	 *         doubles. In the latter case the entries of this matrix are unspecified.
+	 */
+	public boolean strongClosureInPlace() {
+		final double limit = exactnessLimit();
+		if (limit == 0) {
+			return false;
+		}
+		minimizeDiagonal();
+		if (!shortestPathClosure(-limit / 2)) {
+			return false;
+		}
+		strengtheningInPlace();
+		return true;
+	}
+
+	/**
+	 * Replaces this matrix by its tight closure, see {@link OctMatrix#tightClosure(java.util.function.Consumer)}.
+	 *
+	 * @return {@code true} if the closure was computed. {@code false} if the closure cannot be computed exactly using
+	 *         doubles. In the latter case the entries of this matrix are unspecified.
+	 */
+	public boolean tightClosureInPlace() {
+		final double limit = exactnessLimit();
+		if (limit == 0) {
+			return false;
+		}
+		minimizeDiagonal();
+		if (!shortestPathClosure(-limit / 2)) {
+			return false;
+		}
+		tighteningInPlace();
+		return true;
+	}
+
+	/**
+	 * Computes the bound 2^(52-s) where all finite entries are multiples of 2^-s (see documentation of this class).
+	 *
+	 * @return Bound or 0 if some finite entry of this matrix exceeds a quarter of the bound
+	 */
+	private double exactnessLimit() {
+		int fractionalBits = 0;
+		double maxAbs = 0;
+		for (final double value : mEntries) {
+			if (value != INF) {
+				fractionalBits = Math.max(fractionalBits, fractionalBits(value));
+				maxAbs = Math.max(maxAbs, Math.abs(value));
+			}
+		}
+		final double limit = Math.scalb(1.0, 52 - fractionalBits);
+		return maxAbs <= limit / 4 ? limit : 0;
+	}
+
+	/**
+	 * @return Minimal s such that the given finite value is a multiple of 2^-s
+	 */
+	private static int fractionalBits(final double value) {
+		if (value == Math.rint(value)) {
+			return 0;
+		}
+		final int exponent = Math.getExponent(value);
+		if (exponent < Double.MIN_EXPONENT) {
+			// subnormal values are never created by this class
+			return Integer.MAX_VALUE;
+		}
+		final long significand = (Double.doubleToRawLongBits(value) & 0x000fffffffffffffL) | 0x0010000000000000L;
+		return 52 - exponent - Long.numberOfTrailingZeros(significand);
+	}
+
+	private void minimizeDiagonal() {
+		for (int i = 0; i < mSize; ++i) {
+			final int index = indexOfLower(i, i);
+			if (mEntries[index] > 0) {
+				mEntries[index] = 0;
+			}
+		}
+	}
+
+	/**
+	 * Computes the shortest path closure in-place, as {@link OctMatrix#shortestPathClosurePrimitiveSparse()}.
+	 *
+	 * @param lowerBound
+	 *            Smallest value that may be written to this matrix
+	 * @return {@code false} iff the computation was aborted because an entry would be smaller than the lower bound
+	 */
+	private boolean shortestPathClosure(final double lowerBound) {
+		if (mRowIndex == null) {
+			mRowIndex = new int[mSize];
+			mColIndex = new int[mSize];
+		}
+		final int[] rk = mRowIndex;
+		final int[] ck = mColIndex;
+		int indexLength = 0;
+		for (int k = 0; k < mSize; ++k) {
+			final int kk = k ^ 1;
+			if (k < kk) { // k is even => entered new 2x2 block
+				indexLength = indexFiniteEntriesInBlockRowAndColumn(k, rk, ck);
+			}
+			for (int _i = 0; _i < indexLength; ++_i) {
+				final int i = ck[_i];
+				final double ik = get(i, k);
+				final double ikk = get(i, kk);
+				final int maxCol = i | 1;
+				for (int _j = 0; _j < indexLength; ++_j) {
+					final int j = rk[_j];
+					if (j > maxCol) {
+						break;
+					}
+					final double indirectRoute = Math.min(ik + get(k, j), ikk + get(kk, j));
+					final int ij = indexOf(i, j);
+					if (mEntries[ij] > indirectRoute) {
+						if (indirectRoute < lowerBound) {
+							return false;
+						}
+						mEntries[ij] = indirectRoute;
+					}
+				}
+			}
+		}
+		return true;
+	}
+
+	private int indexFiniteEntriesInBlockRowAndColumn(final int k, final int[] rowIndex, final int[] colIndex) {
+		int indexLength = 0;
+		final int kk = k ^ 1;
+		for (int i = 0; i < mSize; ++i) {
+			if (get(i, k) != INF || get(i, kk) != INF) {
+				colIndex[indexLength] = i;
+				rowIndex[indexLength] = i ^ 1;
+				++indexLength;
+			}
+		}
+		return indexLength;
+	}
+
+	private void strengtheningInPlace() {
+		for (int i = 2; i < mSize; ++i) {
+			final double ib = get(i, i ^ 1) / 2;
+			final int maxCol = (i - 2) | 1;
+			for (int j = 0; j <= maxCol; ++j) {
+				final double b = ib + get(j ^ 1, j) / 2;
+				final int ij = indexOfLower(i, j);
+				if (mEntries[ij] > b) {
+					mEntries[ij] = b;
+				}
+			}
+		}
+	}
+
+	private void tighteningInPlace() {
+		for (int i = 0; i < mSize; ++i) {
+			final double ib = Math.floor(get(i, i ^ 1) / 2);
+			final int maxCol = i | 1;
+			for (int j = 0; j <= maxCol; ++j) {
+				final double b = ib + Math.floor(get(j ^ 1, j) / 2);
+				final int ij = indexOfLower(i, j);
+				if (mEntries[ij] > b) {
+					mEntries[ij] = b;
+				}
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder();
+		for (int row = 0; row < mSize; ++row) {
+			final int maxCol = row | 1;
+			for (int col = 0; col <= maxCol; ++col) {
+				sb.append(get(row, col) == INF ? "inf" : Double.toString(get(row, col)));
+				sb.append(col < maxCol ? "\t" : "\n");
+			}
+		}
+		return sb.toString();
+	}
+}
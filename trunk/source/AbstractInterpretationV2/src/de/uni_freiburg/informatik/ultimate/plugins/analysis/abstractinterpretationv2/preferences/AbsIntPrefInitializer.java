@@ -66,6 +66,21 @@ import de.uni_freiburg.informatik.ultimate.plugins.analysis.abstractinterpretati
  */
 public class AbsIntPrefInitializer extends UltimatePreferenceInitializer {
 
+	/**
+	 * The order in which the fixpoint engine processes its worklist.
+	 */
+	public enum IterationOrder {
+		/**
+		 * Process the transitions in the order in which they were added to the worklist.
+		 */
+		FIFO,
+		/**
+		 * Process the transitions according to a weak topological order of the control flow graph, i.e., stabilize
+		 * inner loops first, and do not schedule a transition again while it is still pending.
+		 */
+		WTO
+	}
+
 	public static final String[] VALUES_ABSTRACT_DOMAIN = new String[] {
 
 			EmptyDomain.class.getSimpleName(), SignDomain.class.getSimpleName(), IntervalDomain.class.getSimpleName(),
@@ -81,6 +96,10 @@ public class AbsIntPrefInitializer extends UltimatePreferenceInitializer {
 
 	public static final String LABEL_ITERATIONS_UNTIL_WIDENING = "Minimum iterations before widening";
 	public static final String LABEL_MAX_PARALLEL_STATES = "Parallel states before merging";
+	public static final String LABEL_ITERATION_ORDER = "Iteration order";
+	public static final String TOOLTIP_ITERATION_ORDER =
+			"FIFO: process transitions in the order in which they are found. WTO: process transitions along a weak "
+					+ "topological order of the control flow graph such that inner loops are stabilized first.";
 	public static final String LABEL_DESCRIPTION_ABSTRACT_DOMAIN =
 			"Settings for the abstract domain to use. Select the Abstract domain to use here.\n\nChange the settings for each abstract domain in the corresponding sub-page.";
 	public static final String LABEL_ABSTRACT_DOMAIN = "Abstract domain";
@@ -94,6 +113,7 @@ public class AbsIntPrefInitializer extends UltimatePreferenceInitializer {
 
 	public static final int DEF_ITERATIONS_UNTIL_WIDENING = 3;
 	public static final int DEF_STATES_UNTIL_MERGE = 2;
+	public static final IterationOrder DEF_ITERATION_ORDER = IterationOrder.FIFO;
 	public static final boolean DEF_RUN_AS_PRE_ANALYSIS = false;
 	public static final String DEF_ABSTRACT_DOMAIN = VALUES_ABSTRACT_DOMAIN[0];
 	public static final String DEF_ABSTRACT_DOMAIN_FUTURE = VALUES_ABSTRACT_DOMAIN_FUTURE[0];
@@ -118,6 +138,8 @@ public class AbsIntPrefInitializer extends UltimatePreferenceInitializer {
 				PreferenceType.Integer, new IUltimatePreferenceItemValidator.IntegerValidator(1, 100000)));
 		rtr.add(new UltimatePreferenceItem<>(LABEL_MAX_PARALLEL_STATES, DEF_STATES_UNTIL_MERGE, PreferenceType.Integer,
 				new IUltimatePreferenceItemValidator.IntegerValidator(1, 100000)));
+		rtr.add(new UltimatePreferenceItem<>(LABEL_ITERATION_ORDER, DEF_ITERATION_ORDER, TOOLTIP_ITERATION_ORDER,
+				PreferenceType.Combo, IterationOrder.values()));
 		rtr.add(new UltimatePreferenceItem<>(LABEL_RUN_AS_PRE_ANALYSIS, DEF_RUN_AS_PRE_ANALYSIS,
 				TOOLTIP_RUN_AS_PRE_ANALYSIS, PreferenceType.Boolean));
 		rtr.add(new UltimatePreferenceItem<>(LABEL_USE_FUTURE_RCFG, DEF_USE_FUTURE_RCFG, TOOLTIP_USE_FUTURE_RCFG,
@@ -0,0 +1,593 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE AbstractInterpretationV2 plug-in.
+ *
+ * The ULTIMATE AbstractInterpretationV2 plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE AbstractInterpretationV2 plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE AbstractInterpretationV2 plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE AbstractInterpretationV2 plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE AbstractInterpretationV2 plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.plugins.analysis.abstractinterpretationv2.algorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger.LogLevel;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
+import de.uni_freiburg.informatik.ultimate.logic.NoopScript;
+import de.uni_freiburg.informatik.ultimate.logic.Script;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.absint.DisjunctiveAbstractState;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.absint.IAbstractDomain;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.absint.IAbstractPostOperator;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.absint.IAbstractState;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.absint.IAbstractStateBinaryOperator;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.absint.IVariableProvider;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.CfgSmtToolkit;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.variables.IProgramVarOrConst;
+import de.uni_freiburg.informatik.ultimate.plugins.analysis.abstractinterpretationv2.preferences.AbsIntPrefInitializer.IterationOrder;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Tests that the {@link FixpointEngine} computes the same fixpoint for every {@link IterationOrder}. The tests use a
+ * small interval domain over two integer variables whose widening is the join, such that every iteration order has to
+ * end in the least fixpoint.
+ */
+public class FixpointEngineTest {
+
+	private static final long INF = Long.MAX_VALUE;
+	private static final int I = 0;
+	private static final int J = 1;
+
+	/**
+	 * <pre>
+	 * 0 -i:=0-> 1
+	 * 1 -[i<10]-> 2 -j:=0-> 3
+	 * 3 -[j<5]-> 4 -j+=1-> 3
+	 * 3 -[j>=5]-> 5 -i+=1-> 1
+	 * 1 -[i>=10]-> 6
+	 * </pre>
+	 *
+	 * The outer loop has the head 1, the inner loop the head 3.
+	 */
+	@Test
+	public void testNestedLoops() {
+		final List<Edge> edges = new ArrayList<>();
+		edges.add(new Edge(0, 1, Op.ASSIGN, I, 0));
+		edges.add(new Edge(1, 2, Op.LESS, I, 10, true));
+		edges.add(new Edge(2, 3, Op.ASSIGN, J, 0));
+		edges.add(new Edge(3, 4, Op.LESS, J, 5, true));
+		edges.add(new Edge(4, 3, Op.ADD, J, 1));
+		edges.add(new Edge(3, 5, Op.GEQ, J, 5));
+		edges.add(new Edge(5, 1, Op.ADD, I, 1));
+		edges.add(new Edge(1, 6, Op.GEQ, I, 10));
+
+		for (int maxUnwindings = 1; maxUnwindings <= 3; maxUnwindings++) {
+			final Map<Integer, IntervalState> fifo = run(edges, IterationOrder.FIFO, maxUnwindings);
+			final Map<Integer, IntervalState> wto = run(edges, IterationOrder.WTO, maxUnwindings);
+			Assert.assertEquals("maxUnwindings=" + maxUnwindings, fifo, wto);
+			Assert.assertEquals(new IntervalState(0, 10, -INF, INF), wto.get(1));
+			Assert.assertEquals(new IntervalState(0, 9, 0, 5), wto.get(3));
+			Assert.assertEquals(new IntervalState(0, 9, 0, 4), wto.get(4));
+			Assert.assertEquals(new IntervalState(0, 9, 5, 5), wto.get(5));
+			Assert.assertEquals(new IntervalState(10, 10, -INF, INF), wto.get(6));
+		}
+	}
+
+	/**
+	 * Two start edges reach the loop with different scope stacks, hence the {@link WtoWorklist} schedules their items
+	 * separately.
+	 *
+	 * <pre>
+	 * 0 -i:=0-> 1,  0 -i:=3-> 1
+	 * 1 -[i<5]-> 2 -i+=1-> 1
+	 * 1 -[i>=5]-> 3
+	 * </pre>
+	 */
+	@Test
+	public void testSeveralStartEdges() {
+		final List<Edge> edges = new ArrayList<>();
+		edges.add(new Edge(0, 1, Op.ASSIGN, I, 0));
+		edges.add(new Edge(0, 1, Op.ASSIGN, I, 3));
+		edges.add(new Edge(1, 2, Op.LESS, I, 5, true));
+		edges.add(new Edge(2, 1, Op.ADD, I, 1));
+		edges.add(new Edge(1, 3, Op.GEQ, I, 5));
+
+		final Map<Integer, IntervalState> fifo = run(edges, IterationOrder.FIFO, 2);
+		final Map<Integer, IntervalState> wto = run(edges, IterationOrder.WTO, 2);
+		Assert.assertEquals(fifo, wto);
+		Assert.assertEquals(new IntervalState(0, 5, -INF, INF), wto.get(1));
+		Assert.assertEquals(new IntervalState(5, 5, -INF, INF), wto.get(3));
+	}
+
+	private static Map<Integer, IntervalState> run(final List<Edge> edges, final IterationOrder order,
+			final int maxUnwindings) {
+		final IUltimateServiceProvider services = UltimateMocks.createUltimateServiceProviderMock(LogLevel.WARN);
+		final TransitionProvider transitionProvider = new TransitionProvider(edges);
+		final FixpointEngineParameters<IntervalState, Edge, Object, Integer> params = new FixpointEngineParameters<>(
+				transitionProvider, new Storage(), new VariableProvider(), new LoopDetector(), new Domain(),
+				(pre, hierPre, post, transition) -> true, services.getProgressMonitorService(),
+				services.getLoggingService().getLogger(FixpointEngineTest.class), maxUnwindings, 1, order);
+		final FixpointEngine<IntervalState, Edge, Object, Integer> engine = new FixpointEngine<>(params);
+		final AbsIntResult<IntervalState, Edge, Integer> result =
+				engine.run(Collections.singleton(0), new NoopScript());
+		return result.getLoc2SingleStates();
+	}
+
+	private enum Op {
+		ASSIGN, ADD, LESS, GEQ
+	}
+
+	private static final class Edge {
+		private final int mSource;
+		private final int mTarget;
+		private final Op mOp;
+		private final int mVar;
+		private final long mConstant;
+		private final boolean mEntersLoop;
+
+		private Edge(final int source, final int target, final Op op, final int var, final long constant) {
+			this(source, target, op, var, constant, false);
+		}
+
+		private Edge(final int source, final int target, final Op op, final int var, final long constant,
+				final boolean entersLoop) {
+			mSource = source;
+			mTarget = target;
+			mOp = op;
+			mVar = var;
+			mConstant = constant;
+			mEntersLoop = entersLoop;
+		}
+
+		@Override
+		public String toString() {
+			return mSource + " -" + mOp + "(" + mVar + "," + mConstant + ")-> " + mTarget;
+		}
+	}
+
+	/**
+	 * Intervals for the variables i and j, where {@link #INF} represents infinity.
+	 */
+	private static final class IntervalState implements IAbstractState<IntervalState> {
+		private static final IntervalState TOP = new IntervalState(-INF, INF, -INF, INF);
+		private static final IntervalState BOTTOM = new IntervalState(1, 0, 1, 0);
+
+		private final long[] mLower;
+		private final long[] mUpper;
+
+		private IntervalState(final long lowerI, final long upperI, final long lowerJ, final long upperJ) {
+			this(new long[] { lowerI, lowerJ }, new long[] { upperI, upperJ });
+		}
+
+		private IntervalState(final long[] lower, final long[] upper) {
+			mLower = lower;
+			mUpper = upper;
+		}
+
+		private IntervalState post(final Edge edge) {
+			if (isBottom()) {
+				return this;
+			}
+			final long[] lower = mLower.clone();
+			final long[] upper = mUpper.clone();
+			final int var = edge.mVar;
+			switch (edge.mOp) {
+			case ASSIGN:
+				lower[var] = edge.mConstant;
+				upper[var] = edge.mConstant;
+				break;
+			case ADD:
+				lower[var] = add(lower[var], edge.mConstant);
+				upper[var] = add(upper[var], edge.mConstant);
+				break;
+			case LESS:
+				upper[var] = Math.min(upper[var], edge.mConstant - 1);
+				break;
+			case GEQ:
+				lower[var] = Math.max(lower[var], edge.mConstant);
+				break;
+			default:
+				throw new UnsupportedOperationException("Unhandled case " + edge.mOp);
+			}
+			final IntervalState rtr = new IntervalState(lower, upper);
+			return rtr.isBottom() ? BOTTOM : rtr;
+		}
+
+		private static long add(final long bound, final long constant) {
+			if (bound == INF || bound == -INF) {
+				return bound;
+			}
+			return bound + constant;
+		}
+
+		@Override
+		public IntervalState addVariable(final IProgramVarOrConst variable) {
+			return this;
+		}
+
+		@Override
+		public IntervalState removeVariable(final IProgramVarOrConst variable) {
+			return this;
+		}
+
+		@Override
+		public IntervalState addVariables(final Collection<IProgramVarOrConst> variables) {
+			return this;
+		}
+
+		@Override
+		public IntervalState removeVariables(final Collection<IProgramVarOrConst> variables) {
+			return this;
+		}
+
+		@Override
+		public boolean containsVariable(final IProgramVarOrConst var) {
+			return false;
+		}
+
+		@Override
+		public Set<IProgramVarOrConst> getVariables() {
+			return Collections.emptySet();
+		}
+
+		@Override
+		public IntervalState renameVariables(final Map<IProgramVarOrConst, IProgramVarOrConst> old2newVars) {
+			return this;
+		}
+
+		@Override
+		public IntervalState patch(final IntervalState dominator) {
+			return dominator;
+		}
+
+		@Override
+		public IntervalState intersect(final IntervalState other) {
+			final long[] lower = new long[mLower.length];
+			final long[] upper = new long[mUpper.length];
+			for (int i = 0; i < mLower.length; i++) {
+				lower[i] = Math.max(mLower[i], other.mLower[i]);
+				upper[i] = Math.min(mUpper[i], other.mUpper[i]);
+			}
+			final IntervalState rtr = new IntervalState(lower, upper);
+			return rtr.isBottom() ? BOTTOM : rtr;
+		}
+
+		@Override
+		public IntervalState union(final IntervalState other) {
+			if (isBottom()) {
+				return other;
+			}
+			if (other.isBottom()) {
+				return this;
+			}
+			final long[] lower = new long[mLower.length];
+			final long[] upper = new long[mUpper.length];
+			for (int i = 0; i < mLower.length; i++) {
+				lower[i] = Math.min(mLower[i], other.mLower[i]);
+				upper[i] = Math.max(mUpper[i], other.mUpper[i]);
+			}
+			return new IntervalState(lower, upper);
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return false;
+		}
+
+		@Override
+		public boolean isBottom() {
+			for (int i = 0; i < mLower.length; i++) {
+				if (mLower[i] > mUpper[i]) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		@Override
+		public boolean isEqualTo(final IntervalState other) {
+			return equals(other);
+		}
+
+		@Override
+		public SubsetResult isSubsetOf(final IntervalState other) {
+			if (equals(other)) {
+				return SubsetResult.EQUAL;
+			}
+			if (isBottom()) {
+				return SubsetResult.STRICT;
+			}
+			for (int i = 0; i < mLower.length; i++) {
+				if (mLower[i] < other.mLower[i] || mUpper[i] > other.mUpper[i]) {
+					return SubsetResult.NONE;
+				}
+			}
+			return SubsetResult.NON_STRICT;
+		}
+
+		@Override
+		public IntervalState compact() {
+			return this;
+		}
+
+		@Override
+		public Term getTerm(final Script script) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public String toLogString() {
+			return toString();
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * Arrays.hashCode(mLower) + Arrays.hashCode(mUpper);
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (obj == null || getClass() != obj.getClass()) {
+				return false;
+			}
+			final IntervalState other = (IntervalState) obj;
+			return Arrays.equals(mLower, other.mLower) && Arrays.equals(mUpper, other.mUpper);
+		}
+
+		@Override
+		public String toString() {
+			if (isBottom()) {
+				return "bottom";
+			}
+			return "i=[" + mLower[I] + "," + mUpper[I] + "] j=[" + mLower[J] + "," + mUpper[J] + "]";
+		}
+	}
+
+	private static final class Domain implements IAbstractDomain<IntervalState, Edge> {
+		@Override
+		public IntervalState createTopState() {
+			return IntervalState.TOP;
+		}
+
+		@Override
+		public IntervalState createBottomState() {
+			return IntervalState.BOTTOM;
+		}
+
+		@Override
+		public IAbstractStateBinaryOperator<IntervalState> getWideningOperator() {
+			// the intervals are bounded by the guards, the join terminates
+			return IntervalState::union;
+		}
+
+		@Override
+		public IAbstractPostOperator<IntervalState, Edge> getPostOperator() {
+			return new IAbstractPostOperator<IntervalState, Edge>() {
+				@Override
+				public List<IntervalState> apply(final IntervalState oldstate, final Edge transition) {
+					return Collections.singletonList(oldstate.post(transition));
+				}
+
+				@Override
+				public List<IntervalState> apply(final IntervalState stateBeforeLeaving,
+						final IntervalState secondState, final Edge transition) {
+					throw new UnsupportedOperationException("The test programs have no procedures");
+				}
+			};
+		}
+	}
+
+	private static final class TransitionProvider implements ITransitionProvider<Edge, Integer> {
+		private final Map<Integer, List<Edge>> mOutgoing;
+		private final Map<Integer, List<Edge>> mIncoming;
+
+		private TransitionProvider(final List<Edge> edges) {
+			mOutgoing = edges.stream().collect(Collectors.groupingBy(a -> a.mSource));
+			mIncoming = edges.stream().collect(Collectors.groupingBy(a -> a.mTarget));
+		}
+
+		@Override
+		public Collection<Edge> getSuccessors(final Edge action, final Edge scope) {
+			return getSuccessorActions(action.mTarget);
+		}
+
+		@Override
+		public Collection<Edge> getPredecessors(final Edge action, final Edge scope) {
+			return getPredecessorActions(action.mSource);
+		}
+
+		@Override
+		public Collection<Edge> getSuccessorActions(final Integer loc) {
+			return mOutgoing.getOrDefault(loc, Collections.emptyList());
+		}
+
+		@Override
+		public Collection<Edge> getPredecessorActions(final Integer loc) {
+			return mIncoming.getOrDefault(loc, Collections.emptyList());
+		}
+
+		@Override
+		public boolean isErrorLocation(final Integer loc) {
+			return false;
+		}
+
+		@Override
+		public boolean isEnteringScope(final Edge action) {
+			return false;
+		}
+
+		@Override
+		public boolean isEnteringScope(final Edge action, final Edge scope) {
+			return false;
+		}
+
+		@Override
+		public boolean isLeavingScope(final Edge action, final Edge scope) {
+			return false;
+		}
+
+		@Override
+		public boolean isLeavingScope(final Edge action) {
+			return false;
+		}
+
+		@Override
+		public boolean isSummaryForCall(final Edge action, final Edge call) {
+			return false;
+		}
+
+		@Override
+		public boolean isSummaryWithImplementation(final Edge action) {
+			return false;
+		}
+
+		@Override
+		public Integer getSource(final Edge action) {
+			return action.mSource;
+		}
+
+		@Override
+		public Integer getTarget(final Edge action) {
+			return action.mTarget;
+		}
+
+		@Override
+		public Edge getSummaryForCall(final Edge call) {
+			return null;
+		}
+
+		@Override
+		public String getProcedureName(final Edge current) {
+			return "main";
+		}
+
+		@Override
+		public String toLogString(final Edge action) {
+			return action.toString();
+		}
+	}
+
+	private static final class LoopDetector implements ILoopDetector<Edge> {
+		@Override
+		public boolean isEnteringLoop(final Edge transition) {
+			return transition.mEntersLoop;
+		}
+
+		@Override
+		public boolean isLeavingLoop(final Edge transition) {
+			return false;
+		}
+	}
+
+	private static final class VariableProvider implements IVariableProvider<IntervalState, Edge> {
+		@Override
+		public IntervalState defineInitialVariables(final Edge current, final IntervalState state) {
+			return state;
+		}
+
+		@Override
+		public IntervalState defineVariablesAfter(final Edge current, final IntervalState localPreState,
+				final IntervalState hierachicalPreState) {
+			return localPreState;
+		}
+
+		@Override
+		public IntervalState createValidPostOpStateAfterLeaving(final Edge act, final IntervalState origPreLinState,
+				final IntervalState preHierState) {
+			return origPreLinState;
+		}
+
+		@Override
+		public IntervalState createValidPostOpStateBeforeLeaving(final Edge action, final IntervalState stateHier) {
+			return stateHier;
+		}
+
+		@Override
+		public IVariableProvider<IntervalState, Edge> createNewVariableProvider(final CfgSmtToolkit toolkit) {
+			return this;
+		}
+
+		@Override
+		public Set<IProgramVarOrConst> getRequiredVars(final Edge act) {
+			return Collections.emptySet();
+		}
+	}
+
+	/**
+	 * Stores one state per location without scopes.
+	 */
+	private static final class Storage implements IAbstractStateStorage<IntervalState, Edge, Integer> {
+		private final Map<Integer, DisjunctiveAbstractState<IntervalState>> mStates = new HashMap<>();
+
+		@Override
+		public DisjunctiveAbstractState<IntervalState> getAbstractState(final Integer loc) {
+			return mStates.get(loc);
+		}
+
+		@Override
+		public DisjunctiveAbstractState<IntervalState> addAbstractState(final Integer loc,
+				final DisjunctiveAbstractState<IntervalState> state) {
+			return mStates.merge(loc, state, DisjunctiveAbstractState::union);
+		}
+
+		@Override
+		public IAbstractStateStorage<IntervalState, Edge, Integer> createStorage(final Edge scope) {
+			throw new UnsupportedOperationException("The test programs have no procedures");
+		}
+
+		@Override
+		public void scopeFixpointReached() {
+			throw new UnsupportedOperationException("The test programs have no procedures");
+		}
+
+		@Override
+		public void saveSummarySubstituion(final Edge action,
+				final DisjunctiveAbstractState<IntervalState> summaryPostState, final Edge summaryAction) {
+			throw new UnsupportedOperationException("The test programs have no procedures");
+		}
+
+		@Override
+		public Map<Integer, Set<DisjunctiveAbstractState<IntervalState>>> computeLoc2States() {
+			final Map<Integer, Set<DisjunctiveAbstractState<IntervalState>>> rtr = new HashMap<>();
+			mStates.forEach((loc, state) -> rtr.put(loc, Collections.singleton(state)));
+			return rtr;
+		}
+
+		@Override
+		public Set<IntervalState> computeContextSensitiveAbstractPostStates(final Deque<Edge> callStack,
+				final Edge symbol) {
+			throw new UnsupportedOperationException("The test programs have no procedures");
+		}
+	}
+}
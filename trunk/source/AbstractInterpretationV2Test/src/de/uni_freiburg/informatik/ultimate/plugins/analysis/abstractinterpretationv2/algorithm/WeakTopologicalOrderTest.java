@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE AbstractInterpretationV2 plug-in.
+ *
+ * The ULTIMATE AbstractInterpretationV2 plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE AbstractInterpretationV2 plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE AbstractInterpretationV2 plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE AbstractInterpretationV2 plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE AbstractInterpretationV2 plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.plugins.analysis.abstractinterpretationv2.algorithm;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link WeakTopologicalOrder}.
+ */
+public class WeakTopologicalOrderTest {
+
+	/**
+	 * The example from Bourdoncle's paper.
+	 */
+	@Test
+	public void testNestedLoops() {
+		final Map<Integer, Collection<Integer>> graph = new HashMap<>();
+		addEdge(graph, 1, 2);
+		addEdge(graph, 2, 3);
+		addEdge(graph, 2, 8);
+		addEdge(graph, 3, 4);
+		addEdge(graph, 4, 5);
+		addEdge(graph, 4, 7);
+		addEdge(graph, 5, 6);
+		addEdge(graph, 6, 5);
+		addEdge(graph, 6, 7);
+		addEdge(graph, 7, 3);
+		addEdge(graph, 7, 8);
+		final WeakTopologicalOrder<Integer> wto = createWto(graph, 1);
+		Assert.assertEquals("1 2 (3 4 (5 6) 7) 8", wto.toString());
+		checkBackEdges(graph, wto);
+	}
+
+	@Test
+	public void testSelfLoopAndUnreachable() {
+		final Map<Integer, Collection<Integer>> graph = new HashMap<>();
+		addEdge(graph, 1, 1);
+		addEdge(graph, 1, 2);
+		addEdge(graph, 3, 2);
+		final WeakTopologicalOrder<Integer> wto = createWto(graph, 1);
+		Assert.assertEquals("(1) 2", wto.toString());
+		Assert.assertTrue(wto.isHead(1));
+		Assert.assertFalse(wto.isHead(2));
+		Assert.assertEquals(Integer.MAX_VALUE, wto.getPosition(3));
+	}
+
+	/**
+	 * A long chain with a back edge from its end must not overflow the call stack.
+	 */
+	@Test
+	public void testLongLoop() {
+		final int length = 100_000;
+		final Map<Integer, Collection<Integer>> graph = new HashMap<>();
+		for (int i = 0; i < length; i++) {
+			addEdge(graph, i, i + 1);
+		}
+		addEdge(graph, length, 1);
+		final WeakTopologicalOrder<Integer> wto = createWto(graph, 0);
+		Assert.assertEquals(Collections.singleton(1), wto.getHeads());
+		Assert.assertEquals(length + 1, wto.getNodes().size());
+		checkBackEdges(graph, wto);
+	}
+
+	@Test
+	public void testRandomGraphs() {
+		final Random random = new Random(42);
+		for (int round = 0; round < 1000; round++) {
+			final int size = 1 + random.nextInt(20);
+			final Map<Integer, Collection<Integer>> graph = new HashMap<>();
+			for (int i = 0; i < 2 * size; i++) {
+				addEdge(graph, random.nextInt(size), random.nextInt(size));
+			}
+			final WeakTopologicalOrder<Integer> wto = createWto(graph, 0);
+			checkBackEdges(graph, wto);
+		}
+	}
+
+	/**
+	 * Check that every node is reachable and that each edge u -> v either goes forward in the WTO, or v is the head of
+	 * a component that contains u.
+	 */
+	private static void checkBackEdges(final Map<Integer, Collection<Integer>> graph,
+			final WeakTopologicalOrder<Integer> wto) {
+		final List<Integer> nodes = wto.getNodes();
+		for (int i = 0; i < nodes.size(); i++) {
+			Assert.assertEquals(i, wto.getPosition(nodes.get(i)));
+		}
+		for (final Integer source : nodes) {
+			for (final Integer target : graph.getOrDefault(source, Collections.emptyList())) {
+				Assert.assertNotEquals(Integer.MAX_VALUE, wto.getPosition(target));
+				if (wto.getPosition(target) > wto.getPosition(source)) {
+					continue;
+				}
+				Assert.assertTrue("back edge " + source + " -> " + target + " does not lead to a head in " + wto,
+						wto.isHead(target));
+				Assert.assertTrue("back edge " + source + " -> " + target + " leaves its component in " + wto,
+						getComponentNodes(wto, target).contains(source));
+			}
+		}
+	}
+
+	/**
+	 * The component of a head consists of the head and all nodes between the head and the closing parenthesis.
+	 */
+	private static List<Integer> getComponentNodes(final WeakTopologicalOrder<Integer> wto, final Integer head) {
+		final String str = " " + wto.toString().replace("(", "( ").replace(")", " )") + " ";
+		final String[] tokens = str.trim().split(" +");
+		final List<Integer> rtr = new ArrayList<>();
+		int depth = -1;
+		for (int i = 0; i < tokens.length; i++) {
+			if (depth < 0) {
+				if ("(".equals(tokens[i]) && tokens[i + 1].equals(head.toString())) {
+					depth = 0;
+				}
+				continue;
+			}
+			if ("(".equals(tokens[i])) {
+				depth++;
+			} else if (")".equals(tokens[i])) {
+				if (depth == 0) {
+					break;
+				}
+				depth--;
+			} else {
+				rtr.add(Integer.valueOf(tokens[i]));
+			}
+		}
+		return rtr;
+	}
+
+	private static WeakTopologicalOrder<Integer> createWto(final Map<Integer, Collection<Integer>> graph,
+			final int root) {
+		return new WeakTopologicalOrder<>(Collections.singleton(root),
+				node -> graph.getOrDefault(node, Collections.emptyList()));
+	}
+
+	private static void addEdge(final Map<Integer, Collection<Integer>> graph, final int source, final int target) {
+		graph.computeIfAbsent(source, a -> new ArrayList<>()).add(target);
+	}
+}
@@ -0,0 +1,148 @@
+package de.uni_freiburg.informatik.ultimate.plugins.analysis.abstractinterpretationv2.domain.relational.octagon;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the speed of {@link OctMatrix} (BigDecimal entries) and {@link PrimitiveOctMatrix} (double entries) on
+ * random generated matrices. Measures closure, join, widening, and copy.
+ */
+public class BackendSpeedTest {
+
+	// -XX:+PrintCompilation -verbose:gc
+	// -XX:-BackgroundCompilation
+	public static void main(final String[] args) {
+		final BackendSpeedTest st = new BackendSpeedTest();
+		st.addWarmUp(20, 2000);
+		st.addTest(10, 8000);
+		st.addTest(30, 1000);
+		st.addTest(50, 300);
+		st.addTest(100, 40);
+		st.run();
+	}
+
+	private static class Scenario {
+		int vars;
+		int cycles;
+		boolean warmup;
+	}
+
+	private static final String[] OPERATIONS = { "strong", "tight", "join", "widen", "copy" };
+
+	private final List<Scenario> mScenarios = new ArrayList<>();
+
+	/** Measured time in ns from last scenario, indexed by operation. */
+	private final long[] mBigDecimalNanoSeconds = new long[OPERATIONS.length];
+	private final long[] mPrimitiveNanoSeconds = new long[OPERATIONS.length];
+
+	/** Number of closures that fell back to BigDecimal in last scenario. */
+	private int mFallbacks;
+
+	public void addWarmUp(final int variables, final int cycles) {
+		final Scenario s = new Scenario();
+		s.vars = variables;
+		s.cycles = cycles;
+		s.warmup = true;
+		mScenarios.add(s);
+	}
+
+	public void addTest(final int variables, final int cycles) {
+		final Scenario s = new Scenario();
+		s.vars = variables;
+		s.cycles = cycles;
+		s.warmup = false;
+		mScenarios.add(s);
+	}
+
+	public void run() {
+		printTableHeader();
+		for (final Scenario s : mScenarios) {
+			runScenario(s);
+			printTableRow(s);
+		}
+	}
+
+	private void runScenario(final Scenario scenario) {
+		for (int i = 0; i < OPERATIONS.length; ++i) {
+			mBigDecimalNanoSeconds[i] = 0;
+			mPrimitiveNanoSeconds[i] = 0;
+		}
+		mFallbacks = 0;
+		for (int mi = 0; mi < scenario.cycles; ++mi) {
+			final OctMatrix m = OctMatrix.random(scenario.vars);
+			final OctMatrix n = OctMatrix.random(scenario.vars);
+			final PrimitiveOctMatrix pm = PrimitiveOctMatrix.fromOctMatrix(m);
+			final PrimitiveOctMatrix pn = PrimitiveOctMatrix.fromOctMatrix(n);
+			final PrimitiveOctMatrix scratch = new PrimitiveOctMatrix(scenario.vars);
+
+			long t = System.nanoTime();
+			m.strongClosure(OctMatrix::shortestPathClosurePrimitiveSparse);
+			mBigDecimalNanoSeconds[0] += System.nanoTime() - t;
+			scratch.copyFrom(pm);
+			t = System.nanoTime();
+			if (!scratch.strongClosureInPlace()) {
+				++mFallbacks;
+			}
+			mPrimitiveNanoSeconds[0] += System.nanoTime() - t;
+
+			t = System.nanoTime();
+			m.tightClosure(OctMatrix::shortestPathClosurePrimitiveSparse);
+			mBigDecimalNanoSeconds[1] += System.nanoTime() - t;
+			scratch.copyFrom(pm);
+			t = System.nanoTime();
+			if (!scratch.tightClosureInPlace()) {
+				++mFallbacks;
+			}
+			mPrimitiveNanoSeconds[1] += System.nanoTime() - t;
+
+			t = System.nanoTime();
+			OctMatrix.max(m, n);
+			mBigDecimalNanoSeconds[2] += System.nanoTime() - t;
+			scratch.copyFrom(pm);
+			t = System.nanoTime();
+			scratch.maxInPlace(pn);
+			mPrimitiveNanoSeconds[2] += System.nanoTime() - t;
+
+			t = System.nanoTime();
+			m.widenSimple(n);
+			mBigDecimalNanoSeconds[3] += System.nanoTime() - t;
+			scratch.copyFrom(pm);
+			t = System.nanoTime();
+			scratch.widenSimpleInPlace(pn);
+			mPrimitiveNanoSeconds[3] += System.nanoTime() - t;
+
+			t = System.nanoTime();
+			m.copy();
+			mBigDecimalNanoSeconds[4] += System.nanoTime() - t;
+			t = System.nanoTime();
+			scratch.copyFrom(pm);
+			mPrimitiveNanoSeconds[4] += System.nanoTime() - t;
+		}
+	}
+
+	private static void printTableHeader() {
+		System.out.print("vars | cycles |");
+		for (final String op : OPERATIONS) {
+			System.out.format(" | %8s big | %8s dbl", op, op);
+		}
+		System.out.println(" | fallbacks");
+		System.out.print("-----+--------+");
+		for (int i = 0; i < OPERATIONS.length; ++i) {
+			System.out.print("-+--------------+-------------");
+		}
+		System.out.println("-+----------");
+	}
+
+	private void printTableRow(final Scenario s) {
+		System.out.format("% 4d | %6d |", s.vars, s.cycles);
+		for (int i = 0; i < OPERATIONS.length; ++i) {
+			if (s.warmup) {
+				System.out.format(" |      warm-up |      warm-up");
+			} else {
+				System.out.format(" | %10.3f s | %10.3f s", mBigDecimalNanoSeconds[i] * 1e-9,
+						mPrimitiveNanoSeconds[i] * 1e-9);
+			}
+		}
+		System.out.format(" | %9d%n", mFallbacks);
+	}
+}
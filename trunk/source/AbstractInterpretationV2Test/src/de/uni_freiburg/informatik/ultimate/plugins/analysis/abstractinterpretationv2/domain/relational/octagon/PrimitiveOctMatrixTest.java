@@ -0,0 +1,105 @@
+package de.uni_freiburg.informatik.ultimate.plugins.analysis.abstractinterpretationv2.domain.relational.octagon;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PrimitiveOctMatrixTest {
+
+	@Test
+	public void testConversion() {
+		final OctMatrix m = OctMatrix.parseBlockLowerTriangular("0 inf -2.5 9 1e3 -0.75 0 7 123456789 inf -3 0");
+		assertIsEqualTo(m, PrimitiveOctMatrix.fromOctMatrix(m).toOctMatrix());
+		Assert.assertNull(PrimitiveOctMatrix.fromOctMatrix(OctMatrix.parseBlockLowerTriangular("0 0.1 0 0")));
+		Assert.assertNull(PrimitiveOctMatrix.fromOctMatrix(OctMatrix.parseBlockLowerTriangular("0 1e400 0 0")));
+	}
+
+	@Test
+	public void testStrongClosureByComparingRandom() {
+		for (int testcase = 0; testcase < 2000; ++testcase) {
+			final OctMatrix m = OctMatrix.random((int) (Math.random() * 10) + 1);
+			final OctMatrix expected = m.strongClosure(OctMatrix::shortestPathClosurePrimitiveSparse);
+			final PrimitiveOctMatrix p = PrimitiveOctMatrix.fromOctMatrix(m);
+			Assert.assertTrue(p.strongClosureInPlace());
+			assertIsEqualTo(expected, p.toOctMatrix());
+			assertIsEqualTo(expected, m.cachedStrongClosure());
+		}
+	}
+
+	@Test
+	public void testTightClosureByComparingRandom() {
+		for (int testcase = 0; testcase < 2000; ++testcase) {
+			final OctMatrix m = OctMatrix.random((int) (Math.random() * 10) + 1);
+			final OctMatrix expected = m.tightClosure(OctMatrix::shortestPathClosurePrimitiveSparse);
+			final PrimitiveOctMatrix p = PrimitiveOctMatrix.fromOctMatrix(m);
+			Assert.assertTrue(p.tightClosureInPlace());
+			assertIsEqualTo(expected, p.toOctMatrix());
+			assertIsEqualTo(expected, m.cachedTightClosure());
+		}
+	}
+
+	@Test
+	public void testClosureOfStrongClosure() {
+		// strong closures contain halves, their closures contain quarters, and so on
+		for (int testcase = 0; testcase < 200; ++testcase) {
+			OctMatrix m = OctMatrix.random((int) (Math.random() * 6) + 1, 0.3);
+			for (int iteration = 0; iteration < 4; ++iteration) {
+				m = incrementFirstVar(m.strongClosure(OctMatrix::shortestPathClosurePrimitiveSparse),
+						new OctValue(1).half());
+				// closures of bottom octagons may contain huge values => fall back to BigDecimal
+				final PrimitiveOctMatrix p = PrimitiveOctMatrix.fromOctMatrix(m);
+				if (p != null && p.strongClosureInPlace()) {
+					assertIsEqualTo(m.strongClosure(OctMatrix::shortestPathClosurePrimitiveSparse), p.toOctMatrix());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testFallbackOnLargeValues() {
+		final OctMatrix m = OctMatrix.parseBlockLowerTriangular("0 9007199254740992 0 0");
+		Assert.assertFalse(PrimitiveOctMatrix.fromOctMatrix(m).strongClosureInPlace());
+		assertIsEqualTo(m.strongClosure(OctMatrix::shortestPathClosurePrimitiveSparse), m.cachedStrongClosure());
+	}
+
+	@Test
+	public void testCopy() {
+		final OctMatrix m = OctMatrix.random(5);
+		final PrimitiveOctMatrix p = PrimitiveOctMatrix.fromOctMatrix(m);
+		final PrimitiveOctMatrix copy = p.copy();
+		Assert.assertTrue(p.isEqualTo(copy));
+		copy.set(0, 1, -100);
+		Assert.assertFalse(p.isEqualTo(copy));
+		copy.copyFrom(p);
+		Assert.assertTrue(p.isEqualTo(copy));
+	}
+
+	/**
+	 * Copies a matrix and increments its first variable by a constant, as {@link OctMatrix#incrementVar(int, OctValue)}
+	 * does. Unlike {@link OctMatrix#incrementVar(int, OctValue)} the constant may be non-integral, since the copy has no
+	 * cached tight closure.
+	 */
+	private static OctMatrix incrementFirstVar(final OctMatrix m, final OctValue constant) {
+		final OctValue doubleConstant = constant.add(constant);
+		final OctMatrix result = new OctMatrix(m.variables());
+		for (int row = 0; row < m.getSize(); ++row) {
+			final int maxCol = row | 1;
+			for (int col = 0; col <= maxCol; ++col) {
+				OctValue value = m.get(row, col);
+				if (row >= 2) {
+					value = col == 0 ? value.add(constant) : col == 1 ? value.subtract(constant) : value;
+				} else if (row == 1 && col == 0) {
+					value = value.add(doubleConstant);
+				} else if (row == 0 && col == 1) {
+					value = value.subtract(doubleConstant);
+				}
+				result.set(row, col, value);
+			}
+		}
+		return result;
+	}
+
+	private static void assertIsEqualTo(final OctMatrix expected, final OctMatrix actual) {
+		final String msg = "expected:\n" + expected + "actual:\n" + actual;
+		Assert.assertTrue(msg, expected.isEqualTo(actual));
+	}
+}
@@ -34,6 +34,7 @@ import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 
 import de.uni_freiburg.informatik.ultimate.lassoranker.LassoAnalysis.PreprocessingBenchmark;
@@ -66,6 +67,9 @@ public class BuchiCegarLoopBenchmark extends CegarStatisticsType implements ISta
 	public static final String s_LassoPreprocessingBenchmarks = "LassoPreprocessingBenchmarks";
 	public static final String s_LassoTerminationAnalysisBenchmarks = "LassoTerminationAnalysisBenchmarks";
 	public static final String s_LassoNonterminationAnalysisBenchmarks = "LassoNonterminationAnalysisBenchmarks";
+	public static final String s_LassoTerminationAnalysisTemplateTimes = "LassoTerminationAnalysisTemplateTimes";
+	public static final String s_LassoTerminationAnalysisCanceledTemplates =
+			"LassoTerminationAnalysisCanceledTemplates";
 	public static final String s_LassoNonterminationAnalysisSATFixpoint = "LassoNonterminationAnalysisSatFixpoint";
 	public static final String s_LassoNonterminationAnalysisSATUnbounded = "LassoNonterminationAnalysisSatUnbounded";
 	public static final String s_LassoNonterminationAnalysisUNSAT = "LassoNonterminationAnalysisUnsat";
@@ -91,6 +95,8 @@ public class BuchiCegarLoopBenchmark extends CegarStatisticsType implements ISta
 		keyList.add(s_InterpolantCoveringCapabilityBuchi);
 		keyList.add(s_LassoPreprocessingBenchmarks);
 		keyList.add(s_LassoTerminationAnalysisBenchmarks);
+		keyList.add(s_LassoTerminationAnalysisTemplateTimes);
+		keyList.add(s_LassoTerminationAnalysisCanceledTemplates);
 		keyList.add(s_LassoNonterminationAnalysisSATFixpoint);
 		keyList.add(s_LassoNonterminationAnalysisSATUnbounded);
 		keyList.add(s_LassoNonterminationAnalysisUNSAT);
@@ -138,6 +144,10 @@ public class BuchiCegarLoopBenchmark extends CegarStatisticsType implements ISta
 			final BackwardCoveringInformation bci1 = (BackwardCoveringInformation) value1;
 			final BackwardCoveringInformation bci2 = (BackwardCoveringInformation) value2;
 			return new BackwardCoveringInformation(bci1, bci2);
+		case s_LassoTerminationAnalysisTemplateTimes:
+			return new TemplateTimes((TemplateTimes) value1, (TemplateTimes) value2);
+		case s_LassoTerminationAnalysisCanceledTemplates:
+			return (Integer) value1 + (Integer) value2;
 		case s_LassoPreprocessingBenchmarks:
 		case s_LassoTerminationAnalysisBenchmarks:
 		case s_HighestRank:
@@ -263,6 +273,16 @@ public class BuchiCegarLoopBenchmark extends CegarStatisticsType implements ISta
 		sb.append(s_LassoTerminationAnalysisBenchmarks);
 		sb.append(": ");
 
+		sb.append(s_LassoTerminationAnalysisTemplateTimes);
+		sb.append(": ");
+		sb.append(benchmarkData.getValue(s_LassoTerminationAnalysisTemplateTimes));
+		sb.append("\t");
+
+		sb.append(s_LassoTerminationAnalysisCanceledTemplates);
+		sb.append(": ");
+		sb.append(benchmarkData.getValue(s_LassoTerminationAnalysisCanceledTemplates));
+		sb.append("\t");
+
 		sb.append(s_LassoNonterminationAnalysisSATFixpoint);
 		sb.append(": ");
 		sb.append(benchmarkData.getValue(s_LassoNonterminationAnalysisSATFixpoint));
@@ -371,6 +391,44 @@ public class BuchiCegarLoopBenchmark extends CegarStatisticsType implements ISta
 	}
 	
 	
+	/**
+	 * Time in nanoseconds that the termination analysis spent per ranking template.
+	 */
+	public static class TemplateTimes {
+		private final Map<String, Long> mTimes;
+
+		public TemplateTimes() {
+			mTimes = new LinkedHashMap<>();
+		}
+
+		public TemplateTimes(final TemplateTimes times1, final TemplateTimes times2) {
+			mTimes = new LinkedHashMap<>(times1.mTimes);
+			addAll(times2.mTimes);
+		}
+
+		public void addAll(final Map<String, Long> times) {
+			for (final Entry<String, Long> entry : times.entrySet()) {
+				mTimes.merge(entry.getKey(), entry.getValue(), Long::sum);
+			}
+		}
+
+		public Map<String, Long> getTimes() {
+			return Collections.unmodifiableMap(mTimes);
+		}
+
+		@Override
+		public String toString() {
+			final StringBuilder sb = new StringBuilder();
+			for (final Entry<String, Long> entry : mTimes.entrySet()) {
+				sb.append(entry.getKey());
+				sb.append(": ");
+				sb.append(prettyprintNanoseconds(entry.getValue()));
+				sb.append(" ");
+			}
+			return sb.toString();
+		}
+	}
+
 	public static class LassoAnalysisResults implements IStatisticsDataProvider, IStatisticsType {
 		public static final String s_LassoNonterminating = "nont";
 		public static final String s_TerminationUnknown = "unkn";
@@ -35,6 +35,7 @@ import de.uni_freiburg.informatik.ultimate.lassoranker.termination.Nonterminatio
 import de.uni_freiburg.informatik.ultimate.lassoranker.termination.TerminationAnalysisBenchmark;
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.structure.IIcfgTransition;
 import de.uni_freiburg.informatik.ultimate.plugins.generator.buchiautomizer.BuchiCegarLoopBenchmark.LassoAnalysisResults;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.buchiautomizer.BuchiCegarLoopBenchmark.TemplateTimes;
 import de.uni_freiburg.informatik.ultimate.plugins.generator.buchiautomizer.LassoCheck.ContinueDirective;
 import de.uni_freiburg.informatik.ultimate.plugins.generator.buchiautomizer.LassoCheck.LassoCheckResult;
 import de.uni_freiburg.informatik.ultimate.plugins.generator.buchiautomizer.LassoCheck.SynthesisResult;
@@ -57,6 +58,8 @@ public class BuchiCegarLoopBenchmarkGenerator extends CegarLoopStatisticsGenerat
 			new ArrayList<>();
 	private final List<NonterminationAnalysisBenchmark> mNonterminationAnalysisBenchmarks =
 			new ArrayList<>();
+	private final TemplateTimes mTemplateTimes = new TemplateTimes();
+	private int mCanceledTemplates = 0;
 	private int mLassoNonterminationAnalysisSATFixpoint = 0;
 	private int mLassoNonterminationAnalysisSATUnbounded = 0;
 	private int mLassoNonterminationAnalysisUNSAT = 0;
@@ -119,6 +122,10 @@ public class BuchiCegarLoopBenchmarkGenerator extends CegarLoopStatisticsGenerat
 			return mPreprocessingBenchmarks;
 		case BuchiCegarLoopBenchmark.s_LassoTerminationAnalysisBenchmarks:
 			return mTerminationAnalysisBenchmarks;
+		case BuchiCegarLoopBenchmark.s_LassoTerminationAnalysisTemplateTimes:
+			return mTemplateTimes;
+		case BuchiCegarLoopBenchmark.s_LassoTerminationAnalysisCanceledTemplates:
+			return mCanceledTemplates;
 		case BuchiCegarLoopBenchmark.s_LassoNonterminationAnalysisSATFixpoint:
 			return mLassoNonterminationAnalysisSATFixpoint;
 		case BuchiCegarLoopBenchmark.s_LassoNonterminationAnalysisSATUnbounded:
@@ -143,6 +150,8 @@ public class BuchiCegarLoopBenchmarkGenerator extends CegarLoopStatisticsGenerat
 		mPreprocessingBenchmarks.addAll(lassoCheck.getPreprocessingBenchmarks());
 		mTerminationAnalysisBenchmarks.addAll(lassoCheck.getTerminationAnalysisBenchmarks());
 		mNonterminationAnalysisBenchmarks.addAll(lassoCheck.getNonterminationAnalysisBenchmarks());
+		mTemplateTimes.addAll(lassoCheck.getTemplateTimes());
+		mCanceledTemplates += lassoCheck.getCanceledTemplates();
 		for (final NonterminationAnalysisBenchmark nab : lassoCheck.getNonterminationAnalysisBenchmarks()) {
 			switch (nab.getConstraintsSatisfiability()) {
 			case SAT:
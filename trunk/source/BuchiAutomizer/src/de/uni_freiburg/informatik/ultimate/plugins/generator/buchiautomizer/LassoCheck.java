@@ -29,7 +29,10 @@ package de.uni_freiburg.informatik.ultimate.plugins.generator.buchiautomizer;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.INestedWordAutomaton;
@@ -147,6 +150,11 @@ public class LassoCheck<LETTER extends IIcfgTransition<?>> {
 	 */
 	private final boolean mTemplateBenchmarkMode;
 
+	/**
+	 * If greater than one, we try the ranking templates concurrently with this number of threads.
+	 */
+	private final int mTemplatePortfolioThreads;
+
 	// ////////////////////////////// input /////////////////////////////////
 	/**
 	 * Intermediate layer to encapsulate communication with SMT solvers.
@@ -191,6 +199,8 @@ public class LassoCheck<LETTER extends IIcfgTransition<?>> {
 
 	private final List<TerminationAnalysisBenchmark> mTerminationAnalysisBenchmarks = new ArrayList<>();
 	private final List<NonterminationAnalysisBenchmark> mNonterminationAnalysisBenchmarks = new ArrayList<>();
+	private final Map<String, Long> mTemplateTimes = new LinkedHashMap<>();
+	private int mCanceledTemplates;
 
 	private final RefinementStrategyFactory<LETTER> mRefinementStrategyFactory;
 
@@ -242,6 +252,20 @@ public class LassoCheck<LETTER extends IIcfgTransition<?>> {
 		return mNonterminationAnalysisBenchmarks;
 	}
 
+	/**
+	 * @return time in nanoseconds that was spent on each ranking template
+	 */
+	public Map<String, Long> getTemplateTimes() {
+		return Collections.unmodifiableMap(mTemplateTimes);
+	}
+
+	/**
+	 * @return number of ranking templates that were canceled because another template was successful
+	 */
+	public int getCanceledTemplates() {
+		return mCanceledTemplates;
+	}
+
 	public LassoCheck(final InterpolationTechnique interpolation, final CfgSmtToolkit csToolkit,
 			final PredicateFactory predicateFactory, final IIcfgSymbolTable symbolTable,
 			final ModifiableGlobalsTable modifiableGlobalsTable, final IPredicate axioms,
@@ -264,6 +288,8 @@ public class LassoCheck<LETTER extends IIcfgTransition<?>> {
 		mGntaDirections = baPref.getInt(BuchiAutomizerPreferenceInitializer.LABEL_GNTA_DIRECTIONS);
 
 		mTemplateBenchmarkMode = baPref.getBoolean(BuchiAutomizerPreferenceInitializer.LABEL_TEMPLATE_BENCHMARK_MODE);
+		mTemplatePortfolioThreads =
+				baPref.getInt(BuchiAutomizerPreferenceInitializer.LABEL_TEMPLATE_PORTFOLIO_THREADS);
 		mTrySimplificationTerminationArgument = baPref.getBoolean(BuchiAutomizerPreferenceInitializer.LABEL_SIMPLIFY);
 		mTryTwofoldRefinement = baPref.getBoolean(BuchiAutomizerPreferenceInitializer.LABEL_TRY_TWOFOLD_REFINEMENT);
 		mCsToolkit = csToolkit;
@@ -883,18 +909,28 @@ public class LassoCheck<LETTER extends IIcfgTransition<?>> {
 		final Set<IProgramNonOldVar> modifiableGlobals =
 				mCsToolkit.getModifiableGlobalsTable().getModifiedBoogieVars(hondaProcedure);
 
+		if (mTemplatePortfolioThreads > 1 && !mTemplateBenchmarkMode && rankingFunctionTemplates.size() > 1) {
+			return tryTemplatesInParallelAndComputePredicates(withStem, la, rankingFunctionTemplates, stemTF, loopTF,
+					modifiableGlobals);
+		}
+
 		TerminationArgument firstTerminationArgument = null;
 		for (final RankingTemplate rft : rankingFunctionTemplates) {
 			TerminationArgument termArg;
 			try {
 				final TerminationAnalysisSettings settings = constructTASettings();
+				final int numberOfOldBenchmarks = la.getTerminationAnalysisBenchmarks().size();
 				termArg = la.tryTemplate(rft, settings);
 				if (!mServices.getProgressMonitorService().continueProcessing()) {
 					throw new ToolchainCanceledException(this.getClass(),
 							generateRunningTaskInfo(stemTF, loopTF, withStem, rft));
 				}
-				final List<TerminationAnalysisBenchmark> benchs = la.getTerminationAnalysisBenchmarks();
+				final List<TerminationAnalysisBenchmark> benchs = la.getTerminationAnalysisBenchmarks()
+						.subList(numberOfOldBenchmarks, la.getTerminationAnalysisBenchmarks().size());
 				mTerminationAnalysisBenchmarks.addAll(benchs);
+				for (final TerminationAnalysisBenchmark bench : benchs) {
+					mTemplateTimes.merge(rft.getName(), bench.getTime(), Long::sum);
+				}
 				if (mTemplateBenchmarkMode) {
 					for (final TerminationAnalysisBenchmark bench : benchs) {
 						final IResult benchmarkResult = new StatisticsResult<>(Activator.PLUGIN_ID,
@@ -936,6 +972,39 @@ public class LassoCheck<LETTER extends IIcfgTransition<?>> {
 		return null;
 	}
 
+	/**
+	 * Try all templates concurrently (see {@link RankingTemplatePortfolio}) and compute the predicates for the
+	 * termination argument that was found first.
+	 */
+	private TerminationArgument tryTemplatesInParallelAndComputePredicates(final boolean withStem,
+			final LassoAnalysis la, final List<RankingTemplate> rankingFunctionTemplates,
+			final UnmodifiableTransFormula stemTF, final UnmodifiableTransFormula loopTF,
+			final Set<IProgramNonOldVar> modifiableGlobals) {
+		final RankingTemplatePortfolio portfolio =
+				new RankingTemplatePortfolio(mServices, mStorage, mLogger, mTemplatePortfolioThreads);
+		final TerminationArgument termArg;
+		try {
+			termArg = portfolio.execute(la, rankingFunctionTemplates, constructTASettings());
+		} finally {
+			mTerminationAnalysisBenchmarks.addAll(portfolio.getBenchmarks());
+			for (final Map.Entry<String, Long> entry : portfolio.getTemplateTimes().entrySet()) {
+				mTemplateTimes.merge(entry.getKey(), entry.getValue(), Long::sum);
+			}
+			mCanceledTemplates += portfolio.getCanceledTemplates();
+		}
+		if (termArg == null) {
+			return null;
+		}
+		assert termArg.getRankingFunction() != null;
+		assert termArg.getSupportingInvariants() != null;
+		mBspm.computePredicates(!withStem, termArg, mRemoveSuperfluousSupportingInvariants, stemTF, loopTF,
+				modifiableGlobals);
+		assert mBspm.providesPredicates();
+		assert isRankingFunctionCorrect() : "incorrect ranking function with"
+				+ portfolio.getSuccessfulTemplate().getClass().getSimpleName();
+		return termArg;
+	}
+
 	private static String generateRunningTaskInfo(final UnmodifiableTransFormula stemTF,
 			final UnmodifiableTransFormula loopTF, final boolean withStem, final RankingTemplate rft) {
 		return "applying " + rft.getName() + " template (degree " + rft.getDegree() + "), stem dagsize "
@@ -0,0 +1,350 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE BuchiAutomizer plug-in.
+ *
+ * The ULTIMATE BuchiAutomizer plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE BuchiAutomizer plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE BuchiAutomizer plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE BuchiAutomizer plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE BuchiAutomizer plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.plugins.generator.buchiautomizer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.uni_freiburg.informatik.ultimate.core.lib.exceptions.ToolchainCanceledException;
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IStorable;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IToolchainStorage;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
+import de.uni_freiburg.informatik.ultimate.lassoranker.LassoAnalysis;
+import de.uni_freiburg.informatik.ultimate.lassoranker.termination.TerminationAnalysisBenchmark;
+import de.uni_freiburg.informatik.ultimate.lassoranker.termination.TerminationAnalysisSettings;
+import de.uni_freiburg.informatik.ultimate.lassoranker.termination.TerminationArgument;
+import de.uni_freiburg.informatik.ultimate.lassoranker.termination.templates.RankingTemplate;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.tracehandling.CancelableServices;
+
+/**
+ * Tries several {@link RankingTemplate}s for the same lasso concurrently. Each template is tried with its own solver
+ * (see {@link LassoAnalysis#tryTemplate(RankingTemplate, TerminationAnalysisSettings, IUltimateServiceProvider,
+ * IToolchainStorage, List)}). As soon as one template yields a termination argument, the remaining templates are
+ * canceled through their {@link CancelableServices} and we wait until they have closed their solvers.
+ * <p>
+ * The termination argument of the template that finished first is returned, which need not be the template that
+ * comes first in the list.
+ */
+class RankingTemplatePortfolio {
+
+	private static final String THREAD_NAME_PREFIX = "RankingTemplatePortfolio-";
+	private static final long POLL_INTERVAL_MILLIS = 100L;
+
+	private final IUltimateServiceProvider mServices;
+	private final IToolchainStorage mStorage;
+	private final ILogger mLogger;
+	private final int mMaxThreads;
+
+	/* outputs */
+	private final List<TerminationAnalysisBenchmark> mBenchmarks;
+	private final Map<String, Long> mTemplateTimes;
+	private RankingTemplate mSuccessfulTemplate;
+	private int mCanceledTemplates;
+
+	/**
+	 * @param maxThreads
+	 *            maximal number of templates that are tried at the same time
+	 */
+	RankingTemplatePortfolio(final IUltimateServiceProvider services, final IToolchainStorage storage,
+			final ILogger logger, final int maxThreads) {
+		mServices = services;
+		mStorage = new SynchronizedToolchainStorage(storage);
+		mLogger = logger;
+		mMaxThreads = maxThreads;
+		mBenchmarks = new ArrayList<>();
+		mTemplateTimes = new LinkedHashMap<>();
+	}
+
+	/**
+	 * Tries all templates and blocks until one template was successful or all templates failed.
+	 *
+	 * @return the termination argument found first, or null if no template was successful
+	 */
+	TerminationArgument execute(final LassoAnalysis la, final List<RankingTemplate> templates,
+			final TerminationAnalysisSettings settings) {
+		final int numberOfThreads = Math.max(1, Math.min(mMaxThreads, templates.size()));
+		mLogger.info("Trying " + templates.size() + " ranking templates in parallel with " + numberOfThreads
+				+ " threads");
+		final ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads, new PortfolioThreadFactory());
+		final CompletionService<TerminationArgument> completionService = new ExecutorCompletionService<>(executor);
+		final Map<Future<TerminationArgument>, Member> futures = new HashMap<>();
+		for (final RankingTemplate template : templates) {
+			final Member member = new Member(la, template, settings);
+			futures.put(completionService.submit(member), member);
+		}
+
+		TerminationArgument result = null;
+		try {
+			while (result == null && !futures.isEmpty()) {
+				if (!mServices.getProgressMonitorService().continueProcessing()) {
+					throw new ToolchainCanceledException(getClass(), getTaskDescription(templates));
+				}
+				final Future<TerminationArgument> future =
+						completionService.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+				if (future == null) {
+					continue;
+				}
+				final Member member = futures.remove(future);
+				result = getMemberResult(member, future);
+				if (result != null) {
+					mSuccessfulTemplate = member.mTemplate;
+					mLogger.info("Template " + member.mTemplate.getName() + " was successful first");
+				}
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ToolchainCanceledException(getClass(), getTaskDescription(templates));
+		} finally {
+			cancelAndWait(futures);
+			executor.shutdown();
+		}
+		return result;
+	}
+
+	/**
+	 * Cancel all members that did not finish yet and wait until the running ones have closed their solvers.
+	 */
+	private void cancelAndWait(final Map<Future<TerminationArgument>, Member> futures) {
+		for (final Member member : futures.values()) {
+			member.mMemberServices.cancel();
+		}
+		mCanceledTemplates = futures.size();
+		if (mCanceledTemplates > 0) {
+			mLogger.info("Canceled " + mCanceledTemplates + " ranking templates");
+		}
+		for (final Future<TerminationArgument> future : futures.keySet()) {
+			while (true) {
+				try {
+					future.get(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+					break;
+				} catch (final TimeoutException e) {
+					if (!mServices.getProgressMonitorService().continueProcessingRoot()) {
+						// the solvers are shut down together with the toolchain
+						return;
+					}
+				} catch (final ExecutionException e) {
+					break;
+				} catch (final InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+			reportMember(futures.get(future));
+		}
+	}
+
+	private TerminationArgument getMemberResult(final Member member, final Future<TerminationArgument> future)
+			throws InterruptedException {
+		final TerminationArgument termArg;
+		try {
+			termArg = future.get();
+		} catch (final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof ToolchainCanceledException) {
+				throw (ToolchainCanceledException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			mLogger.warn("Template " + member.mTemplate.getName() + " crashed: " + cause);
+			return null;
+		} finally {
+			reportMember(member);
+		}
+		return termArg;
+	}
+
+	private void reportMember(final Member member) {
+		mBenchmarks.addAll(member.mMemberBenchmarks);
+		if (member.mStartTime != 0) {
+			mTemplateTimes.merge(member.mTemplate.getName(), member.mEndTime - member.mStartTime, Long::sum);
+		}
+	}
+
+	private static String getTaskDescription(final List<RankingTemplate> templates) {
+		return "applying " + templates.size() + " ranking templates in parallel";
+	}
+
+	/**
+	 * @return benchmarks of all templates that were tried, in the order in which the templates finished
+	 */
+	List<TerminationAnalysisBenchmark> getBenchmarks() {
+		return Collections.unmodifiableList(mBenchmarks);
+	}
+
+	/**
+	 * @return wall time in nanoseconds that each template ran, including templates that were canceled
+	 */
+	Map<String, Long> getTemplateTimes() {
+		return Collections.unmodifiableMap(mTemplateTimes);
+	}
+
+	/**
+	 * @return the template whose termination argument was returned by {@link #execute}, or null
+	 */
+	RankingTemplate getSuccessfulTemplate() {
+		return mSuccessfulTemplate;
+	}
+
+	int getCanceledTemplates() {
+		return mCanceledTemplates;
+	}
+
+	/**
+	 * Tries a single template. Everything the member modifies (its template, its solver, its benchmarks) is owned by
+	 * the member, the {@link LassoAnalysis} is only read.
+	 */
+	private final class Member implements Callable<TerminationArgument> {
+		private final LassoAnalysis mLassoAnalysis;
+		private final RankingTemplate mTemplate;
+		private final TerminationAnalysisSettings mSettings;
+		private final CancelableServices mMemberServices;
+		private final List<TerminationAnalysisBenchmark> mMemberBenchmarks;
+		private volatile long mStartTime;
+		private volatile long mEndTime;
+
+		Member(final LassoAnalysis la, final RankingTemplate template, final TerminationAnalysisSettings settings) {
+			mLassoAnalysis = la;
+			mTemplate = template;
+			mSettings = settings;
+			mMemberServices = new CancelableServices(mServices);
+			mMemberBenchmarks = new ArrayList<>();
+		}
+
+		@Override
+		public TerminationArgument call() throws Exception {
+			if (!mMemberServices.getProgressMonitorService().continueProcessing()) {
+				// canceled before we started
+				return null;
+			}
+			mStartTime = System.nanoTime();
+			try {
+				return mLassoAnalysis.tryTemplate(mTemplate, mSettings, mMemberServices, mStorage, mMemberBenchmarks);
+			} finally {
+				mEndTime = System.nanoTime();
+			}
+		}
+	}
+
+	/**
+	 * Names the threads of the portfolio and makes them daemons s.t. canceled templates whose solver does not react
+	 * do not keep Ultimate alive.
+	 */
+	private static final class PortfolioThreadFactory implements ThreadFactory {
+		private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+		@Override
+		public Thread newThread(final Runnable runnable) {
+			final Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + THREAD_COUNTER.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+
+	/**
+	 * The solvers of the members register themselves in the toolchain storage, hence all accesses of the members are
+	 * synchronized.
+	 */
+	private static final class SynchronizedToolchainStorage implements IToolchainStorage {
+		private final IToolchainStorage mBackingStorage;
+
+		SynchronizedToolchainStorage(final IToolchainStorage backingStorage) {
+			mBackingStorage = backingStorage;
+		}
+
+		@Override
+		public boolean destroyStorable(final String key) {
+			synchronized (mBackingStorage) {
+				return mBackingStorage.destroyStorable(key);
+			}
+		}
+
+		@Override
+		public IStorable removeStorable(final String key) {
+			synchronized (mBackingStorage) {
+				return mBackingStorage.removeStorable(key);
+			}
+		}
+
+		@Override
+		public IStorable getStorable(final String key) {
+			synchronized (mBackingStorage) {
+				return mBackingStorage.getStorable(key);
+			}
+		}
+
+		@Override
+		public IStorable putStorable(final String key, final IStorable value) {
+			synchronized (mBackingStorage) {
+				return mBackingStorage.putStorable(key, value);
+			}
+		}
+
+		@Override
+		public void clear() {
+			synchronized (mBackingStorage) {
+				mBackingStorage.clear();
+			}
+		}
+
+		@Override
+		public Set<String> keys() {
+			synchronized (mBackingStorage) {
+				return mBackingStorage.keys();
+			}
+		}
+
+		@Override
+		public void pushMarker(final Object marker) {
+			synchronized (mBackingStorage) {
+				mBackingStorage.pushMarker(marker);
+			}
+		}
+
+		@Override
+		public Set<String> destroyMarker(final Object marker) {
+			synchronized (mBackingStorage) {
+				return mBackingStorage.destroyMarker(marker);
+			}
+		}
+	}
+}
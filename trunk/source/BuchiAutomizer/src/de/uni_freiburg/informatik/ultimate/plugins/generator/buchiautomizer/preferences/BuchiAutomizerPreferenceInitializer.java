@@ -109,6 +109,12 @@ public class BuchiAutomizerPreferenceInitializer extends UltimatePreferenceIniti
 	public static final String LABEL_GNTA_DIRECTIONS = "Number of GNTA directions";
 	private static final int DEF_GNTA_DIRECTIONS = 3;
 	public static final String LABEL_TEMPLATE_BENCHMARK_MODE = "Template benchmark mode";
+	public static final String LABEL_TEMPLATE_PORTFOLIO_THREADS = "Number of threads for ranking template portfolio";
+	private static final int DEF_TEMPLATE_PORTFOLIO_THREADS = 1;
+	private static final String DESC_TEMPLATE_PORTFOLIO_THREADS =
+			"If greater than 1, the ranking templates are tried in parallel, each with its own solver, and all "
+					+ "templates are canceled as soon as one template yields a termination argument. "
+					+ "Ignored in template benchmark mode.";
 	public static final String LABEL_DUMP_SCRIPT_TO_FILE = "Dump SMT script to file";
 	public static final String LABEL_DUMP_SCRIPT_PATH = "To the following directory";
 	private static final String DEF_DUMP_SCRIPT_PATH = "";
@@ -181,6 +187,9 @@ public class BuchiAutomizerPreferenceInitializer extends UltimatePreferenceIniti
 						AnalysisType.values()),
 				new UltimatePreferenceItem<>(LABEL_GNTA_DIRECTIONS, DEF_GNTA_DIRECTIONS, PreferenceType.Integer),
 				new UltimatePreferenceItem<>(LABEL_TEMPLATE_BENCHMARK_MODE, false, PreferenceType.Boolean),
+				new UltimatePreferenceItem<>(LABEL_TEMPLATE_PORTFOLIO_THREADS, DEF_TEMPLATE_PORTFOLIO_THREADS,
+						DESC_TEMPLATE_PORTFOLIO_THREADS, PreferenceType.Integer,
+						new IUltimatePreferenceItemValidator.IntegerValidator(1, 64)),
 				new UltimatePreferenceItem<>(LABEL_DUMP_SCRIPT_TO_FILE, false, PreferenceType.Boolean),
 				new UltimatePreferenceItem<>(LABEL_DUMP_SCRIPT_PATH, DEF_DUMP_SCRIPT_PATH, PreferenceType.Directory),
 				new UltimatePreferenceItem<>(LABEL_CONSTRUCT_TERMCOMP_PROOF, false, PreferenceType.Boolean),
@@ -0,0 +1,350 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE BuchiAutomizer plug-in.
+ *
+ * The ULTIMATE BuchiAutomizer plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE BuchiAutomizer plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE BuchiAutomizer plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE BuchiAutomizer plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE BuchiAutomizer plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.plugins.generator.buchiautomizer;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IToolchainStorage;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
+import de.uni_freiburg.informatik.ultimate.icfgtransformer.transformulatransformers.TermException;
+import de.uni_freiburg.informatik.ultimate.lassoranker.AnalysisType;
+import de.uni_freiburg.informatik.ultimate.lassoranker.DefaultLassoRankerPreferences;
+import de.uni_freiburg.informatik.ultimate.lassoranker.ILassoRankerPreferences;
+import de.uni_freiburg.informatik.ultimate.lassoranker.LassoAnalysis;
+import de.uni_freiburg.informatik.ultimate.lassoranker.termination.DefaultTerminationAnalysisSettings;
+import de.uni_freiburg.informatik.ultimate.lassoranker.termination.TerminationAnalysisBenchmark;
+import de.uni_freiburg.informatik.ultimate.lassoranker.termination.TerminationAnalysisSettings;
+import de.uni_freiburg.informatik.ultimate.lassoranker.termination.TerminationArgument;
+import de.uni_freiburg.informatik.ultimate.lassoranker.termination.templates.AffineTemplate;
+import de.uni_freiburg.informatik.ultimate.lassoranker.termination.templates.LexicographicTemplate;
+import de.uni_freiburg.informatik.ultimate.lassoranker.termination.templates.MultiphaseTemplate;
+import de.uni_freiburg.informatik.ultimate.lassoranker.termination.templates.NestedTemplate;
+import de.uni_freiburg.informatik.ultimate.lassoranker.termination.templates.RankingTemplate;
+import de.uni_freiburg.informatik.ultimate.logic.Logics;
+import de.uni_freiburg.informatik.ultimate.logic.SMTLIBException;
+import de.uni_freiburg.informatik.ultimate.logic.Script;
+import de.uni_freiburg.informatik.ultimate.logic.Sort;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.logic.TermVariable;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.boogie.LocalBoogieVar;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.CfgSmtToolkit;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.DefaultIcfgSymbolTable;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.ModifiableGlobalsTable;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.structure.IcfgEdgeFactory;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.transitions.TransFormulaBuilder;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.transitions.UnmodifiableTransFormula;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.transitions.UnmodifiableTransFormula.Infeasibility;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.variables.IProgramVar;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.variables.ProgramVarUtils;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.SmtUtils;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.SmtUtils.SimplificationTechnique;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.SmtUtils.XnfConversionTechnique;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.managedscript.ManagedScript;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.predicates.BasicPredicateFactory;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.predicates.IPredicate;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.smtlib2.SMTInterpol;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+import de.uni_freiburg.informatik.ultimate.util.datastructures.relation.HashRelation;
+
+/**
+ * Runs the {@link RankingTemplatePortfolio} on the lassos
+ *
+ * <pre>
+ * x := 0; while (x < 10) { x := x + 1; }
+ * x := 0; while (x >= 0) { x := x + 1; }
+ * </pre>
+ *
+ * and compares it to trying the templates sequentially, as {@link LassoCheck} does without portfolio. The constraints
+ * are solved by SMTInterpol, hence the termination analysis is linear.
+ */
+public class RankingTemplatePortfolioTest {
+
+	private static final String PROCEDURE = "main";
+	private static final int BOUND = 10;
+	private static final long TIMEOUT_SECONDS = 60;
+
+	private IUltimateServiceProvider mServices;
+	private IToolchainStorage mStorage;
+	private ILogger mLogger;
+	private Script mScript;
+	private ManagedScript mMgdScript;
+	private CfgSmtToolkit mCsToolkit;
+	private IPredicate mAxioms;
+
+	private UnmodifiableTransFormula mStem;
+	private UnmodifiableTransFormula mTerminatingLoop;
+	private UnmodifiableTransFormula mNonterminatingLoop;
+
+	@Before
+	public void setUp() {
+		mServices = UltimateMocks.createUltimateServiceProviderMock();
+		mStorage = UltimateMocks.createToolchainStorageMock();
+		mLogger = mServices.getLoggingService().getLogger(getClass());
+		mScript = new SMTInterpol();
+		mScript.setLogic(Logics.QF_LIA);
+		mMgdScript = new ManagedScript(mServices, mScript);
+
+		final Sort intSort = mScript.sort("Int");
+		mMgdScript.lock(this);
+		final IProgramVar x = new LocalBoogieVar("x", PROCEDURE, null, mMgdScript.variable("v_x", intSort),
+				ProgramVarUtils.constructDefaultConstant(mMgdScript, this, intSort, "x"),
+				ProgramVarUtils.constructPrimedConstant(mMgdScript, this, intSort, "x"));
+		mMgdScript.unlock(this);
+		final DefaultIcfgSymbolTable symbolTable = new DefaultIcfgSymbolTable();
+		symbolTable.add(x);
+		symbolTable.finishConstruction();
+		final BasicPredicateFactory predicateFactory = new BasicPredicateFactory(mServices, mMgdScript, symbolTable,
+				SimplificationTechnique.SIMPLIFY_DDA, XnfConversionTechnique.BOTTOM_UP_WITH_LOCAL_SIMPLIFICATION);
+		mAxioms = predicateFactory.newPredicate(mScript.term("true"));
+		mCsToolkit = new CfgSmtToolkit(new ModifiableGlobalsTable(new HashRelation<>()), mMgdScript, symbolTable,
+				mAxioms, Collections.singleton(PROCEDURE), new IcfgEdgeFactory());
+
+		final TermVariable in = mMgdScript.constructFreshTermVariable("x_in", intSort);
+		final TermVariable out = mMgdScript.constructFreshTermVariable("x_out", intSort);
+		final Term increment = SmtUtils.binaryEquality(mScript, out, SmtUtils.sum(mScript, intSort, in, num(1)));
+		mStem = transFormula(x, null, out, SmtUtils.binaryEquality(mScript, out, num(0)));
+		mTerminatingLoop =
+				transFormula(x, in, out, SmtUtils.and(mScript, SmtUtils.less(mScript, in, num(BOUND)), increment));
+		mNonterminatingLoop =
+				transFormula(x, in, out, SmtUtils.and(mScript, SmtUtils.geq(mScript, in, num(0)), increment));
+	}
+
+	@After
+	public void tearDown() {
+		mStorage.clear();
+		mScript.exit();
+	}
+
+	/**
+	 * The portfolio finds a termination argument iff the sequential loop finds one, and the argument of the template
+	 * that won is the argument that this template yields sequentially.
+	 */
+	@Test
+	public void parallelResultMatchesSequential() throws Exception {
+		final List<RankingTemplate> templates = createTemplates();
+		final LassoAnalysis la = createLassoAnalysis(mTerminatingLoop, Collections.emptySet());
+		final TerminationArgument sequential = trySequentially(la, templates);
+		Assert.assertNotNull(sequential);
+
+		final RankingTemplatePortfolio portfolio = createPortfolio(templates.size());
+		final TerminationArgument parallel = portfolio.execute(la, templates, createSettings());
+		Assert.assertNotNull(parallel);
+		final RankingTemplate winner = portfolio.getSuccessfulTemplate();
+		Assert.assertTrue(templates.contains(winner));
+		Assert.assertEquals(la.tryTemplate(winner, createSettings()).getRankingFunction().toString(),
+				parallel.getRankingFunction().toString());
+		// each template reports its benchmarks and its time, and all that did not finish were canceled
+		checkTemplateTimes(portfolio, templates.size() - portfolio.getCanceledTemplates());
+	}
+
+	@Test
+	public void nonterminatingLassoHasNoArgument() throws Exception {
+		final List<RankingTemplate> templates = createTemplates();
+		final LassoAnalysis la = createLassoAnalysis(mNonterminatingLoop, Collections.emptySet());
+		Assert.assertNull(trySequentially(la, templates));
+
+		final RankingTemplatePortfolio portfolio = createPortfolio(templates.size());
+		Assert.assertNull(portfolio.execute(la, templates, createSettings()));
+		Assert.assertNull(portfolio.getSuccessfulTemplate());
+		Assert.assertEquals(0, portfolio.getCanceledTemplates());
+		checkTemplateTimes(portfolio, templates.size());
+	}
+
+	/**
+	 * A template that only stops when it is canceled runs next to the affine template. The affine template wins, the
+	 * other template is canceled, and the time of both is reported.
+	 */
+	@Test
+	public void firstSuccessfulTemplateWinsAndOthersAreCanceled() throws Exception {
+		final RankingTemplate affine = new AffineTemplate();
+		final RankingTemplate blocking = new NestedTemplate(2);
+		final LassoAnalysis la = createLassoAnalysis(mTerminatingLoop, Collections.singleton(blocking));
+
+		final RankingTemplatePortfolio portfolio = createPortfolio(2);
+		final TerminationArgument termArg = portfolio.execute(la, Arrays.asList(blocking, affine), createSettings());
+		Assert.assertNotNull(termArg);
+		Assert.assertSame(affine, portfolio.getSuccessfulTemplate());
+		Assert.assertEquals(1, portfolio.getCanceledTemplates());
+		Assert.assertTrue("blocking template was not canceled",
+				((BlockingLassoAnalysis) la).mCanceledTemplates.contains(blocking));
+
+		final Map<String, Long> times = portfolio.getTemplateTimes();
+		Assert.assertEquals(2, times.size());
+		Assert.assertTrue(times.get(affine.getName()) > 0);
+		Assert.assertTrue(times.get(blocking.getName()) > 0);
+		// the blocking template produced no benchmark
+		Assert.assertEquals(1, portfolio.getBenchmarks().size());
+		Assert.assertEquals(affine.getName(), portfolio.getBenchmarks().get(0).getTemplate());
+	}
+
+	private static void checkTemplateTimes(final RankingTemplatePortfolio portfolio, final int finishedTemplates) {
+		final Map<String, Long> times = portfolio.getTemplateTimes();
+		Assert.assertTrue(times.size() >= finishedTemplates);
+		for (final Long time : times.values()) {
+			Assert.assertTrue(time > 0);
+		}
+		for (final TerminationAnalysisBenchmark benchmark : portfolio.getBenchmarks()) {
+			Assert.assertTrue(benchmark.getTemplate(), times.containsKey(benchmark.getTemplate()));
+		}
+	}
+
+	private static TerminationArgument trySequentially(final LassoAnalysis la, final List<RankingTemplate> templates)
+			throws SMTLIBException, TermException, IOException {
+		for (final RankingTemplate template : templates) {
+			final TerminationArgument termArg = la.tryTemplate(template, createSettings());
+			if (termArg != null) {
+				return termArg;
+			}
+		}
+		return null;
+	}
+
+	private RankingTemplatePortfolio createPortfolio(final int threads) {
+		return new RankingTemplatePortfolio(mServices, mStorage, mLogger, threads);
+	}
+
+	/**
+	 * The first templates that {@link LassoCheck} tries.
+	 */
+	private static List<RankingTemplate> createTemplates() {
+		return Arrays.asList(new AffineTemplate(), new NestedTemplate(2), new MultiphaseTemplate(2),
+				new LexicographicTemplate(2));
+	}
+
+	private static TerminationAnalysisSettings createSettings() {
+		return new TerminationAnalysisSettings(new DefaultTerminationAnalysisSettings() {
+			@Override
+			public AnalysisType getAnalysis() {
+				return AnalysisType.LINEAR;
+			}
+
+			@Override
+			public int getNumNonStrictInvariants() {
+				return 1;
+			}
+
+			@Override
+			public int getNumStrictInvariants() {
+				return 0;
+			}
+
+			@Override
+			public boolean isNonDecreasingInvariants() {
+				return true;
+			}
+		});
+	}
+
+	private LassoAnalysis createLassoAnalysis(final UnmodifiableTransFormula loop,
+			final Set<RankingTemplate> blockingTemplates) throws TermException {
+		final ILassoRankerPreferences preferences = new DefaultLassoRankerPreferences() {
+			@Override
+			public boolean isExternalSolver() {
+				return false;
+			}
+		};
+		return new BlockingLassoAnalysis(mCsToolkit, mStem, loop, mAxioms, preferences, mServices, mStorage,
+				blockingTemplates);
+	}
+
+	/**
+	 * @param in
+	 *            The inVar of x, or null if x is not read.
+	 */
+	private UnmodifiableTransFormula transFormula(final IProgramVar x, final TermVariable in, final TermVariable out,
+			final Term formula) {
+		final TransFormulaBuilder tfb = new TransFormulaBuilder(null, null, true, null, true, null, true);
+		if (in != null) {
+			tfb.addInVar(x, in);
+		}
+		tfb.addOutVar(x, out);
+		tfb.setFormula(formula);
+		tfb.setInfeasibility(Infeasibility.NOT_DETERMINED);
+		return tfb.finishConstruction(mMgdScript);
+	}
+
+	private Term num(final int value) {
+		return SmtUtils.constructIntValue(mScript, BigInteger.valueOf(value));
+	}
+
+	/**
+	 * {@link LassoAnalysis} in which some templates run until they are canceled. The other templates start only after
+	 * all blocking templates have started, s.t. the blocking templates are canceled while they are running.
+	 */
+	private static final class BlockingLassoAnalysis extends LassoAnalysis {
+		private final Set<RankingTemplate> mBlockingTemplates;
+		private final Set<RankingTemplate> mCanceledTemplates;
+		private final CountDownLatch mBlockingStarted;
+
+		BlockingLassoAnalysis(final CfgSmtToolkit csToolkit, final UnmodifiableTransFormula stem,
+				final UnmodifiableTransFormula loop, final IPredicate axioms, final ILassoRankerPreferences preferences,
+				final IUltimateServiceProvider services, final IToolchainStorage storage,
+				final Set<RankingTemplate> blockingTemplates) throws TermException {
+			super(csToolkit, stem, loop, Collections.emptySet(), axioms, preferences, services, storage,
+					SimplificationTechnique.SIMPLIFY_DDA, XnfConversionTechnique.BOTTOM_UP_WITH_LOCAL_SIMPLIFICATION);
+			mBlockingTemplates = blockingTemplates;
+			mCanceledTemplates = ConcurrentHashMap.newKeySet();
+			mBlockingStarted = new CountDownLatch(blockingTemplates.size());
+		}
+
+		@Override
+		public TerminationArgument tryTemplate(final RankingTemplate template,
+				final TerminationAnalysisSettings settings, final IUltimateServiceProvider services,
+				final IToolchainStorage storage, final List<TerminationAnalysisBenchmark> benchmarks)
+				throws SMTLIBException, TermException, IOException {
+			try {
+				if (!mBlockingTemplates.contains(template)) {
+					Assert.assertTrue(mBlockingStarted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+					return super.tryTemplate(template, settings, services, storage, benchmarks);
+				}
+				mBlockingStarted.countDown();
+				while (services.getProgressMonitorService().continueProcessing()) {
+					Thread.sleep(1);
+				}
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return null;
+			}
+			mCanceledTemplates.add(template);
+			return null;
+		}
+	}
+}
@@ -126,6 +126,11 @@ public enum StatisticsType {
 	 * in simulation, for compatibility with {@link ECountingMeasure}).
 	 */
 	BUCHI_TRANSITION_RETURN_DENSITY_MILLION,
+	/**
+	 * The time converting the game graph to its compact representation took (used in simulation, for compatibility
+	 * with {@link ETimeMeasure}).
+	 */
+	BUILD_COMPACT_GRAPH,
 	/**
 	 * The time building the game graph took (used in simulation, for compatibility with {@link ETimeMeasure}).
 	 */
@@ -138,6 +143,11 @@ public enum StatisticsType {
 	 * The time building the SCC took, SCC is an optimization for automata.
 	 */
 	BUILD_SCC,
+	/**
+	 * Amount of memory, in kilobytes, the compact representation of the game graph occupies (used in simulation, for
+	 * compatibility with {@link ECountingMeasure}).
+	 */
+	COMPACT_GAMEGRAPH_MEMORY_KB,
 	/**
 	 * The time needed for computing which vertex down states are safe (used in simulation, for compatibility with
 	 * {@link ETimeMeasure}).
@@ -167,6 +177,11 @@ public enum StatisticsType {
 	 * Amount of edges the game graph has (used in simulation, for compatibility with {@link ECountingMeasure}).
 	 */
 	GAMEGRAPH_EDGES,
+	/**
+	 * Amount of memory, in kilobytes, the game graph occupies after its generation (used in simulation, for
+	 * compatibility with {@link ECountingMeasure}).
+	 */
+	GAMEGRAPH_MEMORY_KB,
 	/**
 	 * Amount of vertices the game graph has (used in simulation, for compatibility with {@link ECountingMeasure}).
 	 */
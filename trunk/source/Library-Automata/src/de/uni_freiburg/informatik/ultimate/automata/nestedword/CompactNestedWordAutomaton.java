@@ -0,0 +1,843 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.nestedword;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataOperationCanceledException;
+import de.uni_freiburg.informatik.ultimate.automata.AutomatonDefinitionPrinter;
+import de.uni_freiburg.informatik.ultimate.automata.AutomatonDefinitionPrinter.Format;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.IncomingCallTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.IncomingInternalTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.IncomingReturnTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingCallTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingInternalTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingReturnTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.SummaryReturnTransition;
+import de.uni_freiburg.informatik.ultimate.automata.statefactory.IStateFactory;
+
+/**
+ * Immutable {@link IDoubleDeckerAutomaton} that stores its transitions in primitive arrays. States and letters get
+ * dense int IDs, the only objects per state are the entries of the map from states to IDs.
+ * <p>
+ * Each kind of transition is stored in compressed sparse row (CSR) format: for each state there is a range of indices
+ * in a few int arrays (one array per component of the transition), and inside each range the transitions are sorted
+ * lexicographically. E.g., outgoing internal transitions are sorted by letter and successor, hence all successors for a
+ * given letter are found by binary search. The same holds for incoming transitions, return transitions (grouped by
+ * linear predecessor, successor, and hierarchical predecessor for summaries) and down states.
+ * <p>
+ * An automaton with many transitions (e.g., the result of a difference or intersection that is kept as abstraction
+ * for several iterations) needs a fraction of the memory of a {@link NestedWordAutomaton} or a
+ * {@link de.uni_freiburg.informatik.ultimate.automata.nestedword.reachablestates.NestedWordAutomatonReachableStates}.
+ * Transitions objects are constructed on demand while iterating.
+ *
+ * @param <LETTER>
+ *            letter type
+ * @param <STATE>
+ *            state type
+ */
+public class CompactNestedWordAutomaton<LETTER, STATE> implements IDoubleDeckerAutomaton<LETTER, STATE> {
+	/**
+	 * ID of the empty stack state, which may occur as hierarchical predecessor and as down state.
+	 */
+	private static final int EMPTY_STACK = -1;
+	private static final int NOT_FOUND = -2;
+
+	private final AutomataLibraryServices mServices;
+	private final VpAlphabet<LETTER> mVpAlphabet;
+	private final STATE mEmptyStackState;
+
+	private final Object[] mStates;
+	private final Map<STATE, Integer> mStateIds;
+	private final Object[] mLetters;
+	private final Map<LETTER, Integer> mLetterIds;
+	private final Set<STATE> mInitialStates;
+	private final Set<STATE> mFinalStates;
+	private final BitSet mInitial;
+	private final BitSet mFinal;
+
+	/** Per state: letter, successor. */
+	private final Csr mInternalOut;
+	/** Per state: letter, predecessor. */
+	private final Csr mInternalIn;
+	/** Per state: letter, successor. */
+	private final Csr mCallOut;
+	/** Per state: letter, predecessor. */
+	private final Csr mCallIn;
+	/** Per linear predecessor: hierarchical predecessor, letter, successor. */
+	private final Csr mReturnOut;
+	/** Per successor: hierarchical predecessor, letter, linear predecessor. */
+	private final Csr mReturnIn;
+	/** Per hierarchical predecessor: letter, linear predecessor, successor. */
+	private final Csr mSummary;
+	/** Per up state: down state. */
+	private final Csr mDownStates;
+
+	/**
+	 * Constructs a copy of the given automaton.
+	 *
+	 * @param services
+	 *            Ultimate services
+	 * @param operand
+	 *            automaton whose states, transitions, and double deckers are copied
+	 * @throws AutomataOperationCanceledException
+	 *             if timeout exceeds
+	 */
+	@SuppressWarnings("unchecked")
+	public CompactNestedWordAutomaton(final AutomataLibraryServices services,
+			final IDoubleDeckerAutomaton<LETTER, STATE> operand) throws AutomataOperationCanceledException {
+		mServices = services;
+		mVpAlphabet = operand.getVpAlphabet();
+		mEmptyStackState = operand.getEmptyStackState();
+
+		final Set<STATE> states = operand.getStates();
+		mStates = states.toArray();
+		mStateIds = new HashMap<>(mStates.length * 4 / 3 + 1);
+		for (int i = 0; i < mStates.length; i++) {
+			mStateIds.put((STATE) mStates[i], i);
+		}
+		final Set<LETTER> letters = new HashSet<>(mVpAlphabet.getInternalAlphabet());
+		letters.addAll(mVpAlphabet.getCallAlphabet());
+		letters.addAll(mVpAlphabet.getReturnAlphabet());
+		mLetters = letters.toArray();
+		mLetterIds = new HashMap<>(mLetters.length * 4 / 3 + 1);
+		for (int i = 0; i < mLetters.length; i++) {
+			mLetterIds.put((LETTER) mLetters[i], i);
+		}
+
+		mInitial = new BitSet(mStates.length);
+		mFinal = new BitSet(mStates.length);
+		final IntList internal = new IntList(3);
+		final IntList call = new IntList(3);
+		final IntList ret = new IntList(4);
+		final IntList down = new IntList(2);
+		for (int i = 0; i < mStates.length; i++) {
+			if (!mServices.getProgressAwareTimer().continueProcessing()) {
+				throw new AutomataOperationCanceledException(getClass());
+			}
+			final STATE state = (STATE) mStates[i];
+			if (operand.isInitial(state)) {
+				mInitial.set(i);
+			}
+			if (operand.isFinal(state)) {
+				mFinal.set(i);
+			}
+			for (final OutgoingInternalTransition<LETTER, STATE> trans : operand.internalSuccessors(state)) {
+				internal.add(i, getLetterId(trans.getLetter()), getStateId(trans.getSucc()));
+			}
+			for (final OutgoingCallTransition<LETTER, STATE> trans : operand.callSuccessors(state)) {
+				call.add(i, getLetterId(trans.getLetter()), getStateId(trans.getSucc()));
+			}
+			for (final OutgoingReturnTransition<LETTER, STATE> trans : operand.returnSuccessors(state)) {
+				ret.add(i, getStateId(trans.getHierPred()), getLetterId(trans.getLetter()),
+						getStateId(trans.getSucc()));
+			}
+			for (final STATE downState : operand.getDownStates(state)) {
+				down.add(i, getStateId(downState));
+			}
+		}
+		mInitialStates = new BitSetView(mInitial);
+		mFinalStates = new BitSetView(mFinal);
+
+		final int rows = mStates.length;
+		final int range = Math.max(mStates.length, mLetters.length) + 1;
+		mInternalOut = Csr.build(rows, range, internal, 0, 1, 2);
+		mInternalIn = Csr.build(rows, range, internal, 2, 1, 0);
+		mCallOut = Csr.build(rows, range, call, 0, 1, 2);
+		mCallIn = Csr.build(rows, range, call, 2, 1, 0);
+		mReturnOut = Csr.build(rows, range, ret, 0, 1, 2, 3);
+		mReturnIn = Csr.build(rows, range, ret, 3, 1, 2, 0);
+		mSummary = Csr.build(rows, range, ret, 1, 2, 0, 3);
+		mDownStates = Csr.build(rows, range, down, 0, 1);
+	}
+
+	/**
+	 * @return number of bytes that are used for the transitions and down states, without the maps from states and
+	 *         letters to their IDs
+	 */
+	public long getTransitionMemoryInBytes() {
+		return mInternalOut.getMemoryInBytes() + mInternalIn.getMemoryInBytes() + mCallOut.getMemoryInBytes()
+				+ mCallIn.getMemoryInBytes() + mReturnOut.getMemoryInBytes() + mReturnIn.getMemoryInBytes()
+				+ mSummary.getMemoryInBytes() + mDownStates.getMemoryInBytes();
+	}
+
+	private int getStateId(final STATE state) {
+		if (state == mEmptyStackState) {
+			return EMPTY_STACK;
+		}
+		final Integer id = mStateIds.get(state);
+		if (id == null) {
+			if (mEmptyStackState != null && mEmptyStackState.equals(state)) {
+				return EMPTY_STACK;
+			}
+			return NOT_FOUND;
+		}
+		return id;
+	}
+
+	private int getLetterId(final LETTER letter) {
+		final Integer id = mLetterIds.get(letter);
+		return id == null ? NOT_FOUND : id;
+	}
+
+	@SuppressWarnings("unchecked")
+	private STATE getState(final int id) {
+		return id == EMPTY_STACK ? mEmptyStackState : (STATE) mStates[id];
+	}
+
+	@SuppressWarnings("unchecked")
+	private LETTER getLetter(final int id) {
+		return (LETTER) mLetters[id];
+	}
+
+	private int getKnownStateId(final STATE state) {
+		final int id = getStateId(state);
+		if (id < 0) {
+			throw new IllegalArgumentException("State " + state + " unknown");
+		}
+		return id;
+	}
+
+	@Override
+	public VpAlphabet<LETTER> getVpAlphabet() {
+		return mVpAlphabet;
+	}
+
+	@Override
+	@Deprecated
+	public IStateFactory<STATE> getStateFactory() {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public STATE getEmptyStackState() {
+		return mEmptyStackState;
+	}
+
+	@Override
+	public int size() {
+		return mStates.length;
+	}
+
+	@Override
+	public String sizeInformation() {
+		final int internal = mInternalOut.size();
+		final int call = mCallOut.size();
+		final int ret = mReturnOut.size();
+		return mStates.length + " states and " + (internal + call + ret) + " transitions (" + internal
+				+ " internal, " + call + " call, " + ret + " return).";
+	}
+
+	@Override
+	public boolean supportsConcurrentSuccessorQueries() {
+		return true;
+	}
+
+	@Override
+	public Set<STATE> getStates() {
+		return Collections.unmodifiableSet(mStateIds.keySet());
+	}
+
+	@Override
+	public Set<STATE> getInitialStates() {
+		return mInitialStates;
+	}
+
+	@Override
+	public Collection<STATE> getFinalStates() {
+		return mFinalStates;
+	}
+
+	@Override
+	public boolean isInitial(final STATE state) {
+		final int id = getStateId(state);
+		return id >= 0 && mInitial.get(id);
+	}
+
+	@Override
+	public boolean isFinal(final STATE state) {
+		final int id = getStateId(state);
+		return id >= 0 && mFinal.get(id);
+	}
+
+	@Override
+	public Set<LETTER> lettersInternal(final STATE state) {
+		return sortedLetters(mInternalOut, getKnownStateId(state));
+	}
+
+	@Override
+	public Set<LETTER> lettersInternalIncoming(final STATE state) {
+		return sortedLetters(mInternalIn, getKnownStateId(state));
+	}
+
+	@Override
+	public Set<LETTER> lettersCall(final STATE state) {
+		return sortedLetters(mCallOut, getKnownStateId(state));
+	}
+
+	@Override
+	public Set<LETTER> lettersCallIncoming(final STATE state) {
+		return sortedLetters(mCallIn, getKnownStateId(state));
+	}
+
+	@Override
+	public Set<LETTER> lettersReturn(final STATE state, final STATE hier) {
+		final int row = getKnownStateId(state);
+		final int hierId = getStateId(hier);
+		if (hierId == NOT_FOUND) {
+			return Collections.emptySet();
+		}
+		final int from = mReturnOut.lowerBound(row, hierId);
+		final int to = mReturnOut.upperBound(row, hierId);
+		return new IdRangeSet<>(mReturnOut.mColumns[1], from, to, this::getLetter, this::getLetterIdOfObject);
+	}
+
+	@Override
+	public Set<LETTER> lettersReturn(final STATE state) {
+		return unsortedLetters(mReturnOut, getKnownStateId(state));
+	}
+
+	@Override
+	public Set<LETTER> lettersReturnIncoming(final STATE state) {
+		return unsortedLetters(mReturnIn, getKnownStateId(state));
+	}
+
+	@Override
+	public Set<LETTER> lettersSummary(final STATE state) {
+		return sortedLetters(mSummary, getKnownStateId(state));
+	}
+
+	private Set<LETTER> sortedLetters(final Csr csr, final int row) {
+		return new IdRangeSet<>(csr.mColumns[0], csr.mOffsets[row], csr.mOffsets[row + 1], this::getLetter,
+				this::getLetterIdOfObject);
+	}
+
+	/**
+	 * @return the letters of the given row where the letter is the second column, i.e., the letters are not sorted
+	 */
+	private Set<LETTER> unsortedLetters(final Csr csr, final int row) {
+		final Set<LETTER> result = new HashSet<>();
+		for (int i = csr.mOffsets[row]; i < csr.mOffsets[row + 1]; i++) {
+			result.add(getLetter(csr.mColumns[1][i]));
+		}
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	private int getLetterIdOfObject(final Object letter) {
+		return getLetterId((LETTER) letter);
+	}
+
+	@SuppressWarnings("unchecked")
+	private int getStateIdOfObject(final Object state) {
+		return getStateId((STATE) state);
+	}
+
+	@Override
+	public Iterable<OutgoingInternalTransition<LETTER, STATE>> internalSuccessors(final STATE state,
+			final LETTER letter) {
+		final Csr csr = mInternalOut;
+		return range(csr, getKnownStateId(state), getLetterId(letter),
+				i -> new OutgoingInternalTransition<>(letter, getState(csr.mColumns[1][i])));
+	}
+
+	@Override
+	public Iterable<OutgoingInternalTransition<LETTER, STATE>> internalSuccessors(final STATE state) {
+		final Csr csr = mInternalOut;
+		return range(csr, getKnownStateId(state),
+				i -> new OutgoingInternalTransition<>(getLetter(csr.mColumns[0][i]), getState(csr.mColumns[1][i])));
+	}
+
+	@Override
+	public Iterable<IncomingInternalTransition<LETTER, STATE>> internalPredecessors(final STATE succ,
+			final LETTER letter) {
+		final Csr csr = mInternalIn;
+		return range(csr, getKnownStateId(succ), getLetterId(letter),
+				i -> new IncomingInternalTransition<>(getState(csr.mColumns[1][i]), letter));
+	}
+
+	@Override
+	public Iterable<IncomingInternalTransition<LETTER, STATE>> internalPredecessors(final STATE succ) {
+		final Csr csr = mInternalIn;
+		return range(csr, getKnownStateId(succ),
+				i -> new IncomingInternalTransition<>(getState(csr.mColumns[1][i]), getLetter(csr.mColumns[0][i])));
+	}
+
+	@Override
+	public Iterable<OutgoingCallTransition<LETTER, STATE>> callSuccessors(final STATE state, final LETTER letter) {
+		final Csr csr = mCallOut;
+		return range(csr, getKnownStateId(state), getLetterId(letter),
+				i -> new OutgoingCallTransition<>(letter, getState(csr.mColumns[1][i])));
+	}
+
+	@Override
+	public Iterable<OutgoingCallTransition<LETTER, STATE>> callSuccessors(final STATE state) {
+		final Csr csr = mCallOut;
+		return range(csr, getKnownStateId(state),
+				i -> new OutgoingCallTransition<>(getLetter(csr.mColumns[0][i]), getState(csr.mColumns[1][i])));
+	}
+
+	@Override
+	public Iterable<IncomingCallTransition<LETTER, STATE>> callPredecessors(final STATE succ, final LETTER letter) {
+		final Csr csr = mCallIn;
+		return range(csr, getKnownStateId(succ), getLetterId(letter),
+				i -> new IncomingCallTransition<>(getState(csr.mColumns[1][i]), letter));
+	}
+
+	@Override
+	public Iterable<IncomingCallTransition<LETTER, STATE>> callPredecessors(final STATE succ) {
+		final Csr csr = mCallIn;
+		return range(csr, getKnownStateId(succ),
+				i -> new IncomingCallTransition<>(getState(csr.mColumns[1][i]), getLetter(csr.mColumns[0][i])));
+	}
+
+	@Override
+	public Iterable<OutgoingReturnTransition<LETTER, STATE>> returnSuccessors(final STATE state, final STATE hier,
+			final LETTER letter) {
+		final Csr csr = mReturnOut;
+		return range(csr, getKnownStateId(state), getStateId(hier), getLetterId(letter),
+				i -> new OutgoingReturnTransition<>(hier, letter, getState(csr.mColumns[2][i])));
+	}
+
+	@Override
+	public Iterable<OutgoingReturnTransition<LETTER, STATE>> returnSuccessorsGivenHier(final STATE state,
+			final STATE hier) {
+		final Csr csr = mReturnOut;
+		return range(csr, getKnownStateId(state), getStateId(hier),
+				i -> new OutgoingReturnTransition<>(hier, getLetter(csr.mColumns[1][i]),
+						getState(csr.mColumns[2][i])));
+	}
+
+	@Override
+	public Iterable<OutgoingReturnTransition<LETTER, STATE>> returnSuccessors(final STATE state) {
+		final Csr csr = mReturnOut;
+		return range(csr, getKnownStateId(state), i -> new OutgoingReturnTransition<>(getState(csr.mColumns[0][i]),
+				getLetter(csr.mColumns[1][i]), getState(csr.mColumns[2][i])));
+	}
+
+	@Override
+	public Iterable<IncomingReturnTransition<LETTER, STATE>> returnPredecessors(final STATE succ, final STATE hier,
+			final LETTER letter) {
+		final Csr csr = mReturnIn;
+		return range(csr, getKnownStateId(succ), getStateId(hier), getLetterId(letter),
+				i -> new IncomingReturnTransition<>(getState(csr.mColumns[2][i]), hier, letter));
+	}
+
+	@Override
+	public Iterable<IncomingReturnTransition<LETTER, STATE>> returnPredecessors(final STATE succ,
+			final LETTER letter) {
+		final Csr csr = mReturnIn;
+		final int row = getKnownStateId(succ);
+		final int letterId = getLetterId(letter);
+		final IntList matching = new IntList(1);
+		for (int i = csr.mOffsets[row]; i < csr.mOffsets[row + 1]; i++) {
+			if (csr.mColumns[1][i] == letterId) {
+				matching.add(i);
+			}
+		}
+		return iterable(0, matching.size(), j -> {
+			final int i = matching.get(j);
+			return new IncomingReturnTransition<>(getState(csr.mColumns[2][i]), getState(csr.mColumns[0][i]),
+					letter);
+		});
+	}
+
+	@Override
+	public Iterable<IncomingReturnTransition<LETTER, STATE>> returnPredecessors(final STATE succ) {
+		final Csr csr = mReturnIn;
+		return range(csr, getKnownStateId(succ), i -> new IncomingReturnTransition<>(getState(csr.mColumns[2][i]),
+				getState(csr.mColumns[0][i]), getLetter(csr.mColumns[1][i])));
+	}
+
+	@Override
+	public Iterable<SummaryReturnTransition<LETTER, STATE>> summarySuccessors(final STATE hier, final LETTER letter) {
+		final Csr csr = mSummary;
+		return range(csr, getKnownStateId(hier), getLetterId(letter),
+				i -> new SummaryReturnTransition<>(getState(csr.mColumns[1][i]), letter,
+						getState(csr.mColumns[2][i])));
+	}
+
+	@Override
+	public Iterable<SummaryReturnTransition<LETTER, STATE>> summarySuccessors(final STATE hier) {
+		final Csr csr = mSummary;
+		return range(csr, getKnownStateId(hier), i -> new SummaryReturnTransition<>(getState(csr.mColumns[1][i]),
+				getLetter(csr.mColumns[0][i]), getState(csr.mColumns[2][i])));
+	}
+
+	@Override
+	public Set<STATE> getDownStates(final STATE upState) {
+		final int row = getKnownStateId(upState);
+		return new IdRangeSet<>(mDownStates.mColumns[0], mDownStates.mOffsets[row], mDownStates.mOffsets[row + 1],
+				this::getState, this::getStateIdOfObject);
+	}
+
+	@Override
+	public boolean isDoubleDecker(final STATE upState, final STATE downState) {
+		final int row = getStateId(upState);
+		final int downId = getStateId(downState);
+		if (row < 0 || downId == NOT_FOUND) {
+			return false;
+		}
+		return mDownStates.lowerBound(row, downId) < mDownStates.upperBound(row, downId);
+	}
+
+	@Override
+	public String toString() {
+		return new AutomatonDefinitionPrinter<String, String>(mServices, "nwa", Format.ATS, this)
+				.getDefinitionAsString();
+	}
+
+	private static <E> Iterable<E> range(final Csr csr, final int row, final IntFunction<E> fun) {
+		return iterable(csr.mOffsets[row], csr.mOffsets[row + 1], fun);
+	}
+
+	/**
+	 * @return the elements of the given row whose first columns coincide with the given key
+	 */
+	private static <E> Iterable<E> range(final Csr csr, final int row, final int key, final IntFunction<E> fun) {
+		if (key == NOT_FOUND) {
+			return Collections.emptyList();
+		}
+		return iterable(csr.lowerBound(row, key), csr.upperBound(row, key), fun);
+	}
+
+	private static <E> Iterable<E> range(final Csr csr, final int row, final int key1, final int key2,
+			final IntFunction<E> fun) {
+		if (key1 == NOT_FOUND || key2 == NOT_FOUND) {
+			return Collections.emptyList();
+		}
+		return iterable(csr.lowerBound(row, key1, key2), csr.upperBound(row, key1, key2), fun);
+	}
+
+	private static <E> Iterable<E> iterable(final int from, final int to, final IntFunction<E> fun) {
+		if (from >= to) {
+			return Collections.emptyList();
+		}
+		return () -> new Iterator<E>() {
+			private int mNext = from;
+
+			@Override
+			public boolean hasNext() {
+				return mNext < to;
+			}
+
+			@Override
+			public E next() {
+				if (mNext >= to) {
+					throw new NoSuchElementException();
+				}
+				return fun.apply(mNext++);
+			}
+		};
+	}
+
+	/**
+	 * Compressed sparse row representation of a relation between rows (states) and tuples of ints. The tuples of each
+	 * row are sorted lexicographically.
+	 */
+	private static final class Csr {
+		private final int[] mOffsets;
+		private final int[][] mColumns;
+
+		private Csr(final int[] offsets, final int[][] columns) {
+			mOffsets = offsets;
+			mColumns = columns;
+		}
+
+		/**
+		 * @param rows
+		 *            number of rows
+		 * @param range
+		 *            all entries are in the interval [-1, range - 1)
+		 * @param tuples
+		 *            the tuples
+		 * @param rowComponent
+		 *            component of the tuples that determines the row
+		 * @param columnComponents
+		 *            components of the tuples that are stored, in this order
+		 */
+		static Csr build(final int rows, final int range, final IntList tuples, final int rowComponent,
+				final int... columnComponents) {
+			final int size = tuples.size() / tuples.mWidth;
+			int[] order = new int[size];
+			for (int i = 0; i < size; i++) {
+				order[i] = i;
+			}
+			// LSD radix sort with stable counting sorts, the last pass determines the rows
+			for (int c = columnComponents.length - 1; c >= 0; c--) {
+				order = countingSort(order, tuples, columnComponents[c], range + 1);
+			}
+			order = countingSort(order, tuples, rowComponent, range + 1);
+			final int[] offsets = new int[rows + 1];
+			for (int i = 0; i < size; i++) {
+				offsets[tuples.get(order[i], rowComponent) + 1]++;
+			}
+			for (int i = 0; i < rows; i++) {
+				offsets[i + 1] += offsets[i];
+			}
+			final int[][] columns = new int[columnComponents.length][size];
+			for (int c = 0; c < columnComponents.length; c++) {
+				for (int i = 0; i < size; i++) {
+					columns[c][i] = tuples.get(order[i], columnComponents[c]);
+				}
+			}
+			return new Csr(offsets, columns);
+		}
+
+		private static int[] countingSort(final int[] order, final IntList tuples, final int component,
+				final int buckets) {
+			final int[] counts = new int[buckets + 1];
+			for (final int index : order) {
+				// entries start at -1
+				counts[tuples.get(index, component) + 2]++;
+			}
+			for (int i = 0; i < buckets; i++) {
+				counts[i + 1] += counts[i];
+			}
+			final int[] result = new int[order.length];
+			for (final int index : order) {
+				result[counts[tuples.get(index, component) + 1]++] = index;
+			}
+			return result;
+		}
+
+		int size() {
+			return mOffsets[mOffsets.length - 1];
+		}
+
+		long getMemoryInBytes() {
+			return 4L * (mOffsets.length + (long) mColumns.length * size());
+		}
+
+		/**
+		 * @return the first index of the row whose first columns are greater than or equal to the key
+		 */
+		int lowerBound(final int row, final int... key) {
+			int low = mOffsets[row];
+			int high = mOffsets[row + 1];
+			while (low < high) {
+				final int mid = (low + high) >>> 1;
+				if (compare(mid, key) < 0) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			return low;
+		}
+
+		/**
+		 * @return the first index of the row whose first columns are greater than the key
+		 */
+		int upperBound(final int row, final int... key) {
+			int low = mOffsets[row];
+			int high = mOffsets[row + 1];
+			while (low < high) {
+				final int mid = (low + high) >>> 1;
+				if (compare(mid, key) <= 0) {
+					low = mid + 1;
+				} else {
+					high = mid;
+				}
+			}
+			return low;
+		}
+
+		private int compare(final int index, final int[] key) {
+			for (int c = 0; c < key.length; c++) {
+				final int cmp = Integer.compare(mColumns[c][index], key[c]);
+				if (cmp != 0) {
+					return cmp;
+				}
+			}
+			return 0;
+		}
+	}
+
+	/**
+	 * Growable array of int tuples of fixed width.
+	 */
+	private static final class IntList {
+		private final int mWidth;
+		private int[] mData;
+		private int mSize;
+
+		IntList(final int width) {
+			mWidth = width;
+			mData = new int[16 * width];
+		}
+
+		void add(final int... tuple) {
+			assert tuple.length == mWidth;
+			if (mSize + mWidth > mData.length) {
+				mData = Arrays.copyOf(mData, mData.length * 2);
+			}
+			System.arraycopy(tuple, 0, mData, mSize, mWidth);
+			mSize += mWidth;
+		}
+
+		int get(final int index) {
+			return mData[index];
+		}
+
+		int get(final int tuple, final int component) {
+			return mData[tuple * mWidth + component];
+		}
+
+		int size() {
+			return mSize;
+		}
+	}
+
+	/**
+	 * Unmodifiable set view of the distinct IDs in a sorted range of an array.
+	 */
+	private static final class IdRangeSet<E> extends AbstractSet<E> {
+		private final int[] mIds;
+		private final int mFrom;
+		private final int mTo;
+		private final IntFunction<E> mIdToElement;
+		private final ToIntFunction<Object> mElementToId;
+		private int mSize = -1;
+
+		IdRangeSet(final int[] ids, final int from, final int to, final IntFunction<E> idToElement,
+				final ToIntFunction<Object> elementToId) {
+			mIds = ids;
+			mFrom = from;
+			mTo = to;
+			mIdToElement = idToElement;
+			mElementToId = elementToId;
+		}
+
+		@Override
+		public Iterator<E> iterator() {
+			return new Iterator<E>() {
+				private int mNext = mFrom;
+
+				@Override
+				public boolean hasNext() {
+					return mNext < mTo;
+				}
+
+				@Override
+				public E next() {
+					if (mNext >= mTo) {
+						throw new NoSuchElementException();
+					}
+					final int id = mIds[mNext];
+					while (mNext < mTo && mIds[mNext] == id) {
+						mNext++;
+					}
+					return mIdToElement.apply(id);
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			if (mSize < 0) {
+				int size = 0;
+				for (int i = mFrom; i < mTo; i++) {
+					if (i == mFrom || mIds[i] != mIds[i - 1]) {
+						size++;
+					}
+				}
+				mSize = size;
+			}
+			return mSize;
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return mFrom >= mTo;
+		}
+
+		@Override
+		public boolean contains(final Object obj) {
+			final int id = mElementToId.applyAsInt(obj);
+			return id != NOT_FOUND && Arrays.binarySearch(mIds, mFrom, mTo, id) >= 0;
+		}
+	}
+
+	/**
+	 * Unmodifiable set view of the states whose IDs are in a {@link BitSet}.
+	 */
+	private final class BitSetView extends AbstractSet<STATE> {
+		private final BitSet mBits;
+		private final int mSize;
+
+		BitSetView(final BitSet bits) {
+			mBits = bits;
+			mSize = bits.cardinality();
+		}
+
+		@Override
+		public Iterator<STATE> iterator() {
+			return new Iterator<STATE>() {
+				private int mNext = mBits.nextSetBit(0);
+
+				@Override
+				public boolean hasNext() {
+					return mNext >= 0;
+				}
+
+				@Override
+				public STATE next() {
+					if (mNext < 0) {
+						throw new NoSuchElementException();
+					}
+					final STATE result = getState(mNext);
+					mNext = mBits.nextSetBit(mNext + 1);
+					return result;
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return mSize;
+		}
+
+		@Override
+		public boolean contains(final Object obj) {
+			final int id = getStateIdOfObject(obj);
+			return id >= 0 && mBits.get(id);
+		}
+	}
+}
@@ -77,7 +77,22 @@ public interface INwaOutgoingTransitionProvider<LETTER, STATE> extends IAutomato
 	 * @return outgoing return transitions
 	 */
 	Iterable<OutgoingReturnTransition<LETTER, STATE>> returnSuccessorsGivenHier(final STATE state, final STATE hier);
-	
+
+	/**
+	 * Contract for a parallel exploration of this automaton (see {@link NestedWordAutomatonReachableStates}). If this
+	 * method returns {@code true}, {@link #internalSuccessors(Object)}, {@link #callSuccessors(Object)},
+	 * {@link #returnSuccessorsGivenHier(Object, Object)}, {@link #isFinal(Object)}, and the corresponding methods that
+	 * take a letter may be called concurrently by several threads, and the returned iterables may be iterated while
+	 * other threads query the automaton. On-the-fly constructions have to synchronize the modification of their
+	 * internal data structures; automata that are not modified while they are queried can return {@code true}
+	 * directly.
+	 *
+	 * @return {@code true} iff successors may be queried concurrently
+	 */
+	default boolean supportsConcurrentSuccessorQueries() {
+		return false;
+	}
+
 	@Override
 	default IElement transformToUltimateModel(final AutomataLibraryServices services)
 			throws AutomataOperationCanceledException {
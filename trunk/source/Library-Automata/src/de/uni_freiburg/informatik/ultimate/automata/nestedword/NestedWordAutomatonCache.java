@@ -374,6 +374,15 @@ public class NestedWordAutomatonCache<LETTER, STATE> implements INwaOutgoingLett
 		return mReturnOut.get(state, hier, letter, succ) != null;
 	}
 
+	/**
+	 * Successor queries do not modify this automaton, hence they may be concurrent as long as no transitions or states
+	 * are added at the same time.
+	 */
+	@Override
+	public boolean supportsConcurrentSuccessorQueries() {
+		return true;
+	}
+
 	@Override
 	public String sizeInformation() {
 		if (!VERBOSE) {
@@ -151,6 +151,11 @@ public class NestedWordAutomatonFilteredStates<LETTER, STATE> implements INested
 		return mNwa.getAlphabet();
 	}
 
+	@Override
+	public boolean supportsConcurrentSuccessorQueries() {
+		return mNwa.supportsConcurrentSuccessorQueries();
+	}
+
 	@Override
 	public String sizeInformation() {
 		return mRemainingStates.size() + " states.";
@@ -88,7 +88,7 @@ public abstract class AbstractBuchiDifference<LETTER, STATE>
 	protected <SF extends IBuchiIntersectStateFactory<STATE> & IEmptyStackStateFactory<STATE>> void
 			constructDifferenceFromComplement(final SF stateFactory) throws AutomataLibraryException {
 		mIntersect = new BuchiIntersectNwa<>(mFstOperand, getSndComplemented(), stateFactory);
-		mResult = new NestedWordAutomatonReachableStates<>(mServices, mIntersect);
+		mResult = new NestedWordAutomatonReachableStates<>(mServices, mIntersect, 1, true);
 	}
 
 	@Override
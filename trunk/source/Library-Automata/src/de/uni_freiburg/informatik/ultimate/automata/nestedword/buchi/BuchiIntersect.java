@@ -93,7 +93,7 @@ public final class BuchiIntersect<LETTER, STATE> extends BinaryNwaOperation<LETT
 			doIntersect(final SF stateFactory) throws AutomataLibraryException {
 		final BuchiIntersectNwa<LETTER, STATE> intersect =
 				new BuchiIntersectNwa<>(mFstOperand, mSndOperand, stateFactory);
-		mResult = new NestedWordAutomatonReachableStates<>(mServices, intersect);
+		mResult = new NestedWordAutomatonReachableStates<>(mServices, intersect, 1, true);
 	}
 
 	@Override
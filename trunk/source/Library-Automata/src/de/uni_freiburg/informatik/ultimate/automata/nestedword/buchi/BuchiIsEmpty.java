@@ -75,7 +75,7 @@ public final class BuchiIsEmpty<LETTER, STATE> extends UnaryNwaOperation<LETTER,
 			if (mOperand instanceof NestedWordAutomatonReachableStates) {
 				mReach = (NestedWordAutomatonReachableStates<LETTER, STATE>) mOperand;
 			} else {
-				mReach = new NestedWordAutomatonReachableStates<>(mServices, mOperand);
+				mReach = new NestedWordAutomatonReachableStates<>(mServices, mOperand, 1, true);
 			}
 			mSccs = mReach.getOrComputeAcceptingComponents();
 			mResult = mSccs.buchiIsEmpty();
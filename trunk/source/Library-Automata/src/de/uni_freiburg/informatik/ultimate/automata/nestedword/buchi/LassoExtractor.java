@@ -71,7 +71,7 @@ public final class LassoExtractor<LETTER, STATE> extends UnaryNwaOperation<LETTE
 		if (mOperand instanceof NestedWordAutomatonReachableStates) {
 			mReach = (NestedWordAutomatonReachableStates<LETTER, STATE>) mOperand;
 		} else {
-			mReach = new NestedWordAutomatonReachableStates<>(mServices, mOperand);
+			mReach = new NestedWordAutomatonReachableStates<>(mServices, mOperand, 1, true);
 		}
 		mReach.getOrComputeAcceptingComponents();
 		mNestedLassoRuns = mReach.getOrComputeAcceptingComponents().getAllNestedLassoRuns();
@@ -0,0 +1,443 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.nestedword.operations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.INwaOutgoingLetterAndTransitionProvider;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.oldapi.DeterminizedState;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingCallTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingInternalTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingReturnTransition;
+import de.uni_freiburg.informatik.ultimate.automata.statefactory.IDeterminizeStateFactory;
+
+/**
+ * Powerset construction like {@link PowersetDeterminizer} that works on bitsets instead of sets of states.
+ * <p>
+ * Every state of the operand gets a dense index when it is seen for the first time. A determinized state is encoded as
+ * a sorted array of down states, each of which is associated with the bitset of its up states. For every state and
+ * letter the successors are asked from the operand only once and stored as a bitset; the successor of a determinized
+ * state is then the union of these bitsets, computed one word (64 states) at a time.
+ * <p>
+ * The encoded determinized states are hash-consed: equal subsets are mapped to the same {@link DeterminizedState}
+ * object. Hence the (comparably expensive) {@link DeterminizedState} is only constructed once per subset, and the
+ * state factory is only asked once per subset in {@link #getState(DeterminizedState)}.
+ * <p>
+ * Since successors are cached, the operand must not change while this determinizer is used.
+ *
+ * @param <LETTER>
+ *            Symbol
+ * @param <STATE>
+ *            Content
+ */
+public class BitSetPowersetDeterminizer<LETTER, STATE> implements IStateDeterminizer<LETTER, STATE> {
+	private static final long[] EMPTY_SET = new long[0];
+	private static final int LOG_BITS_PER_WORD = 6;
+	private static final int INDEX_BITS = 32;
+
+	private final IDeterminizeStateFactory<STATE> mStateFactory;
+	private final INwaOutgoingLetterAndTransitionProvider<LETTER, STATE> mOperand;
+	private final boolean mUseDoubleDeckers;
+	private int mMaxDegreeOfNondeterminism;
+
+	private final Map<STATE, Integer> mState2Index = new HashMap<>();
+	private final List<STATE> mIndex2State = new ArrayList<>();
+	private final int mEmptyStackIndex;
+
+	private final List<Map<LETTER, long[]>> mInternalSuccessors = new ArrayList<>();
+	private final List<Map<LETTER, long[]>> mCallSuccessors = new ArrayList<>();
+	private final Map<LETTER, Map<Long, long[]>> mReturnSuccessors = new HashMap<>();
+
+	private final Map<Subset, DeterminizedState<LETTER, STATE>> mSubset2DetState = new HashMap<>();
+	private final Map<DeterminizedState<LETTER, STATE>, Subset> mDetState2Subset = new IdentityHashMap<>();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param operand
+	 *            operand
+	 * @param useDoubleDeckers
+	 *            true iff double deckers should be used
+	 * @param stateFactory
+	 *            state factory
+	 */
+	public BitSetPowersetDeterminizer(final INwaOutgoingLetterAndTransitionProvider<LETTER, STATE> operand,
+			final boolean useDoubleDeckers, final IDeterminizeStateFactory<STATE> stateFactory) {
+		mOperand = operand;
+		mUseDoubleDeckers = useDoubleDeckers;
+		mStateFactory = stateFactory;
+		mEmptyStackIndex = getIndex(mOperand.getEmptyStackState());
+	}
+
+	@Override
+	public DeterminizedState<LETTER, STATE> initialState() {
+		long[] initials = EMPTY_SET;
+		for (final STATE initialState : mOperand.getInitialStates()) {
+			initials = add(initials, getIndex(initialState));
+		}
+		final SubsetBuilder builder = new SubsetBuilder();
+		builder.add(mEmptyStackIndex, initials);
+		return intern(builder.build());
+	}
+
+	@Override
+	public DeterminizedState<LETTER, STATE> internalSuccessor(final DeterminizedState<LETTER, STATE> detState,
+			final LETTER symbol) {
+		final Subset subset = getSubset(detState);
+		final SubsetBuilder builder = new SubsetBuilder();
+		for (int i = 0; i < subset.mDowns.length; i++) {
+			long[] succUps = EMPTY_SET;
+			final long[] ups = subset.mUps[i];
+			for (int word = 0; word < ups.length; word++) {
+				for (long bits = ups[word]; bits != 0; bits &= bits - 1) {
+					final int up = (word << LOG_BITS_PER_WORD) + Long.numberOfTrailingZeros(bits);
+					succUps = union(succUps, getInternalSuccessors(up, symbol));
+				}
+			}
+			builder.add(subset.mDowns[i], succUps);
+		}
+		return intern(builder.build());
+	}
+
+	@Override
+	public DeterminizedState<LETTER, STATE> callSuccessor(final DeterminizedState<LETTER, STATE> detState,
+			final LETTER symbol) {
+		final Subset subset = getSubset(detState);
+		final SubsetBuilder builder = new SubsetBuilder();
+		long[] succUps = EMPTY_SET;
+		for (int i = 0; i < subset.mDowns.length; i++) {
+			final long[] ups = subset.mUps[i];
+			for (int word = 0; word < ups.length; word++) {
+				for (long bits = ups[word]; bits != 0; bits &= bits - 1) {
+					final int up = (word << LOG_BITS_PER_WORD) + Long.numberOfTrailingZeros(bits);
+					if (mUseDoubleDeckers) {
+						// the up state becomes the down state of its call successors
+						builder.add(up, getCallSuccessors(up, symbol));
+					} else {
+						succUps = union(succUps, getCallSuccessors(up, symbol));
+					}
+				}
+			}
+		}
+		if (!mUseDoubleDeckers) {
+			builder.add(mEmptyStackIndex, succUps);
+		}
+		return intern(builder.build());
+	}
+
+	@Override
+	public DeterminizedState<LETTER, STATE> returnSuccessor(final DeterminizedState<LETTER, STATE> detState,
+			final DeterminizedState<LETTER, STATE> detLinPred, final LETTER symbol) {
+		final Subset subset = getSubset(detState);
+		final Subset hierSubset = getSubset(detLinPred);
+		final SubsetBuilder builder = new SubsetBuilder();
+		for (int i = 0; i < hierSubset.mDowns.length; i++) {
+			long[] succUps = EMPTY_SET;
+			final long[] hierUps = hierSubset.mUps[i];
+			for (int word = 0; word < hierUps.length; word++) {
+				for (long bits = hierUps[word]; bits != 0; bits &= bits - 1) {
+					final int hierUp = (word << LOG_BITS_PER_WORD) + Long.numberOfTrailingZeros(bits);
+					// if !mUseDoubleDeckers all up states are stored below the empty stack state
+					final long[] ups = subset.getUps(mUseDoubleDeckers ? hierUp : mEmptyStackIndex);
+					succUps = returnSuccessorsHelper(succUps, ups, hierUp, symbol);
+				}
+			}
+			builder.add(hierSubset.mDowns[i], succUps);
+		}
+		return intern(builder.build());
+	}
+
+	private long[] returnSuccessorsHelper(final long[] succUps, final long[] ups, final int hierUp,
+			final LETTER symbol) {
+		long[] result = succUps;
+		for (int word = 0; word < ups.length; word++) {
+			for (long bits = ups[word]; bits != 0; bits &= bits - 1) {
+				final int up = (word << LOG_BITS_PER_WORD) + Long.numberOfTrailingZeros(bits);
+				result = union(result, getReturnSuccessors(up, hierUp, symbol));
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public int getMaxDegreeOfNondeterminism() {
+		return mMaxDegreeOfNondeterminism;
+	}
+
+	@Override
+	public boolean useDoubleDeckers() {
+		return mUseDoubleDeckers;
+	}
+
+	@Override
+	public STATE getState(final DeterminizedState<LETTER, STATE> determinizedState) {
+		return determinizedState.getContent(mStateFactory);
+	}
+
+	/**
+	 * @return number of distinct determinized states constructed so far
+	 */
+	public int getNumberOfDeterminizedStates() {
+		return mSubset2DetState.size();
+	}
+
+	private int getIndex(final STATE state) {
+		final Integer index = mState2Index.get(state);
+		if (index != null) {
+			return index;
+		}
+		final int newIndex = mIndex2State.size();
+		mState2Index.put(state, newIndex);
+		mIndex2State.add(state);
+		mInternalSuccessors.add(null);
+		mCallSuccessors.add(null);
+		return newIndex;
+	}
+
+	private long[] getInternalSuccessors(final int up, final LETTER symbol) {
+		Map<LETTER, long[]> letter2succs = mInternalSuccessors.get(up);
+		if (letter2succs == null) {
+			letter2succs = new HashMap<>();
+			mInternalSuccessors.set(up, letter2succs);
+		}
+		long[] succs = letter2succs.get(symbol);
+		if (succs == null) {
+			succs = EMPTY_SET;
+			for (final OutgoingInternalTransition<LETTER, STATE> trans : mOperand
+					.internalSuccessors(mIndex2State.get(up), symbol)) {
+				succs = add(succs, getIndex(trans.getSucc()));
+			}
+			letter2succs.put(symbol, succs);
+		}
+		return succs;
+	}
+
+	private long[] getCallSuccessors(final int up, final LETTER symbol) {
+		Map<LETTER, long[]> letter2succs = mCallSuccessors.get(up);
+		if (letter2succs == null) {
+			letter2succs = new HashMap<>();
+			mCallSuccessors.set(up, letter2succs);
+		}
+		long[] succs = letter2succs.get(symbol);
+		if (succs == null) {
+			succs = EMPTY_SET;
+			for (final OutgoingCallTransition<LETTER, STATE> trans : mOperand.callSuccessors(mIndex2State.get(up),
+					symbol)) {
+				succs = add(succs, getIndex(trans.getSucc()));
+			}
+			letter2succs.put(symbol, succs);
+		}
+		return succs;
+	}
+
+	private long[] getReturnSuccessors(final int up, final int hierUp, final LETTER symbol) {
+		Map<Long, long[]> pair2succs = mReturnSuccessors.get(symbol);
+		if (pair2succs == null) {
+			pair2succs = new HashMap<>();
+			mReturnSuccessors.put(symbol, pair2succs);
+		}
+		final Long pair = ((long) up << INDEX_BITS) | hierUp;
+		long[] succs = pair2succs.get(pair);
+		if (succs == null) {
+			succs = EMPTY_SET;
+			for (final OutgoingReturnTransition<LETTER, STATE> trans : mOperand
+					.returnSuccessors(mIndex2State.get(up), mIndex2State.get(hierUp), symbol)) {
+				succs = add(succs, getIndex(trans.getSucc()));
+			}
+			pair2succs.put(pair, succs);
+		}
+		return succs;
+	}
+
+	private DeterminizedState<LETTER, STATE> intern(final Subset subset) {
+		DeterminizedState<LETTER, STATE> detState = mSubset2DetState.get(subset);
+		if (detState == null) {
+			detState = new DeterminizedState<>(mOperand);
+			for (int i = 0; i < subset.mDowns.length; i++) {
+				final STATE down = mIndex2State.get(subset.mDowns[i]);
+				final long[] ups = subset.mUps[i];
+				for (int word = 0; word < ups.length; word++) {
+					for (long bits = ups[word]; bits != 0; bits &= bits - 1) {
+						final int up = (word << LOG_BITS_PER_WORD) + Long.numberOfTrailingZeros(bits);
+						detState.addPair(down, mIndex2State.get(up), mOperand);
+					}
+				}
+			}
+			mSubset2DetState.put(subset, detState);
+			mDetState2Subset.put(detState, subset);
+			if (subset.size() > mMaxDegreeOfNondeterminism) {
+				mMaxDegreeOfNondeterminism = subset.size();
+			}
+		}
+		return detState;
+	}
+
+	/**
+	 * @return the encoding of a determinized state; determinized states that were not constructed by this determinizer
+	 *         are encoded on demand
+	 */
+	private Subset getSubset(final DeterminizedState<LETTER, STATE> detState) {
+		Subset subset = mDetState2Subset.get(detState);
+		if (subset == null) {
+			final SubsetBuilder builder = new SubsetBuilder();
+			for (final STATE down : detState.getDownStates()) {
+				long[] ups = EMPTY_SET;
+				for (final STATE up : detState.getUpStates(down)) {
+					ups = add(ups, getIndex(up));
+				}
+				builder.add(getIndex(down), ups);
+			}
+			subset = builder.build();
+			mDetState2Subset.put(detState, subset);
+		}
+		return subset;
+	}
+
+	/**
+	 * Adds an index to a bitset. The given bitset is modified unless it has to be enlarged.
+	 */
+	private static long[] add(final long[] set, final int index) {
+		final int word = index >>> LOG_BITS_PER_WORD;
+		final long[] result = word < set.length ? set : Arrays.copyOf(set, word + 1);
+		result[word] |= 1L << index;
+		return result;
+	}
+
+	/**
+	 * Adds all elements of the second bitset to the first bitset. The first bitset is modified unless it has to be
+	 * enlarged; the second bitset is never modified.
+	 */
+	private static long[] union(final long[] set, final long[] other) {
+		if (other.length == 0) {
+			return set;
+		}
+		final long[] result = other.length <= set.length ? set : Arrays.copyOf(set, other.length);
+		for (int word = 0; word < other.length; word++) {
+			result[word] |= other[word];
+		}
+		return result;
+	}
+
+	/**
+	 * Collects the up states for each down state.
+	 */
+	private static final class SubsetBuilder {
+		private final Map<Integer, long[]> mDown2Ups = new HashMap<>();
+
+		public void add(final int down, final long[] ups) {
+			if (ups.length == 0) {
+				return;
+			}
+			final long[] oldUps = mDown2Ups.get(down);
+			mDown2Ups.put(down, oldUps == null ? ups.clone() : union(oldUps, ups));
+		}
+
+		public Subset build() {
+			final int[] downs = new int[mDown2Ups.size()];
+			int i = 0;
+			for (final Integer down : mDown2Ups.keySet()) {
+				downs[i++] = down;
+			}
+			Arrays.sort(downs);
+			final long[][] ups = new long[downs.length][];
+			int size = 0;
+			for (i = 0; i < downs.length; i++) {
+				ups[i] = trim(mDown2Ups.get(downs[i]));
+				size += bitCount(ups[i]);
+			}
+			return new Subset(downs, ups, size);
+		}
+
+		private static long[] trim(final long[] set) {
+			int length = set.length;
+			while (length > 0 && set[length - 1] == 0) {
+				length--;
+			}
+			return length == set.length ? set : Arrays.copyOf(set, length);
+		}
+
+		private static int bitCount(final long[] set) {
+			int result = 0;
+			for (final long word : set) {
+				result += Long.bitCount(word);
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Encoding of a set of double deckers: a sorted array of down states, and for each of them the (nonempty) bitset of
+	 * up states without trailing zero words.
+	 */
+	private static final class Subset {
+		private final int[] mDowns;
+		private final long[][] mUps;
+		private final int mSize;
+		private final int mHashCode;
+
+		public Subset(final int[] downs, final long[][] ups, final int size) {
+			mDowns = downs;
+			mUps = ups;
+			mSize = size;
+			mHashCode = 31 * Arrays.hashCode(downs) + Arrays.deepHashCode(ups);
+		}
+
+		public long[] getUps(final int down) {
+			final int i = Arrays.binarySearch(mDowns, down);
+			return i < 0 ? EMPTY_SET : mUps[i];
+		}
+
+		/**
+		 * @return number of double deckers
+		 */
+		public int size() {
+			return mSize;
+		}
+
+		@Override
+		public int hashCode() {
+			return mHashCode;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (obj == null || getClass() != obj.getClass()) {
+				return false;
+			}
+			final Subset other = (Subset) obj;
+			return mHashCode == other.mHashCode && Arrays.equals(mDowns, other.mDowns)
+					&& Arrays.deepEquals(mUps, other.mUps);
+		}
+	}
+}
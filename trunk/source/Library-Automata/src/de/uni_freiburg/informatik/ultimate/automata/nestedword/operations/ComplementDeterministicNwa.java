@@ -159,6 +159,11 @@ public final class ComplementDeterministicNwa<LETTER, STATE> implements INwaOutg
 		return mOperand.getAlphabet();
 	}
 
+	@Override
+	public boolean supportsConcurrentSuccessorQueries() {
+		return mOperand.supportsConcurrentSuccessorQueries();
+	}
+
 	@Override
 	public String sizeInformation() {
 		// TODO Auto-generated method stub
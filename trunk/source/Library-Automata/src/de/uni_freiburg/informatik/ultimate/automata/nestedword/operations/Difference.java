@@ -65,6 +65,7 @@ public final class Difference<LETTER, STATE> extends BinaryNwaOperation<LETTER,
 	private DoubleDeckerAutomatonFilteredStates<LETTER, STATE> mResultWOdeadEnds;
 	private final ISinkStateFactory<STATE> mStateFactory;
 	private final IIntersectionStateFactory<STATE> mStateFactoryIntersection;
+	private final int mNumberOfThreads;
 
 	// TODO Christian 2016-09-04: These fields are only used locally. Is there some functionality missing?
 	private DeterminizeNwa<LETTER, STATE> mSndDeterminized;
@@ -76,12 +77,27 @@ public final class Difference<LETTER, STATE> extends BinaryNwaOperation<LETTER,
 			final INwaOutgoingLetterAndTransitionProvider<LETTER, STATE> sndOperand,
 			final IStateDeterminizer<LETTER, STATE> stateDeterminizer, final boolean finalIsTrap)
 			throws AutomataLibraryException {
+		this(services, stateFactory, fstOperand, sndOperand, stateDeterminizer, finalIsTrap, 1);
+	}
+
+	/**
+	 * @param numberOfThreads
+	 *            number of threads that compute successors in the reachable states construction of the result (see
+	 *            {@link NestedWordAutomatonReachableStates}); 1 means sequential construction
+	 */
+	public <SF extends ISinkStateFactory<STATE> & IIntersectionStateFactory<STATE> & IEmptyStackStateFactory<STATE>> Difference(
+			final AutomataLibraryServices services, final SF stateFactory,
+			final INwaOutgoingLetterAndTransitionProvider<LETTER, STATE> fstOperand,
+			final INwaOutgoingLetterAndTransitionProvider<LETTER, STATE> sndOperand,
+			final IStateDeterminizer<LETTER, STATE> stateDeterminizer, final boolean finalIsTrap,
+			final int numberOfThreads) throws AutomataLibraryException {
 		super(services);
 		mFstOperand = fstOperand;
 		mSndOperand = sndOperand;
 		mStateFactory = stateFactory;
 		mStateFactoryIntersection = stateFactory;
 		mStateDeterminizer = stateDeterminizer;
+		mNumberOfThreads = numberOfThreads;
 
 		if (mLogger.isInfoEnabled()) {
 			mLogger.info(startMessage());
@@ -134,7 +150,7 @@ public final class Difference<LETTER, STATE> extends BinaryNwaOperation<LETTER,
 			final IntersectNwa<LETTER, STATE> intersect =
 					new IntersectNwa<>(mFstOperand, sndComplemented, stateFactory, finalIsTrap);
 			final NestedWordAutomatonReachableStates<LETTER, STATE> result =
-					new NestedWordAutomatonReachableStates<>(mServices, intersect);
+					new NestedWordAutomatonReachableStates<>(mServices, intersect, mNumberOfThreads);
 			if (!sndTotalized.nonDeterminismInInputDetected()) {
 				mSndComplemented = sndComplemented;
 				mIntersect = intersect;
@@ -155,7 +171,7 @@ public final class Difference<LETTER, STATE> extends BinaryNwaOperation<LETTER,
 				makeAutomatonTotal);
 		mSndComplemented = new ComplementDeterministicNwa<>(mSndDeterminized);
 		mIntersect = new IntersectNwa<>(mFstOperand, mSndComplemented, stateFactory, finalIsTrap);
-		mResult = new NestedWordAutomatonReachableStates<>(mServices, mIntersect);
+		mResult = new NestedWordAutomatonReachableStates<>(mServices, mIntersect, mNumberOfThreads);
 	}
 
 	private boolean hasSeveralInitialStates(final INwaOutgoingLetterAndTransitionProvider<LETTER, STATE> automaton) {
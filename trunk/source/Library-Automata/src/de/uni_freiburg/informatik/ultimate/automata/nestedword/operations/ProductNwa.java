@@ -32,6 +32,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryException;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.INwaOutgoingLetterAndTransitionProvider;
@@ -45,6 +46,9 @@ import de.uni_freiburg.informatik.ultimate.automata.statefactory.IStateFactory;
 
 /**
  * On-the-fly intersection of two nested word automata.
+ * <p>
+ * Product states are constructed under the lock of this object, hence successors may be queried concurrently if both
+ * operands support concurrent successor queries.
  * 
  * @author Matthias Heizmann (heizmann@informatik.uni-freiburg.de)
  * @param <LETTER>
@@ -61,11 +65,11 @@ public abstract class ProductNwa<LETTER, STATE> implements INwaOutgoingLetterAnd
 	private final STATE mEmptyStackState;
 
 	private final Map<STATE, Map<STATE, ProductState>> mFst2snd2res = new HashMap<>();
-	private final Map<STATE, ProductState> mRes2prod = new HashMap<>();
+	private final Map<STATE, ProductState> mRes2prod = new ConcurrentHashMap<>();
 
 	private final boolean mAssumeInSndNonFinalIsTrap;
 
-	private Set<STATE> mInitialStates;
+	private volatile Set<STATE> mInitialStates;
 
 	/**
 	 * @param fstOperand
@@ -112,7 +116,7 @@ public abstract class ProductNwa<LETTER, STATE> implements INwaOutgoingLetterAnd
 		return initialStates;
 	}
 
-	private STATE getOrConstructState(final STATE fst, final STATE snd) {
+	private synchronized STATE getOrConstructState(final STATE fst, final STATE snd) {
 		Map<STATE, ProductState> snd2res = mFst2snd2res.get(fst);
 		if (snd2res == null) {
 			snd2res = new HashMap<>();
@@ -136,14 +140,22 @@ public abstract class ProductNwa<LETTER, STATE> implements INwaOutgoingLetterAnd
 	 */
 	protected abstract ProductState createProductState(final STATE fst, final STATE snd);
 
-	@Override
-	public Iterable<STATE> getInitialStates() {
+	private Set<STATE> getOrConstructInitialStates() {
 		if (mInitialStates == null) {
-			mInitialStates = constructInitialState();
+			synchronized (this) {
+				if (mInitialStates == null) {
+					mInitialStates = constructInitialState();
+				}
+			}
 		}
 		return mInitialStates;
 	}
 
+	@Override
+	public Iterable<STATE> getInitialStates() {
+		return getOrConstructInitialStates();
+	}
+
 	@Override
 	public VpAlphabet<LETTER> getVpAlphabet() {
 		return mFstOperand.getVpAlphabet();
@@ -156,10 +168,7 @@ public abstract class ProductNwa<LETTER, STATE> implements INwaOutgoingLetterAnd
 
 	@Override
 	public boolean isInitial(final STATE state) {
-		if (mInitialStates == null) {
-			mInitialStates = constructInitialState();
-		}
-		return mInitialStates.contains(state);
+		return getOrConstructInitialStates().contains(state);
 	}
 
 	@Override
@@ -308,6 +317,11 @@ public abstract class ProductNwa<LETTER, STATE> implements INwaOutgoingLetterAnd
 		return returnSuccessors(mFstOperand.returnSuccessorsGivenHier(fstState, fstHier), hier, sndState, sndHier);
 	}
 
+	@Override
+	public boolean supportsConcurrentSuccessorQueries() {
+		return mFstOperand.supportsConcurrentSuccessorQueries() && mSndOperand.supportsConcurrentSuccessorQueries();
+	}
+
 	@Override
 	public int size() {
 		return mRes2prod.size();
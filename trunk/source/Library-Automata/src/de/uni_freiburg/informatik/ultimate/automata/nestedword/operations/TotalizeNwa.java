@@ -57,10 +57,10 @@ import de.uni_freiburg.informatik.ultimate.automata.statefactory.IStateFactory;
 public class TotalizeNwa<LETTER, STATE> implements INwaOutgoingLetterAndTransitionProvider<LETTER, STATE> {
 	private final INwaOutgoingLetterAndTransitionProvider<LETTER, STATE> mOperand;
 	private final ISinkStateFactory<STATE> mStateFactory;
-	private STATE mSinkState;
-	private boolean mSinkStateWasConstructed;
-	private boolean mNondeterministicTransitionsDetected;
-	private boolean mNondeterministicInitialsDetected;
+	private volatile STATE mSinkState;
+	private volatile boolean mSinkStateWasConstructed;
+	private volatile boolean mNondeterministicTransitionsDetected;
+	private volatile boolean mNondeterministicInitialsDetected;
 	private final boolean mStopIfNondeterminismWasDetected;
 
 	/**
@@ -79,7 +79,7 @@ public class TotalizeNwa<LETTER, STATE> implements INwaOutgoingLetterAndTransiti
 		mStopIfNondeterminismWasDetected = stopIfNondeterminismWasDetected;
 	}
 
-	private void requestSinkState() {
+	private synchronized void requestSinkState() {
 		if (mSinkStateWasConstructed) {
 			// do nothing
 			assert mSinkState != null;
@@ -347,6 +347,11 @@ public class TotalizeNwa<LETTER, STATE> implements INwaOutgoingLetterAndTransiti
 		return result;
 	}
 
+	@Override
+	public boolean supportsConcurrentSuccessorQueries() {
+		return mOperand.supportsConcurrentSuccessorQueries();
+	}
+
 	@Override
 	public int size() {
 		throw new UnsupportedOperationException();
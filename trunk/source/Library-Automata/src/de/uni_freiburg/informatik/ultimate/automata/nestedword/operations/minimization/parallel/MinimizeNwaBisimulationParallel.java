@@ -0,0 +1,594 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.parallel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryException;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataOperationCanceledException;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.INestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.AbstractMinimizeNwa;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.IMinimizationCheckResultStateFactory;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.IMinimizationStateFactory;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.util.IAutomatonStatePartition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.util.IBlock;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingCallTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingInternalTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingReturnTransition;
+import de.uni_freiburg.informatik.ultimate.automata.statefactory.IMergeStateFactory;
+import de.uni_freiburg.informatik.ultimate.automata.util.PartitionBackedSetOfPairs;
+import de.uni_freiburg.informatik.ultimate.util.datastructures.relation.Pair;
+
+/**
+ * Minimizes a nested word automaton by merging bisimilar states. The coarsest bisimulation is computed by a
+ * signature-based partition refinement whose signature computations are distributed over several threads.
+ * <p>
+ * The signature of a state is the set of pairs (label, block of the successor) of all its outgoing transitions. Internal
+ * and call transitions are labeled by their letter. A return transition (lin, hier, letter, succ) contributes the label
+ * (hier, letter) to the signature of <i>lin</i> and the label (lin, letter) to the signature of <i>hier</i>. Using the
+ * concrete hierarchical (resp. linear) predecessor instead of its block ensures that the quotient does not introduce
+ * new combinations of linear and hierarchical predecessors; the price is that fewer states may be merged than by
+ * {@link de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.MinimizeSevpa} or
+ * {@link de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.ShrinkNwa}. The operand may be
+ * nondeterministic.
+ * <p>
+ * In each round, the signatures of all states that have a successor which moved to a new block in the previous round
+ * are recomputed in parallel. Afterwards each affected block is split sequentially according to the signatures of its
+ * states; the largest part keeps the block, as in Hopcroft's algorithm. The refinement terminates when no block is
+ * split.
+ *
+ * @param <LETTER>
+ *            letter type
+ * @param <STATE>
+ *            state type
+ */
+public final class MinimizeNwaBisimulationParallel<LETTER, STATE> extends AbstractMinimizeNwa<LETTER, STATE> {
+	private static final String THREAD_NAME_PREFIX = "MinimizeNwaBisimulationParallel-";
+	/**
+	 * Number of signatures that are computed by a single task.
+	 */
+	private static final int CHUNK_SIZE = 1024;
+	private static final int LABEL_SHIFT = 32;
+
+	private final INestedWordAutomaton<LETTER, STATE> mOperand;
+	private final int mNumberOfThreads;
+	private final List<STATE> mStates;
+	/**
+	 * Outgoing transitions in compressed row format: the transitions of state {@code i} are stored at the positions
+	 * from {@code mOffsets[i]} (inclusive) to {@code mOffsets[i + 1]} (exclusive) of {@code mLabels} and
+	 * {@code mTargets}.
+	 */
+	private int[] mOffsets;
+	private int[] mLabels;
+	private int[] mTargets;
+	/**
+	 * Sources of the incoming transitions in compressed row format.
+	 */
+	private int[] mPredecessorOffsets;
+	private int[] mPredecessors;
+	private int mNumberOfLabels;
+	/**
+	 * Maps each state to the block that contains it.
+	 */
+	private int[] mBlock;
+	private final List<int[]> mBlockMembers;
+	private final Signature[] mSignatures;
+	private int mRounds;
+
+	/**
+	 * Constructor with default settings.
+	 *
+	 * @param services
+	 *            Ultimate services
+	 * @param stateFactory
+	 *            state factory
+	 * @param operand
+	 *            input automaton
+	 * @throws AutomataOperationCanceledException
+	 *             if cancel signal was received
+	 */
+	public MinimizeNwaBisimulationParallel(final AutomataLibraryServices services,
+			final IMinimizationStateFactory<STATE> stateFactory, final INestedWordAutomaton<LETTER, STATE> operand)
+			throws AutomataOperationCanceledException {
+		this(services, stateFactory, operand, null, false, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param services
+	 *            Ultimate services
+	 * @param stateFactory
+	 *            state factory
+	 * @param operand
+	 *            input automaton
+	 * @param initialPartition
+	 *            initial partition; only states in the same block may be merged (may be {@code null}); states that
+	 *            are not contained in any block are treated as if they were in one additional block
+	 * @param addMapping
+	 *            true iff mapping 'old state -> new state' is added
+	 * @param numberOfThreads
+	 *            number of threads that compute signatures
+	 * @throws AutomataOperationCanceledException
+	 *             if cancel signal was received
+	 */
+	public MinimizeNwaBisimulationParallel(final AutomataLibraryServices services,
+			final IMinimizationStateFactory<STATE> stateFactory, final INestedWordAutomaton<LETTER, STATE> operand,
+			final PartitionBackedSetOfPairs<STATE> initialPartition, final boolean addMapping,
+			final int numberOfThreads) throws AutomataOperationCanceledException {
+		super(services, stateFactory);
+		mOperand = operand;
+		mNumberOfThreads = numberOfThreads;
+
+		printStartMessage();
+
+		mStates = new ArrayList<>(mOperand.getStates());
+		mSignatures = new Signature[mStates.size()];
+		mBlockMembers = new ArrayList<>();
+		final Map<STATE, Integer> state2index = new HashMap<>(mStates.size());
+		for (int i = 0; i < mStates.size(); i++) {
+			state2index.put(mStates.get(i), i);
+		}
+		constructTransitions(state2index);
+		constructInitialPartition(state2index, initialPartition);
+
+		refine();
+
+		if (mLogger.isDebugEnabled()) {
+			mLogger.debug("Partition refinement finished after " + mRounds + " rounds with " + mBlockMembers.size()
+					+ " blocks.");
+		}
+		constructResultFromPartition(new BlockPartition(), addMapping);
+
+		printExitMessage();
+	}
+
+	@Override
+	protected INestedWordAutomaton<LETTER, STATE> getOperand() {
+		return mOperand;
+	}
+
+	@Override
+	protected Pair<Boolean, String> checkResultHelper(final IMinimizationCheckResultStateFactory<STATE> stateFactory)
+			throws AutomataLibraryException {
+		return checkLanguageEquivalence(stateFactory);
+	}
+
+	private void constructTransitions(final Map<STATE, Integer> state2index) {
+		final Map<LETTER, Integer> internalLabels = new HashMap<>();
+		final Map<LETTER, Integer> callLabels = new HashMap<>();
+		final Map<LETTER, Integer> returnLetters = new HashMap<>();
+		final Map<Long, Integer> linearReturnLabels = new HashMap<>();
+		final Map<Long, Integer> hierarchicalReturnLabels = new HashMap<>();
+		final TransitionList transitions = new TransitionList();
+
+		for (int i = 0; i < mStates.size(); i++) {
+			final STATE state = mStates.get(i);
+			for (final OutgoingInternalTransition<LETTER, STATE> trans : mOperand.internalSuccessors(state)) {
+				transitions.add(i, getLabel(internalLabels, trans.getLetter()), state2index.get(trans.getSucc()));
+			}
+			for (final OutgoingCallTransition<LETTER, STATE> trans : mOperand.callSuccessors(state)) {
+				transitions.add(i, getLabel(callLabels, trans.getLetter()), state2index.get(trans.getSucc()));
+			}
+			for (final OutgoingReturnTransition<LETTER, STATE> trans : mOperand.returnSuccessors(state)) {
+				final long letter = returnLetters.computeIfAbsent(trans.getLetter(), x -> returnLetters.size());
+				final int hier = state2index.get(trans.getHierPred());
+				final int succ = state2index.get(trans.getSucc());
+				transitions.add(i, getLabel(linearReturnLabels, ((long) hier << LABEL_SHIFT) | letter), succ);
+				transitions.add(hier, getLabel(hierarchicalReturnLabels, ((long) i << LABEL_SHIFT) | letter), succ);
+			}
+		}
+
+		// counting sort by source and by target
+		final int numberOfStates = mStates.size();
+		mOffsets = new int[numberOfStates + 1];
+		mPredecessorOffsets = new int[numberOfStates + 1];
+		for (int k = 0; k < transitions.mSize; k++) {
+			mOffsets[transitions.mSources[k] + 1]++;
+			mPredecessorOffsets[transitions.mTargets[k] + 1]++;
+		}
+		for (int i = 0; i < numberOfStates; i++) {
+			mOffsets[i + 1] += mOffsets[i];
+			mPredecessorOffsets[i + 1] += mPredecessorOffsets[i];
+		}
+		mLabels = new int[transitions.mSize];
+		mTargets = new int[transitions.mSize];
+		mPredecessors = new int[transitions.mSize];
+		final int[] nextOutgoing = Arrays.copyOf(mOffsets, numberOfStates);
+		final int[] nextIncoming = Arrays.copyOf(mPredecessorOffsets, numberOfStates);
+		for (int k = 0; k < transitions.mSize; k++) {
+			final int source = transitions.mSources[k];
+			final int target = transitions.mTargets[k];
+			final int position = nextOutgoing[source]++;
+			mLabels[position] = transitions.mLabels[k];
+			mTargets[position] = target;
+			mPredecessors[nextIncoming[target]++] = source;
+		}
+	}
+
+	private <K> int getLabel(final Map<K, Integer> labels, final K key) {
+		return labels.computeIfAbsent(key, x -> mNumberOfLabels++);
+	}
+
+	/**
+	 * Separates final from nonfinal states and states from different blocks of the given partition.
+	 */
+	private void constructInitialPartition(final Map<STATE, Integer> state2index,
+			final PartitionBackedSetOfPairs<STATE> initialPartition) {
+		final int[] initialBlock = new int[mStates.size()];
+		if (initialPartition != null) {
+			int blockNumber = 0;
+			for (final Set<STATE> block : initialPartition.getRelation()) {
+				blockNumber++;
+				for (final STATE state : block) {
+					final Integer index = state2index.get(state);
+					if (index != null) {
+						initialBlock[index] = blockNumber;
+					}
+				}
+			}
+		}
+
+		final Map<Long, Integer> key2block = new HashMap<>();
+		final List<List<Integer>> members = new ArrayList<>();
+		mBlock = new int[mStates.size()];
+		for (int i = 0; i < mStates.size(); i++) {
+			final long key = ((long) initialBlock[i] << 1) | (mOperand.isFinal(mStates.get(i)) ? 1 : 0);
+			final int block = key2block.computeIfAbsent(key, x -> key2block.size());
+			if (block == members.size()) {
+				members.add(new ArrayList<>());
+			}
+			members.get(block).add(i);
+			mBlock[i] = block;
+		}
+		for (final List<Integer> block : members) {
+			mBlockMembers.add(block.stream().mapToInt(Integer::intValue).toArray());
+		}
+	}
+
+	private void refine() throws AutomataOperationCanceledException {
+		final ExecutorService executor = mNumberOfThreads > 1
+				? Executors.newFixedThreadPool(mNumberOfThreads, new MinimizationThreadFactory())
+				: null;
+		try {
+			final boolean[] dirty = new boolean[mStates.size()];
+			Arrays.fill(dirty, true);
+			while (true) {
+				if (isCancellationRequested()) {
+					throw new AutomataOperationCanceledException(getClass());
+				}
+				final int[] dirtyStates = collectDirtyStates(dirty);
+				if (dirtyStates.length == 0) {
+					return;
+				}
+				computeSignatures(dirtyStates, executor);
+				final List<int[]> movedStates = split(dirtyStates);
+				if (movedStates.isEmpty()) {
+					return;
+				}
+				for (final int[] moved : movedStates) {
+					for (final int state : moved) {
+						for (int k = mPredecessorOffsets[state]; k < mPredecessorOffsets[state + 1]; k++) {
+							dirty[mPredecessors[k]] = true;
+						}
+					}
+				}
+				mRounds++;
+			}
+		} finally {
+			if (executor != null) {
+				executor.shutdownNow();
+			}
+		}
+	}
+
+	/**
+	 * Collects and resets the dirty states. States in singleton blocks are ignored because their block cannot be split.
+	 */
+	private int[] collectDirtyStates(final boolean[] dirty) {
+		int size = 0;
+		final int[] result = new int[dirty.length];
+		for (int i = 0; i < dirty.length; i++) {
+			if (dirty[i]) {
+				dirty[i] = false;
+				if (mBlockMembers.get(mBlock[i]).length > 1) {
+					result[size++] = i;
+				}
+			}
+		}
+		return Arrays.copyOf(result, size);
+	}
+
+	private void computeSignatures(final int[] states, final ExecutorService executor)
+			throws AutomataOperationCanceledException {
+		if (executor == null || states.length <= CHUNK_SIZE) {
+			computeSignatures(states, 0, states.length);
+			return;
+		}
+		final List<Callable<Void>> tasks = new ArrayList<>();
+		for (int from = 0; from < states.length; from += CHUNK_SIZE) {
+			final int chunkFrom = from;
+			final int chunkTo = Math.min(from + CHUNK_SIZE, states.length);
+			tasks.add(() -> {
+				computeSignatures(states, chunkFrom, chunkTo);
+				return null;
+			});
+		}
+		try {
+			for (final Future<Void> future : executor.invokeAll(tasks)) {
+				future.get();
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new AutomataOperationCanceledException(getClass());
+		} catch (final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new AssertionError(cause);
+		}
+	}
+
+	private void computeSignatures(final int[] states, final int from, final int to) {
+		for (int j = from; j < to; j++) {
+			final int state = states[j];
+			final int first = mOffsets[state];
+			final long[] elements = new long[mOffsets[state + 1] - first];
+			for (int k = 0; k < elements.length; k++) {
+				elements[k] = ((long) mLabels[first + k] << LABEL_SHIFT) | mBlock[mTargets[first + k]];
+			}
+			Arrays.sort(elements);
+			int size = 0;
+			for (int k = 0; k < elements.length; k++) {
+				if (size == 0 || elements[size - 1] != elements[k]) {
+					elements[size++] = elements[k];
+				}
+			}
+			mSignatures[state] = new Signature(size == elements.length ? elements : Arrays.copyOf(elements, size));
+		}
+	}
+
+	/**
+	 * Splits all blocks that contain a dirty state according to the signatures of their states.
+	 *
+	 * @return the states that moved to a new block
+	 */
+	private List<int[]> split(final int[] dirtyStates) {
+		final List<int[]> movedStates = new ArrayList<>();
+		final BitSet visitedBlocks = new BitSet();
+		for (final int dirtyState : dirtyStates) {
+			final int block = mBlock[dirtyState];
+			if (visitedBlocks.get(block)) {
+				continue;
+			}
+			visitedBlocks.set(block);
+			final int[] members = mBlockMembers.get(block);
+			final Map<Signature, List<Integer>> signature2part = new LinkedHashMap<>();
+			for (final int state : members) {
+				signature2part.computeIfAbsent(mSignatures[state], x -> new ArrayList<>()).add(state);
+			}
+			if (signature2part.size() == 1) {
+				continue;
+			}
+			List<Integer> largest = null;
+			for (final List<Integer> part : signature2part.values()) {
+				if (largest == null || part.size() > largest.size()) {
+					largest = part;
+				}
+			}
+			for (final List<Integer> part : signature2part.values()) {
+				final int[] partArray = part.stream().mapToInt(Integer::intValue).toArray();
+				if (part == largest) {
+					mBlockMembers.set(block, partArray);
+					continue;
+				}
+				final int newBlock = mBlockMembers.size();
+				mBlockMembers.add(partArray);
+				for (final int state : partArray) {
+					mBlock[state] = newBlock;
+				}
+				movedStates.add(partArray);
+			}
+		}
+		return movedStates;
+	}
+
+	/**
+	 * Sorted array of (label, successor block) pairs with a precomputed hash code.
+	 */
+	private static final class Signature {
+		private final long[] mElements;
+		private final int mHashCode;
+
+		Signature(final long[] elements) {
+			mElements = elements;
+			mHashCode = Arrays.hashCode(elements);
+		}
+
+		@Override
+		public int hashCode() {
+			return mHashCode;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (obj == null || getClass() != obj.getClass()) {
+				return false;
+			}
+			final Signature other = (Signature) obj;
+			return mHashCode == other.mHashCode && Arrays.equals(mElements, other.mElements);
+		}
+	}
+
+	/**
+	 * The final partition. All states of a block are bisimilar, hence the internal and call transitions of one state of
+	 * each block suffice to construct the quotient.
+	 */
+	private final class BlockPartition implements IAutomatonStatePartition<STATE> {
+		private final List<Block> mBlocks;
+		private final Map<STATE, Block> mState2Block;
+
+		BlockPartition() {
+			mBlocks = new ArrayList<>(mBlockMembers.size());
+			mState2Block = new HashMap<>(mStates.size());
+			for (final int[] members : mBlockMembers) {
+				final Block block = new Block(members);
+				mBlocks.add(block);
+				for (final STATE state : block.mBlockStates) {
+					mState2Block.put(state, block);
+				}
+			}
+		}
+
+		@Override
+		public IBlock<STATE> getBlock(final STATE state) {
+			return mState2Block.get(state);
+		}
+
+		@Override
+		public Iterator<IBlock<STATE>> blocksIterator() {
+			return Collections.<IBlock<STATE>> unmodifiableList(mBlocks).iterator();
+		}
+
+		@Override
+		public Set<STATE> getContainingSet(final STATE state) {
+			return mState2Block.get(state).mBlockStates;
+		}
+
+		@Override
+		public int size() {
+			return mBlocks.size();
+		}
+
+		@Override
+		public Iterator<Set<STATE>> iterator() {
+			return mBlocks.stream().map(block -> block.mBlockStates).iterator();
+		}
+	}
+
+	private final class Block implements IBlock<STATE> {
+		private final Set<STATE> mBlockStates;
+		private final boolean mIsInitial;
+		private final boolean mIsFinal;
+
+		Block(final int[] members) {
+			mBlockStates = new HashSet<>(members.length);
+			boolean isInitial = false;
+			for (final int member : members) {
+				final STATE state = mStates.get(member);
+				mBlockStates.add(state);
+				isInitial = isInitial || mOperand.isInitial(state);
+			}
+			mIsInitial = isInitial;
+			// the initial partition separates final from nonfinal states
+			mIsFinal = mOperand.isFinal(mBlockStates.iterator().next());
+		}
+
+		@Override
+		public boolean isInitial() {
+			return mIsInitial;
+		}
+
+		@Override
+		public boolean isFinal() {
+			return mIsFinal;
+		}
+
+		@Override
+		public STATE minimize(final IMergeStateFactory<STATE> stateFactory) {
+			return stateFactory.merge(mBlockStates);
+		}
+
+		@Override
+		public Iterator<STATE> iterator() {
+			return mBlockStates.iterator();
+		}
+
+		@Override
+		public boolean isRepresentativeIndependentInternalsCalls() {
+			return true;
+		}
+	}
+
+	/**
+	 * Growable list of transitions (source, label, target).
+	 */
+	private static final class TransitionList {
+		private static final int INITIAL_CAPACITY = 16;
+
+		private int[] mSources = new int[INITIAL_CAPACITY];
+		private int[] mLabels = new int[INITIAL_CAPACITY];
+		private int[] mTargets = new int[INITIAL_CAPACITY];
+		private int mSize;
+
+		void add(final int source, final int label, final int target) {
+			if (mSize == mSources.length) {
+				mSources = Arrays.copyOf(mSources, 2 * mSize);
+				mLabels = Arrays.copyOf(mLabels, 2 * mSize);
+				mTargets = Arrays.copyOf(mTargets, 2 * mSize);
+			}
+			mSources[mSize] = source;
+			mLabels[mSize] = label;
+			mTargets[mSize] = target;
+			mSize++;
+		}
+	}
+
+	private static final class MinimizationThreadFactory implements ThreadFactory {
+		private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+		@Override
+		public Thread newThread(final Runnable runnable) {
+			final Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + THREAD_COUNTER.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
@@ -52,7 +52,9 @@ import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.simula
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.simulation.performance.MultipleDataOption;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.simulation.performance.SimulationPerformance;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.simulation.performance.TimeMeasure;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.simulation.util.CompactGameGraph;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.simulation.util.DuplicatorVertex;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.simulation.util.ParallelProgressMeasureSolver;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.simulation.util.SpoilerVertex;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.simulation.util.Vertex;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.simulation.util.VertexPmReverseComparator;
@@ -125,6 +127,11 @@ public abstract class ASimulation<LETTER, STATE> {
 	 * The state factory used for creating states.
 	 */
 	private final IStateFactory<STATE> mStateFactory;
+	/**
+	 * If the progress measures should be computed in parallel on a {@link CompactGameGraph} instead of the lifting
+	 * algorithm on the game graph.
+	 */
+	private boolean mUseCompactGameGraph;
 	/**
 	 * If the simulation calculation should be optimized using SCC, Strongly Connected Components.
 	 */
@@ -167,6 +174,7 @@ public abstract class ASimulation<LETTER, STATE> {
 		mProgressTimer = progressTimer;
 		mLogger = logger;
 		mUseSccs = useSccs;
+		mUseCompactGameGraph = false;
 		mStateFactory = stateFactory;
 		mVertexComp = new VertexPmReverseComparator<>();
 
@@ -187,7 +195,11 @@ public abstract class ASimulation<LETTER, STATE> {
 		mPerformance.startTimeMeasure(TimeMeasure.OVERALL);
 		mPerformance.startTimeMeasure(TimeMeasure.SIMULATION_ONLY);
 
-		if (mUseSccs) { // calculate reduction with SCC
+		if (mUseCompactGameGraph) { // calculate reduction on the compact game graph
+			solveOnCompactGameGraph();
+			mPerformance.addTimeMeasureValue(TimeMeasure.BUILD_SCC, SimulationPerformance.NO_TIME_RESULT);
+			mPerformance.setCountingMeasure(CountingMeasure.SCCS, SimulationPerformance.NO_COUNTING_RESULT);
+		} else if (mUseSccs) { // calculate reduction with SCC
 			mPerformance.startTimeMeasure(TimeMeasure.BUILD_SCC);
 			final DefaultStronglyConnectedComponentFactory<Vertex<LETTER, STATE>> sccFactory =
 					new DefaultStronglyConnectedComponentFactory<>();
@@ -258,6 +270,21 @@ public abstract class ASimulation<LETTER, STATE> {
 		return mStateFactory;
 	}
 
+	/**
+	 * Sets whether the progress measures should be computed on a {@link CompactGameGraph}, an int-indexed snapshot of
+	 * the game graph, by a {@link ParallelProgressMeasureSolver} that uses all available processors. The SCC
+	 * optimization is not used in this case.<br/>
+	 * <br/>
+	 * This only affects simulations that use the lifting algorithm of this class, i.e., direct and delayed simulation,
+	 * and has to be set before {@link #doSimulation()} is called.
+	 * 
+	 * @param useCompactGameGraph
+	 *            If the compact game graph should be used
+	 */
+	public void setUseCompactGameGraph(final boolean useCompactGameGraph) {
+		mUseCompactGameGraph = useCompactGameGraph;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -889,6 +916,39 @@ public abstract class ASimulation<LETTER, STATE> {
 		// The default implementation is to do nothing
 	}
 
+	/**
+	 * Whether <i>Spoiler</i> vertices without successors have lost (progress measure 0, the default) or won (progress
+	 * measure infinity). Simulations that change this in {@link #calcBestNghbMeasure(Vertex, int, Set)} have to
+	 * override this method accordingly, such that {@link #solveOnCompactGameGraph()} computes the same result.
+	 * 
+	 * @return If <i>Spoiler</i> wins at vertices without successors
+	 */
+	protected boolean spoilerWinsAtDeadEnds() {
+		return false;
+	}
+
+	/**
+	 * Computes the progress measures of all vertices on a {@link CompactGameGraph} and writes them back to the vertices
+	 * of the game graph.
+	 * 
+	 * @throws AutomataOperationCanceledException
+	 *             If the operation was canceled, for example from the Ultimate framework.
+	 */
+	protected void solveOnCompactGameGraph() throws AutomataOperationCanceledException {
+		mPerformance.startTimeMeasure(TimeMeasure.BUILD_COMPACT_GRAPH);
+		final CompactGameGraph<LETTER, STATE> compactGraph = new CompactGameGraph<>(getGameGraph());
+		mPerformance.stopTimeMeasure(TimeMeasure.BUILD_COMPACT_GRAPH);
+		mPerformance.setCountingMeasure(CountingMeasure.COMPACT_GAMEGRAPH_MEMORY_KB,
+				(int) (compactGraph.getMemoryFootprint() / 1024));
+
+		final ParallelProgressMeasureSolver solver = new ParallelProgressMeasureSolver(compactGraph,
+				Runtime.getRuntime().availableProcessors(), mProgressTimer, spoilerWinsAtDeadEnds());
+		solver.solve();
+		compactGraph.applyProgressMeasures(solver.getProgressMeasures());
+		mPerformance.setCountingMeasure(CountingMeasure.SIMULATION_STEPS,
+				(int) Math.min(solver.getSteps(), Integer.MAX_VALUE));
+	}
+
 	/**
 	 * Calculates the progress measure of a given vertex by trying to increase it, based on its best neighbor measure
 	 * and priority.<br/>
@@ -36,6 +36,10 @@ public enum SimulationOrMinimizationType {
 	 * Delayed simulation.
 	 */
 	DELAYED,
+	/**
+	 * Delayed simulation, solved on the compact game graph.
+	 */
+	DELAYED_COMPACT,
 	/**
 	 * Delayed full multi-pebble simulation.
 	 */
@@ -44,6 +48,10 @@ public enum SimulationOrMinimizationType {
 	 * Direct simulation.
 	 */
 	DIRECT,
+	/**
+	 * Direct simulation, solved on the compact game graph.
+	 */
+	DIRECT_COMPACT,
 	/**
 	 * Direct full multi-pebble simulation.
 	 */
@@ -131,4 +131,16 @@ public class DirectSimulation<LETTER, STATE> extends ASimulation<LETTER, STATE>
 	protected AGameGraph<LETTER, STATE> getGameGraph() {
 		return mGame;
 	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.
+	 * simulation.ASimulation#spoilerWinsAtDeadEnds()
+	 */
+	@Override
+	protected boolean spoilerWinsAtDeadEnds() {
+		// See calcBestNghbMeasure
+		return true;
+	}
 }
@@ -327,6 +327,19 @@ public class CompareReduceBuchiSimulation<LETTER, STATE>
 		}
 	}
 
+	/**
+	 * Runs the garbage collector and returns the amount of used heap memory.
+	 * This is only an approximation since the JVM does not guarantee a full
+	 * collection.
+	 *
+	 * @return The amount of used heap memory in kilobytes
+	 */
+	protected static long getUsedMemoryKb() {
+		final Runtime runtime = Runtime.getRuntime();
+		runtime.gc();
+		return (runtime.totalMemory() - runtime.freeMemory()) / 1024;
+	}
+
 	/**
 	 * Parses the file {@link #LOG_PATH_DATA} and sets a data structure up which
 	 * holds all data from the log file.
@@ -1043,20 +1056,32 @@ public class CompareReduceBuchiSimulation<LETTER, STATE>
 		Object method = null;
 
 		try {
-			if (type.equals(SimulationOrMinimizationType.DIRECT)) {
+			if (type.equals(SimulationOrMinimizationType.DIRECT)
+					|| type.equals(SimulationOrMinimizationType.DIRECT_COMPACT)) {
+				final long memoryBefore = getUsedMemoryKb();
 				final DirectGameGraph<LETTER, STATE> graph = new DirectGameGraph<>(services, stateFactory,
 						progressTimer, mLogger, operand);
 				graph.generateGameGraphFromAutomaton();
+				final long graphMemory = getUsedMemoryKb() - memoryBefore;
 				final DirectSimulation<LETTER, STATE> sim = new DirectSimulation<>(progressTimer, mLogger, useSCCs,
 						stateFactory, graph);
+				sim.setUseCompactGameGraph(type.equals(SimulationOrMinimizationType.DIRECT_COMPACT));
+				sim.getSimulationPerformance().setCountingMeasure(CountingMeasure.GAMEGRAPH_MEMORY_KB,
+						(int) graphMemory);
 				sim.doSimulation();
 				method = sim;
-			} else if (type.equals(SimulationOrMinimizationType.DELAYED)) {
+			} else if (type.equals(SimulationOrMinimizationType.DELAYED)
+					|| type.equals(SimulationOrMinimizationType.DELAYED_COMPACT)) {
+				final long memoryBefore = getUsedMemoryKb();
 				final DelayedGameGraph<LETTER, STATE> graph = new DelayedGameGraph<>(services, stateFactory,
 						progressTimer, mLogger, operand);
 				graph.generateGameGraphFromAutomaton();
+				final long graphMemory = getUsedMemoryKb() - memoryBefore;
 				final DelayedSimulation<LETTER, STATE> sim = new DelayedSimulation<>(progressTimer, mLogger, useSCCs,
 						stateFactory, graph);
+				sim.setUseCompactGameGraph(type.equals(SimulationOrMinimizationType.DELAYED_COMPACT));
+				sim.getSimulationPerformance().setCountingMeasure(CountingMeasure.GAMEGRAPH_MEMORY_KB,
+						(int) graphMemory);
 				sim.doSimulation();
 				method = sim;
 			} else if (type.equals(SimulationOrMinimizationType.FAIR)) {
@@ -1125,12 +1150,18 @@ public class CompareReduceBuchiSimulation<LETTER, STATE>
 		// Direct simulation with SCC
 		measureMethodPerformance(automatonName, SimulationOrMinimizationType.DIRECT, true, mServices, timeOutMillis,
 				stateFactory, reachableOperand);
+		// Direct simulation on the compact game graph
+		measureMethodPerformance(automatonName, SimulationOrMinimizationType.DIRECT_COMPACT, false, mServices,
+				timeOutMillis, stateFactory, reachableOperand);
 		// Delayed simulation without SCC
 		measureMethodPerformance(automatonName, SimulationOrMinimizationType.DELAYED, false, mServices, timeOutMillis,
 				stateFactory, reachableOperand);
 		// Delayed simulation with SCC
 		measureMethodPerformance(automatonName, SimulationOrMinimizationType.DELAYED, true, mServices, timeOutMillis,
 				stateFactory, reachableOperand);
+		// Delayed simulation on the compact game graph
+		measureMethodPerformance(automatonName, SimulationOrMinimizationType.DELAYED_COMPACT, false, mServices,
+				timeOutMillis, stateFactory, reachableOperand);
 		// Fair simulation without SCC
 		measureMethodPerformance(automatonName, SimulationOrMinimizationType.FAIR, false, mServices, timeOutMillis,
 				stateFactory, reachableOperand);
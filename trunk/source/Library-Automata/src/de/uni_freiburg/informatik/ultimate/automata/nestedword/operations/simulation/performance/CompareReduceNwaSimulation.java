@@ -167,20 +167,32 @@ public final class CompareReduceNwaSimulation<LETTER, STATE> extends CompareRedu
 			final Collection<Set<STATE>> possibleEquivalenceClasses = new NwaApproximateBisimulation<>(services,
 					operand, separateAcceptingStates ? SimulationType.DIRECT : SimulationType.ORDINARY).getResult()
 							.getRelation();
-			if (type.equals(SimulationOrMinimizationType.DIRECT)) {
+			if (type.equals(SimulationOrMinimizationType.DIRECT)
+					|| type.equals(SimulationOrMinimizationType.DIRECT_COMPACT)) {
+				final long memoryBefore = getUsedMemoryKb();
 				final DirectNwaGameGraph<LETTER, STATE> graph = new DirectNwaGameGraph<>(services, stateFactory,
 						progressTimer, logger, operand, possibleEquivalenceClasses);
 				graph.generateGameGraphFromAutomaton();
+				final long graphMemory = getUsedMemoryKb() - memoryBefore;
 				final DirectNwaSimulation<LETTER, STATE> sim =
 						new DirectNwaSimulation<>(progressTimer, logger, useSCCs, stateFactory, graph);
+				sim.setUseCompactGameGraph(type.equals(SimulationOrMinimizationType.DIRECT_COMPACT));
+				sim.getSimulationPerformance().setCountingMeasure(CountingMeasure.GAMEGRAPH_MEMORY_KB,
+						(int) graphMemory);
 				sim.doSimulation();
 				method = sim;
-			} else if (type.equals(SimulationOrMinimizationType.DELAYED)) {
+			} else if (type.equals(SimulationOrMinimizationType.DELAYED)
+					|| type.equals(SimulationOrMinimizationType.DELAYED_COMPACT)) {
+				final long memoryBefore = getUsedMemoryKb();
 				final DelayedNwaGameGraph<LETTER, STATE> graph = new DelayedNwaGameGraph<>(services, stateFactory,
 						progressTimer, logger, operand, possibleEquivalenceClasses);
 				graph.generateGameGraphFromAutomaton();
+				final long graphMemory = getUsedMemoryKb() - memoryBefore;
 				final DelayedNwaSimulation<LETTER, STATE> sim =
 						new DelayedNwaSimulation<>(progressTimer, logger, useSCCs, stateFactory, graph);
+				sim.setUseCompactGameGraph(type.equals(SimulationOrMinimizationType.DELAYED_COMPACT));
+				sim.getSimulationPerformance().setCountingMeasure(CountingMeasure.GAMEGRAPH_MEMORY_KB,
+						(int) graphMemory);
 				sim.doSimulation();
 				method = sim;
 			} else if (type.equals(SimulationOrMinimizationType.FAIR)) {
@@ -228,12 +240,16 @@ public final class CompareReduceNwaSimulation<LETTER, STATE> extends CompareRedu
 	protected void measurePerformances(final String automatonName, final long timeOutMillis,
 			final IMinimizationStateFactory<STATE> stateFactory,
 			final NestedWordAutomatonReachableStates<LETTER, STATE> reachableOperand) {
-		// Direct nwa simulation without SCC
-//		measureMethodPerformance(automatonName, ESimulationType.DIRECT, false, getServices(), timeOutMillis,
-//				stateFactory, reachableOperand);
-		// Delayed nwa simulation without SCC
-//		measureMethodPerformance(automatonName, ESimulationType.DELAYED, false, getServices(), timeOutMillis,
-//				stateFactory, reachableOperand);
+		// Direct nwa simulation without SCC, on the game graph and on the compact game graph
+		measureMethodPerformance(automatonName, SimulationOrMinimizationType.DIRECT, false, getServices(),
+				timeOutMillis, stateFactory, reachableOperand);
+		measureMethodPerformance(automatonName, SimulationOrMinimizationType.DIRECT_COMPACT, false, getServices(),
+				timeOutMillis, stateFactory, reachableOperand);
+		// Delayed nwa simulation without SCC, on the game graph and on the compact game graph
+		measureMethodPerformance(automatonName, SimulationOrMinimizationType.DELAYED, false, getServices(),
+				timeOutMillis, stateFactory, reachableOperand);
+		measureMethodPerformance(automatonName, SimulationOrMinimizationType.DELAYED_COMPACT, false, getServices(),
+				timeOutMillis, stateFactory, reachableOperand);
 
 		// Full multi-pebble simulation
 		measureMethodPerformance(automatonName, SimulationOrMinimizationType.DIRECT_FULL_MULTIPEBBLE, false,
@@ -93,6 +93,10 @@ public enum CountingMeasure {
 	 * Amount of return transitions the automaton has before simulation.
 	 */
 	BUCHI_TRANSITIONS_RETURN,
+	/**
+	 * Amount of memory, in kilobytes, the compact representation of the game graph occupies.
+	 */
+	COMPACT_GAMEGRAPH_MEMORY_KB,
 	/**
 	 * The amount of states the determinized game automaton has.
 	 */
@@ -109,6 +113,10 @@ public enum CountingMeasure {
 	 * Amount of edges the game graph has.
 	 */
 	GAMEGRAPH_EDGES,
+	/**
+	 * Amount of memory, in kilobytes, the game graph occupies after its generation.
+	 */
+	GAMEGRAPH_MEMORY_KB,
 	/**
 	 * Amount of vertices the game graph has.
 	 */
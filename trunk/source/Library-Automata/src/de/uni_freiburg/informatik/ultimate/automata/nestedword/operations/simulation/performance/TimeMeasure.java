@@ -32,6 +32,10 @@ package de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.simul
  * @author Daniel Tischner {@literal <zabuza.dev@gmail.com>}
  */
 public enum TimeMeasure {
+	/**
+	 * The time converting the game graph to its compact representation took.
+	 */
+	BUILD_COMPACT_GRAPH,
 	/**
 	 * The time building the game graph took.
 	 */
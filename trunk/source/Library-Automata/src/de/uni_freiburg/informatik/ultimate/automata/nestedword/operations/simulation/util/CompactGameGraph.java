@@ -0,0 +1,290 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.simulation.util;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.simulation.AGameGraph;
+
+/**
+ * An int-indexed snapshot of an {@link AGameGraph}.<br/>
+ * <br/>
+ * Every vertex of the game graph gets a dense index. Successors, predecessors and the push-over edges are stored in
+ * compressed sparse row (CSR) format, i.e., the successors of vertex i are the entries of the successor array from
+ * <tt>offsets[i]</tt> (inclusive) to <tt>offsets[i + 1]</tt> (exclusive). Priorities, the owner of each vertex and the
+ * initial progress measures are stored in primitive arrays as well. Hence, the snapshot needs a few bytes per vertex
+ * and edge, while the game graph needs a hash set entry per edge in each direction.<br/>
+ * <br/>
+ * Later changes of the game graph are not reflected by the snapshot. Progress measures that are computed on the
+ * snapshot can be written back to the vertices of the game graph by {@link #applyProgressMeasures(int[])}.
+ *
+ * @param <LETTER>
+ *            Letter class of buechi automaton
+ * @param <STATE>
+ *            State class of buechi automaton
+ */
+public final class CompactGameGraph<LETTER, STATE> {
+	private static final int BYTES_PER_INT = 4;
+	private static final int BYTES_PER_REFERENCE = 8;
+	private static final int BYTES_PER_ARRAY = 16;
+
+	private final List<Vertex<LETTER, STATE>> mVertices;
+	private final int mGlobalInfinity;
+	private final byte[] mPriorities;
+	private final BitSet mDuplicatorVertices;
+	private final int[] mInitialProgressMeasures;
+
+	private final int[] mSuccessorOffsets;
+	private final int[] mSuccessors;
+	private final int[] mPredecessorOffsets;
+	private final int[] mPredecessors;
+	private final int[] mPushOverSuccessorOffsets;
+	private final int[] mPushOverSuccessors;
+	private final int[] mPushOverPredecessorOffsets;
+	private final int[] mPushOverPredecessors;
+
+	/**
+	 * Creates a snapshot of the given game graph.
+	 *
+	 * @param gameGraph
+	 *            The game graph to convert
+	 */
+	public CompactGameGraph(final AGameGraph<LETTER, STATE> gameGraph) {
+		mGlobalInfinity = gameGraph.getGlobalInfinity();
+
+		// Assign indices, vertices that are only reachable by edges (like sinks) are added on the fly
+		final Set<Vertex<LETTER, STATE>> vertices = gameGraph.getVertices();
+		mVertices = new ArrayList<>(vertices);
+		final Map<Vertex<LETTER, STATE>, Integer> vertexToIndex = new HashMap<>(vertices.size() * 2);
+		for (int i = 0; i < mVertices.size(); i++) {
+			vertexToIndex.put(mVertices.get(i), i);
+		}
+
+		final List<int[]> successors = new ArrayList<>();
+		final List<int[]> pushOverSuccessors = new ArrayList<>();
+		int amountOfEdges = 0;
+		int amountOfPushOverEdges = 0;
+		for (int i = 0; i < mVertices.size(); i++) {
+			final Vertex<LETTER, STATE> vertex = mVertices.get(i);
+			final int[] succs = toIndices(gameGraph.hasSuccessors(vertex) ? gameGraph.getSuccessors(vertex) : null,
+					vertexToIndex);
+			final int[] pushOverSuccs = toIndices(
+					gameGraph.hasPushOverSuccessors(vertex) ? gameGraph.getPushOverSuccessors(vertex) : null,
+					vertexToIndex);
+			successors.add(succs);
+			pushOverSuccessors.add(pushOverSuccs);
+			amountOfEdges += succs.length;
+			amountOfPushOverEdges += pushOverSuccs.length;
+		}
+
+		final int size = mVertices.size();
+		mPriorities = new byte[size];
+		mDuplicatorVertices = new BitSet(size);
+		mInitialProgressMeasures = new int[size];
+		for (int i = 0; i < size; i++) {
+			final Vertex<LETTER, STATE> vertex = mVertices.get(i);
+			mPriorities[i] = (byte) gameGraph.getPriority(vertex);
+			if (vertex.isDuplicatorVertex()) {
+				mDuplicatorVertices.set(i);
+			}
+			mInitialProgressMeasures[i] = vertex.getPM(null, mGlobalInfinity);
+		}
+
+		mSuccessorOffsets = new int[size + 1];
+		mSuccessors = new int[amountOfEdges];
+		fillRows(successors, mSuccessorOffsets, mSuccessors);
+		mPredecessorOffsets = new int[size + 1];
+		mPredecessors = new int[amountOfEdges];
+		transpose(mSuccessorOffsets, mSuccessors, mPredecessorOffsets, mPredecessors);
+
+		mPushOverSuccessorOffsets = new int[size + 1];
+		mPushOverSuccessors = new int[amountOfPushOverEdges];
+		fillRows(pushOverSuccessors, mPushOverSuccessorOffsets, mPushOverSuccessors);
+		mPushOverPredecessorOffsets = new int[size + 1];
+		mPushOverPredecessors = new int[amountOfPushOverEdges];
+		transpose(mPushOverSuccessorOffsets, mPushOverSuccessors, mPushOverPredecessorOffsets, mPushOverPredecessors);
+	}
+
+	/**
+	 * Sets the progress measure of every vertex of the underlying game graph.
+	 *
+	 * @param progressMeasures
+	 *            The progress measures, indexed like the vertices of this graph
+	 */
+	public void applyProgressMeasures(final int[] progressMeasures) {
+		if (progressMeasures.length != mVertices.size()) {
+			throw new IllegalArgumentException("Expected " + mVertices.size() + " progress measures, got "
+					+ progressMeasures.length);
+		}
+		for (int i = 0; i < progressMeasures.length; i++) {
+			mVertices.get(i).setPM(progressMeasures[i]);
+		}
+	}
+
+	/**
+	 * @return The number of edges, without push-over edges.
+	 */
+	public int getAmountOfEdges() {
+		return mSuccessors.length;
+	}
+
+	/**
+	 * @return The global infinity of the game graph at the time of the snapshot.
+	 */
+	public int getGlobalInfinity() {
+		return mGlobalInfinity;
+	}
+
+	/**
+	 * Gets the number of bytes the arrays of this snapshot occupy. The vertex objects of the underlying game graph are
+	 * not counted, only the references to them.
+	 *
+	 * @return An estimation of the memory footprint in bytes.
+	 */
+	public long getMemoryFootprint() {
+		final long intArrays = (long) mSuccessors.length + mPredecessors.length + mPushOverSuccessors.length
+				+ mPushOverPredecessors.length + 5L * (mVertices.size() + 1);
+		return BYTES_PER_INT * intArrays + mPriorities.length + mDuplicatorVertices.size() / Byte.SIZE
+				+ (long) BYTES_PER_REFERENCE * mVertices.size() + 11L * BYTES_PER_ARRAY;
+	}
+
+	/**
+	 * @return The number of vertices.
+	 */
+	public int getSize() {
+		return mVertices.size();
+	}
+
+	/**
+	 * @param index
+	 *            Index of a vertex
+	 * @return The vertex of the underlying game graph.
+	 */
+	public Vertex<LETTER, STATE> getVertex(final int index) {
+		return mVertices.get(index);
+	}
+
+	int getInitialProgressMeasure(final int vertex) {
+		return mInitialProgressMeasures[vertex];
+	}
+
+	int getPriority(final int vertex) {
+		return mPriorities[vertex];
+	}
+
+	boolean isDuplicatorVertex(final int vertex) {
+		return mDuplicatorVertices.get(vertex);
+	}
+
+	int[] getSuccessorOffsets() {
+		return mSuccessorOffsets;
+	}
+
+	int[] getSuccessors() {
+		return mSuccessors;
+	}
+
+	int[] getPredecessorOffsets() {
+		return mPredecessorOffsets;
+	}
+
+	int[] getPredecessors() {
+		return mPredecessors;
+	}
+
+	int[] getPushOverSuccessorOffsets() {
+		return mPushOverSuccessorOffsets;
+	}
+
+	int[] getPushOverSuccessors() {
+		return mPushOverSuccessors;
+	}
+
+	int[] getPushOverPredecessorOffsets() {
+		return mPushOverPredecessorOffsets;
+	}
+
+	int[] getPushOverPredecessors() {
+		return mPushOverPredecessors;
+	}
+
+	private int[] toIndices(final Set<Vertex<LETTER, STATE>> targets,
+			final Map<Vertex<LETTER, STATE>, Integer> vertexToIndex) {
+		if (targets == null) {
+			return new int[0];
+		}
+		final int[] result = new int[targets.size()];
+		int i = 0;
+		for (final Vertex<LETTER, STATE> target : targets) {
+			Integer index = vertexToIndex.get(target);
+			if (index == null) {
+				index = mVertices.size();
+				mVertices.add(target);
+				vertexToIndex.put(target, index);
+			}
+			result[i] = index;
+			i++;
+		}
+		return result;
+	}
+
+	private static void fillRows(final List<int[]> rows, final int[] offsets, final int[] entries) {
+		int position = 0;
+		for (int i = 0; i < rows.size(); i++) {
+			offsets[i] = position;
+			final int[] row = rows.get(i);
+			System.arraycopy(row, 0, entries, position, row.length);
+			position += row.length;
+		}
+		offsets[rows.size()] = position;
+	}
+
+	private static void transpose(final int[] offsets, final int[] entries, final int[] transposedOffsets,
+			final int[] transposedEntries) {
+		final int size = offsets.length - 1;
+		// Count the incoming edges, shifted by one such that the prefix sum yields the offsets
+		for (final int target : entries) {
+			transposedOffsets[target + 1]++;
+		}
+		for (int i = 0; i < size; i++) {
+			transposedOffsets[i + 1] += transposedOffsets[i];
+		}
+		final int[] position = new int[size];
+		System.arraycopy(transposedOffsets, 0, position, 0, size);
+		for (int source = 0; source < size; source++) {
+			for (int j = offsets[source]; j < offsets[source + 1]; j++) {
+				final int target = entries[j];
+				transposedEntries[position[target]] = source;
+				position[target]++;
+			}
+		}
+	}
+}
@@ -0,0 +1,309 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.simulation.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataOperationCanceledException;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IProgressAwareTimer;
+
+/**
+ * Computes the progress measures of all vertices of a {@link CompactGameGraph} in parallel.<br/>
+ * <br/>
+ * The solver computes the same least fixpoint as the lifting algorithm of
+ * {@link de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.simulation.ASimulation ASimulation}
+ * without SCC optimization. A vertex is lifted to the best progress measure of its successors (minimal for
+ * <i>Duplicator</i>, maximal for <i>Spoiler</i>), adjusted by its priority. Successors over push-over edges are only
+ * considered if they have reached infinity. For a safety game, like direct simulation, this is the attractor
+ * computation of the vertices with progress measure infinity.<br/>
+ * <br/>
+ * The lifting operator is monotone, so the lifts may be applied in any order and concurrently as long as the progress
+ * measures only increase. The progress measures are stored in an {@link AtomicIntegerArray} and updated by
+ * compare-and-set. A vertex is scheduled at most once at a time. Its flag is cleared before it is lifted, hence every
+ * increase of a successor that the lift might have missed schedules it again.<br/>
+ * <br/>
+ * The scheduled vertices are distributed over {@link RecursiveAction}s of a {@link ForkJoinPool}. Each task works off
+ * its own stack of vertices and forks half of it as a new task once the stack grows large; idle threads steal those
+ * tasks.
+ */
+public final class ParallelProgressMeasureSolver {
+	/**
+	 * A task forks half of its vertices once it has more than twice this number.
+	 */
+	private static final int SPLIT_SIZE = 512;
+	/**
+	 * The progress timer is queried every this many lifts.
+	 */
+	private static final int TIMER_CHECK_INTERVAL = 1024;
+
+	private final CompactGameGraph<?, ?> mGraph;
+	private final int mNumberOfThreads;
+	private final IProgressAwareTimer mProgressTimer;
+	private final boolean mSpoilerWinsAtDeadEnds;
+	private final int mInfinity;
+	private final AtomicIntegerArray mProgressMeasures;
+	private final AtomicIntegerArray mScheduled;
+	private final LongAdder mSteps;
+	private volatile boolean mCanceled;
+
+	/**
+	 * Creates a solver for the given graph. The computation is started by {@link #solve()}.
+	 *
+	 * @param graph
+	 *            The game graph
+	 * @param numberOfThreads
+	 *            The number of threads to use, at least 1
+	 * @param progressTimer
+	 *            Timer used for responding to timeouts and operation cancellation.
+	 * @param spoilerWinsAtDeadEnds
+	 *            If <i>Spoiler</i> vertices without successors get a progress measure of infinity instead of 0, see
+	 *            {@link de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.simulation.ASimulation#spoilerWinsAtDeadEnds()
+	 *            ASimulation.spoilerWinsAtDeadEnds()}
+	 */
+	public ParallelProgressMeasureSolver(final CompactGameGraph<?, ?> graph, final int numberOfThreads,
+			final IProgressAwareTimer progressTimer, final boolean spoilerWinsAtDeadEnds) {
+		if (numberOfThreads < 1) {
+			throw new IllegalArgumentException("At least one thread is needed.");
+		}
+		mGraph = graph;
+		mNumberOfThreads = numberOfThreads;
+		mProgressTimer = progressTimer;
+		mSpoilerWinsAtDeadEnds = spoilerWinsAtDeadEnds;
+		mInfinity = graph.getGlobalInfinity();
+		final int size = graph.getSize();
+		mProgressMeasures = new AtomicIntegerArray(size);
+		for (int i = 0; i < size; i++) {
+			mProgressMeasures.set(i, Math.min(graph.getInitialProgressMeasure(i), mInfinity));
+		}
+		mScheduled = new AtomicIntegerArray(size);
+		mSteps = new LongAdder();
+	}
+
+	/**
+	 * Computes the progress measures.
+	 *
+	 * @throws AutomataOperationCanceledException
+	 *             If the operation was canceled, for example from the Ultimate framework.
+	 */
+	public void solve() throws AutomataOperationCanceledException {
+		final int size = mGraph.getSize();
+		final int[] initial = new int[size];
+		for (int i = 0; i < size; i++) {
+			initial[i] = size - 1 - i;
+			mScheduled.set(i, 1);
+		}
+
+		final ForkJoinPool pool = new ForkJoinPool(mNumberOfThreads);
+		try {
+			pool.invoke(new LiftTask(initial, size));
+		} finally {
+			pool.shutdown();
+		}
+		if (mCanceled) {
+			throw new AutomataOperationCanceledException(getClass());
+		}
+	}
+
+	/**
+	 * @return The progress measures, indexed like the vertices of the graph.
+	 */
+	public int[] getProgressMeasures() {
+		final int[] result = new int[mProgressMeasures.length()];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = mProgressMeasures.get(i);
+		}
+		return result;
+	}
+
+	/**
+	 * @return The number of lifts the computation needed.
+	 */
+	public long getSteps() {
+		return mSteps.sum();
+	}
+
+	/**
+	 * Lifts the given vertex.
+	 *
+	 * @return <tt>true</tt> if the progress measure of the vertex increased
+	 */
+	private boolean lift(final int vertex) {
+		final int old = mProgressMeasures.get(vertex);
+		if (old >= mInfinity) {
+			return false;
+		}
+		final int priority = mGraph.getPriority(vertex);
+		final int lifted = increaseVector(priority, decreaseVector(priority, getBestNeighborMeasure(vertex)));
+		if (lifted <= old) {
+			return false;
+		}
+		while (true) {
+			final int current = mProgressMeasures.get(vertex);
+			if (current >= lifted) {
+				return false;
+			}
+			if (mProgressMeasures.compareAndSet(vertex, current, lifted)) {
+				return true;
+			}
+		}
+	}
+
+	private int getBestNeighborMeasure(final int vertex) {
+		final boolean isDuplicatorVertex = mGraph.isDuplicatorVertex(vertex);
+		boolean hasSuccessor = false;
+		int optimum = isDuplicatorVertex ? mInfinity : 0;
+
+		final int[] offsets = mGraph.getSuccessorOffsets();
+		final int[] successors = mGraph.getSuccessors();
+		for (int i = offsets[vertex]; i < offsets[vertex + 1]; i++) {
+			hasSuccessor = true;
+			final int progressMeasure = mProgressMeasures.get(successors[i]);
+			if (isDuplicatorVertex) {
+				optimum = Math.min(optimum, progressMeasure);
+			} else {
+				optimum = Math.max(optimum, progressMeasure);
+			}
+		}
+		if (!hasSuccessor && !isDuplicatorVertex && mSpoilerWinsAtDeadEnds) {
+			return mInfinity;
+		}
+
+		// Push-over successors only count once they reached infinity
+		final int[] pushOverOffsets = mGraph.getPushOverSuccessorOffsets();
+		final int[] pushOverSuccessors = mGraph.getPushOverSuccessors();
+		for (int i = pushOverOffsets[vertex]; i < pushOverOffsets[vertex + 1]; i++) {
+			if (mProgressMeasures.get(pushOverSuccessors[i]) >= mInfinity) {
+				hasSuccessor = true;
+				if (!isDuplicatorVertex) {
+					optimum = mInfinity;
+				}
+			}
+		}
+
+		// If there are no successors, the corresponding player looses
+		if (!hasSuccessor) {
+			return isDuplicatorVertex ? mInfinity : 0;
+		}
+		return optimum;
+	}
+
+	private int decreaseVector(final int priority, final int vector) {
+		if (vector >= mInfinity) {
+			return mInfinity;
+		}
+		return priority == 0 ? 0 : vector;
+	}
+
+	private int increaseVector(final int priority, final int vector) {
+		if (vector >= mInfinity) {
+			return mInfinity;
+		}
+		if (priority == 1) {
+			return vector + 1 >= mInfinity ? mInfinity : vector + 1;
+		}
+		return decreaseVector(priority, vector);
+	}
+
+	/**
+	 * Works off a stack of scheduled vertices and pushes the predecessors of lifted vertices onto it.
+	 */
+	private final class LiftTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private int[] mStack;
+		private int mSize;
+
+		LiftTask(final int[] stack, final int size) {
+			mStack = stack;
+			mSize = size;
+		}
+
+		@Override
+		protected void compute() {
+			final List<LiftTask> forked = new ArrayList<>();
+			long steps = 0;
+			while (mSize > 0 && !mCanceled) {
+				mSize--;
+				final int vertex = mStack[mSize];
+				mScheduled.set(vertex, 0);
+				steps++;
+				if (lift(vertex)) {
+					schedule(mGraph.getPredecessorOffsets(), mGraph.getPredecessors(), vertex);
+					if (mProgressMeasures.get(vertex) >= mInfinity) {
+						schedule(mGraph.getPushOverPredecessorOffsets(), mGraph.getPushOverPredecessors(), vertex);
+					}
+				}
+				if (mSize > 2 * SPLIT_SIZE) {
+					forked.add(split());
+				}
+				if (steps % TIMER_CHECK_INTERVAL == 0 && mProgressTimer != null
+						&& !mProgressTimer.continueProcessing()) {
+					mCanceled = true;
+				}
+			}
+			mSteps.add(steps);
+			for (final LiftTask task : forked) {
+				task.join();
+			}
+		}
+
+		private void schedule(final int[] offsets, final int[] predecessors, final int vertex) {
+			for (int i = offsets[vertex]; i < offsets[vertex + 1]; i++) {
+				final int pred = predecessors[i];
+				if (mProgressMeasures.get(pred) < mInfinity && mScheduled.get(pred) == 0
+						&& mScheduled.compareAndSet(pred, 0, 1)) {
+					push(pred);
+				}
+			}
+		}
+
+		private void push(final int vertex) {
+			if (mSize == mStack.length) {
+				mStack = Arrays.copyOf(mStack, Math.max(2 * mStack.length, SPLIT_SIZE));
+			}
+			mStack[mSize] = vertex;
+			mSize++;
+		}
+
+		/**
+		 * Forks the bottom half of the stack, i.e., the vertices that were scheduled first.
+		 */
+		private LiftTask split() {
+			final int half = mSize / 2;
+			final LiftTask task = new LiftTask(Arrays.copyOf(mStack, half), half);
+			System.arraycopy(mStack, half, mStack, 0, mSize - half);
+			mSize -= half;
+			task.fork();
+			return task;
+		}
+	}
+}
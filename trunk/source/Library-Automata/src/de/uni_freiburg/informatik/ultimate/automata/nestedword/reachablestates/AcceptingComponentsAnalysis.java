@@ -28,6 +28,7 @@ package de.uni_freiburg.informatik.ultimate.automata.nestedword.reachablestates;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -80,6 +81,8 @@ public class AcceptingComponentsAnalysis<LETTER, STATE> {
 	private List<NestedLassoRun<LETTER, STATE>> mNestedLassoRuns;
 	private NestedLassoRun<LETTER, STATE> mNestedLassoRun;
 	private final SccComputation<StateContainer<LETTER, STATE>, StronglyConnectedComponentWithAcceptanceInformation<LETTER, STATE>> mSccComputation;
+	private final List<StronglyConnectedComponentWithAcceptanceInformation<LETTER, STATE>> mBalls;
+	private final int mNumberOfSccs;
 
 	private int mAcceptingBalls;
 	private final AutomataLibraryServices mServices;
@@ -119,9 +122,54 @@ public class AcceptingComponentsAnalysis<LETTER, STATE> {
 				allStates.size(), startNodes);
 		mTransitionFilter = new StateBasedTransitionFilterPredicateProvider<>(allStates);
 		mAcceptingSummaries = asc.getAcceptingSummaries();
+		mBalls = new ArrayList<>(mSccComputation.getBalls());
+		mNumberOfSccs = mSccComputation.getSCCs().size();
+		analyzeAcceptingBalls();
+	}
+
+	/**
+	 * Constructor for balls that are already known, e.g., because the SCCs were maintained while the automaton was
+	 * constructed. No SCC computation is done.
+	 *
+	 * @param services
+	 *            Ultimate services
+	 * @param nwars
+	 *            nested word automaton with reachable states information
+	 * @param asc
+	 *            accepting summary computation
+	 * @param balls
+	 *            the states of each ball SCC of the whole automaton
+	 * @param numberOfSccs
+	 *            number of all SCCs of the whole automaton
+	 */
+	AcceptingComponentsAnalysis(final AutomataLibraryServices services,
+			final NestedWordAutomatonReachableStates<LETTER, STATE> nwars,
+			final NestedWordAutomatonReachableStates<LETTER, STATE>.AcceptingSummariesComputation asc,
+			final Collection<Set<StateContainer<LETTER, STATE>>> balls, final int numberOfSccs) {
+		mServices = services;
+		mLogger = mServices.getLoggingService().getLogger(LibraryIdentifiers.PLUGIN_ID);
+		mNwars = nwars;
+		mScComponentFactory = new StronglyConnectedComponentWithAcceptanceInformation_Factory(nwars);
+		mNwarsSuccessorProvider = null;
+		mSccComputation = null;
+		mTransitionFilter = new StateBasedTransitionFilterPredicateProvider<>(nwars.getStates());
+		mAcceptingSummaries = asc.getAcceptingSummaries();
+		mBalls = new ArrayList<>(balls.size());
+		for (final Set<StateContainer<LETTER, STATE>> ball : balls) {
+			final StronglyConnectedComponentWithAcceptanceInformation<LETTER, STATE> scc =
+					mScComponentFactory.constructNewSCComponent();
+			for (final StateContainer<LETTER, STATE> cont : ball) {
+				scc.addNode(cont);
+			}
+			scc.setRootNode(scc.getStateWithLowestSerialNumber());
+			mBalls.add(scc);
+		}
+		mNumberOfSccs = numberOfSccs;
+		analyzeAcceptingBalls();
+	}
 
-		for (final StronglyConnectedComponentWithAcceptanceInformation<LETTER, STATE> scc : mSccComputation
-				.getBalls()) {
+	private void analyzeAcceptingBalls() {
+		for (final StronglyConnectedComponentWithAcceptanceInformation<LETTER, STATE> scc : mBalls) {
 			if (scc.isAccepting()) {
 				mAllStatesOfSccsWithoutCallAndReturn.addAll(scc.getNodes());
 				mAcceptingBalls++;
@@ -140,7 +188,7 @@ public class AcceptingComponentsAnalysis<LETTER, STATE> {
 	 * @return Number of all SCCs (including non-accepting and non-ball SCCs).
 	 */
 	int getNumberOfAllSccs() {
-		return mSccComputation.getSCCs().size();
+		return mNumberOfSccs;
 	}
 
 	/**
@@ -150,11 +198,21 @@ public class AcceptingComponentsAnalysis<LETTER, STATE> {
 		return mAcceptingBalls == 0;
 	}
 
+	/**
+	 * @return The SCC computation, {@code null} if the balls were given to the constructor.
+	 */
 	public SccComputation<StateContainer<LETTER, STATE>, StronglyConnectedComponentWithAcceptanceInformation<LETTER, STATE>>
 			getSccComputation() {
 		return mSccComputation;
 	}
 
+	/**
+	 * @return All ball SCCs (see {@link SccComputation#getBalls()}).
+	 */
+	public Collection<StronglyConnectedComponentWithAcceptanceInformation<LETTER, STATE>> getBalls() {
+		return Collections.unmodifiableList(mBalls);
+	}
+
 	/**
 	 * Computes one nested lasso run per SCC.
 	 * 
@@ -171,8 +229,7 @@ public class AcceptingComponentsAnalysis<LETTER, STATE> {
 	 */
 	public List<NestedLassoRun<LETTER, STATE>> computeNestedLassoRuns() throws AutomataOperationCanceledException {
 		final List<NestedLassoRun<LETTER, STATE>> nestedLassoRuns = new ArrayList<>();
-		for (final StronglyConnectedComponentWithAcceptanceInformation<LETTER, STATE> scc : getSccComputation()
-				.getBalls()) {
+		for (final StronglyConnectedComponentWithAcceptanceInformation<LETTER, STATE> scc : mBalls) {
 			if (!scc.isAccepting()) {
 				continue;
 			}
@@ -224,8 +281,7 @@ public class AcceptingComponentsAnalysis<LETTER, STATE> {
 	public void computeShortNestedLassoRun() throws AutomataOperationCanceledException {
 		StateContainer<LETTER, STATE> lowestSerialNumber = null;
 		StronglyConnectedComponentWithAcceptanceInformation<LETTER, STATE> sccOfLowest = null;
-		for (final StronglyConnectedComponentWithAcceptanceInformation<LETTER, STATE> scc : getSccComputation()
-				.getBalls()) {
+		for (final StronglyConnectedComponentWithAcceptanceInformation<LETTER, STATE> scc : mBalls) {
 			if (scc.isAccepting()) {
 				final StateContainer<LETTER, STATE> lowestOfScc = scc.getAcceptingWithLowestSerialNumber();
 				final StateContainer<LETTER, STATE> newlowestSerialNumber =
@@ -28,6 +28,7 @@
 package de.uni_freiburg.informatik.ultimate.automata.nestedword.reachablestates;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -40,6 +41,14 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryException;
 import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
@@ -72,6 +81,7 @@ import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
 import de.uni_freiburg.informatik.ultimate.util.DebugMessage;
 import de.uni_freiburg.informatik.ultimate.util.InCaReCounter;
 import de.uni_freiburg.informatik.ultimate.util.datastructures.relation.HashRelation;
+import de.uni_freiburg.informatik.ultimate.util.scc.IncrementalSccComputation;
 
 /**
  * A nested word automaton with reachable states information.
@@ -97,12 +107,27 @@ public class NestedWordAutomatonReachableStates<LETTER, STATE>
 	 */
 	private static final boolean EXT_LASSO_CONSTRUCTION_TESTING = false;
 
+	private static final String THREAD_NAME_PREFIX = "ReachableStatesComputation-";
+	/**
+	 * Time in milliseconds after which we check the timeout again while we wait for successors that are computed by
+	 * another thread.
+	 */
+	private static final long PREFETCH_POLL_INTERVAL = 100;
+	/**
+	 * If the SCCs are maintained during the construction, we give up when the searches of the incremental SCC
+	 * computation visited more than this factor times the number of states and edges. The SCCs are then computed from
+	 * scratch when they are needed.
+	 */
+	private static final int INCREMENTAL_SCC_EFFORT_FACTOR = 4;
+	private static final int INCREMENTAL_SCC_MIN_EFFORT = 10_000;
+
 	protected final IStateFactory<STATE> mStateFactory;
 
 	private final AutomataLibraryServices mServices;
 	private final ILogger mLogger;
 
 	private final INwaOutgoingTransitionProvider<LETTER, STATE> mOperand;
+	private final int mNumberOfThreads;
 
 	private final VpAlphabet<LETTER> mVpAlphabet;
 
@@ -156,6 +181,11 @@ public class NestedWordAutomatonReachableStates<LETTER, STATE>
 	private AncestorComputation mOnlyLiveStates;
 	private AcceptingSummariesComputation mAcceptingSummaries;
 	private AcceptingComponentsAnalysis<LETTER, STATE> mAcceptingComponentsAnalysis;
+	/**
+	 * SCCs of the graph of internal, call, and summary edges that are maintained during the construction, null if
+	 * they are not maintained.
+	 */
+	private IncrementalSccComputation<StateContainer<LETTER, STATE>> mIncrementalSccs;
 
 	/*
 	 * private void addSummary(StateContainer<LETTER, STATE> callPred, StateContainer<LETTER, STATE> returnSucc) {
@@ -176,13 +206,78 @@ public class NestedWordAutomatonReachableStates<LETTER, STATE>
 	 */
 	public NestedWordAutomatonReachableStates(final AutomataLibraryServices services,
 			final INwaOutgoingTransitionProvider<LETTER, STATE> operand) throws AutomataOperationCanceledException {
+		this(services, operand, 1);
+	}
+
+	/**
+	 * Constructor with parallel exploration. If the operand
+	 * {@link INwaOutgoingTransitionProvider#supportsConcurrentSuccessorQueries() supports concurrent successor
+	 * queries}, the internal and call successors of the states in the forward worklist are computed by several
+	 * threads. The down states and all other bookkeeping are updated by the calling thread only, in the same order as
+	 * in the sequential exploration.
+	 *
+	 * @param services
+	 *            Ultimate services
+	 * @param operand
+	 *            operand
+	 * @param numberOfThreads
+	 *            number of threads that compute successors; 1 means sequential exploration
+	 * @throws AutomataOperationCanceledException
+	 *             if timeout exceeds
+	 */
+	public NestedWordAutomatonReachableStates(final AutomataLibraryServices services,
+			final INwaOutgoingTransitionProvider<LETTER, STATE> operand, final int numberOfThreads)
+			throws AutomataOperationCanceledException {
+		this(services, operand, numberOfThreads, false);
+	}
+
+	/**
+	 * Constructor that can maintain the strongly connected components while the reachable states are constructed.
+	 * Then {@link #getOrComputeAcceptingComponents()} does not need another SCC computation, which is useful if the
+	 * automaton is constructed for a Buchi emptiness check.
+	 *
+	 * @param services
+	 *            Ultimate services
+	 * @param operand
+	 *            operand
+	 * @param numberOfThreads
+	 *            number of threads that compute successors; 1 means sequential exploration
+	 * @param maintainSccs
+	 *            {@code true} iff the SCCs should be maintained during the construction
+	 * @throws AutomataOperationCanceledException
+	 *             if timeout exceeds
+	 */
+	public NestedWordAutomatonReachableStates(final AutomataLibraryServices services,
+			final INwaOutgoingTransitionProvider<LETTER, STATE> operand, final int numberOfThreads,
+			final boolean maintainSccs) throws AutomataOperationCanceledException {
+		if (numberOfThreads < 1) {
+			throw new IllegalArgumentException("number of threads must be positive");
+		}
 		mServices = services;
 		mLogger = mServices.getLoggingService().getLogger(LibraryIdentifiers.PLUGIN_ID);
 		mOperand = operand;
+		mNumberOfThreads = numberOfThreads;
 		mVpAlphabet = operand.getVpAlphabet();
 		mStateFactory = operand.getStateFactory();
+		if (maintainSccs) {
+			mIncrementalSccs = new IncrementalSccComputation<>();
+		}
 		try {
-			new ReachableStatesComputation();
+			if (mNumberOfThreads > 1 && operand.supportsConcurrentSuccessorQueries()) {
+				final ExecutorService executor =
+						Executors.newFixedThreadPool(mNumberOfThreads, new ReachableStatesThreadFactory());
+				try {
+					new ReachableStatesComputation(executor);
+				} finally {
+					executor.shutdownNow();
+				}
+			} else {
+				if (mNumberOfThreads > 1 && mLogger.isDebugEnabled()) {
+					mLogger.debug("Operand " + operand.getClass().getSimpleName()
+							+ " does not support concurrent successor queries, exploring sequentially");
+				}
+				new ReachableStatesComputation(null);
+			}
 			// computeDeadEnds();
 			// new NonLiveStateComputation();
 			if (EXT_LASSO_CONSTRUCTION_TESTING) {
@@ -315,6 +410,14 @@ public class NestedWordAutomatonReachableStates<LETTER, STATE>
 		return mStates.size();
 	}
 
+	/**
+	 * All states and transitions are constructed in the constructor, afterwards successor queries only read.
+	 */
+	@Override
+	public boolean supportsConcurrentSuccessorQueries() {
+		return true;
+	}
+
 	@Override
 	public String sizeInformation() {
 		final int states = mStates.size();
@@ -322,7 +425,7 @@ public class NestedWordAutomatonReachableStates<LETTER, STATE>
 		if (mAcceptingComponentsAnalysis != null) {
 			final int transitions = mNumberTransitions.getSum();
 			final int cyclomaticComplexity =
-					computeCyclomaticComplexity(transitions, states, mAcceptingComponentsAnalysis.getSccComputation().getBalls().size());
+					computeCyclomaticComplexity(transitions, states, mAcceptingComponentsAnalysis.getBalls().size());
 			result += " cyclomatic complexity: " + cyclomaticComplexity;
 		}
 		return result;
@@ -644,8 +747,16 @@ public class NestedWordAutomatonReachableStates<LETTER, STATE>
 		}
 		assert mAcceptingSummaries == null;
 		mAcceptingSummaries = new AcceptingSummariesComputation();
-		mAcceptingComponentsAnalysis = new AcceptingComponentsAnalysis<>(mServices, this, mAcceptingSummaries,
-				mStates.keySet(), mInitialStates);
+		if (mIncrementalSccs == null) {
+			mAcceptingComponentsAnalysis = new AcceptingComponentsAnalysis<>(mServices, this, mAcceptingSummaries,
+					mStates.keySet(), mInitialStates);
+		} else {
+			assert mIncrementalSccs.getNumberOfNodes() == mStates.size();
+			mAcceptingComponentsAnalysis = new AcceptingComponentsAnalysis<>(mServices, this, mAcceptingSummaries,
+					mIncrementalSccs.getBalls(), mIncrementalSccs.getNumberOfComponents());
+			// the automaton does not change anymore
+			mIncrementalSccs = null;
+		}
 	}
 
 	/**
@@ -717,7 +828,7 @@ public class NestedWordAutomatonReachableStates<LETTER, STATE>
 		}
 		final AcceptingComponentsAnalysis<LETTER, STATE> sccComputation =
 				new AcceptingComponentsAnalysis<>(mServices, this, mAcceptingSummaries, stateSubset, startStates);
-		return sccComputation.getSccComputation().getBalls();
+		return sccComputation.getBalls();
 	}
 
 	// //////////////////////////////////////////////////////////////////////////
@@ -926,8 +1037,16 @@ public class NestedWordAutomatonReachableStates<LETTER, STATE>
 		private int mNumberOfConstructedStates;
 		private final LinkedList<StateContainer<LETTER, STATE>> mForwardWorklist = new LinkedList<>();
 		private final LinkedList<StateContainer<LETTER, STATE>> mDownPropagationWorklist = new LinkedList<>();
+		/**
+		 * Executor that computes successors of states in the forward worklist, null if the exploration is
+		 * sequential.
+		 */
+		private final ExecutorService mExecutor;
+		private final Map<StateContainer<LETTER, STATE>, Future<Successors<LETTER, STATE>>> mPrefetchedSuccessors =
+				new HashMap<>();
 
-		ReachableStatesComputation() throws AutomataOperationCanceledException {
+		ReachableStatesComputation(final ExecutorService executor) throws AutomataOperationCanceledException {
+			mExecutor = executor;
 			addInitialStates(mOperand.getInitialStates());
 
 			do {
@@ -953,8 +1072,9 @@ public class NestedWordAutomatonReachableStates<LETTER, STATE>
 							}
 						}
 					}
-					addInternalsAndSuccessors(cont);
-					final Set<STATE> newDownStates = addCallsAndSuccessors(cont);
+					final Successors<LETTER, STATE> successors = getSuccessors(cont);
+					addInternalsAndSuccessors(cont, successors.mInternal);
+					final Set<STATE> newDownStates = addCallsAndSuccessors(cont, successors.mCall);
 					if (newDownStates != null) {
 						if (newDownStatesFormSelfloops == null) {
 							newDownStatesFormSelfloops = new HashSet<>();
@@ -988,7 +1108,11 @@ public class NestedWordAutomatonReachableStates<LETTER, STATE>
 			} while (!mDownPropagationWorklist.isEmpty() || !mForwardWorklist.isEmpty());
 			assert mForwardWorklist.isEmpty();
 			assert mDownPropagationWorklist.isEmpty();
+			assert mPrefetchedSuccessors.isEmpty();
 			assert checkTransitionsReturnedConsistent();
+			if (mIncrementalSccs != null && mLogger.isDebugEnabled()) {
+				mLogger.debug("Maintained SCCs: " + mIncrementalSccs);
+			}
 
 			if (EXT_RUN_CONSTRUCTION_TESTING) {
 				for (final STATE fin : getFinalStates()) {
@@ -1035,10 +1159,64 @@ public class NestedWordAutomatonReachableStates<LETTER, STATE>
 					mNumberOfConstructedStates, downStates, canHaveOutgoingReturn);
 			mNumberOfConstructedStates++;
 			getStatesMap().put(state, result);
+			if (mIncrementalSccs != null) {
+				mIncrementalSccs.addNode(result);
+			}
 			mForwardWorklist.add(result);
+			if (mExecutor != null) {
+				mPrefetchedSuccessors.put(result, mExecutor.submit(() -> new Successors<>(mOperand, state)));
+			}
 			return result;
 		}
 
+		/**
+		 * @return the internal and call successors of the state, computed by another thread in parallel exploration
+		 */
+		private Successors<LETTER, STATE> getSuccessors(final StateContainer<LETTER, STATE> cont)
+				throws AutomataOperationCanceledException {
+			if (mExecutor == null) {
+				return new Successors<>(mOperand.internalSuccessors(cont.getState()),
+						mOperand.callSuccessors(cont.getState()));
+			}
+			final Future<Successors<LETTER, STATE>> future = mPrefetchedSuccessors.remove(cont);
+			while (true) {
+				try {
+					return future.get(PREFETCH_POLL_INTERVAL, TimeUnit.MILLISECONDS);
+				} catch (final TimeoutException e) {
+					if (!getServices().getProgressAwareTimer().continueProcessing()) {
+						throw new AutomataOperationCanceledException(constructRunningTaskInfo());
+					}
+				} catch (final InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new AutomataOperationCanceledException(constructRunningTaskInfo());
+				} catch (final ExecutionException e) {
+					final Throwable cause = e.getCause();
+					if (cause instanceof RuntimeException) {
+						throw (RuntimeException) cause;
+					} else if (cause instanceof Error) {
+						throw (Error) cause;
+					}
+					throw new AssertionError(cause);
+				}
+			}
+		}
+
+		/**
+		 * Adds an internal, call, or summary edge to the maintained SCCs. If maintaining the SCCs becomes too
+		 * expensive, we stop and compute the SCCs from scratch when they are needed.
+		 */
+		private void addSccEdge(final StateContainer<LETTER, STATE> source, final StateContainer<LETTER, STATE> target) {
+			if (mIncrementalSccs == null) {
+				return;
+			}
+			mIncrementalSccs.addEdge(source, target);
+			final long size = (long) mIncrementalSccs.getNumberOfNodes() + mIncrementalSccs.getNumberOfEdges();
+			if (mIncrementalSccs.getSearchEffort() > INCREMENTAL_SCC_MIN_EFFORT + INCREMENTAL_SCC_EFFORT_FACTOR * size) {
+				mLogger.info("Stopped maintaining SCCs during construction: " + mIncrementalSccs);
+				mIncrementalSccs = null;
+			}
+		}
+
 		private boolean candidateForOutgoingReturn(final STATE state) {
 			if (mOperand.hasModifiableAlphabet()) {
 				return true;
@@ -1049,9 +1227,11 @@ public class NestedWordAutomatonReachableStates<LETTER, STATE>
 			return true;
 		}
 
-		private void addInternalsAndSuccessors(final StateContainer<LETTER, STATE> cont) throws AutomataOperationCanceledException {
+		private void addInternalsAndSuccessors(final StateContainer<LETTER, STATE> cont,
+				final Iterable<OutgoingInternalTransition<LETTER, STATE>> internalSuccessors)
+				throws AutomataOperationCanceledException {
 			final STATE state = cont.getState();
-			for (final OutgoingInternalTransition<LETTER, STATE> trans : mOperand.internalSuccessors(state)) {
+			for (final OutgoingInternalTransition<LETTER, STATE> trans : internalSuccessors) {
 				if (!getServices().getProgressAwareTimer().continueProcessing()) {
 					final RunningTaskInfo rti = constructRunningTaskInfo();
 					throw new AutomataOperationCanceledException(rti);
@@ -1067,14 +1247,17 @@ public class NestedWordAutomatonReachableStates<LETTER, STATE>
 						+ state + trans.getSucc();
 				cont.addInternalOutgoing(trans);
 				succSc.addInternalIncoming(new IncomingInternalTransition<>(state, trans.getLetter()));
+				addSccEdge(cont, succSc);
 				getNumberTransitions().incIn();
 			}
 		}
 
-		private Set<STATE> addCallsAndSuccessors(final StateContainer<LETTER, STATE> cont) throws AutomataOperationCanceledException {
+		private Set<STATE> addCallsAndSuccessors(final StateContainer<LETTER, STATE> cont,
+				final Iterable<OutgoingCallTransition<LETTER, STATE>> callSuccessors)
+				throws AutomataOperationCanceledException {
 			boolean addedSelfloop = false;
 			final STATE state = cont.getState();
-			for (final OutgoingCallTransition<LETTER, STATE> trans : mOperand.callSuccessors(cont.getState())) {
+			for (final OutgoingCallTransition<LETTER, STATE> trans : callSuccessors) {
 				if (!getServices().getProgressAwareTimer().continueProcessing()) {
 					final RunningTaskInfo rti = constructRunningTaskInfo();
 					throw new AutomataOperationCanceledException(rti);
@@ -1095,6 +1278,7 @@ public class NestedWordAutomatonReachableStates<LETTER, STATE>
 						+ state + trans.getSucc();
 				cont.addCallOutgoing(trans);
 				succCont.addCallIncoming(new IncomingCallTransition<>(state, trans.getLetter()));
+				addSccEdge(cont, succCont);
 				getNumberTransitions().incCa();
 			}
 			if (addedSelfloop) {
@@ -1134,6 +1318,7 @@ public class NestedWordAutomatonReachableStates<LETTER, STATE>
 				cont.addReturnOutgoing(trans);
 				succCont.addReturnIncoming(new IncomingReturnTransition<>(cont.getState(), down, trans.getLetter()));
 				addReturnSummary(state, down, trans.getLetter(), succ);
+				addSccEdge(downCont, succCont);
 				getNumberTransitions().incRe();
 				// addSummary(downCont, succCont);
 			}
@@ -1214,6 +1399,50 @@ public class NestedWordAutomatonReachableStates<LETTER, STATE>
 		}
 	}
 
+	/**
+	 * Internal and call successors of a state.
+	 */
+	private static final class Successors<LETTER, STATE> {
+		private final Iterable<OutgoingInternalTransition<LETTER, STATE>> mInternal;
+		private final Iterable<OutgoingCallTransition<LETTER, STATE>> mCall;
+
+		Successors(final Iterable<OutgoingInternalTransition<LETTER, STATE>> internal,
+				final Iterable<OutgoingCallTransition<LETTER, STATE>> call) {
+			mInternal = internal;
+			mCall = call;
+		}
+
+		/**
+		 * Query and copy all successors, such that on-the-fly operands do their work in the calling thread.
+		 */
+		Successors(final INwaOutgoingTransitionProvider<LETTER, STATE> operand, final STATE state) {
+			final List<OutgoingInternalTransition<LETTER, STATE>> internal = new ArrayList<>();
+			for (final OutgoingInternalTransition<LETTER, STATE> trans : operand.internalSuccessors(state)) {
+				internal.add(trans);
+			}
+			final List<OutgoingCallTransition<LETTER, STATE>> call = new ArrayList<>();
+			for (final OutgoingCallTransition<LETTER, STATE> trans : operand.callSuccessors(state)) {
+				call.add(trans);
+			}
+			mInternal = internal;
+			mCall = call;
+		}
+	}
+
+	/**
+	 * Creates daemon threads for the parallel exploration.
+	 */
+	private static final class ReachableStatesThreadFactory implements ThreadFactory {
+		private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+		@Override
+		public Thread newThread(final Runnable runnable) {
+			final Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + THREAD_COUNTER.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+
 	// //////////////////////////////////////////////////////////////////////////////
 	/**
 	 * Compute all ancestor double deckers for a given set of states which we call the precious states. (In a dead end
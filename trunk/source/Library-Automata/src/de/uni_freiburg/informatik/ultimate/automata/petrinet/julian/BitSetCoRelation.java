@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.petrinet.julian;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.uni_freiburg.informatik.ultimate.automata.petrinet.Place;
+
+/**
+ * A co-relation between {@link Condition}s that is stored as one {@link BitSet} per condition.
+ * <p>
+ * Each condition gets a dense index in the order in which it is added to the branching process. The bit set of a
+ * condition contains the indices of all conditions that are in co-relation with it.
+ * <p>
+ * If an event e is added, a successor condition c of e is in co-relation with
+ * <ul>
+ * <li>all other successor conditions of e and</li>
+ * <li>all conditions that are in co-relation with each predecessor condition of e.</li>
+ * </ul>
+ * Hence, the update for e is an intersection of the bit sets of the predecessor conditions and does not have to
+ * consider the other events of the branching process.
+ *
+ * @param <S>
+ *            symbol type
+ * @param <C>
+ *            place content type
+ */
+public class BitSetCoRelation<S, C> implements ICoRelation<S, C> {
+	private int mCoRelationQueries;
+
+	private final BranchingProcess<S, C> mBranchingProcess;
+	private final Map<Condition<S, C>, Integer> mCondition2Index = new HashMap<>();
+	private final List<Condition<S, C>> mIndex2Condition = new ArrayList<>();
+	private final List<BitSet> mCoRelation = new ArrayList<>();
+	private final Map<Place<S, C>, BitSet> mPlace2Conditions = new HashMap<>();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param branchingProcess
+	 *            branching process
+	 */
+	public BitSetCoRelation(final BranchingProcess<S, C> branchingProcess) {
+		mBranchingProcess = branchingProcess;
+	}
+
+	@Override
+	public int getCoRelationQueries() {
+		return mCoRelationQueries;
+	}
+
+	@Override
+	public void update(final Event<S, C> event) {
+		final BitSet common;
+		final Iterator<Condition<S, C>> iter = event.getPredecessorConditions().iterator();
+		if (iter.hasNext()) {
+			common = (BitSet) getCoRelatedConditions(iter.next()).clone();
+			while (iter.hasNext()) {
+				common.and(getCoRelatedConditions(iter.next()));
+			}
+		} else {
+			// the dummy root
+			common = new BitSet();
+		}
+
+		final BitSet successors = new BitSet();
+		for (final Condition<S, C> c : event.getSuccessorConditions()) {
+			final int index = mIndex2Condition.size();
+			mCondition2Index.put(c, index);
+			mIndex2Condition.add(c);
+			mCoRelation.add(null);
+			mPlace2Conditions.computeIfAbsent(c.getPlace(), p -> new BitSet()).set(index);
+			successors.set(index);
+		}
+		for (int i = common.nextSetBit(0); i >= 0; i = common.nextSetBit(i + 1)) {
+			mCoRelation.get(i).or(successors);
+		}
+		for (int i = successors.nextSetBit(0); i >= 0; i = successors.nextSetBit(i + 1)) {
+			final BitSet coRelated = (BitSet) common.clone();
+			coRelated.or(successors);
+			coRelated.clear(i);
+			mCoRelation.set(i, coRelated);
+		}
+	}
+
+	@Override
+	public boolean isInCoRelation(final Condition<S, C> c1, final Condition<S, C> c2) {
+		mCoRelationQueries++;
+		// the bit sets do not contain the condition itself
+		final boolean result = c1 == c2 || getCoRelatedConditions(c1).get(getIndex(c2));
+		if (result) {
+			assert !mBranchingProcess.inCausalRelation(c1, c2) : c1 + " , " + c2
+					+ " in causal relation, not in co-relation!";
+			assert !mBranchingProcess.inConflict(c1, c2) : c1 + " , " + c2 + " in conflict, not in co-relation!";
+		} else {
+			assert mBranchingProcess.inCausalRelation(c1, c2) || mBranchingProcess.inConflict(c1, c2) : c1 + " , " + c2
+					+ " missing in co-relation!";
+		}
+		return result;
+	}
+
+	@Override
+	public void initialize(final Set<Condition<S, C>> initialConditions) {
+		// the initial conditions are the successors of the dummy root, they are handled by update
+	}
+
+	@Override
+	public boolean isCoset(final Collection<Condition<S, C>> coSet, final Condition<S, C> c) {
+		for (final Condition<S, C> condition : coSet) {
+			if (!isInCoRelation(c, condition)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param condition
+	 *            A condition of the branching process.
+	 * @return The indices of all conditions that are in co-relation with the given condition. The result must not be
+	 *         modified.
+	 */
+	BitSet getCoRelatedConditions(final Condition<S, C> condition) {
+		return mCoRelation.get(getIndex(condition));
+	}
+
+	/**
+	 * @param place
+	 *            A place of the net.
+	 * @return The indices of all conditions that belong to the given place. The result must not be modified.
+	 */
+	BitSet getConditions(final Place<S, C> place) {
+		final BitSet result = mPlace2Conditions.get(place);
+		return result == null ? new BitSet() : result;
+	}
+
+	/**
+	 * @param index
+	 *            An index of a condition.
+	 * @return The condition with the given index.
+	 */
+	Condition<S, C> getCondition(final int index) {
+		return mIndex2Condition.get(index);
+	}
+
+	private int getIndex(final Condition<S, C> condition) {
+		final Integer index = mCondition2Index.get(condition);
+		if (index == null) {
+			throw new IllegalArgumentException("unknown condition " + condition);
+		}
+		return index;
+	}
+}
@@ -38,11 +38,13 @@ import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
 import de.uni_freiburg.informatik.ultimate.automata.AutomataOperationCanceledException;
 import de.uni_freiburg.informatik.ultimate.automata.IAutomaton;
 import de.uni_freiburg.informatik.ultimate.automata.LibraryIdentifiers;
+import de.uni_freiburg.informatik.ultimate.automata.petrinet.Marking;
 import de.uni_freiburg.informatik.ultimate.automata.petrinet.Place;
 import de.uni_freiburg.informatik.ultimate.automata.petrinet.visualization.BranchingProcessToUltimateModel;
 import de.uni_freiburg.informatik.ultimate.automata.statefactory.IStateFactory;
 import de.uni_freiburg.informatik.ultimate.core.model.models.IElement;
 import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+import de.uni_freiburg.informatik.ultimate.util.datastructures.relation.HashRelation;
 
 /**
  * TODO undocumented.
@@ -61,10 +63,16 @@ public final class BranchingProcess<S, C> implements IAutomaton<S, C> {
 	private final Collection<Condition<S, C>> mConditions;
 	private final Collection<Event<S, C>> mEvents;
 
-	private final ICoRelation<S, C> mCoRelation;
+	private final BitSetCoRelation<S, C> mCoRelation;
 
 	private final Map<Place<S, C>, Set<Condition<S, C>>> mPlace2cond;
 
+	/**
+	 * Maps each marking to the events whose local configuration leads to this marking. Companions of cut-off events
+	 * can only be found among the events with the same marking.
+	 */
+	private final HashRelation<Marking<S, C>, Event<S, C>> mMarking2Events;
+
 	private final Event<S, C> mDummyRoot;
 
 	private final PetriNetJulian<S, C> mNet;
@@ -93,7 +101,8 @@ public final class BranchingProcess<S, C> implements IAutomaton<S, C> {
 		}
 		mConditions = new HashSet<>();
 		mEvents = new HashSet<>();
-		mCoRelation = new ConditionEventsCoRelation<>(this);
+		mMarking2Events = new HashRelation<>();
+		mCoRelation = new BitSetCoRelation<>(this);
 
 		// add a dummy event as root. its successors are the initial conditions.
 		mDummyRoot = new Event<>(net);
@@ -120,6 +129,7 @@ public final class BranchingProcess<S, C> implements IAutomaton<S, C> {
 	 */
 	boolean addEvent(final Event<S, C> event) {
 		mEvents.add(event);
+		mMarking2Events.addPair(event.getMark(), event);
 		for (final Condition<S, C> c : event.getPredecessorConditions()) {
 			c.addSuccesssor(event);
 		}
@@ -168,8 +178,7 @@ public final class BranchingProcess<S, C> implements IAutomaton<S, C> {
 	 */
 	public boolean isCutoffEvent(final Event<S, C> event, final Comparator<Event<S, C>> order,
 			final boolean sameTransitionCutOff) {
-		// TODO possibly optimize
-		for (final Event<S, C> ev : getEvents()) {
+		for (final Event<S, C> ev : mMarking2Events.getImage(event.getMark())) {
 			if (event.checkCutOffSetCompanion(ev, order, sameTransitionCutOff)) {
 				return true;
 			}
@@ -201,6 +210,10 @@ public final class BranchingProcess<S, C> implements IAutomaton<S, C> {
 		return mCoRelation.getCoRelationQueries();
 	}
 
+	BitSetCoRelation<S, C> getCoRelation() {
+		return mCoRelation;
+	}
+
 	@SuppressWarnings("unused")
 	private boolean isInCoRelationChecker(final Condition<S, C> c1, final Condition<S, C> c2) {
 		/**
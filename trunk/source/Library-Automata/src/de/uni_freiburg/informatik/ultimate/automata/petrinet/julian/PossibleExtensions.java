@@ -27,6 +27,7 @@
  */
 package de.uni_freiburg.informatik.ultimate.automata.petrinet.julian;
 
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -77,32 +78,50 @@ public class PossibleExtensions<S, C> implements IPossibleExtensions<S, C> {
 	@Override
 	public void update(final Event<S, C> event) {
 		final Collection<Candidate<S, C>> candidates = computeCandidates(event);
+		final BitSetCoRelation<S, C> coRelation = mBranchingProcess.getCoRelation();
 		for (final Candidate<S, C> candidate : candidates) {
-			evolveCandidate(candidate);
+			final BitSet coSet = (BitSet) coRelation.getCoRelatedConditions(candidate.mChosen.get(0)).clone();
+			for (int i = 1; i < candidate.mChosen.size(); i++) {
+				coSet.and(coRelation.getCoRelatedConditions(candidate.mChosen.get(i)));
+			}
+			evolveCandidate(candidate, coSet);
 		}
 	}
 
 	/**
 	 * Evolves a {@code Candidate} for a new possible Event in all possible ways and, as a side-effect, adds valid
 	 * extensions (ones whose predecessors are a co-set) to he possible extension set.
+	 *
+	 * @param coSet
+	 *            indices of all conditions that are in co-relation with each chosen condition of the candidate
 	 */
 	@SuppressWarnings("squid:S1698")
-	private void evolveCandidate(final Candidate<S, C> cand) {
+	private void evolveCandidate(final Candidate<S, C> cand, final BitSet coSet) {
 		if (cand.mPlaces.isEmpty()) {
 			mPe.add(new Event<>(cand.mChosen, cand.mT));
 			return;
 		}
+		final BitSetCoRelation<S, C> coRelation = mBranchingProcess.getCoRelation();
 		final Place<S, C> p = cand.mPlaces.remove(cand.mPlaces.size() - 1);
-		for (final Condition<S, C> c : mBranchingProcess.place2cond(p)) {
+		// only conditions of p that are in co-relation with all chosen conditions can extend the candidate
+		final BitSet conditions = (BitSet) coRelation.getConditions(p).clone();
+		conditions.and(coSet);
+		for (int i = conditions.nextSetBit(0); i >= 0; i = conditions.nextSetBit(i + 1)) {
+			final Condition<S, C> c = coRelation.getCondition(i);
 			assert cand.mT.getPredecessors().contains(c.getPlace());
 			// equality intended here
 			assert c.getPlace() == p;
 			assert !cand.mChosen.contains(c);
-			if (mBranchingProcess.isCoset(cand.mChosen, c)) {
-				cand.mChosen.add(c);
-				evolveCandidate(cand);
-				cand.mChosen.remove(cand.mChosen.size() - 1);
+			final BitSet newCoSet;
+			if (cand.mPlaces.isEmpty()) {
+				newCoSet = null;
+			} else {
+				newCoSet = (BitSet) coSet.clone();
+				newCoSet.and(coRelation.getCoRelatedConditions(c));
 			}
+			cand.mChosen.add(c);
+			evolveCandidate(cand, newCoSet);
+			cand.mChosen.remove(cand.mChosen.size() - 1);
 		}
 		cand.mPlaces.add(p);
 	}
@@ -0,0 +1,271 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.nestedword;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataOperationCanceledException;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.reachablestates.NestedWordAutomatonReachableStates;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.IncomingInternalTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingCallTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingInternalTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.OutgoingReturnTransition;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.transitions.SummaryReturnTransition;
+import de.uni_freiburg.informatik.ultimate.automata.statefactory.StringFactory;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Compares the retained heap and the traversal throughput of {@link NestedWordAutomatonReachableStates} and
+ * {@link CompactNestedWordAutomaton} on random nested word automata. Before measuring, the benchmark checks that both
+ * automata have the same transitions.
+ */
+public class CompactNestedWordAutomatonBenchmark {
+
+	private static final int DEFAULT_STATES = 20_000;
+	private static final int DEFAULT_TRANSITIONS_PER_STATE = 8;
+	private static final int INTERNAL_LETTERS = 20;
+	private static final int CALL_LETTERS = 3;
+	private static final int RETURN_LETTERS = 3;
+	private static final int TRAVERSALS = 10;
+	private static final long SEED = 42;
+
+	public static void main(final String[] param) throws AutomataOperationCanceledException {
+		if (param.length > 2) {
+			System.err.println("USAGE CompactNestedWordAutomatonBenchmark [states] [transitions per state]");
+			return;
+		}
+		final int states = param.length > 0 ? Integer.parseInt(param[0]) : DEFAULT_STATES;
+		final int transitions = param.length > 1 ? Integer.parseInt(param[1]) : DEFAULT_TRANSITIONS_PER_STATE;
+		final AutomataLibraryServices services =
+				new AutomataLibraryServices(UltimateMocks.createUltimateServiceProviderMock());
+
+		final NestedWordAutomaton<String, String> random = createRandom(services, states, transitions, SEED);
+		long before = usedMemory();
+		final NestedWordAutomatonReachableStates<String, String> reachable =
+				new NestedWordAutomatonReachableStates<>(services, random);
+		final long reachableMemory = usedMemory() - before;
+		before = usedMemory();
+		final CompactNestedWordAutomaton<String, String> compact =
+				new CompactNestedWordAutomaton<>(services, reachable);
+		final long compactMemory = usedMemory() - before;
+		checkEquivalent(reachable, compact);
+
+		System.out.println("automaton | size | heap KiB | traversal ms");
+		System.out.println(String.format("reachable | %s | %d | %.3f", reachable.sizeInformation(),
+				reachableMemory / 1024, traverse(reachable) / 1e6));
+		System.out.println(String.format("compact | %s | %d | %.3f", compact.sizeInformation(), compactMemory / 1024,
+				traverse(compact) / 1e6));
+		System.out.println("compact transition arrays KiB: " + compact.getTransitionMemoryInBytes() / 1024);
+	}
+
+	static NestedWordAutomaton<String, String> createRandom(final AutomataLibraryServices services,
+			final int numberOfStates, final int transitionsPerState, final long seed) {
+		final Random random = new Random(seed);
+		final List<String> internals = letters("a", INTERNAL_LETTERS);
+		final List<String> calls = letters("c", CALL_LETTERS);
+		final List<String> returns = letters("r", RETURN_LETTERS);
+		final NestedWordAutomaton<String, String> nwa = new NestedWordAutomaton<>(services,
+				new VpAlphabet<>(new HashSet<>(internals), new HashSet<>(calls), new HashSet<>(returns)),
+				new StringFactory());
+		final List<String> states = new ArrayList<>(numberOfStates);
+		for (int i = 0; i < numberOfStates; i++) {
+			final String state = "q" + i;
+			states.add(state);
+			nwa.addState(i == 0, random.nextInt(10) == 0, state);
+		}
+		for (int i = 0; i < numberOfStates; i++) {
+			final String pred = states.get(i);
+			// a chain guarantees that all states are reachable
+			if (i + 1 < numberOfStates) {
+				nwa.addInternalTransition(pred, internals.get(0), states.get(i + 1));
+			}
+			for (int j = 1; j < transitionsPerState; j++) {
+				final String succ = states.get(random.nextInt(numberOfStates));
+				final int kind = random.nextInt(10);
+				if (kind == 0) {
+					nwa.addCallTransition(pred, pick(random, calls), succ);
+				} else if (kind == 1) {
+					nwa.addReturnTransition(pred, states.get(random.nextInt(numberOfStates)), pick(random, returns),
+							succ);
+				} else {
+					nwa.addInternalTransition(pred, pick(random, internals), succ);
+				}
+			}
+		}
+		return nwa;
+	}
+
+	private static List<String> letters(final String prefix, final int number) {
+		final List<String> result = new ArrayList<>(number);
+		for (int i = 0; i < number; i++) {
+			result.add(prefix + i);
+		}
+		return result;
+	}
+
+	private static String pick(final Random random, final List<String> list) {
+		return list.get(random.nextInt(list.size()));
+	}
+
+	/**
+	 * Visits all transitions several times in the way backward and forward searches do.
+	 *
+	 * @return time of the traversals in nanoseconds
+	 */
+	private static long traverse(final IDoubleDeckerAutomaton<String, String> nwa) {
+		long checksum = 0;
+		final long startTime = System.nanoTime();
+		for (int i = 0; i < TRAVERSALS; i++) {
+			for (final String state : nwa.getStates()) {
+				for (final String letter : nwa.lettersInternal(state)) {
+					for (final OutgoingInternalTransition<String, String> trans : nwa.internalSuccessors(state,
+							letter)) {
+						checksum += trans.getSucc().length();
+					}
+				}
+				for (final IncomingInternalTransition<String, String> trans : nwa.internalPredecessors(state)) {
+					checksum += trans.getPred().length();
+				}
+				for (final OutgoingCallTransition<String, String> trans : nwa.callSuccessors(state)) {
+					checksum += trans.getSucc().length();
+				}
+				for (final OutgoingReturnTransition<String, String> trans : nwa.returnSuccessors(state)) {
+					checksum += trans.getSucc().length();
+				}
+				for (final SummaryReturnTransition<String, String> trans : nwa.summarySuccessors(state)) {
+					checksum += trans.getSucc().length();
+				}
+				checksum += nwa.getDownStates(state).size();
+			}
+		}
+		final long time = System.nanoTime() - startTime;
+		if (checksum == 0) {
+			System.out.println("empty automaton");
+		}
+		return time;
+	}
+
+	public static void checkEquivalent(final IDoubleDeckerAutomaton<String, String> expected,
+			final IDoubleDeckerAutomaton<String, String> actual) {
+		check(expected.getStates().equals(actual.getStates()), "states");
+		check(expected.getInitialStates().equals(actual.getInitialStates()), "initial states");
+		check(new HashSet<>(expected.getFinalStates()).equals(new HashSet<>(actual.getFinalStates())),
+				"final states");
+		for (final String state : expected.getStates()) {
+			check(expected.isInitial(state) == actual.isInitial(state), "initial flag of " + state);
+			check(expected.isFinal(state) == actual.isFinal(state), "final flag of " + state);
+			check(toSet(expected.internalSuccessors(state)).equals(toSet(actual.internalSuccessors(state))),
+					"internal successors of " + state);
+			check(toSet(expected.internalPredecessors(state)).equals(toSet(actual.internalPredecessors(state))),
+					"internal predecessors of " + state);
+			check(toSet(expected.callSuccessors(state)).equals(toSet(actual.callSuccessors(state))),
+					"call successors of " + state);
+			check(toSet(expected.callPredecessors(state)).equals(toSet(actual.callPredecessors(state))),
+					"call predecessors of " + state);
+			check(toSet(expected.returnSuccessors(state)).equals(toSet(actual.returnSuccessors(state))),
+					"return successors of " + state);
+			check(toSet(expected.returnPredecessors(state)).equals(toSet(actual.returnPredecessors(state))),
+					"return predecessors of " + state);
+			check(summaries(expected, state).equals(summaries(actual, state)),
+					"summary successors of " + state);
+			check(expected.lettersInternal(state).equals(actual.lettersInternal(state)),
+					"internal letters of " + state);
+			check(expected.lettersReturn(state).equals(actual.lettersReturn(state)), "return letters of " + state);
+			check(expected.getDownStates(state).equals(actual.getDownStates(state)), "down states of " + state);
+			check(expected.isDoubleDecker(state, expected.getEmptyStackState()) == actual.isDoubleDecker(state,
+					actual.getEmptyStackState()), "double decker with empty stack of " + state);
+			for (final String down : expected.getStates()) {
+				check(expected.isDoubleDecker(state, down) == actual.isDoubleDecker(state, down),
+						"double decker " + state + " " + down);
+				check(toSet(expected.returnSuccessorsGivenHier(state, down))
+						.equals(toSet(actual.returnSuccessorsGivenHier(state, down))),
+						"return successors of " + state + " given " + down);
+			}
+			for (final String letter : expected.getVpAlphabet().getInternalAlphabet()) {
+				check(toSet(expected.internalSuccessors(state, letter))
+						.equals(toSet(actual.internalSuccessors(state, letter))),
+						"internal successors of " + state + " for " + letter);
+				check(toSet(expected.internalPredecessors(state, letter))
+						.equals(toSet(actual.internalPredecessors(state, letter))),
+						"internal predecessors of " + state + " for " + letter);
+			}
+			for (final String letter : expected.getVpAlphabet().getReturnAlphabet()) {
+				check(toSet(expected.returnPredecessors(state, letter))
+						.equals(toSet(actual.returnPredecessors(state, letter))),
+						"return predecessors of " + state + " for " + letter);
+				check(summaries(expected, state, letter).equals(summaries(actual, state, letter)),
+						"summary successors of " + state + " for " + letter);
+			}
+		}
+	}
+
+	private static Set<String> toSet(final Iterable<?> transitions) {
+		final Set<String> result = new HashSet<>();
+		for (final Object trans : transitions) {
+			result.add(trans.toString());
+		}
+		return result;
+	}
+
+	/**
+	 * {@link SummaryReturnTransition} does not override {@link Object#toString()}.
+	 */
+	private static Set<String> summaries(final IDoubleDeckerAutomaton<String, String> nwa, final String hier) {
+		final Set<String> result = new HashSet<>();
+		for (final SummaryReturnTransition<String, String> trans : nwa.summarySuccessors(hier)) {
+			result.add(trans.getLinPred() + " " + trans.getLetter() + " " + trans.getSucc());
+		}
+		return result;
+	}
+
+	private static Set<String> summaries(final IDoubleDeckerAutomaton<String, String> nwa, final String hier,
+			final String letter) {
+		final Set<String> result = new HashSet<>();
+		for (final SummaryReturnTransition<String, String> trans : nwa.summarySuccessors(hier, letter)) {
+			result.add(trans.getLinPred() + " " + trans.getSucc());
+		}
+		return result;
+	}
+
+	private static void check(final boolean condition, final String what) {
+		if (!condition) {
+			throw new AssertionError("automata differ in " + what);
+		}
+	}
+
+	private static long usedMemory() {
+		final Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.nestedword;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataOperationCanceledException;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.reachablestates.NestedWordAutomatonReachableStates;
+import de.uni_freiburg.informatik.ultimate.automata.statefactory.StringFactory;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Checks that a {@link CompactNestedWordAutomaton} has the same states, transitions and down states as the
+ * {@link NestedWordAutomatonReachableStates} from which it is built. The retained heap and the traversal throughput are
+ * compared by the {@link CompactNestedWordAutomatonBenchmark}.
+ */
+public class CompactNestedWordAutomatonTest {
+
+	private static final int RANDOM_AUTOMATA = 10;
+	private static final int STATES = 60;
+	private static final int TRANSITIONS_PER_STATE = 6;
+
+	private AutomataLibraryServices mServices;
+
+	@Before
+	public void setUp() {
+		mServices = new AutomataLibraryServices(UltimateMocks.createUltimateServiceProviderMock());
+	}
+
+	@Test
+	public void randomAutomata() throws AutomataOperationCanceledException {
+		for (int i = 0; i < RANDOM_AUTOMATA; i++) {
+			final NestedWordAutomatonReachableStates<String, String> reachable =
+					new NestedWordAutomatonReachableStates<>(mServices, CompactNestedWordAutomatonBenchmark
+							.createRandom(mServices, STATES, TRANSITIONS_PER_STATE, i));
+			CompactNestedWordAutomatonBenchmark.checkEquivalent(reachable,
+					new CompactNestedWordAutomaton<>(mServices, reachable));
+		}
+	}
+
+	@Test
+	public void returnsDependOnDownStates() throws AutomataOperationCanceledException {
+		final NestedWordAutomaton<String, String> nwa = new NestedWordAutomaton<>(mServices,
+				new VpAlphabet<>(Collections.singleton("a"), Collections.singleton("c"), Collections.singleton("r")),
+				new StringFactory());
+		for (final String state : Arrays.asList("init", "h1", "h2", "entry", "exit", "f", "unreachable")) {
+			nwa.addState("init".equals(state), "f".equals(state), state);
+		}
+		nwa.addInternalTransition("init", "a", "h1");
+		nwa.addCallTransition("h1", "c", "entry");
+		nwa.addInternalTransition("entry", "a", "exit");
+		nwa.addReturnTransition("exit", "h1", "r", "f");
+		// h2 is never a down state of exit, hence this return is not reachable
+		nwa.addReturnTransition("exit", "h2", "r", "unreachable");
+		nwa.addCallTransition("f", "c", "entry");
+
+		final NestedWordAutomatonReachableStates<String, String> reachable =
+				new NestedWordAutomatonReachableStates<>(mServices, nwa);
+		final CompactNestedWordAutomaton<String, String> compact =
+				new CompactNestedWordAutomaton<>(mServices, reachable);
+		CompactNestedWordAutomatonBenchmark.checkEquivalent(reachable, compact);
+
+		Assert.assertFalse(compact.getStates().contains("unreachable"));
+		Assert.assertFalse(compact.getStates().contains("h2"));
+		Assert.assertTrue(compact.isDoubleDecker("exit", "h1"));
+		Assert.assertTrue(compact.isDoubleDecker("exit", "f"));
+		Assert.assertFalse(compact.isDoubleDecker("exit", "h2"));
+		Assert.assertTrue(compact.isDoubleDecker("init", compact.getEmptyStackState()));
+		Assert.assertFalse(compact.isDoubleDecker("exit", compact.getEmptyStackState()));
+		Assert.assertEquals(reachable.getDownStates("exit"), compact.getDownStates("exit"));
+	}
+}
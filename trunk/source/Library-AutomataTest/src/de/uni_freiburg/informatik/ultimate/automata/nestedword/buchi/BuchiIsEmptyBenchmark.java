@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.nestedword.buchi;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataOperationCanceledException;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.NestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.VpAlphabet;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.reachablestates.NestedWordAutomatonReachableStates;
+import de.uni_freiburg.informatik.ultimate.automata.statefactory.StringFactory;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Compares the time to an accepting lasso (construction of the reachable states plus lasso construction) with and
+ * without SCCs that are maintained during the construction of {@link NestedWordAutomatonReachableStates}. The
+ * automata are random and shaped like the abstractions of a termination analysis: a control flow graph with a few
+ * loops, procedure calls, and rarely accepting states. Before measuring, the benchmark checks that both variants find
+ * the same lassos.
+ */
+public class BuchiIsEmptyBenchmark {
+
+	private static final int DEFAULT_STATES = 50_000;
+	private static final int DEFAULT_AUTOMATA = 10;
+	private static final int LETTERS = 10;
+	private static final int LOOP_PERCENTAGE = 5;
+	private static final int CALL_PERCENTAGE = 3;
+	private static final int ACCEPTING_PERCENTAGE = 1;
+
+	public static void main(final String[] param) throws AutomataOperationCanceledException {
+		if (param.length > 2) {
+			System.err.println("USAGE BuchiIsEmptyBenchmark [states] [automata]");
+			return;
+		}
+		final int states = param.length > 0 ? Integer.parseInt(param[0]) : DEFAULT_STATES;
+		final int automata = param.length > 1 ? Integer.parseInt(param[1]) : DEFAULT_AUTOMATA;
+		final AutomataLibraryServices services =
+				new AutomataLibraryServices(UltimateMocks.createUltimateServiceProviderMock());
+
+		long fromScratchTime = 0;
+		long maintainedTime = 0;
+		int nonEmpty = 0;
+		for (int i = 0; i < automata; i++) {
+			final NestedWordAutomaton<String, String> nwa = createRandom(services, states, i);
+			final long start = System.nanoTime();
+			final NestedLassoRun<String, String> fromScratch = timeToLasso(services, nwa, false);
+			final long middle = System.nanoTime();
+			final NestedLassoRun<String, String> maintained = timeToLasso(services, nwa, true);
+			final long end = System.nanoTime();
+			fromScratchTime += middle - start;
+			maintainedTime += end - middle;
+			// lasso runs do not implement equals
+			if (fromScratch == null ? maintained != null
+					: !fromScratch.toString().equals(String.valueOf(maintained))) {
+				throw new AssertionError("different lassos for automaton " + i);
+			}
+			if (fromScratch != null) {
+				nonEmpty++;
+			}
+		}
+		System.out.println(automata + " automata with " + states + " states, " + nonEmpty + " not empty");
+		System.out.println("SCCs | time to lasso ms");
+		System.out.println(String.format("from scratch | %.3f", fromScratchTime / 1e6));
+		System.out.println(String.format("maintained | %.3f", maintainedTime / 1e6));
+	}
+
+	private static NestedLassoRun<String, String> timeToLasso(final AutomataLibraryServices services,
+			final NestedWordAutomaton<String, String> nwa, final boolean maintainSccs)
+			throws AutomataOperationCanceledException {
+		final NestedWordAutomatonReachableStates<String, String> reachable =
+				new NestedWordAutomatonReachableStates<>(services, nwa, 1, maintainSccs);
+		return reachable.getOrComputeAcceptingComponents().getNestedLassoRun();
+	}
+
+	/**
+	 * The states form a chain with some backward edges (loops) and forward edges (branches). Some states call the
+	 * first state of the chain, the last state of the chain returns to the successor of the call.
+	 */
+	private static NestedWordAutomaton<String, String> createRandom(final AutomataLibraryServices services,
+			final int numberOfStates, final long seed) {
+		final Random random = new Random(seed);
+		final List<String> internals = new ArrayList<>(LETTERS);
+		for (int i = 0; i < LETTERS; i++) {
+			internals.add("a" + i);
+		}
+		final NestedWordAutomaton<String, String> nwa = new NestedWordAutomaton<>(services,
+				new VpAlphabet<>(new HashSet<>(internals), Collections.singleton("c"), Collections.singleton("r")),
+				new StringFactory());
+		final List<String> states = new ArrayList<>(numberOfStates);
+		for (int i = 0; i < numberOfStates; i++) {
+			final String state = "q" + i;
+			states.add(state);
+			nwa.addState(i == 0, random.nextInt(100) < ACCEPTING_PERCENTAGE, state);
+		}
+		final String last = states.get(numberOfStates - 1);
+		for (int i = 0; i + 1 < numberOfStates; i++) {
+			final String pred = states.get(i);
+			final String letter = internals.get(random.nextInt(LETTERS));
+			final int kind = random.nextInt(100);
+			if (kind < CALL_PERCENTAGE && i > 0) {
+				nwa.addCallTransition(pred, "c", states.get(0));
+				nwa.addReturnTransition(last, pred, "r", states.get(i + 1));
+				continue;
+			}
+			nwa.addInternalTransition(pred, letter, states.get(i + 1));
+			if (kind < CALL_PERCENTAGE + LOOP_PERCENTAGE) {
+				final String other = internals.get((internals.indexOf(letter) + 1) % LETTERS);
+				final int distance = 1 + random.nextInt(Math.min(i + 1, 100));
+				nwa.addInternalTransition(pred, other, states.get(i + 1 - distance));
+			} else if (kind < CALL_PERCENTAGE + 2 * LOOP_PERCENTAGE) {
+				final String other = internals.get((internals.indexOf(letter) + 1) % LETTERS);
+				final int distance = 1 + random.nextInt(100);
+				nwa.addInternalTransition(pred, other, states.get(Math.min(i + 1 + distance, numberOfStates - 1)));
+			}
+		}
+		return nwa;
+	}
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.nestedword.operations;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataOperationCanceledException;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.INestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.reachablestates.NestedWordAutomatonReachableStates;
+import de.uni_freiburg.informatik.ultimate.automata.statefactory.StringFactory;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Compares {@link BitSetPowersetDeterminizer} with {@link PowersetDeterminizer} by determinizing random nested word
+ * automata obtained from {@link GetRandomNwa}. Both determinizers have to produce automata of the same size.
+ */
+public class BitSetPowersetDeterminizerBenchmark {
+
+	private static final int DEFAULT_STATES = 15;
+	private static final int DEFAULT_AUTOMATA = 10;
+	private static final int ALPHABET_SIZE = 4;
+	/**
+	 * The densities of {@link GetRandomNwa} are relative to the number of possible transitions. We fix the expected
+	 * number of successors per state and letter instead. Note that the determinization of random automata explodes
+	 * quickly, already 15 states may lead to thousands of determinized states.
+	 */
+	private static final double INTERNAL_SUCCESSORS = 1.0;
+	private static final double CALL_SUCCESSORS = 0.02;
+	private static final double RETURN_SUCCESSORS = 0.05;
+	private static final double ACCEPTANCE_DENSITY = 0.1;
+
+	public static void main(final String[] param) throws AutomataOperationCanceledException {
+		if (param.length > 2) {
+			System.err.println("USAGE BitSetPowersetDeterminizerBenchmark [states] [automata]");
+			return;
+		}
+		final int states = param.length > 0 ? Integer.parseInt(param[0]) : DEFAULT_STATES;
+		final int automata = param.length > 1 ? Integer.parseInt(param[1]) : DEFAULT_AUTOMATA;
+		final AutomataLibraryServices services =
+				new AutomataLibraryServices(UltimateMocks.createUltimateServiceProviderMock());
+		final StringFactory factory = new StringFactory();
+
+		long powersetTime = 0;
+		long bitSetTime = 0;
+		long resultSize = 0;
+		for (int i = 0; i < automata; i++) {
+			final INestedWordAutomaton<String, String> nwa = new GetRandomNwa(services, ALPHABET_SIZE, states,
+					INTERNAL_SUCCESSORS / states, CALL_SUCCESSORS / states, RETURN_SUCCESSORS / ((double) states * states),
+					ACCEPTANCE_DENSITY, i).getResult();
+			final long start = System.nanoTime();
+			final int powersetSize = determinize(services, factory, nwa,
+					new PowersetDeterminizer<>(nwa, true, factory));
+			final long middle = System.nanoTime();
+			final int bitSetSize = determinize(services, factory, nwa,
+					new BitSetPowersetDeterminizer<>(nwa, true, factory));
+			final long end = System.nanoTime();
+			if (powersetSize != bitSetSize) {
+				throw new AssertionError("different results for automaton " + i);
+			}
+			powersetTime += middle - start;
+			bitSetTime += end - middle;
+			resultSize += powersetSize;
+		}
+		System.out.println(automata + " automata with " + states + " states, " + resultSize
+				+ " determinized states in total");
+		System.out.println("determinizer | time ms");
+		System.out.println(String.format("PowersetDeterminizer | %.3f", powersetTime / 1e6));
+		System.out.println(String.format("BitSetPowersetDeterminizer | %.3f", bitSetTime / 1e6));
+	}
+
+	private static int determinize(final AutomataLibraryServices services, final StringFactory factory,
+			final INestedWordAutomaton<String, String> nwa, final IStateDeterminizer<String, String> determinizer)
+			throws AutomataOperationCanceledException {
+		return new NestedWordAutomatonReachableStates<>(services,
+				new DeterminizeNwa<>(services, nwa, determinizer, factory)).size();
+	}
+}
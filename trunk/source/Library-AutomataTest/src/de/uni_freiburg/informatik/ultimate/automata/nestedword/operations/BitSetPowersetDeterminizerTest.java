@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.nestedword.operations;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryException;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.INestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.oldapi.DeterminizedState;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.reachablestates.NestedWordAutomatonReachableStates;
+import de.uni_freiburg.informatik.ultimate.automata.statefactory.StringFactory;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Checks that {@link BitSetPowersetDeterminizer} constructs the same determinized states as
+ * {@link PowersetDeterminizer}. The running time is compared by the {@link BitSetPowersetDeterminizerBenchmark}.
+ */
+public class BitSetPowersetDeterminizerTest {
+
+	/**
+	 * The size of the determinization of random automata varies a lot, we use seeds that lead to a few hundred
+	 * determinized states at most.
+	 */
+	private static final int FIRST_SEED = 1;
+	private static final int RANDOM_AUTOMATA = 10;
+	private static final int STATES = 4;
+	private static final int ALPHABET_SIZE = 3;
+	/**
+	 * Expected number of successors per state and letter, see {@link BitSetPowersetDeterminizerBenchmark}. There are
+	 * more calls and returns than in the benchmark s.t. the small automata have some.
+	 */
+	private static final double INTERNAL_SUCCESSORS = 1.0;
+	private static final double CALL_SUCCESSORS = 0.3;
+	private static final double RETURN_SUCCESSORS = 0.5;
+	private static final double ACCEPTANCE_DENSITY = 0.2;
+
+	private AutomataLibraryServices mServices;
+	private StringFactory mFactory;
+
+	@Before
+	public void setUp() {
+		mServices = new AutomataLibraryServices(UltimateMocks.createUltimateServiceProviderMock());
+		mFactory = new StringFactory();
+	}
+
+	@Test
+	public void nestedWordAutomata() throws AutomataLibraryException {
+		for (int i = FIRST_SEED; i < FIRST_SEED + RANDOM_AUTOMATA; i++) {
+			final INestedWordAutomaton<String, String> nwa = createRandom(i, CALL_SUCCESSORS, RETURN_SUCCESSORS);
+			final INestedWordAutomaton<String, String> result = determinize(nwa, true);
+			Assert.assertTrue("automaton " + i, new IsDeterministic<>(mServices, result).getResult());
+			Assert.assertTrue("automaton " + i, new IsEquivalent<>(mServices, mFactory, nwa, result).getResult());
+		}
+	}
+
+	@Test
+	public void finiteAutomataWithoutDoubleDeckers() throws AutomataLibraryException {
+		for (int i = FIRST_SEED; i < FIRST_SEED + RANDOM_AUTOMATA; i++) {
+			final INestedWordAutomaton<String, String> nwa = createRandom(i, 0, 0);
+			final INestedWordAutomaton<String, String> result = determinize(nwa, false);
+			Assert.assertTrue("automaton " + i, new IsDeterministic<>(mServices, result).getResult());
+			Assert.assertTrue("automaton " + i, new IsEquivalent<>(mServices, mFactory, nwa, result).getResult());
+		}
+	}
+
+	private INestedWordAutomaton<String, String> createRandom(final long seed, final double callSuccessors,
+			final double returnSuccessors) {
+		return new GetRandomNwa(mServices, ALPHABET_SIZE, STATES, INTERNAL_SUCCESSORS / STATES,
+				callSuccessors / STATES, returnSuccessors / ((double) STATES * STATES), ACCEPTANCE_DENSITY, seed)
+						.getResult();
+	}
+
+	/**
+	 * Determinize with the {@link BitSetPowersetDeterminizer} and check on the fly that every determinized state
+	 * coincides with the corresponding state of the {@link PowersetDeterminizer}.
+	 */
+	private INestedWordAutomaton<String, String> determinize(final INestedWordAutomaton<String, String> nwa,
+			final boolean useDoubleDeckers) throws AutomataLibraryException {
+		final LockstepDeterminizer determinizer = new LockstepDeterminizer(
+				new BitSetPowersetDeterminizer<>(nwa, useDoubleDeckers, mFactory),
+				new PowersetDeterminizer<>(nwa, useDoubleDeckers, mFactory));
+		final INestedWordAutomaton<String, String> result = new NestedWordAutomatonReachableStates<>(mServices,
+				new DeterminizeNwa<>(mServices, nwa, determinizer, mFactory));
+		Assert.assertEquals(determinizer.mExpected.getMaxDegreeOfNondeterminism(),
+				determinizer.mDeterminizer.getMaxDegreeOfNondeterminism());
+		return result;
+	}
+
+	/**
+	 * Delegates to a determinizer and computes the same successors with an expected determinizer. Each determinizer
+	 * only gets the determinized states that it constructed itself.
+	 */
+	private static final class LockstepDeterminizer implements IStateDeterminizer<String, String> {
+		private final IStateDeterminizer<String, String> mDeterminizer;
+		private final IStateDeterminizer<String, String> mExpected;
+		private final Map<DeterminizedState<String, String>, DeterminizedState<String, String>> mState2Expected =
+				new HashMap<>();
+
+		LockstepDeterminizer(final IStateDeterminizer<String, String> determinizer,
+				final IStateDeterminizer<String, String> expected) {
+			mDeterminizer = determinizer;
+			mExpected = expected;
+		}
+
+		@Override
+		public DeterminizedState<String, String> initialState() {
+			return check(mDeterminizer.initialState(), mExpected.initialState());
+		}
+
+		@Override
+		public DeterminizedState<String, String> internalSuccessor(final DeterminizedState<String, String> detState,
+				final String letter) {
+			return check(mDeterminizer.internalSuccessor(detState, letter),
+					mExpected.internalSuccessor(mState2Expected.get(detState), letter));
+		}
+
+		@Override
+		public DeterminizedState<String, String> callSuccessor(final DeterminizedState<String, String> detState,
+				final String letter) {
+			return check(mDeterminizer.callSuccessor(detState, letter),
+					mExpected.callSuccessor(mState2Expected.get(detState), letter));
+		}
+
+		@Override
+		public DeterminizedState<String, String> returnSuccessor(final DeterminizedState<String, String> detState,
+				final DeterminizedState<String, String> detLinPred, final String letter) {
+			return check(mDeterminizer.returnSuccessor(detState, detLinPred, letter), mExpected
+					.returnSuccessor(mState2Expected.get(detState), mState2Expected.get(detLinPred), letter));
+		}
+
+		private DeterminizedState<String, String> check(final DeterminizedState<String, String> state,
+				final DeterminizedState<String, String> expected) {
+			Assert.assertEquals(expected, state);
+			Assert.assertEquals(expected.containsFinal(), state.containsFinal());
+			mState2Expected.putIfAbsent(state, expected);
+			return state;
+		}
+
+		@Override
+		public int getMaxDegreeOfNondeterminism() {
+			return mDeterminizer.getMaxDegreeOfNondeterminism();
+		}
+
+		@Override
+		public boolean useDoubleDeckers() {
+			return mDeterminizer.useDoubleDeckers();
+		}
+
+		@Override
+		public String getState(final DeterminizedState<String, String> determinizedState) {
+			return mDeterminizer.getState(determinizedState);
+		}
+	}
+}
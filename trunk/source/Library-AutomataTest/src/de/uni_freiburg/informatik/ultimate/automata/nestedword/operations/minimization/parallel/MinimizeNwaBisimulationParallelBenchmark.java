@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.parallel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryException;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.INestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.NestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.VpAlphabet;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.RemoveUnreachable;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.AbstractMinimizeNwa;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.MinimizeSevpa;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.ShrinkNwa;
+import de.uni_freiburg.informatik.ultimate.automata.statefactory.StringFactory;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Compares {@link MinimizeNwaBisimulationParallel} with {@link MinimizeSevpa} and {@link ShrinkNwa} on random
+ * deterministic nested word automata that are obtained by unfolding a small random core automaton: every state of the
+ * core is copied several times and every transition leads to a random copy of its successor. Hence the copies of a core
+ * state are bisimilar and the minimizations should reduce the automaton to (at most) the size of the core.
+ */
+public class MinimizeNwaBisimulationParallelBenchmark {
+
+	private static final int DEFAULT_CORE_STATES = 2_000;
+	private static final int DEFAULT_COPIES = 50;
+	private static final int DEFAULT_AUTOMATA = 3;
+	private static final int LETTERS = 4;
+	private static final int CALL_PERCENTAGE = 2;
+	private static final int ACCEPTING_PERCENTAGE = 10;
+	/**
+	 * Return transitions are added for every pair of copies of the linear and hierarchical predecessor, hence we only
+	 * use a few copies of states that have return transitions.
+	 */
+	private static final int RETURN_COPIES = 3;
+
+	public static void main(final String[] param) throws AutomataLibraryException {
+		if (param.length > 3) {
+			System.err.println("USAGE MinimizeNwaBisimulationParallelBenchmark [core states] [copies] [automata]");
+			return;
+		}
+		final int coreStates = param.length > 0 ? Integer.parseInt(param[0]) : DEFAULT_CORE_STATES;
+		final int copies = param.length > 1 ? Integer.parseInt(param[1]) : DEFAULT_COPIES;
+		final int automata = param.length > 2 ? Integer.parseInt(param[2]) : DEFAULT_AUTOMATA;
+		final int threads = Runtime.getRuntime().availableProcessors();
+		final AutomataLibraryServices services =
+				new AutomataLibraryServices(UltimateMocks.createUltimateServiceProviderMock());
+		final StringFactory factory = new StringFactory();
+
+		final String[] names = { "MinimizeSevpa", "ShrinkNwa", "bisimulation, 1 thread",
+				"bisimulation, " + threads + " threads" };
+		final long[] times = new long[names.length];
+		final long[] sizes = new long[names.length];
+		long inputSize = 0;
+		for (int i = 0; i < automata; i++) {
+			// MinimizeSevpa needs double decker information
+			final INestedWordAutomaton<String, String> nwa =
+					new RemoveUnreachable<>(services, createRandom(services, coreStates, copies, i)).getResult();
+			inputSize += nwa.size();
+			for (int j = 0; j < names.length; j++) {
+				final long start = System.nanoTime();
+				final AbstractMinimizeNwa<String, String> minimization;
+				switch (j) {
+				case 0:
+					minimization = new MinimizeSevpa<>(services, factory, nwa);
+					break;
+				case 1:
+					minimization = new ShrinkNwa<>(services, factory, nwa);
+					break;
+				case 2:
+					minimization = new MinimizeNwaBisimulationParallel<>(services, factory, nwa, null, false, 1);
+					break;
+				default:
+					minimization =
+							new MinimizeNwaBisimulationParallel<>(services, factory, nwa, null, false, threads);
+					break;
+				}
+				times[j] += System.nanoTime() - start;
+				sizes[j] += minimization.getResult().size();
+			}
+			if (sizes[2] != sizes[3]) {
+				throw new AssertionError("result depends on number of threads for automaton " + i);
+			}
+		}
+		System.out.println(automata + " automata with " + inputSize + " states in total");
+		System.out.println("operation | states after minimization | time ms");
+		for (int j = 0; j < names.length; j++) {
+			System.out.println(String.format("%s | %d | %.3f", names[j], sizes[j], times[j] / 1e6));
+		}
+	}
+
+	static NestedWordAutomaton<String, String> createRandom(final AutomataLibraryServices services,
+			final int coreStates, final int copies, final long seed) {
+		final Random random = new Random(seed);
+		final List<String> internals = new ArrayList<>(LETTERS);
+		for (int i = 0; i < LETTERS; i++) {
+			internals.add("a" + i);
+		}
+		final NestedWordAutomaton<String, String> nwa = new NestedWordAutomaton<>(services,
+				new VpAlphabet<>(new HashSet<>(internals), Collections.singleton("c"), Collections.singleton("r")),
+				new StringFactory());
+
+		// the last core state is the exit of the procedure that is called by calling states
+		final int exit = coreStates - 1;
+		final boolean[] isCalling = new boolean[coreStates];
+		final List<List<String>> copiesOf = new ArrayList<>(coreStates);
+		for (int q = 0; q < coreStates; q++) {
+			isCalling[q] = q > 0 && q < exit && random.nextInt(100) < CALL_PERCENTAGE;
+			final boolean isFinal = random.nextInt(100) < ACCEPTING_PERCENTAGE;
+			final int numberOfCopies = isCalling[q] || q == exit ? Math.min(copies, RETURN_COPIES) : copies;
+			final List<String> stateCopies = new ArrayList<>(numberOfCopies);
+			for (int c = 0; c < numberOfCopies; c++) {
+				final String state = "q" + q + "_" + c;
+				stateCopies.add(state);
+				nwa.addState(q == 0 && c == 0, isFinal, state);
+			}
+			copiesOf.add(stateCopies);
+		}
+		for (int q = 0; q < exit; q++) {
+			if (isCalling[q]) {
+				final int returnSucc = 1 + random.nextInt(exit - 1);
+				for (final String pred : copiesOf.get(q)) {
+					nwa.addCallTransition(pred, "c", randomCopy(random, copiesOf.get(0)));
+					for (final String lin : copiesOf.get(exit)) {
+						nwa.addReturnTransition(lin, pred, "r", randomCopy(random, copiesOf.get(returnSucc)));
+					}
+				}
+				continue;
+			}
+			final int[] successors = new int[LETTERS];
+			for (int a = 0; a < LETTERS; a++) {
+				successors[a] = random.nextInt(2) == 0 ? q + 1 : random.nextInt(coreStates);
+			}
+			for (final String pred : copiesOf.get(q)) {
+				for (int a = 0; a < LETTERS; a++) {
+					nwa.addInternalTransition(pred, internals.get(a), randomCopy(random, copiesOf.get(successors[a])));
+				}
+			}
+		}
+		return nwa;
+	}
+
+	private static String randomCopy(final Random random, final List<String> stateCopies) {
+		return stateCopies.get(random.nextInt(stateCopies.size()));
+	}
+}
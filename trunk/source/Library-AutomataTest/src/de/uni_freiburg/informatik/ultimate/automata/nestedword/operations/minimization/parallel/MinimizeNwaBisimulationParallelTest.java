@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.parallel;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryException;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.INestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.NestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.VpAlphabet;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.RemoveUnreachable;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.MinimizeSevpa;
+import de.uni_freiburg.informatik.ultimate.automata.statefactory.StringFactory;
+import de.uni_freiburg.informatik.ultimate.automata.util.PartitionBackedSetOfPairs;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Checks that {@link MinimizeNwaBisimulationParallel} produces a language-equivalent automaton that does not depend on
+ * the number of threads, and that it merges exactly the bisimilar states. The running time is compared by the
+ * {@link MinimizeNwaBisimulationParallelBenchmark}.
+ */
+public class MinimizeNwaBisimulationParallelTest {
+
+	private static final int RANDOM_AUTOMATA = 5;
+	private static final int CORE_STATES = 60;
+	private static final int COPIES = 4;
+	private static final int THREADS = 3;
+
+	private AutomataLibraryServices mServices;
+	private StringFactory mFactory;
+
+	@Before
+	public void setUp() {
+		mServices = new AutomataLibraryServices(UltimateMocks.createUltimateServiceProviderMock());
+		mFactory = new StringFactory();
+	}
+
+	@Test
+	public void randomUnfoldingsAreMinimized() throws AutomataLibraryException {
+		for (int i = 0; i < RANDOM_AUTOMATA; i++) {
+			final INestedWordAutomaton<String, String> nwa = new RemoveUnreachable<>(mServices,
+					MinimizeNwaBisimulationParallelBenchmark.createRandom(mServices, CORE_STATES, COPIES, i))
+							.getResult();
+			final MinimizeNwaBisimulationParallel<String, String> sequential =
+					new MinimizeNwaBisimulationParallel<>(mServices, mFactory, nwa, null, false, 1);
+			final MinimizeNwaBisimulationParallel<String, String> parallel =
+					new MinimizeNwaBisimulationParallel<>(mServices, mFactory, nwa, null, false, THREADS);
+			Assert.assertTrue("result is not equivalent for automaton " + i, parallel.checkResult(mFactory));
+			Assert.assertEquals("result depends on number of threads for automaton " + i,
+					sequential.getResult().size(), parallel.getResult().size());
+			// the copies of a core state are bisimilar and the unfolding is deterministic
+			Assert.assertTrue(parallel.getResult().size() <= CORE_STATES);
+			Assert.assertEquals(new MinimizeSevpa<>(mServices, mFactory, nwa).getResult().size(),
+					parallel.getResult().size());
+		}
+	}
+
+	@Test
+	public void bisimilarNondeterministicStatesAreMerged() throws AutomataLibraryException {
+		final NestedWordAutomaton<String, String> nwa = createNondeterministic();
+		final MinimizeNwaBisimulationParallel<String, String> minimization =
+				new MinimizeNwaBisimulationParallel<>(mServices, mFactory, nwa, null, true, THREADS);
+		Assert.assertTrue(minimization.checkResult(mFactory));
+		// q1 and q2 are bisimilar; q3 accepts the same language as q1, but is not bisimilar to it
+		Assert.assertEquals(nwa.size() - 1, minimization.getResult().size());
+		final Map<String, String> oldState2newState = minimization.getOldState2newState();
+		Assert.assertEquals(oldState2newState.get("q1"), oldState2newState.get("q2"));
+		Assert.assertNotEquals(oldState2newState.get("q1"), oldState2newState.get("q3"));
+	}
+
+	@Test
+	public void initialPartitionIsRespected() throws AutomataLibraryException {
+		final NestedWordAutomaton<String, String> nwa = createNondeterministic();
+		final Set<String> separated = Collections.singleton("q2");
+		final MinimizeNwaBisimulationParallel<String, String> minimization =
+				new MinimizeNwaBisimulationParallel<>(mServices, mFactory, nwa,
+						new PartitionBackedSetOfPairs<>(Collections.singletonList(separated)), true, THREADS);
+		Assert.assertTrue(minimization.checkResult(mFactory));
+		Assert.assertEquals(nwa.size(), minimization.getResult().size());
+	}
+
+	@Test
+	public void returnsAreComparedPerHierarchicalPredecessor() throws AutomataLibraryException {
+		final NestedWordAutomaton<String, String> nwa = new NestedWordAutomaton<>(mServices,
+				new VpAlphabet<>(Collections.singleton("a"), Collections.singleton("c"), Collections.singleton("r")),
+				mFactory);
+		for (final String state : Arrays.asList("init", "h1", "h2", "entry", "exit", "f", "sink")) {
+			nwa.addState("init".equals(state), "f".equals(state), state);
+		}
+		nwa.addInternalTransition("init", "a", "h1");
+		nwa.addInternalTransition("init", "a", "h2");
+		nwa.addCallTransition("h1", "c", "entry");
+		nwa.addCallTransition("h2", "c", "entry");
+		nwa.addInternalTransition("entry", "a", "exit");
+		// h1 and h2 only differ in the successor of the return to them
+		nwa.addReturnTransition("exit", "h1", "r", "f");
+		nwa.addReturnTransition("exit", "h2", "r", "sink");
+		final MinimizeNwaBisimulationParallel<String, String> minimization =
+				new MinimizeNwaBisimulationParallel<>(mServices, mFactory, nwa, null, true, THREADS);
+		Assert.assertTrue(minimization.checkResult(mFactory));
+		final Map<String, String> oldState2newState = minimization.getOldState2newState();
+		Assert.assertNotEquals(oldState2newState.get("h1"), oldState2newState.get("h2"));
+	}
+
+	/**
+	 * q0 reaches q1, q2 and q3 by a. q1 and q2 are bisimilar. q3 nondeterministically reaches the accepting state or a
+	 * dead end by b, hence it accepts the same language as q1, but is not bisimilar to it.
+	 */
+	private NestedWordAutomaton<String, String> createNondeterministic() {
+		final NestedWordAutomaton<String, String> nwa = new NestedWordAutomaton<>(mServices,
+				new VpAlphabet<>(new HashSet<>(Arrays.asList("a", "b")), Collections.emptySet(),
+						Collections.emptySet()),
+				mFactory);
+		for (final String state : Arrays.asList("q0", "q1", "q2", "q3", "f", "dead")) {
+			nwa.addState("q0".equals(state), "f".equals(state), state);
+		}
+		nwa.addInternalTransition("q0", "a", "q1");
+		nwa.addInternalTransition("q0", "a", "q2");
+		nwa.addInternalTransition("q0", "a", "q3");
+		nwa.addInternalTransition("q1", "b", "f");
+		nwa.addInternalTransition("q2", "b", "f");
+		nwa.addInternalTransition("q3", "b", "f");
+		nwa.addInternalTransition("q3", "b", "dead");
+		nwa.addInternalTransition("f", "a", "f");
+		return nwa;
+	}
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.simulation;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataOperationCanceledException;
+import de.uni_freiburg.informatik.ultimate.automata.LibraryIdentifiers;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.INestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.GetRandomNwa;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.RemoveDeadEnds;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.simulation.delayed.DelayedGameGraph;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.simulation.delayed.DelayedSimulation;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.simulation.direct.DirectGameGraph;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.simulation.direct.DirectSimulation;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.simulation.util.CompactGameGraph;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.simulation.util.DuplicatorVertex;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.simulation.util.ParallelProgressMeasureSolver;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.simulation.util.SpoilerVertex;
+import de.uni_freiburg.informatik.ultimate.automata.statefactory.StringFactory;
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IProgressAwareTimer;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Compares direct and delayed simulation on the object game graph with the {@link ParallelProgressMeasureSolver} on a
+ * {@link CompactGameGraph} for random Buchi automata. For every automaton the benchmark checks that both
+ * implementations compute the same progress measure for each vertex, once through
+ * {@link ASimulation#setUseCompactGameGraph(boolean)} and once with the given number of threads.
+ */
+public class CompactGameGraphBenchmark {
+
+	private static final int DEFAULT_STATES = 100;
+	private static final int DEFAULT_AUTOMATA = 5;
+	private static final int DEFAULT_THREADS = 4;
+	private static final int ALPHABET_SIZE = 4;
+	private static final double INTERNAL_SUCCESSORS = 2.0;
+	private static final double ACCEPTANCE_DENSITY = 0.2;
+
+	public static void main(final String[] param) throws AutomataOperationCanceledException {
+		if (param.length > 3) {
+			System.err.println("USAGE CompactGameGraphBenchmark [states] [automata] [threads]");
+			return;
+		}
+		final int states = param.length > 0 ? Integer.parseInt(param[0]) : DEFAULT_STATES;
+		final int automata = param.length > 1 ? Integer.parseInt(param[1]) : DEFAULT_AUTOMATA;
+		final int threads = param.length > 2 ? Integer.parseInt(param[2]) : DEFAULT_THREADS;
+		final AutomataLibraryServices services =
+				new AutomataLibraryServices(UltimateMocks.createUltimateServiceProviderMock());
+
+		for (final SimulationOrMinimizationType type : new SimulationOrMinimizationType[] {
+				SimulationOrMinimizationType.DIRECT, SimulationOrMinimizationType.DELAYED }) {
+			long gameGraphTime = 0;
+			long compactTime = 0;
+			long gameGraphMemory = 0;
+			long compactMemory = 0;
+			long vertices = 0;
+			long resultStates = 0;
+			for (int i = 0; i < automata; i++) {
+				final INestedWordAutomaton<String, String> buchi = new RemoveDeadEnds<>(services,
+						new GetRandomNwa(services, ALPHABET_SIZE, states, INTERNAL_SUCCESSORS / states, 0, 0,
+								ACCEPTANCE_DENSITY, i).getResult()).getResult();
+
+				final long memoryBefore = getUsedMemory();
+				final AGameGraph<String, String> graph = createGameGraph(services, type, buchi);
+				gameGraphMemory += getUsedMemory() - memoryBefore;
+				long start = System.nanoTime();
+				final ASimulation<String, String> simulation = createSimulation(services, type, graph);
+				simulation.doSimulation();
+				gameGraphTime += System.nanoTime() - start;
+
+				final AGameGraph<String, String> compactGraph = createGameGraph(services, type, buchi);
+				start = System.nanoTime();
+				final ASimulation<String, String> compactSimulation = createSimulation(services, type, compactGraph);
+				compactSimulation.setUseCompactGameGraph(true);
+				compactSimulation.doSimulation();
+				compactTime += System.nanoTime() - start;
+				compareProgressMeasures(graph, compactGraph);
+				if (simulation.getResult().size() != compactSimulation.getResult().size()) {
+					throw new AssertionError("different results for automaton " + i);
+				}
+
+				final AGameGraph<String, String> parallelGraph = createGameGraph(services, type, buchi);
+				final CompactGameGraph<String, String> compact = new CompactGameGraph<>(parallelGraph);
+				final ParallelProgressMeasureSolver solver = new ParallelProgressMeasureSolver(compact, threads,
+						services.getProgressAwareTimer(), type == SimulationOrMinimizationType.DIRECT);
+				solver.solve();
+				compact.applyProgressMeasures(solver.getProgressMeasures());
+				compareProgressMeasures(graph, parallelGraph);
+
+				compactMemory += compact.getMemoryFootprint();
+				vertices += graph.getSize();
+				resultStates += simulation.getResult().size();
+			}
+			System.out.println(type + ": " + automata + " automata with " + states + " states, " + vertices
+					+ " vertices and " + resultStates + " result states in total");
+			System.out.println("implementation | time ms | graph memory KB");
+			System.out.println(String.format("game graph | %.3f | %d", gameGraphTime / 1e6, gameGraphMemory / 1024));
+			System.out.println(String.format("compact game graph | %.3f | %d", compactTime / 1e6,
+					compactMemory / 1024));
+		}
+	}
+
+	static AGameGraph<String, String> createGameGraph(final AutomataLibraryServices services,
+			final SimulationOrMinimizationType type, final INestedWordAutomaton<String, String> buchi)
+			throws AutomataOperationCanceledException {
+		final IProgressAwareTimer timer = services.getProgressAwareTimer();
+		final ILogger logger = services.getLoggingService().getLogger(LibraryIdentifiers.PLUGIN_ID);
+		final AGameGraph<String, String> graph;
+		if (type == SimulationOrMinimizationType.DIRECT) {
+			graph = new DirectGameGraph<>(services, new StringFactory(), timer, logger, buchi);
+		} else {
+			graph = new DelayedGameGraph<>(services, new StringFactory(), timer, logger, buchi);
+		}
+		graph.generateGameGraphFromAutomaton();
+		return graph;
+	}
+
+	static ASimulation<String, String> createSimulation(final AutomataLibraryServices services,
+			final SimulationOrMinimizationType type, final AGameGraph<String, String> graph)
+			throws AutomataOperationCanceledException {
+		final IProgressAwareTimer timer = services.getProgressAwareTimer();
+		final ILogger logger = services.getLoggingService().getLogger(LibraryIdentifiers.PLUGIN_ID);
+		if (type == SimulationOrMinimizationType.DIRECT) {
+			return new DirectSimulation<>(timer, logger, false, new StringFactory(),
+					(DirectGameGraph<String, String>) graph);
+		}
+		return new DelayedSimulation<>(timer, logger, false, new StringFactory(),
+				(DelayedGameGraph<String, String>) graph);
+	}
+
+	static void compareProgressMeasures(final AGameGraph<String, String> expected,
+			final AGameGraph<String, String> actual) {
+		final int infinity = expected.getGlobalInfinity();
+		for (final SpoilerVertex<String, String> vertex : expected.getSpoilerVertices()) {
+			final SpoilerVertex<String, String> other =
+					actual.getSpoilerVertex(vertex.getQ0(), vertex.getQ1(), vertex.isB());
+			if (vertex.getPM(null, infinity) != other.getPM(null, infinity)) {
+				throw new AssertionError("different progress measures for " + vertex);
+			}
+		}
+		for (final DuplicatorVertex<String, String> vertex : expected.getDuplicatorVertices()) {
+			final DuplicatorVertex<String, String> other =
+					actual.getDuplicatorVertex(vertex.getQ0(), vertex.getQ1(), vertex.getLetter(), vertex.isB());
+			if (vertex.getPM(null, infinity) != other.getPM(null, infinity)) {
+				throw new AssertionError("different progress measures for " + vertex);
+			}
+		}
+	}
+
+	private static long getUsedMemory() {
+		final Runtime runtime = Runtime.getRuntime();
+		runtime.gc();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
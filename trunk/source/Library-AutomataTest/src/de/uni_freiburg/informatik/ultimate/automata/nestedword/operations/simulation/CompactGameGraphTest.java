@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.simulation;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataOperationCanceledException;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.INestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.GetRandomNwa;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.RemoveDeadEnds;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.simulation.util.CompactGameGraph;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.simulation.util.ParallelProgressMeasureSolver;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Checks that the lifting on a {@link CompactGameGraph}, both by the simulation itself and by the
+ * {@link ParallelProgressMeasureSolver} with several threads, computes the same progress measure for every vertex as
+ * the lifting on the object game graph. The running time and memory are compared by the
+ * {@link CompactGameGraphBenchmark}.
+ */
+public class CompactGameGraphTest {
+
+	private static final int AUTOMATA = 5;
+	private static final int STATES = 20;
+	private static final int ALPHABET_SIZE = 3;
+	private static final double INTERNAL_SUCCESSORS = 2.0;
+	private static final double ACCEPTANCE_DENSITY = 0.2;
+	private static final int THREADS = 3;
+
+	private AutomataLibraryServices mServices;
+
+	@Before
+	public void setUp() {
+		mServices = new AutomataLibraryServices(UltimateMocks.createUltimateServiceProviderMock());
+	}
+
+	@Test
+	public void directSimulation() throws AutomataOperationCanceledException {
+		compareLiftings(SimulationOrMinimizationType.DIRECT);
+	}
+
+	@Test
+	public void delayedSimulation() throws AutomataOperationCanceledException {
+		compareLiftings(SimulationOrMinimizationType.DELAYED);
+	}
+
+	private void compareLiftings(final SimulationOrMinimizationType type) throws AutomataOperationCanceledException {
+		for (int i = 0; i < AUTOMATA; i++) {
+			final INestedWordAutomaton<String, String> buchi = new RemoveDeadEnds<>(mServices,
+					new GetRandomNwa(mServices, ALPHABET_SIZE, STATES, INTERNAL_SUCCESSORS / STATES, 0, 0,
+							ACCEPTANCE_DENSITY, i).getResult()).getResult();
+
+			final AGameGraph<String, String> graph = CompactGameGraphBenchmark.createGameGraph(mServices, type, buchi);
+			final ASimulation<String, String> simulation =
+					CompactGameGraphBenchmark.createSimulation(mServices, type, graph);
+			simulation.doSimulation();
+
+			final AGameGraph<String, String> compactGraph =
+					CompactGameGraphBenchmark.createGameGraph(mServices, type, buchi);
+			final ASimulation<String, String> compactSimulation =
+					CompactGameGraphBenchmark.createSimulation(mServices, type, compactGraph);
+			compactSimulation.setUseCompactGameGraph(true);
+			compactSimulation.doSimulation();
+			CompactGameGraphBenchmark.compareProgressMeasures(graph, compactGraph);
+			Assert.assertEquals("automaton " + i, simulation.getResult().size(),
+					compactSimulation.getResult().size());
+
+			for (final int threads : new int[] { 1, THREADS }) {
+				final AGameGraph<String, String> parallelGraph =
+						CompactGameGraphBenchmark.createGameGraph(mServices, type, buchi);
+				final CompactGameGraph<String, String> compact = new CompactGameGraph<>(parallelGraph);
+				final ParallelProgressMeasureSolver solver = new ParallelProgressMeasureSolver(compact, threads,
+						mServices.getProgressAwareTimer(), type == SimulationOrMinimizationType.DIRECT);
+				solver.solve();
+				compact.applyProgressMeasures(solver.getProgressMeasures());
+				CompactGameGraphBenchmark.compareProgressMeasures(graph, parallelGraph);
+			}
+		}
+	}
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.nestedword.reachablestates;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryException;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.CompactNestedWordAutomatonBenchmark;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.INestedWordAutomaton;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.GetRandomNwa;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.IntersectNwa;
+import de.uni_freiburg.informatik.ultimate.automata.statefactory.StringFactory;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Checks that the parallel exploration of {@link NestedWordAutomatonReachableStates} constructs the same automaton,
+ * including the down states, as the sequential exploration.
+ */
+public class NestedWordAutomatonReachableStatesParallelTest {
+
+	private static final int RANDOM_AUTOMATA = 10;
+	private static final int STATES = 15;
+	private static final int ALPHABET_SIZE = 2;
+	/**
+	 * Expected number of successors per state and letter.
+	 */
+	private static final double INTERNAL_SUCCESSORS = 2.0;
+	private static final double CALL_SUCCESSORS = 0.5;
+	private static final double RETURN_SUCCESSORS = 1.0;
+	private static final double ACCEPTANCE_DENSITY = 0.2;
+	private static final int THREADS = 4;
+
+	private AutomataLibraryServices mServices;
+	private StringFactory mFactory;
+
+	@Before
+	public void setUp() {
+		mServices = new AutomataLibraryServices(UltimateMocks.createUltimateServiceProviderMock());
+		mFactory = new StringFactory();
+	}
+
+	@Test
+	public void explicitAutomata() throws AutomataLibraryException {
+		for (int i = 0; i < RANDOM_AUTOMATA; i++) {
+			final INestedWordAutomaton<String, String> nwa = createRandom(i);
+			Assert.assertTrue(nwa.supportsConcurrentSuccessorQueries());
+			CompactNestedWordAutomatonBenchmark.checkEquivalent(
+					new NestedWordAutomatonReachableStates<>(mServices, nwa),
+					new NestedWordAutomatonReachableStates<>(mServices, nwa, THREADS));
+		}
+	}
+
+	@Test
+	public void intersections() throws AutomataLibraryException {
+		for (int i = 0; i < RANDOM_AUTOMATA; i++) {
+			final IntersectNwa<String, String> sequential =
+					new IntersectNwa<>(createRandom(2 * i), createRandom(2 * i + 1), mFactory, false);
+			final IntersectNwa<String, String> parallel =
+					new IntersectNwa<>(createRandom(2 * i), createRandom(2 * i + 1), mFactory, false);
+			Assert.assertTrue(parallel.supportsConcurrentSuccessorQueries());
+			CompactNestedWordAutomatonBenchmark.checkEquivalent(
+					new NestedWordAutomatonReachableStates<>(mServices, sequential),
+					new NestedWordAutomatonReachableStates<>(mServices, parallel, THREADS));
+		}
+	}
+
+	private INestedWordAutomaton<String, String> createRandom(final long seed) {
+		return new GetRandomNwa(mServices, ALPHABET_SIZE, STATES, INTERNAL_SUCCESSORS / STATES,
+				CALL_SUCCESSORS / STATES, RETURN_SUCCESSORS / ((double) STATES * STATES), ACCEPTANCE_DENSITY, seed)
+						.getResult();
+	}
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.petrinet.julian;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataOperationCanceledException;
+import de.uni_freiburg.informatik.ultimate.automata.petrinet.Place;
+import de.uni_freiburg.informatik.ultimate.automata.petrinet.julian.PetriNetUnfolder.UnfoldingOrder;
+import de.uni_freiburg.informatik.ultimate.automata.statefactory.StringFactory;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Measures the throughput of the {@link PetriNetUnfolder} on generated nets that resemble concurrent programs: a
+ * number of processes, each of which is a cycle of places, that synchronize pairwise at random positions. These nets
+ * are one-safe by construction. The unfolder computes the complete finite prefix.
+ */
+public class PetriNetUnfolderBenchmark {
+
+	private static final int DEFAULT_PROCESSES = 4;
+	private static final int DEFAULT_LOCATIONS = 12;
+	private static final int DEFAULT_SYNCHRONIZATIONS = 6;
+	private static final int DEFAULT_NETS = 5;
+
+	public static void main(final String[] param) throws AutomataOperationCanceledException {
+		if (param.length > 4) {
+			System.err.println("USAGE PetriNetUnfolderBenchmark [processes] [locations] [synchronizations] [nets]");
+			return;
+		}
+		final int processes = param.length > 0 ? Integer.parseInt(param[0]) : DEFAULT_PROCESSES;
+		final int locations = param.length > 1 ? Integer.parseInt(param[1]) : DEFAULT_LOCATIONS;
+		final int synchronizations = param.length > 2 ? Integer.parseInt(param[2]) : DEFAULT_SYNCHRONIZATIONS;
+		final int nets = param.length > 3 ? Integer.parseInt(param[3]) : DEFAULT_NETS;
+		final AutomataLibraryServices services =
+				new AutomataLibraryServices(UltimateMocks.createUltimateServiceProviderMock());
+
+		System.out.println("net | events | conditions | time ms | events/s");
+		long totalEvents = 0;
+		long totalTime = 0;
+		for (int i = 0; i < nets; i++) {
+			final PetriNetJulian<String, String> net =
+					generateNet(services, processes, locations, synchronizations, new Random(i));
+			final long start = System.nanoTime();
+			final BranchingProcess<String, String> prefix =
+					new PetriNetUnfolder<>(services, net, UnfoldingOrder.ERV, false, false).getResult();
+			final long time = System.nanoTime() - start;
+			final int events = prefix.getEvents().size();
+			totalEvents += events;
+			totalTime += time;
+			System.out.println(String.format("%d | %d | %d | %.3f | %.0f", i, events, prefix.getConditions().size(),
+					time / 1e6, events / (time / 1e9)));
+		}
+		System.out.println(String.format("total | %d | | %.3f | %.0f", totalEvents, totalTime / 1e6,
+				totalEvents / (totalTime / 1e9)));
+	}
+
+	static PetriNetJulian<String, String> generateNet(final AutomataLibraryServices services,
+			final int processes, final int locations, final int synchronizations, final Random random) {
+		final Set<String> alphabet = new HashSet<>();
+		for (int p = 0; p < processes; p++) {
+			for (int l = 0; l < locations; l++) {
+				alphabet.add(local(p, l));
+			}
+		}
+		for (int s = 0; s < synchronizations; s++) {
+			alphabet.add("sync" + s);
+		}
+		final PetriNetJulian<String, String> net =
+				new PetriNetJulian<>(services, alphabet, new StringFactory(), true);
+		final List<List<Place<String, String>>> places = new ArrayList<>();
+		for (int p = 0; p < processes; p++) {
+			final List<Place<String, String>> process = new ArrayList<>();
+			for (int l = 0; l < locations; l++) {
+				process.add(net.addPlace("p" + p + "_" + l, l == 0, false));
+			}
+			places.add(process);
+		}
+		for (int p = 0; p < processes; p++) {
+			for (int l = 0; l < locations; l++) {
+				net.addTransition(local(p, l), Arrays.asList(places.get(p).get(l)),
+						Arrays.asList(places.get(p).get((l + 1) % locations)));
+			}
+		}
+		for (int s = 0; s < synchronizations && processes > 1; s++) {
+			final int p1 = random.nextInt(processes);
+			int p2 = random.nextInt(processes - 1);
+			if (p2 >= p1) {
+				p2++;
+			}
+			final int l1 = random.nextInt(locations);
+			final int l2 = random.nextInt(locations);
+			net.addTransition("sync" + s, Arrays.asList(places.get(p1).get(l1), places.get(p2).get(l2)),
+					Arrays.asList(places.get(p1).get((l1 + 1) % locations),
+							places.get(p2).get((l2 + 1) % locations)));
+		}
+		return net;
+	}
+
+	private static String local(final int process, final int location) {
+		return "t" + process + "_" + location;
+	}
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Automata Library.
+ *
+ * The ULTIMATE Automata Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Automata Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Automata Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Automata Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Automata Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.automata.petrinet.julian;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
+import de.uni_freiburg.informatik.ultimate.automata.AutomataOperationCanceledException;
+import de.uni_freiburg.informatik.ultimate.automata.petrinet.ITransition;
+import de.uni_freiburg.informatik.ultimate.automata.petrinet.Marking;
+import de.uni_freiburg.informatik.ultimate.automata.petrinet.Place;
+import de.uni_freiburg.informatik.ultimate.automata.petrinet.julian.PetriNetUnfolder.UnfoldingOrder;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Checks the co-relation of the {@link BranchingProcess} against its definition, and that the complete finite prefix
+ * computed by the {@link PetriNetUnfolder} (whose cut-off check uses the marking index) represents exactly the
+ * reachable markings of the net. The nets are generated like in the {@link PetriNetUnfolderBenchmark}, which measures
+ * the throughput.
+ */
+public class PetriNetUnfolderTest {
+
+	private static final int NETS = 5;
+	private static final int PROCESSES = 3;
+	private static final int LOCATIONS = 4;
+	private static final int SYNCHRONIZATIONS = 3;
+
+	private AutomataLibraryServices mServices;
+
+	@Before
+	public void setUp() {
+		mServices = new AutomataLibraryServices(UltimateMocks.createUltimateServiceProviderMock());
+	}
+
+	@Test
+	public void coRelationCoincidesWithDefinition() throws AutomataOperationCanceledException {
+		for (int i = 0; i < NETS; i++) {
+			final BranchingProcess<String, String> prefix = unfold(i);
+			final BitSetCoRelation<String, String> coRelation = prefix.getCoRelation();
+			final List<Condition<String, String>> conditions = new ArrayList<>(prefix.getConditions());
+			for (final Condition<String, String> c1 : conditions) {
+				for (final Condition<String, String> c2 : conditions) {
+					final boolean expected = c1 == c2
+							|| !prefix.inCausalRelation(c1, c2) && !prefix.inConflict(c1, c2);
+					Assert.assertEquals("net " + i + ": " + c1 + ", " + c2, expected,
+							coRelation.isInCoRelation(c1, c2));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void prefixRepresentsReachableMarkings() throws AutomataOperationCanceledException {
+		for (int i = 0; i < NETS; i++) {
+			final BranchingProcess<String, String> prefix = unfold(i);
+			Assert.assertEquals("net " + i, getReachableMarkings(prefix.getNet()), getMarkingsOfCuts(prefix));
+		}
+	}
+
+	private BranchingProcess<String, String> unfold(final int seed) throws AutomataOperationCanceledException {
+		final PetriNetJulian<String, String> net = PetriNetUnfolderBenchmark.generateNet(mServices, PROCESSES,
+				LOCATIONS, SYNCHRONIZATIONS, new Random(seed));
+		return new PetriNetUnfolder<>(mServices, net, UnfoldingOrder.ERV, false, false).getResult();
+	}
+
+	private static Set<Marking<String, String>> getReachableMarkings(final PetriNetJulian<String, String> net) {
+		final Set<Marking<String, String>> reachable = new HashSet<>();
+		final ArrayDeque<Marking<String, String>> worklist = new ArrayDeque<>();
+		reachable.add(net.getInitialMarking());
+		worklist.add(net.getInitialMarking());
+		while (!worklist.isEmpty()) {
+			final Marking<String, String> marking = worklist.poll();
+			for (final ITransition<String, String> transition : net.getTransitions()) {
+				if (marking.isTransitionEnabled(transition)) {
+					final Marking<String, String> succ = marking.fireTransition(transition);
+					if (reachable.add(succ)) {
+						worklist.add(succ);
+					}
+				}
+			}
+		}
+		return reachable;
+	}
+
+	/**
+	 * @return the markings of all cuts of the prefix, i.e., of all markings that are reachable by firing the events of
+	 *         the prefix
+	 */
+	private static Set<Marking<String, String>> getMarkingsOfCuts(final BranchingProcess<String, String> prefix) {
+		final Set<Set<Condition<String, String>>> cuts = new HashSet<>();
+		final ArrayDeque<Set<Condition<String, String>>> worklist = new ArrayDeque<>();
+		final Set<Condition<String, String>> initialCut = new HashSet<>(prefix.initialConditions());
+		cuts.add(initialCut);
+		worklist.add(initialCut);
+		while (!worklist.isEmpty()) {
+			final Set<Condition<String, String>> cut = worklist.poll();
+			for (final Condition<String, String> condition : cut) {
+				for (final Event<String, String> event : condition.getSuccessorEvents()) {
+					if (cut.containsAll(event.getPredecessorConditions())) {
+						final Set<Condition<String, String>> succ = new HashSet<>(cut);
+						succ.removeAll(event.getPredecessorConditions());
+						succ.addAll(event.getSuccessorConditions());
+						if (cuts.add(succ)) {
+							worklist.add(succ);
+						}
+					}
+				}
+			}
+		}
+		final Set<Marking<String, String>> markings = new HashSet<>();
+		for (final Set<Condition<String, String>> cut : cuts) {
+			final Set<Place<String, String>> places = new HashSet<>();
+			for (final Condition<String, String> condition : cut) {
+				places.add(condition.getPlace());
+			}
+			markings.add(new Marking<>(places));
+		}
+		return markings;
+	}
+}
@@ -492,16 +492,45 @@ public class LassoAnalysis {
 	 */
 	public TerminationArgument tryTemplate(final RankingTemplate template, final TerminationAnalysisSettings settings)
 			throws SMTLIBException, TermException, IOException {
+		return tryTemplate(template, settings, mServices, mStorage, mLassoTerminationAnalysisBenchmarks);
+	}
+
+	/**
+	 * Try to find a termination argument for the lasso program with the given template. In contrast to
+	 * {@link #tryTemplate(RankingTemplate, TerminationAnalysisSettings)} this method does not modify this object,
+	 * hence it can be called concurrently for different templates.
+	 *
+	 * @param template
+	 *            the ranking function template
+	 * @param settings
+	 *            (local) settings for termination analysis
+	 * @param services
+	 *            services used by the solvers of this try, e.g., with a progress monitor that can be canceled
+	 *            separately
+	 * @param storage
+	 *            storage in which the solvers of this try are registered; has to be thread-safe if several tries run
+	 *            concurrently
+	 * @param benchmarks
+	 *            list to which the benchmarks of this try are added
+	 * @return the termination argument or null of none is found
+	 * @throws IOException
+	 */
+	public TerminationArgument tryTemplate(final RankingTemplate template, final TerminationAnalysisSettings settings,
+			final IUltimateServiceProvider services, final IToolchainStorage storage,
+			final List<TerminationAnalysisBenchmark> benchmarks) throws SMTLIBException, TermException, IOException {
 		// ignore stem
 		mLogger.info("Using template '" + template.getName() + "'.");
 		mLogger.debug(template);
 
 		for (final Lasso lasso : mLassos) {
+			if (!services.getProgressMonitorService().continueProcessing()) {
+				return null;
+			}
 			// It suffices to prove termination for one component
 			final long startTime = System.nanoTime();
 
 			final TerminationArgumentSynthesizer tas = new TerminationArgumentSynthesizer(lasso, template, mPreferences,
-					settings, mArrayIndexSupportingInvariants, mServices, mStorage);
+					settings, mArrayIndexSupportingInvariants, services, storage);
 			final LBool constraintSat = tas.synthesize();
 
 			final long endTime = System.nanoTime();
@@ -510,16 +539,18 @@ public class LassoAnalysis {
 					new TerminationAnalysisBenchmark(constraintSat, lasso.getStemVarNum(), lasso.getLoopVarNum(),
 							lasso.getStemDisjuncts(), lasso.getLoopDisjuncts(), template.getName(),
 							template.getDegree(), tas.getNumSIs(), tas.getNumMotzkin(), endTime - startTime);
-			mLassoTerminationAnalysisBenchmarks.add(tab);
+			benchmarks.add(tab);
 			mLogger.debug(benchmarkScriptMessage(constraintSat, template));
 
 			if (constraintSat == LBool.SAT) {
 				mLogger.info("Proved termination.");
 				final TerminationArgument ta = tas.getArgument();
 				mLogger.info(ta);
-				final Term[] lexTerm = ta.getRankingFunction().asLexTerm(mMgdScript.getScript());
-				for (final Term t : lexTerm) {
-					mLogger.debug(new DebugMessage("{0}", new SMTPrettyPrinter(t)));
+				if (mLogger.isDebugEnabled()) {
+					final Term[] lexTerm = ta.getRankingFunction().asLexTerm(mMgdScript.getScript());
+					for (final Term t : lexTerm) {
+						mLogger.debug(new DebugMessage("{0}", new SMTPrettyPrinter(t)));
+					}
 				}
 				tas.close();
 				return ta;
@@ -122,6 +122,13 @@ public class TerminationAnalysisBenchmark
 		return mMotzkinApplications;
 	}
 	
+	/**
+	 * @return time in nanoseconds
+	 */
+	public long getTime() {
+		return mTime;
+	}
+	
 	@Override
 	public String toString() {
 		final StringBuilder sb = new StringBuilder();
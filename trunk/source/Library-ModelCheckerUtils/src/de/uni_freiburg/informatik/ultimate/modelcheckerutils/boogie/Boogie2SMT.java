@@ -162,7 +162,10 @@ public class Boogie2SMT {
 		final ConstOnlyIdentifierTranslator coit = new ConstOnlyIdentifierTranslator();
 		final IIdentifierTranslator[] its = new IIdentifierTranslator[] { coit };
 		final Term closedTerm = expression2term.translateToTerm(its, ax.getFormula()).getTerm();
-		mScript.getScript().assertTerm(closedTerm);
+		// assert via the managed script such that the axioms are part of its assertion context
+		mScript.lock(this);
+		mScript.assertTerm(this, closedTerm);
+		mScript.unlock(this);
 		return closedTerm;
 	}
 
@@ -45,6 +45,9 @@ public class HoareTripleCheckerStatisticsGenerator implements IStatisticsDataPro
 	protected final InCaReCounter mSolverCounterUnsat;
 	protected final InCaReCounter mSolverCounterUnknown;
 	protected final InCaReCounter mSolverCounterNotChecked;
+	protected final InCaReCounter mCacheHitCounter;
+	protected final InCaReCounter mCacheMissCounter;
+	protected final InCaReCounter mCacheEvictionCounter;
 	protected final Benchmark mBenchmark;
 
 	protected boolean mRunning = false;
@@ -58,6 +61,9 @@ public class HoareTripleCheckerStatisticsGenerator implements IStatisticsDataPro
 		mSolverCounterUnsat = new InCaReCounter();
 		mSolverCounterUnknown = new InCaReCounter();
 		mSolverCounterNotChecked= new InCaReCounter();
+		mCacheHitCounter = new InCaReCounter();
+		mCacheMissCounter = new InCaReCounter();
+		mCacheEvictionCounter = new InCaReCounter();
 		mBenchmark = new Benchmark();
 		mBenchmark.register(String.valueOf(HoareTripleCheckerStatisticsDefinitions.Time));
 	}
@@ -86,6 +92,15 @@ public class HoareTripleCheckerStatisticsGenerator implements IStatisticsDataPro
 	public InCaReCounter getSolverCounterNotChecked() {
 		return mSolverCounterNotChecked;
 	}
+	public InCaReCounter getCacheHitCounter() {
+		return mCacheHitCounter;
+	}
+	public InCaReCounter getCacheMissCounter() {
+		return mCacheMissCounter;
+	}
+	public InCaReCounter getCacheEvictionCounter() {
+		return mCacheEvictionCounter;
+	}
 	public long getEdgeCheckerTime() {
 		return (long) mBenchmark.getElapsedTime(String.valueOf(HoareTripleCheckerStatisticsDefinitions.Time), TimeUnit.NANOSECONDS);
 	}
@@ -123,6 +138,12 @@ public class HoareTripleCheckerStatisticsGenerator implements IStatisticsDataPro
 			return mSolverCounterUnknown;
 		case SolverNotchecked:
 			return mSolverCounterNotChecked;
+		case CacheHits:
+			return mCacheHitCounter;
+		case CacheMisses:
+			return mCacheMissCounter;
+		case CacheEvictions:
+			return mCacheEvictionCounter;
 		case Time:
 			return getEdgeCheckerTime();
 		default:
@@ -154,6 +175,12 @@ public class HoareTripleCheckerStatisticsGenerator implements IStatisticsDataPro
 		builder.append(mSolverCounterUnknown);
 		builder.append(", mSolverCounterNotChecked=");
 		builder.append(mSolverCounterNotChecked);
+		builder.append(", mCacheHitCounter=");
+		builder.append(mCacheHitCounter);
+		builder.append(", mCacheMissCounter=");
+		builder.append(mCacheMissCounter);
+		builder.append(", mCacheEvictionCounter=");
+		builder.append(mCacheEvictionCounter);
 		builder.append("]");
 		return builder.toString();
 	}
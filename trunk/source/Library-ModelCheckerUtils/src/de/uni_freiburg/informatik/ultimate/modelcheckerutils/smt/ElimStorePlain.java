@@ -44,6 +44,7 @@ import de.uni_freiburg.informatik.ultimate.logic.QuantifiedFormula;
 import de.uni_freiburg.informatik.ultimate.logic.Term;
 import de.uni_freiburg.informatik.ultimate.logic.TermVariable;
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.ModelCheckerUtils;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.QuantifierEliminationCache.Eliminator;
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.SmtUtils.SimplificationTechnique;
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.SmtUtils.XnfConversionTechnique;
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.arrays.MultiDimensionalSort;
@@ -187,13 +188,19 @@ public class ElimStorePlain {
 	}
 	
 	/**
-	 * New recursive elimination. Not yet finished but should be sound.
+	 * New recursive elimination. Not yet finished but should be sound. Results are cached by the
+	 * {@link QuantifierEliminationCache} of the {@link ManagedScript}.
 	 */
 	public EliminationTask elimAllRec(final EliminationTask eTask) {
 		final TreeRelation<Integer, TermVariable> tr = classifyEliminatees(eTask.getEliminatees());
 		if (tr.isEmpty() || (tr.getDomain().size() == 1 && tr.getDomain().contains(0))) {
 			return eTask;
 		}
+		return mMgdScript.getQuantifierEliminationCache().eliminate(Eliminator.ELIM_STORE_PLAIN, eTask,
+				mSimplificationTechnique, null, this::computeElimAllRec);
+	}
+
+	private EliminationTask computeElimAllRec(final EliminationTask eTask) {
 		mRecursiveCallCounter = 0;
 		final long inputSize = new DAGSize().treesize(eTask.getTerm());
 		final EliminationTask result = doElimAllRec(
@@ -44,13 +44,29 @@ public class IncrementalImplicationChecker implements ILockHolderWithVoluntaryLo
 	
 	private final IUltimateServiceProvider mServices;
 	private final ManagedScript mManagedScript;
+	private final SatisfyingModelCache mModelCache;
 	
 	private IPredicate mSuccedent;
+	/**
+	 * Assertion context of the script before the succedent was asserted.
+	 */
+	private Object mAssertionContext;
 
 	public IncrementalImplicationChecker(final IUltimateServiceProvider services, final ManagedScript managedScript) {
+		this(services, managedScript, null);
+	}
+
+	/**
+	 * @param modelCache
+	 *            cache of satisfying models that is used to refute implications without a solver call and that is
+	 *            extended by the models of invalid implications, may be null
+	 */
+	public IncrementalImplicationChecker(final IUltimateServiceProvider services, final ManagedScript managedScript,
+			final SatisfyingModelCache modelCache) {
 		super();
 		mServices = services;
 		mManagedScript = managedScript;
+		mModelCache = modelCache;
 	}
 	
 	
@@ -72,6 +88,7 @@ public class IncrementalImplicationChecker implements ILockHolderWithVoluntaryLo
 			mManagedScript.requestLockRelease();
 		}
 		mManagedScript.lock(this);
+		mAssertionContext = mManagedScript.getAssertionContext();
 		mManagedScript.push(this, 1);
 		assert (mSuccedent == null) : "already succedent asserted";
 		mSuccedent = succedent;
@@ -87,13 +104,28 @@ public class IncrementalImplicationChecker implements ILockHolderWithVoluntaryLo
 	
 	private Validity doCheckWithAntecedent(final IPredicate antecedent) {
 		assert (mSuccedent != null) : "no succedent asserted";
+		if (mModelCache != null && mModelCache.refutesImplication(mAssertionContext, antecedent.getClosedFormula(),
+				mSuccedent.getClosedFormula())) {
+			return Validity.INVALID;
+		}
 		mManagedScript.push(this, 1);
 		mManagedScript.assertTerm(this, antecedent.getClosedFormula());
 		final LBool lbool = mManagedScript.checkSat(this);
+		if (lbool == LBool.SAT && mModelCache != null) {
+			mModelCache.addModel(mManagedScript, this, mAssertionContext, antecedent.getClosedFormula(),
+					mSuccedent.getClosedFormula());
+		}
 		mManagedScript.pop(this, 1);
 		return IHoareTripleChecker.convertLBool2Validity(lbool);
 	}
 	
+	/**
+	 * @return the cache of satisfying models, or null if this checker does not use one
+	 */
+	public SatisfyingModelCache getModelCache() {
+		return mModelCache;
+	}
+
 	@Override
 	public void releaseLock() {
 		if (mSuccedent != null) {
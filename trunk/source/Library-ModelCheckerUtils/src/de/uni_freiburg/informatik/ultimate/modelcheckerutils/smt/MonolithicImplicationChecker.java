@@ -45,11 +45,23 @@ public class MonolithicImplicationChecker {
 	
 	private final IUltimateServiceProvider mServices;
 	private final ManagedScript mManagedScript;
+	private final SatisfyingModelCache mModelCache;
 
 	public MonolithicImplicationChecker(final IUltimateServiceProvider services, final ManagedScript managedScript) {
+		this(services, managedScript, null);
+	}
+
+	/**
+	 * @param modelCache
+	 *            cache of satisfying models that is used to refute implications without a solver call and that is
+	 *            extended by the models of invalid implications, may be null
+	 */
+	public MonolithicImplicationChecker(final IUltimateServiceProvider services, final ManagedScript managedScript,
+			final SatisfyingModelCache modelCache) {
 		super();
 		mServices = services;
 		mManagedScript = managedScript;
+		mModelCache = modelCache;
 	}
 	
 	
@@ -77,17 +89,34 @@ public class MonolithicImplicationChecker {
 			mManagedScript.requestLockRelease();
 		}
 		mManagedScript.lock(this);
+		final Object assertionContext = mManagedScript.getAssertionContext();
+		if (mModelCache != null
+				&& mModelCache.refutesImplication(assertionContext, antecedentClosedFormula, succedentClosedFormula)) {
+			mManagedScript.unlock(this);
+			return Validity.INVALID;
+		}
 		mManagedScript.echo(this, new QuotedObject("Start implication check"));
 		mManagedScript.push(this, 1);
 		mManagedScript.assertTerm(this, antecedentClosedFormula);
 		mManagedScript.assertTerm(this, SmtUtils.not(mManagedScript.getScript(), succedentClosedFormula));
 		final LBool lbool = mManagedScript.checkSat(this);
+		if (lbool == LBool.SAT && mModelCache != null) {
+			mModelCache.addModel(mManagedScript, this, assertionContext, antecedentClosedFormula,
+					succedentClosedFormula);
+		}
 		mManagedScript.pop(this, 1);
 		mManagedScript.echo(this, new QuotedObject("Finished implication check"));
 		mManagedScript.unlock(this);
 		return IHoareTripleChecker.convertLBool2Validity(lbool);
 	}
 
+	/**
+	 * @return the cache of satisfying models, or null if this checker does not use one
+	 */
+	public SatisfyingModelCache getModelCache() {
+		return mModelCache;
+	}
+
 	private Validity dataflowBasedImplicationCheck(final Term antecedent, final Term succedent) {
 		return Validity.UNKNOWN;
 	}
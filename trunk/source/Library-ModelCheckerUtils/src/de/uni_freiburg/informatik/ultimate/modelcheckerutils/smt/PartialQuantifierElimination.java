@@ -29,6 +29,7 @@ package de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -46,6 +47,7 @@ import de.uni_freiburg.informatik.ultimate.logic.Script.LBool;
 import de.uni_freiburg.informatik.ultimate.logic.Term;
 import de.uni_freiburg.informatik.ultimate.logic.TermVariable;
 import de.uni_freiburg.informatik.ultimate.logic.Util;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.QuantifierEliminationCache.Eliminator;
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.SmtUtils.SimplificationTechnique;
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.SmtUtils.XnfConversionTechnique;
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.linearterms.PrenexNormalForm;
@@ -80,9 +82,25 @@ public class PartialQuantifierElimination {
 	private static final boolean DEBUG_EXTENDED_RESULT_CHECK = false;
 	private static final boolean DEBUG_APPLY_ARRAY_PQE_ALSO_TO_NEGATION = false;
 
+	/**
+	 * Eliminate as many quantifiers of the term as possible. Results are cached by the
+	 * {@link QuantifierEliminationCache} of the {@link ManagedScript}.
+	 */
 	public static Term tryToEliminate(final IUltimateServiceProvider services, final ILogger logger,
 			final ManagedScript mgdScript, final Term term, final SimplificationTechnique simplificationTechnique,
 			final XnfConversionTechnique xnfConversionTechnique) {
+		final EliminationTask task = new EliminationTask(QuantifiedFormula.EXISTS, Collections.emptySet(), term);
+		return mgdScript.getQuantifierEliminationCache()
+				.eliminate(Eliminator.TRY_TO_ELIMINATE, task, simplificationTechnique, xnfConversionTechnique,
+						t -> new EliminationTask(QuantifiedFormula.EXISTS, Collections.emptySet(),
+								doTryToEliminate(services, logger, mgdScript, t.getTerm(), simplificationTechnique,
+										xnfConversionTechnique)))
+				.getTerm();
+	}
+
+	private static Term doTryToEliminate(final IUltimateServiceProvider services, final ILogger logger,
+			final ManagedScript mgdScript, final Term term, final SimplificationTechnique simplificationTechnique,
+			final XnfConversionTechnique xnfConversionTechnique) {
 		final Term withoutIte = (new IteRemover(mgdScript)).transform(term);
 		final Term nnf = new NnfTransformer(mgdScript, services, QuantifierHandling.KEEP).transform(withoutIte);
 		final Term pushed = new QuantifierPusher(mgdScript, services, true, PqeTechniques.ALL_LOCAL).transform(nnf);
@@ -187,10 +205,38 @@ public class PartialQuantifierElimination {
 		return pnf;
 	}
 
+	/**
+	 * Eliminate the given quantified variables from the term. Results are cached by the
+	 * {@link QuantifierEliminationCache} of the {@link ManagedScript}.
+	 *
+	 * @param eliminatees
+	 *            input: the quantified variables, output: the variables that could not be eliminated
+	 */
 	public static Term elim(final ManagedScript mgdScript, final int quantifier, final Set<TermVariable> eliminatees,
 			final Term term, final IUltimateServiceProvider services, final ILogger logger,
 			final SimplificationTechnique simplificationTechnique,
 			final XnfConversionTechnique xnfConversionTechnique) {
+		final EliminationTask task = new EliminationTask(quantifier, eliminatees, term);
+		if (task.getEliminatees().isEmpty()) {
+			eliminatees.clear();
+			return term;
+		}
+		final EliminationTask result = mgdScript.getQuantifierEliminationCache().eliminate(Eliminator.ELIM, task,
+				simplificationTechnique, xnfConversionTechnique, t -> {
+					final Set<TermVariable> remaining = new HashSet<>(t.getEliminatees());
+					final Term resultTerm = doElim(mgdScript, quantifier, remaining, t.getTerm(), services, logger,
+							simplificationTechnique, xnfConversionTechnique);
+					return new EliminationTask(quantifier, remaining, resultTerm);
+				});
+		eliminatees.clear();
+		eliminatees.addAll(result.getEliminatees());
+		return result.getTerm();
+	}
+
+	private static Term doElim(final ManagedScript mgdScript, final int quantifier,
+			final Set<TermVariable> eliminatees, final Term term, final IUltimateServiceProvider services,
+			final ILogger logger, final SimplificationTechnique simplificationTechnique,
+			final XnfConversionTechnique xnfConversionTechnique) {
 		final Script script = mgdScript.getScript();
 		final Set<TermVariable> occuringVars = new HashSet<>(Arrays.asList(term.getFreeVars()));
 		final Iterator<TermVariable> it = eliminatees.iterator();
@@ -0,0 +1,373 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE ModelCheckerUtils Library.
+ *
+ * The ULTIMATE ModelCheckerUtils Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE ModelCheckerUtils Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE ModelCheckerUtils Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE ModelCheckerUtils Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE ModelCheckerUtils Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.logic.TermVariable;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.SmtUtils.SimplificationTechnique;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.SmtUtils.XnfConversionTechnique;
+import de.uni_freiburg.informatik.ultimate.util.statistics.IStatisticsDataProvider;
+import de.uni_freiburg.informatik.ultimate.util.statistics.IStatisticsElement;
+import de.uni_freiburg.informatik.ultimate.util.statistics.IStatisticsType;
+import de.uni_freiburg.informatik.ultimate.util.statistics.StatisticsType;
+
+/**
+ * Stores results of quantifier elimination (see {@link PartialQuantifierElimination} and {@link ElimStorePlain}) such
+ * that the same elimination task is not solved twice. Terms are unique (hash consing), hence a task is identified by
+ * its term, its quantifier, its eliminatees, the technique that is applied, and the simplification and XNF conversion
+ * settings. Results depend only on these inputs, up to the names of fresh auxiliary variables that were introduced
+ * during the elimination.
+ * <p>
+ * The cache keeps at most {@link #getCapacity()} results, the result that was least recently used is discarded first.
+ * A capacity of 0 disables the cache. Eliminations are nested (e.g., {@link PartialQuantifierElimination#tryToEliminate} calls
+ * {@link PartialQuantifierElimination#elim}, which calls {@link ElimStorePlain}), the number of eliminated quantified
+ * variables is counted only once per outermost elimination.
+ */
+public class QuantifierEliminationCache {
+
+	public static final int DEFAULT_CAPACITY = 4096;
+
+	/**
+	 * The elimination procedures whose results are cached.
+	 */
+	public enum Eliminator {
+		TRY_TO_ELIMINATE, ELIM, ELIM_STORE_PLAIN
+	}
+
+	private int mCapacity;
+	private final Map<Key, Result> mResults;
+	/**
+	 * Number of eliminations that the current thread is computing, and number of quantified variables that these
+	 * eliminations (including the nested ones) eliminated so far.
+	 */
+	private final ThreadLocal<long[]> mDepthAndEliminated = ThreadLocal.withInitial(() -> new long[2]);
+
+	private int mHits;
+	private int mMisses;
+	private int mEvictions;
+	private long mEliminatedQuantifiers;
+	private long mEliminatedQuantifiersByHits;
+
+	public QuantifierEliminationCache() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param capacity
+	 *            maximal number of results that are stored, 0 disables the cache
+	 */
+	public QuantifierEliminationCache(final int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("capacity must not be negative");
+		}
+		mCapacity = capacity;
+		mResults = new LinkedHashMap<Key, Result>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<Key, Result> eldest) {
+				if (size() > mCapacity) {
+					mEvictions++;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Change the maximal number of results that are stored. If there are more results, the least recently used ones
+	 * are discarded.
+	 *
+	 * @param capacity
+	 *            maximal number of results that are stored, 0 disables the cache
+	 */
+	public synchronized void setCapacity(final int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("capacity must not be negative");
+		}
+		mCapacity = capacity;
+		while (mResults.size() > mCapacity) {
+			mResults.remove(mResults.keySet().iterator().next());
+			mEvictions++;
+		}
+	}
+
+	public synchronized int getCapacity() {
+		return mCapacity;
+	}
+
+	public synchronized boolean isEnabled() {
+		return mCapacity > 0;
+	}
+
+	/**
+	 * Return the cached result for the given elimination task, or compute it by the given elimination and store it.
+	 * The lock of this cache is not held while the elimination is computed, hence the elimination may use this cache
+	 * again.
+	 *
+	 * @param xnfConversionTechnique
+	 *            null if the eliminator does not use an XNF conversion
+	 */
+	public EliminationTask eliminate(final Eliminator eliminator, final EliminationTask task,
+			final SimplificationTechnique simplificationTechnique,
+			final XnfConversionTechnique xnfConversionTechnique, final UnaryOperator<EliminationTask> elimination) {
+		final Key key = new Key(eliminator, task, simplificationTechnique, xnfConversionTechnique);
+		final long[] depthAndEliminated = mDepthAndEliminated.get();
+		final boolean outermost = depthAndEliminated[0] == 0;
+		synchronized (this) {
+			final Result cached = mCapacity == 0 ? null : mResults.get(key);
+			if (cached != null) {
+				mHits++;
+				if (outermost) {
+					mEliminatedQuantifiers += cached.mEliminatedQuantifiers;
+					mEliminatedQuantifiersByHits += cached.mEliminatedQuantifiers;
+				}
+				depthAndEliminated[1] += cached.mEliminatedQuantifiers;
+				return cached.mTask;
+			}
+			if (mCapacity > 0) {
+				mMisses++;
+			}
+		}
+		final long eliminatedBefore = depthAndEliminated[1];
+		final EliminationTask result;
+		depthAndEliminated[0]++;
+		try {
+			result = elimination.apply(task);
+		} finally {
+			depthAndEliminated[0]--;
+		}
+		// the nested eliminations are part of this elimination, hence we take the maximum and not the sum
+		final long eliminatedByNested = depthAndEliminated[1] - eliminatedBefore;
+		final long eliminated = Math.max(eliminatedByNested,
+				Math.max(0, task.getEliminatees().size() - result.getEliminatees().size()));
+		depthAndEliminated[1] = eliminatedBefore + eliminated;
+		synchronized (this) {
+			if (outermost) {
+				mEliminatedQuantifiers += eliminated;
+			}
+			if (mCapacity > 0) {
+				mResults.put(key, new Result(result, eliminated));
+			}
+		}
+		return result;
+	}
+
+	public synchronized void clear() {
+		mResults.clear();
+	}
+
+	public synchronized int getHits() {
+		return mHits;
+	}
+
+	public synchronized int getMisses() {
+		return mMisses;
+	}
+
+	/**
+	 * @return the statistics of all eliminations since the last call of this method
+	 */
+	public synchronized IStatisticsDataProvider takeStatistics() {
+		final QuantifierEliminationCacheStatistics result = new QuantifierEliminationCacheStatistics(mHits, mMisses,
+				mEvictions, mEliminatedQuantifiers, mEliminatedQuantifiersByHits);
+		mHits = 0;
+		mMisses = 0;
+		mEvictions = 0;
+		mEliminatedQuantifiers = 0;
+		mEliminatedQuantifiersByHits = 0;
+		return result;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "QuantifierEliminationCache: " + mResults.size() + " results stored, " + mHits + " hits, " + mMisses
+				+ " misses, " + mEvictions + " evictions";
+	}
+
+	private static final class Key {
+		private final Eliminator mEliminator;
+		private final int mQuantifier;
+		private final Set<TermVariable> mEliminatees;
+		private final Term mTerm;
+		private final SimplificationTechnique mSimplificationTechnique;
+		private final XnfConversionTechnique mXnfConversionTechnique;
+		private final int mHashCode;
+
+		Key(final Eliminator eliminator, final EliminationTask task,
+				final SimplificationTechnique simplificationTechnique,
+				final XnfConversionTechnique xnfConversionTechnique) {
+			mEliminator = eliminator;
+			mQuantifier = task.getQuantifier();
+			mEliminatees = new HashSet<>(task.getEliminatees());
+			mTerm = task.getTerm();
+			mSimplificationTechnique = simplificationTechnique;
+			mXnfConversionTechnique = xnfConversionTechnique;
+			mHashCode = Objects.hash(mEliminator, mQuantifier, mEliminatees, mTerm, mSimplificationTechnique,
+					mXnfConversionTechnique);
+		}
+
+		@Override
+		public int hashCode() {
+			return mHashCode;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			final Key other = (Key) obj;
+			return mHashCode == other.mHashCode && mTerm == other.mTerm && mEliminator == other.mEliminator
+					&& mQuantifier == other.mQuantifier && mSimplificationTechnique == other.mSimplificationTechnique
+					&& mXnfConversionTechnique == other.mXnfConversionTechnique
+					&& mEliminatees.equals(other.mEliminatees);
+		}
+	}
+
+	private static final class Result {
+		private final EliminationTask mTask;
+		private final long mEliminatedQuantifiers;
+
+		Result(final EliminationTask task, final long eliminatedQuantifiers) {
+			mTask = task;
+			mEliminatedQuantifiers = eliminatedQuantifiers;
+		}
+	}
+
+	public enum QuantifierEliminationCacheStatisticsDefinitions implements IStatisticsElement {
+
+		CacheHits(Integer.class, StatisticsType.INTEGER_ADDITION, StatisticsType.DATA_BEFORE_KEY),
+
+		CacheMisses(Integer.class, StatisticsType.INTEGER_ADDITION, StatisticsType.DATA_BEFORE_KEY),
+
+		CacheEvictions(Integer.class, StatisticsType.INTEGER_ADDITION, StatisticsType.DATA_BEFORE_KEY),
+
+		EliminatedQuantifiers(Long.class, StatisticsType.LONG_ADDITION, StatisticsType.DATA_BEFORE_KEY),
+
+		EliminatedQuantifiersByCacheHits(Long.class, StatisticsType.LONG_ADDITION, StatisticsType.DATA_BEFORE_KEY);
+
+		private final Class<?> mClazz;
+		private final Function<Object, Function<Object, Object>> mAggr;
+		private final Function<String, Function<Object, String>> mPrettyprinter;
+
+		QuantifierEliminationCacheStatisticsDefinitions(final Class<?> clazz,
+				final Function<Object, Function<Object, Object>> aggr,
+				final Function<String, Function<Object, String>> prettyprinter) {
+			mClazz = clazz;
+			mAggr = aggr;
+			mPrettyprinter = prettyprinter;
+		}
+
+		@Override
+		public Object aggregate(final Object o1, final Object o2) {
+			return mAggr.apply(o1).apply(o2);
+		}
+
+		@Override
+		public String prettyprint(final Object o) {
+			return mPrettyprinter.apply(name()).apply(o);
+		}
+
+		@Override
+		public Class<?> getDataType() {
+			return mClazz;
+		}
+	}
+
+	public static class QuantifierEliminationCacheStatisticsType
+			extends StatisticsType<QuantifierEliminationCacheStatisticsDefinitions> {
+
+		private static final QuantifierEliminationCacheStatisticsType INSTANCE =
+				new QuantifierEliminationCacheStatisticsType();
+
+		public QuantifierEliminationCacheStatisticsType() {
+			super(QuantifierEliminationCacheStatisticsDefinitions.class);
+		}
+
+		public static QuantifierEliminationCacheStatisticsType getInstance() {
+			return INSTANCE;
+		}
+	}
+
+	private static final class QuantifierEliminationCacheStatistics implements IStatisticsDataProvider {
+		private final int mHits;
+		private final int mMisses;
+		private final int mEvictions;
+		private final long mEliminatedQuantifiers;
+		private final long mEliminatedQuantifiersByHits;
+
+		QuantifierEliminationCacheStatistics(final int hits, final int misses, final int evictions,
+				final long eliminatedQuantifiers, final long eliminatedQuantifiersByHits) {
+			mHits = hits;
+			mMisses = misses;
+			mEvictions = evictions;
+			mEliminatedQuantifiers = eliminatedQuantifiers;
+			mEliminatedQuantifiersByHits = eliminatedQuantifiersByHits;
+		}
+
+		@Override
+		public Collection<String> getKeys() {
+			return getBenchmarkType().getKeys();
+		}
+
+		@Override
+		public Object getValue(final String key) {
+			switch (QuantifierEliminationCacheStatisticsDefinitions.valueOf(key)) {
+			case CacheHits:
+				return mHits;
+			case CacheMisses:
+				return mMisses;
+			case CacheEvictions:
+				return mEvictions;
+			case EliminatedQuantifiers:
+				return mEliminatedQuantifiers;
+			case EliminatedQuantifiersByCacheHits:
+				return mEliminatedQuantifiersByHits;
+			default:
+				throw new AssertionError("unknown data: " + key);
+			}
+		}
+
+		@Override
+		public IStatisticsType getBenchmarkType() {
+			return QuantifierEliminationCacheStatisticsType.getInstance();
+		}
+	}
+}
@@ -0,0 +1,489 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE ModelCheckerUtils Library.
+ *
+ * The ULTIMATE ModelCheckerUtils Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE ModelCheckerUtils Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE ModelCheckerUtils Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE ModelCheckerUtils Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE ModelCheckerUtils Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import de.uni_freiburg.informatik.ultimate.logic.AnnotatedTerm;
+import de.uni_freiburg.informatik.ultimate.logic.ApplicationTerm;
+import de.uni_freiburg.informatik.ultimate.logic.ConstantTerm;
+import de.uni_freiburg.informatik.ultimate.logic.Rational;
+import de.uni_freiburg.informatik.ultimate.logic.SMTLIBException;
+import de.uni_freiburg.informatik.ultimate.logic.Sort;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.managedscript.ManagedScript;
+
+/**
+ * Stores satisfying assignments that the solver returned for previous implication checks and uses them to refute new
+ * implications without calling the solver. An implication (antecedent ==> succedent) is invalid if some assignment
+ * satisfies the antecedent and does not satisfy the succedent and can be extended to a model of the terms that are
+ * asserted in the solver (e.g., the axioms). Hence, we use a model only if it assigns a value to each constant of the
+ * implication and if it was obtained in the same assertion context (see {@link ManagedScript#getAssertionContext()})
+ * in which the implication is checked. Otherwise, the caller has to ask the solver.
+ * <p>
+ * We evaluate closed formulas over Booleans, integers and reals (including div, mod, and ite). Formulas that contain
+ * other symbols (e.g., arrays, bitvectors, quantifiers) cannot be evaluated and are never refuted.
+ */
+public class SatisfyingModelCache {
+
+	private static final int DEFAULT_CAPACITY = 16;
+
+	private final int mCapacity;
+	/**
+	 * Stored models, the model that refuted an implication most recently comes first.
+	 */
+	private final Deque<Model> mModels = new ArrayDeque<>();
+	private boolean mModelsUnavailable;
+
+	private int mQueries;
+	private int mRefutations;
+	private int mAddedModels;
+
+	public SatisfyingModelCache() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param capacity
+	 *            maximal number of models that are stored; if there are more, the model that was least recently used
+	 *            is discarded
+	 */
+	public SatisfyingModelCache(final int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("capacity must be positive");
+		}
+		mCapacity = capacity;
+	}
+
+	/**
+	 * @param assertionContext
+	 *            assertion context of the solver in which the implication is checked, see
+	 *            {@link ManagedScript#getAssertionContext()}
+	 * @return true if some stored model of the given assertion context satisfies the antecedent but not the succedent,
+	 *         i.e., the implication (antecedent ==> succedent) is not valid in this context
+	 */
+	public boolean refutesImplication(final Object assertionContext, final Term antecedentClosedFormula,
+			final Term succedentClosedFormula) {
+		if (mModels.isEmpty()) {
+			return false;
+		}
+		mQueries++;
+		final Set<Term> constants = extractConstants(antecedentClosedFormula, succedentClosedFormula);
+		final Iterator<Model> it = mModels.iterator();
+		while (it.hasNext()) {
+			final Model model = it.next();
+			if (model.mAssertionContext != assertionContext || !model.mValues.keySet().containsAll(constants)) {
+				continue;
+			}
+			final Evaluator evaluator = new Evaluator(model.mValues);
+			if (Boolean.TRUE.equals(evaluator.evaluate(antecedentClosedFormula))
+					&& Boolean.FALSE.equals(evaluator.evaluate(succedentClosedFormula))) {
+				it.remove();
+				mModels.addFirst(model);
+				mRefutations++;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Store the values of the current model of the solver for all constants that occur in the given formulas. The
+	 * caller must hold the lock of the script and the last check-sat must have returned sat.
+	 *
+	 * @param assertionContext
+	 *            assertion context of the solver before the formulas of the implication check were asserted, see
+	 *            {@link ManagedScript#getAssertionContext()}
+	 */
+	public void addModel(final ManagedScript mgdScript, final Object lockOwner, final Object assertionContext,
+			final Term... closedFormulas) {
+		if (mModelsUnavailable) {
+			return;
+		}
+		final Set<Term> constants = extractConstants(closedFormulas);
+		if (constants.isEmpty()) {
+			return;
+		}
+		final Map<Term, Term> values;
+		try {
+			values = mgdScript.getValue(lockOwner, constants.toArray(new Term[constants.size()]));
+		} catch (final SMTLIBException | UnsupportedOperationException e) {
+			// solver does not produce models, we do not try again
+			mModelsUnavailable = true;
+			return;
+		}
+		final Map<Term, Object> model = new HashMap<>();
+		final Evaluator evaluator = new Evaluator(Collections.emptyMap());
+		for (final Entry<Term, Term> entry : values.entrySet()) {
+			final Object value = evaluator.evaluate(entry.getValue());
+			if (value != null) {
+				model.put(entry.getKey(), value);
+			}
+		}
+		mModels.addFirst(new Model(assertionContext, model));
+		if (mModels.size() > mCapacity) {
+			mModels.removeLast();
+		}
+		mAddedModels++;
+	}
+
+	/**
+	 * @return number of implications that we tried to refute
+	 */
+	public int getNumberOfQueries() {
+		return mQueries;
+	}
+
+	/**
+	 * @return number of implications that we refuted, i.e., number of solver calls that were avoided
+	 */
+	public int getNumberOfRefutations() {
+		return mRefutations;
+	}
+
+	public int getNumberOfAddedModels() {
+		return mAddedModels;
+	}
+
+	@Override
+	public String toString() {
+		return "SatisfyingModelCache: " + mModels.size() + " models stored, " + mAddedModels + " added, "
+				+ mRefutations + " of " + mQueries + " implications refuted";
+	}
+
+	/**
+	 * @return the constants of supported sorts that occur in the given formulas
+	 */
+	private static Set<Term> extractConstants(final Term... closedFormulas) {
+		final Set<Term> constants = new LinkedHashSet<>();
+		for (final Term formula : closedFormulas) {
+			for (final NonTheorySymbol<?> symbol : NonTheorySymbol.extractNonTheorySymbols(formula)) {
+				if (symbol instanceof NonTheorySymbol.Constant && isSupportedSort(symbol.getSymbol())) {
+					constants.add(((NonTheorySymbol.Constant) symbol).getSymbol());
+				}
+			}
+		}
+		return constants;
+	}
+
+	private static boolean isSupportedSort(final Object symbol) {
+		final Sort sort = ((Term) symbol).getSort();
+		return SmtSortUtils.isBoolSort(sort) || SmtSortUtils.isNumericSort(sort);
+	}
+
+	/**
+	 * Values of constants (either {@link Boolean} or {@link Rational}) together with the assertion context in which the
+	 * solver returned them.
+	 */
+	private static final class Model {
+		private final Object mAssertionContext;
+		private final Map<Term, Object> mValues;
+
+		Model(final Object assertionContext, final Map<Term, Object> values) {
+			mAssertionContext = assertionContext;
+			mValues = values;
+		}
+	}
+
+	/**
+	 * Evaluates a closed term in a given model. The result is a {@link Boolean}, a {@link Rational}, or null if we
+	 * cannot evaluate the term. Constants that do not occur in the model have no value.
+	 */
+	static final class Evaluator {
+		private final Map<Term, Object> mModel;
+		private final Map<Term, Object> mCache = new HashMap<>();
+
+		Evaluator(final Map<Term, Object> model) {
+			mModel = model;
+		}
+
+		Object evaluate(final Term term) {
+			if (mCache.containsKey(term)) {
+				return mCache.get(term);
+			}
+			final Object result;
+			if (term instanceof ApplicationTerm) {
+				result = evaluateApplication((ApplicationTerm) term);
+			} else if (term instanceof ConstantTerm) {
+				if (SmtSortUtils.isNumericSort(term.getSort())) {
+					result = SmtUtils.convertConstantTermToRational((ConstantTerm) term);
+				} else {
+					result = null;
+				}
+			} else if (term instanceof AnnotatedTerm) {
+				result = evaluate(((AnnotatedTerm) term).getSubterm());
+			} else {
+				// quantified formulas, let terms, and free variables
+				result = null;
+			}
+			mCache.put(term, result);
+			return result;
+		}
+
+		private Object evaluateApplication(final ApplicationTerm term) {
+			final Term[] params = term.getParameters();
+			if (SmtUtils.isConstant(term)) {
+				return mModel.get(term);
+			}
+			if (!term.getFunction().isIntern()) {
+				// uninterpreted function
+				return null;
+			}
+			switch (term.getFunction().getName()) {
+			case "true":
+				return Boolean.TRUE;
+			case "false":
+				return Boolean.FALSE;
+			case "not": {
+				final Boolean arg = evaluateBoolean(params[0]);
+				return arg == null ? null : !arg;
+			}
+			case "and":
+				return evaluateJunction(params, false);
+			case "or":
+				return evaluateJunction(params, true);
+			case "=>": {
+				// right associative
+				Boolean result = evaluateBoolean(params[params.length - 1]);
+				for (int i = params.length - 2; i >= 0; i--) {
+					final Boolean lhs = evaluateBoolean(params[i]);
+					if (Boolean.FALSE.equals(lhs) || Boolean.TRUE.equals(result)) {
+						result = Boolean.TRUE;
+					} else if (lhs == null) {
+						result = null;
+					}
+				}
+				return result;
+			}
+			case "xor": {
+				boolean result = false;
+				for (final Term param : params) {
+					final Boolean arg = evaluateBoolean(param);
+					if (arg == null) {
+						return null;
+					}
+					result ^= arg;
+				}
+				return result;
+			}
+			case "=": {
+				final List<Object> args = evaluateAll(params);
+				if (args == null) {
+					return null;
+				}
+				for (int i = 1; i < args.size(); i++) {
+					if (!args.get(i - 1).equals(args.get(i))) {
+						return Boolean.FALSE;
+					}
+				}
+				return Boolean.TRUE;
+			}
+			case "distinct": {
+				final List<Object> args = evaluateAll(params);
+				if (args == null) {
+					return null;
+				}
+				return args.size() == new LinkedHashSet<>(args).size();
+			}
+			case "ite": {
+				final Boolean cond = evaluateBoolean(params[0]);
+				if (cond == null) {
+					return null;
+				}
+				return evaluate(cond ? params[1] : params[2]);
+			}
+			case "<=":
+			case "<":
+			case ">=":
+			case ">":
+				return evaluateComparison(term.getFunction().getName(), params);
+			default:
+				return evaluateArithmetic(term.getFunction().getName(), params);
+			}
+		}
+
+		private Boolean evaluateBoolean(final Term term) {
+			final Object value = evaluate(term);
+			return value instanceof Boolean ? (Boolean) value : null;
+		}
+
+		private Rational evaluateRational(final Term term) {
+			final Object value = evaluate(term);
+			return value instanceof Rational ? (Rational) value : null;
+		}
+
+		private List<Object> evaluateAll(final Term[] params) {
+			final List<Object> result = new ArrayList<>(params.length);
+			for (final Term param : params) {
+				final Object value = evaluate(param);
+				if (value == null) {
+					return null;
+				}
+				result.add(value);
+			}
+			return result;
+		}
+
+		/**
+		 * @param dominant
+		 *            the value that determines the result of the junction (true for disjunctions)
+		 */
+		private Boolean evaluateJunction(final Term[] params, final boolean dominant) {
+			boolean unknown = false;
+			for (final Term param : params) {
+				final Boolean arg = evaluateBoolean(param);
+				if (arg == null) {
+					unknown = true;
+				} else if (arg == dominant) {
+					return dominant;
+				}
+			}
+			return unknown ? null : !dominant;
+		}
+
+		private Boolean evaluateComparison(final String relation, final Term[] params) {
+			Rational lhs = evaluateRational(params[0]);
+			if (lhs == null) {
+				return null;
+			}
+			for (int i = 1; i < params.length; i++) {
+				final Rational rhs = evaluateRational(params[i]);
+				if (rhs == null) {
+					return null;
+				}
+				final int cmp = lhs.compareTo(rhs);
+				final boolean holds;
+				switch (relation) {
+				case "<=":
+					holds = cmp <= 0;
+					break;
+				case "<":
+					holds = cmp < 0;
+					break;
+				case ">=":
+					holds = cmp >= 0;
+					break;
+				case ">":
+					holds = cmp > 0;
+					break;
+				default:
+					throw new AssertionError("unknown relation " + relation);
+				}
+				if (!holds) {
+					return Boolean.FALSE;
+				}
+				lhs = rhs;
+			}
+			return Boolean.TRUE;
+		}
+
+		private Object evaluateArithmetic(final String function, final Term[] params) {
+			final Rational[] args = new Rational[params.length];
+			for (int i = 0; i < params.length; i++) {
+				args[i] = evaluateRational(params[i]);
+				if (args[i] == null) {
+					return null;
+				}
+			}
+			switch (function) {
+			case "+": {
+				Rational result = Rational.ZERO;
+				for (final Rational arg : args) {
+					result = result.add(arg);
+				}
+				return result;
+			}
+			case "-": {
+				if (args.length == 1) {
+					return args[0].negate();
+				}
+				Rational result = args[0];
+				for (int i = 1; i < args.length; i++) {
+					result = result.sub(args[i]);
+				}
+				return result;
+			}
+			case "*": {
+				Rational result = Rational.ONE;
+				for (final Rational arg : args) {
+					result = result.mul(arg);
+				}
+				return result;
+			}
+			case "/": {
+				Rational result = args[0];
+				for (int i = 1; i < args.length; i++) {
+					if (args[i].signum() == 0) {
+						// division by zero is uninterpreted
+						return null;
+					}
+					result = result.div(args[i]);
+				}
+				return result;
+			}
+			case "div":
+			case "mod": {
+				if (args.length != 2 || args[1].signum() == 0) {
+					return null;
+				}
+				final Rational quotient = euclideanQuotient(args[0], args[1]);
+				return "div".equals(function) ? quotient : args[0].sub(args[1].mul(quotient));
+			}
+			case "abs":
+				return args[0].abs();
+			case "to_real":
+				return args[0];
+			case "to_int":
+				return args[0].floor();
+			case "is_int":
+				return args[0].isIntegral();
+			default:
+				return null;
+			}
+		}
+
+		/**
+		 * Quotient of the integer division as defined by the SMT-LIB standard, i.e., the remainder is non-negative.
+		 */
+		private static Rational euclideanQuotient(final Rational dividend, final Rational divisor) {
+			final Rational quotient = dividend.div(divisor);
+			if (divisor.signum() > 0) {
+				return quotient.floor();
+			}
+			return quotient.ceil();
+		}
+	}
+}
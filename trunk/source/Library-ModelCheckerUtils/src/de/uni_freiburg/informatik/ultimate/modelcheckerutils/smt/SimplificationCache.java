@@ -0,0 +1,231 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE ModelCheckerUtils Library.
+ *
+ * The ULTIMATE ModelCheckerUtils Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE ModelCheckerUtils Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE ModelCheckerUtils Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE ModelCheckerUtils Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE ModelCheckerUtils Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.SmtUtils.SimplificationTechnique;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.managedscript.ManagedScript;
+
+/**
+ * Stores results of {@link SmtUtils#simplify} for the terms of one {@link ManagedScript}. The same formula is often
+ * simplified several times (e.g., in predicates, Hoare annotations, and interpolants) and simplifications like
+ * {@link SimplificationTechnique#SIMPLIFY_DDA} need several solver calls. Terms are unique (hash consing), hence the
+ * key is the input term together with the simplification technique.
+ * <p>
+ * All techniques except {@link SimplificationTechnique#SIMPLIFY_BDD_PROP} use the solver of the script and hence
+ * simplify modulo the formulas that are currently asserted (e.g., axioms, or a trace whose feasibility is checked).
+ * For these techniques the key additionally contains the {@link ManagedScript#getAssertionContext() assertion
+ * context} of the script, i.e., a result is only reused as long as no formula was asserted and after the assertion
+ * stack was popped back to the level where the result was computed. Formulas that were asserted without using the
+ * {@link ManagedScript} are not tracked.
+ * <p>
+ * The cache keeps at most {@link #getCapacity()} results, the result that was least recently used is discarded first.
+ * Since the cache belongs to the {@link ManagedScript}, it does not live longer than the theory of its terms. For each
+ * result we store the time that its computation took, this time is saved by each hit.
+ */
+public class SimplificationCache {
+
+	public static final int DEFAULT_CAPACITY = 2048;
+
+	private int mCapacity;
+	private final Map<Key, Result> mResults;
+
+	private int mHits;
+	private int mMisses;
+	private int mEvictions;
+	private long mSavedTimeNano;
+
+	public SimplificationCache() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param capacity
+	 *            maximal number of results that are stored, 0 disables the cache
+	 */
+	public SimplificationCache(final int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("capacity must not be negative");
+		}
+		mCapacity = capacity;
+		mResults = new LinkedHashMap<Key, Result>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<Key, Result> eldest) {
+				if (size() > mCapacity) {
+					mEvictions++;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Change the maximal number of results that are stored. If there are more results, the least recently used ones
+	 * are discarded.
+	 *
+	 * @param capacity
+	 *            maximal number of results that are stored, 0 disables the cache
+	 */
+	public synchronized void setCapacity(final int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("capacity must not be negative");
+		}
+		mCapacity = capacity;
+		while (mResults.size() > mCapacity) {
+			mResults.remove(mResults.keySet().iterator().next());
+			mEvictions++;
+		}
+	}
+
+	public synchronized int getCapacity() {
+		return mCapacity;
+	}
+
+	public synchronized boolean isEnabled() {
+		return mCapacity > 0;
+	}
+
+	/**
+	 * @param assertionContext
+	 *            the {@link ManagedScript#getAssertionContext() assertion context} of the script
+	 * @return the simplified term if the given term was simplified with the given technique in the given assertion
+	 *         context before, null otherwise
+	 */
+	public synchronized Term get(final Term term, final SimplificationTechnique technique,
+			final Object assertionContext) {
+		if (mCapacity == 0) {
+			return null;
+		}
+		final Result result = mResults.get(new Key(term, technique, assertionContext));
+		if (result == null) {
+			mMisses++;
+			return null;
+		}
+		mHits++;
+		mSavedTimeNano += result.mSimplificationTimeNano;
+		return result.mSimplifiedTerm;
+	}
+
+	/**
+	 * @return the time in nanoseconds that the simplification of the given term with the given technique in the given
+	 *         assertion context took if it was cached, -1 otherwise; this does not count as a hit
+	 */
+	public synchronized long getSimplificationTimeNano(final Term term, final SimplificationTechnique technique,
+			final Object assertionContext) {
+		if (mCapacity == 0) {
+			return -1;
+		}
+		final Result result = mResults.get(new Key(term, technique, assertionContext));
+		return result == null ? -1 : result.mSimplificationTimeNano;
+	}
+
+	public synchronized void put(final Term term, final SimplificationTechnique technique,
+			final Object assertionContext, final Term simplified, final long simplificationTimeNano) {
+		if (mCapacity == 0) {
+			return;
+		}
+		mResults.put(new Key(term, technique, assertionContext), new Result(simplified, simplificationTimeNano));
+	}
+
+	/**
+	 * @return true iff the result of the given technique depends on the formulas that are asserted in the solver
+	 */
+	public static boolean dependsOnAssertionContext(final SimplificationTechnique technique) {
+		return technique != SimplificationTechnique.SIMPLIFY_BDD_PROP && technique != SimplificationTechnique.NONE;
+	}
+
+	public synchronized void clear() {
+		mResults.clear();
+	}
+
+	public synchronized int getHits() {
+		return mHits;
+	}
+
+	public synchronized int getMisses() {
+		return mMisses;
+	}
+
+	/**
+	 * @return the time in nanoseconds that would have been spent on the simplifications that were answered by this
+	 *         cache
+	 */
+	public synchronized long getSavedTimeNano() {
+		return mSavedTimeNano;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "SimplificationCache: " + mResults.size() + " results stored, " + mHits + " hits, " + mMisses
+				+ " misses, " + mEvictions + " evictions, saved " + mSavedTimeNano / 1_000_000 + " ms";
+	}
+
+	private static final class Key {
+		private final Term mTerm;
+		private final SimplificationTechnique mTechnique;
+		/**
+		 * null if the technique does not depend on the assertion context
+		 */
+		private final Object mAssertionContext;
+
+		Key(final Term term, final SimplificationTechnique technique, final Object assertionContext) {
+			mTerm = term;
+			mTechnique = technique;
+			mAssertionContext = dependsOnAssertionContext(technique) ? assertionContext : null;
+		}
+
+		@Override
+		public int hashCode() {
+			return (mTerm.hashCode() * 31 + mTechnique.hashCode()) * 31 + System.identityHashCode(mAssertionContext);
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			final Key other = (Key) obj;
+			return mTerm == other.mTerm && mTechnique == other.mTechnique
+					&& mAssertionContext == other.mAssertionContext;
+		}
+	}
+
+	private static final class Result {
+		private final Term mSimplifiedTerm;
+		private final long mSimplificationTimeNano;
+
+		Result(final Term simplifiedTerm, final long simplificationTimeNano) {
+			mSimplifiedTerm = simplifiedTerm;
+			mSimplificationTimeNano = simplificationTimeNano;
+		}
+	}
+}
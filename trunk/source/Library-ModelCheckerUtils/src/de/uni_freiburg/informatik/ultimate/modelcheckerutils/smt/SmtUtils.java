@@ -123,6 +123,15 @@ public final class SmtUtils {
 		if (logger.isDebugEnabled()) {
 			logger.debug(new DebugMessage("simplifying formula of DAG size {0}", new DagSizePrinter(formula)));
 		}
+		if (simplificationTechnique == SimplificationTechnique.NONE) {
+			return formula;
+		}
+		final SimplificationCache cache = mgScript.getSimplificationCache();
+		final Object assertionContext = mgScript.getAssertionContext();
+		final Term cached = cache.get(formula, simplificationTechnique, assertionContext);
+		if (cached != null) {
+			return cached;
+		}
 		final long startTime = System.nanoTime();
 		final UndoableWrapperScript undoableScript = new UndoableWrapperScript(mgScript.getScript());
 		final ManagedScript script = new ManagedScript(services, undoableScript);
@@ -151,6 +160,7 @@ public final class SmtUtils {
 						new DagSizePrinter(formula), new DagSizePrinter(simplified)));
 			}
 			final long endTime = System.nanoTime();
+			cache.put(formula, simplificationTechnique, assertionContext, simplified, endTime - startTime);
 			final long overallTimeMs = (endTime - startTime) / 1_000_000;
 			if (overallTimeMs >= 100) {
 				final StringBuilder sb = new StringBuilder();
@@ -183,11 +193,13 @@ public final class SmtUtils {
 			final IUltimateServiceProvider services, final SimplificationTechnique simplificationTechnique) {
 		final long startTime = System.nanoTime();
 		final long sizeBefore = new DAGSize().treesize(formula);
+		final long cachedTime = script.getSimplificationCache().getSimplificationTimeNano(formula,
+				simplificationTechnique, script.getAssertionContext());
 		final Term simplified = simplify(script, formula, services, simplificationTechnique);
 		final long sizeAfter = new DAGSize().treesize(simplified);
 		final long endTime = System.nanoTime();
 		final ExtendedSimplificationResult result = new ExtendedSimplificationResult(simplified, endTime - startTime,
-				sizeBefore - sizeAfter, (double) sizeAfter / sizeBefore * 100);
+				sizeBefore - sizeAfter, (double) sizeAfter / sizeBefore * 100, Math.max(0, cachedTime));
 		return result;
 	}
 
@@ -196,14 +208,22 @@ public final class SmtUtils {
 		private final long mSimplificationTimeNano;
 		private final long mReductionOfTreeSize;
 		private final double mReductionRatioInPercent;
+		private final long mSavedSimplificationTimeNano;
 
 		public ExtendedSimplificationResult(final Term simplifiedTerm, final long simplificationTimeNano,
 				final long reductionOfTreeSize, final double reductionRatioPercent) {
+			this(simplifiedTerm, simplificationTimeNano, reductionOfTreeSize, reductionRatioPercent, 0);
+		}
+
+		public ExtendedSimplificationResult(final Term simplifiedTerm, final long simplificationTimeNano,
+				final long reductionOfTreeSize, final double reductionRatioPercent,
+				final long savedSimplificationTimeNano) {
 			super();
 			mSimplifiedTerm = simplifiedTerm;
 			mSimplificationTimeNano = simplificationTimeNano;
 			mReductionOfTreeSize = reductionOfTreeSize;
 			mReductionRatioInPercent = reductionRatioPercent;
+			mSavedSimplificationTimeNano = savedSimplificationTimeNano;
 		}
 
 		public Term getSimplifiedTerm() {
@@ -222,6 +242,14 @@ public final class SmtUtils {
 			return mReductionRatioInPercent;
 		}
 
+		/**
+		 * @return the time in nanoseconds that the simplification took when it was computed originally if the result
+		 *         was taken from the {@link SimplificationCache}, 0 otherwise
+		 */
+		public long getSavedSimplificationTimeNano() {
+			return mSavedSimplificationTimeNano;
+		}
+
 	}
 
 	public static LBool checkSatTerm(final Script script, final Term formula) {
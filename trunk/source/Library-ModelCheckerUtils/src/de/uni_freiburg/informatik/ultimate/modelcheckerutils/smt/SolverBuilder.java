@@ -52,6 +52,7 @@ import de.uni_freiburg.informatik.ultimate.smtsolver.external.Scriptor;
 import de.uni_freiburg.informatik.ultimate.smtsolver.external.ScriptorWithGetInterpolants;
 import de.uni_freiburg.informatik.ultimate.smtsolver.external.ScriptorWithGetInterpolants.ExternalInterpolator;
 import de.uni_freiburg.informatik.ultimate.smtsolver.external.SmtInterpolLogProxyWrapper;
+import de.uni_freiburg.informatik.ultimate.smtsolver.external.SolverProcessPool;
 
 /**
  * Wrapper that constructs SMTInterpol or an external solver.
@@ -105,7 +106,8 @@ public class SolverBuilder {
 	private static Script createExternalSolver(final IUltimateServiceProvider services, final IToolchainStorage storage,
 			final String command, final boolean fakeNonIncrementalScript, final boolean dumpFakeNonIncrementalScript,
 			final String pathOfDumpedFakeNonIncrementalScript, final String basenameOfDumpedFakeNonIcrementalScript,
-			final boolean useDiffWrapper) throws IOException {
+			final boolean useDiffWrapper, final boolean usePipelinedCommunication, final boolean useSolverProcessPool,
+			final boolean shareTermsWithExternalSolver) throws IOException {
 		final ILogger solverLogger = services.getLoggingService().getLoggerForExternalTool(SOLVER_LOGGER_NAME);
 		Script script;
 		if (fakeNonIncrementalScript) {
@@ -113,7 +115,8 @@ public class SolverBuilder {
 					dumpFakeNonIncrementalScript, pathOfDumpedFakeNonIncrementalScript,
 					basenameOfDumpedFakeNonIcrementalScript);
 		} else {
-			script = new Scriptor(command, solverLogger, services, storage, "External");
+			script = new Scriptor(command, solverLogger, services, storage, "External", usePipelinedCommunication,
+					getSolverProcessPool(services, storage, useSolverProcessPool), shareTermsWithExternalSolver);
 		}
 		if (useDiffWrapper) {
 			script = new DiffWrapperScript(script);
@@ -123,10 +126,12 @@ public class SolverBuilder {
 
 	private static Script createExternalSolverWithInterpolation(final IUltimateServiceProvider services,
 			final IToolchainStorage storage, final String command, final ExternalInterpolator externalInterpolator,
-			final boolean useDiffWrapper) throws IOException {
+			final boolean useDiffWrapper, final boolean usePipelinedCommunication, final boolean useSolverProcessPool)
+			throws IOException {
 		final ILogger solverLogger = services.getLoggingService().getLoggerForExternalTool(SOLVER_LOGGER_NAME);
 		Script script = new ScriptorWithGetInterpolants(command, solverLogger, services, storage, externalInterpolator,
-				"ExternalInterpolator");
+				"ExternalInterpolator", usePipelinedCommunication,
+				getSolverProcessPool(services, storage, useSolverProcessPool));
 		if (useDiffWrapper) {
 			script = new DiffWrapperScript(script);
 		}
@@ -147,6 +152,15 @@ public class SolverBuilder {
 
 	}
 
+	private static SolverProcessPool getSolverProcessPool(final IUltimateServiceProvider services,
+			final IToolchainStorage storage, final boolean useSolverProcessPool) {
+		if (!useSolverProcessPool) {
+			return null;
+		}
+		return SolverProcessPool.getPool(storage,
+				services.getLoggingService().getLoggerForExternalTool(SOLVER_LOGGER_NAME));
+	}
+
 	/**
 	 * Build an SMT solver.
 	 *
@@ -163,13 +177,15 @@ public class SolverBuilder {
 					result = createExternalSolver(services, storage, settings.getCommandExternalSolver(),
 							settings.fakeNonIncrementalScript(), settings.dumpSmtScriptToFile(),
 							settings.getPathOfDumpedScript(), settings.getBaseNameOfDumpedScript(),
-							settings.getUseDiffWrapper());
+							settings.getUseDiffWrapper(), settings.usePipelinedCommunication(),
+							settings.useSolverProcessPool(), settings.shareTermsWithExternalSolver());
 				} else {
 					solverLogger.info(
 							"external solver will use " + settings.getExternalInterpolator() + " interpolation mode");
 					result = createExternalSolverWithInterpolation(services, storage,
 							settings.getCommandExternalSolver(), settings.getExternalInterpolator(),
-							settings.getUseDiffWrapper());
+							settings.getUseDiffWrapper(), settings.usePipelinedCommunication(),
+							settings.useSolverProcessPool());
 				}
 			} catch (final IOException e) {
 				solverLogger.fatal("Unable to construct solver");
@@ -207,13 +223,16 @@ public class SolverBuilder {
 				final ExternalInterpolator externalInterpolator, final boolean dumpSmtScriptToFile,
 				final String pathOfDumpedScript, final String baseNameOfDumpedScript) {
 			this(fakeNonIncrementalScript, useExternalSolver, commandExternalSolver, timeoutSmtInterpol,
-					externalInterpolator, dumpSmtScriptToFile, pathOfDumpedScript, baseNameOfDumpedScript, false);
+					externalInterpolator, dumpSmtScriptToFile, pathOfDumpedScript, baseNameOfDumpedScript, false, false,
+					false, false);
 		}
 
 		public Settings(final boolean fakeNonIncrementalScript, final boolean useExternalSolver,
 				final String commandExternalSolver, final long timeoutSmtInterpol,
 				final ExternalInterpolator externalInterpolator, final boolean dumpSmtScriptToFile,
-				final String pathOfDumpedScript, final String baseNameOfDumpedScript, final boolean useDiffWrapper) {
+				final String pathOfDumpedScript, final String baseNameOfDumpedScript, final boolean useDiffWrapper,
+				final boolean usePipelinedCommunication, final boolean useSolverProcessPool,
+				final boolean shareTermsWithExternalSolver) {
 			super();
 			mFakeNonIncrementalScript = fakeNonIncrementalScript;
 			mUseExternalSolver = useExternalSolver;
@@ -224,6 +243,9 @@ public class SolverBuilder {
 			mPathOfDumpedScript = pathOfDumpedScript;
 			mBaseNameOfDumpedScript = baseNameOfDumpedScript;
 			mUseDiffWrapper = useDiffWrapper;
+			mUsePipelinedCommunication = usePipelinedCommunication;
+			mUseSolverProcessPool = useSolverProcessPool;
+			mShareTermsWithExternalSolver = shareTermsWithExternalSolver;
 		}
 
 		/**
@@ -263,6 +285,23 @@ public class SolverBuilder {
 		 */
 		private final boolean mUseDiffWrapper;
 
+		/**
+		 * Do not wait for the success of each command sent to an external solver, but only for responses of commands
+		 * like check-sat or get-value.
+		 */
+		private final boolean mUsePipelinedCommunication;
+
+		/**
+		 * Lease the process of an external solver from a pool and return it to the pool when the script exits.
+		 */
+		private final boolean mUseSolverProcessPool;
+
+		/**
+		 * Send subterms that occur several times in the assertions to an external solver only once (does not apply to
+		 * external interpolating solvers, whose interpolants could contain the names of these subterms).
+		 */
+		private final boolean mShareTermsWithExternalSolver;
+
 		public boolean fakeNonIncrementalScript() {
 			return mFakeNonIncrementalScript;
 		}
@@ -302,6 +341,18 @@ public class SolverBuilder {
 			return mUseDiffWrapper;
 		}
 
+		public boolean usePipelinedCommunication() {
+			return mUsePipelinedCommunication;
+		}
+
+		public boolean useSolverProcessPool() {
+			return mUseSolverProcessPool;
+		}
+
+		public boolean shareTermsWithExternalSolver() {
+			return mShareTermsWithExternalSolver;
+		}
+
 		public String constructFullPathOfDumpedScript() {
 			String result = getPathOfDumpedScript();
 			result = addFileSeparator(result);
@@ -324,6 +375,24 @@ public class SolverBuilder {
 	public static Settings constructSolverSettings(final String filename, final SolverMode solverMode,
 			final boolean fakeNonIncrementalScript, final String commandExternalSolver,
 			final boolean dumpSmtScriptToFile, final String pathOfDumpedScript) throws AssertionError {
+		return constructSolverSettings(filename, solverMode, fakeNonIncrementalScript, commandExternalSolver,
+				dumpSmtScriptToFile, pathOfDumpedScript, false, false, false);
+	}
+
+	/**
+	 * @param usePipelinedCommunication
+	 *            do not wait for the success of each command sent to an external solver, but only for the responses
+	 *            of queries
+	 * @param useSolverProcessPool
+	 *            lease external solver processes from the {@link SolverProcessPool} of the toolchain instead of
+	 *            starting a new process for each script
+	 * @param shareTermsWithExternalSolver
+	 *            send subterms that occur several times in the assertions to an external solver only once
+	 */
+	public static Settings constructSolverSettings(final String filename, final SolverMode solverMode,
+			final boolean fakeNonIncrementalScript, final String commandExternalSolver,
+			final boolean dumpSmtScriptToFile, final String pathOfDumpedScript, final boolean usePipelinedCommunication,
+			final boolean useSolverProcessPool, final boolean shareTermsWithExternalSolver) throws AssertionError {
 		final boolean useExternalSolver;
 		boolean useDiffWrapper = false;
 
@@ -366,7 +435,8 @@ public class SolverBuilder {
 		}
 		final Settings solverSettings =
 				new Settings(fakeNonIncrementalScript, useExternalSolver, commandExternalSolver, timeoutSmtInterpol,
-						externalInterpolator, dumpSmtScriptToFile, pathOfDumpedScript, filename, useDiffWrapper);
+						externalInterpolator, dumpSmtScriptToFile, pathOfDumpedScript, filename, useDiffWrapper,
+						usePipelinedCommunication, useSolverProcessPool, shareTermsWithExternalSolver);
 		return solverSettings;
 	}
 
@@ -27,6 +27,8 @@
 package de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.managedscript;
 
 import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -44,6 +46,8 @@ import de.uni_freiburg.informatik.ultimate.logic.Term;
 import de.uni_freiburg.informatik.ultimate.logic.TermVariable;
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.ModelCheckerUtils;
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.boogie.MultiElementCounter;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.QuantifierEliminationCache;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.SimplificationCache;
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.SmtUtils;
 
 /**
@@ -58,6 +62,13 @@ public class ManagedScript {
 	protected final Script mScript;
 	protected final ILogger mLogger;
 	protected final VariableManager mVariableManager;
+	private final QuantifierEliminationCache mQuantifierEliminationCache;
+	private final SimplificationCache mSimplificationCache;
+	/**
+	 * One object per assertion stack level that is replaced whenever a term is asserted on this level, see
+	 * {@link #getAssertionContext()}.
+	 */
+	private final Deque<Object> mAssertionContexts;
 	
 	private Object mLockOwner;
 	
@@ -67,6 +78,10 @@ public class ManagedScript {
 		mScript = script;
 		mLogger = mServices.getLoggingService().getLogger(ModelCheckerUtils.PLUGIN_ID);
 		mVariableManager = new VariableManager();
+		mQuantifierEliminationCache = new QuantifierEliminationCache();
+		mSimplificationCache = new SimplificationCache();
+		mAssertionContexts = new ArrayDeque<>();
+		mAssertionContexts.push(new Object());
 	}
 	
 	public void lock(final Object lockOwner) {
@@ -93,6 +108,28 @@ public class ManagedScript {
 		}
 	}
 	
+	/**
+	 * @return cache for the results of quantifier elimination on terms of this script
+	 */
+	public QuantifierEliminationCache getQuantifierEliminationCache() {
+		return mQuantifierEliminationCache;
+	}
+	
+	/**
+	 * @return cache for the results of {@link SmtUtils#simplify} on terms of this script
+	 */
+	public SimplificationCache getSimplificationCache() {
+		return mSimplificationCache;
+	}
+	
+	/**
+	 * @return an object that identifies the terms that are currently asserted via this {@link ManagedScript}; two calls
+	 *         return the same object iff no term was asserted in between, except for terms that were popped again
+	 */
+	public Object getAssertionContext() {
+		return mAssertionContexts.peek();
+	}
+	
 	public boolean isLocked() {
 		return mLockOwner != null;
 	}
@@ -121,15 +158,23 @@ public class ManagedScript {
 	public void push(final Object lockOwner, final int levels) throws SMTLIBException {
 		assert lockOwner == mLockOwner : MANAGED_SCRIPT_LOCKED_BY + mLockOwner;
 		mScript.push(levels);
+		for (int i = 0; i < levels; i++) {
+			mAssertionContexts.push(new Object());
+		}
 	}
 	
 	public void pop(final Object lockOwner, final int levels) throws SMTLIBException {
 		assert lockOwner == mLockOwner : MANAGED_SCRIPT_LOCKED_BY + mLockOwner;
 		mScript.pop(levels);
+		for (int i = 0; i < levels && mAssertionContexts.size() > 1; i++) {
+			mAssertionContexts.pop();
+		}
 	}
 	
 	public LBool assertTerm(final Object lockOwner, final Term term) throws SMTLIBException {
 		assert lockOwner == mLockOwner : MANAGED_SCRIPT_LOCKED_BY + mLockOwner;
+		mAssertionContexts.pop();
+		mAssertionContexts.push(new Object());
 		return mScript.assertTerm(term);
 	}
 	
@@ -61,7 +61,7 @@ public class SmtFreePredicateFactory {
 		return mDontCareTerm;
 	}
 
-	final protected int constructFreshSerialNumber() {
+	final protected synchronized int constructFreshSerialNumber() {
 		return mSerialNumberCounter++;
 	}
 
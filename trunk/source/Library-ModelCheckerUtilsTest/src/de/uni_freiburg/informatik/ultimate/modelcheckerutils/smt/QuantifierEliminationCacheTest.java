@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE ModelCheckerUtilsTest Library.
+ *
+ * The ULTIMATE ModelCheckerUtilsTest Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE ModelCheckerUtilsTest Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE ModelCheckerUtilsTest Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE ModelCheckerUtilsTest Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE ModelCheckerUtilsTest Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
+import de.uni_freiburg.informatik.ultimate.logic.Logics;
+import de.uni_freiburg.informatik.ultimate.logic.QuantifiedFormula;
+import de.uni_freiburg.informatik.ultimate.logic.Script;
+import de.uni_freiburg.informatik.ultimate.logic.Sort;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.logic.TermVariable;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.QuantifierEliminationCache.Eliminator;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.SmtUtils.SimplificationTechnique;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.SmtUtils.XnfConversionTechnique;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.managedscript.ManagedScript;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.smtlib2.SMTInterpol;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Tests that the {@link QuantifierEliminationCache} answers an elimination task only if the term, the quantifier, the
+ * eliminatees, the eliminator, and the techniques coincide.
+ */
+public class QuantifierEliminationCacheTest {
+
+	private static final SimplificationTechnique SIMPLIFICATION = SimplificationTechnique.SIMPLIFY_QUICK;
+	private static final XnfConversionTechnique XNF = XnfConversionTechnique.BOTTOM_UP_WITH_LOCAL_SIMPLIFICATION;
+
+	private IUltimateServiceProvider mServices;
+	private Script mScript;
+	private ManagedScript mMgdScript;
+
+	private TermVariable mX;
+	private TermVariable mY;
+	private Term mTerm;
+
+	private int mEliminations;
+	private UnaryOperator<EliminationTask> mCountingElimination;
+
+	@Before
+	public void setUp() {
+		mServices = UltimateMocks.createUltimateServiceProviderMock();
+		mScript = new SMTInterpol();
+		mScript.setLogic(Logics.QF_LIA);
+		mMgdScript = new ManagedScript(mServices, mScript);
+		final Sort intSort = SmtSortUtils.getIntSort(mScript);
+		mX = mScript.variable("x", intSort);
+		mY = mScript.variable("y", intSort);
+		mScript.declareFun("z", new Sort[0], intSort);
+		final Term z = mScript.term("z");
+		// x = z + 1 /\ y = x + 1
+		mTerm = SmtUtils.and(mScript, SmtUtils.binaryEquality(mScript, mX, SmtUtils.sum(mScript, "+", z, num(1))),
+				SmtUtils.binaryEquality(mScript, mY, SmtUtils.sum(mScript, "+", mX, num(1))));
+		mEliminations = 0;
+		// pretends to eliminate all eliminatees
+		mCountingElimination = task -> {
+			mEliminations++;
+			return new EliminationTask(task.getQuantifier(), Collections.emptySet(), task.getTerm());
+		};
+	}
+
+	@Test
+	public void sameTaskIsComputedOnce() {
+		final QuantifierEliminationCache cache = new QuantifierEliminationCache();
+		final EliminationTask first = eliminate(cache, SIMPLIFICATION, mX);
+		final EliminationTask second = eliminate(cache, SIMPLIFICATION, mX);
+		Assert.assertSame(first, second);
+		Assert.assertEquals(1, mEliminations);
+		Assert.assertEquals(1, cache.getHits());
+		Assert.assertEquals(1, cache.getMisses());
+	}
+
+	@Test
+	public void differentEliminateesAreDifferentTasks() {
+		final QuantifierEliminationCache cache = new QuantifierEliminationCache();
+		eliminate(cache, SIMPLIFICATION, mX);
+		eliminate(cache, SIMPLIFICATION, mY);
+		eliminate(cache, SIMPLIFICATION, mX, mY);
+		Assert.assertEquals(3, mEliminations);
+		Assert.assertEquals(0, cache.getHits());
+		// the order of the eliminatees does not matter
+		eliminate(cache, SIMPLIFICATION, mY, mX);
+		Assert.assertEquals(3, mEliminations);
+		Assert.assertEquals(1, cache.getHits());
+	}
+
+	@Test
+	public void differentTechniquesAreDifferentTasks() {
+		final QuantifierEliminationCache cache = new QuantifierEliminationCache();
+		eliminate(cache, SimplificationTechnique.SIMPLIFY_QUICK, mX);
+		eliminate(cache, SimplificationTechnique.SIMPLIFY_DDA, mX);
+		eliminate(cache, SimplificationTechnique.NONE, mX);
+		cache.eliminate(Eliminator.ELIM, task(mX), SIMPLIFICATION, XnfConversionTechnique.BDD_BASED,
+				mCountingElimination);
+		cache.eliminate(Eliminator.ELIM_STORE_PLAIN, task(mX), SIMPLIFICATION, XNF, mCountingElimination);
+		Assert.assertEquals(5, mEliminations);
+		Assert.assertEquals(0, cache.getHits());
+		eliminate(cache, SimplificationTechnique.SIMPLIFY_DDA, mX);
+		Assert.assertEquals(5, mEliminations);
+		Assert.assertEquals(1, cache.getHits());
+	}
+
+	@Test
+	public void differentQuantifiersAreDifferentTasks() {
+		final QuantifierEliminationCache cache = new QuantifierEliminationCache();
+		eliminate(cache, SIMPLIFICATION, mX);
+		cache.eliminate(Eliminator.ELIM, new EliminationTask(QuantifiedFormula.FORALL, set(mX), mTerm),
+				SIMPLIFICATION, XNF, mCountingElimination);
+		Assert.assertEquals(2, mEliminations);
+		Assert.assertEquals(0, cache.getHits());
+	}
+
+	@Test
+	public void disabledCacheComputesEachTask() {
+		final QuantifierEliminationCache cache = new QuantifierEliminationCache(0);
+		Assert.assertFalse(cache.isEnabled());
+		eliminate(cache, SIMPLIFICATION, mX);
+		eliminate(cache, SIMPLIFICATION, mX);
+		Assert.assertEquals(2, mEliminations);
+		Assert.assertEquals(0, cache.getHits());
+		Assert.assertEquals(0, cache.getMisses());
+	}
+
+	@Test
+	public void leastRecentlyUsedResultIsDiscarded() {
+		final QuantifierEliminationCache cache = new QuantifierEliminationCache(2);
+		eliminate(cache, SIMPLIFICATION, mX);
+		eliminate(cache, SIMPLIFICATION, mY);
+		eliminate(cache, SIMPLIFICATION, mX);
+		// discards the result for y
+		eliminate(cache, SIMPLIFICATION, mX, mY);
+		Assert.assertEquals(3, mEliminations);
+		eliminate(cache, SIMPLIFICATION, mX);
+		Assert.assertEquals(3, mEliminations);
+		eliminate(cache, SIMPLIFICATION, mY);
+		Assert.assertEquals(4, mEliminations);
+		// shrinking keeps only the most recently used result (y)
+		cache.setCapacity(1);
+		eliminate(cache, SIMPLIFICATION, mY);
+		Assert.assertEquals(4, mEliminations);
+		eliminate(cache, SIMPLIFICATION, mX, mY);
+		Assert.assertEquals(5, mEliminations);
+	}
+
+	@Test
+	public void tryToEliminateUsesCache() {
+		final QuantifierEliminationCache cache = mMgdScript.getQuantifierEliminationCache();
+		final Term quantified = SmtUtils.quantifier(mScript, QuantifiedFormula.EXISTS, set(mX, mY), mTerm);
+		final Term first = PartialQuantifierElimination.tryToEliminate(mServices, mServices.getLoggingService()
+				.getLogger(getClass()), mMgdScript, quantified, SIMPLIFICATION, XNF);
+		Assert.assertEquals(0, first.getFreeVars().length);
+		Assert.assertFalse(first instanceof QuantifiedFormula);
+		final int hits = cache.getHits();
+		final Term second = PartialQuantifierElimination.tryToEliminate(mServices, mServices.getLoggingService()
+				.getLogger(getClass()), mMgdScript, quantified, SIMPLIFICATION, XNF);
+		Assert.assertSame(first, second);
+		Assert.assertEquals(hits + 1, cache.getHits());
+		// another simplification technique is a different task
+		final int misses = cache.getMisses();
+		PartialQuantifierElimination.tryToEliminate(mServices, mServices.getLoggingService().getLogger(getClass()),
+				mMgdScript, quantified, SimplificationTechnique.NONE, XNF);
+		Assert.assertTrue(cache.getMisses() > misses);
+	}
+
+	private EliminationTask eliminate(final QuantifierEliminationCache cache,
+			final SimplificationTechnique simplificationTechnique, final TermVariable... eliminatees) {
+		return cache.eliminate(Eliminator.ELIM, task(eliminatees), simplificationTechnique, XNF,
+				mCountingElimination);
+	}
+
+	private EliminationTask task(final TermVariable... eliminatees) {
+		return new EliminationTask(QuantifiedFormula.EXISTS, set(eliminatees), mTerm);
+	}
+
+	private static Set<TermVariable> set(final TermVariable... variables) {
+		return new HashSet<>(Arrays.asList(variables));
+	}
+
+	private Term num(final int value) {
+		return SmtUtils.constructIntValue(mScript, BigInteger.valueOf(value));
+	}
+}
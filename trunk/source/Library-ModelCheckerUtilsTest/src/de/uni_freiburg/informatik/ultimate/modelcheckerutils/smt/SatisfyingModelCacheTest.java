@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE ModelCheckerUtilsTest Library.
+ *
+ * The ULTIMATE ModelCheckerUtilsTest Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE ModelCheckerUtilsTest Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE ModelCheckerUtilsTest Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE ModelCheckerUtilsTest Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE ModelCheckerUtilsTest Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt;
+
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
+import de.uni_freiburg.informatik.ultimate.logic.Logics;
+import de.uni_freiburg.informatik.ultimate.logic.Rational;
+import de.uni_freiburg.informatik.ultimate.logic.Script;
+import de.uni_freiburg.informatik.ultimate.logic.Sort;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.hoaretriple.IHoareTripleChecker.Validity;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.SatisfyingModelCache.Evaluator;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.managedscript.ManagedScript;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.predicates.BasicPredicate;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.predicates.IPredicate;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.smtlib2.SMTInterpol;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Tests the evaluation of formulas in {@link SatisfyingModelCache} and that the cache refutes only implications that
+ * are invalid in the assertion context of the solver.
+ */
+public class SatisfyingModelCacheTest {
+
+	private IUltimateServiceProvider mServices;
+	private Script mScript;
+	private ManagedScript mMgdScript;
+
+	private Term mX;
+	private Term mY;
+	private Term mP;
+	private Term mQ;
+	private Term mR;
+
+	@Before
+	public void setUp() {
+		mServices = UltimateMocks.createUltimateServiceProviderMock();
+		mScript = new SMTInterpol();
+		mScript.setOption(":produce-models", true);
+		mScript.setLogic(Logics.QF_LIA);
+		mMgdScript = new ManagedScript(mServices, mScript);
+		final Sort intSort = SmtSortUtils.getIntSort(mScript);
+		final Sort boolSort = SmtSortUtils.getBoolSort(mScript);
+		mX = declare("x", intSort);
+		mY = declare("y", intSort);
+		mP = declare("p", boolSort);
+		mQ = declare("q", boolSort);
+		mR = declare("r", boolSort);
+	}
+
+	@Test
+	public void divAndModFollowSmtLib() {
+		final Map<Term, Object> model = new HashMap<>();
+		model.put(mX, Rational.valueOf(-7, 1));
+		final Evaluator evaluator = new Evaluator(model);
+		// the remainder is non-negative for positive and for negative divisors
+		Assert.assertEquals(Rational.valueOf(-4, 1), evaluator.evaluate(mScript.term("div", mX, num(2))));
+		Assert.assertEquals(Rational.ONE, evaluator.evaluate(mScript.term("mod", mX, num(2))));
+		Assert.assertEquals(Rational.valueOf(4, 1), evaluator.evaluate(mScript.term("div", mX, num(-2))));
+		Assert.assertEquals(Rational.ONE, evaluator.evaluate(mScript.term("mod", mX, num(-2))));
+		// division by zero is uninterpreted
+		Assert.assertNull(evaluator.evaluate(mScript.term("div", mX, num(0))));
+		Assert.assertNull(evaluator.evaluate(mScript.term("mod", mX, num(0))));
+	}
+
+	@Test
+	public void implicationIsRightAssociative() {
+		final Term implication = mScript.term("=>", mP, mQ, mR);
+		Assert.assertEquals(Boolean.FALSE, evaluate(implication, true, true, false));
+		Assert.assertEquals(Boolean.TRUE, evaluate(implication, false, true, false));
+		Assert.assertEquals(Boolean.TRUE, evaluate(implication, true, false, false));
+		Assert.assertEquals(Boolean.TRUE, evaluate(implication, true, true, true));
+	}
+
+	@Test
+	public void iteEvaluatesSelectedBranch() {
+		final Map<Term, Object> model = new HashMap<>();
+		model.put(mP, Boolean.TRUE);
+		model.put(mX, Rational.valueOf(3, 1));
+		final Term ite = mScript.term("ite", mP, mX, mY);
+		// the other branch is not needed
+		Assert.assertEquals(Rational.valueOf(3, 1), new Evaluator(model).evaluate(ite));
+		model.put(mP, Boolean.FALSE);
+		Assert.assertNull(new Evaluator(model).evaluate(ite));
+	}
+
+	@Test
+	public void missingConstantsHaveNoValue() {
+		final Map<Term, Object> model = new HashMap<>();
+		model.put(mX, Rational.ONE);
+		final Evaluator evaluator = new Evaluator(model);
+		Assert.assertNull(evaluator.evaluate(mY));
+		Assert.assertNull(evaluator.evaluate(mP));
+		Assert.assertNull(evaluator.evaluate(SmtUtils.geq(mScript, mY, num(0))));
+		Assert.assertNull(evaluator.evaluate(mScript.term("not", mQ)));
+	}
+
+	@Test
+	public void modelWithoutAllConstantsDoesNotRefute() {
+		final SatisfyingModelCache cache = new SatisfyingModelCache();
+		final MonolithicImplicationChecker checker = new MonolithicImplicationChecker(mServices, mMgdScript, cache);
+		Assert.assertEquals(Validity.INVALID, check(checker, SmtUtils.geq(mScript, mX, num(0)), mScript.term("false")));
+		Assert.assertEquals(1, cache.getNumberOfAddedModels());
+		// the model assigns only x, the disjunction would hold for each value of y
+		final Term antecedent =
+				SmtUtils.or(mScript, SmtUtils.geq(mScript, mX, num(0)), SmtUtils.geq(mScript, mY, num(0)));
+		Assert.assertEquals(Validity.INVALID, check(checker, antecedent, SmtUtils.less(mScript, mY, num(-5))));
+		Assert.assertEquals(0, cache.getNumberOfRefutations());
+	}
+
+	@Test
+	public void axiomsConstrainConstantsOutsideTheModel() {
+		// axiom x == y
+		assertViaManagedScript(SmtUtils.binaryEquality(mScript, mX, mY));
+		final SatisfyingModelCache cache = new SatisfyingModelCache();
+		final MonolithicImplicationChecker checker = new MonolithicImplicationChecker(mServices, mMgdScript, cache);
+		final Term xPositive = SmtUtils.less(mScript, num(0), mX);
+		Assert.assertEquals(Validity.INVALID, check(checker, xPositive, SmtUtils.less(mScript, num(5), mX)));
+		Assert.assertEquals(1, cache.getNumberOfAddedModels());
+		// the stored model does not assign y, hence the solver has to consider the axiom
+		Assert.assertEquals(Validity.VALID, check(checker, xPositive, SmtUtils.less(mScript, num(0), mY)));
+		Assert.assertEquals(0, cache.getNumberOfRefutations());
+		// the stored model assigns x, it satisfies the axiom for some y
+		Assert.assertEquals(Validity.INVALID, check(checker, xPositive, SmtUtils.less(mScript, num(5), mX)));
+		Assert.assertEquals(1, cache.getNumberOfRefutations());
+	}
+
+	@Test
+	public void modelsOfOtherAssertionContextsDoNotRefute() {
+		final SatisfyingModelCache cache = new SatisfyingModelCache();
+		final MonolithicImplicationChecker checker = new MonolithicImplicationChecker(mServices, mMgdScript, cache);
+		final Term xPositive = SmtUtils.less(mScript, num(0), mX);
+		final Term xLarge = SmtUtils.less(mScript, num(5), mX);
+		Assert.assertEquals(Validity.INVALID, check(checker, xPositive, xLarge));
+		// new axiom x > 10, the stored model (x <= 5) violates it
+		assertViaManagedScript(SmtUtils.less(mScript, num(10), mX));
+		Assert.assertEquals(Validity.VALID, check(checker, xPositive, xLarge));
+		Assert.assertEquals(0, cache.getNumberOfRefutations());
+	}
+
+	@Test
+	public void incrementalCheckerUsesModelsOfItsContext() {
+		final SatisfyingModelCache cache = new SatisfyingModelCache();
+		final IncrementalImplicationChecker checker = new IncrementalImplicationChecker(mServices, mMgdScript, cache);
+		final IPredicate xPositive = predicate(1, SmtUtils.less(mScript, num(0), mX));
+		final IPredicate xLarge = predicate(2, SmtUtils.less(mScript, num(5), mX));
+		Assert.assertEquals(Validity.INVALID, checker.checkImplication(xPositive, xLarge));
+		Assert.assertEquals(Validity.INVALID, checker.checkImplication(xPositive, xLarge));
+		Assert.assertEquals(1, cache.getNumberOfRefutations());
+		checker.releaseLock();
+	}
+
+	private Object evaluate(final Term term, final boolean p, final boolean q, final boolean r) {
+		final Map<Term, Object> model = new HashMap<>();
+		model.put(mP, p);
+		model.put(mQ, q);
+		model.put(mR, r);
+		return new Evaluator(model).evaluate(term);
+	}
+
+	private Validity check(final MonolithicImplicationChecker checker, final Term antecedent, final Term succedent) {
+		return checker.checkImplication(antecedent, antecedent, false, succedent, succedent, false);
+	}
+
+	private void assertViaManagedScript(final Term term) {
+		mMgdScript.lock(this);
+		mMgdScript.assertTerm(this, term);
+		mMgdScript.unlock(this);
+	}
+
+	private static IPredicate predicate(final int serialNumber, final Term closedFormula) {
+		return new BasicPredicate(serialNumber, new String[0], closedFormula, Collections.emptySet(), closedFormula);
+	}
+
+	private Term declare(final String name, final Sort sort) {
+		mScript.declareFun(name, new Sort[0], sort);
+		return mScript.term(name);
+	}
+
+	private Term num(final int value) {
+		return SmtUtils.constructIntValue(mScript, BigInteger.valueOf(value));
+	}
+}
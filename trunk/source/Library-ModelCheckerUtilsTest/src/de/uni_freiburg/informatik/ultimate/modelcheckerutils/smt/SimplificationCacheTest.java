@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE ModelCheckerUtilsTest Library.
+ *
+ * The ULTIMATE ModelCheckerUtilsTest Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE ModelCheckerUtilsTest Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE ModelCheckerUtilsTest Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE ModelCheckerUtilsTest Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE ModelCheckerUtilsTest Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt;
+
+import java.math.BigInteger;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
+import de.uni_freiburg.informatik.ultimate.logic.Logics;
+import de.uni_freiburg.informatik.ultimate.logic.Script;
+import de.uni_freiburg.informatik.ultimate.logic.Sort;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.SmtUtils.SimplificationTechnique;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.managedscript.ManagedScript;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.smtlib2.SMTInterpol;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Tests that {@link SmtUtils#simplify} reuses results of the {@link SimplificationCache} only in the assertion context
+ * in which they were computed, unless the simplification does not use the solver.
+ */
+public class SimplificationCacheTest {
+
+	private IUltimateServiceProvider mServices;
+	private Script mScript;
+	private ManagedScript mMgdScript;
+	private SimplificationCache mCache;
+
+	private Term mX;
+	private Term mY;
+	/**
+	 * 0 < x /\ 0 < y
+	 */
+	private Term mFormula;
+
+	@Before
+	public void setUp() {
+		mServices = UltimateMocks.createUltimateServiceProviderMock();
+		mScript = new SMTInterpol();
+		mScript.setLogic(Logics.QF_LIA);
+		mMgdScript = new ManagedScript(mServices, mScript);
+		mCache = mMgdScript.getSimplificationCache();
+		final Sort intSort = SmtSortUtils.getIntSort(mScript);
+		mScript.declareFun("x", new Sort[0], intSort);
+		mScript.declareFun("y", new Sort[0], intSort);
+		mX = mScript.term("x");
+		mY = mScript.term("y");
+		mFormula = SmtUtils.and(mScript, SmtUtils.less(mScript, num(0), mX), SmtUtils.less(mScript, num(0), mY));
+	}
+
+	@Test
+	public void sameContextHits() {
+		final Term first = simplify(SimplificationTechnique.SIMPLIFY_DDA);
+		Assert.assertEquals(0, mCache.getHits());
+		final Term second = simplify(SimplificationTechnique.SIMPLIFY_DDA);
+		Assert.assertSame(first, second);
+		Assert.assertEquals(1, mCache.getHits());
+		// another technique is another task
+		simplify(SimplificationTechnique.SIMPLIFY_QUICK);
+		Assert.assertEquals(1, mCache.getHits());
+	}
+
+	@Test
+	public void assertionInvalidatesContextDependentResults() {
+		Assert.assertSame(mFormula, simplify(SimplificationTechnique.SIMPLIFY_DDA));
+		// in the context 5 < x the conjunct 0 < x is redundant
+		mMgdScript.lock(this);
+		mMgdScript.push(this, 1);
+		mMgdScript.assertTerm(this, SmtUtils.less(mScript, num(5), mX));
+		final Term inContext = simplify(SimplificationTechnique.SIMPLIFY_DDA);
+		Assert.assertEquals(0, mCache.getHits());
+		Assert.assertEquals(SmtUtils.less(mScript, num(0), mY), inContext);
+		Assert.assertSame(inContext, simplify(SimplificationTechnique.SIMPLIFY_DDA));
+		Assert.assertEquals(1, mCache.getHits());
+		// after popping, the result of the outer context is valid again
+		mMgdScript.pop(this, 1);
+		mMgdScript.unlock(this);
+		Assert.assertSame(mFormula, simplify(SimplificationTechnique.SIMPLIFY_DDA));
+		Assert.assertEquals(2, mCache.getHits());
+	}
+
+	@Test
+	public void propositionalResultsAreIndependentOfContext() {
+		final Term first = simplify(SimplificationTechnique.SIMPLIFY_BDD_PROP);
+		mMgdScript.lock(this);
+		mMgdScript.assertTerm(this, SmtUtils.less(mScript, num(5), mX));
+		mMgdScript.unlock(this);
+		Assert.assertSame(first, simplify(SimplificationTechnique.SIMPLIFY_BDD_PROP));
+		Assert.assertEquals(1, mCache.getHits());
+	}
+
+	@Test
+	public void disabledCacheDoesNotStoreResults() {
+		mCache.setCapacity(0);
+		simplify(SimplificationTechnique.SIMPLIFY_DDA);
+		simplify(SimplificationTechnique.SIMPLIFY_DDA);
+		Assert.assertEquals(0, mCache.getHits());
+		Assert.assertEquals(0, mCache.getMisses());
+	}
+
+	private Term simplify(final SimplificationTechnique technique) {
+		return SmtUtils.simplify(mMgdScript, mFormula, mServices, technique);
+	}
+
+	private Term num(final int value) {
+		return SmtUtils.constructIntValue(mScript, BigInteger.valueOf(value));
+	}
+}
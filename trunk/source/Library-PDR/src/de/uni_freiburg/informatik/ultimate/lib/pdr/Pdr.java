@@ -25,25 +25,26 @@
  */
 package de.uni_freiburg.informatik.ultimate.lib.pdr;
 
-import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.PriorityQueue;
 import java.util.Set;
 
 import de.uni_freiburg.informatik.ultimate.core.lib.exceptions.ToolchainCanceledException;
 import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IToolchainStorage;
 import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
 import de.uni_freiburg.informatik.ultimate.core.model.translation.IProgramExecution;
+import de.uni_freiburg.informatik.ultimate.lib.pdr.PdrProgram.Edge;
+import de.uni_freiburg.informatik.ultimate.logic.Script;
 import de.uni_freiburg.informatik.ultimate.logic.Script.LBool;
 import de.uni_freiburg.informatik.ultimate.logic.Term;
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.CfgSmtToolkit;
-import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.IcfgUtils;
-import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.structure.IIcfg;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.structure.ICallAction;
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.structure.IIcfgCallTransition;
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.structure.IIcfgInternalTransition;
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.structure.IIcfgReturnTransition;
@@ -51,15 +52,20 @@ import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.structure.IIcfg
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.structure.IInternalAction;
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.structure.IcfgEdge;
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.structure.IcfgLocation;
-import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.structure.IcfgLocationIterator;
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.transitions.TransFormula;
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.variables.IProgramNonOldVar;
-import de.uni_freiburg.informatik.ultimate.modelcheckerutils.hoaretriple.IHoareTripleChecker;
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.hoaretriple.IHoareTripleChecker.Validity;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.hoaretriple.IncrementalHoareTripleChecker;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.MonolithicImplicationChecker;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.PartialQuantifierElimination;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.SmtUtils;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.SmtUtils.SimplificationTechnique;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.SmtUtils.XnfConversionTechnique;
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.interpolant.IInterpolantGenerator;
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.interpolant.InterpolantComputationStatus;
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.interpolant.InterpolantComputationStatus.ItpErrorStatus;
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.managedscript.ManagedScript;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.predicates.BasicPredicateFactory;
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.predicates.IPredicate;
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.predicates.IPredicateUnifier;
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.predicates.PredicateTransformer;
@@ -67,10 +73,26 @@ import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.predicates.Term
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.tracecheck.ITraceCheck;
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.tracecheck.ITraceCheckPreferences;
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.tracecheck.TraceCheckReasonUnknown;
-import de.uni_freiburg.informatik.ultimate.util.datastructures.relation.Triple;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.tracecheck.TraceCheckReasonUnknown.ExceptionHandlingCategory;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.tracecheck.TraceCheckReasonUnknown.Reason;
 import de.uni_freiburg.informatik.ultimate.util.statistics.IStatisticsDataProvider;
 
 /**
+ * IC3-style property directed reachability for a trace.
+ * <p>
+ * PDR first analyzes the path program of the trace. Its frames are kept as lemmas per location in {@link PdrFrames},
+ * which persist across the runs for the traces of a CEGAR loop that have the same path program. If the path program is
+ * unsafe, but the counterexample differs from the trace, PDR analyzes the unrolled trace, whose only path is the trace,
+ * with fresh frames. Traces with return transitions are not supported.
+ * <p>
+ * Proof obligations are handled in the order of their level by a priority queue. A blocked cube is generalized by
+ * dropping literals as long as it stays blocked relative to the previous frame. New lemmas and proof obligations are
+ * checked for syntactic and semantic subsumption by the existing lemmas. The edge checks for each location use their
+ * own {@link IncrementalHoareTripleChecker}, such that consecutive checks for the same location, e.g., while
+ * generalizing a cube, only exchange the cube on the assertion stack.
+ * <p>
+ * If the error location of the analyzed program is unreachable, the invariants at the locations of the trace are its
+ * interpolants.
  *
  * @author Jonas Werner (jonaswerner95@gmail.com)
  *
@@ -79,143 +101,188 @@ public class Pdr<LETTER extends IIcfgTransition<?>> implements ITraceCheck, IInt
 
 	private final ILogger mLogger;
 	private final IUltimateServiceProvider mServices;
-	private final Map<IcfgLocation, List<IPredicate>> mFrames;
 	private final ManagedScript mScript;
 	private final PredicateTransformer<Term, IPredicate, TransFormula> mPredTrans;
-	private final IIcfg<? extends IcfgLocation> mIcfg;
+	private final IToolchainStorage mToolchainStorage;
 	private final CfgSmtToolkit mCsToolkit;
-	private final IHoareTripleChecker mHtc;
+	private final SimplificationTechnique mSimplificationTechnique;
+	private final XnfConversionTechnique mXnfConversionTechnique;
+	private final Map<IcfgLocation, IncrementalHoareTripleChecker> mHtcs;
+	private final MonolithicImplicationChecker mImplicationChecker;
+	private final Map<IcfgLocation, Map<Integer, IPredicate>> mFramePredicates;
 	private final IPredicateUnifier mPredicateUnifier;
+	private final BasicPredicateFactory mPredicateFactory;
 	private final IPredicate mTruePred;
 	private final IPredicate mFalsePred;
 	private final List<LETTER> mTrace;
 
+	private PdrProgram mProgram;
+	private PdrFrames mFrames;
+	private List<IIcfgTransition<?>> mCounterexample;
+	private long mNextSequenceNumber;
+	private int mProofObligations;
+	private int mDroppedLiterals;
+	private int mSubsumedLemmas;
+
 	private LBool mIsTraceCorrect;
+	private IPredicate[] mInterpolants;
+	private TraceCheckReasonUnknown mReasonUnknown;
 	private IProgramExecution<IcfgEdge, Term> mFeasibleProgramExecution;
 
 	public Pdr(final ILogger logger, final ITraceCheckPreferences prefs, final IPredicateUnifier predicateUnifier,
-			final IHoareTripleChecker htc, final List<LETTER> counterexample) {
+			final List<LETTER> counterexample) {
 		// from params
 		mLogger = logger;
 		mPredicateUnifier = predicateUnifier;
-		mHtc = htc;
+		mPredicateFactory = predicateUnifier.getPredicateFactory();
 		mTrace = counterexample;
 
 		// stuff from prefs
 		mServices = prefs.getUltimateServices();
-		mIcfg = prefs.getIcfgContainer();
+		mToolchainStorage = prefs.getToolchainStorage();
 		mCsToolkit = prefs.getCfgSmtToolkit();
 		mScript = mCsToolkit.getManagedScript();
+		mSimplificationTechnique = prefs.getSimplificationTechnique();
+		mXnfConversionTechnique = prefs.getXnfConversionTechnique();
 
-		mFrames = new HashMap<>();
 		mPredTrans = new PredicateTransformer<>(mScript, new TermDomainOperationProvider(mServices, mScript));
+		mHtcs = new HashMap<>();
+		mImplicationChecker = new MonolithicImplicationChecker(mServices, mScript);
+		mFramePredicates = new HashMap<>();
 
-		mTruePred = mPredicateUnifier.getOrConstructPredicate(mScript.getScript().term("true"));
-		mFalsePred = mPredicateUnifier.getOrConstructPredicate(mScript.getScript().term("false"));
+		mTruePred = mPredicateUnifier.getTruePredicate();
+		mFalsePred = mPredicateUnifier.getFalsePredicate();
 
 		mLogger.debug("PDR initialized...");
-		computePdr();
+		try {
+			mIsTraceCorrect = computePdr();
+		} finally {
+			releaseHoareTripleCheckers();
+		}
+		if (mIsTraceCorrect == LBool.UNSAT) {
+			mInterpolants = computeInterpolants();
+		}
+		if (mFrames != null) {
+			mLogger.info(String.format(
+					"PDR finished with %s: %s proof obligations, %s dropped literals, %s subsumed lemmas, "
+							+ "%s lemmas on %s levels",
+					mIsTraceCorrect, mProofObligations, mDroppedLiterals, mSubsumedLemmas,
+					mFrames.getNumberOfLemmas(), mFrames.getLevel()));
+		}
 	}
 
-	private Object computePdr() {
-
-		final Set<? extends IcfgLocation> init = mIcfg.getInitialNodes();
-		final Set<? extends IcfgLocation> error = IcfgUtils.getErrorLocations(mIcfg);
-
+	private LBool computePdr() {
 		/**
-		 * Check for 0-Counter-Example
+		 * The empty trace is feasible
 		 */
-		for (final IcfgLocation initNode : init) {
-			if (error.contains(initNode)) {
-				return null;
+		if (mTrace.isEmpty()) {
+			return LBool.SAT;
+		}
+		for (final LETTER letter : mTrace) {
+			if (letter instanceof IIcfgReturnTransition) {
+				mLogger.info("PDR does not support the return transition " + letter);
+				mReasonUnknown = new TraceCheckReasonUnknown(Reason.SOLVER_RESPONSE_OTHER,
+						new UnsupportedOperationException("Return transitions are not yet supported"),
+						ExceptionHandlingCategory.KNOWN_IGNORE);
+				return LBool.UNKNOWN;
 			}
 		}
 
-		/**
-		 * Initialize level 0.
-		 */
-		final IcfgLocationIterator<? extends IcfgLocation> iter = new IcfgLocationIterator<>(mIcfg);
-		while (iter.hasNext()) {
-			final IcfgLocation loc = iter.next();
-			if (error.contains(loc)) {
-				continue;
-			}
-			mFrames.put(loc, new ArrayList<>());
-			if (init.contains(loc)) {
-				mFrames.get(loc).add(mTruePred);
-			} else {
-				mFrames.get(loc).add(mFalsePred);
-			}
+		final PdrProgram pathProgram = PdrProgram.constructPathProgram(mTrace);
+		final LBool result = computePdr(pathProgram, PdrFrames.getOrCreate(mToolchainStorage, pathProgram));
+		if (result != LBool.SAT || mCounterexample.equals(mTrace)) {
+			return result;
 		}
 
-		int level = 0;
+		/**
+		 * The path program is unsafe, but the trace may still be infeasible
+		 */
+		mLogger.info("PDR found a counterexample that differs from the trace, analyzing the unrolled trace: "
+				+ mCounterexample);
+		final PdrProgram unrolledTrace = PdrProgram.constructUnrolledTrace(mTrace);
+		final LBool unrolledResult =
+				computePdr(unrolledTrace, new PdrFrames(unrolledTrace.getInitialLocation()));
+		assert unrolledResult != LBool.SAT || mCounterexample.equals(mTrace) : "the trace is the only path";
+		return unrolledResult;
+	}
 
-		while (true) {
-			if (!mServices.getProgressMonitorService().continueProcessing()) {
-				throw new ToolchainCanceledException(getClass(), "Timeout or canceled while running Pdr");
-			}
-			/**
-			 * Initialize new level.
-			 */
-			for (final Entry<IcfgLocation, List<IPredicate>> trace : mFrames.entrySet()) {
-				trace.getValue().add(mTruePred);
-			}
+	/**
+	 * Runs PDR on a program.
+	 *
+	 * @return {@link LBool#UNSAT} if the error location is unreachable, {@link LBool#SAT} if it is reachable along
+	 *         {@link #mCounterexample}, and {@link LBool#UNKNOWN} otherwise
+	 */
+	private LBool computePdr(final PdrProgram program, final PdrFrames frames) {
+		releaseHoareTripleCheckers();
+		mHtcs.clear();
+		mFramePredicates.clear();
+		mProgram = program;
+		mFrames = frames;
+		final IcfgLocation error = program.getErrorLocation();
 
-			level += 1;
+		/**
+		 * Continue on the highest level of the previous runs, their lemmas are still valid.
+		 */
+		int level = Math.max(1, mFrames.getLevel());
+		mLogger.debug("Starting on level " + level + " with " + mFrames.getNumberOfLemmas() + " lemmas");
 
-			final List<Triple<IPredicate, IcfgLocation, Integer>> proofObligations = new ArrayList<>();
+		while (true) {
+			checkTimeout();
 
 			/**
 			 * Generate the initial proof-obligations
 			 */
-			for (final IcfgEdge edge : error.iterator().next().getIncomingEdges()) {
-				/*
-				 * AssertionError: No corresponding IProgramVar for v_main_x_3 ?
-				 */
-				final Term sp = mPredTrans.strongestPostcondition(mTruePred, edge.getTransformula());
-				final IPredicate proofObligationPred = mPredicateUnifier.getOrConstructPredicate(sp);
-				final Triple<IPredicate, IcfgLocation, Integer> initialProofObligation =
-						new Triple<>(proofObligationPred, edge.getSource(), level);
-				proofObligations.add(initialProofObligation);
-			}
+			final PriorityQueue<ProofObligation> proofObligations = new PriorityQueue<>();
+			proofObligations.add(createProofObligation(Collections.emptyList(), error, level, null, null));
 
 			/**
 			 * Generated proof-obligation on level 0 -> error is reachable
 			 */
-			if (!blockingPhase(proofObligations)) {
-				throw new UnsupportedOperationException("error reachable");
+			final LBool blockingResult = blockingPhase(proofObligations, level);
+			if (blockingResult != LBool.UNSAT) {
+				return blockingResult;
 			}
+			mFrames.setLevel(level);
 
 			/**
 			 * Found invariant -> error is not reachable
 			 */
-			if (propagationPhase()) {
-				throw new UnsupportedOperationException("error not reachable");
+			if (propagationPhase(level)) {
+				return LBool.UNSAT;
 			}
+			level += 1;
 		}
 	}
 
 	/**
 	 * Blocking-phase, for blocking proof-obligations.
 	 *
-	 * @return false, if proof-obligation on level 0 is created true, if there is no proof-obligation left
+	 * @return {@link LBool#UNSAT} if there is no proof-obligation left, {@link LBool#SAT} if a proof-obligation is
+	 *         reachable from the initial location, and {@link LBool#UNKNOWN} otherwise
 	 */
-	private boolean blockingPhase(final List<Triple<IPredicate, IcfgLocation, Integer>> initialProofObligations) {
-
-		final Deque<Triple<IPredicate, IcfgLocation, Integer>> proofObligations =
-				new ArrayDeque<>(initialProofObligations);
+	private LBool blockingPhase(final PriorityQueue<ProofObligation> proofObligations, final int maxLevel) {
 		while (!proofObligations.isEmpty()) {
-			final Triple<IPredicate, IcfgLocation, Integer> proofObligation = proofObligations.pop();
-			final IPredicate toBeBlocked = proofObligation.getFirst();
-			final IcfgLocation location = proofObligation.getSecond();
-			final int level = proofObligation.getThird();
+			checkTimeout();
+			final ProofObligation proofObligation = proofObligations.poll();
+			final List<Term> toBeBlocked = proofObligation.getCube();
+			final IcfgLocation location = proofObligation.getLocation();
+			final int level = proofObligation.getLevel();
+			assert !mProgram.getInitialLocation().equals(location) : "cannot block initial states";
 
-			for (final IcfgEdge predecessorTransition : location.getIncomingEdges()) {
-				final IcfgLocation predecessor = predecessorTransition.getSource();
-				final IPredicate predecessorFrame = mFrames.get(predecessor).get(level - 1);
+			/**
+			 * Skip proof-obligations that the frame already blocks
+			 */
+			if (mFrames.isBlocked(location, toBeBlocked, level) || isBlockedByFrame(location, toBeBlocked, level)) {
+				if (level < maxLevel) {
+					proofObligations.add(proofObligation.withLevel(level + 1, mNextSequenceNumber++));
+				}
+				continue;
+			}
 
-				final Validity result =
-						checkSatInternal(predecessorFrame, (IInternalAction) predecessorTransition, toBeBlocked);
+			boolean blocked = true;
+			for (final Edge predecessorTransition : mProgram.getIncomingEdges(location)) {
+				final IcfgLocation predecessor = predecessorTransition.getSource();
+				final Validity result = checkEdge(predecessorTransition, toBeBlocked, level);
 
 				/**
 				 * If Sat generate new proof-obligation
@@ -224,102 +291,258 @@ public class Pdr<LETTER extends IIcfgTransition<?>> implements ITraceCheck, IInt
 					/**
 					 * Found Error trace
 					 */
-					if (level - 1 == 0) {
-						return false;
+					if (mProgram.getInitialLocation().equals(predecessor)) {
+						mCounterexample = getCounterexample(proofObligation, predecessorTransition);
+						return LBool.SAT;
 					}
+					assert level > 1 : "Frame 0 is empty at non-initial locations";
 
-					final IPredicate preCondition;
-
-					if (predecessorTransition instanceof IIcfgInternalTransition) {
-						preCondition = (IPredicate) mPredTrans.weakestPrecondition(toBeBlocked,
-								predecessorTransition.getTransformula());
-
-					} else if (predecessorTransition instanceof IIcfgCallTransition) {
-						final TransFormula globalVarsAssignments = mCsToolkit.getOldVarsAssignmentCache()
-								.getGlobalVarsAssignment(predecessorTransition.getSucceedingProcedure());
-						final TransFormula oldVarAssignments = mCsToolkit.getOldVarsAssignmentCache()
-								.getOldVarsAssignment(predecessorTransition.getSucceedingProcedure());
-						final Set<IProgramNonOldVar> modifiableGlobals = mCsToolkit.getModifiableGlobalsTable()
-								.getModifiedBoogieVars(predecessorTransition.getSucceedingProcedure());
-						preCondition = (IPredicate) mPredTrans.weakestPreconditionCall(toBeBlocked,
-								predecessorTransition.getTransformula(), globalVarsAssignments, oldVarAssignments,
-								modifiableGlobals);
-
-					} else if (predecessorTransition instanceof IIcfgReturnTransition) {
-						throw new UnsupportedOperationException();
-
-					} else {
-						throw new UnsupportedOperationException(
-								"Unknown transition type: " + predecessorTransition.getClass().toString());
+					for (final List<Term> preCondition : computePreCondition(toBeBlocked, predecessorTransition)) {
+						proofObligations.add(createProofObligation(preCondition, predecessor, level - 1,
+								predecessorTransition, proofObligation));
 					}
+					proofObligations.add(proofObligation.withLevel(level, mNextSequenceNumber++));
+					blocked = false;
+					break;
+
+				} else if (result == Validity.UNKNOWN) {
+					mReasonUnknown = new TraceCheckReasonUnknown(Reason.SOLVER_RESPONSE_OTHER, null,
+							ExceptionHandlingCategory.KNOWN_IGNORE);
+					return LBool.UNKNOWN;
+				}
+			}
 
-					final Triple<IPredicate, IcfgLocation, Integer> newProofObligation =
-							new Triple<>(preCondition, predecessor, level - 1);
-					proofObligations.addFirst(newProofObligation);
+			/**
+			 * If Unsat strengthen the frames of the location
+			 */
+			if (blocked) {
+				addLemma(location, generalize(location, toBeBlocked, level), level);
+				if (level < maxLevel) {
+					proofObligations.add(proofObligation.withLevel(level + 1, mNextSequenceNumber++));
+				}
+			}
+		}
+		return LBool.UNSAT;
+	}
 
-					/**
-					 * If Unsat strengthen the frames of the location
-					 */
-				} else if (result == Validity.VALID) {
-					for (int i = 0; i <= level; i++) {
-						IPredicate fTerm = mFrames.get(location).get(i);
-						final IPredicate negToBeBlocked = mPredicateUnifier.getPredicateFactory().not(toBeBlocked);
-						fTerm = mPredicateUnifier.getPredicateFactory().and(fTerm, negToBeBlocked);
-						mFrames.get(location).set(i, fTerm);
+	/**
+	 * Propagation-Phase, for finding invariants. Only the lemmas of level k are pushed to level k + 1, lemmas on higher
+	 * levels are already part of the next frame.
+	 *
+	 * @return true iff two consecutive frames are equal, i.e., the frame is an inductive invariant
+	 */
+	private boolean propagationPhase(final int maxLevel) {
+		for (int level = 1; level <= maxLevel; level++) {
+			checkTimeout();
+			for (final IcfgLocation location : new ArrayList<>(mFrames.getLocations())) {
+				for (final PdrFrames.Lemma lemma : new ArrayList<>(mFrames.getLemmas(location))) {
+					if (lemma.getLevel() == level && isBlocked(location, lemma.getCube(), level + 1)) {
+						lemma.setLevel(level + 1);
+						mFramePredicates.remove(location);
 					}
-
-				} else {
-					/**
-					 * What do if unknown?
-					 *
-					 */
-					throw new UnsupportedOperationException("what to do with unknown?");
 				}
 			}
+			if (!mFrames.hasLemmasAtLevel(level)) {
+				mFrames.makeInvariant(level);
+				mFramePredicates.clear();
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Drops literals of a blocked cube as long as the remaining cube is still blocked.
+	 */
+	private List<Term> generalize(final IcfgLocation location, final List<Term> cube, final int level) {
+		final List<Term> result = new ArrayList<>(cube);
+		for (final Term literal : cube) {
+			if (result.size() <= 1) {
+				break;
+			}
+			final List<Term> candidate = new ArrayList<>(result);
+			candidate.remove(literal);
+			if (isBlocked(location, candidate, level)) {
+				result.remove(literal);
+				mDroppedLiterals++;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Adds a lemma and removes the lemmas of lower levels that it subsumes semantically. The syntactic subsumption is
+	 * done by {@link PdrFrames#addLemma(IcfgLocation, Collection, int)}.
+	 */
+	private void addLemma(final IcfgLocation location, final List<Term> cube, final int level) {
+		final int before = mFrames.getLemmas(location).size();
+		final PdrFrames.Lemma newLemma = mFrames.addLemma(location, cube, level);
+		if (newLemma == null) {
+			return;
+		}
+		mSubsumedLemmas += before + 1 - mFrames.getLemmas(location).size();
+		releaseHoareTripleCheckers();
+		final IPredicate newCube = constructCube(cube);
+		for (final PdrFrames.Lemma lemma : new ArrayList<>(mFrames.getLemmas(location))) {
+			if (lemma != newLemma && lemma.getLevel() <= level && mImplicationChecker.checkImplication(
+					constructCube(lemma.getCube()), false, newCube, false) == Validity.VALID) {
+				mFrames.removeLemma(location, lemma);
+				mSubsumedLemmas++;
+			}
+		}
+		mFramePredicates.remove(location);
+	}
+
+	/**
+	 * Checks semantically whether a frame already blocks a cube, i.e., whether the frame implies the negation of the
+	 * cube.
+	 */
+	private boolean isBlockedByFrame(final IcfgLocation location, final List<Term> cube, final int level) {
+		releaseHoareTripleCheckers();
+		return mImplicationChecker.checkImplication(getFrame(location, level), false,
+				not(constructCube(cube)), false) == Validity.VALID;
+	}
+
+	/**
+	 * @return true iff the cube is blocked at the location relative to the previous frame for all incoming edges
+	 */
+	private boolean isBlocked(final IcfgLocation location, final Collection<Term> cube, final int level) {
+		for (final Edge edge : mProgram.getIncomingEdges(location)) {
+			if (checkEdge(edge, cube, level) != Validity.VALID) {
+				return false;
+			}
 		}
 		return true;
 	}
 
 	/**
-	 * Use a {@link IHoareTripleChecker} to check for satisfiability of pre &and; tf &and; post
-	 *
-	 * This method converts the post condition because an {@link IHoareTripleChecker} checks for P &and; S &and; !Q
-	 *
-	 * @param pre
-	 * @param trans
-	 * @param post
+	 * Checks whether the cube at the target of an edge is unreachable from the frame of the previous level at its
+	 * source. For self-loops the cube is relatively inductive, i.e., the negated cube is added to the frame.
 	 *
 	 * @return {@link Validity#VALID} iff the formula is unsat, {@link Validity#INVALID} iff the formula is sat,
-	 *         {@link Validity#UNKNOWN} iff the solver was not able to find a solution, and {@link Validity#NOT_CHECKED}
-	 *         should not be returned
+	 *         {@link Validity#UNKNOWN} iff the solver was not able to find a solution
 	 */
-	private Validity checkSatInternal(final IPredicate pre, final IInternalAction trans, final IPredicate post) {
-		final IPredicate notP = not(post);
-		final Validity result = mHtc.checkInternal(pre, trans, notP);
+	private Validity checkEdge(final Edge edge, final Collection<Term> cube, final int level) {
+		final IPredicate notCube = not(constructCube(cube));
+		IPredicate pre = getFrame(edge.getSource(), level - 1);
+		if (edge.getSource() == edge.getTarget()) {
+			pre = mPredicateFactory.and(pre, notCube);
+		}
+		final IncrementalHoareTripleChecker htc =
+				mHtcs.computeIfAbsent(edge.getTarget(), loc -> new IncrementalHoareTripleChecker(mCsToolkit, false));
+		final IIcfgTransition<?> transition = edge.getTransition();
+		final Validity result;
+		if (transition instanceof IIcfgInternalTransition) {
+			result = htc.checkInternal(pre, (IInternalAction) transition, notCube);
+		} else if (transition instanceof IIcfgCallTransition) {
+			result = htc.checkCall(pre, (ICallAction) transition, notCube);
+		} else if (transition instanceof IIcfgReturnTransition) {
+			throw new UnsupportedOperationException("Return transitions are not yet supported");
+		} else {
+			throw new UnsupportedOperationException("Unknown transition type: " + transition.getClass().toString());
+		}
 		assert result != Validity.NOT_CHECKED;
 		return result;
+	}
+
+	/**
+	 * Computes the states that can reach the cube via the edge, split into cubes.
+	 */
+	private List<List<Term>> computePreCondition(final List<Term> cube, final Edge edge) {
+		releaseHoareTripleCheckers();
+		final IPredicate notCube = not(constructCube(cube));
+		final IIcfgTransition<?> transition = edge.getTransition();
+		final Term wp;
+		if (transition instanceof IIcfgInternalTransition) {
+			wp = mPredTrans.weakestPrecondition(notCube, transition.getTransformula());
+		} else if (transition instanceof IIcfgCallTransition) {
+			final String callee = transition.getSucceedingProcedure();
+			final TransFormula globalVarsAssignments =
+					mCsToolkit.getOldVarsAssignmentCache().getGlobalVarsAssignment(callee);
+			final TransFormula oldVarAssignments = mCsToolkit.getOldVarsAssignmentCache().getOldVarsAssignment(callee);
+			final Set<IProgramNonOldVar> modifiableGlobals =
+					mCsToolkit.getModifiableGlobalsTable().getModifiedBoogieVars(callee);
+			wp = mPredTrans.weakestPreconditionCall(notCube, transition.getTransformula(), globalVarsAssignments,
+					oldVarAssignments, modifiableGlobals);
+		} else {
+			throw new UnsupportedOperationException("Unknown transition type: " + transition.getClass().toString());
+		}
+
+		final Script script = mScript.getScript();
+		final Term pre = PartialQuantifierElimination.tryToEliminate(mServices, mLogger, mScript,
+				SmtUtils.not(script, wp), mSimplificationTechnique, mXnfConversionTechnique);
+		final Term dnf = SmtUtils.toDnf(mServices, mScript, pre, mXnfConversionTechnique);
+		final Term trueTerm = script.term("true");
+		final List<List<Term>> result = new ArrayList<>();
+		for (final Term disjunct : SmtUtils.getDisjuncts(dnf)) {
+			final List<Term> preCube = new ArrayList<>();
+			for (final Term literal : SmtUtils.getConjuncts(disjunct)) {
+				if (literal != trueTerm && !preCube.contains(literal)) {
+					preCube.add(literal);
+				}
+			}
+			result.add(preCube);
+		}
+		return result;
+	}
 
+	private ProofObligation createProofObligation(final List<Term> cube, final IcfgLocation location,
+			final int level, final Edge edge, final ProofObligation parent) {
+		mProofObligations++;
+		return new ProofObligation(cube, location, level, edge, parent, mNextSequenceNumber++);
 	}
 
-	private IPredicate not(final IPredicate pred) {
-		return mPredicateUnifier.getOrConstructPredicate(mPredicateUnifier.getPredicateFactory().not(pred));
+	/**
+	 * @return The transitions from the initial location to the error location along the given proof-obligations.
+	 */
+	private static List<IIcfgTransition<?>> getCounterexample(final ProofObligation proofObligation,
+			final Edge initialEdge) {
+		final List<IIcfgTransition<?>> result = new ArrayList<>();
+		result.add(initialEdge.getTransition());
+		ProofObligation current = proofObligation;
+		while (current.getEdge() != null) {
+			result.add(current.getEdge().getTransition());
+			current = current.getParent();
+		}
+		return result;
 	}
 
 	/**
-	 * Propagation-Phase, for finding invariants
+	 * The frames have converged, hence the invariants at the locations of the trace form a sequence of interpolants.
 	 */
-	private boolean propagationPhase() {
-		for (final Entry<IcfgLocation, List<IPredicate>> locationTrace : mFrames.entrySet()) {
-			final List<IPredicate> frames = locationTrace.getValue();
-			for (int i = 0; i < frames.size(); i++) {
-				for (int k = i + 1; k < frames.size(); k++) {
-					if (frames.get(i) == frames.get(k)) {
-						return true;
-					}
-				}
-			}
+	private IPredicate[] computeInterpolants() {
+		final IPredicate[] interpolants = new IPredicate[Math.max(0, mTrace.size() - 1)];
+		for (int i = 0; i < interpolants.length; i++) {
+			final IcfgLocation location = mProgram.getLocationOfTrace(i + 1);
+			interpolants[i] = mPredicateUnifier.getOrConstructPredicate(
+					mFrames.getFrame(mScript.getScript(), location, PdrFrames.INFINITE_LEVEL));
+		}
+		return interpolants;
+	}
+
+	private IPredicate getFrame(final IcfgLocation location, final int level) {
+		return mFramePredicates.computeIfAbsent(location, loc -> new HashMap<>()).computeIfAbsent(level,
+				lvl -> mPredicateFactory.newPredicate(mFrames.getFrame(mScript.getScript(), location, lvl)));
+	}
+
+	private IPredicate constructCube(final Collection<Term> cube) {
+		return mPredicateFactory.newPredicate(SmtUtils.and(mScript.getScript(), cube));
+	}
+
+	private IPredicate not(final IPredicate pred) {
+		return mPredicateFactory.not(pred);
+	}
+
+	private void releaseHoareTripleCheckers() {
+		for (final IncrementalHoareTripleChecker htc : mHtcs.values()) {
+			htc.releaseLock();
+		}
+	}
+
+	private void checkTimeout() {
+		if (!mServices.getProgressMonitorService().continueProcessing()) {
+			throw new ToolchainCanceledException(getClass(), "Timeout or canceled while running Pdr");
 		}
-		return false;
 	}
 
 	private IProgramExecution<IcfgEdge, Term> computeProgramExecution() {
@@ -375,8 +598,7 @@ public class Pdr<LETTER extends IIcfgTransition<?>> implements ITraceCheck, IInt
 
 	@Override
 	public TraceCheckReasonUnknown getTraceCheckReasonUnknown() {
-		// TODO Auto-generated method stub
-		return null;
+		return mReasonUnknown;
 	}
 
 	@Override
@@ -394,8 +616,7 @@ public class Pdr<LETTER extends IIcfgTransition<?>> implements ITraceCheck, IInt
 
 	@Override
 	public IPredicate[] getInterpolants() {
-		// TODO Auto-generated method stub
-		return null;
+		return mInterpolants;
 	}
 
 	@Override
@@ -416,7 +637,7 @@ public class Pdr<LETTER extends IIcfgTransition<?>> implements ITraceCheck, IInt
 		} else if (isCorrect() == LBool.SAT) {
 			return new InterpolantComputationStatus(false, ItpErrorStatus.TRACE_FEASIBLE, null);
 		} else {
-			throw new UnsupportedOperationException();
+			return new InterpolantComputationStatus(false, ItpErrorStatus.ALGORITHM_FAILED, null);
 		}
 	}
 
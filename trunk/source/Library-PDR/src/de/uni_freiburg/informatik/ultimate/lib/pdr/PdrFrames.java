@@ -0,0 +1,277 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE PDR library .
+ *
+ * The ULTIMATE PDR library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE PDR library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE PDR library . If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE PDR library , or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE PDR library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.lib.pdr;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.uni_freiburg.informatik.ultimate.core.model.services.IStorable;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IToolchainStorage;
+import de.uni_freiburg.informatik.ultimate.logic.Script;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.structure.IIcfgTransition;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.structure.IcfgLocation;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.SmtUtils;
+import de.uni_freiburg.informatik.ultimate.util.datastructures.relation.Pair;
+
+/**
+ * The frames of {@link Pdr} for one {@link PdrProgram}.
+ * <p>
+ * The frames are stored as lemmas per location. A lemma blocks a cube, i.e., a conjunction of literals, and has a
+ * level. It states that no state of the cube is reachable at its location in at most level steps. Frame i of a
+ * location is the conjunction of the negated cubes of all lemmas at this location whose level is at least i, hence
+ * each lemma is stored only once although it belongs to all frames up to its level. Lemmas with level
+ * {@link #INFINITE_LEVEL} are invariants of the program.
+ * <p>
+ * Lemmas are stored as terms and do not depend on a trace or on a predicate unifier, only on the program. A lemma of a
+ * path program need not hold in a program with more transitions, hence
+ * {@link #getOrCreate(IToolchainStorage, PdrProgram)} keeps the frames of each path program in the
+ * {@link IToolchainStorage} such that the runs of {@link Pdr} for later traces of a CEGAR loop with the same path
+ * program start with the lemmas of earlier runs.
+ */
+public final class PdrFrames {
+
+	/**
+	 * The level of lemmas that hold in every frame.
+	 */
+	public static final int INFINITE_LEVEL = Integer.MAX_VALUE;
+
+	private static final String KEY = PdrFrames.class.getName();
+
+	private final IcfgLocation mInitialLocation;
+	private final Map<IcfgLocation, List<Lemma>> mLemmas;
+	private int mLevel;
+
+	/**
+	 * Creates frames that are not stored.
+	 *
+	 * @param initialLocation
+	 *            The initial location of the program.
+	 */
+	PdrFrames(final IcfgLocation initialLocation) {
+		mInitialLocation = initialLocation;
+		mLemmas = new HashMap<>();
+		mLevel = 0;
+	}
+
+	/**
+	 * Returns the frames of the given path program from the toolchain storage. If there are none, new frames are
+	 * created and stored.
+	 *
+	 * @param storage
+	 *            The toolchain storage.
+	 * @param pathProgram
+	 *            The path program that is analyzed.
+	 * @return The frames of the given path program.
+	 */
+	static PdrFrames getOrCreate(final IToolchainStorage storage, final PdrProgram pathProgram) {
+		IStorable stored = storage.getStorable(KEY);
+		if (!(stored instanceof Store)) {
+			stored = new Store();
+			storage.putStorable(KEY, stored);
+		}
+		return ((Store) stored).mFrames.computeIfAbsent(
+				new Pair<>(pathProgram.getInitialLocation(), pathProgram.getTransitions()),
+				key -> new PdrFrames(pathProgram.getInitialLocation()));
+	}
+
+	/**
+	 * @return The highest level for which a run of {@link Pdr} blocked the error locations.
+	 */
+	public int getLevel() {
+		return mLevel;
+	}
+
+	void setLevel(final int level) {
+		mLevel = Math.max(mLevel, level);
+	}
+
+	/**
+	 * @return The number of lemmas of all locations.
+	 */
+	public int getNumberOfLemmas() {
+		int result = 0;
+		for (final List<Lemma> lemmas : mLemmas.values()) {
+			result += lemmas.size();
+		}
+		return result;
+	}
+
+	/**
+	 * @return The lemmas of the given location. The result must not be modified.
+	 */
+	List<Lemma> getLemmas(final IcfgLocation location) {
+		final List<Lemma> lemmas = mLemmas.get(location);
+		return lemmas == null ? Collections.emptyList() : lemmas;
+	}
+
+	Collection<IcfgLocation> getLocations() {
+		return mLemmas.keySet();
+	}
+
+	/**
+	 * Constructs frame i of a location. Frame 0 contains the initial states, i.e., all states at initial locations and
+	 * no state at other locations.
+	 *
+	 * @param script
+	 *            The script that is used to construct the term.
+	 * @param location
+	 *            A location of the program.
+	 * @param level
+	 *            The index of the frame.
+	 * @return The conjunction of the negated cubes of all lemmas of the location with at least the given level.
+	 */
+	Term getFrame(final Script script, final IcfgLocation location, final int level) {
+		if (level == 0) {
+			return script.term(mInitialLocation.equals(location) ? "true" : "false");
+		}
+		final List<Term> conjuncts = new ArrayList<>();
+		for (final Lemma lemma : getLemmas(location)) {
+			if (lemma.getLevel() >= level) {
+				conjuncts.add(SmtUtils.not(script, SmtUtils.and(script, lemma.getCube())));
+			}
+		}
+		return SmtUtils.and(script, conjuncts);
+	}
+
+	/**
+	 * Checks syntactically whether a cube is already blocked in a frame, i.e., whether the location has a lemma with at
+	 * least the given level whose cube is a subset of the given cube.
+	 */
+	boolean isBlocked(final IcfgLocation location, final Collection<Term> cube, final int level) {
+		for (final Lemma lemma : getLemmas(location)) {
+			if (lemma.getLevel() >= level && cube.containsAll(lemma.getCube())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Adds a lemma. Lemmas with at most the given level whose cube is a superset of the given cube are removed, because
+	 * they block fewer states in fewer frames.
+	 *
+	 * @return The new lemma, or <code>null</code> if the cube is already blocked syntactically.
+	 */
+	Lemma addLemma(final IcfgLocation location, final Collection<Term> cube, final int level) {
+		if (isBlocked(location, cube, level)) {
+			return null;
+		}
+		final List<Lemma> lemmas = mLemmas.computeIfAbsent(location, loc -> new ArrayList<>());
+		final Iterator<Lemma> iter = lemmas.iterator();
+		while (iter.hasNext()) {
+			final Lemma lemma = iter.next();
+			if (lemma.getLevel() <= level && lemma.getCube().containsAll(cube)) {
+				iter.remove();
+			}
+		}
+		final Lemma lemma = new Lemma(cube, level);
+		lemmas.add(lemma);
+		return lemma;
+	}
+
+	void removeLemma(final IcfgLocation location, final Lemma lemma) {
+		getLemmas(location).remove(lemma);
+	}
+
+	/**
+	 * @return <code>true</code> iff some location has a lemma with exactly the given level.
+	 */
+	boolean hasLemmasAtLevel(final int level) {
+		for (final List<Lemma> lemmas : mLemmas.values()) {
+			for (final Lemma lemma : lemmas) {
+				if (lemma.getLevel() == level) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Marks all lemmas with a level greater than the given level as invariants. This is sound if frame level and frame
+	 * level + 1 are equal, because then frame level is inductive.
+	 */
+	void makeInvariant(final int level) {
+		for (final List<Lemma> lemmas : mLemmas.values()) {
+			for (final Lemma lemma : lemmas) {
+				if (lemma.getLevel() > level) {
+					lemma.setLevel(INFINITE_LEVEL);
+				}
+			}
+		}
+	}
+
+	/**
+	 * The frames of all path programs that were analyzed in a toolchain.
+	 */
+	private static final class Store implements IStorable {
+		private final Map<Pair<IcfgLocation, Set<IIcfgTransition<?>>>, PdrFrames> mFrames = new HashMap<>();
+
+		@Override
+		public void destroy() {
+			mFrames.clear();
+		}
+	}
+
+	/**
+	 * A cube that is blocked up to a level.
+	 */
+	static final class Lemma {
+		private final Set<Term> mCube;
+		private int mLevel;
+
+		private Lemma(final Collection<Term> cube, final int level) {
+			mCube = Collections.unmodifiableSet(new LinkedHashSet<>(cube));
+			mLevel = level;
+		}
+
+		Set<Term> getCube() {
+			return mCube;
+		}
+
+		int getLevel() {
+			return mLevel;
+		}
+
+		void setLevel(final int level) {
+			assert level >= mLevel : "frames are monotone";
+			mLevel = level;
+		}
+
+		@Override
+		public String toString() {
+			return mCube + (mLevel == INFINITE_LEVEL ? " @ inf" : " @ " + mLevel);
+		}
+	}
+}
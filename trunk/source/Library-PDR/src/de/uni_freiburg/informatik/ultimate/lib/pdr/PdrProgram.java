@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE PDR library .
+ *
+ * The ULTIMATE PDR library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE PDR library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE PDR library . If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE PDR library , or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE PDR library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.lib.pdr;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.structure.IIcfg;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.structure.IIcfgTransition;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.structure.IcfgLocation;
+
+/**
+ * The program that {@link Pdr} analyzes for a trace.
+ * <p>
+ * The path program of a trace consists of the locations and transitions of the {@link IIcfg} that occur in the trace.
+ * The unrolled trace has a fresh location for each position of the trace, hence the trace is its only path. In both
+ * programs the source of the first transition of the trace is the only initial location and the target of the last
+ * transition is the only error location.
+ */
+final class PdrProgram {
+	private final List<IcfgLocation> mLocationsOfTrace;
+	private final Set<IIcfgTransition<?>> mTransitions;
+	private final Map<IcfgLocation, List<Edge>> mIncomingEdges;
+
+	private PdrProgram(final List<IcfgLocation> locationsOfTrace, final Set<IIcfgTransition<?>> transitions,
+			final Map<IcfgLocation, List<Edge>> incomingEdges) {
+		mLocationsOfTrace = locationsOfTrace;
+		mTransitions = transitions;
+		mIncomingEdges = incomingEdges;
+	}
+
+	/**
+	 * @param trace
+	 *            A non-empty trace.
+	 * @return The path program of the trace.
+	 */
+	static PdrProgram constructPathProgram(final List<? extends IIcfgTransition<?>> trace) {
+		final List<IcfgLocation> locationsOfTrace = new ArrayList<>(trace.size() + 1);
+		locationsOfTrace.add(trace.get(0).getSource());
+		final Set<IIcfgTransition<?>> transitions = new LinkedHashSet<>();
+		final Map<IcfgLocation, List<Edge>> incomingEdges = new HashMap<>();
+		for (final IIcfgTransition<?> transition : trace) {
+			locationsOfTrace.add(transition.getTarget());
+			if (transitions.add(transition)) {
+				incomingEdges.computeIfAbsent(transition.getTarget(), loc -> new ArrayList<>())
+						.add(new Edge(transition.getSource(), transition.getTarget(), transition));
+			}
+		}
+		return new PdrProgram(locationsOfTrace, transitions, incomingEdges);
+	}
+
+	/**
+	 * @param trace
+	 *            A non-empty trace.
+	 * @return The unrolled trace.
+	 */
+	static PdrProgram constructUnrolledTrace(final List<? extends IIcfgTransition<?>> trace) {
+		final List<IcfgLocation> locationsOfTrace = new ArrayList<>(trace.size() + 1);
+		locationsOfTrace.add(createPosition(trace.get(0).getSource(), 0));
+		final Map<IcfgLocation, List<Edge>> incomingEdges = new HashMap<>();
+		for (int i = 0; i < trace.size(); i++) {
+			final IIcfgTransition<?> transition = trace.get(i);
+			final IcfgLocation source = locationsOfTrace.get(i);
+			final IcfgLocation target = createPosition(transition.getTarget(), i + 1);
+			locationsOfTrace.add(target);
+			incomingEdges.put(target, Collections.singletonList(new Edge(source, target, transition)));
+		}
+		return new PdrProgram(locationsOfTrace, new LinkedHashSet<>(trace), incomingEdges);
+	}
+
+	private static IcfgLocation createPosition(final IcfgLocation location, final int position) {
+		return new IcfgLocation(location.getDebugIdentifier() + "#" + position, location.getProcedure());
+	}
+
+	IcfgLocation getInitialLocation() {
+		return mLocationsOfTrace.get(0);
+	}
+
+	IcfgLocation getErrorLocation() {
+		return mLocationsOfTrace.get(mLocationsOfTrace.size() - 1);
+	}
+
+	/**
+	 * @return The location of the program before the i-th transition of the trace, or after the last transition if i
+	 *         is the length of the trace.
+	 */
+	IcfgLocation getLocationOfTrace(final int i) {
+		return mLocationsOfTrace.get(i);
+	}
+
+	/**
+	 * @return The transitions of the {@link IIcfg} that occur in the program.
+	 */
+	Set<IIcfgTransition<?>> getTransitions() {
+		return Collections.unmodifiableSet(mTransitions);
+	}
+
+	List<Edge> getIncomingEdges(final IcfgLocation location) {
+		final List<Edge> edges = mIncomingEdges.get(location);
+		return edges == null ? Collections.emptyList() : edges;
+	}
+
+	/**
+	 * An edge of the program, labeled by a transition of the {@link IIcfg}.
+	 */
+	static final class Edge {
+		private final IcfgLocation mSource;
+		private final IcfgLocation mTarget;
+		private final IIcfgTransition<?> mTransition;
+
+		private Edge(final IcfgLocation source, final IcfgLocation target, final IIcfgTransition<?> transition) {
+			mSource = source;
+			mTarget = target;
+			mTransition = transition;
+		}
+
+		IcfgLocation getSource() {
+			return mSource;
+		}
+
+		IcfgLocation getTarget() {
+			return mTarget;
+		}
+
+		IIcfgTransition<?> getTransition() {
+			return mTransition;
+		}
+
+		@Override
+		public String toString() {
+			return mTransition.toString();
+		}
+	}
+}
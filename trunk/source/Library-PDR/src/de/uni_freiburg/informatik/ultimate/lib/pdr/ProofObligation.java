@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE PDR library .
+ *
+ * The ULTIMATE PDR library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE PDR library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE PDR library . If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE PDR library , or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE PDR library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.lib.pdr;
+
+import java.util.List;
+
+import de.uni_freiburg.informatik.ultimate.lib.pdr.PdrProgram.Edge;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.structure.IcfgLocation;
+
+/**
+ * A proof obligation of {@link Pdr}: the states of a cube must not be reachable at a location in at most level steps.
+ * <p>
+ * Proof obligations are ordered by their level, such that the obligations that are closest to the initial states are
+ * handled first. Obligations with the same level are handled in the order in which they were created.
+ */
+final class ProofObligation implements Comparable<ProofObligation> {
+	private final List<Term> mCube;
+	private final IcfgLocation mLocation;
+	private final int mLevel;
+	private final Edge mEdge;
+	private final ProofObligation mParent;
+	private final long mSequenceNumber;
+
+	/**
+	 * @param cube
+	 *            The literals of the cube that has to be blocked.
+	 * @param location
+	 *            The location at which the cube has to be blocked.
+	 * @param level
+	 *            The level up to which the cube has to be blocked.
+	 * @param edge
+	 *            The edge from the location to the location of the parent, or <code>null</code> if this obligation
+	 *            is at an error location.
+	 * @param parent
+	 *            The obligation whose cube can be reached from the cube of this obligation via the edge, or
+	 *            <code>null</code> if this obligation is at an error location.
+	 * @param sequenceNumber
+	 *            A number that orders obligations with the same level.
+	 */
+	ProofObligation(final List<Term> cube, final IcfgLocation location, final int level, final Edge edge,
+			final ProofObligation parent, final long sequenceNumber) {
+		mCube = cube;
+		mLocation = location;
+		mLevel = level;
+		mEdge = edge;
+		mParent = parent;
+		mSequenceNumber = sequenceNumber;
+	}
+
+	List<Term> getCube() {
+		return mCube;
+	}
+
+	IcfgLocation getLocation() {
+		return mLocation;
+	}
+
+	int getLevel() {
+		return mLevel;
+	}
+
+	Edge getEdge() {
+		return mEdge;
+	}
+
+	ProofObligation getParent() {
+		return mParent;
+	}
+
+	/**
+	 * @return A copy of this obligation with another level and sequence number.
+	 */
+	ProofObligation withLevel(final int level, final long sequenceNumber) {
+		return new ProofObligation(mCube, mLocation, level, mEdge, mParent, sequenceNumber);
+	}
+
+	@Override
+	public int compareTo(final ProofObligation other) {
+		final int cmp = Integer.compare(mLevel, other.mLevel);
+		if (cmp != 0) {
+			return cmp;
+		}
+		return Long.compare(mSequenceNumber, other.mSequenceNumber);
+	}
+
+	@Override
+	public String toString() {
+		return "(" + mCube + ", " + mLocation + ", " + mLevel + ")";
+	}
+}
@@ -0,0 +1,437 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE PDR library .
+ *
+ * The ULTIMATE PDR library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE PDR library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE PDR library . If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE PDR library , or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE PDR library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.lib.pdr;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.core.model.services.IToolchainStorage;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
+import de.uni_freiburg.informatik.ultimate.logic.Logics;
+import de.uni_freiburg.informatik.ultimate.logic.Script;
+import de.uni_freiburg.informatik.ultimate.logic.Script.LBool;
+import de.uni_freiburg.informatik.ultimate.logic.Sort;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.logic.TermVariable;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.boogie.LocalBoogieVar;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.CfgSmtToolkit;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.DefaultIcfgSymbolTable;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.ModifiableGlobalsTable;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.structure.IIcfg;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.structure.IcfgEdgeFactory;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.structure.IcfgInternalTransition;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.structure.IcfgLocation;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.transitions.TransFormulaBuilder;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.transitions.UnmodifiableTransFormula;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.transitions.UnmodifiableTransFormula.Infeasibility;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.variables.IProgramVar;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.variables.ProgramVarUtils;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.hoaretriple.IHoareTripleChecker.Validity;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.hoaretriple.IncrementalHoareTripleChecker;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.SmtUtils;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.SmtUtils.SimplificationTechnique;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.SmtUtils.XnfConversionTechnique;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.managedscript.ManagedScript;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.predicates.BasicPredicateFactory;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.predicates.IPredicate;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.predicates.IPredicateCoverageChecker;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.predicates.IPredicateUnifier;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.tracecheck.ITraceCheckPreferences;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.smtlib2.SMTInterpol;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+import de.uni_freiburg.informatik.ultimate.util.datastructures.relation.HashRelation;
+import de.uni_freiburg.informatik.ultimate.util.statistics.IStatisticsDataProvider;
+
+/**
+ * Runs {@link Pdr} on the traces of the program
+ *
+ * <pre>
+ * x := 0; while (x < 10) { x := x + 1; } assert x == 10; assert x != 10;
+ * </pre>
+ *
+ * whose first assertion holds and whose second assertion is violated. The interpolants of infeasible traces are
+ * checked by a Hoare triple checker.
+ */
+public class PdrTest {
+
+	private static final String PROCEDURE = "main";
+	private static final int BOUND = 10;
+
+	private IUltimateServiceProvider mServices;
+	private IToolchainStorage mStorage;
+	private Script mScript;
+	private ManagedScript mMgdScript;
+	private CfgSmtToolkit mCsToolkit;
+	private BasicPredicateFactory mPredicateFactory;
+
+	private IcfgInternalTransition mInit;
+	private IcfgInternalTransition mIncrement;
+	private IcfgInternalTransition mExit;
+	private IcfgInternalTransition mSafeAssert;
+	private IcfgInternalTransition mUnsafeAssert;
+
+	@Before
+	public void setUp() {
+		mServices = UltimateMocks.createUltimateServiceProviderMock();
+		mStorage = UltimateMocks.createToolchainStorageMock();
+		mScript = new SMTInterpol();
+		mScript.setLogic(Logics.QF_LIA);
+		mMgdScript = new ManagedScript(mServices, mScript);
+
+		final Sort intSort = mScript.sort("Int");
+		mMgdScript.lock(this);
+		final IProgramVar x = new LocalBoogieVar("x", PROCEDURE, null, mMgdScript.variable("v_x", intSort),
+				ProgramVarUtils.constructDefaultConstant(mMgdScript, this, intSort, "x"),
+				ProgramVarUtils.constructPrimedConstant(mMgdScript, this, intSort, "x"));
+		mMgdScript.unlock(this);
+		final DefaultIcfgSymbolTable symbolTable = new DefaultIcfgSymbolTable();
+		symbolTable.add(x);
+		symbolTable.finishConstruction();
+		mPredicateFactory = new BasicPredicateFactory(mServices, mMgdScript, symbolTable,
+				SimplificationTechnique.SIMPLIFY_DDA, XnfConversionTechnique.BOTTOM_UP_WITH_LOCAL_SIMPLIFICATION);
+		final IcfgEdgeFactory edgeFactory = new IcfgEdgeFactory();
+		mCsToolkit = new CfgSmtToolkit(new ModifiableGlobalsTable(new HashRelation<>()), mMgdScript, symbolTable,
+				mPredicateFactory.newPredicate(mScript.term("true")), Collections.singleton(PROCEDURE), edgeFactory);
+
+		final IcfgLocation init = new IcfgLocation("init", PROCEDURE);
+		final IcfgLocation loop = new IcfgLocation("loop", PROCEDURE);
+		final IcfgLocation exit = new IcfgLocation("exit", PROCEDURE);
+		final IcfgLocation error = new IcfgLocation("error", PROCEDURE);
+		final TermVariable in = mMgdScript.constructFreshTermVariable("x_in", intSort);
+		final TermVariable out = mMgdScript.constructFreshTermVariable("x_out", intSort);
+		final Term bound = SmtUtils.constructIntValue(mScript, BigInteger.valueOf(BOUND));
+		mInit = edgeFactory.createInternalTransition(init, loop, null, transFormula(x, null, out,
+				SmtUtils.binaryEquality(mScript, out, SmtUtils.constructIntValue(mScript, BigInteger.ZERO))));
+		final Term increment = SmtUtils.binaryEquality(mScript, out,
+				SmtUtils.sum(mScript, intSort, in, SmtUtils.constructIntValue(mScript, BigInteger.ONE)));
+		mIncrement = edgeFactory.createInternalTransition(loop, loop, null,
+				transFormula(x, in, out, SmtUtils.and(mScript, SmtUtils.less(mScript, in, bound), increment)));
+		mExit = edgeFactory.createInternalTransition(loop, exit, null,
+				transFormula(x, in, in, SmtUtils.geq(mScript, in, bound)));
+		mSafeAssert = edgeFactory.createInternalTransition(exit, error, null,
+				transFormula(x, in, in, SmtUtils.not(mScript, SmtUtils.binaryEquality(mScript, in, bound))));
+		mUnsafeAssert = edgeFactory.createInternalTransition(exit, error, null,
+				transFormula(x, in, in, SmtUtils.binaryEquality(mScript, in, bound)));
+	}
+
+	@After
+	public void tearDown() {
+		mStorage.clear();
+		mScript.exit();
+	}
+
+	@Test
+	public void safeLoop() {
+		for (int unwindings = 0; unwindings < 3; unwindings++) {
+			final List<IcfgInternalTransition> trace = trace(unwindings, mSafeAssert);
+			final Pdr<IcfgInternalTransition> pdr = runPdr(trace);
+			Assert.assertEquals("unwindings " + unwindings, LBool.UNSAT, pdr.isCorrect());
+			checkInterpolants(trace, pdr.getInterpolants());
+		}
+	}
+
+	@Test
+	public void unsafeLoop() {
+		final List<IcfgInternalTransition> trace = trace(BOUND, mUnsafeAssert);
+		final Pdr<IcfgInternalTransition> pdr = runPdr(trace);
+		Assert.assertEquals(LBool.SAT, pdr.isCorrect());
+		Assert.assertNull(pdr.getInterpolants());
+	}
+
+	@Test
+	public void infeasibleTraceOfUnsafeLoop() {
+		for (final int unwindings : new int[] { 0, 1, BOUND - 1, BOUND + 1 }) {
+			final List<IcfgInternalTransition> trace = trace(unwindings, mUnsafeAssert);
+			final Pdr<IcfgInternalTransition> pdr = runPdr(trace);
+			Assert.assertEquals("unwindings " + unwindings, LBool.UNSAT, pdr.isCorrect());
+			checkInterpolants(trace, pdr.getInterpolants());
+		}
+	}
+
+	@Test
+	public void framesAreKeptPerPathProgram() {
+		final List<IcfgInternalTransition> trace = trace(1, mSafeAssert);
+		final PdrFrames frames = PdrFrames.getOrCreate(mStorage, PdrProgram.constructPathProgram(trace));
+		runPdr(trace);
+		final int lemmas = frames.getNumberOfLemmas();
+		Assert.assertTrue(lemmas > 0);
+
+		// the same path program reuses the frames, its lemmas suffice to prove the trace
+		runPdr(trace(2, mSafeAssert));
+		Assert.assertSame(frames,
+				PdrFrames.getOrCreate(mStorage, PdrProgram.constructPathProgram(trace(2, mSafeAssert))));
+		Assert.assertEquals(lemmas, frames.getNumberOfLemmas());
+
+		// the lemmas do not hold in a different path program
+		Assert.assertNotSame(frames,
+				PdrFrames.getOrCreate(mStorage, PdrProgram.constructPathProgram(trace(0, mSafeAssert))));
+		Assert.assertNotSame(frames,
+				PdrFrames.getOrCreate(mStorage, PdrProgram.constructPathProgram(trace(1, mUnsafeAssert))));
+	}
+
+	private List<IcfgInternalTransition> trace(final int unwindings, final IcfgInternalTransition assertion) {
+		final List<IcfgInternalTransition> trace = new ArrayList<>();
+		trace.add(mInit);
+		trace.addAll(Collections.nCopies(unwindings, mIncrement));
+		trace.add(mExit);
+		trace.add(assertion);
+		return trace;
+	}
+
+	private Pdr<IcfgInternalTransition> runPdr(final List<IcfgInternalTransition> trace) {
+		return new Pdr<>(mServices.getLoggingService().getLogger(getClass()), new Preferences(),
+				new Unifier(mPredicateFactory, mScript), trace);
+	}
+
+	/**
+	 * Checks that true, the interpolants and false form a Hoare annotation of the trace.
+	 */
+	private void checkInterpolants(final List<IcfgInternalTransition> trace, final IPredicate[] interpolants) {
+		Assert.assertEquals(trace.size() - 1, interpolants.length);
+		final List<IPredicate> annotation = new ArrayList<>();
+		annotation.add(mPredicateFactory.newPredicate(mScript.term("true")));
+		annotation.addAll(Arrays.asList(interpolants));
+		annotation.add(mPredicateFactory.newPredicate(mScript.term("false")));
+		final IncrementalHoareTripleChecker htc = new IncrementalHoareTripleChecker(mCsToolkit, false);
+		try {
+			for (int i = 0; i < trace.size(); i++) {
+				Assert.assertEquals("position " + i, Validity.VALID,
+						htc.checkInternal(annotation.get(i), trace.get(i), annotation.get(i + 1)));
+			}
+		} finally {
+			htc.releaseLock();
+		}
+	}
+
+	/**
+	 * @param in
+	 *            The inVar of x, or null if x is not read.
+	 * @param out
+	 *            The outVar of x, which is the inVar if x is not modified.
+	 */
+	private UnmodifiableTransFormula transFormula(final IProgramVar x, final TermVariable in, final TermVariable out,
+			final Term formula) {
+		final TransFormulaBuilder tfb = new TransFormulaBuilder(null, null, true, null, true, null, true);
+		if (in != null) {
+			tfb.addInVar(x, in);
+		}
+		tfb.addOutVar(x, out);
+		tfb.setFormula(formula);
+		tfb.setInfeasibility(Infeasibility.NOT_DETERMINED);
+		return tfb.finishConstruction(mMgdScript);
+	}
+
+	/**
+	 * The preferences that {@link Pdr} uses.
+	 */
+	private final class Preferences implements ITraceCheckPreferences {
+		@Override
+		public IToolchainStorage getToolchainStorage() {
+			return mStorage;
+		}
+
+		@Override
+		public IUltimateServiceProvider getUltimateServices() {
+			return mServices;
+		}
+
+		@Override
+		public CfgSmtToolkit getCfgSmtToolkit() {
+			return mCsToolkit;
+		}
+
+		@Override
+		public XnfConversionTechnique getXnfConversionTechnique() {
+			return XnfConversionTechnique.BOTTOM_UP_WITH_LOCAL_SIMPLIFICATION;
+		}
+
+		@Override
+		public SimplificationTechnique getSimplificationTechnique() {
+			return SimplificationTechnique.SIMPLIFY_DDA;
+		}
+
+		@Override
+		public boolean getUseSeparateSolverForTracechecks() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public AssertCodeBlockOrder getAssertCodeBlocksOrder() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public String getPathOfDumpedScript() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean getDumpSmtScriptToFile() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean getUseWeakestPreconditionForPathInvariants() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean getUseAbstractInterpretation() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean getUseVarsFromUnsatCore() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean getUseNonlinearConstraints() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public IIcfg<?> getIcfgContainer() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean getUseLiveVariables() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public UnsatCores getUnsatCores() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean collectInterpolantStatistics() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean computeCounterexample() {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	/**
+	 * Predicate unifier that constructs a new predicate for each term.
+	 */
+	private static final class Unifier implements IPredicateUnifier {
+		private final BasicPredicateFactory mFactory;
+		private final IPredicate mTrue;
+		private final IPredicate mFalse;
+
+		Unifier(final BasicPredicateFactory factory, final Script script) {
+			mFactory = factory;
+			mTrue = factory.newPredicate(script.term("true"));
+			mFalse = factory.newPredicate(script.term("false"));
+		}
+
+		@Override
+		public BasicPredicateFactory getPredicateFactory() {
+			return mFactory;
+		}
+
+		@Override
+		public IPredicate getTruePredicate() {
+			return mTrue;
+		}
+
+		@Override
+		public IPredicate getFalsePredicate() {
+			return mFalse;
+		}
+
+		@Override
+		public IPredicate getOrConstructPredicate(final Term term) {
+			return mFactory.newPredicate(term);
+		}
+
+		@Override
+		public IPredicate getOrConstructPredicate(final IPredicate predicate) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public IPredicate getOrConstructPredicateForConjunction(final Collection<IPredicate> conjunction) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public IPredicate getOrConstructPredicateForDisjunction(final Collection<IPredicate> disjunction) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public String collectPredicateUnifierStatistics() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean isIntricatePredicate(final IPredicate pred) {
+			return false;
+		}
+
+		@Override
+		public Set<IPredicate> cannibalize(final boolean splitNumericEqualities, final Term term) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Set<IPredicate> cannibalizeAll(final boolean splitNumericEqualities,
+				final Collection<IPredicate> predicates) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public IPredicateCoverageChecker getCoverageRelation() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public IStatisticsDataProvider getPredicateUnifierBenchmark() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean isRepresentative(final IPredicate pred) {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
@@ -88,14 +88,12 @@ public abstract class FunctionSymbolFactory {
 		final int hash = Arrays.hashCode(indices)
 			^ Arrays.hashCode(paramSorts) 
 			^ (resultSort == null ? 0 : resultSort.hashCode());
-		for (final FunctionSymbol func : mInstances.iterateHashCode(hash)) {
-			if (Arrays.equals(func.mIndices, indices)
-				&& Arrays.equals(func.mParamSort, paramSorts)
-				&& (resultSort == null
-						|| func.mReturnSort == resultSort)) {
-				return func;
-			}
+		final FunctionSymbol existing =
+			findInstance(hash, indices, paramSorts, resultSort);
+		if (existing != null) {
+			return existing;
 		}
+		final Sort requestedResultSort = resultSort;
 		
 		resultSort = getResultSort(indices, paramSorts, resultSort); 
 		if (resultSort == null) {
@@ -122,10 +120,35 @@ public abstract class FunctionSymbolFactory {
 		final FunctionSymbol func = new FunctionSymbol(
 				mFuncName, indices, paramSorts, resultSort, 
 					defVars, definition, flags); 
-		mInstances.put(hash, func);
+		synchronized (mInstances) {
+			/* The definition was created without holding the lock.  If
+			 * another thread was faster, use its instance.
+			 */
+			final FunctionSymbol other =
+				findInstance(hash, indices, paramSorts, requestedResultSort);
+			if (other != null) {
+				return other;
+			}
+			mInstances.put(hash, func);
+		}
 		return func;
 	}
 	
+	private FunctionSymbol findInstance(int hash, BigInteger[] indices,
+			Sort[] paramSorts, Sort resultSort) {
+		synchronized (mInstances) {
+			for (final FunctionSymbol func : mInstances.iterateHashCode(hash)) {
+				if (Arrays.equals(func.mIndices, indices)
+					&& Arrays.equals(func.mParamSort, paramSorts)
+					&& (resultSort == null
+							|| func.mReturnSort == resultSort)) {
+					return func;
+				}
+			}
+		}
+		return null;
+	}
+	
 	@Override
 	public String toString() {
 		return mFuncName;
@@ -180,15 +180,17 @@ public class SortSymbol {
 		}
 		final UnifyHash<Sort> sortCache = (UnifyHash<Sort>) mSorts;
 		final int hash = Arrays.hashCode(indices) ^ Arrays.hashCode(args);
-		for (final Sort sort : sortCache.iterateHashCode(hash)) {
-			if (Arrays.equals(sort.getArguments(), args)
-				&& Arrays.equals(sort.getIndices(), indices)) {
-				return sort;
+		synchronized (sortCache) {
+			for (final Sort sort : sortCache.iterateHashCode(hash)) {
+				if (Arrays.equals(sort.getArguments(), args)
+					&& Arrays.equals(sort.getIndices(), indices)) {
+					return sort;
+				}
 			}
+			final Sort sort = new Sort(this, indices, args);
+			sortCache.put(hash, sort);
+			return sort;
 		}
-		final Sort sort = new Sort(this, indices, args);
-		sortCache.put(hash, sort);
-		return sort;
 	}
 
 	/**
@@ -26,9 +26,11 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import de.uni_freiburg.informatik.ultimate.util.HashUtils;
 import de.uni_freiburg.informatik.ultimate.util.datastructures.ScopedHashMap;
+import de.uni_freiburg.informatik.ultimate.util.datastructures.StripedUnifyHash;
 import de.uni_freiburg.informatik.ultimate.util.datastructures.UnifyHash;
 
 /**
@@ -42,6 +44,11 @@ import de.uni_freiburg.informatik.ultimate.util.datastructures.UnifyHash;
  * The theory also defines all predefined function symbols required by the logic that was set with setLogic(). It allows
  * creating new function and sort symbols.
  *
+ * Terms, term variables and instances of predefined function symbols and sorts can be created concurrently by several
+ * threads. The unifiers are split into stripes that are locked independently, hence two threads that create the same
+ * term at the same time get the same instance. Declarations, definitions, push and pop must not run concurrently with
+ * other operations on the theory.
+ *
  * @author Jochen Hoenicke
  */
 public class Theory {
@@ -95,19 +102,19 @@ public class Theory {
 	private SortSymbol mBitVecSort, mFloatingPointSort;
 	private Sort mRoundingModeSort;
 	private final HashMap<String, FunctionSymbolFactory> mFunFactory = new HashMap<>();
-	private final UnifyHash<FunctionSymbol> mModelValueCache = new UnifyHash<>();
+	private final StripedUnifyHash<FunctionSymbol> mModelValueCache = new StripedUnifyHash<>(HASH_CONSING_STRIPES);
 
 	private final ScopedHashMap<String, SortSymbol> mDeclaredSorts = new ScopedHashMap<>();
 	private final ScopedHashMap<String, FunctionSymbol> mDeclaredFuns = new ScopedHashMap<>();
 
-	private final UnifyHash<QuantifiedFormula> mQfCache = new UnifyHash<>();
-	private final UnifyHash<LetTerm> mLetCache = new UnifyHash<>();
-	private final UnifyHash<Term> mTermCache = new UnifyHash<>();
-	private final UnifyHash<TermVariable> mTvUnify = new UnifyHash<>();
+	private final StripedUnifyHash<QuantifiedFormula> mQfCache = new StripedUnifyHash<>(HASH_CONSING_STRIPES);
+	private final StripedUnifyHash<LetTerm> mLetCache = new StripedUnifyHash<>(HASH_CONSING_STRIPES);
+	private final StripedUnifyHash<Term> mTermCache = new StripedUnifyHash<>(HASH_CONSING_STRIPES);
+	private final StripedUnifyHash<TermVariable> mTvUnify = new StripedUnifyHash<>(HASH_CONSING_STRIPES);
 	/**
 	 * Cache for bitvector constant function symbols (_ bv123 456).
 	 */
-	private UnifyHash<FunctionSymbol> mBitVecConstCache;
+	private final UnifyHash<FunctionSymbol> mBitVecConstCache = new UnifyHash<>();
 
 	public final ApplicationTerm mTrue, mFalse;
 	public final FunctionSymbol mAnd, mOr, mNot, mImplies, mXor;
@@ -121,10 +128,15 @@ public class Theory {
 	 */
 	private final static String MODEL_VALUE_PATTERN = "@\\d+";
 	private final static String BITVEC_CONST_PATTERN = "bv\\d+";
+	/**
+	 * Number of stripes of the term unifiers, i.e., the number of threads that can create terms without waiting for
+	 * each other.
+	 */
+	private final static int HASH_CONSING_STRIPES = 64;
 
-	private int mTvarCtr = 0;
+	private final AtomicInteger mTvarCtr = new AtomicInteger();
 
-	private int mSkolemCounter = 0;
+	private final AtomicInteger mSkolemCounter = new AtomicInteger();
 
 	private boolean mGlobalDecls;
 
@@ -297,14 +309,17 @@ public class Theory {
 			return f;
 		}
 		final int hash = QuantifiedFormula.hashQuantifier(quant, vars, f);
-		for (final QuantifiedFormula qf : mQfCache.iterateHashCode(hash)) {
-			if (qf.getQuantifier() == quant && qf.getSubformula() == f && Arrays.equals(vars, qf.getVariables())) {
-				return qf;
+		final UnifyHash<QuantifiedFormula> qfCache = mQfCache.getStripe(hash);
+		synchronized (qfCache) {
+			for (final QuantifiedFormula qf : qfCache.iterateHashCode(hash)) {
+				if (qf.getQuantifier() == quant && qf.getSubformula() == f && Arrays.equals(vars, qf.getVariables())) {
+					return qf;
+				}
 			}
+			final QuantifiedFormula qf = new QuantifiedFormula(quant, vars, f, hash);
+			qfCache.put(hash, qf);
+			return qf;
 		}
-		final QuantifiedFormula qf = new QuantifiedFormula(quant, vars, f, hash);
-		mQfCache.put(hash, qf);
-		return qf;
 	}
 
 	public Term exists(final TermVariable[] vars, final Term f) {
@@ -321,15 +336,18 @@ public class Theory {
 			return subform;
 		}
 		final int hash = LetTerm.hashLet(vars, values, subform);
-		for (final LetTerm lt : mLetCache.iterateHashCode(hash)) {
-			if (lt.getSubTerm() == subform && Arrays.equals(lt.getVariables(), vars)
-					&& Arrays.equals(lt.getValues(), values)) {
-				return lt;
+		final UnifyHash<LetTerm> letCache = mLetCache.getStripe(hash);
+		synchronized (letCache) {
+			for (final LetTerm lt : letCache.iterateHashCode(hash)) {
+				if (lt.getSubTerm() == subform && Arrays.equals(lt.getVariables(), vars)
+						&& Arrays.equals(lt.getValues(), values)) {
+					return lt;
+				}
 			}
+			final LetTerm lf = new LetTerm(vars, values, subform, hash);
+			letCache.put(hash, lf);
+			return lf;
 		}
-		final LetTerm lf = new LetTerm(vars, values, subform, hash);
-		mLetCache.put(hash, lf);
-		return lf;
 	}
 
 	public Term let(final TermVariable var, final Term value, final Term subform) {
@@ -416,17 +434,20 @@ public class Theory {
 			}
 		}
 		final int hash = ConstantTerm.hashConstant(value, sort);
-		for (final Term t : mTermCache.iterateHashCode(hash)) {
-			if (t instanceof ConstantTerm) {
-				final ConstantTerm nt = (ConstantTerm) t;
-				if (nt.getSort() == sort && value.equals(nt.getValue())) {
-					return nt;
+		final UnifyHash<Term> termCache = mTermCache.getStripe(hash);
+		synchronized (termCache) {
+			for (final Term t : termCache.iterateHashCode(hash)) {
+				if (t instanceof ConstantTerm) {
+					final ConstantTerm nt = (ConstantTerm) t;
+					if (nt.getSort() == sort && value.equals(nt.getValue())) {
+						return nt;
+					}
 				}
 			}
+			final ConstantTerm nt = new ConstantTerm(value, sort, hash);
+			termCache.put(hash, nt);
+			return nt;
 		}
-		final ConstantTerm nt = new ConstantTerm(value, sort, hash);
-		mTermCache.put(hash, nt);
-		return nt;
 	}
 
 	public Term numeral(final BigInteger num) {
@@ -1361,15 +1382,18 @@ public class Theory {
 
 	private FunctionSymbol getModelValueSymbol(final String name, final Sort sort) {
 		final int hash = HashUtils.hashJenkins(name.hashCode(), sort);
-		for (final FunctionSymbol symb : mModelValueCache.iterateHashCode(hash)) {
-			if (symb.getName().equals(name) && symb.getReturnSort() == sort) {
-				return symb;
+		final UnifyHash<FunctionSymbol> modelValueCache = mModelValueCache.getStripe(hash);
+		synchronized (modelValueCache) {
+			for (final FunctionSymbol symb : modelValueCache.iterateHashCode(hash)) {
+				if (symb.getName().equals(name) && symb.getReturnSort() == sort) {
+					return symb;
+				}
 			}
+			final FunctionSymbol symb = new FunctionSymbol(name, null, EMPTY_SORT_ARRAY, sort, null, null,
+					FunctionSymbol.RETURNOVERLOAD | FunctionSymbol.INTERNAL | FunctionSymbol.MODELVALUE);
+			modelValueCache.put(hash, symb);
+			return symb;
 		}
-		final FunctionSymbol symb = new FunctionSymbol(name, null, EMPTY_SORT_ARRAY, sort, null, null,
-				FunctionSymbol.RETURNOVERLOAD | FunctionSymbol.INTERNAL | FunctionSymbol.MODELVALUE);
-		mModelValueCache.put(hash, symb);
-		return symb;
 	}
 
 	public FunctionSymbol getFunctionWithResult(final String name, final BigInteger[] indices, final Sort resultType,
@@ -1404,20 +1428,19 @@ public class Theory {
 	}
 
 	private FunctionSymbol getBitVecConstant(final String name, final BigInteger[] indices) {
-		if (mBitVecConstCache == null) {
-			mBitVecConstCache = new UnifyHash<>();
-		}
 		final int hash = HashUtils.hashJenkins(name.hashCode(), (Object[]) indices);
-		for (final FunctionSymbol symb : mBitVecConstCache.iterateHashCode(hash)) {
-			if (symb.getName().equals(name) && symb.getIndices()[0].equals(indices[0])) {
-				return symb;
+		synchronized (mBitVecConstCache) {
+			for (final FunctionSymbol symb : mBitVecConstCache.iterateHashCode(hash)) {
+				if (symb.getName().equals(name) && symb.getIndices()[0].equals(indices[0])) {
+					return symb;
+				}
 			}
+			final Sort sort = mBitVecSort.getSort(indices);
+			final FunctionSymbol symb =
+					new FunctionSymbol(name, indices, EMPTY_SORT_ARRAY, sort, null, null, FunctionSymbol.INTERNAL);
+			mBitVecConstCache.put(hash, symb);
+			return symb;
 		}
-		final Sort sort = mBitVecSort.getSort(indices);
-		final FunctionSymbol symb =
-				new FunctionSymbol(name, indices, EMPTY_SORT_ARRAY, sort, null, null, FunctionSymbol.INTERNAL);
-		mBitVecConstCache.put(hash, symb);
-		return symb;
 	}
 
 	public ApplicationTerm term(final FunctionSymbolFactory factory, final Term... parameters) {
@@ -1449,17 +1472,20 @@ public class Theory {
 			parameters = EMPTY_TERM_ARRAY;
 		}
 		final int hash = ApplicationTerm.hashApplication(func, parameters);
-		for (final Term t : mTermCache.iterateHashCode(hash)) {
-			if (t instanceof ApplicationTerm) {
-				final ApplicationTerm app = (ApplicationTerm) t;
-				if (func == app.getFunction() && Arrays.equals(app.getParameters(), parameters)) {
-					return app;
+		final UnifyHash<Term> termCache = mTermCache.getStripe(hash);
+		synchronized (termCache) {
+			for (final Term t : termCache.iterateHashCode(hash)) {
+				if (t instanceof ApplicationTerm) {
+					final ApplicationTerm app = (ApplicationTerm) t;
+					if (func == app.getFunction() && Arrays.equals(app.getParameters(), parameters)) {
+						return app;
+					}
 				}
 			}
+			final ApplicationTerm app = new ApplicationTerm(func, parameters, hash);
+			termCache.put(hash, app);
+			return app;
 		}
-		final ApplicationTerm app = new ApplicationTerm(func, parameters, hash);
-		mTermCache.put(hash, app);
-		return app;
 	}
 
 	/******************** TERM VARIABLES AND VARIABLE TERMS *****************/
@@ -1474,7 +1500,7 @@ public class Theory {
 	 * @return a fresh term variable.
 	 */
 	public TermVariable createFreshTermVariable(final String prefix, final Sort sort) {
-		final String name = "." + prefix + "." + mTvarCtr++;
+		final String name = "." + prefix + "." + mTvarCtr.getAndIncrement();
 		return new TermVariable(name, sort, TermVariable.hashVariable(name, sort));
 	}
 
@@ -1489,14 +1515,17 @@ public class Theory {
 	 */
 	public TermVariable createTermVariable(final String name, final Sort sort) {
 		final int hash = TermVariable.hashVariable(name, sort);
-		for (final TermVariable tv : mTvUnify.iterateHashCode(hash)) {
-			if (tv.getSort().equals(sort) && tv.getName().equals(name)) {
-				return tv;
+		final UnifyHash<TermVariable> tvUnify = mTvUnify.getStripe(hash);
+		synchronized (tvUnify) {
+			for (final TermVariable tv : tvUnify.iterateHashCode(hash)) {
+				if (tv.getSort().equals(sort) && tv.getName().equals(name)) {
+					return tv;
+				}
 			}
+			final TermVariable tv = new TermVariable(name, sort, hash);
+			tvUnify.put(hash, tv);
+			return tv;
 		}
-		final TermVariable tv = new TermVariable(name, sort, hash);
-		mTvUnify.put(hash, tv);
-		return tv;
 	}
 
 	public Term term(final TermVariable var) {
@@ -1507,17 +1536,20 @@ public class Theory {
 
 	public Term annotatedTerm(final Annotation[] annots, final Term sub) {
 		final int hash = AnnotatedTerm.hashAnnotations(annots, sub);
-		for (final Term t : mTermCache.iterateHashCode(hash)) {
-			if (t instanceof AnnotatedTerm) {
-				final AnnotatedTerm annot = (AnnotatedTerm) t;
-				if (sub == annot.getSubterm() && Arrays.equals(annot.getAnnotations(), annots)) {
-					return annot;
+		final UnifyHash<Term> termCache = mTermCache.getStripe(hash);
+		synchronized (termCache) {
+			for (final Term t : termCache.iterateHashCode(hash)) {
+				if (t instanceof AnnotatedTerm) {
+					final AnnotatedTerm annot = (AnnotatedTerm) t;
+					if (sub == annot.getSubterm() && Arrays.equals(annot.getAnnotations(), annots)) {
+						return annot;
+					}
 				}
 			}
+			final AnnotatedTerm annot = new AnnotatedTerm(annots, sub, hash);
+			termCache.put(hash, annot);
+			return annot;
 		}
-		final AnnotatedTerm annot = new AnnotatedTerm(annots, sub, hash);
-		mTermCache.put(hash, annot);
-		return annot;
 	}
 
 	/******************** ASSERTION STACK *********************************/
@@ -1538,7 +1570,7 @@ public class Theory {
 
 	/******************** SKOLEMIZATION SUPPORT ***************************/
 	public FunctionSymbol skolemize(final TermVariable tv) {
-		return new FunctionSymbol("@" + tv.getName() + "_skolem_" + mSkolemCounter++, null, EMPTY_SORT_ARRAY,
+		return new FunctionSymbol("@" + tv.getName() + "_skolem_" + mSkolemCounter.getAndIncrement(), null, EMPTY_SORT_ARRAY,
 				tv.getSort(), null, null, 0);
 	}
 
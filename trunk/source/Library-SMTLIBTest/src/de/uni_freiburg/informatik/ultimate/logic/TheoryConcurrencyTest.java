@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of SMTInterpol.
+ *
+ * SMTInterpol is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SMTInterpol is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SMTInterpol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_freiburg.informatik.ultimate.logic;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Builds the same terms from several threads in one {@link Theory} and checks that all threads get the same instances.
+ */
+@RunWith(JUnit4.class)
+public class TheoryConcurrencyTest {
+
+	private static final int CONSTANTS = 50;
+
+	@Test
+	public void testSameInstancesFromAllThreads() throws InterruptedException, ExecutionException {
+		final Theory theory = createTheory();
+		final List<List<Term>> results = buildConcurrently(theory, 8, 1);
+		final List<Term> first = results.get(0);
+		for (final List<Term> other : results) {
+			Assert.assertEquals(first.size(), other.size());
+			for (int i = 0; i < first.size(); i++) {
+				Assert.assertSame(first.get(i), other.get(i));
+			}
+		}
+		// a single thread that comes later has to get the same instances as well
+		final List<Term> sequential = buildTerms(theory, 1);
+		for (int i = 0; i < first.size(); i++) {
+			Assert.assertSame(first.get(i), sequential.get(i));
+		}
+	}
+
+	static Theory createTheory() {
+		final Theory theory = new Theory(Logics.AUFLIA);
+		final Sort intSort = theory.getNumericSort();
+		for (int i = 0; i < CONSTANTS; i++) {
+			theory.declareFunction("c" + i, Script.EMPTY_SORT_ARRAY, intSort);
+		}
+		theory.declareFunction("f", new Sort[] { intSort }, intSort);
+		return theory;
+	}
+
+	static List<List<Term>> buildConcurrently(final Theory theory, final int threads, final int rounds)
+			throws InterruptedException, ExecutionException {
+		final ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			final List<Future<List<Term>>> futures = new ArrayList<>();
+			for (int i = 0; i < threads; i++) {
+				final Callable<List<Term>> task = () -> buildTerms(theory, rounds);
+				futures.add(executor.submit(task));
+			}
+			final List<List<Term>> result = new ArrayList<>();
+			for (final Future<List<Term>> future : futures) {
+				result.add(future.get());
+			}
+			return result;
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Builds sums, applications, comparisons and quantified formulas over the declared constants. All threads build
+	 * the same terms in the same order, which maximizes the contention on the unifiers.
+	 */
+	static List<Term> buildTerms(final Theory theory, final int rounds) {
+		final Sort intSort = theory.getNumericSort();
+		List<Term> result = null;
+		for (int round = 0; round < rounds; round++) {
+			result = new ArrayList<>();
+			final TermVariable x = theory.createTermVariable("x", intSort);
+			for (int i = 0; i < CONSTANTS; i++) {
+				final Term ci = theory.term("c" + i);
+				final Term cj = theory.term("c" + (i + 1) % CONSTANTS);
+				final Term sum = theory.term("+", ci, cj, theory.numeral(BigInteger.valueOf(i)));
+				final Term app = theory.term("f", theory.term("f", sum));
+				final Term cmp = theory.term("<=", app, theory.term("*", theory.numeral(BigInteger.valueOf(2)), x));
+				result.add(sum);
+				result.add(app);
+				result.add(cmp);
+				result.add(theory.forall(new TermVariable[] { x }, cmp));
+				result.add(theory.let(x, ci, cmp));
+			}
+		}
+		return result;
+	}
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of SMTInterpol.
+ *
+ * SMTInterpol is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SMTInterpol is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SMTInterpol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_freiburg.informatik.ultimate.logic;
+
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Reports how long it takes to build the terms of {@link TheoryConcurrencyTest} in one {@link Theory} depending on the
+ * number of threads that build them at the same time.
+ */
+public class TheoryContentionBenchmark {
+
+	private static final int ROUNDS = 20;
+	private static final int[] THREADS = { 1, 2, 4, 8 };
+
+	public static void main(final String[] args) throws InterruptedException, ExecutionException {
+		for (final int threads : THREADS) {
+			final Theory theory = TheoryConcurrencyTest.createTheory();
+			final long start = System.nanoTime();
+			TheoryConcurrencyTest.buildConcurrently(theory, threads, ROUNDS);
+			final long time = System.nanoTime() - start;
+			System.out.println(String.format("%d threads: %d ms, %d terms", threads, time / 1_000_000,
+					threads * ROUNDS * TheoryConcurrencyTest.buildTerms(theory, 1).size()));
+		}
+	}
+}
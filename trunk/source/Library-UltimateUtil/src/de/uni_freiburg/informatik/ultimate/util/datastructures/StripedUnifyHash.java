@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Util Library.
+ *
+ * The ULTIMATE Util Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Util Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Util Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Util Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Util Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.util.datastructures;
+
+/**
+ * A {@link UnifyHash} that can be used by several threads. The objects are distributed over several stripes by their
+ * hash code, and each stripe is a {@link UnifyHash} that is guarded by its own lock. Threads that unify objects with
+ * different hash codes therefore rarely wait for each other.
+ *
+ * The way to use this class is the same as for {@link UnifyHash}, but the lookup and the insertion of an object have to
+ * happen while holding the lock of the stripe:
+ *
+ * <pre>
+ * public static MyObject create(int a, MyObject child) {
+ * 	int hashcode = a * 0x12345679 + child.hashCode();
+ * 	final UnifyHash&lt;MyObject&gt; stripe = unifyHash.getStripe(hashcode);
+ * 	synchronized (stripe) {
+ * 		for (MyObject o : stripe.iterateHashCode(hashcode)) {
+ * 			if (o.a == a &amp;&amp; o.child == child) {
+ * 				return o;
+ * 			}
+ * 		}
+ * 		MyObject o = new MyObject(a, child);
+ * 		stripe.put(hashcode, o);
+ * 		return o;
+ * 	}
+ * }
+ * </pre>
+ *
+ * Since equal objects have the same hash code, they are always unified in the same stripe, i.e., two threads that
+ * create equal objects at the same time get the same instance.
+ *
+ * @param <E>
+ *            type of the unified objects
+ */
+public class StripedUnifyHash<E> {
+
+	private static final int DEFAULT_STRIPES = 16;
+
+	private final UnifyHash<E>[] mStripes;
+	private final int mMask;
+
+	/**
+	 * Creates a new striped unify hash.
+	 *
+	 * @param stripes
+	 *            The minimal number of stripes, i.e., of threads that can unify objects at the same time. It is rounded
+	 *            up to the next power of two. A single stripe behaves like a synchronized {@link UnifyHash}.
+	 */
+	@SuppressWarnings("unchecked")
+	public StripedUnifyHash(final int stripes) {
+		if (stripes < 1) {
+			throw new IllegalArgumentException("need at least one stripe");
+		}
+		final int size = Integer.highestOneBit(stripes) == stripes ? stripes : Integer.highestOneBit(stripes) << 1;
+		mStripes = (UnifyHash<E>[]) new UnifyHash<?>[size];
+		for (int i = 0; i < size; i++) {
+			mStripes[i] = new UnifyHash<>();
+		}
+		mMask = size - 1;
+	}
+
+	/**
+	 * Creates a new striped unify hash with the default number of stripes.
+	 */
+	public StripedUnifyHash() {
+		this(DEFAULT_STRIPES);
+	}
+
+	/**
+	 * Returns the stripe that is responsible for objects with the given hash code. The stripe may only be accessed
+	 * while holding its lock (i.e., inside a block that is synchronized on the stripe).
+	 */
+	public UnifyHash<E> getStripe(final int hash) {
+		// the hash codes are used modulo the number of buckets inside the stripes, so we mix the higher bits in
+		return mStripes[(hash ^ (hash >>> 16)) & mMask];
+	}
+
+	/**
+	 * The number of stripes.
+	 */
+	public int getNumberOfStripes() {
+		return mStripes.length;
+	}
+
+	/**
+	 * The number of objects that are stored in all stripes.
+	 */
+	public int size() {
+		int result = 0;
+		for (final UnifyHash<E> stripe : mStripes) {
+			synchronized (stripe) {
+				result += stripe.size();
+			}
+		}
+		return result;
+	}
+}
@@ -41,6 +41,9 @@ import de.uni_freiburg.informatik.ultimate.util.datastructures.relation.HashRela
 /**
  * Memory efficient data structure that stores for a given equivalence relation if pairs are in the relation, not in the
  * relation, if the membership status is unknown.
+ * <p>
+ * Copies are cheap: the copy constructor shares the underlying {@link UnionFind} and disequality relation between
+ * original and copy, and each of them makes its own copy before it changes them for the first time (copy-on-write).
  *
  * @author Matthias Heizmann (heizmann@informatik.uni-freiburg.de)
  *
@@ -49,14 +52,20 @@ import de.uni_freiburg.informatik.ultimate.util.datastructures.relation.HashRela
  */
 public class ThreeValuedEquivalenceRelation<E> {
 
-	private final UnionFind<E> mUnionFind;
-	private final HashRelation<E, E> mDisequalities;
+	private UnionFind<E> mUnionFind;
+	private HashRelation<E, E> mDisequalities;
 	private boolean mIsInconsistent;
+	/**
+	 * false iff mUnionFind and mDisequalities may be shared with another instance, i.e., we have to copy them before
+	 * we change them.
+	 */
+	private boolean mOwnsData;
 
 	public ThreeValuedEquivalenceRelation() {
 		mUnionFind = new UnionFind<>();
 		mDisequalities = new HashRelation<>();
 		mIsInconsistent = false;
+		mOwnsData = true;
 	}
 
 	public ThreeValuedEquivalenceRelation(final Comparator<E> elementComparator) {
@@ -64,27 +73,61 @@ public class ThreeValuedEquivalenceRelation<E> {
 		mUnionFind = new UnionFind<>(elementComparator);
 		mDisequalities = new HashRelation<>();
 		mIsInconsistent = false;
+		mOwnsData = true;
 	}
 
+	/**
+	 * Copy constructor. Takes constant time, the data is only copied when either the original or the copy is
+	 * changed.
+	 *
+	 * @param tver
+	 *            the relation to copy
+	 */
 	public ThreeValuedEquivalenceRelation(final ThreeValuedEquivalenceRelation<E> tver) {
-		this.mUnionFind = tver.mUnionFind.clone();
-		this.mDisequalities = new HashRelation<>(tver.mDisequalities);
+		this.mUnionFind = tver.mUnionFind;
+		this.mDisequalities = tver.mDisequalities;
 		this.mIsInconsistent = tver.mIsInconsistent;
+		this.mOwnsData = false;
+		tver.mOwnsData = false;
 		assert sanityCheck();
 	}
 
 	public ThreeValuedEquivalenceRelation(final UnionFind<E> newPartition, final HashRelation<E, E> newDisequalities) {
-		mUnionFind = newPartition.clone();
-		mDisequalities = new HashRelation<>(newDisequalities);
+		this(newPartition.clone(), new HashRelation<>(newDisequalities), true);
+	}
+
+	/**
+	 * Constructor that takes ownership of the given partition and disequalities, i.e., the caller must not use them
+	 * afterwards.
+	 */
+	private ThreeValuedEquivalenceRelation(final UnionFind<E> newPartition, final HashRelation<E, E> newDisequalities,
+			final boolean ownsData) {
+		mUnionFind = newPartition;
+		mDisequalities = newDisequalities;
 		mIsInconsistent = false;
+		mOwnsData = ownsData;
 		assert sanityCheck();
 	}
 
+	/**
+	 * Make sure that mUnionFind and mDisequalities are not shared with another instance. Has to be called before
+	 * each change of them.
+	 */
+	private void ensureOwnsData() {
+		if (mOwnsData) {
+			return;
+		}
+		mUnionFind = mUnionFind.clone();
+		mDisequalities = new HashRelation<>(mDisequalities);
+		mOwnsData = true;
+	}
+
 	/**
 	 * @return true iff elem was not contained in relation before (i.e. we made a change)
 	 */
 	public boolean addElement(final E elem) {
 		if (mUnionFind.find(elem) == null) {
+			ensureOwnsData();
 			mUnionFind.findAndConstructEquivalenceClassIfNeeded(elem);
 			return true;
 		}
@@ -106,6 +149,7 @@ public class ThreeValuedEquivalenceRelation<E> {
 	 */
 	public E removeElement(final E elem, final E newRepChoice) {
 		assert newRepChoice == null || getRepresentative(elem) == getRepresentative(newRepChoice);
+		ensureOwnsData();
 		final E rep = mUnionFind.find(elem);
 		final Set<E> equivalenceClassCopy = new HashSet<>(mUnionFind.getEquivalenceClassMembers(elem));
 		mUnionFind.remove(elem, newRepChoice);
@@ -175,6 +219,7 @@ public class ThreeValuedEquivalenceRelation<E> {
 			return true;
 		}
 
+		ensureOwnsData();
 		mUnionFind.union(elem1, elem2);
 
 		/*
@@ -234,12 +279,18 @@ public class ThreeValuedEquivalenceRelation<E> {
 			return true;
 		}
 
+		ensureOwnsData();
 		mDisequalities.addPair(rep1, rep2);
 		assert sanityCheck();
 		return true;
 	}
 
 	public E getRepresentativeAndAddElementIfNeeded(final E elem) {
+		final E rep = mUnionFind.find(elem);
+		if (rep != null) {
+			return rep;
+		}
+		ensureOwnsData();
 		return mUnionFind.findAndConstructEquivalenceClassIfNeeded(elem);
 	}
 
@@ -390,12 +441,14 @@ public class ThreeValuedEquivalenceRelation<E> {
 
 	public ThreeValuedEquivalenceRelation<E> join(final ThreeValuedEquivalenceRelation<E> other) {
 		final UnionFind<E> newPartition = UnionFind.intersectPartitionBlocks(this.mUnionFind, other.mUnionFind);
-		return new ThreeValuedEquivalenceRelation<>(newPartition, xJoinDisequalities(this, other, newPartition, true));
+		return new ThreeValuedEquivalenceRelation<>(newPartition, xJoinDisequalities(this, other, newPartition, true),
+				true);
 	}
 
 	public ThreeValuedEquivalenceRelation<E> meet(final ThreeValuedEquivalenceRelation<E> other) {
 		final UnionFind<E> newPartition = UnionFind.unionPartitionBlocks(this.mUnionFind, other.mUnionFind);
-		return new ThreeValuedEquivalenceRelation<>(newPartition, xJoinDisequalities(this, other, newPartition, false));
+		return new ThreeValuedEquivalenceRelation<>(newPartition, xJoinDisequalities(this, other, newPartition, false),
+				true);
 	}
 
 	public UnionFind<E> joinPartitions(final ThreeValuedEquivalenceRelation<E> other) {
@@ -463,6 +516,7 @@ public class ThreeValuedEquivalenceRelation<E> {
 	}
 
 	public void transformElements(final Function<E, E> transformer) {
+		ensureOwnsData();
 		mUnionFind.transformElements(transformer);
 
 		final HashRelation<E, E> disequalitiesCopy = new HashRelation<>(mDisequalities);
@@ -515,7 +569,7 @@ public class ThreeValuedEquivalenceRelation<E> {
 						newUf.findAndConstructEquivalenceClassIfNeeded(deq.getValue()));
 			}
 		}
-		return new ThreeValuedEquivalenceRelation<>(newUf, newDisequalities);
+		return new ThreeValuedEquivalenceRelation<>(newUf, newDisequalities, true);
 	}
 
 
@@ -551,7 +605,7 @@ public class ThreeValuedEquivalenceRelation<E> {
 				}
 			}
 		}
-		return new ThreeValuedEquivalenceRelation<>(newUf, newDisequalities);
+		return new ThreeValuedEquivalenceRelation<>(newUf, newDisequalities, true);
 	}
 
 
@@ -585,6 +639,7 @@ public class ThreeValuedEquivalenceRelation<E> {
 	}
 
 	public void removeDisequality(final E elem1, final E elem2) {
+		ensureOwnsData();
 		mDisequalities.removePair(elem1, elem2);
 		mDisequalities.removePair(elem2, elem1);
 	}
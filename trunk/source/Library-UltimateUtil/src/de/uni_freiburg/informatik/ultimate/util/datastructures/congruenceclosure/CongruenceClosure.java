@@ -1835,36 +1835,57 @@ public class CongruenceClosure<ELEM extends ICongruenceClosureElement<ELEM>>
 	/**
 	 * auxiliary data related to the tree where an edge a -> b means that b is an argument to function a
 	 * (this is mostly/only needed for element removal)
+	 * <p>
+	 * The copy constructor shares the relations with the original, both copy them before their first change
+	 * (copy-on-write).
 	 */
 	protected class FuncAppTreeAuxData {
 		// these cannot be managed within the nodes because the nodes are shared between CongruenceClosure instances!
-		private final HashRelation<ELEM, ELEM> mDirectAfPars;
-		private final HashRelation<ELEM, ELEM> mDirectArgPars;
+		private HashRelation<ELEM, ELEM> mDirectAfPars;
+		private HashRelation<ELEM, ELEM> mDirectArgPars;
+
 
+		private HashRelation<ELEM, ELEM> mNodeToDependents;
 
-		private final HashRelation<ELEM, ELEM> mNodeToDependents;
+		private boolean mOwnsData;
 
 		FuncAppTreeAuxData() {
 			mDirectAfPars = new HashRelation<>();
 			mDirectArgPars = new HashRelation<>();
 			mNodeToDependents = new HashRelation<>();
+			mOwnsData = true;
 		}
 
 		FuncAppTreeAuxData(final CongruenceClosure<ELEM>.FuncAppTreeAuxData faAuxData) {
-			mDirectAfPars = new HashRelation<>(faAuxData.mDirectAfPars);
-			mDirectArgPars = new HashRelation<>(faAuxData.mDirectArgPars);
-			mNodeToDependents = new HashRelation<>(faAuxData.mNodeToDependents);
+			mDirectAfPars = faAuxData.mDirectAfPars;
+			mDirectArgPars = faAuxData.mDirectArgPars;
+			mNodeToDependents = faAuxData.mNodeToDependents;
+			mOwnsData = false;
+			faAuxData.mOwnsData = false;
+		}
+
+		private void ensureOwnsData() {
+			if (mOwnsData) {
+				return;
+			}
+			mDirectAfPars = new HashRelation<>(mDirectAfPars);
+			mDirectArgPars = new HashRelation<>(mDirectArgPars);
+			mNodeToDependents = new HashRelation<>(mNodeToDependents);
+			mOwnsData = true;
 		}
 
 		public void addSupportingNode(final ELEM supp, final ELEM elem) {
+			ensureOwnsData();
 			mNodeToDependents.addPair(supp, elem);
 		}
 
 		public void addAfParent(final ELEM elem, final ELEM parent) {
+			ensureOwnsData();
 			mDirectAfPars.addPair(elem, parent);
 		}
 
 		public void addArgParent(final ELEM elem, final ELEM parent) {
+			ensureOwnsData();
 			mDirectArgPars.addPair(elem, parent);
 		}
 
@@ -1877,14 +1898,17 @@ public class CongruenceClosure<ELEM extends ICongruenceClosureElement<ELEM>>
 		}
 
 		public void removeAfParent(final ELEM elem, final ELEM parent) {
+			ensureOwnsData();
 			mDirectAfPars.removePair(elem, parent);
 		}
 
 		public void removeArgParent(final ELEM elem, final ELEM parent) {
+			ensureOwnsData();
 			mDirectArgPars.removePair(elem, parent);
 		}
 
 		public void transformElements(final Function<ELEM, ELEM> elemTransformer) {
+			ensureOwnsData();
 			mDirectAfPars.transformElements(elemTransformer, elemTransformer);
 			mDirectArgPars.transformElements(elemTransformer, elemTransformer);
 
@@ -1904,6 +1928,7 @@ public class CongruenceClosure<ELEM extends ICongruenceClosureElement<ELEM>>
 		}
 
 		public void removeFromNodeToDependents(final ELEM etr) {
+			ensureOwnsData();
 			if (etr.isDependentNonFunctionApplication()) {
 				mNodeToDependents.removeRangeElement(etr);
 			}
@@ -0,0 +1,317 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Util Library.
+ *
+ * The ULTIMATE Util Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Util Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Util Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Util Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Util Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.util.datastructures.poset;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import de.uni_freiburg.informatik.ultimate.util.datastructures.relation.HashRelation;
+
+/**
+ * Hasse diagram of a preorder that grows monotonically. We store only the edges between an element and its direct
+ * neighbors, hence the memory consumption is proportional to the transitive reduction of the order and not to the
+ * (quadratic) order itself. Queries are answered by a search in the diagram.
+ * <p>
+ * Each element is added together with all elements that are known to be greater resp. smaller. Elements that are
+ * equivalent to each other (i.e., greater and smaller) form a cycle in the diagram.
+ *
+ * @param <E>
+ *            type of the elements
+ */
+public class HasseDiagram<E> {
+
+	private final Set<E> mElements = new LinkedHashSet<>();
+	/**
+	 * Pairs (e, e') such that e' is a direct successor (i.e., a greater neighbor) of e.
+	 */
+	private final HashRelation<E, E> mDirectlyGreater = new HashRelation<>();
+	/**
+	 * Inverse of {@link #mDirectlyGreater}.
+	 */
+	private final HashRelation<E, E> mDirectlySmaller = new HashRelation<>();
+
+	/**
+	 * Add a new element.
+	 *
+	 * @param elem
+	 *            the new element
+	 * @param greater
+	 *            elements of this diagram that are greater than or equal to elem; need not be closed upwards
+	 * @param smaller
+	 *            elements of this diagram that are smaller than or equal to elem; need not be closed downwards
+	 */
+	public void addElement(final E elem, final Collection<E> greater, final Collection<E> smaller) {
+		if (mElements.contains(elem)) {
+			throw new IllegalArgumentException("element already contained: " + elem);
+		}
+		final Set<E> greaterClosure = closure(greater, mDirectlyGreater);
+		final Set<E> smallerClosure = closure(smaller, mDirectlySmaller);
+		final List<E> minimalGreater = extremalElements(greaterClosure, mDirectlySmaller);
+		final List<E> maximalSmaller = extremalElements(smallerClosure, mDirectlyGreater);
+		// edges from a maximal smaller to a minimal greater element are now transitive via elem
+		for (final E small : maximalSmaller) {
+			for (final E great : minimalGreater) {
+				if (mDirectlyGreater.removePair(small, great)) {
+					mDirectlySmaller.removePair(great, small);
+				}
+			}
+		}
+		mElements.add(elem);
+		for (final E great : minimalGreater) {
+			mDirectlyGreater.addPair(elem, great);
+			mDirectlySmaller.addPair(great, elem);
+		}
+		for (final E small : maximalSmaller) {
+			mDirectlyGreater.addPair(small, elem);
+			mDirectlySmaller.addPair(elem, small);
+		}
+	}
+
+	public boolean contains(final E elem) {
+		return mElements.contains(elem);
+	}
+
+	public Set<E> getElements() {
+		return Collections.unmodifiableSet(mElements);
+	}
+
+	public int size() {
+		return mElements.size();
+	}
+
+	/**
+	 * @return number of edges in this diagram
+	 */
+	public int getNumberOfEdges() {
+		return mDirectlyGreater.size();
+	}
+
+	/**
+	 * @return true iff lhs is smaller than or equal to rhs
+	 */
+	public boolean isSmallerOrEqual(final E lhs, final E rhs) {
+		checkContained(lhs);
+		checkContained(rhs);
+		if (lhs.equals(rhs)) {
+			return true;
+		}
+		// bidirectional search, we always expand the smaller frontier
+		final Set<E> forwardVisited = new HashSet<>();
+		final Set<E> backwardVisited = new HashSet<>();
+		forwardVisited.add(lhs);
+		backwardVisited.add(rhs);
+		List<E> forwardFrontier = Collections.singletonList(lhs);
+		List<E> backwardFrontier = Collections.singletonList(rhs);
+		while (!forwardFrontier.isEmpty() && !backwardFrontier.isEmpty()) {
+			if (forwardFrontier.size() <= backwardFrontier.size()) {
+				forwardFrontier = expand(forwardFrontier, mDirectlyGreater, forwardVisited, backwardVisited);
+				if (forwardFrontier == null) {
+					return true;
+				}
+			} else {
+				backwardFrontier = expand(backwardFrontier, mDirectlySmaller, backwardVisited, forwardVisited);
+				if (backwardFrontier == null) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return the neighbors of the frontier that were not visited before, or null if some neighbor was visited by the
+	 *         search from the other side
+	 */
+	private static <E> List<E> expand(final List<E> frontier, final HashRelation<E, E> edges, final Set<E> visited,
+			final Set<E> otherVisited) {
+		final List<E> result = new ArrayList<>();
+		for (final E elem : frontier) {
+			for (final E succ : edges.getImage(elem)) {
+				if (otherVisited.contains(succ)) {
+					return null;
+				}
+				if (visited.add(succ)) {
+					result.add(succ);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return all elements that are greater than or equal to elem (including elem)
+	 */
+	public Set<E> getGreaterOrEqual(final E elem) {
+		checkContained(elem);
+		return closure(Collections.singleton(elem), mDirectlyGreater);
+	}
+
+	/**
+	 * @return all elements that are smaller than or equal to elem (including elem)
+	 */
+	public Set<E> getSmallerOrEqual(final E elem) {
+		checkContained(elem);
+		return closure(Collections.singleton(elem), mDirectlySmaller);
+	}
+
+	public Set<E> getDirectlyGreater(final E elem) {
+		return mDirectlyGreater.getImage(elem);
+	}
+
+	public Set<E> getDirectlySmaller(final E elem) {
+		return mDirectlySmaller.getImage(elem);
+	}
+
+	/**
+	 * @return all elements such that each element occurs after all elements that are strictly greater (elements of a
+	 *         cycle occur in arbitrary order)
+	 */
+	public List<E> getTopDownOrder() {
+		final List<E> result = new ArrayList<>(mElements.size());
+		final Set<E> visited = new HashSet<>();
+		// iterative post-order traversal along the edges to greater elements
+		final Deque<E> stack = new ArrayDeque<>();
+		final Deque<Iterator<E>> iterators = new ArrayDeque<>();
+		for (final E root : mElements) {
+			if (!visited.add(root)) {
+				continue;
+			}
+			stack.push(root);
+			iterators.push(mDirectlyGreater.getImage(root).iterator());
+			while (!stack.isEmpty()) {
+				final Iterator<E> it = iterators.peek();
+				if (it.hasNext()) {
+					final E succ = it.next();
+					if (visited.add(succ)) {
+						stack.push(succ);
+						iterators.push(mDirectlyGreater.getImage(succ).iterator());
+					}
+				} else {
+					iterators.pop();
+					result.add(stack.pop());
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return all elements that are reachable from elements of start via edges of the given relation (including the
+	 *         elements of start)
+	 */
+	private Set<E> closure(final Collection<E> start, final HashRelation<E, E> edges) {
+		final Set<E> result = new HashSet<>();
+		final Deque<E> worklist = new ArrayDeque<>();
+		for (final E elem : start) {
+			checkContained(elem);
+			if (result.add(elem)) {
+				worklist.push(elem);
+			}
+		}
+		while (!worklist.isEmpty()) {
+			final E current = worklist.pop();
+			for (final E succ : edges.getImage(current)) {
+				if (result.add(succ)) {
+					worklist.push(succ);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Given a set that is closed with respect to the inverse of edges, return the elements that have no neighbor
+	 * (with respect to edges) in this set. From each cycle of such elements only one element is returned.
+	 */
+	private List<E> extremalElements(final Set<E> closedSet, final HashRelation<E, E> edges) {
+		final List<E> result = new ArrayList<>();
+		final Set<E> coveredByResult = new HashSet<>();
+		for (final E elem : closedSet) {
+			if (coveredByResult.contains(elem)) {
+				continue;
+			}
+			boolean extremal = true;
+			for (final E neighbor : edges.getImage(elem)) {
+				if (closedSet.contains(neighbor) && !isSmallerOrEqualWithin(elem, neighbor, edges, closedSet)) {
+					extremal = false;
+					break;
+				}
+			}
+			if (extremal) {
+				result.add(elem);
+				coveredByResult.addAll(closureWithin(elem, edges, closedSet));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return true iff there is a path from target to source via edges that stays inside the given set, i.e., source
+	 *         and target are on a common cycle
+	 */
+	private static <E> boolean isSmallerOrEqualWithin(final E source, final E target,
+			final HashRelation<E, E> edges, final Set<E> set) {
+		return closureWithin(target, edges, set).contains(source);
+	}
+
+	/**
+	 * @return all elements that are reachable from start via edges without leaving the given set
+	 */
+	private static <E> Set<E> closureWithin(final E start, final HashRelation<E, E> edges, final Set<E> set) {
+		final Set<E> visited = new HashSet<>();
+		final Deque<E> worklist = new ArrayDeque<>();
+		visited.add(start);
+		worklist.push(start);
+		while (!worklist.isEmpty()) {
+			final E current = worklist.pop();
+			for (final E succ : edges.getImage(current)) {
+				if (set.contains(succ) && visited.add(succ)) {
+					worklist.push(succ);
+				}
+			}
+		}
+		return visited;
+	}
+
+	private void checkContained(final E elem) {
+		if (!mElements.contains(elem)) {
+			throw new IllegalArgumentException("unknown element: " + elem);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return mElements.size() + " elements, " + getNumberOfEdges() + " edges";
+	}
+}
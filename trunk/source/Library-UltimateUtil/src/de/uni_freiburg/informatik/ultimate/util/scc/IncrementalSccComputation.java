@@ -0,0 +1,385 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Util Library.
+ *
+ * The ULTIMATE Util Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Util Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Util Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Util Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Util Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.util.scc;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maintains the strongly connected components (SCCs) of a graph to which nodes and edges are only added. In contrast
+ * to {@link SccComputation}, which runs Tarjan's algorithm on a complete graph, this class updates the SCCs after each
+ * new edge.
+ * <p>
+ * We keep a topological order of the SCCs, i.e., each edge between two different SCCs leads from an SCC with a lower
+ * order number to an SCC with a higher order number. If a new edge violates the order, only the SCCs whose order
+ * number lies between the order numbers of the edge's SCCs are searched (algorithm of Pearce and Kelly, "A Dynamic
+ * Topological Sort Algorithm for Directed Acyclic Graphs", JEA 2006). If the new edge closes a cycle, all SCCs on
+ * this cycle are merged into one SCC. Otherwise, the visited SCCs are reordered. Edges that are added in topological
+ * order (which is often the case if the graph is constructed by a forward search) are handled in constant time.
+ * <p>
+ * A node without outgoing edges (e.g., a state that was discovered but not yet explored by a forward search) cannot
+ * be on a cycle and can be placed after all other nodes. We assign an order number to such a node only when its
+ * first outgoing edge is added and store its incoming edges until then. Hence the searches do not visit the frontier
+ * of a forward search.
+ *
+ * @param <NODE>
+ *            Type of objects that represent nodes of the graph.
+ */
+public class IncrementalSccComputation<NODE> {
+
+	private final Map<NODE, Component<NODE>> mComponentOf = new HashMap<>();
+	/**
+	 * All current SCCs, in the order in which they were constructed.
+	 */
+	private final Set<Component<NODE>> mComponents = new LinkedHashSet<>();
+	private int mNextOrder;
+	/**
+	 * Counter that is used to mark components as visited without resetting a flag after each search.
+	 */
+	private int mSearch;
+
+	private int mNumberOfEdges;
+	private int mNumberOfReorderings;
+	private int mNumberOfMerges;
+	/**
+	 * Number of components and edges that were visited by all searches so far.
+	 */
+	private long mSearchEffort;
+
+	/**
+	 * Adds a node that forms a new trivial SCC. Nodes that were already added are ignored.
+	 *
+	 * @return {@code true} iff the node was not already contained
+	 */
+	public boolean addNode(final NODE node) {
+		if (mComponentOf.containsKey(node)) {
+			return false;
+		}
+		final Component<NODE> comp = new Component<>();
+		comp.mNodes.add(node);
+		mComponentOf.put(node, comp);
+		mComponents.add(comp);
+		return true;
+	}
+
+	/**
+	 * Adds an edge and updates the SCCs. Nodes that were not yet added are added first. Adding an edge twice has no
+	 * effect.
+	 */
+	public void addEdge(final NODE source, final NODE target) {
+		addNode(source);
+		addNode(target);
+		mNumberOfEdges++;
+		final Component<NODE> sourceComp = mComponentOf.get(source);
+		final Component<NODE> targetComp = mComponentOf.get(target);
+		if (sourceComp.mPendingPredecessors != null) {
+			activate(sourceComp);
+		}
+		if (sourceComp == targetComp) {
+			// self-loop or edge inside an SCC
+			sourceComp.mIsBall = true;
+			return;
+		}
+		if (targetComp.mPendingPredecessors != null) {
+			targetComp.mPendingPredecessors.add(source);
+			return;
+		}
+		if (!sourceComp.mSuccessors.add(targetComp)) {
+			return;
+		}
+		targetComp.mPredecessors.add(sourceComp);
+		if (sourceComp.mOrder < targetComp.mOrder) {
+			return;
+		}
+		restoreOrder(sourceComp, targetComp);
+	}
+
+	/**
+	 * Assigns an order number to a component that did not have outgoing edges so far. The new order number is larger
+	 * than all other order numbers, hence the stored incoming edges respect the order.
+	 */
+	private void activate(final Component<NODE> comp) {
+		final List<NODE> predecessors = comp.mPendingPredecessors;
+		comp.mPendingPredecessors = null;
+		comp.mOrder = mNextOrder++;
+		for (final NODE pred : predecessors) {
+			final Component<NODE> predComp = mComponentOf.get(pred);
+			assert predComp.mPendingPredecessors == null && predComp.mOrder < comp.mOrder;
+			if (predComp.mSuccessors.add(comp)) {
+				comp.mPredecessors.add(predComp);
+			}
+		}
+	}
+
+	/**
+	 * The new edge from source to target violates the topological order. Let F be the SCCs that are reachable from
+	 * target and whose order number is at most the source's order number, and let B be the SCCs from which source is
+	 * reachable and whose order number is at least the target's order number. If source is in F, the SCCs in the
+	 * intersection M of F and B are exactly the SCCs on a cycle with the new edge and are merged. The order numbers
+	 * of F and B are redistributed such that B\M comes first, then M, and then F\M.
+	 */
+	private void restoreOrder(final Component<NODE> source, final Component<NODE> target) {
+		mNumberOfReorderings++;
+		final int forwardMark = ++mSearch;
+		final List<Component<NODE>> forward = search(target, source.mOrder, true, forwardMark);
+		final int backwardMark = ++mSearch;
+		final List<Component<NODE>> backward = search(source, target.mOrder, false, backwardMark);
+
+		final List<Integer> orders = new ArrayList<>(forward.size() + backward.size());
+		final boolean cycle = source.mInForward == forwardMark;
+		final Comparator<Component<NODE>> byOrder = (c1, c2) -> Integer.compare(c1.mOrder, c2.mOrder);
+		backward.sort(byOrder);
+		forward.sort(byOrder);
+		final List<Component<NODE>> backwardOnly = new ArrayList<>(backward.size());
+		final List<Component<NODE>> cycleComponents = new ArrayList<>();
+		for (final Component<NODE> comp : backward) {
+			orders.add(comp.mOrder);
+			// the backward search overwrote the mark of the components that are in F and in B
+			if (comp.mInForward == forwardMark) {
+				cycleComponents.add(comp);
+			} else {
+				backwardOnly.add(comp);
+			}
+		}
+		final List<Component<NODE>> forwardOnly = new ArrayList<>(forward.size());
+		for (final Component<NODE> comp : forward) {
+			if (comp.mVisited != backwardMark) {
+				orders.add(comp.mOrder);
+				forwardOnly.add(comp);
+			}
+		}
+		Collections.sort(orders);
+		/*
+		 * B\M gets the lowest and F\M the highest order numbers. Hence no order number in B increases and no order
+		 * number in F decreases, which ensures that edges from and to SCCs outside of F and B respect the new order.
+		 * Merged SCCs have only edges from SCCs below and to SCCs above all order numbers of F and B.
+		 */
+		for (int i = 0; i < backwardOnly.size(); i++) {
+			backwardOnly.get(i).mOrder = orders.get(i);
+		}
+		final int offset = orders.size() - forwardOnly.size();
+		for (int i = 0; i < forwardOnly.size(); i++) {
+			forwardOnly.get(i).mOrder = orders.get(offset + i);
+		}
+		if (cycle) {
+			assert cycleComponents.size() > 1;
+			merge(cycleComponents).mOrder = orders.get(backwardOnly.size());
+		} else {
+			assert cycleComponents.isEmpty();
+		}
+	}
+
+	/**
+	 * Depth-first search that visits only components whose order number is at most (forward) or at least (backward)
+	 * the given bound.
+	 */
+	private List<Component<NODE>> search(final Component<NODE> start, final int bound, final boolean forward,
+			final int mark) {
+		final List<Component<NODE>> result = new ArrayList<>();
+		final Deque<Component<NODE>> stack = new ArrayDeque<>();
+		start.mVisited = mark;
+		if (forward) {
+			start.mInForward = mark;
+		}
+		stack.push(start);
+		while (!stack.isEmpty()) {
+			final Component<NODE> comp = stack.pop();
+			result.add(comp);
+			mSearchEffort++;
+			for (final Component<NODE> next : forward ? comp.mSuccessors : comp.mPredecessors) {
+				mSearchEffort++;
+				if (next.mVisited == mark) {
+					continue;
+				}
+				if (forward ? next.mOrder <= bound : next.mOrder >= bound) {
+					next.mVisited = mark;
+					if (forward) {
+						next.mInForward = mark;
+					}
+					stack.push(next);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Merges the given components into the largest of them.
+	 *
+	 * @return the component that represents the union
+	 */
+	private Component<NODE> merge(final List<Component<NODE>> components) {
+		mNumberOfMerges++;
+		Component<NODE> result = components.get(0);
+		for (final Component<NODE> comp : components) {
+			if (comp.mNodes.size() > result.mNodes.size()) {
+				result = comp;
+			}
+		}
+		final Set<Component<NODE>> merged = new HashSet<>(components);
+		for (final Component<NODE> comp : components) {
+			if (comp == result) {
+				continue;
+			}
+			for (final NODE node : comp.mNodes) {
+				mComponentOf.put(node, result);
+			}
+			result.mNodes.addAll(comp.mNodes);
+			for (final Component<NODE> succ : comp.mSuccessors) {
+				succ.mPredecessors.remove(comp);
+				if (!merged.contains(succ)) {
+					succ.mPredecessors.add(result);
+					result.mSuccessors.add(succ);
+				}
+			}
+			for (final Component<NODE> pred : comp.mPredecessors) {
+				pred.mSuccessors.remove(comp);
+				if (!merged.contains(pred)) {
+					pred.mSuccessors.add(result);
+					result.mPredecessors.add(pred);
+				}
+			}
+			mComponents.remove(comp);
+		}
+		result.mSuccessors.removeAll(merged);
+		result.mPredecessors.removeAll(merged);
+		result.mIsBall = true;
+		return result;
+	}
+
+	/**
+	 * @return The nodes of the SCC that contains the given node, {@code null} if the node was not added.
+	 */
+	public Set<NODE> getComponent(final NODE node) {
+		final Component<NODE> comp = mComponentOf.get(node);
+		return comp == null ? null : Collections.unmodifiableSet(comp.mNodes);
+	}
+
+	/**
+	 * @return {@code true} iff both nodes were added and belong to the same SCC.
+	 */
+	public boolean inSameComponent(final NODE node1, final NODE node2) {
+		final Component<NODE> comp = mComponentOf.get(node1);
+		return comp != null && comp == mComponentOf.get(node2);
+	}
+
+	/**
+	 * @return {@code true} iff the node was added and its SCC is a ball, i.e., has at least one edge.
+	 */
+	public boolean isInBall(final NODE node) {
+		final Component<NODE> comp = mComponentOf.get(node);
+		return comp != null && comp.mIsBall;
+	}
+
+	/**
+	 * @return The nodes of all ball SCCs, i.e., SCCs with at least one edge (see {@link SccComputation#getBalls()}).
+	 */
+	public Collection<Set<NODE>> getBalls() {
+		final List<Set<NODE>> result = new ArrayList<>();
+		for (final Component<NODE> comp : mComponents) {
+			if (comp.mIsBall) {
+				result.add(Collections.unmodifiableSet(comp.mNodes));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return The nodes of all SCCs. If SCC a is reachable from SCC b, then SCC a occurs in this list after SCC b
+	 *         (topological order with respect to reachability; note that {@link SccComputation#getSCCs()} uses the
+	 *         reverse order).
+	 */
+	public List<Set<NODE>> getSCCs() {
+		final List<Component<NODE>> sorted = new ArrayList<>(mComponents);
+		sorted.sort((c1, c2) -> Integer.compare(c1.mOrder, c2.mOrder));
+		final List<Set<NODE>> result = new ArrayList<>(sorted.size());
+		for (final Component<NODE> comp : sorted) {
+			result.add(Collections.unmodifiableSet(comp.mNodes));
+		}
+		return result;
+	}
+
+	public int getNumberOfNodes() {
+		return mComponentOf.size();
+	}
+
+	public int getNumberOfComponents() {
+		return mComponents.size();
+	}
+
+	/**
+	 * @return Number of edges that were added so far (including edges that were added twice).
+	 */
+	public int getNumberOfEdges() {
+		return mNumberOfEdges;
+	}
+
+	/**
+	 * @return Number of components and edges that were visited while restoring the topological order. Users that
+	 *         want to bound the overhead of the incremental computation can compare this number with the size of the
+	 *         graph; a computation from scratch visits each node and each edge once.
+	 */
+	public long getSearchEffort() {
+		return mSearchEffort;
+	}
+
+	@Override
+	public String toString() {
+		return mComponents.size() + " SCCs of " + mComponentOf.size() + " nodes and " + mNumberOfEdges
+				+ " added edges, " + mNumberOfReorderings + " reorderings, " + mNumberOfMerges + " merges";
+	}
+
+	/**
+	 * An SCC together with its edges in the graph of SCCs.
+	 */
+	private static final class Component<NODE> {
+		private final Set<NODE> mNodes = new HashSet<>();
+		private final Set<Component<NODE>> mSuccessors = new LinkedHashSet<>();
+		private final Set<Component<NODE>> mPredecessors = new LinkedHashSet<>();
+		/**
+		 * Sources of the incoming edges as long as this component does not have outgoing edges and hence no order
+		 * number, null afterwards.
+		 */
+		private List<NODE> mPendingPredecessors = new ArrayList<>();
+		/**
+		 * Position in the topological order. Components without outgoing edges are placed at the end.
+		 */
+		private int mOrder = Integer.MAX_VALUE;
+		private boolean mIsBall;
+		private int mVisited;
+		private int mInForward;
+	}
+}
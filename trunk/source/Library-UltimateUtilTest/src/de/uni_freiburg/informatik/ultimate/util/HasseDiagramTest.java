@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Util Library.
+ *
+ * The ULTIMATE Util Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Util Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Util Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Util Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Util Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.util.datastructures.poset.HasseDiagram;
+
+/**
+ * Tests for {@link HasseDiagram}.
+ */
+public class HasseDiagramTest {
+
+	/**
+	 * Divisibility order on some numbers, elements are added in an order such that edges become transitive.
+	 */
+	@Test
+	public void testDivisibility() {
+		final HasseDiagram<Integer> diagram = new HasseDiagram<>();
+		final List<Integer> added = new ArrayList<>();
+		for (final int elem : new int[] { 1, 12, 2, 6, 3, 4, 5, 60 }) {
+			final List<Integer> greater = new ArrayList<>();
+			final List<Integer> smaller = new ArrayList<>();
+			for (final int other : added) {
+				if (other % elem == 0) {
+					greater.add(other);
+				}
+				if (elem % other == 0) {
+					smaller.add(other);
+				}
+			}
+			diagram.addElement(elem, greater, smaller);
+			added.add(elem);
+		}
+		for (final int a : added) {
+			for (final int b : added) {
+				assertEquals(a + " | " + b, b % a == 0, diagram.isSmallerOrEqual(a, b));
+			}
+		}
+		// 1-2, 1-3, 1-5, 2-4, 2-6, 3-6, 4-12, 6-12, 12-60, 5-60
+		assertEquals(10, diagram.getNumberOfEdges());
+		assertEquals(new HashSet<>(Arrays.asList(12, 60)), diagram.getGreaterOrEqual(12));
+		assertEquals(new HashSet<>(Arrays.asList(1, 2, 3, 6)), diagram.getSmallerOrEqual(6));
+		checkTopDownOrder(diagram);
+	}
+
+	@Test
+	public void testEquivalentElements() {
+		final HasseDiagram<String> diagram = new HasseDiagram<>();
+		diagram.addElement("top", Collections.emptyList(), Collections.emptyList());
+		diagram.addElement("bottom", Collections.singletonList("top"), Collections.emptyList());
+		diagram.addElement("a", Collections.singletonList("top"), Collections.singletonList("bottom"));
+		diagram.addElement("a'", Arrays.asList("a", "top"), Arrays.asList("a", "bottom"));
+		assertTrue(diagram.isSmallerOrEqual("a", "a'"));
+		assertTrue(diagram.isSmallerOrEqual("a'", "a"));
+		assertTrue(diagram.isSmallerOrEqual("bottom", "a'"));
+		assertFalse(diagram.isSmallerOrEqual("top", "a'"));
+		checkTopDownOrder(diagram);
+	}
+
+	/**
+	 * Compare with the inclusion order on random subsets of a small set.
+	 */
+	@Test
+	public void testRandomSubsets() {
+		final Random random = new Random(42);
+		final HasseDiagram<Integer> diagram = new HasseDiagram<>();
+		final List<Integer> added = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			final int elem = random.nextInt(1 << 8);
+			if (added.contains(elem)) {
+				continue;
+			}
+			final List<Integer> greater = new ArrayList<>();
+			final List<Integer> smaller = new ArrayList<>();
+			for (final int other : added) {
+				if ((elem & ~other) == 0) {
+					greater.add(other);
+				}
+				if ((other & ~elem) == 0) {
+					smaller.add(other);
+				}
+			}
+			diagram.addElement(elem, greater, smaller);
+			added.add(elem);
+		}
+		for (final int a : added) {
+			for (final int b : added) {
+				assertEquals((a & ~b) == 0, diagram.isSmallerOrEqual(a, b));
+			}
+		}
+		checkTopDownOrder(diagram);
+	}
+
+	private static <E> void checkTopDownOrder(final HasseDiagram<E> diagram) {
+		final List<E> order = diagram.getTopDownOrder();
+		assertEquals(diagram.size(), order.size());
+		final Set<E> seen = new HashSet<>();
+		for (final E elem : order) {
+			for (final E greater : diagram.getDirectlyGreater(elem)) {
+				assertTrue(seen.contains(greater) || diagram.isSmallerOrEqual(greater, elem));
+			}
+			seen.add(elem);
+		}
+	}
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE Util Library.
+ *
+ * The ULTIMATE Util Library is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE Util Library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE Util Library. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE Util Library, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE Util Library grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.util.scc.IncrementalSccComputation;
+
+public class IncrementalSccComputationTest {
+
+	@Test
+	public void cycleIsMerged() {
+		final IncrementalSccComputation<Integer> scc = new IncrementalSccComputation<>();
+		scc.addEdge(1, 2);
+		scc.addEdge(2, 3);
+		scc.addEdge(3, 4);
+		Assert.assertEquals(4, scc.getNumberOfComponents());
+		Assert.assertTrue(scc.getBalls().isEmpty());
+		scc.addEdge(3, 2);
+		Assert.assertEquals(3, scc.getNumberOfComponents());
+		Assert.assertTrue(scc.inSameComponent(2, 3));
+		scc.addEdge(4, 1);
+		Assert.assertEquals(1, scc.getNumberOfComponents());
+		Assert.assertEquals(1, scc.getBalls().size());
+	}
+
+	@Test
+	public void selfloopIsBall() {
+		final IncrementalSccComputation<Integer> scc = new IncrementalSccComputation<>();
+		scc.addEdge(1, 2);
+		Assert.assertFalse(scc.isInBall(2));
+		scc.addEdge(2, 2);
+		Assert.assertTrue(scc.isInBall(2));
+		Assert.assertFalse(scc.isInBall(1));
+		Assert.assertEquals(2, scc.getNumberOfComponents());
+	}
+
+	/**
+	 * Compares the SCCs after each edge with the SCCs obtained from the transitive closure.
+	 */
+	@Test
+	public void randomGraphs() {
+		final Random random = new Random(7);
+		for (int round = 0; round < 50; round++) {
+			final int nodes = 1 + random.nextInt(30);
+			final int edges = random.nextInt(3 * nodes);
+			final IncrementalSccComputation<Integer> scc = new IncrementalSccComputation<>();
+			final Map<Integer, Set<Integer>> successors = new HashMap<>();
+			for (int i = 0; i < nodes; i++) {
+				scc.addNode(i);
+				successors.put(i, new HashSet<>());
+			}
+			for (int e = 0; e < edges; e++) {
+				final int source = random.nextInt(nodes);
+				final int target = random.nextInt(nodes);
+				scc.addEdge(source, target);
+				successors.get(source).add(target);
+				checkComponents(scc, successors);
+			}
+		}
+	}
+
+	private static void checkComponents(final IncrementalSccComputation<Integer> scc,
+			final Map<Integer, Set<Integer>> successors) {
+		final Map<Integer, Set<Integer>> reachable = new HashMap<>();
+		for (final Integer node : successors.keySet()) {
+			final Set<Integer> visited = new HashSet<>();
+			final List<Integer> worklist = new ArrayList<>(successors.get(node));
+			while (!worklist.isEmpty()) {
+				final Integer current = worklist.remove(worklist.size() - 1);
+				if (visited.add(current)) {
+					worklist.addAll(successors.get(current));
+				}
+			}
+			reachable.put(node, visited);
+		}
+		int balls = 0;
+		for (final Integer node : successors.keySet()) {
+			final Set<Integer> expected = new HashSet<>();
+			expected.add(node);
+			for (final Integer other : reachable.get(node)) {
+				if (reachable.get(other).contains(node)) {
+					expected.add(other);
+				}
+			}
+			Assert.assertEquals(expected, scc.getComponent(node));
+			Assert.assertEquals(reachable.get(node).contains(node), scc.isInBall(node));
+			if (reachable.get(node).contains(node)) {
+				balls++;
+			}
+		}
+		int nodesInBalls = 0;
+		for (final Set<Integer> ball : scc.getBalls()) {
+			nodesInBalls += ball.size();
+		}
+		Assert.assertEquals(balls, nodesInBalls);
+		// SCCs are returned in topological order
+		final List<Set<Integer>> sccs = scc.getSCCs();
+		for (int i = 0; i < sccs.size(); i++) {
+			for (int j = i + 1; j < sccs.size(); j++) {
+				final Integer later = sccs.get(j).iterator().next();
+				Assert.assertFalse(reachable.get(later).contains(sccs.get(i).iterator().next()));
+			}
+		}
+	}
+}
@@ -91,4 +91,37 @@ public class ThreeValuedEquivalenceRelationTest {
 
 
 	}
+
+	/**
+	 * Copies share their data with the original until one of them is changed; changes must not be visible in the
+	 * other one.
+	 */
+	@Test
+	public void testCopiesAreIndependent() {
+		final ThreeValuedEquivalenceRelation<String> original = new ThreeValuedEquivalenceRelation<>();
+		original.addElement("x");
+		original.addElement("y");
+		original.addElement("z");
+		original.reportDisequality("x", "z");
+
+		final ThreeValuedEquivalenceRelation<String> copy1 = new ThreeValuedEquivalenceRelation<>(original);
+		final ThreeValuedEquivalenceRelation<String> copy2 = new ThreeValuedEquivalenceRelation<>(copy1);
+
+		copy1.reportEquality("x", "y");
+		assertTrue(copy1.getEqualityStatus("y", "z") == EqualityStatus.NOT_EQUAL);
+		assertTrue(original.getEqualityStatus("x", "y") == EqualityStatus.UNKNOWN);
+		assertTrue(copy2.getEqualityStatus("x", "y") == EqualityStatus.UNKNOWN);
+
+		original.removeDisequality("x", "z");
+		assertTrue(original.getEqualityStatus("x", "z") == EqualityStatus.UNKNOWN);
+		assertTrue(copy1.getEqualityStatus("x", "z") == EqualityStatus.NOT_EQUAL);
+		assertTrue(copy2.getEqualityStatus("x", "z") == EqualityStatus.NOT_EQUAL);
+
+		copy2.addElement("a");
+		copy2.removeElement("y", null);
+		assertFalse(original.getAllElements().contains("a"));
+		assertTrue(original.getAllElements().contains("y"));
+		assertTrue(copy1.getAllElements().contains("y"));
+		assertFalse(copy1.getAllElements().contains("a"));
+	}
 }
@@ -191,8 +191,14 @@ public class CfgBuilder {
 				prefs.getBoolean(RcfgPreferenceInitializer.LABEL_DUMP_MAIN_TRACK_BENCHMARK);
 
 		final String logicForExternalSolver = prefs.getString(RcfgPreferenceInitializer.LABEL_EXT_SOLVER_LOGIC);
+		final boolean usePipelinedCommunication =
+				prefs.getBoolean(RcfgPreferenceInitializer.LABEL_PIPELINED_COMMUNICATION);
+		final boolean useSolverProcessPool = prefs.getBoolean(RcfgPreferenceInitializer.LABEL_SOLVER_PROCESS_POOL);
+		final boolean shareTermsWithExternalSolver =
+				prefs.getBoolean(RcfgPreferenceInitializer.LABEL_SHARE_TERMS_WITH_EXTERNAL_SOLVER);
 		final Settings solverSettings = SolverBuilder.constructSolverSettings(filename, solverMode,
-				fakeNonIncrementalScript, commandExternalSolver, dumpSmtScriptToFile, pathOfDumpedScript);
+				fakeNonIncrementalScript, commandExternalSolver, dumpSmtScriptToFile, pathOfDumpedScript,
+				usePipelinedCommunication, useSolverProcessPool, shareTermsWithExternalSolver);
 
 		return SolverBuilder.buildAndInitializeSolver(services, storage, solverMode, solverSettings,
 				dumpUsatCoreTrackBenchmark, dumpMainTrackBenchmark, logicForExternalSolver, "CfgBuilderScript");
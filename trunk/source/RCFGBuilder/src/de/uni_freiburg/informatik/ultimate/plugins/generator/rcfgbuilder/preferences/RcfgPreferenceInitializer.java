@@ -73,6 +73,23 @@ public class RcfgPreferenceInitializer extends UltimatePreferenceInitializer {
 	public static final String LABEL_EXT_SOLVER_LOGIC = "Logic for external solver";
 	public static final String DEF_EXT_SOLVER_LOGIC = "ALL";
 
+	public static final String LABEL_PIPELINED_COMMUNICATION = "Use pipelined communication with external solver";
+	public static final boolean DEF_PIPELINED_COMMUNICATION = false;
+	private static final String DESC_PIPELINED_COMMUNICATION = "Do not wait for the success response of each command "
+			+ "sent to an external solver, but only for the responses of queries like check-sat. Requires that the "
+			+ "solver supports echo.";
+
+	public static final String LABEL_SOLVER_PROCESS_POOL = "Reuse processes of external solver";
+	public static final boolean DEF_SOLVER_PROCESS_POOL = false;
+	private static final String DESC_SOLVER_PROCESS_POOL = "Keep the processes of external solvers that are no longer "
+			+ "used and reset them for the next solver with the same command instead of starting a new process.";
+
+	public static final String LABEL_SHARE_TERMS_WITH_EXTERNAL_SOLVER = "Share subterms with external solver";
+	public static final boolean DEF_SHARE_TERMS_WITH_EXTERNAL_SOLVER = false;
+	private static final String DESC_SHARE_TERMS_WITH_EXTERNAL_SOLVER = "Send subterms that occur several times in "
+			+ "the assertions to an external solver only once, using define-fun and let. Does not apply to external "
+			+ "interpolating solvers.";
+
 	public static final String LABEL_CODE_BLOCK_SIZE = "Size of a code block";
 
 	public static final CodeBlockSize DEF_CODE_BLOCK_SIZE = CodeBlockSize.LoopFreeBlock;
@@ -106,6 +123,13 @@ public class RcfgPreferenceInitializer extends UltimatePreferenceInitializer {
 						PreferenceType.Boolean),
 				new UltimatePreferenceItem<>(LABEL_EXT_SOLVER_COMMAND, DEF_EXT_SOLVER_COMMAND, PreferenceType.String),
 				new UltimatePreferenceItem<>(LABEL_EXT_SOLVER_LOGIC, DEF_EXT_SOLVER_LOGIC, PreferenceType.String),
+				new UltimatePreferenceItem<>(LABEL_PIPELINED_COMMUNICATION, DEF_PIPELINED_COMMUNICATION,
+						DESC_PIPELINED_COMMUNICATION, PreferenceType.Boolean),
+				new UltimatePreferenceItem<>(LABEL_SOLVER_PROCESS_POOL, DEF_SOLVER_PROCESS_POOL,
+						DESC_SOLVER_PROCESS_POOL, PreferenceType.Boolean),
+				new UltimatePreferenceItem<>(LABEL_SHARE_TERMS_WITH_EXTERNAL_SOLVER,
+						DEF_SHARE_TERMS_WITH_EXTERNAL_SOLVER, DESC_SHARE_TERMS_WITH_EXTERNAL_SOLVER,
+						PreferenceType.Boolean),
 				new UltimatePreferenceItem<>(LABEL_BITVECTOR_WORKAROUND, false, PreferenceType.Boolean),
 				new UltimatePreferenceItem<>(LABEL_CODE_BLOCK_SIZE, DEF_CODE_BLOCK_SIZE, PreferenceType.Combo,
 						CodeBlockSize.values()),
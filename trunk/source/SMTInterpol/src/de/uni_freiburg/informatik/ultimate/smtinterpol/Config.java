@@ -55,8 +55,28 @@ public interface Config {
 	public final static double CLS_ACTIVITY_FACTOR = 1.01;
 	/// Backtrack as far as possible
 	public final static boolean DEEP_BACKTRACK = true;
+	/// Learned clauses up to this literal block distance (glue clauses) are never reduced
+	public final static int GLUE_CLAUSE_LBD = 2;
+	/// Number of reducible learned clauses that triggers the first clause database reduction
+	public final static int CLAUSE_REDUCE_INITIAL_LIMIT = 2000;
+	/// Increase of the reduction limit after every clause database reduction
+	public final static int CLAUSE_REDUCE_LIMIT_INCREMENT = 300;
 	/// When to restart
 	public final static int RESTART_FACTOR = 500;
+	/// Number of recent learned clauses whose average LBD is compared to the global average (glucose restarts)
+	public final static int GLUCOSE_LBD_QUEUE_SIZE = 50;
+	/// Restart if the recent average LBD times this factor exceeds the global average (glucose restarts)
+	public final static double GLUCOSE_RESTART_FACTOR = 0.8;
+	/// Number of recent conflicts whose average trail size is used to block restarts (glucose restarts)
+	public final static int GLUCOSE_TRAIL_QUEUE_SIZE = 5000;
+	/// Block a restart if the trail is larger than this factor times the recent average (glucose restarts)
+	public final static double GLUCOSE_BLOCK_FACTOR = 1.4;
+	/// Do not block restarts before this many conflicts (glucose restarts)
+	public final static int GLUCOSE_BLOCK_MIN_CONFLICTS = 10000;
+	/// Number of conflicts before the first rephasing
+	public final static int REPHASE_INITIAL_INTERVAL = 1000;
+	/// Increase of the rephasing interval after every rephasing
+	public final static int REPHASE_INTERVAL_INCREMENT = 1000;
 	/// The default random seed
 	// Currently delays random splits until the 10000th split...
 	public final static long RANDOM_SEED = 11350294L;
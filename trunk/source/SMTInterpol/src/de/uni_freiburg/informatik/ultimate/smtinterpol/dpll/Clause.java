@@ -167,6 +167,13 @@ public class Clause extends SimpleListable<Clause> {
 	 * the activity drops below some point the clause is removed.
 	 */
 	double mActivity;
+	/**
+	 * The literal block distance of a learned clause, i.e., the number of
+	 * different decide levels of its literals.  It is 0 for clauses that are
+	 * not learned.  Clauses with a small literal block distance (glue clauses)
+	 * are never removed by the clause database reduction.
+	 */
+	int mLbd;
 //	int usedTimes;
 	/**
 	 * The stacklevel this clause was introduced.
@@ -63,6 +63,10 @@ public abstract class DPLLAtom extends Literal {
 	int mStackPosition = -1;
 	Literal mDecideStatus;
 	Literal mLastStatus;
+	/**
+	 * The status of this atom on the largest trail since the last rephasing, or null.
+	 */
+	Literal mBestStatus;
 	double  mActivity;
 	public Object  mExplanation;
 	Clause.WatchList mBacktrackWatchers = new Clause.WatchList();
@@ -21,6 +21,7 @@ package de.uni_freiburg.informatik.ultimate.smtinterpol.dpll;
 import java.io.PrintWriter;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -69,6 +70,82 @@ public class DPLLEngine {
 			"Sat check timed out", "Incomplete check used", "User requested cancellation" };
 	private int mCompleteness;
 
+	/**
+	 * The policy that decides when the solver restarts.
+	 */
+	public static enum RestartPolicy {
+		/**
+		 * Restart after a number of conflicts given by the Luby sequence scaled by {@link Config#RESTART_FACTOR}.
+		 */
+		LUBY,
+		/**
+		 * Glucose-style dynamic restarts: restart if the average literal block distance of the recently learned
+		 * clauses is high compared to the global average. Restarts are blocked while the trail is much larger than
+		 * usual, since the solver may be close to a model.
+		 */
+		GLUCOSE
+	}
+
+	/**
+	 * The policy that decides the polarity of decisions.
+	 */
+	public static enum PhasePolicy {
+		/**
+		 * Decide an atom with the polarity it had the last time it was assigned. Atoms that have never been assigned
+		 * use the Jeroslow-Wang bias.
+		 */
+		SAVING,
+		/**
+		 * Phase saving where the saved phases are periodically replaced, alternating between the phases of the
+		 * largest trail seen since the last rephasing, the inverted saved phases, and a fresh Jeroslow-Wang bias.
+		 */
+		REPHASING
+	}
+
+	/**
+	 * The policy that decides which learned clauses are removed.
+	 */
+	public static enum ClauseReductionPolicy {
+		/**
+		 * Remove learned clauses only if their activity drops below {@link Config#CLAUSE_UNLEARN_ACTIVITY}.
+		 */
+		ACTIVITY,
+		/**
+		 * Additionally halve the learned clause database at a restart once the number of reducible clauses exceeds a
+		 * growing limit. Clauses with a high literal block distance are removed first, glue clauses are kept.
+		 */
+		LBD
+	}
+
+	private RestartPolicy mRestartPolicy = RestartPolicy.LUBY;
+	private PhasePolicy mPhasePolicy = PhasePolicy.SAVING;
+	private ClauseReductionPolicy mClauseReductionPolicy = ClauseReductionPolicy.LBD;
+
+	/**
+	 * Ring buffer of the literal block distances of the most recently learned clauses (glucose restarts).
+	 */
+	private final int[] mRecentLbds = new int[Config.GLUCOSE_LBD_QUEUE_SIZE];
+	private int mRecentLbdsSize, mRecentLbdsPos;
+	private long mRecentLbdsSum;
+	/**
+	 * Sum and number of the literal block distances of all learned clauses (glucose restarts).
+	 */
+	private long mTotalLbdsSum, mTotalLbdsCount;
+	/**
+	 * Ring buffer of the trail sizes at the most recent conflicts (glucose restart blocking).
+	 */
+	private final int[] mRecentTrails = new int[Config.GLUCOSE_TRAIL_QUEUE_SIZE];
+	private int mRecentTrailsSize, mRecentTrailsPos;
+	private long mRecentTrailsSum;
+
+	/**
+	 * Size of the largest trail since the last rephasing. The phases of this trail are stored in
+	 * {@link DPLLAtom#mBestStatus}.
+	 */
+	private int mBestTrailSize;
+	private int mNextRephase = Config.REPHASE_INITIAL_INTERVAL;
+	private int mRephaseInterval = Config.REPHASE_INITIAL_INTERVAL;
+
 	/* Incrementality */
 	/**
 	 * Number of active pushs.
@@ -97,6 +174,9 @@ public class DPLLEngine {
 	/* Statistics */
 	private int mConflicts, mDecides, mTProps, mProps;
 	private int mNumSolvedAtoms, mNumClauses, mNumAxiomClauses;
+	private long mNumLearnedLiterals;
+	private int mNumGlueClauses, mNumReductions, mNumReducedClauses;
+	private int mNumRestarts, mNumBlockedRestarts, mNumRephases;
 	SimpleList<Clause> mLearnedClauses = new SimpleList<Clause>();
 	private long mPropTime, mPropClauseTime, mExplainTime;
 	private long mSetTime, mCheckTime, mBacktrackTime;
@@ -108,6 +188,18 @@ public class DPLLEngine {
 	double mAtomScale = 1 - 1.0 / Config.ATOM_ACTIVITY_FACTOR;
 	double mClsScale = 1 - 1.0 / Config.CLS_ACTIVITY_FACTOR;
 
+	/**
+	 * Number of reducible learned clauses (i.e., non-glue clauses with more than two literals) that triggers the next
+	 * reduction of the clause database.
+	 */
+	private int mClauseReduceLimit = Config.CLAUSE_REDUCE_INITIAL_LIMIT;
+	/**
+	 * Marks for the decide levels when computing the literal block distance. A level is marked if its entry equals
+	 * mLbdStamp.
+	 */
+	private int[] mLbdLevelStamps = new int[16];
+	private int mLbdStamp = 0;
+
 	/**
 	 * The list of unit clauses that are not yet decided.
 	 */
@@ -368,6 +460,7 @@ public class DPLLEngine {
 					/* check if clause is too old to keep */
 					if (clause.mActivity < mClsScale * Config.CLAUSE_UNLEARN_ACTIVITY && status == null
 							&& clause.doCleanup(this)) {
+						forgetLearnedClause(clause);
 						clause.removeFromList();
 					} else {
 						/* watch this literal */
@@ -550,14 +643,87 @@ public class DPLLEngine {
 	public void learnClause(final Clause clause) {
 		mAtomScale += 1.0 - 1.0 / Config.ATOM_ACTIVITY_FACTOR;
 		mNumClauses++;
+		mNumLearnedLiterals += clause.getSize();
 		clause.mActivity = mClsScale;// Double.POSITIVE_INFINITY;
 		if (clause.getSize() <= 2) {
 			clause.mActivity = Double.POSITIVE_INFINITY;
 		}
+		clause.mLbd = computeLbd(clause);
+		if (clause.mLbd <= Config.GLUE_CLAUSE_LBD) {
+			mNumGlueClauses++;
+		}
+		if (mRestartPolicy == RestartPolicy.GLUCOSE) {
+			recordLbd(clause.mLbd);
+		}
 		mLearnedClauses.append(clause);
 		watchClause(clause);
 	}
 
+	/**
+	 * Compute the literal block distance of a clause, i.e., the number of different decide levels of its literals. All
+	 * unassigned literals count as one level, since the clause propagates or is a conflict on a single decide level
+	 * once they are set.
+	 *
+	 * @param clause
+	 *            the clause.
+	 * @return the literal block distance (at least 1).
+	 */
+	private int computeLbd(final Clause clause) {
+		if (mLbdLevelStamps.length <= mCurrentDecideLevel) {
+			mLbdLevelStamps = Arrays.copyOf(mLbdLevelStamps, 2 * mCurrentDecideLevel + 1);
+		}
+		if (++mLbdStamp == 0) {
+			Arrays.fill(mLbdLevelStamps, 0);
+			mLbdStamp = 1;
+		}
+		int lbd = 0;
+		boolean hasUnassigned = false;
+		for (final Literal lit : clause.mLiterals) {
+			final DPLLAtom atom = lit.getAtom();
+			if (atom.mDecideStatus == null) {
+				hasUnassigned = true;
+			} else if (mLbdLevelStamps[atom.mDecideLevel] != mLbdStamp) {
+				mLbdLevelStamps[atom.mDecideLevel] = mLbdStamp;
+				lbd++;
+			}
+		}
+		return hasUnassigned ? lbd + 1 : Math.max(lbd, 1);
+	}
+
+	/**
+	 * Update the literal block distance of a learned clause that is used in a conflict explanation. The literal block
+	 * distance only ever decreases; clauses that become glue clauses are protected from now on.
+	 *
+	 * @param clause
+	 *            a clause that is used as explanation. All its literals are assigned.
+	 */
+	private void updateLbd(final Clause clause) {
+		if (clause.mLbd > Config.GLUE_CLAUSE_LBD) {
+			final int lbd = computeLbd(clause);
+			if (lbd < clause.mLbd) {
+				clause.mLbd = lbd;
+				if (lbd <= Config.GLUE_CLAUSE_LBD) {
+					mNumGlueClauses++;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Remove a clause from the learned clause database and update the statistics. The clause is removed from its watch
+	 * lists lazily when they are visited.
+	 *
+	 * @param clause
+	 *            the learned clause.
+	 */
+	private void forgetLearnedClause(final Clause clause) {
+		mNumClauses--;
+		mNumLearnedLiterals -= clause.getSize();
+		if (clause.mLbd > 0 && clause.mLbd <= Config.GLUE_CLAUSE_LBD) {
+			mNumGlueClauses--;
+		}
+	}
+
 	// public void addInstantiationClause(Literal[] lits) {
 	// ++num_insts;
 	// Clause clause = new Clause(lits);
@@ -719,6 +885,7 @@ public class DPLLEngine {
 			/* Do a resolution step with explanation */
 			final Clause expl = getExplanation(lit);
 			expl.mActivity += mClsScale;
+			updateLbd(expl);
 			// expl.usedTimes++;
 			expstacklevel = Math.max(expstacklevel, expl.mStacklevel);
 			if (isProofGenerationEnabled()) {
@@ -1057,6 +1224,129 @@ public class DPLLEngine {
 		return atom.getPreferredStatus();
 	}
 
+	/**
+	 * Compute for all unassigned atoms a preferred polarity according to the Jeroslow-Wang heuristics on the input
+	 * clauses that are not yet satisfied.
+	 */
+	private void computePhaseBias() {
+		final Map<Literal, Double> scores = new HashMap<Literal, Double>();
+		clause_loop: for (final Clause c : mClauses) {
+			double inc = 1.0;
+			for (final Literal lit : c.mLiterals) {
+				final Literal ds = lit.getAtom().getDecideStatus();
+				if (ds == lit) {
+					// clause is satisfied
+					continue clause_loop;
+				}
+				if (ds != lit.negate()) {
+					inc /= 2.0;
+				}
+			}
+			// Here, clause is not satisfied
+			for (final Literal lit : c.mLiterals) {
+				final Literal ds = lit.getAtom().getDecideStatus();
+				if (ds != lit.negate()) {
+					final Double score = scores.get(lit);
+					if (score == null) {
+						scores.put(lit, inc);
+					} else {
+						scores.put(lit, score + inc);
+					}
+				}
+			}
+		}
+		for (final DPLLAtom atom : mAtoms) {
+			final Double pscore = scores.get(atom);
+			final Double nscore = scores.get(atom.negate());
+			final double Pscore = pscore == null ? 0 : pscore;
+			final double Nscore = nscore == null ? 0 : nscore;
+			atom.setPreferredStatus(Pscore > Nscore ? atom : atom.negate());
+		}
+	}
+
+	/**
+	 * Record the literal block distance of a newly learned clause for glucose restarts.
+	 */
+	private void recordLbd(final int lbd) {
+		if (mRecentLbdsSize == mRecentLbds.length) {
+			mRecentLbdsSum -= mRecentLbds[mRecentLbdsPos];
+		} else {
+			mRecentLbdsSize++;
+		}
+		mRecentLbds[mRecentLbdsPos] = lbd;
+		mRecentLbdsSum += lbd;
+		mRecentLbdsPos = (mRecentLbdsPos + 1) % mRecentLbds.length;
+		mTotalLbdsSum += lbd;
+		mTotalLbdsCount++;
+	}
+
+	/**
+	 * Record the size of the trail at a conflict. For glucose restarts this blocks the next restart if the trail is
+	 * considerably larger than usual. For rephasing this remembers the phases of the largest trail.
+	 */
+	private void recordTrail() {
+		final int trailSize = mDecideStack.size();
+		if (mRestartPolicy == RestartPolicy.GLUCOSE) {
+			if (mConflicts > Config.GLUCOSE_BLOCK_MIN_CONFLICTS && mRecentLbdsSize == mRecentLbds.length
+					&& mRecentTrailsSize == mRecentTrails.length
+					&& trailSize > Config.GLUCOSE_BLOCK_FACTOR * mRecentTrailsSum / mRecentTrailsSize) {
+				mRecentLbdsSize = 0;
+				mRecentLbdsSum = 0;
+				mNumBlockedRestarts++;
+			}
+			if (mRecentTrailsSize == mRecentTrails.length) {
+				mRecentTrailsSum -= mRecentTrails[mRecentTrailsPos];
+			} else {
+				mRecentTrailsSize++;
+			}
+			mRecentTrails[mRecentTrailsPos] = trailSize;
+			mRecentTrailsSum += trailSize;
+			mRecentTrailsPos = (mRecentTrailsPos + 1) % mRecentTrails.length;
+		}
+		if (mPhasePolicy == PhasePolicy.REPHASING && trailSize > mBestTrailSize) {
+			mBestTrailSize = trailSize;
+			for (final Literal lit : mDecideStack) {
+				lit.getAtom().mBestStatus = lit;
+			}
+		}
+	}
+
+	/**
+	 * Check if a glucose restart is due, i.e., the recently learned clauses have a high literal block distance compared
+	 * to all learned clauses.
+	 */
+	private boolean isGlucoseRestartDue() {
+		return mRecentLbdsSize == mRecentLbds.length && mRecentLbdsSum * Config.GLUCOSE_RESTART_FACTOR
+				/ mRecentLbdsSize > (double) mTotalLbdsSum / mTotalLbdsCount;
+	}
+
+	/**
+	 * Replace the saved phases of all unassigned atoms. The replacement cycles through the phases of the largest trail, the
+	 * inverted saved phases, the largest trail again, and a fresh Jeroslow-Wang bias.
+	 */
+	private void rephase() {
+		final int mode = mNumRephases % 4; // NOCHECKSTYLE
+		mNumRephases++;
+		if (mode == 3) { // NOCHECKSTYLE
+			computePhaseBias();
+		} else {
+			final boolean invert = mode == 1;
+			for (final DPLLAtom atom : mAtoms) {
+				if (invert) {
+					atom.mLastStatus = atom.mLastStatus.negate();
+				} else if (atom.mBestStatus != null) {
+					atom.mLastStatus = atom.mBestStatus;
+				}
+			}
+		}
+		mBestTrailSize = 0;
+		mRephaseInterval += Config.REPHASE_INTERVAL_INCREMENT;
+		mNextRephase = mConflicts + mRephaseInterval;
+		if (mLogger.isDebugEnabled()) {
+			mLogger.debug("Rephase (mode " + mode + ")");
+		}
+	}
+
 	private static final int luby_super(final int i) {
 		int power;
 
@@ -1086,6 +1376,10 @@ public class DPLLEngine {
 			}
 			mLogger.info("Atoms: " + mNumSolvedAtoms + "/" + (mAtoms.size() + mDecideStack.size()) + " Clauses: "
 					+ mNumClauses + " Axioms: " + mNumAxiomClauses);
+			mLogger.info("Learned literals: " + mNumLearnedLiterals + " Glue: " + mNumGlueClauses + " Reductions: "
+					+ mNumReductions + " Reduced: " + mNumReducedClauses);
+			mLogger.info("Restarts: " + mNumRestarts + " Blocked: " + mNumBlockedRestarts + " Rephases: "
+					+ mNumRephases);
 			for (final ITheory t : mTheories) {
 				t.printStatistics(mLogger);
 			}
@@ -1105,41 +1399,7 @@ public class DPLLEngine {
 		}
 		try {
 			if (Config.INITIAL_PHASE_BIAS_JW) {
-				// Compute for all remaining atoms an initial polarity according
-				// to Jeruslaw Wang
-				final Map<Literal, Double> scores = new HashMap<Literal, Double>();
-				clause_loop: for (final Clause c : mClauses) {
-					double inc = 1.0;
-					for (final Literal lit : c.mLiterals) {
-						final Literal ds = lit.getAtom().getDecideStatus();
-						if (ds == lit) {
-							// clause is satisfied
-							continue clause_loop;
-						}
-						if (ds != lit.negate()) {
-							inc /= 2.0;
-						}
-					}
-					// Here, clause is not satisfied
-					for (final Literal lit : c.mLiterals) {
-						final Literal ds = lit.getAtom().getDecideStatus();
-						if (ds != lit.negate()) {
-							final Double score = scores.get(lit);
-							if (score == null) {
-								scores.put(lit, inc);
-							} else {
-								scores.put(lit, score + inc);
-							}
-						}
-					}
-				}
-				for (final DPLLAtom atom : mAtoms) {
-					final Double pscore = scores.get(atom);
-					final Double nscore = scores.get(atom.negate());
-					final double Pscore = pscore == null ? 0 : pscore;
-					final double Nscore = nscore == null ? 0 : nscore;
-					atom.setPreferredStatus(Pscore > Nscore ? atom : atom.negate());
-				}
+				computePhaseBias();
 			}
 			long lastTime;
 			if (Config.PROFILE_TIME) {
@@ -1210,6 +1470,9 @@ public class DPLLEngine {
 					mPropTime += time - lastTime - mSetTime - mBacktrackTime;
 					lastTime = time - mSetTime - mBacktrackTime;
 				}
+				if (conflict != null) {
+					recordTrail();
+				}
 				if (explain(conflict)) {
 					if (Config.PROFILE_TIME) {
 						time = System.nanoTime();
@@ -1246,7 +1509,13 @@ public class DPLLEngine {
 					}
 					mClsScale *= Double.MIN_NORMAL;
 				}
-				if (--nextRestart == 0) {
+				final boolean restart;
+				if (mRestartPolicy == RestartPolicy.GLUCOSE) {
+					restart = isGlucoseRestartDue();
+				} else {
+					restart = --nextRestart == 0;
+				}
+				if (restart) {
 					final DPLLAtom next = mAtoms.peek();
 					int restartpos = -1;
 					for (int i = mNumSolvedAtoms + mBaseLevel; i < mDecideStack.size(); ++i) {
@@ -1274,6 +1543,9 @@ public class DPLLEngine {
 						}
 					}
 					unlearnClauses(mStacklevel);
+					if (mClauseReductionPolicy == ClauseReductionPolicy.LBD) {
+						reduceLearnedClauses(mClauseReduceLimit);
+					}
 					conflict = finalizeBacktrack();
 					assert conflict == null;
 					mCurrentDecideLevel -= decleveldec;
@@ -1282,6 +1554,14 @@ public class DPLLEngine {
 						t.restart(iteration);
 					}
 					nextRestart = Config.RESTART_FACTOR * luby_super(iteration);
+					mNumRestarts++;
+					if (mRestartPolicy == RestartPolicy.GLUCOSE) {
+						mRecentLbdsSize = 0;
+						mRecentLbdsSum = 0;
+					}
+					if (mPhasePolicy == PhasePolicy.REPHASING && mConflicts >= mNextRephase) {
+						rephase();
+					}
 					if (Config.PRINT_STATISTICS) {
 						mLogger.info("Restart");
 						printStatistics();
@@ -1310,12 +1590,82 @@ public class DPLLEngine {
 			final Clause c = it.next();
 			if (c.mActivity < mClsScale * Config.CLAUSE_UNLEARN_ACTIVITY
 					|| c.mStacklevel > targetstacklevel && c.doCleanup(this)) {
-				mNumClauses--;
+				forgetLearnedClause(c);
 				it.remove();
 			}
 		}
 	}
 
+	/**
+	 * Halve the learned clause database if the number of reducible learned clauses exceeds the given limit. Glue
+	 * clauses, binary clauses, and clauses that are currently the explanation of an assigned literal are kept. The other
+	 * clauses are ordered by their literal block distance and then by their activity, and the worse half is removed.
+	 * After each reduction the limit for the next reduction is increased.
+	 *
+	 * @param limit
+	 *            the number of reducible clauses that has to be exceeded for a reduction.
+	 * @return the number of removed clauses.
+	 */
+	int reduceLearnedClauses(final int limit) {
+		final ArrayList<Clause> candidates = new ArrayList<>();
+		for (final Clause c : mLearnedClauses) {
+			if (c.mLbd > Config.GLUE_CLAUSE_LBD && c.getSize() > 2 && !isExplanation(c)) {
+				candidates.add(c);
+			}
+		}
+		if (candidates.size() <= limit) {
+			return 0;
+		}
+		// worst clauses first: high literal block distance, low activity
+		candidates.sort((c1, c2) -> c1.mLbd != c2.mLbd ? Integer.compare(c2.mLbd, c1.mLbd)
+				: Double.compare(c1.mActivity, c2.mActivity));
+		int removed = 0;
+		for (int i = 0; i < candidates.size() / 2; i++) {
+			final Clause c = candidates.get(i);
+			if (c.doCleanup(this)) {
+				forgetLearnedClause(c);
+				c.removeFromList();
+				removed++;
+			}
+		}
+		mNumReductions++;
+		mNumReducedClauses += removed;
+		mClauseReduceLimit += Config.CLAUSE_REDUCE_LIMIT_INCREMENT;
+		mLogger.debug("Reduced clause database by %d clauses", removed);
+		return removed;
+	}
+
+	private static boolean isExplanation(final Clause clause) {
+		for (final Literal lit : clause.mLiterals) {
+			if (lit.getAtom().mExplanation == clause) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Compute the total and the maximal length of the watch lists of all literals.
+	 *
+	 * @return an array containing the total and the maximal length.
+	 */
+	private long[] computeWatchListLengths() {
+		final long[] result = new long[2];
+		for (final DPLLAtom atom : mAtoms) {
+			addWatchListLengths(atom, result);
+		}
+		for (final Literal lit : mDecideStack) {
+			addWatchListLengths(lit.getAtom(), result);
+		}
+		return result;
+	}
+
+	private static void addWatchListLengths(final DPLLAtom atom, final long[] result) {
+		final int size = atom.mWatchers.size() + atom.negate().mWatchers.size() + atom.mBacktrackWatchers.size();
+		result[0] += size;
+		result[1] = Math.max(result[1], size);
+	}
+
 	private Literal suggestions() {
 		for (final ITheory t : mTheories) {
 			final Literal lit = t.getPropagatedLiteral();
@@ -1636,10 +1986,18 @@ public class DPLLEngine {
 	public Object getStatistics() {
 		// Don't crash the solver one stupid scripts...
 		final Object[] res = mTheories == null ? new Object[1] : new Object[mTheories.length + 1];
+		final long[] watchListLengths = computeWatchListLengths();
 		final Object[] mystats = new Object[][] { { "Conflicts", mConflicts }, { "Propagations", mProps },
 				{ "Theory_propagations", mTProps }, { "Decides", mDecides }, { "Random_splits", mNumRandomSplits },
 				{ "Num_Atoms", mAtoms.size() + mDecideStack.size() }, { "Solved_Atoms", mNumSolvedAtoms },
 				{ "Clauses", mNumClauses }, { "Axioms", mNumAxiomClauses },
+				{ "Restarts", new Object[][] { { "Restarts", mNumRestarts },
+						{ "Blocked_restarts", mNumBlockedRestarts }, { "Rephases", mNumRephases } } },
+				{ "Clause_database", new Object[][] { { "Learned_literals", mNumLearnedLiterals },
+						{ "Glue_clauses", mNumGlueClauses }, { "Reductions", mNumReductions },
+						{ "Reduced_clauses", mNumReducedClauses },
+						{ "Watch_list_length", watchListLengths[0] },
+						{ "Max_watch_list_length", watchListLengths[1] } } },
 				{ "Times", new Object[][] { { "Explain", mExplainTime }, { "Propagation", mPropTime },
 						{ "Set", mSetTime }, { "Check", mCheckTime }, { "Backtrack", mBacktrackTime } } } };
 		res[0] = new Object[] { ":Core", mystats };
@@ -1730,6 +2088,49 @@ public class DPLLEngine {
 		mRandom.setSeed(seed);
 	}
 
+	/**
+	 * Get the number of conflicts since the creation of this engine.
+	 */
+	public int getNumConflicts() {
+		return mConflicts;
+	}
+
+	public int getNumRestarts() {
+		return mNumRestarts;
+	}
+
+	public int getNumReductions() {
+		return mNumReductions;
+	}
+
+	public int getNumReducedClauses() {
+		return mNumReducedClauses;
+	}
+
+		public RestartPolicy getRestartPolicy() {
+		return mRestartPolicy;
+	}
+
+	public void setRestartPolicy(final RestartPolicy policy) {
+		mRestartPolicy = policy;
+	}
+
+	public PhasePolicy getPhasePolicy() {
+		return mPhasePolicy;
+	}
+
+	public void setPhasePolicy(final PhasePolicy policy) {
+		mPhasePolicy = policy;
+	}
+
+	public ClauseReductionPolicy getClauseReductionPolicy() {
+		return mClauseReductionPolicy;
+	}
+
+	public void setClauseReductionPolicy(final ClauseReductionPolicy policy) {
+		mClauseReductionPolicy = policy;
+	}
+
 	public void flipDecisions() {
 		while (mDecideStack.size() > mBaseLevel + mNumSolvedAtoms) {
 			final Literal lit = mDecideStack.remove(mDecideStack.size() - 1);
@@ -20,6 +20,9 @@ package de.uni_freiburg.informatik.ultimate.smtinterpol.option;
 
 import de.uni_freiburg.informatik.ultimate.smtinterpol.Config;
 import de.uni_freiburg.informatik.ultimate.smtinterpol.LogProxy;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.dpll.DPLLEngine.ClauseReductionPolicy;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.dpll.DPLLEngine.PhasePolicy;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.dpll.DPLLEngine.RestartPolicy;
 import de.uni_freiburg.informatik.ultimate.smtinterpol.proof.Transformations.AvailableTransformations;
 import de.uni_freiburg.informatik.ultimate.smtinterpol.smtlib2.SMTInterpol.CheckType;
 
@@ -43,6 +46,9 @@ public class SolverOptions {
 	private final BooleanOption mArrayInterpolation;
 	private final BooleanOption mProofCheckMode;
 	private final EnumOption<CheckType> mSimpCheckType;
+	private final EnumOption<RestartPolicy> mRestartPolicy;
+	private final EnumOption<PhasePolicy> mPhasePolicy;
+	private final EnumOption<ClauseReductionPolicy> mClauseReductionPolicy;
 
 	public static final String TIMEOUT = ":timeout";
 	public static final String RANDOM_SEED = ":random-seed";
@@ -57,6 +63,9 @@ public class SolverOptions {
 	public static final String ARRAY_INTERPOLATION = ":array-interpolation";
 	public static final String CHECK_TYPE = ":check-type";
 	public static final String SIMPLIFY_CHECK_TYPE = ":simplify-check-type";
+	public static final String RESTART_POLICY = ":restart-policy";
+	public static final String PHASE_POLICY = ":phase-policy";
+	public static final String CLAUSE_REDUCTION_POLICY = ":clause-reduction-policy";
 
 	SolverOptions(final OptionMap options, final LogProxy logger) {
 		mTimeout = new LongOption(0, true, "Soft timeout in milliseconds for "
@@ -87,6 +96,19 @@ public class SolverOptions {
 		mSimpCheckType = new EnumOption<CheckType>(CheckType.QUICK, true,
 				CheckType.class, "Strength of checks used by the strong context"
 				+ " simplifier used in the simplify command");
+		mRestartPolicy = new EnumOption<RestartPolicy>(RestartPolicy.LUBY, true,
+				RestartPolicy.class, "When to restart the DPLL search: LUBY uses"
+				+ " a fixed Luby sequence, GLUCOSE restarts dynamically based on"
+				+ " the literal block distance of learned clauses.");
+		mPhasePolicy = new EnumOption<PhasePolicy>(PhasePolicy.SAVING, true,
+				PhasePolicy.class, "Polarity of decisions: SAVING reuses the"
+				+ " last assigned polarity, REPHASING additionally resets the"
+				+ " saved polarities periodically.");
+		mClauseReductionPolicy = new EnumOption<ClauseReductionPolicy>(
+				ClauseReductionPolicy.LBD, true, ClauseReductionPolicy.class,
+				"Which learned clauses are removed: ACTIVITY removes inactive"
+				+ " clauses, LBD additionally halves the clause database"
+				+ " periodically based on the literal block distance.");
 
 		// general standard compliant options
 		options.addOption(":verbosity", new VerbosityOption(logger));
@@ -129,6 +151,9 @@ public class SolverOptions {
 
 		// general non-standard options
 		options.addOption(CHECK_TYPE, mCheckType);
+		options.addOption(RESTART_POLICY, mRestartPolicy);
+		options.addOption(PHASE_POLICY, mPhasePolicy);
+		options.addOption(CLAUSE_REDUCTION_POLICY, mClauseReductionPolicy);
 
 		// simplifier options
 		options.addOption(SIMPLIFY_CHECK_TYPE, mSimpCheckType);
@@ -154,6 +179,10 @@ public class SolverOptions {
 		mArrayInterpolation = (BooleanOption) options.getOption(ARRAY_INTERPOLATION);
 		mProofCheckMode = (BooleanOption) options.getOption(PROOF_CHECK_MODE);
 		mSimpCheckType = (EnumOption<CheckType>) options.getOption(SIMPLIFY_CHECK_TYPE);
+		mRestartPolicy = (EnumOption<RestartPolicy>) options.getOption(RESTART_POLICY);
+		mPhasePolicy = (EnumOption<PhasePolicy>) options.getOption(PHASE_POLICY);
+		mClauseReductionPolicy = (EnumOption<ClauseReductionPolicy>) options
+				.getOption(CLAUSE_REDUCTION_POLICY);
 	}
 
 	public final CheckType getCheckType() {
@@ -208,4 +237,16 @@ public class SolverOptions {
 		return mSimpCheckType.getValue();
 	}
 
+	public final RestartPolicy getRestartPolicy() {
+		return mRestartPolicy.getValue();
+	}
+
+	public final PhasePolicy getPhasePolicy() {
+		return mPhasePolicy.getValue();
+	}
+
+	public final ClauseReductionPolicy getClauseReductionPolicy() {
+		return mClauseReductionPolicy.getValue();
+	}
+
 }
@@ -499,6 +499,9 @@ public class SMTInterpol extends NoopScript {
 		LBool result = LBool.UNKNOWN;
 		mReasonUnknown = ReasonUnknown.INCOMPLETE;
 		mEngine.setRandomSeed(mSolverOptions.getRandomSeed());
+		mEngine.setRestartPolicy(mSolverOptions.getRestartPolicy());
+		mEngine.setPhasePolicy(mSolverOptions.getPhasePolicy());
+		mEngine.setClauseReductionPolicy(mSolverOptions.getClauseReductionPolicy());
 		if (mSolverOptions.getCheckType().check(mEngine)) {
 			if (mEngine.hasModel()) {
 				result = LBool.SAT;
@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of SMTInterpol.
+ *
+ * SMTInterpol is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SMTInterpol is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SMTInterpol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_freiburg.informatik.ultimate.smtinterpol.dpll;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.net.URISyntaxException;
+import java.util.Collection;
+
+import de.uni_freiburg.informatik.ultimate.logic.SMTLIBException;
+import de.uni_freiburg.informatik.ultimate.logic.Script.LBool;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.DefaultLogger;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.LogProxy;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.dpll.DPLLEngine.ClauseReductionPolicy;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.option.OptionMap;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.option.SolverOptions;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.smtlib2.ParseEnvironment;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.smtlib2.SMTInterpol;
+import system.SystemTest;
+
+/**
+ * Runs the SMTInterpolTest corpus once for every clause reduction policy and reports the time spent in check-sat, the
+ * number of conflicts, the number of clause database reductions and removed clauses, and the number of check-sat
+ * results that were not unknown. {@link ClauseReductionPolicy#ACTIVITY} is the policy before the reduction by literal
+ * block distance was introduced.
+ */
+public class ClauseReductionBenchmark {
+
+	/**
+	 * Timeout for a single check-sat call in milliseconds.
+	 */
+	private static final long TIMEOUT = 10_000;
+
+	/**
+	 * SMTInterpol that accumulates the statistics of all check-sat calls.
+	 */
+	private static final class MeasuringSMTInterpol extends SMTInterpol {
+		private long mTime;
+		private long mConflicts;
+		private long mReductions;
+		private long mReducedClauses;
+		private int mSolved;
+
+		MeasuringSMTInterpol(final OptionMap options) {
+			super(options);
+		}
+
+		@Override
+		public LBool checkSat() throws SMTLIBException {
+			return measure(null);
+		}
+
+		@Override
+		public LBool checkSatAssuming(final Term... assumptions) throws SMTLIBException {
+			return measure(assumptions);
+		}
+
+		private LBool measure(final Term[] assumptions) {
+			final DPLLEngine before = getEngine();
+			final int conflicts = before == null ? 0 : before.getNumConflicts();
+			final int reductions = before == null ? 0 : before.getNumReductions();
+			final int reduced = before == null ? 0 : before.getNumReducedClauses();
+			final long start = System.nanoTime();
+			final LBool result = assumptions == null ? super.checkSat() : super.checkSatAssuming(assumptions);
+			mTime += System.nanoTime() - start;
+			final DPLLEngine engine = getEngine();
+			if (engine != null) {
+				final boolean same = engine == before;
+				mConflicts += engine.getNumConflicts() - (same ? conflicts : 0);
+				mReductions += engine.getNumReductions() - (same ? reductions : 0);
+				mReducedClauses += engine.getNumReducedClauses() - (same ? reduced : 0);
+			}
+			if (result != LBool.UNKNOWN) {
+				mSolved++;
+			}
+			return result;
+		}
+	}
+
+	public static void main(final String[] args) throws URISyntaxException, FileNotFoundException {
+		final Collection<File> files = SystemTest.testFiles();
+		for (final ClauseReductionPolicy policy : ClauseReductionPolicy.values()) {
+			long time = 0;
+			long conflicts = 0;
+			long reductions = 0;
+			long reducedClauses = 0;
+			int solved = 0;
+			for (final File file : files) {
+				final MeasuringSMTInterpol solver = run(file, policy);
+				time += solver.mTime;
+				conflicts += solver.mConflicts;
+				reductions += solver.mReductions;
+				reducedClauses += solver.mReducedClauses;
+				solved += solver.mSolved;
+			}
+			System.out.println(String.format("%s: %d ms, %d conflicts, %d reductions, %d reduced clauses, %d solved",
+					policy, time / 1_000_000, conflicts, reductions, reducedClauses, solved));
+		}
+	}
+
+	private static MeasuringSMTInterpol run(final File file, final ClauseReductionPolicy policy)
+			throws FileNotFoundException {
+		final DefaultLogger logger = new DefaultLogger();
+		logger.setLoglevel(LogProxy.LOGLEVEL_OFF);
+		final OptionMap options = new OptionMap(logger, true);
+		final MeasuringSMTInterpol solver = new MeasuringSMTInterpol(options);
+		solver.setOption(SolverOptions.CLAUSE_REDUCTION_POLICY, policy.name());
+		solver.setOption(SolverOptions.TIMEOUT, TIMEOUT);
+		final ParseEnvironment pe = new ParseEnvironment(solver, options) {
+			@Override
+			public void printError(final String message) {
+				// errors are expected for some files of the corpus, e.g., unsupported interpolation queries
+			}
+
+			@Override
+			public void printSuccess() {
+				// only the statistics are of interest
+			}
+
+			@Override
+			public void printResponse(final Object response) {
+				// only the statistics are of interest
+			}
+		};
+		try {
+			pe.parseStream(new FileReader(file), file.getName());
+		} catch (final SMTLIBException ignored) {
+			// count what was solved before the error
+		}
+		return solver;
+	}
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of SMTInterpol.
+ *
+ * SMTInterpol is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SMTInterpol is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SMTInterpol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_freiburg.informatik.ultimate.smtinterpol.dpll;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import de.uni_freiburg.informatik.ultimate.logic.Logics;
+import de.uni_freiburg.informatik.ultimate.logic.Script;
+import de.uni_freiburg.informatik.ultimate.logic.Script.LBool;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.Config;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.DefaultLogger;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.LogProxy;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.dpll.DPLLEngine.ClauseReductionPolicy;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.option.SolverOptions;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.smtlib2.SMTInterpol;
+
+/**
+ * Checks which learned clauses survive a reduction of the clause database and that both clause reduction policies
+ * agree on a problem that needs many conflicts.
+ */
+@RunWith(JUnit4.class)
+public class ClauseReductionTest {
+
+	private static final int ATOMS = 8;
+	private static final int PIGEONS = 8;
+
+	private DPLLEngine mEngine;
+	private DPLLAtom[] mAtoms;
+
+	@Before
+	public void setUp() {
+		final SMTInterpol solver = createSolver(ClauseReductionPolicy.LBD);
+		mEngine = solver.getEngine();
+		mAtoms = new DPLLAtom[ATOMS];
+		for (int i = 0; i < ATOMS; i++) {
+			solver.declareFun("a" + i, Script.EMPTY_SORT_ARRAY, solver.sort("Bool"));
+			mAtoms[i] = new BooleanVarAtom(solver.term("a" + i), 0);
+			mEngine.addAtom(mAtoms[i]);
+		}
+	}
+
+	@Test
+	public void testGlueAndLockedClausesSurvive() {
+		final Clause glue = learn(Config.GLUE_CLAUSE_LBD, 0, 1, 2);
+		final Clause binary = learn(6, 3, 4);
+		final Clause locked = learn(6, 0, 3, 5);
+		// the clause explains the assignment of its first literal
+		mAtoms[0].mExplanation = locked;
+		final Clause good = learn(3, 1, 4, 6);
+		final Clause medium = learn(4, 2, 5, 7);
+		final Clause bad = learn(5, 0, 6, 7);
+		final Clause worst = learn(6, 1, 5, 6);
+
+		// the reducible clauses are good, medium, bad, and worst; the worse half is removed
+		Assert.assertEquals(2, mEngine.reduceLearnedClauses(0));
+		final Set<Clause> learned = getLearnedClauses();
+		Assert.assertTrue("glue clause was removed", learned.contains(glue));
+		Assert.assertTrue("binary clause was removed", learned.contains(binary));
+		Assert.assertTrue("locked clause was removed", learned.contains(locked));
+		Assert.assertTrue(learned.contains(good));
+		Assert.assertTrue(learned.contains(medium));
+		Assert.assertFalse(learned.contains(bad));
+		Assert.assertFalse(learned.contains(worst));
+		Assert.assertEquals(1, mEngine.getNumReductions());
+		Assert.assertEquals(2, mEngine.getNumReducedClauses());
+	}
+
+	@Test
+	public void testActivityBreaksTies() {
+		final Clause active = learn(4, 0, 1, 2);
+		final Clause inactive = learn(4, 3, 4, 5);
+		active.mActivity = 2 * inactive.mActivity + 1;
+		Assert.assertEquals(1, mEngine.reduceLearnedClauses(0));
+		final Set<Clause> learned = getLearnedClauses();
+		Assert.assertTrue(learned.contains(active));
+		Assert.assertFalse(learned.contains(inactive));
+	}
+
+	@Test
+	public void testNoReductionBelowLimit() {
+		learn(4, 0, 1, 2);
+		learn(5, 3, 4, 5);
+		Assert.assertEquals(0, mEngine.reduceLearnedClauses(2));
+		Assert.assertEquals(2, getLearnedClauses().size());
+		Assert.assertEquals(0, mEngine.getNumReductions());
+	}
+
+	/**
+	 * The pigeonhole problem needs enough conflicts to reduce the clause database. Both policies have to prove
+	 * unsatisfiability, and only the LBD policy reduces.
+	 */
+	@Test
+	public void testPoliciesAgreeOnPigeonhole() {
+		for (final ClauseReductionPolicy policy : ClauseReductionPolicy.values()) {
+			final SMTInterpol solver = createSolver(policy);
+			Assert.assertEquals(policy.toString(), LBool.UNSAT, solvePigeonhole(solver, PIGEONS));
+			final DPLLEngine engine = solver.getEngine();
+			if (policy == ClauseReductionPolicy.LBD) {
+				Assert.assertTrue("no reduction", engine.getNumReductions() > 0);
+			} else {
+				Assert.assertEquals(0, engine.getNumReductions());
+			}
+			solver.exit();
+		}
+	}
+
+	private Clause learn(final int lbd, final int... atoms) {
+		final Literal[] literals = new Literal[atoms.length];
+		for (int i = 0; i < atoms.length; i++) {
+			literals[i] = mAtoms[atoms[i]];
+		}
+		final Clause clause = new Clause(literals, 0);
+		mEngine.learnClause(clause);
+		clause.mLbd = lbd;
+		return clause;
+	}
+
+	private Set<Clause> getLearnedClauses() {
+		final Set<Clause> result = new HashSet<>();
+		for (final Clause c : mEngine.mLearnedClauses) {
+			result.add(c);
+		}
+		return result;
+	}
+
+	private static SMTInterpol createSolver(final ClauseReductionPolicy policy) {
+		final DefaultLogger logger = new DefaultLogger();
+		logger.setLoglevel(LogProxy.LOGLEVEL_OFF);
+		final SMTInterpol solver = new SMTInterpol(logger);
+		solver.setOption(SolverOptions.CLAUSE_REDUCTION_POLICY, policy.name());
+		solver.setLogic(Logics.QF_UF);
+		return solver;
+	}
+
+	private static LBool solvePigeonhole(final SMTInterpol solver, final int pigeons) {
+		final int holes = pigeons - 1;
+		final Term[][] inHole = new Term[pigeons][holes];
+		for (int p = 0; p < pigeons; p++) {
+			for (int h = 0; h < holes; h++) {
+				solver.declareFun("p" + p + "h" + h, Script.EMPTY_SORT_ARRAY, solver.sort("Bool"));
+				inHole[p][h] = solver.term("p" + p + "h" + h);
+			}
+			solver.assertTerm(solver.term("or", inHole[p]));
+		}
+		for (int h = 0; h < holes; h++) {
+			for (int p = 0; p < pigeons; p++) {
+				for (int q = p + 1; q < pigeons; q++) {
+					solver.assertTerm(solver.term("not", solver.term("and", inHole[p][h], inHole[q][h])));
+				}
+			}
+		}
+		return solver.checkSat();
+	}
+}
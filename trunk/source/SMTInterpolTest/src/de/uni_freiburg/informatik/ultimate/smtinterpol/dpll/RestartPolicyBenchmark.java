@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of SMTInterpol.
+ *
+ * SMTInterpol is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SMTInterpol is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SMTInterpol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_freiburg.informatik.ultimate.smtinterpol.dpll;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.net.URISyntaxException;
+import java.util.Collection;
+
+import de.uni_freiburg.informatik.ultimate.logic.SMTLIBException;
+import de.uni_freiburg.informatik.ultimate.logic.Script.LBool;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.DefaultLogger;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.LogProxy;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.dpll.DPLLEngine.PhasePolicy;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.dpll.DPLLEngine.RestartPolicy;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.option.OptionMap;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.option.SolverOptions;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.smtlib2.ParseEnvironment;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.smtlib2.SMTInterpol;
+import system.SystemTest;
+
+/**
+ * Runs the SMTInterpolTest corpus once for every combination of restart and phase policy and reports the time spent
+ * in check-sat, the number of conflicts and restarts, and the number of check-sat results that were not unknown.
+ * {@link RestartPolicyTest} checks that the policies agree on the results.
+ */
+public class RestartPolicyBenchmark {
+
+	/**
+	 * Timeout for a single check-sat call in milliseconds.
+	 */
+	private static final long TIMEOUT = 10_000;
+
+	/**
+	 * SMTInterpol that accumulates the statistics of all check-sat calls.
+	 */
+	private static final class MeasuringSMTInterpol extends SMTInterpol {
+		private long mTime;
+		private long mConflicts;
+		private long mRestarts;
+		private int mSolved;
+
+		MeasuringSMTInterpol(final OptionMap options) {
+			super(options);
+		}
+
+		@Override
+		public LBool checkSat() throws SMTLIBException {
+			return measure(null);
+		}
+
+		@Override
+		public LBool checkSatAssuming(final Term... assumptions) throws SMTLIBException {
+			return measure(assumptions);
+		}
+
+		private LBool measure(final Term[] assumptions) {
+			final DPLLEngine before = getEngine();
+			final int conflicts = before == null ? 0 : before.getNumConflicts();
+			final int restarts = before == null ? 0 : before.getNumRestarts();
+			final long start = System.nanoTime();
+			final LBool result = assumptions == null ? super.checkSat() : super.checkSatAssuming(assumptions);
+			mTime += System.nanoTime() - start;
+			final DPLLEngine engine = getEngine();
+			if (engine != null) {
+				mConflicts += engine == before ? engine.getNumConflicts() - conflicts : engine.getNumConflicts();
+				mRestarts += engine == before ? engine.getNumRestarts() - restarts : engine.getNumRestarts();
+			}
+			if (result != LBool.UNKNOWN) {
+				mSolved++;
+			}
+			return result;
+		}
+	}
+
+	public static void main(final String[] args) throws URISyntaxException, FileNotFoundException {
+		final Collection<File> files = SystemTest.testFiles();
+		for (final RestartPolicy restart : RestartPolicy.values()) {
+			for (final PhasePolicy phase : PhasePolicy.values()) {
+				long time = 0;
+				long conflicts = 0;
+				long restarts = 0;
+				int solved = 0;
+				for (final File file : files) {
+					final MeasuringSMTInterpol solver = run(file, restart, phase);
+					time += solver.mTime;
+					conflicts += solver.mConflicts;
+					restarts += solver.mRestarts;
+					solved += solver.mSolved;
+				}
+				System.out.println(String.format("%s/%s: %d ms, %d conflicts, %d restarts, %d solved", restart, phase,
+						time / 1_000_000, conflicts, restarts, solved));
+			}
+		}
+	}
+
+	private static MeasuringSMTInterpol run(final File file, final RestartPolicy restart, final PhasePolicy phase)
+			throws FileNotFoundException {
+		final DefaultLogger logger = new DefaultLogger();
+		logger.setLoglevel(LogProxy.LOGLEVEL_OFF);
+		final OptionMap options = new OptionMap(logger, true);
+		final MeasuringSMTInterpol solver = new MeasuringSMTInterpol(options);
+		solver.setOption(SolverOptions.RESTART_POLICY, restart.name());
+		solver.setOption(SolverOptions.PHASE_POLICY, phase.name());
+		solver.setOption(SolverOptions.TIMEOUT, TIMEOUT);
+		final ParseEnvironment pe = new ParseEnvironment(solver, options) {
+			@Override
+			public void printError(final String message) {
+				// errors are expected for some files of the corpus, e.g., unsupported interpolation queries
+			}
+
+			@Override
+			public void printSuccess() {
+				// only the statistics are of interest
+			}
+
+			@Override
+			public void printResponse(final Object response) {
+				// only the statistics are of interest
+			}
+		};
+		try {
+			pe.parseStream(new FileReader(file), file.getName());
+		} catch (final SMTLIBException ignored) {
+			// count what was solved before the error
+		}
+		return solver;
+	}
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of SMTInterpol.
+ *
+ * SMTInterpol is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * SMTInterpol is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with SMTInterpol.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.uni_freiburg.informatik.ultimate.smtinterpol.dpll;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import de.uni_freiburg.informatik.ultimate.logic.Logics;
+import de.uni_freiburg.informatik.ultimate.logic.Script;
+import de.uni_freiburg.informatik.ultimate.logic.Script.LBool;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.DefaultLogger;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.LogProxy;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.dpll.DPLLEngine.PhasePolicy;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.dpll.DPLLEngine.RestartPolicy;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.option.SolverOptions;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.smtlib2.SMTInterpol;
+
+/**
+ * Checks that all combinations of restart and phase policy agree on the satisfiability of small propositional
+ * problems and that the models they find satisfy the problems.
+ */
+@RunWith(JUnit4.class)
+public class RestartPolicyTest {
+
+	private static final int RANDOM_VARIABLES = 150;
+	private static final double RANDOM_CLAUSE_RATIO = 4.26;
+	private static final int RANDOM_INSTANCES = 6;
+	private static final int PIGEONS = 8;
+
+	/**
+	 * A CNF over the variables 0 ... n-1. A positive literal v is encoded as v + 1, the negative literal as -(v + 1).
+	 */
+	private static final class Cnf {
+		private final String mName;
+		private final int mVariables;
+		private final List<int[]> mClauses;
+
+		Cnf(final String name, final int variables) {
+			mName = name;
+			mVariables = variables;
+			mClauses = new ArrayList<>();
+		}
+	}
+
+	@Test
+	public void testRandom3Sat() {
+		final Random random = new Random(42);
+		for (int i = 0; i < RANDOM_INSTANCES; i++) {
+			checkAgreement(createRandom3Sat("random" + i, random), null, false);
+		}
+	}
+
+	@Test
+	public void testPigeonhole() {
+		checkAgreement(createPigeonhole(PIGEONS), LBool.UNSAT, true);
+	}
+
+	/**
+	 * @param expected
+	 *            the expected result, or null if the policies only have to agree
+	 * @param needsRestarts
+	 *            true if every combination of policies has to restart at least once on this problem, i.e., the test
+	 *            actually exercises the policies
+	 */
+	private static void checkAgreement(final Cnf cnf, final LBool expected, final boolean needsRestarts) {
+		LBool reference = expected;
+		for (final RestartPolicy restart : RestartPolicy.values()) {
+			for (final PhasePolicy phase : PhasePolicy.values()) {
+				final String policies = restart + "/" + phase;
+				final SMTInterpol solver = createSolver(restart, phase);
+				final LBool result = solve(solver, cnf, policies);
+				if (needsRestarts) {
+					Assert.assertTrue(cnf.mName + " " + policies + " did not restart",
+							solver.getEngine().getNumRestarts() > 0);
+				}
+				solver.exit();
+				Assert.assertTrue(cnf.mName + " " + policies + " is unknown", result != LBool.UNKNOWN);
+				if (reference == null) {
+					reference = result;
+				}
+				Assert.assertEquals(cnf.mName + " " + policies, reference, result);
+			}
+		}
+	}
+
+	private static SMTInterpol createSolver(final RestartPolicy restart, final PhasePolicy phase) {
+		final DefaultLogger logger = new DefaultLogger();
+		logger.setLoglevel(LogProxy.LOGLEVEL_OFF);
+		final SMTInterpol solver = new SMTInterpol(logger);
+		solver.setOption(":produce-models", true);
+		solver.setOption(SolverOptions.RESTART_POLICY, restart.name());
+		solver.setOption(SolverOptions.PHASE_POLICY, phase.name());
+		solver.setLogic(Logics.QF_UF);
+		return solver;
+	}
+
+	private static LBool solve(final SMTInterpol solver, final Cnf cnf, final String policies) {
+		final Term[] variables = new Term[cnf.mVariables];
+		for (int i = 0; i < cnf.mVariables; i++) {
+			solver.declareFun("v" + i, Script.EMPTY_SORT_ARRAY, solver.sort("Bool"));
+			variables[i] = solver.term("v" + i);
+		}
+		final Term[] clauses = new Term[cnf.mClauses.size()];
+		for (int i = 0; i < clauses.length; i++) {
+			final int[] clause = cnf.mClauses.get(i);
+			final Term[] literals = new Term[clause.length];
+			for (int j = 0; j < clause.length; j++) {
+				final Term variable = variables[Math.abs(clause[j]) - 1];
+				literals[j] = clause[j] > 0 ? variable : solver.term("not", variable);
+			}
+			clauses[i] = literals.length == 1 ? literals[0] : solver.term("or", literals);
+			solver.assertTerm(clauses[i]);
+		}
+		final LBool result = solver.checkSat();
+		if (result == LBool.SAT) {
+			final Term problem = solver.term("and", clauses);
+			Assert.assertEquals(cnf.mName + " " + policies + ": model violates the problem", solver.term("true"),
+					solver.getValue(new Term[] { problem }).get(problem));
+		}
+		return result;
+	}
+
+	/**
+	 * Random 3-SAT close to the phase transition, i.e., about half of the instances are satisfiable and they need
+	 * enough conflicts to restart.
+	 */
+	private static Cnf createRandom3Sat(final String name, final Random random) {
+		final Cnf cnf = new Cnf(name, RANDOM_VARIABLES);
+		final int clauses = (int) (RANDOM_VARIABLES * RANDOM_CLAUSE_RATIO);
+		for (int i = 0; i < clauses; i++) {
+			final int[] clause = new int[3];
+			for (int j = 0; j < clause.length; j++) {
+				final int literal = random.nextInt(RANDOM_VARIABLES) + 1;
+				clause[j] = random.nextBoolean() ? literal : -literal;
+			}
+			cnf.mClauses.add(clause);
+		}
+		return cnf;
+	}
+
+	/**
+	 * The pigeonhole problem with the given number of pigeons and one hole less, which is unsatisfiable and needs
+	 * exponentially many conflicts.
+	 */
+	private static Cnf createPigeonhole(final int pigeons) {
+		final int holes = pigeons - 1;
+		final Cnf cnf = new Cnf("pigeonhole" + pigeons, pigeons * holes);
+		for (int p = 0; p < pigeons; p++) {
+			final int[] clause = new int[holes];
+			for (int h = 0; h < holes; h++) {
+				clause[h] = p * holes + h + 1;
+			}
+			cnf.mClauses.add(clause);
+		}
+		for (int h = 0; h < holes; h++) {
+			for (int p = 0; p < pigeons; p++) {
+				for (int q = p + 1; q < pigeons; q++) {
+					cnf.mClauses.add(new int[] { -(p * holes + h + 1), -(q * holes + h + 1) });
+				}
+			}
+		}
+		return cnf;
+	}
+}
@@ -30,10 +30,9 @@ package de.uni_freiburg.informatik.ultimate.smtsolver.external;
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.io.OutputStreamWriter;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 
@@ -53,6 +52,19 @@ import de.uni_freiburg.informatik.ultimate.logic.Term;
 /**
  * This class runs an external SMT solver. The main methods are <code>input</code>, which gives an input to the SMT
  * solver, and the <code>parse...</code> methods, which parse the output from the SMT solver.
+ * <p>
+ * In pipelined mode, the solver runs with <code>:print-success false</code>. Commands that only answer with
+ * <code>success</code> are written to a buffer and {@link #parseSuccess()} does not wait for the solver. Instead, each
+ * such command is followed by an <code>(echo ...)</code> with a fresh sentinel. The buffer is only flushed if a
+ * response is actually needed (e.g., for check-sat, get-value or get-interpolants) and the sentinels of all pending
+ * commands are read first, s.t. an error is still attributed to the command that caused it. The solver has to support
+ * the echo command.
+ * <p>
+ * If a {@link SolverProcessPool} is given, the process is leased from the pool and returned to it on {@link #exit()}.
+ * Leased processes may have received set-option and set-logic commands from their previous user. These commands are not
+ * sent again if they coincide with our commands; otherwise the process is reset and the coinciding prefix is replayed.
+ * <p>
+ * Responses are parsed by the {@link ResponseParser} if possible and by the CUP generated {@link Parser} otherwise.
  *
  * @author Oday Jubran
  * @author Daniel Dietsch (dietsch@informatik.uni-freiburg.de)
@@ -60,12 +72,14 @@ import de.uni_freiburg.informatik.ultimate.logic.Term;
  */
 class Executor {
 
+	private SolverProcess mSolverProcess;
 	private MonitoredProcess mProcess;
 	private Lexer mLexer;
 	private BufferedWriter mWriter;
 	private InputStream mStdErr;
 
 	private final Script mScript;
+	private final ResponseParser mResponseParser;
 	private final String mSolverCmd;
 	private final ILogger mLogger;
 	private final IUltimateServiceProvider mServices;
@@ -73,61 +87,247 @@ class Executor {
 	private final String mName;
 
 	private static final String sEofErrorMessage = "Received EOF on stdin.";
+	private static final String SENTINEL_PREFIX = "ultimate-sync-";
+	/**
+	 * Maximal number of commands whose responses are not read yet. The sentinels are written to the stdout pipe of the
+	 * solver, which blocks the solver (and eventually us) if nobody reads it.
+	 */
+	private static final int MAX_PENDING_COMMANDS = 1000;
+
+	private final boolean mPipelined;
+	/**
+	 * Commands that were sent in pipelined mode but whose sentinel was not read yet.
+	 */
+	private final Deque<PendingCommand> mPendingCommands;
+	private String mLastCommand;
+	private long mSentinelCounter;
+
+	private final SolverProcessPool mPool;
+	/**
+	 * Number of commands of the preamble of {@link #mSolverProcess} that coincide with the commands we sent so far.
+	 */
+	private int mPreambleMatched;
+	/**
+	 * True iff the last input was a preamble command that was not sent, because the solver already received it.
+	 */
+	private boolean mSkipNextSuccess;
 
 	Executor(final String solverCommand, final Script script, final ILogger logger,
 			final IUltimateServiceProvider services, final IToolchainStorage storage, final String solverName)
 			throws IOException {
+		this(solverCommand, script, logger, services, storage, solverName, false);
+	}
+
+	Executor(final String solverCommand, final Script script, final ILogger logger,
+			final IUltimateServiceProvider services, final IToolchainStorage storage, final String solverName,
+			final boolean pipelined) throws IOException {
+		this(solverCommand, script, logger, services, storage, solverName, pipelined, null);
+	}
+
+	/**
+	 * @param pool
+	 *            pool from which the solver process is leased, or null if the executor should start its own process
+	 */
+	Executor(final String solverCommand, final Script script, final ILogger logger,
+			final IUltimateServiceProvider services, final IToolchainStorage storage, final String solverName,
+			final boolean pipelined, final SolverProcessPool pool) throws IOException {
+		mPool = pool;
+		mPipelined = pipelined;
+		mPendingCommands = new ArrayDeque<>();
 		mServices = services;
 		mStorage = storage;
 		mSolverCmd = solverCommand;
 		mScript = script;
+		mResponseParser = new ResponseParser(script);
 		mLogger = logger;
 		mName = solverName;
 		createProcess();
 	}
 
 	private void createProcess() throws IOException {
-		mProcess = MonitoredProcess.exec(mSolverCmd, "(exit)", mServices, mStorage);
-		mProcess.setTerminationAfterToolchainTimeout(20 * 1000);
+		if (mPool == null) {
+			setSolverProcess(SolverProcess.start(mSolverCmd, mPipelined, mServices, mStorage));
+		} else {
+			setSolverProcess(mPool.lease(mSolverCmd, mPipelined, mServices, mStorage));
+		}
+		mPendingCommands.clear();
+		mPreambleMatched = 0;
+		mSkipNextSuccess = false;
+		if (!mSolverProcess.isConfigured()) {
+			configureProcess();
+		}
+	}
 
-		if (mProcess == null) {
+	private void setSolverProcess(final SolverProcess solverProcess) {
+		if (solverProcess == null) {
 			final String errorMsg = getLogStringPrefix() + " Could not create process, terminating... ";
 			mLogger.fatal(errorMsg);
 			throw new IllegalStateException(errorMsg);
 		}
+		mSolverProcess = solverProcess;
+		mProcess = solverProcess.getProcess();
+		mStdErr = solverProcess.getErrorStream();
+		mLexer = solverProcess.getLexer();
+		mWriter = solverProcess.getWriter();
+	}
 
-		final OutputStream stdin = mProcess.getOutputStream();
-		final InputStream stdout = mProcess.getInputStream();
-
-		mStdErr = mProcess.getErrorStream();
-
-		final MySymbolFactory symfactory = new MySymbolFactory();
-		mLexer = new Lexer(new InputStreamReader(stdout));
-		mLexer.setSymbolFactory(symfactory);
+	private void configureProcess() {
+		if (mPipelined) {
+			// solvers differ in whether they acknowledge this command with success, the sentinel covers both cases
+			send("(set-option :print-success false)");
+			parseSuccess();
+			synchronize();
+		} else {
+			send("(set-option :print-success true)");
+			parseSuccess();
+		}
+		mSolverProcess.setConfigured(true);
+	}
 
-		mWriter = new BufferedWriter(new OutputStreamWriter(stdin));
+	public void input(final String in) {
+		if (mPool != null && skipPreambleCommand(in)) {
+			mSkipNextSuccess = true;
+			return;
+		}
+		send(in);
+	}
 
-		input("(set-option :print-success true)");
-		parseSuccess();
+	/**
+	 * Send a command whose text is written directly into the pipe to the solver, such that it does not have to be built
+	 * as a String first.
+	 *
+	 * @param description
+	 *            a short description of the command that is used in log and error messages
+	 */
+	public void input(final ICommandWriter command, final String description) {
+		if (mLogger.isDebugEnabled()) {
+			final StringBuilder sb = new StringBuilder();
+			try {
+				command.write(sb);
+			} catch (final IOException e) {
+				throw new AssertionError(e);
+			}
+			input(sb.toString());
+			return;
+		}
+		if (mPool != null) {
+			// a command that is not a set-option or set-logic command, it is never skipped
+			skipPreambleCommand(description);
+		}
+		mLastCommand = description;
+		try {
+			command.write(mWriter);
+		} catch (final IOException e) {
+			throw connectionBroken(e);
+		} catch (final RuntimeException e) {
+			if (e.getCause() instanceof IOException) {
+				// PrintTerm wraps the exceptions of the Appendable
+				throw connectionBroken((IOException) e.getCause());
+			}
+			throw e;
+		}
+		write("", !mPipelined);
 	}
 
-	public void input(final String in) {
+	private void send(final String in) {
 		if (mLogger.isDebugEnabled()) {
 			mLogger.debug(getLogStringPrefix() + " " + in);
 		}
+		mLastCommand = in;
+		write(in, !mPipelined);
+	}
+
+	/**
+	 * Compare a command with the preamble of the leased process. If the process already received this command, it is
+	 * skipped. If the command contradicts the preamble, the process is reset first.
+	 *
+	 * @return true iff the command must not be sent to the solver
+	 */
+	private boolean skipPreambleCommand(final String in) {
+		final boolean isPreambleCommand = isPreambleCommand(in);
+		if (!isPreambleCommand && in.startsWith("(set-info ")) {
+			return false;
+		}
+		final List<String> preamble = mSolverProcess.getPreamble();
+		if (mPreambleMatched < preamble.size()) {
+			if (isPreambleCommand && preamble.get(mPreambleMatched).equals(in)) {
+				++mPreambleMatched;
+				mPool.reportSkippedPreambleCommand();
+				return true;
+			}
+			resetLeasedProcess();
+		}
+		if (isPreambleCommand) {
+			mSolverProcess.addToPreamble(in);
+			++mPreambleMatched;
+		}
+		return false;
+	}
+
+	private static boolean isPreambleCommand(final String in) {
+		return in.startsWith("(set-logic ")
+				|| in.startsWith("(set-option ") && !in.startsWith("(set-option :print-success ");
+	}
+
+	/**
+	 * Bring the leased process back into the state after its start and replay the part of its preamble that coincides
+	 * with our commands. If the process does not acknowledge the reset, it is replaced by a new process.
+	 */
+	private void resetLeasedProcess() {
+		mPool.reportPreambleMismatch();
+		synchronize();
+		final List<String> matched = new ArrayList<>(mSolverProcess.getPreamble().subList(0, mPreambleMatched));
+		if (mPool.resetProcess(mSolverProcess)) {
+			mSolverProcess.clearPreamble();
+			mSolverProcess.setConfigured(false);
+		} else {
+			try {
+				setSolverProcess(mPool.startReplacement(mSolverProcess, mServices, mStorage));
+			} catch (final IOException e) {
+				throw connectionBroken(e);
+			}
+		}
+		configureProcess();
+		for (final String command : matched) {
+			mSolverProcess.addToPreamble(command);
+			send(command);
+			parseSuccess();
+		}
+	}
+
+	private void write(final String in, final boolean flush) {
 		try {
 			mWriter.write(in + "\n");
+			if (flush) {
+				mWriter.flush();
+			}
+		} catch (final IOException e) {
+			throw connectionBroken(e);
+		}
+	}
+
+	private void flush() {
+		try {
 			mWriter.flush();
 		} catch (final IOException e) {
-			if (mServices.getProgressMonitorService().continueProcessingRoot()) {
-				throw new SMTLIBException(getLogStringPrefix() + " Connection to SMT solver broken", e);
-			}
-			throw new ToolchainCanceledException(getClass());
+			throw connectionBroken(e);
+		}
+	}
+
+	private RuntimeException connectionBroken(final IOException e) {
+		if (mServices.getProgressMonitorService().continueProcessingRoot()) {
+			return new SMTLIBException(getLogStringPrefix() + " Connection to SMT solver broken", e);
 		}
+		return new ToolchainCanceledException(getClass());
 	}
 
 	public void exit() {
-		input("(exit)");
+		if (mPool != null) {
+			releaseProcess();
+			return;
+		}
+		mPendingCommands.clear();
+		write("(exit)", true);
 		// 2015-11-12 Matthias: Do not parse "success" after exit.
 		// Some solvers do return success (Barcelogic, CVC4, Z3) some solvers
 		// don't do it (Princess, SMTInterpol).
@@ -137,6 +337,20 @@ class Executor {
 
 	}
 
+	private void releaseProcess() {
+		boolean inSync = true;
+		try {
+			// errors of pending commands do not matter anymore, but all responses have to be read
+			readPendingResponses();
+		} catch (final RuntimeException e) {
+			inSync = false;
+		}
+		mPendingCommands.clear();
+		mPool.release(mSolverProcess, inSync);
+		mSolverProcess = null;
+		mProcess = null;
+	}
+
 	public static List<Symbol> parseSexpr(final Lexer lexer) throws IOException {
 		final ArrayList<Symbol> result = new ArrayList<>();
 		int parenLevel = 0;
@@ -168,6 +382,12 @@ class Executor {
 	}
 
 	public void reset() throws IOException {
+		if (mPool != null) {
+			releaseProcess();
+			createProcess();
+			return;
+		}
+		mPendingCommands.clear();
 		try {
 			mWriter.write("(exit)\n");
 			mWriter.flush();
@@ -179,25 +399,22 @@ class Executor {
 	}
 
 	public Symbol parse(final int what) {
-		final List<Symbol> answer = readAnswer();
-		String stderr = "";
-
-		// clear the std error buffer as it blocks when it runs full
-		try {
-			if (mStdErr.available() > 0) {
-				final StringBuilder sb = new StringBuilder();
-				while (mStdErr.available() > 0) {
-					final int i = mStdErr.read();
-					final char c = (char) i;
-					sb.append(c);
-				}
-				stderr = sb.toString();
-				mLogger.warn(getLogStringPrefix() + " " + generateStderrMessage(stderr));
-			}
-		} catch (final IOException e) {
-			// we don't care what happens on stdErr
+		final RuntimeException pendingError = readPendingResponses();
+		final Symbol result = parseAnswer(what, readAnswer());
+		if (pendingError != null) {
+			// the response of this command was consumed, the communication with the solver is in sync again
+			throw pendingError;
 		}
+		return result;
+	}
 
+	private Symbol parseAnswer(final int what, final List<Symbol> answer) {
+		final String stderr = readStderr();
+		final Symbol result = mResponseParser.parse(what, answer);
+		if (result != null) {
+			return result;
+		}
+		// the response is not supported by the hand-written parser (e.g., it is an error), use the generated one
 		final Parser parser = new Parser();
 		parser.setScript(mScript);
 		answer.add(0, new Symbol(what));
@@ -218,8 +435,125 @@ class Executor {
 		}
 	}
 
+	/**
+	 * In pipelined mode, write all buffered commands to the solver and read their responses up to the last sentinel.
+	 *
+	 * @throws SMTLIBException
+	 *             if one of the pending commands caused an error
+	 * @throws UnsupportedOperationException
+	 *             if the solver does not support one of the pending commands
+	 */
+	public void synchronize() {
+		if (!mPipelined) {
+			return;
+		}
+		final RuntimeException pendingError = readPendingResponses();
+		if (pendingError != null) {
+			throw pendingError;
+		}
+	}
+
+	/**
+	 * Reads the responses of all pending commands.
+	 *
+	 * @return An exception that describes the first error the solver reported for a pending command, or null if there
+	 *         was none.
+	 */
+	private RuntimeException readPendingResponses() {
+		if (!mPipelined) {
+			return null;
+		}
+		flush();
+		RuntimeException firstError = null;
+		while (!mPendingCommands.isEmpty()) {
+			final PendingCommand pending = mPendingCommands.poll();
+			while (true) {
+				final List<Symbol> answer = readAnswer();
+				if (isSentinel(answer, pending.mSentinel)) {
+					break;
+				}
+				if (answer.get(0).sym == LexerSymbols.EOF) {
+					mPendingCommands.clear();
+					throw new SMTLIBException(getLogStringPrefix() + sEofErrorMessage + " Last command: "
+							+ pending.mCommand + " " + generateStderrMessage(readStderr()));
+				}
+				if (answer.size() == 1 && answer.get(0).sym == LexerSymbols.SUCCESS) {
+					continue;
+				}
+				try {
+					parseAnswer(LexerSymbols.SUCCESS, answer);
+				} catch (final UnsupportedOperationException ex) {
+					if (firstError == null) {
+						firstError = new UnsupportedOperationException(
+								getLogStringPrefix() + " Unsupported command " + pending.mCommand, ex);
+					}
+				} catch (final SMTLIBException ex) {
+					if (firstError == null) {
+						firstError = new SMTLIBException(
+								getLogStringPrefix() + " Error for command " + pending.mCommand + ": " + ex.getMessage(),
+								ex);
+					}
+				}
+			}
+		}
+		return firstError;
+	}
+
+	/**
+	 * Checks whether the answer is the echo of the given sentinel. SMT-LIB 2.6 requires solvers to echo the string
+	 * literal including its quotes, but some solvers (e.g., Z3) print only its content, which we read as a symbol.
+	 */
+	static boolean isSentinel(final List<Symbol> answer, final String sentinel) {
+		if (answer.size() != 1) {
+			return false;
+		}
+		final Symbol symbol = answer.get(0);
+		return (symbol.sym == LexerSymbols.STRING || symbol.sym == LexerSymbols.SYMBOL) && sentinel.equals(symbol.value);
+	}
+
+	private String readStderr() {
+		String stderr = "";
+		// clear the std error buffer as it blocks when it runs full
+		try {
+			if (mStdErr.available() > 0) {
+				final StringBuilder sb = new StringBuilder();
+				while (mStdErr.available() > 0) {
+					final int i = mStdErr.read();
+					final char c = (char) i;
+					sb.append(c);
+				}
+				stderr = sb.toString();
+				mLogger.warn(getLogStringPrefix() + " " + generateStderrMessage(stderr));
+			}
+		} catch (final IOException e) {
+			// we don't care what happens on stdErr
+		}
+		return stderr;
+	}
+
+	/**
+	 * Read the response of a command that answers with success. In pipelined mode, the response is not read now but
+	 * a sentinel is written that allows us to read it at the next synchronization.
+	 */
 	public void parseSuccess() {
-		parse(LexerSymbols.SUCCESS);
+		if (mSkipNextSuccess) {
+			mSkipNextSuccess = false;
+			return;
+		}
+		if (!mPipelined) {
+			parse(LexerSymbols.SUCCESS);
+			return;
+		}
+		final String sentinel = SENTINEL_PREFIX + mSentinelCounter++;
+		write("(echo \"" + sentinel + "\")", false);
+		mPendingCommands.add(new PendingCommand(mLastCommand, sentinel));
+		if (mPendingCommands.size() >= MAX_PENDING_COMMANDS) {
+			synchronize();
+		}
+	}
+
+	public boolean isPipelined() {
+		return mPipelined;
 	}
 
 	public LBool parseCheckSatResult() {
@@ -270,4 +604,25 @@ class Executor {
 		return "stderr output: " + stderr;
 	}
 
+	/**
+	 * Writes the text of a command.
+	 */
+	@FunctionalInterface
+	interface ICommandWriter {
+		void write(Appendable out) throws IOException;
+	}
+
+	/**
+	 * A command that was sent in pipelined mode together with the sentinel that follows it.
+	 */
+	private static final class PendingCommand {
+		private final String mCommand;
+		private final String mSentinel;
+
+		PendingCommand(final String command, final String sentinel) {
+			mCommand = command;
+			mSentinel = sentinel;
+		}
+	}
+
 }
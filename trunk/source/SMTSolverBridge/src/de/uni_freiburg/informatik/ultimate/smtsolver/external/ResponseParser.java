@@ -0,0 +1,508 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE SMTSolverBridge.
+ *
+ * The ULTIMATE SMTSolverBridge is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE SMTSolverBridge is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE SMTSolverBridge. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE SMTSolverBridge, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE SMTSolverBridge grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.smtsolver.external;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.github.jhoenicke.javacup.runtime.Symbol;
+
+import de.uni_freiburg.informatik.ultimate.logic.SMTLIBException;
+import de.uni_freiburg.informatik.ultimate.logic.Script;
+import de.uni_freiburg.informatik.ultimate.logic.Script.LBool;
+import de.uni_freiburg.informatik.ultimate.logic.Sort;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.logic.TermVariable;
+import de.uni_freiburg.informatik.ultimate.util.datastructures.ScopedHashMap;
+
+/**
+ * Hand-written parser for the responses of an external solver that occur most often, i.e., success, check-sat,
+ * get-value, get-assertions, get-unsat-core, get-interpolants and single terms. The CUP generated {@link Parser} is
+ * constructed anew for each response and reduces each token separately, which dominates the time that is needed to
+ * read large models and interpolants.
+ * <p>
+ * The terms are built directly with the {@link Script} of the {@link Executor}, hence the results coincide with the
+ * results of the {@link Parser}. Responses that are not supported here (e.g., errors, unsupported, annotated terms) are
+ * not handled; {@link #parse(int, List)} returns null and the caller falls back to the {@link Parser}, which also
+ * produces the error messages. Terms are parsed without recursion, s.t. deeply nested terms do not overflow the stack.
+ */
+final class ResponseParser {
+
+	private static final UnsupportedResponseException UNSUPPORTED_RESPONSE = new UnsupportedResponseException();
+
+	private final Script mScript;
+	private ScopedHashMap<String, TermVariable> mLocalVars;
+
+	private List<Symbol> mAnswer;
+	private int mPosition;
+	/**
+	 * Name and indices of the identifier that was parsed last by {@link #parseIdentifier()}.
+	 */
+	private String mIdentifierName;
+	private BigInteger[] mIdentifierIndices;
+
+	ResponseParser(final Script script) {
+		mScript = script;
+		mLocalVars = new ScopedHashMap<>();
+	}
+
+	/**
+	 * Parse the response of a command.
+	 *
+	 * @param what
+	 *            the {@link LexerSymbols} constant of the command whose response is parsed, as for the {@link Parser}
+	 * @param answer
+	 *            the tokens of the response
+	 * @return a symbol whose value is the result of the command or null if the response is not supported by this parser
+	 */
+	Symbol parse(final int what, final List<Symbol> answer) {
+		mAnswer = answer;
+		mPosition = 0;
+		try {
+			final Object value;
+			switch (what) {
+			case LexerSymbols.SUCCESS:
+				expect(LexerSymbols.SUCCESS);
+				value = null;
+				break;
+			case LexerSymbols.CHECKSAT:
+				value = parseStatus();
+				break;
+			case LexerSymbols.GETVALUE:
+				value = parseValuation();
+				break;
+			case LexerSymbols.GETASSERTIONS:
+				expect(LexerSymbols.LPAR);
+				value = parseTerms();
+				break;
+			case LexerSymbols.GETINTERPOLANTS:
+				expect(LexerSymbols.LPAR);
+				expect(LexerSymbols.INTERPOLANTS);
+				value = parseTerms();
+				break;
+			case LexerSymbols.GETUNSATCORE:
+				value = parseUnsatCore();
+				break;
+			case LexerSymbols.GETTERM:
+				value = parseTerm();
+				break;
+			default:
+				return null;
+			}
+			if (mPosition != mAnswer.size()) {
+				return null;
+			}
+			return new Symbol(what, value);
+		} catch (final UnsupportedResponseException | SMTLIBException e) {
+			// the Parser reports the error
+			mLocalVars = new ScopedHashMap<>();
+			return null;
+		} finally {
+			mAnswer = null;
+		}
+	}
+
+	private LBool parseStatus() throws UnsupportedResponseException {
+		switch (next().sym) {
+		case LexerSymbols.SAT:
+			return LBool.SAT;
+		case LexerSymbols.UNSAT:
+			return LBool.UNSAT;
+		case LexerSymbols.UNKNOWN:
+			return LBool.UNKNOWN;
+		default:
+			throw UNSUPPORTED_RESPONSE;
+		}
+	}
+
+	private Map<Term, Term> parseValuation() throws UnsupportedResponseException {
+		expect(LexerSymbols.LPAR);
+		final Map<Term, Term> result = new HashMap<>();
+		do {
+			expect(LexerSymbols.LPAR);
+			final Term term = parseTerm();
+			final Term value = parseTerm();
+			expect(LexerSymbols.RPAR);
+			result.put(term, value);
+		} while (peek() == LexerSymbols.LPAR);
+		expect(LexerSymbols.RPAR);
+		return result;
+	}
+
+	/**
+	 * Parse terms up to the closing parenthesis of a list whose opening parenthesis was already read.
+	 */
+	private Term[] parseTerms() throws UnsupportedResponseException {
+		final ArrayList<Term> result = new ArrayList<>();
+		while (peek() != LexerSymbols.RPAR) {
+			result.add(parseTerm());
+		}
+		expect(LexerSymbols.RPAR);
+		return result.toArray(new Term[result.size()]);
+	}
+
+	private Term[] parseUnsatCore() throws UnsupportedResponseException {
+		expect(LexerSymbols.LPAR);
+		final ArrayList<Term> result = new ArrayList<>();
+		while (peek() != LexerSymbols.RPAR) {
+			result.add(mScript.term(parseSymbol()));
+		}
+		expect(LexerSymbols.RPAR);
+		return result.toArray(new Term[result.size()]);
+	}
+
+	private Term parseTerm() throws UnsupportedResponseException {
+		final ArrayDeque<Frame> stack = new ArrayDeque<>();
+		while (true) {
+			Term term = parseTermStart(stack);
+			if (term == null) {
+				// a new frame was pushed, parse its first subterm
+				continue;
+			}
+			while (term != null) {
+				final Frame frame = stack.peek();
+				if (frame == null) {
+					return term;
+				}
+				term = reduce(stack, frame, term);
+			}
+		}
+	}
+
+	/**
+	 * Parse the beginning of a term.
+	 *
+	 * @return the term if it has no subterms, or null if a frame for the term was pushed on the stack
+	 */
+	private Term parseTermStart(final ArrayDeque<Frame> stack) throws UnsupportedResponseException {
+		final Symbol symbol = next();
+		if (symbol.sym != LexerSymbols.LPAR) {
+			return parseAtom(symbol);
+		}
+		final Symbol head = next();
+		switch (head.sym) {
+		case LexerSymbols.UNDERSCORE: {
+			// indexed constant, e.g., (_ bv0 32), parse it again as identifier
+			mPosition -= 2;
+			parseIdentifier();
+			return mScript.term(mIdentifierName, mIdentifierIndices, null);
+		}
+		case LexerSymbols.AS: {
+			// qualified constant, e.g., (as const (Array Int Int)) without arguments
+			parseIdentifier();
+			final String name = mIdentifierName;
+			final BigInteger[] indices = mIdentifierIndices;
+			final Sort sort = parseSort();
+			expect(LexerSymbols.RPAR);
+			return mScript.term(name, indices, sort);
+		}
+		case LexerSymbols.LPAR: {
+			// application of a qualified or indexed identifier
+			final Sort sort;
+			if (peek() == LexerSymbols.AS) {
+				next();
+				parseIdentifier();
+				final String name = mIdentifierName;
+				final BigInteger[] indices = mIdentifierIndices;
+				sort = parseSort();
+				expect(LexerSymbols.RPAR);
+				mIdentifierName = name;
+				mIdentifierIndices = indices;
+			} else {
+				// the identifier starts with the parenthesis that was just read
+				--mPosition;
+				parseIdentifier();
+				sort = null;
+			}
+			stack.push(new Frame(LexerSymbols.LPAR, mIdentifierName, mIdentifierIndices, sort));
+			return null;
+		}
+		case LexerSymbols.LET: {
+			expect(LexerSymbols.LPAR);
+			expect(LexerSymbols.LPAR);
+			final Frame frame = new Frame(LexerSymbols.LET, null, null, null);
+			frame.mVariableNames = new ArrayList<>();
+			frame.mVariableNames.add(parseSymbol());
+			stack.push(frame);
+			return null;
+		}
+		case LexerSymbols.FORALL:
+		case LexerSymbols.EXISTS: {
+			expect(LexerSymbols.LPAR);
+			final ArrayList<TermVariable> variables = new ArrayList<>();
+			do {
+				expect(LexerSymbols.LPAR);
+				final String name = parseSymbol();
+				variables.add(mScript.variable(name, parseSort()));
+				expect(LexerSymbols.RPAR);
+			} while (peek() == LexerSymbols.LPAR);
+			expect(LexerSymbols.RPAR);
+			final Frame frame = new Frame(head.sym, null, null, null);
+			frame.mVariables = variables.toArray(new TermVariable[variables.size()]);
+			bindVariables(frame.mVariables);
+			stack.push(frame);
+			return null;
+		}
+		default:
+			if (!isSymbol(head)) {
+				throw UNSUPPORTED_RESPONSE;
+			}
+			stack.push(new Frame(LexerSymbols.LPAR, (String) head.value, null, null));
+			return null;
+		}
+	}
+
+	/**
+	 * Add a subterm that was parsed completely to the top frame of the stack.
+	 *
+	 * @return the term of the frame if the frame is complete, or null if the next subterm of the frame has to be parsed
+	 */
+	private Term reduce(final ArrayDeque<Frame> stack, final Frame frame, final Term subterm)
+			throws UnsupportedResponseException {
+		switch (frame.mKind) {
+		case LexerSymbols.LPAR:
+			frame.mSubterms.add(subterm);
+			if (peek() != LexerSymbols.RPAR) {
+				return null;
+			}
+			next();
+			stack.pop();
+			return mScript.term(frame.mName, frame.mIndices, frame.mSort,
+					frame.mSubterms.toArray(new Term[frame.mSubterms.size()]));
+		case LexerSymbols.LET:
+			if (frame.mVariables == null) {
+				// the value of a binding
+				frame.mSubterms.add(subterm);
+				expect(LexerSymbols.RPAR);
+				if (peek() == LexerSymbols.LPAR) {
+					next();
+					frame.mVariableNames.add(parseSymbol());
+					return null;
+				}
+				expect(LexerSymbols.RPAR);
+				frame.mVariables = new TermVariable[frame.mSubterms.size()];
+				for (int i = 0; i < frame.mVariables.length; i++) {
+					frame.mVariables[i] =
+							mScript.variable(frame.mVariableNames.get(i), frame.mSubterms.get(i).getSort());
+				}
+				bindVariables(frame.mVariables);
+				return null;
+			}
+			// the body of the let
+			expect(LexerSymbols.RPAR);
+			mLocalVars.endScope();
+			stack.pop();
+			return mScript.let(frame.mVariables, frame.mSubterms.toArray(new Term[frame.mSubterms.size()]), subterm);
+		case LexerSymbols.FORALL:
+		case LexerSymbols.EXISTS:
+			expect(LexerSymbols.RPAR);
+			mLocalVars.endScope();
+			stack.pop();
+			return mScript.quantifier(frame.mKind == LexerSymbols.FORALL ? Script.FORALL : Script.EXISTS,
+					frame.mVariables, subterm);
+		default:
+			throw new AssertionError("unknown frame " + frame.mKind);
+		}
+	}
+
+	private void bindVariables(final TermVariable[] variables) {
+		mLocalVars.beginScope();
+		for (final TermVariable variable : variables) {
+			mLocalVars.put(variable.getName(), variable);
+		}
+	}
+
+	private Term parseAtom(final Symbol symbol) throws UnsupportedResponseException {
+		switch (symbol.sym) {
+		case LexerSymbols.NUMERAL:
+			return mScript.numeral((BigInteger) symbol.value);
+		case LexerSymbols.DECIMAL:
+			return mScript.decimal((BigDecimal) symbol.value);
+		case LexerSymbols.HEXADECIMAL:
+			return mScript.hexadecimal((String) symbol.value);
+		case LexerSymbols.BINARY:
+			return mScript.binary((String) symbol.value);
+		case LexerSymbols.STRING:
+			return mScript.string((String) symbol.value);
+		default:
+			if (!isSymbol(symbol)) {
+				throw UNSUPPORTED_RESPONSE;
+			}
+			final String name = (String) symbol.value;
+			final TermVariable variable = mLocalVars.get(name);
+			return variable != null ? variable : mScript.term(name);
+		}
+	}
+
+	/**
+	 * Parse a symbol or an indexed identifier <code>(_ symbol numeral+)</code> and store it in
+	 * {@link #mIdentifierName} and {@link #mIdentifierIndices}.
+	 */
+	private void parseIdentifier() throws UnsupportedResponseException {
+		if (peek() != LexerSymbols.LPAR) {
+			mIdentifierName = parseSymbol();
+			mIdentifierIndices = null;
+			return;
+		}
+		next();
+		expect(LexerSymbols.UNDERSCORE);
+		mIdentifierName = parseSymbol();
+		final ArrayList<BigInteger> indices = new ArrayList<>();
+		do {
+			final Symbol index = next();
+			if (index.sym != LexerSymbols.NUMERAL) {
+				throw UNSUPPORTED_RESPONSE;
+			}
+			indices.add((BigInteger) index.value);
+		} while (peek() != LexerSymbols.RPAR);
+		next();
+		mIdentifierIndices = indices.toArray(new BigInteger[indices.size()]);
+	}
+
+	private Sort parseSort() throws UnsupportedResponseException {
+		if (peek() != LexerSymbols.LPAR || peekNext() == LexerSymbols.UNDERSCORE) {
+			parseIdentifier();
+			return mScript.sort(mIdentifierName, mIdentifierIndices);
+		}
+		next();
+		parseIdentifier();
+		final String name = mIdentifierName;
+		final BigInteger[] indices = mIdentifierIndices;
+		final ArrayList<Sort> arguments = new ArrayList<>();
+		do {
+			arguments.add(parseSort());
+		} while (peek() != LexerSymbols.RPAR);
+		next();
+		return mScript.sort(name, indices, arguments.toArray(new Sort[arguments.size()]));
+	}
+
+	private String parseSymbol() throws UnsupportedResponseException {
+		final Symbol symbol = next();
+		if (!isSymbol(symbol)) {
+			throw UNSUPPORTED_RESPONSE;
+		}
+		return (String) symbol.value;
+	}
+
+	/**
+	 * @return true iff the token is a symbol according to the grammar of the {@link Parser}
+	 */
+	private static boolean isSymbol(final Symbol symbol) {
+		switch (symbol.sym) {
+		case LexerSymbols.SYMBOL:
+		case LexerSymbols.CONTINUEDEXECUTION:
+		case LexerSymbols.ERRORSYM:
+		case LexerSymbols.FALSE:
+		case LexerSymbols.IMMEDIATEEXIT:
+		case LexerSymbols.INCOMPLETE:
+		case LexerSymbols.LOGIC:
+		case LexerSymbols.NONE:
+		case LexerSymbols.MEMOUT:
+		case LexerSymbols.SAT:
+		case LexerSymbols.SUCCESS:
+		case LexerSymbols.THEORY:
+		case LexerSymbols.TRUE:
+		case LexerSymbols.UNKNOWN:
+		case LexerSymbols.UNSUPPORTED:
+		case LexerSymbols.UNSAT:
+		case LexerSymbols.INCLUDE:
+		case LexerSymbols.RESET:
+		case LexerSymbols.SIMPLIFY:
+		case LexerSymbols.TIMEOUT:
+		case LexerSymbols.ASSERTED:
+		case LexerSymbols.INTERPOLANTS:
+			return true;
+		default:
+			return false;
+		}
+	}
+
+	private void expect(final int sym) throws UnsupportedResponseException {
+		if (next().sym != sym) {
+			throw UNSUPPORTED_RESPONSE;
+		}
+	}
+
+	private Symbol next() throws UnsupportedResponseException {
+		if (mPosition >= mAnswer.size()) {
+			throw UNSUPPORTED_RESPONSE;
+		}
+		return mAnswer.get(mPosition++);
+	}
+
+	private int peek() {
+		return mPosition < mAnswer.size() ? mAnswer.get(mPosition).sym : LexerSymbols.EOF;
+	}
+
+	private int peekNext() {
+		return mPosition + 1 < mAnswer.size() ? mAnswer.get(mPosition + 1).sym : LexerSymbols.EOF;
+	}
+
+	/**
+	 * A term whose subterms are parsed.
+	 */
+	private static final class Frame {
+		/**
+		 * {@link LexerSymbols#LPAR} for function applications, otherwise {@link LexerSymbols#LET},
+		 * {@link LexerSymbols#FORALL} or {@link LexerSymbols#EXISTS}.
+		 */
+		private final int mKind;
+		private final String mName;
+		private final BigInteger[] mIndices;
+		private final Sort mSort;
+		/**
+		 * The arguments of a function application or the values of the bindings of a let.
+		 */
+		private final ArrayList<Term> mSubterms;
+		private ArrayList<String> mVariableNames;
+		private TermVariable[] mVariables;
+
+		Frame(final int kind, final String name, final BigInteger[] indices, final Sort sort) {
+			mKind = kind;
+			mName = name;
+			mIndices = indices;
+			mSort = sort;
+			mSubterms = new ArrayList<>();
+		}
+	}
+
+	/**
+	 * Signals that a response does not have one of the supported shapes. The exception is preallocated and has no
+	 * stack trace, since it is only used for the control flow.
+	 */
+	private static final class UnsupportedResponseException extends Exception {
+		private static final long serialVersionUID = 1L;
+
+		UnsupportedResponseException() {
+			super(null, null, false, false);
+		}
+	}
+}
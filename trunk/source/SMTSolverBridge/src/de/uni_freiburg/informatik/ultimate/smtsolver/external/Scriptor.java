@@ -57,6 +57,10 @@ public class Scriptor extends NoopScript {
 
 	protected Executor mExecutor;
 	private LBool mStatus = LBool.UNKNOWN;
+	/**
+	 * Serializer that shares subterms between assertions, or null if assertions are sent as they are.
+	 */
+	private final TermSharingSerializer mTermSharing;
 
 	/**
 	 * Create a script connecting to an external SMT solver.
@@ -71,8 +75,49 @@ public class Scriptor extends NoopScript {
 	 */
 	public Scriptor(final String command, final ILogger logger, final IUltimateServiceProvider services, final IToolchainStorage storage,
 			final String solverName) throws IOException {
-		mExecutor = new Executor(command, this, logger, services, storage, solverName);
-		super.setOption(":print-success", true);
+		this(command, logger, services, storage, solverName, false);
+	}
+
+	/**
+	 * Create a script connecting to an external SMT solver.
+	 * 
+	 * @param pipelined
+	 *            if true, commands that only answer with success (declarations, assertions, push, pop, ...) are
+	 *            buffered and sent to the solver together with the next command that has a response (check-sat,
+	 *            get-value, ...). Errors of these commands are reported by the next command that has a response. The
+	 *            solver has to support the echo command.
+	 */
+	public Scriptor(final String command, final ILogger logger, final IUltimateServiceProvider services,
+			final IToolchainStorage storage, final String solverName, final boolean pipelined) throws IOException {
+		this(command, logger, services, storage, solverName, pipelined, null);
+	}
+
+	/**
+	 * Create a script connecting to an external SMT solver.
+	 * 
+	 * @param pool
+	 *            if not null, the solver process is leased from this pool and returned to it on {@link #exit()}
+	 */
+	public Scriptor(final String command, final ILogger logger, final IUltimateServiceProvider services,
+			final IToolchainStorage storage, final String solverName, final boolean pipelined,
+			final SolverProcessPool pool) throws IOException {
+		this(command, logger, services, storage, solverName, pipelined, pool, false);
+	}
+
+	/**
+	 * Create a script connecting to an external SMT solver.
+	 * 
+	 * @param shareTerms
+	 *            if true, assertions are written directly into the pipe to the solver and subterms that occur several
+	 *            times are sent only once (see {@link TermSharingSerializer}). The responses of the solver to
+	 *            get-assertions may contain the names of these subterms.
+	 */
+	public Scriptor(final String command, final ILogger logger, final IUltimateServiceProvider services,
+			final IToolchainStorage storage, final String solverName, final boolean pipelined,
+			final SolverProcessPool pool, final boolean shareTerms) throws IOException {
+		mExecutor = new Executor(command, this, logger, services, storage, solverName, pipelined, pool);
+		mTermSharing = shareTerms ? new TermSharingSerializer() : null;
+		super.setOption(":print-success", !pipelined);
 	}
 
 	@Override
@@ -130,6 +175,9 @@ public class Scriptor extends NoopScript {
 		super.push(levels);
 		mExecutor.input("(push " + levels + ")");
 		mExecutor.parseSuccess();
+		if (mTermSharing != null) {
+			mTermSharing.push(levels);
+		}
 	}
 
 	@Override
@@ -137,13 +185,26 @@ public class Scriptor extends NoopScript {
 		super.pop(levels);
 		mExecutor.input("(pop " + levels + ")");
 		mExecutor.parseSuccess();
+		if (mTermSharing != null) {
+			mTermSharing.pop(levels);
+		}
 		mStatus = LBool.UNKNOWN;
 	}
 
 	@Override
 	public LBool assertTerm(final Term term) throws SMTLIBException {
-		mExecutor.input(SmtCommandUtils.AssertCommand.buildString(term));
-		mExecutor.parseSuccess();
+		if (mTermSharing == null) {
+			mExecutor.input(SmtCommandUtils.AssertCommand.buildString(term));
+			mExecutor.parseSuccess();
+		} else {
+			for (final Term definition : mTermSharing.collectNewDefinitions(term)) {
+				mExecutor.input(out -> mTermSharing.appendDefinition(out, definition),
+						"(define-fun " + mTermSharing.getName(definition) + " ...)");
+				mExecutor.parseSuccess();
+			}
+			mExecutor.input(out -> mTermSharing.appendAssert(out, term), "(assert ...)");
+			mExecutor.parseSuccess();
+		}
 		mStatus = LBool.UNKNOWN;
 		return LBool.UNKNOWN;
 	}
@@ -222,6 +283,9 @@ public class Scriptor extends NoopScript {
 	@Override
 	public void reset() {
 		super.reset();
+		if (mTermSharing != null) {
+			mTermSharing.reset();
+		}
 		try {
 			mExecutor.reset();
 		} catch (final IOException e) {
@@ -53,7 +53,21 @@ public class ScriptorWithGetInterpolants extends Scriptor {
 	public ScriptorWithGetInterpolants(final String command, final ILogger logger,
 			final IUltimateServiceProvider services, final IToolchainStorage storage,
 			final ExternalInterpolator externalInterpolator, final String name) throws IOException {
-		super(command, logger, services, storage, name);
+		this(command, logger, services, storage, externalInterpolator, name, false);
+	}
+
+	public ScriptorWithGetInterpolants(final String command, final ILogger logger,
+			final IUltimateServiceProvider services, final IToolchainStorage storage,
+			final ExternalInterpolator externalInterpolator, final String name, final boolean pipelined)
+			throws IOException {
+		this(command, logger, services, storage, externalInterpolator, name, pipelined, null);
+	}
+
+	public ScriptorWithGetInterpolants(final String command, final ILogger logger,
+			final IUltimateServiceProvider services, final IToolchainStorage storage,
+			final ExternalInterpolator externalInterpolator, final String name, final boolean pipelined,
+			final SolverProcessPool pool) throws IOException {
+		super(command, logger, services, storage, name, pipelined, pool);
 		mExternalInterpolator = externalInterpolator;
 	}
 
@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE SMTSolverBridge.
+ *
+ * The ULTIMATE SMTSolverBridge is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE SMTSolverBridge is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE SMTSolverBridge. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE SMTSolverBridge, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE SMTSolverBridge grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.smtsolver.external;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.github.jhoenicke.javacup.runtime.Symbol;
+
+import de.uni_freiburg.informatik.ultimate.core.lib.util.MonitoredProcess;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IToolchainStorage;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
+
+/**
+ * A running external SMT solver together with the streams that are used to talk to it. An {@link Executor} either owns
+ * its process or leases it from a {@link SolverProcessPool}. In the latter case, the process remembers the options and
+ * the logic that were set by its previous users (see {@link #getPreamble()}).
+ */
+final class SolverProcess {
+
+	private static final String SENTINEL_PREFIX = "ultimate-pool-";
+
+	private final String mCommand;
+	private final boolean mPipelined;
+	private final MonitoredProcess mProcess;
+	private final Lexer mLexer;
+	private final BufferedWriter mWriter;
+	private final InputStream mStdErr;
+	private final long mStartupNanos;
+	private final IUltimateServiceProvider mServices;
+
+	/**
+	 * The set-option and set-logic commands (except for print-success) that were sent to the solver since it was
+	 * started or reset, in the order in which they were sent.
+	 */
+	private final List<String> mPreamble;
+	/**
+	 * True iff print-success was already set according to {@link #mPipelined}.
+	 */
+	private boolean mConfigured;
+	/**
+	 * The thread that read from the solver most recently. Pipes of a {@link MonitoredProcess} break if the last reader
+	 * dies while the solver writes.
+	 */
+	private Thread mLastReader;
+	private long mSentinelCounter;
+
+	private SolverProcess(final String command, final boolean pipelined, final MonitoredProcess process,
+			final long startupNanos, final IUltimateServiceProvider services) {
+		mCommand = command;
+		mServices = services;
+		mPipelined = pipelined;
+		mProcess = process;
+		mStartupNanos = startupNanos;
+		mStdErr = process.getErrorStream();
+		mLexer = new Lexer(new InputStreamReader(process.getInputStream()));
+		mLexer.setSymbolFactory(new MySymbolFactory());
+		mWriter = new BufferedWriter(new OutputStreamWriter(process.getOutputStream()));
+		mPreamble = new ArrayList<>();
+	}
+
+	/**
+	 * Start a new solver process. The process is terminated if the toolchain of the given services ends or if they are
+	 * canceled.
+	 *
+	 * @param pipelined
+	 *            true iff the process will be used in pipelined mode (see {@link Executor})
+	 * @return the new process or null if the process could not be created
+	 */
+	static SolverProcess start(final String command, final boolean pipelined, final IUltimateServiceProvider services,
+			final IToolchainStorage storage) throws IOException {
+		final long startTime = System.nanoTime();
+		final MonitoredProcess process = MonitoredProcess.exec(command, "(exit)", services, storage);
+		if (process == null) {
+			return null;
+		}
+		process.setTerminationAfterToolchainTimeout(20 * 1000);
+		return new SolverProcess(command, pipelined, process, System.nanoTime() - startTime, services);
+	}
+
+	String getCommand() {
+		return mCommand;
+	}
+
+	boolean isPipelined() {
+		return mPipelined;
+	}
+
+	MonitoredProcess getProcess() {
+		return mProcess;
+	}
+
+	Lexer getLexer() {
+		return mLexer;
+	}
+
+	BufferedWriter getWriter() {
+		return mWriter;
+	}
+
+	InputStream getErrorStream() {
+		return mStdErr;
+	}
+
+	long getStartupNanos() {
+		return mStartupNanos;
+	}
+
+	boolean isConfigured() {
+		return mConfigured;
+	}
+
+	void setConfigured(final boolean configured) {
+		mConfigured = configured;
+	}
+
+	List<String> getPreamble() {
+		return Collections.unmodifiableList(mPreamble);
+	}
+
+	void addToPreamble(final String command) {
+		mPreamble.add(command);
+	}
+
+	void clearPreamble() {
+		mPreamble.clear();
+	}
+
+	void setLastReader(final Thread thread) {
+		mLastReader = thread;
+	}
+
+	/**
+	 * @return true iff the process is still running, is not about to be terminated because the services it was started
+	 *         with were canceled, and the given thread can read its responses
+	 */
+	boolean isUsableBy(final Thread thread) {
+		if (mLastReader != null && mLastReader != thread && !mLastReader.isAlive()) {
+			return false;
+		}
+		if (!mServices.getProgressMonitorService().continueProcessingRoot()) {
+			return false;
+		}
+		try {
+			return mProcess.waitfor(1).isRunning();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	/**
+	 * Send a command to the solver, followed by an echo of a fresh sentinel, and read all responses up to the sentinel.
+	 * This works regardless of the value of print-success.
+	 *
+	 * @return true iff the solver answered with nothing but success before the sentinel
+	 * @throws IOException
+	 *             if the connection to the solver is broken
+	 */
+	boolean sendAndSynchronize(final String command) throws IOException {
+		final String sentinel = SENTINEL_PREFIX + mSentinelCounter++;
+		mWriter.write(command + "\n");
+		mWriter.write("(echo \"" + sentinel + "\")\n");
+		mWriter.flush();
+		mLastReader = Thread.currentThread();
+		while (true) {
+			final List<Symbol> answer = Executor.parseSexpr(mLexer);
+			if (Executor.isSentinel(answer, sentinel)) {
+				return true;
+			}
+			if (answer.size() != 1 || answer.get(0).sym != LexerSymbols.SUCCESS) {
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Terminate the process.
+	 */
+	void kill() {
+		mProcess.forceShutdown();
+	}
+}
@@ -0,0 +1,355 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE SMTSolverBridge.
+ *
+ * The ULTIMATE SMTSolverBridge is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE SMTSolverBridge is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE SMTSolverBridge. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE SMTSolverBridge, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE SMTSolverBridge grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.smtsolver.external;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IStorable;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IToolchainStorage;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
+
+/**
+ * Pool of running external SMT solver processes that is shared by all {@link Scriptor}s of a toolchain. Starting a
+ * solver process and sending the same options and logic again is a measurable share of short verification runs, since
+ * trace checks, lasso checks, Hoare triple checks, etc. each construct their own solver.
+ * <p>
+ * If a script that uses this pool exits, its process is not terminated. Instead, we send
+ * <code>(reset-assertions)</code>, which removes all assertions, declarations and assertion levels but keeps options
+ * and the logic. Processes that do not acknowledge this (or do not answer within {@link #RECYCLE_TIMEOUT_MILLIS}) are
+ * killed. Idle processes are stored per solver command and communication mode. A new {@link Executor} that leases an
+ * idle process skips the set-option and set-logic commands that coincide with the ones the process already received.
+ * If its commands differ, the process is reset completely with <code>(reset)</code>.
+ * <p>
+ * If a command was requested before and there is no idle process for it, a spare process is started in the
+ * background, such that the next request does not have to wait for the process startup.
+ * <p>
+ * Each process is started with the services of the {@link Executor} whose lease caused its start. If these services
+ * are canceled (e.g., because they belong to a member of a portfolio that lost), the process is not handed out again.
+ */
+public final class SolverProcessPool implements IStorable {
+
+	private static final String STORAGE_KEY = SolverProcessPool.class.getName();
+	private static final int MAX_IDLE_PROCESSES_PER_KEY = 2;
+	private static final long RECYCLE_TIMEOUT_MILLIS = 2000;
+
+	private final ILogger mLogger;
+	private final ScheduledExecutorService mHelper;
+
+	private final Map<String, Deque<SolverProcess>> mIdleProcesses;
+	private final Set<String> mRequestedKeys;
+	private final Set<String> mKeysWithPendingSpare;
+	private boolean mDestroyed;
+
+	private int mLeases;
+	private int mHits;
+	private int mStartedProcesses;
+	private int mSpareProcesses;
+	private int mRecycledProcesses;
+	private int mKilledProcesses;
+	private int mLiveProcesses;
+	private int mMaxLiveProcesses;
+	private int mSkippedPreambleCommands;
+	private int mPreambleMismatches;
+	private long mStartupNanos;
+
+	private SolverProcessPool(final ILogger logger) {
+		mLogger = logger;
+		mHelper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			final Thread thread = new Thread(runnable, "SolverProcessPool");
+			thread.setDaemon(true);
+			return thread;
+		});
+		mIdleProcesses = new HashMap<>();
+		mRequestedKeys = new HashSet<>();
+		mKeysWithPendingSpare = new HashSet<>();
+	}
+
+	/**
+	 * @return the pool of the current toolchain, which is created if necessary
+	 */
+	public static SolverProcessPool getPool(final IToolchainStorage storage, final ILogger logger) {
+		synchronized (SolverProcessPool.class) {
+			final SolverProcessPool pool = (SolverProcessPool) storage.getStorable(STORAGE_KEY);
+			if (pool != null) {
+				return pool;
+			}
+			final SolverProcessPool newPool = new SolverProcessPool(logger);
+			storage.putStorable(STORAGE_KEY, newPool);
+			return newPool;
+		}
+	}
+
+	/**
+	 * Get a process for the given command, either from the idle processes or by starting a new one.
+	 *
+	 * @param services
+	 *            services of the caller, which are used to start new processes
+	 * @param storage
+	 *            storage of the caller, which is used to start new processes
+	 * @return a process that can be used by the current thread or null if no process could be started
+	 */
+	SolverProcess lease(final String command, final boolean pipelined, final IUltimateServiceProvider services,
+			final IToolchainStorage storage) throws IOException {
+		final String key = getKey(command, pipelined);
+		final Thread currentThread = Thread.currentThread();
+		final List<SolverProcess> unusable = new ArrayList<>();
+		SolverProcess result = null;
+		final boolean requestedBefore;
+		synchronized (this) {
+			++mLeases;
+			requestedBefore = !mRequestedKeys.add(key);
+			final Deque<SolverProcess> idle = getIdleProcesses(key);
+			while (result == null && !idle.isEmpty()) {
+				final SolverProcess candidate = idle.pop();
+				if (candidate.isUsableBy(currentThread)) {
+					result = candidate;
+					++mHits;
+				} else {
+					unusable.add(candidate);
+				}
+			}
+		}
+		unusable.forEach(this::kill);
+		if (result == null) {
+			result = start(command, pipelined, services, storage);
+		}
+		if (result != null) {
+			result.setLastReader(currentThread);
+		}
+		if (requestedBefore) {
+			startSpareProcess(key, command, pipelined, services, storage);
+		}
+		return result;
+	}
+
+	/**
+	 * Return a process to the pool. If the process still works, it is kept for further use, otherwise it is killed.
+	 *
+	 * @param inSync
+	 *            true iff all responses of the solver were read by its last user
+	 */
+	void release(final SolverProcess process, final boolean inSync) {
+		if (!inSync || isDestroyed() || !process.isUsableBy(Thread.currentThread())
+				|| !sendWithTimeout(process, "(reset-assertions)")) {
+			kill(process);
+			return;
+		}
+		final boolean keep;
+		synchronized (this) {
+			final Deque<SolverProcess> idle = getIdleProcesses(getKey(process.getCommand(), process.isPipelined()));
+			keep = !mDestroyed && idle.size() < MAX_IDLE_PROCESSES_PER_KEY;
+			if (keep) {
+				idle.push(process);
+				++mRecycledProcesses;
+			}
+		}
+		if (!keep) {
+			kill(process);
+		}
+	}
+
+	/**
+	 * Reset a leased process completely, i.e., including its options and its logic.
+	 *
+	 * @return true iff the process acknowledged the reset
+	 */
+	boolean resetProcess(final SolverProcess process) {
+		return sendWithTimeout(process, "(reset)");
+	}
+
+	/**
+	 * Start a new process that is not handed out by the pool. This is used if a leased process has to be replaced.
+	 */
+	SolverProcess startReplacement(final SolverProcess broken, final IUltimateServiceProvider services,
+			final IToolchainStorage storage) throws IOException {
+		kill(broken);
+		final SolverProcess result = start(broken.getCommand(), broken.isPipelined(), services, storage);
+		if (result != null) {
+			result.setLastReader(Thread.currentThread());
+		}
+		return result;
+	}
+
+	synchronized void reportSkippedPreambleCommand() {
+		++mSkippedPreambleCommands;
+	}
+
+	synchronized void reportPreambleMismatch() {
+		++mPreambleMismatches;
+	}
+
+	private boolean sendWithTimeout(final SolverProcess process, final String command) {
+		final ScheduledFuture<?> watchdog;
+		try {
+			watchdog = mHelper.schedule(process::kill, RECYCLE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+		} catch (final RejectedExecutionException e) {
+			// the pool was destroyed
+			return false;
+		}
+		try {
+			return process.sendAndSynchronize(command);
+		} catch (final IOException | RuntimeException e) {
+			return false;
+		} finally {
+			watchdog.cancel(false);
+		}
+	}
+
+	private SolverProcess start(final String command, final boolean pipelined, final IUltimateServiceProvider services,
+			final IToolchainStorage storage) throws IOException {
+		final SolverProcess process = SolverProcess.start(command, pipelined, services, storage);
+		if (process != null) {
+			synchronized (this) {
+				++mStartedProcesses;
+				mStartupNanos += process.getStartupNanos();
+				++mLiveProcesses;
+				mMaxLiveProcesses = Math.max(mMaxLiveProcesses, mLiveProcesses);
+			}
+		}
+		return process;
+	}
+
+	private void startSpareProcess(final String key, final String command, final boolean pipelined,
+			final IUltimateServiceProvider services, final IToolchainStorage storage) {
+		synchronized (this) {
+			if (mDestroyed || !getIdleProcesses(key).isEmpty() || !mKeysWithPendingSpare.add(key)) {
+				return;
+			}
+		}
+		try {
+			mHelper.execute(() -> startSpareProcessInBackground(key, command, pipelined, services, storage));
+		} catch (final RejectedExecutionException e) {
+			// the pool was destroyed in the meantime
+		}
+	}
+
+	private void startSpareProcessInBackground(final String key, final String command, final boolean pipelined,
+			final IUltimateServiceProvider services, final IToolchainStorage storage) {
+		SolverProcess process = null;
+		try {
+			process = start(command, pipelined, services, storage);
+		} catch (final IOException e) {
+			mLogger.warn("Could not start spare solver process " + command + ": " + e.getMessage());
+		}
+		final boolean keep;
+		synchronized (this) {
+			mKeysWithPendingSpare.remove(key);
+			keep = process != null && !mDestroyed;
+			if (keep) {
+				getIdleProcesses(key).addLast(process);
+				++mSpareProcesses;
+			}
+		}
+		if (process != null && !keep) {
+			kill(process);
+		}
+	}
+
+	private void kill(final SolverProcess process) {
+		process.kill();
+		synchronized (this) {
+			++mKilledProcesses;
+			--mLiveProcesses;
+		}
+	}
+
+	private Deque<SolverProcess> getIdleProcesses(final String key) {
+		return mIdleProcesses.computeIfAbsent(key, k -> new ArrayDeque<>());
+	}
+
+	private static String getKey(final String command, final boolean pipelined) {
+		return pipelined ? command + " (pipelined)" : command;
+	}
+
+	private synchronized boolean isDestroyed() {
+		return mDestroyed;
+	}
+
+	public synchronized int getLeases() {
+		return mLeases;
+	}
+
+	public synchronized int getHits() {
+		return mHits;
+	}
+
+	/**
+	 * @return the estimated time in nanoseconds that was saved by re-using processes, based on the average startup
+	 *         time of a process
+	 */
+	public synchronized long getSavedStartupNanos() {
+		if (mStartedProcesses == 0) {
+			return 0;
+		}
+		return mHits * (mStartupNanos / mStartedProcesses);
+	}
+
+	public synchronized int getLiveProcesses() {
+		return mLiveProcesses;
+	}
+
+	public synchronized int getMaxLiveProcesses() {
+		return mMaxLiveProcesses;
+	}
+
+	@Override
+	public void destroy() {
+		final List<SolverProcess> idle = new ArrayList<>();
+		synchronized (this) {
+			mDestroyed = true;
+			mIdleProcesses.values().forEach(idle::addAll);
+			mIdleProcesses.clear();
+		}
+		mHelper.shutdownNow();
+		idle.forEach(this::kill);
+		mLogger.info(toString());
+	}
+
+	@Override
+	public synchronized String toString() {
+		return String.format(
+				"SolverProcessPool: %d leases, %d hits, %d processes started (%d spare), %d recycled, %d killed, "
+						+ "%d live (max %d), %d preamble commands skipped, %d preamble mismatches, "
+						+ "startup time %d ms, saved startup time %d ms",
+				mLeases, mHits, mStartedProcesses, mSpareProcesses, mRecycledProcesses, mKilledProcesses,
+				mLiveProcesses, mMaxLiveProcesses, mSkippedPreambleCommands, mPreambleMismatches,
+				mStartupNanos / 1_000_000, getSavedStartupNanos() / 1_000_000);
+	}
+}
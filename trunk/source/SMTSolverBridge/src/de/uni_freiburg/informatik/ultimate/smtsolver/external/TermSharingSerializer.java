@@ -0,0 +1,419 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE SMTSolverBridge.
+ *
+ * The ULTIMATE SMTSolverBridge is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE SMTSolverBridge is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE SMTSolverBridge. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE SMTSolverBridge, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE SMTSolverBridge grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.smtsolver.external;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.uni_freiburg.informatik.ultimate.logic.AnnotatedTerm;
+import de.uni_freiburg.informatik.ultimate.logic.Annotation;
+import de.uni_freiburg.informatik.ultimate.logic.ApplicationTerm;
+import de.uni_freiburg.informatik.ultimate.logic.ConstantTerm;
+import de.uni_freiburg.informatik.ultimate.logic.FormulaLet;
+import de.uni_freiburg.informatik.ultimate.logic.LetTerm;
+import de.uni_freiburg.informatik.ultimate.logic.PrintTerm;
+import de.uni_freiburg.informatik.ultimate.logic.QuantifiedFormula;
+import de.uni_freiburg.informatik.ultimate.logic.Sort;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.logic.TermVariable;
+import de.uni_freiburg.informatik.ultimate.util.datastructures.ScopedHashMap;
+import de.uni_freiburg.informatik.ultimate.util.datastructures.ScopedHashSet;
+
+/**
+ * Writes assertions for an external solver such that subterms that occur several times are sent only once.
+ * <p>
+ * A subterm is given a name by a <code>define-fun</code> command if it occurs more than once in an assertion or if it
+ * already occurred in a previous assertion of the current assertion stack. Since <code>define-fun</code> is scoped by
+ * <code>push</code> and <code>pop</code>, names (and the knowledge which subterms were sent already) are dropped if
+ * their assertion level is popped. Only subterms whose text is at least {@link #MIN_DEFINITION_LENGTH} characters long
+ * are named, such that the definition is cheaper than repeating the subterm (even if it occurs only once more).
+ * <p>
+ * Shorter subterms that occur several times in an assertion are bound by a <code>let</code> around the assertion if
+ * this makes the assertion shorter.
+ * <p>
+ * Terms are written directly into an {@link Appendable} (e.g., the pipe to the solver) and never built as a String.
+ * Only applications and annotations are shared; quantified formulas and let terms are written as a whole (with lets for
+ * common subexpressions, as in {@link Term#toString()}).
+ * <p>
+ * The solver sees the names, hence responses of the solver that contain terms (e.g., get-assertions or interpolants)
+ * may contain names that are unknown to our theory. Use this class only for scripts whose responses are models, values
+ * or unsat cores.
+ */
+public final class TermSharingSerializer {
+
+	private static final String NAME_PREFIX = "~shared~";
+	private static final String LET_PREFIX = ".cse";
+	/**
+	 * Estimated number of characters that a subterm has to have before we give it a name.
+	 */
+	private static final int MIN_DEFINITION_LENGTH = 80;
+	/**
+	 * Estimated number of characters of terms whose length is not computed.
+	 */
+	private static final int UNKNOWN_LENGTH = 64;
+
+	private ScopedHashMap<Term, String> mNames;
+	/**
+	 * Subterms that are long enough to be named and occurred in some assertion of the current assertion stack.
+	 */
+	private ScopedHashSet<Term> mSent;
+	/**
+	 * Subterms of the current assertion that are bound by a let.
+	 */
+	private final Map<Term, String> mLetNames;
+	/**
+	 * The subterms that are bound by the outermost let, the second let, and so on. The subterms bound by a let may only
+	 * contain let variables of outer lets.
+	 */
+	private final List<List<Term>> mLetLevels;
+	/**
+	 * True iff the current assertion contains an annotated term below its root. We do not bind subterms of named
+	 * terms to let variables.
+	 */
+	private boolean mHasNestedAnnotation;
+	private final PrintTerm mPrintTerm;
+	private final ArrayDeque<Object> mTodo;
+	private int mNameCounter;
+
+	private long mAssertions;
+	private long mDefinitions;
+
+	public TermSharingSerializer() {
+		mNames = new ScopedHashMap<>();
+		mSent = new ScopedHashSet<>();
+		mLetNames = new HashMap<>();
+		mLetLevels = new ArrayList<>();
+		mPrintTerm = new PrintTerm();
+		mTodo = new ArrayDeque<>();
+	}
+
+	public void push(final int levels) {
+		for (int i = 0; i < levels; ++i) {
+			mNames.beginScope();
+			mSent.beginScope();
+		}
+	}
+
+	public void pop(final int levels) {
+		for (int i = 0; i < levels; ++i) {
+			mNames.endScope();
+			mSent.endScope();
+		}
+	}
+
+	/**
+	 * Forget all names, e.g., after the solver was reset.
+	 */
+	public void reset() {
+		mNames = new ScopedHashMap<>();
+		mSent = new ScopedHashSet<>();
+	}
+
+	/**
+	 * Determine the subterms of an assertion that get a new name. The caller has to write the definitions of the
+	 * returned terms (see {@link #appendDefinition(Appendable, Term)}) in the given order before the assertion (see
+	 * {@link #appendAssert(Appendable, Term)}).
+	 *
+	 * @return the subterms that have to be defined, such that each term is defined after its subterms
+	 */
+	public List<Term> collectNewDefinitions(final Term assertion) {
+		++mAssertions;
+		mLetNames.clear();
+		mLetLevels.clear();
+		mHasNestedAnnotation = false;
+		final Map<Term, Integer> occurrences = new HashMap<>();
+		final List<Term> postOrder = countOccurrences(assertion, occurrences);
+
+		final List<Term> newDefinitions = new ArrayList<>();
+		final List<Term> sent = new ArrayList<>();
+		final Map<Term, Integer> lengths = new HashMap<>();
+		for (final Term term : postOrder) {
+			final int length = estimateLength(term, lengths);
+			if (term == assertion || length < MIN_DEFINITION_LENGTH || !(term instanceof ApplicationTerm)) {
+				lengths.put(term, length);
+				continue;
+			}
+			if (occurrences.get(term) > 1 || mSent.contains(term)) {
+				final String name = NAME_PREFIX + mNameCounter++;
+				mNames.put(term, name);
+				newDefinitions.add(term);
+				lengths.put(term, name.length());
+			} else {
+				sent.add(term);
+				lengths.put(term, length);
+			}
+		}
+		mSent.addAll(sent);
+		mDefinitions += newDefinitions.size();
+
+		if (!mHasNestedAnnotation) {
+			if (newDefinitions.isEmpty()) {
+				collectLets(assertion, postOrder, occurrences);
+			} else {
+				// the occurrences inside of the new definitions do not count
+				final Map<Term, Integer> remainingOccurrences = new HashMap<>();
+				collectLets(assertion, countOccurrences(assertion, remainingOccurrences), remainingOccurrences);
+			}
+		}
+		return newDefinitions;
+	}
+
+	/**
+	 * Bind the subterms that occur several times in the text of the assertion to let variables if this makes the text
+	 * shorter.
+	 */
+	private void collectLets(final Term assertion, final List<Term> postOrder, final Map<Term, Integer> occurrences) {
+		final Map<Term, Integer> lengths = new HashMap<>();
+		// the number of nested lets that are needed for the let variables in a term
+		final Map<Term, Integer> letDepths = new HashMap<>();
+		for (final Term term : postOrder) {
+			final int length = estimateLength(term, lengths);
+			int letDepth = 0;
+			for (final Term child : getChildren(term)) {
+				final Integer childDepth = letDepths.get(child);
+				if (childDepth != null) {
+					letDepth = Math.max(letDepth, childDepth);
+				}
+			}
+			final int count = occurrences.get(term);
+			if (term != assertion && term instanceof ApplicationTerm && count > 1
+					&& ((ApplicationTerm) term).getParameters().length > 0) {
+				final String name = LET_PREFIX + mLetNames.size();
+				// "(name term) " is written once, the name replaces each occurrence
+				if ((count - 1) * length > 5 + (count + 1) * name.length()) {
+					mLetNames.put(term, name);
+					if (mLetLevels.size() == letDepth) {
+						mLetLevels.add(new ArrayList<>());
+					}
+					mLetLevels.get(letDepth).add(term);
+					lengths.put(term, name.length());
+					letDepths.put(term, letDepth + 1);
+					continue;
+				}
+			}
+			lengths.put(term, length);
+			letDepths.put(term, letDepth);
+		}
+	}
+
+	/**
+	 * @return the name of a subterm that was returned by {@link #collectNewDefinitions(Term)}
+	 */
+	public String getName(final Term term) {
+		return mNames.get(term);
+	}
+
+	/**
+	 * Write the <code>define-fun</code> command for a subterm that was returned by
+	 * {@link #collectNewDefinitions(Term)}.
+	 */
+	public void appendDefinition(final Appendable out, final Term term) throws IOException {
+		out.append("(define-fun ").append(mNames.get(term)).append(" () ");
+		mPrintTerm.append(out, term.getSort());
+		out.append(' ');
+		// the term itself has a name already, hence we start with its children
+		((ApplicationTerm) term).toStringHelper(mTodo);
+		run(out, false);
+		out.append(')');
+	}
+
+	/**
+	 * Write the <code>assert</code> command for the term that was passed to {@link #collectNewDefinitions(Term)} most
+	 * recently, after its definitions were written.
+	 */
+	public void appendAssert(final Appendable out, final Term term) throws IOException {
+		out.append("(assert ");
+		if (mLetNames.isEmpty()) {
+			mTodo.addLast(term);
+			run(out, false);
+		} else if (term instanceof AnnotatedTerm) {
+			// the lets have to be inside of the annotation, such that a named term is closed
+			final AnnotatedTerm annotatedTerm = (AnnotatedTerm) term;
+			out.append("(! ");
+			appendWithLets(out, annotatedTerm.getSubterm());
+			for (final Annotation annotation : annotatedTerm.getAnnotations()) {
+				out.append(' ').append(annotation.getKey());
+				if (annotation.getValue() != null) {
+					out.append(' ');
+					mTodo.addLast(annotation.getValue());
+					run(out, false);
+				}
+			}
+			out.append(')');
+		} else {
+			appendWithLets(out, term);
+		}
+		out.append(')');
+	}
+
+	public long getAssertions() {
+		return mAssertions;
+	}
+
+	public long getDefinitions() {
+		return mDefinitions;
+	}
+
+	/**
+	 * Traverse the subterms that do not have a name yet.
+	 *
+	 * @return the traversed subterms in post-order, i.e., each term occurs after its subterms
+	 */
+	private List<Term> countOccurrences(final Term root, final Map<Term, Integer> occurrences) {
+		final List<Term> postOrder = new ArrayList<>();
+		final ArrayDeque<Term> stack = new ArrayDeque<>();
+		final ArrayDeque<Integer> nextChild = new ArrayDeque<>();
+		occurrences.put(root, 1);
+		stack.push(root);
+		nextChild.push(0);
+		while (!stack.isEmpty()) {
+			final Term[] children = getChildren(stack.peek());
+			final int index = nextChild.pop();
+			if (index == children.length) {
+				postOrder.add(stack.pop());
+				continue;
+			}
+			nextChild.push(index + 1);
+			final Term child = children[index];
+			if (mNames.containsKey(child)) {
+				continue;
+			}
+			if (child instanceof AnnotatedTerm) {
+				mHasNestedAnnotation = true;
+			}
+			final Integer count = occurrences.get(child);
+			if (count == null) {
+				occurrences.put(child, 1);
+				stack.push(child);
+				nextChild.push(0);
+			} else {
+				occurrences.put(child, count + 1);
+			}
+		}
+		return postOrder;
+	}
+
+	private static Term[] getChildren(final Term term) {
+		if (term instanceof ApplicationTerm) {
+			return ((ApplicationTerm) term).getParameters();
+		} else if (term instanceof AnnotatedTerm) {
+			return new Term[] { ((AnnotatedTerm) term).getSubterm() };
+		} else {
+			return new Term[0];
+		}
+	}
+
+	/**
+	 * Estimate the number of characters of a term, given the lengths of its unnamed children.
+	 */
+	private int estimateLength(final Term term, final Map<Term, Integer> lengths) {
+		if (term instanceof ApplicationTerm) {
+			final ApplicationTerm appTerm = (ApplicationTerm) term;
+			final int nameLength = appTerm.getFunction().getApplicationString().length();
+			final Term[] params = appTerm.getParameters();
+			if (params.length == 0) {
+				return nameLength;
+			}
+			int result = nameLength + 2;
+			for (final Term param : params) {
+				result += 1 + getLength(param, lengths);
+			}
+			return result;
+		} else if (term instanceof AnnotatedTerm) {
+			return getLength(((AnnotatedTerm) term).getSubterm(), lengths) + UNKNOWN_LENGTH;
+		} else if (term instanceof TermVariable) {
+			return ((TermVariable) term).getName().length();
+		} else if (term instanceof QuantifiedFormula || term instanceof LetTerm) {
+			return UNKNOWN_LENGTH;
+		} else if (term instanceof ConstantTerm) {
+			return String.valueOf(((ConstantTerm) term).getValue()).length();
+		} else {
+			return UNKNOWN_LENGTH;
+		}
+	}
+
+	private int getLength(final Term term, final Map<Term, Integer> lengths) {
+		final String name = mNames.get(term);
+		if (name != null) {
+			return name.length();
+		}
+		return lengths.get(term);
+	}
+
+	private void appendWithLets(final Appendable out, final Term term) throws IOException {
+		for (final List<Term> level : mLetLevels) {
+			out.append("(let (");
+			String separator = "";
+			for (final Term bound : level) {
+				out.append(separator).append('(').append(mLetNames.get(bound)).append(' ');
+				// the term itself is bound to the let variable, hence we start with its children
+				((ApplicationTerm) bound).toStringHelper(mTodo);
+				run(out, true);
+				out.append(')');
+				separator = " ";
+			}
+			out.append(") ");
+		}
+		mTodo.addLast(term);
+		run(out, true);
+		for (int i = 0; i < mLetLevels.size(); ++i) {
+			out.append(')');
+		}
+	}
+
+	private void run(final Appendable out, final boolean useLets) throws IOException {
+		while (!mTodo.isEmpty()) {
+			final Object next = mTodo.removeLast();
+			if (next instanceof Term) {
+				String name = mNames.get(next);
+				if (name == null && useLets) {
+					name = mLetNames.get(next);
+				}
+				if (name != null) {
+					out.append(name);
+				} else if (next instanceof ApplicationTerm) {
+					((ApplicationTerm) next).toStringHelper(mTodo);
+				} else if (next instanceof AnnotatedTerm) {
+					((AnnotatedTerm) next).toStringHelper(mTodo);
+				} else if (next instanceof QuantifiedFormula || next instanceof LetTerm) {
+					mPrintTerm.append(out, new FormulaLet().let((Term) next));
+				} else {
+					mPrintTerm.append(out, (Term) next);
+				}
+			} else if (next instanceof Sort) {
+				mPrintTerm.append(out, (Sort) next);
+			} else if (next instanceof Object[]) {
+				mPrintTerm.append(out, (Object[]) next);
+			} else {
+				out.append(next.toString());
+			}
+		}
+	}
+}
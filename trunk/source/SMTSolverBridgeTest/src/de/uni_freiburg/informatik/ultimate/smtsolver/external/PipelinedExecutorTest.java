@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE SMTSolverBridge.
+ *
+ * The ULTIMATE SMTSolverBridge is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE SMTSolverBridge is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE SMTSolverBridge. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE SMTSolverBridge, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE SMTSolverBridge grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.smtsolver.external;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IToolchainStorage;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
+import de.uni_freiburg.informatik.ultimate.logic.Logics;
+import de.uni_freiburg.informatik.ultimate.logic.SMTLIBException;
+import de.uni_freiburg.informatik.ultimate.logic.Script;
+import de.uni_freiburg.informatik.ultimate.logic.Script.LBool;
+import de.uni_freiburg.informatik.ultimate.logic.Sort;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Runs the pipelined mode of the {@link Executor} against a fake solver (a shell script) that does not print success,
+ * answers every check-sat with unsat, and rejects every command that contains "fail". The fake solver echoes strings
+ * either with their quotes, as required by SMT-LIB 2.6, or without them, as Z3 does.
+ */
+public class PipelinedExecutorTest {
+
+	private IUltimateServiceProvider mServices;
+	private IToolchainStorage mStorage;
+	private ILogger mLogger;
+	private File mSolver;
+	private Script mScript;
+
+	@Before
+	public void setUp() {
+		mServices = UltimateMocks.createUltimateServiceProviderMock();
+		mStorage = UltimateMocks.createToolchainStorageMock();
+		mLogger = mServices.getLoggingService().getLogger(getClass());
+	}
+
+	@After
+	public void tearDown() {
+		if (mScript != null) {
+			mScript.exit();
+		}
+		if (mSolver != null) {
+			mSolver.delete();
+		}
+	}
+
+	@Test
+	public void quotedSentinels() throws IOException {
+		startSolver(true);
+		declareAndCheck();
+	}
+
+	@Test
+	public void unquotedSentinels() throws IOException {
+		startSolver(false);
+		declareAndCheck();
+	}
+
+	@Test
+	public void errorBeforeUnquotedSentinelIsAttributedToItsCommand() throws IOException {
+		startSolver(false);
+		mScript.setLogic(Logics.QF_UF);
+		final Sort bool = mScript.sort("Bool");
+		mScript.declareFun("ok", new Sort[0], bool);
+		mScript.declareFun("fail", new Sort[0], bool);
+		mScript.declareFun("fine", new Sort[0], bool);
+		try {
+			mScript.checkSat();
+			Assert.fail("error of the solver was not reported");
+		} catch (final SMTLIBException ex) {
+			Assert.assertTrue(ex.getMessage(), ex.getMessage().contains("fail"));
+		}
+		// the stream is still in sync
+		Assert.assertEquals(LBool.UNSAT, mScript.checkSat());
+	}
+
+	private void declareAndCheck() {
+		mScript.setLogic(Logics.QF_UF);
+		final Sort bool = mScript.sort("Bool");
+		for (int i = 0; i < 10; i++) {
+			mScript.declareFun("b" + i, new Sort[0], bool);
+			mScript.assertTerm(mScript.term("b" + i));
+		}
+		Assert.assertEquals(LBool.UNSAT, mScript.checkSat());
+		mScript.push(1);
+		mScript.assertTerm(mScript.term("false"));
+		Assert.assertEquals(LBool.UNSAT, mScript.checkSat());
+		mScript.pop(1);
+	}
+
+	private void startSolver(final boolean quotedEcho) throws IOException {
+		final String quote = quotedEcho ? "\\\"" : "";
+		final String solver = "while read -r line; do\n"
+				+ "  case \"$line\" in\n"
+				+ "    *fail*) echo '(error \"rejected\")' ;;\n"
+				+ "    '(echo \"'*) s=\"${line#???????}\"; echo \"" + quote + "${s%??}" + quote + "\" ;;\n"
+				+ "    '(check-sat)') echo unsat ;;\n"
+				+ "    '(exit)') exit 0 ;;\n"
+				+ "  esac\n"
+				+ "done\n";
+		mSolver = File.createTempFile("fakesolver", ".sh");
+		Files.write(mSolver.toPath(), solver.getBytes(StandardCharsets.US_ASCII));
+		mScript = new Scriptor("sh " + mSolver.getAbsolutePath(), mLogger, mServices, mStorage, "fake solver", true);
+	}
+}
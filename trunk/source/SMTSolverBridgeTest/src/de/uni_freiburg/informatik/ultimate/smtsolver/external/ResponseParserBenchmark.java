@@ -0,0 +1,242 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE SMTSolverBridge.
+ *
+ * The ULTIMATE SMTSolverBridge is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE SMTSolverBridge is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE SMTSolverBridge. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE SMTSolverBridge, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE SMTSolverBridge grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.smtsolver.external;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map.Entry;
+
+import com.github.jhoenicke.javacup.runtime.Symbol;
+
+import de.uni_freiburg.informatik.ultimate.logic.SMTLIBException;
+import de.uni_freiburg.informatik.ultimate.logic.Sort;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.option.OptionMap;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.smtlib2.ParseEnvironment;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.smtlib2.SMTInterpol;
+import de.uni_freiburg.informatik.ultimate.test.mocks.ConsoleLogger;
+
+/**
+ * Compares the throughput of the CUP generated {@link Parser} and the {@link ResponseParser} on solver output. The
+ * given SMT scripts are run by SMTInterpol. After each satisfiable check-sat, the output of get-value for all declared
+ * constants and the output of get-assertions are recorded as an external solver would print them, and both parsers
+ * parse the recorded output. The results of both parsers are compared.
+ */
+public class ResponseParserBenchmark {
+
+	private static final int DEFAULT_REPETITIONS = 5;
+	private static final int TIMEOUT_MILLIS = 5000;
+
+	public static void main(final String[] param) throws IOException {
+		if (param.length < 1 || param.length > 2) {
+			System.err.println("USAGE ResponseParserBenchmark <file.smt2 or directory> [repetitions]");
+			return;
+		}
+		final int repetitions = param.length == 2 ? Integer.parseInt(param[1]) : DEFAULT_REPETITIONS;
+		final List<String> files = MainMultipleFiles.getFiles(new File(param[0]));
+		final SmtInterpolLogProxyWrapper logProxy = new SmtInterpolLogProxyWrapper(new ConsoleLogger());
+		final OptionMap optionMap = new OptionMap(logProxy, true);
+
+		System.out.println("file | responses | chars | lexer ms | CUP ms | hand-written ms | fallbacks");
+		final Statistics total = new Statistics();
+		for (final String file : files) {
+			final RecordingScript script = new RecordingScript(logProxy, repetitions);
+			try {
+				new ParseEnvironment(script, optionMap).parseScript(file);
+			} catch (final SMTLIBException ex) {
+				System.err.println(file + ": " + ex.getMessage());
+			}
+			System.out.println(file + " | " + script.mStatistics);
+			total.add(script.mStatistics);
+		}
+		System.out.println("total | " + total);
+	}
+
+	/**
+	 * SMTInterpol, which records its models and assertions after each satisfiable check-sat and lets both parsers
+	 * parse them.
+	 */
+	private static final class RecordingScript extends SMTInterpol {
+		private final int mRepetitions;
+		private final List<Term> mConstants = new ArrayList<>();
+		private final List<Term> mAssertions = new ArrayList<>();
+		/**
+		 * Sizes of {@link #mConstants} and {@link #mAssertions} for each assertion level.
+		 */
+		private final List<int[]> mLevels = new ArrayList<>();
+		private final Statistics mStatistics = new Statistics();
+
+		RecordingScript(final SmtInterpolLogProxyWrapper logProxy, final int repetitions) {
+			super(logProxy);
+			mRepetitions = repetitions;
+			setOption(":produce-models", true);
+			setOption(":timeout", TIMEOUT_MILLIS);
+		}
+
+		@Override
+		public void declareFun(final String fun, final Sort[] paramSorts, final Sort resultSort)
+				throws SMTLIBException {
+			super.declareFun(fun, paramSorts, resultSort);
+			if (paramSorts.length == 0) {
+				mConstants.add(term(fun));
+			}
+		}
+
+		@Override
+		public LBool assertTerm(final Term term) throws SMTLIBException {
+			mAssertions.add(term);
+			return super.assertTerm(term);
+		}
+
+		@Override
+		public void push(final int levels) throws SMTLIBException {
+			super.push(levels);
+			for (int i = 0; i < levels; ++i) {
+				mLevels.add(new int[] { mConstants.size(), mAssertions.size() });
+			}
+		}
+
+		@Override
+		public void pop(final int levels) throws SMTLIBException {
+			super.pop(levels);
+			final int[] sizes = mLevels.get(mLevels.size() - levels);
+			mLevels.subList(mLevels.size() - levels, mLevels.size()).clear();
+			mConstants.subList(sizes[0], mConstants.size()).clear();
+			mAssertions.subList(sizes[1], mAssertions.size()).clear();
+		}
+
+		@Override
+		public LBool checkSat() throws SMTLIBException {
+			final LBool result = super.checkSat();
+			if (result == LBool.SAT) {
+				if (!mConstants.isEmpty()) {
+					final StringBuilder response = new StringBuilder("(");
+					for (final Entry<Term, Term> entry : getValue(mConstants.toArray(new Term[mConstants.size()]))
+							.entrySet()) {
+						response.append('(').append(entry.getKey()).append(' ').append(entry.getValue()).append(')');
+					}
+					measure(LexerSymbols.GETVALUE, response.append(')').toString());
+				}
+				final StringBuilder response = new StringBuilder("(");
+				for (final Term assertion : mAssertions) {
+					response.append(assertion).append('\n');
+				}
+				measure(LexerSymbols.GETASSERTIONS, response.append(')').toString());
+			}
+			return result;
+		}
+
+		private void measure(final int what, final String response) {
+			List<Symbol> tokens = null;
+			Object cupResult = null;
+			Symbol handWrittenResult = null;
+			// the last repetition is measured, the others are warm-up
+			for (int i = 0; i < mRepetitions; ++i) {
+				long startTime = System.nanoTime();
+				tokens = lex(response);
+				final long lexerNanos = System.nanoTime() - startTime;
+
+				final List<Symbol> cupTokens = new ArrayList<>(tokens);
+				startTime = System.nanoTime();
+				cupResult = parseWithCup(what, cupTokens);
+				final long cupNanos = System.nanoTime() - startTime;
+
+				startTime = System.nanoTime();
+				handWrittenResult = new ResponseParser(this).parse(what, tokens);
+				final long handWrittenNanos = System.nanoTime() - startTime;
+				if (i == mRepetitions - 1) {
+					mStatistics.mLexerNanos += lexerNanos;
+					mStatistics.mCupNanos += cupNanos;
+					mStatistics.mHandWrittenNanos += handWrittenNanos;
+				}
+			}
+			++mStatistics.mResponses;
+			mStatistics.mChars += response.length();
+			if (handWrittenResult == null) {
+				++mStatistics.mFallbacks;
+			} else if (!isEqual(cupResult, handWrittenResult.value)) {
+				System.err.println("Different results for " + response);
+			}
+		}
+
+		private static List<Symbol> lex(final String response) {
+			final Lexer lexer = new Lexer(new StringReader(response));
+			lexer.setSymbolFactory(new MySymbolFactory());
+			try {
+				return Executor.parseSexpr(lexer);
+			} catch (final IOException e) {
+				throw new AssertionError(e);
+			}
+		}
+
+		private Object parseWithCup(final int what, final List<Symbol> tokens) {
+			final Parser parser = new Parser();
+			parser.setScript(this);
+			tokens.add(0, new Symbol(what));
+			parser.setAnswer(tokens);
+			try {
+				return parser.parse().value;
+			} catch (final Exception e) {
+				throw new AssertionError(e);
+			}
+		}
+
+		private static boolean isEqual(final Object cupResult, final Object handWrittenResult) {
+			if (cupResult instanceof Term[]) {
+				return Arrays.equals((Term[]) cupResult, (Term[]) handWrittenResult);
+			}
+			return cupResult.equals(handWrittenResult);
+		}
+	}
+
+	private static final class Statistics {
+		private long mResponses;
+		private long mChars;
+		private long mLexerNanos;
+		private long mCupNanos;
+		private long mHandWrittenNanos;
+		private long mFallbacks;
+
+		void add(final Statistics other) {
+			mResponses += other.mResponses;
+			mChars += other.mChars;
+			mLexerNanos += other.mLexerNanos;
+			mCupNanos += other.mCupNanos;
+			mHandWrittenNanos += other.mHandWrittenNanos;
+			mFallbacks += other.mFallbacks;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%d | %d | %.3f | %.3f | %.3f | %d", mResponses, mChars, mLexerNanos / 1e6,
+					mCupNanos / 1e6, mHandWrittenNanos / 1e6, mFallbacks);
+		}
+	}
+}
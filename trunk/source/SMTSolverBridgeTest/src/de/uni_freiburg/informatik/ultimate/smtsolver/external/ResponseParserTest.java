@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE SMTSolverBridge.
+ *
+ * The ULTIMATE SMTSolverBridge is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE SMTSolverBridge is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE SMTSolverBridge. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE SMTSolverBridge, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE SMTSolverBridge grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.smtsolver.external;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.github.jhoenicke.javacup.runtime.Symbol;
+
+import de.uni_freiburg.informatik.ultimate.logic.Logics;
+import de.uni_freiburg.informatik.ultimate.logic.NoopScript;
+import de.uni_freiburg.informatik.ultimate.logic.Script;
+import de.uni_freiburg.informatik.ultimate.logic.Script.LBool;
+import de.uni_freiburg.informatik.ultimate.logic.Sort;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.DefaultLogger;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.LogProxy;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.smtlib2.SMTInterpol;
+
+/**
+ * Checks that the {@link ResponseParser} builds the same results as the CUP generated {@link Parser} and that it
+ * leaves the responses it does not support to the {@link Parser}. The throughput of both parsers is compared by the
+ * {@link ResponseParserBenchmark}.
+ */
+public class ResponseParserTest {
+
+	@Test
+	public void status() {
+		final Script script = createScript(Logics.QF_UF);
+		Assert.assertEquals(LBool.SAT, parseHandWritten(script, LexerSymbols.CHECKSAT, "sat").value);
+		Assert.assertEquals(LBool.UNSAT, parseHandWritten(script, LexerSymbols.CHECKSAT, "unsat").value);
+		Assert.assertEquals(LBool.UNKNOWN, parseHandWritten(script, LexerSymbols.CHECKSAT, "unknown").value);
+		parse(script, LexerSymbols.CHECKSAT, "sat");
+	}
+
+	@Test
+	public void valuesOfModel() {
+		final DefaultLogger logger = new DefaultLogger();
+		logger.setLoglevel(LogProxy.LOGLEVEL_OFF);
+		final SMTInterpol solver = new SMTInterpol(logger);
+		solver.setOption(":produce-models", true);
+		solver.setLogic(Logics.QF_AUFLIRA);
+		declareConstants(solver);
+		solver.assertTerm(TermParseUtils.parseTerm(solver, "(and (< x (- 3)) (= (* 3 r) 1.0) (= (select a x) y)"
+				+ " (= (f x y) (+ y 2)) (or p q) (not (= p q)) (> y 7))"));
+		Assert.assertEquals(LBool.SAT, solver.checkSat());
+		final Term[] constants = { solver.term("x"), solver.term("y"), solver.term("r"), solver.term("p"),
+				solver.term("q"), solver.term("a"), solver.term("f", solver.term("x"), solver.term("y")) };
+		final StringBuilder response = new StringBuilder("(");
+		for (final Entry<Term, Term> entry : solver.getValue(constants).entrySet()) {
+			response.append('(').append(entry.getKey()).append(' ').append(entry.getValue()).append(")\n");
+		}
+		parse(solver, LexerSymbols.GETVALUE, response.append(')').toString());
+		solver.exit();
+	}
+
+	@Test
+	public void values() {
+		final Script script = createScript(Logics.AUFLIRA);
+		parse(script, LexerSymbols.GETVALUE, "((x (- 5)) (y 0) (r (/ 1.0 3.0)) (p true) (q false))");
+		parse(script, LexerSymbols.GETVALUE, "((r (- (/ 7.0 2.0))) ((f x 1) 12) ((select a 3) (- 1)))");
+		parse(script, LexerSymbols.GETVALUE,
+				"((a (store (store ((as const (Array Int Int)) 0) 1 2) (- 3) 4)) (r 2.5))");
+	}
+
+	@Test
+	public void bitvectorValues() {
+		final Script script = createScript(Logics.QF_BV);
+		final Sort bv8 = script.sort("BitVec", new BigInteger[] { BigInteger.valueOf(8) });
+		script.declareFun("u", Script.EMPTY_SORT_ARRAY, bv8);
+		script.declareFun("v", Script.EMPTY_SORT_ARRAY, bv8);
+		parse(script, LexerSymbols.GETVALUE, "((u #b00000101) (v #xff))");
+		parse(script, LexerSymbols.GETVALUE, "((u (_ bv5 8)) ((bvadd u v) (_ bv255 8)))");
+	}
+
+	@Test
+	public void assertions() {
+		final Script script = createScript(Logics.AUFLIRA);
+		parse(script, LexerSymbols.GETASSERTIONS, "()");
+		parse(script, LexerSymbols.GETASSERTIONS,
+				"((let ((.cse0 (+ x 1)) (.cse1 (select a y))) (and (<= .cse0 .cse1) (= (f .cse0 .cse0) .cse1)))\n"
+						+ "(let ((z (* 2 x))) (let ((z (+ z 1)) (w z)) (> z w)))\n"
+						+ "(forall ((i Int) (j Int)) (=> (< i j) (<= (select a i) (select a j))))\n"
+						+ "(exists ((x Real)) (and (< r x) (let ((r x)) (< r 1.5))))\n"
+						+ "(ite p (= (to_real x) r) (distinct x y (- 7))))");
+	}
+
+	@Test
+	public void interpolantsAndUnsatCore() {
+		final Script script = createScript(Logics.AUFLIRA);
+		script.declareFun("a1", Script.EMPTY_SORT_ARRAY, script.sort("Bool"));
+		script.declareFun("a2", Script.EMPTY_SORT_ARRAY, script.sort("Bool"));
+		parse(script, LexerSymbols.GETINTERPOLANTS, "(interpolants (<= x 0) true (let ((z (+ x y))) (< z 3)))");
+		parse(script, LexerSymbols.GETUNSATCORE, "(a1 a2)");
+		parse(script, LexerSymbols.GETUNSATCORE, "()");
+		parse(script, LexerSymbols.GETTERM, "(let ((z (- x))) (+ z z y))");
+	}
+
+	@Test
+	public void unsupportedResponsesAreLeftToTheCupParser() {
+		final Script script = createScript(Logics.AUFLIRA);
+		Assert.assertNull(parseHandWritten(script, LexerSymbols.GETASSERTIONS, "((! (< x y) :named n))"));
+		Assert.assertNull(parseHandWritten(script, LexerSymbols.GETVALUE, "(error \"model is not available\")"));
+		Assert.assertNull(parseHandWritten(script, LexerSymbols.CHECKSAT, "unsupported"));
+		Assert.assertNull(parseHandWritten(script, LexerSymbols.CHECKSAT, "(error \"solver crashed\")"));
+		Assert.assertNull(parseHandWritten(script, LexerSymbols.GETTERM, "(+ x undeclared)"));
+		// the parser is usable after a fallback
+		parse(script, LexerSymbols.GETTERM, "(let ((z x)) (+ z y))");
+	}
+
+	private static Script createScript(final Logics logic) {
+		final Script script = new NoopScript();
+		script.setLogic(logic);
+		if (logic != Logics.QF_BV && logic != Logics.QF_UF) {
+			declareConstants(script);
+		}
+		return script;
+	}
+
+	private static void declareConstants(final Script script) {
+		final Sort intSort = script.sort("Int");
+		final Sort bool = script.sort("Bool");
+		script.declareFun("x", Script.EMPTY_SORT_ARRAY, intSort);
+		script.declareFun("y", Script.EMPTY_SORT_ARRAY, intSort);
+		script.declareFun("r", Script.EMPTY_SORT_ARRAY, script.sort("Real"));
+		script.declareFun("p", Script.EMPTY_SORT_ARRAY, bool);
+		script.declareFun("q", Script.EMPTY_SORT_ARRAY, bool);
+		script.declareFun("a", Script.EMPTY_SORT_ARRAY, script.sort("Array", intSort, intSort));
+		script.declareFun("f", new Sort[] { intSort, intSort }, intSort);
+	}
+
+	/**
+	 * Parse the response with both parsers and check that the results coincide.
+	 */
+	private static void parse(final Script script, final int what, final String response) {
+		final Object cupResult = parseWithCup(script, what, response);
+		final Symbol handWrittenResult = parseHandWritten(script, what, response);
+		Assert.assertNotNull("hand-written parser fell back on " + response, handWrittenResult);
+		Assert.assertEquals(what, handWrittenResult.sym);
+		// bitvector constants are not unified by the theory, hence the results are compared by their representation
+		Assert.assertEquals(response, toString(cupResult), toString(handWrittenResult.value));
+	}
+
+	private static String toString(final Object result) {
+		if (result instanceof Term[]) {
+			return Arrays.toString((Term[]) result);
+		}
+		if (result instanceof Map) {
+			// the parsers use different maps, compare the valuations independently of their order
+			final Map<String, String> valuation = new TreeMap<>();
+			for (final Entry<?, ?> entry : ((Map<?, ?>) result).entrySet()) {
+				valuation.put(entry.getKey().toString(), entry.getValue().toString());
+			}
+			return valuation.toString();
+		}
+		return String.valueOf(result);
+	}
+
+	private static Symbol parseHandWritten(final Script script, final int what, final String response) {
+		return new ResponseParser(script).parse(what, lex(response));
+	}
+
+	private static Object parseWithCup(final Script script, final int what, final String response) {
+		final List<Symbol> tokens = new ArrayList<>(lex(response));
+		tokens.add(0, new Symbol(what));
+		final Parser parser = new Parser();
+		parser.setScript(script);
+		parser.setAnswer(tokens);
+		try {
+			return parser.parse().value;
+		} catch (final Exception e) {
+			throw new AssertionError(e);
+		}
+	}
+
+	private static List<Symbol> lex(final String response) {
+		final Lexer lexer = new Lexer(new StringReader(response));
+		lexer.setSymbolFactory(new MySymbolFactory());
+		try {
+			return Executor.parseSexpr(lexer);
+		} catch (final IOException e) {
+			throw new AssertionError(e);
+		}
+	}
+}
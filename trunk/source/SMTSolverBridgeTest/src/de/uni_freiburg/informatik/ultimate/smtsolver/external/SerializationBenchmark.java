@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE SMTSolverBridge.
+ *
+ * The ULTIMATE SMTSolverBridge is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE SMTSolverBridge is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE SMTSolverBridge. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE SMTSolverBridge, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE SMTSolverBridge grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.smtsolver.external;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import de.uni_freiburg.informatik.ultimate.logic.NoopScript;
+import de.uni_freiburg.informatik.ultimate.logic.SMTLIBException;
+import de.uni_freiburg.informatik.ultimate.logic.Script.LBool;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.option.OptionMap;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.smtlib2.ParseEnvironment;
+import de.uni_freiburg.informatik.ultimate.test.mocks.ConsoleLogger;
+
+/**
+ * Compares the number of characters and the time that is needed to write the assertions of SMT scripts (e.g., scripts
+ * that were dumped by Ultimate) as plain <code>assert</code> commands and with the {@link TermSharingSerializer}. No
+ * solver is started, the commands are only counted.
+ */
+public class SerializationBenchmark {
+
+	private static final int DEFAULT_REPETITIONS = 5;
+
+	public static void main(final String[] param) throws IOException {
+		if (param.length < 1 || param.length > 2) {
+			System.err.println("USAGE SerializationBenchmark <file.smt2 or directory> [repetitions]");
+			return;
+		}
+		final int repetitions = param.length == 2 ? Integer.parseInt(param[1]) : DEFAULT_REPETITIONS;
+		final List<String> files = MainMultipleFiles.getFiles(new File(param[0]));
+		final OptionMap optionMap = new OptionMap(new SmtInterpolLogProxyWrapper(new ConsoleLogger()), true);
+
+		System.out.println("file | asserts | definitions | plain chars | shared chars | plain ms | shared ms");
+		final SerializingScript total = new SerializingScript();
+		for (final String file : files) {
+			SerializingScript script = null;
+			// the last repetition is measured, the others are warm-up
+			for (int i = 0; i < repetitions; ++i) {
+				script = new SerializingScript();
+				try {
+					new ParseEnvironment(script, optionMap).parseScript(file);
+				} catch (final SMTLIBException ex) {
+					System.err.println(file + ": " + ex.getMessage());
+				}
+			}
+			if (script != null) {
+				System.out.println(file + " | " + script);
+				total.add(script);
+			}
+		}
+		System.out.println("total | " + total);
+	}
+
+	/**
+	 * A script that writes each assertion in both ways to a {@link CharCounter}.
+	 */
+	private static final class SerializingScript extends NoopScript {
+		private final TermSharingSerializer mSerializer = new TermSharingSerializer();
+		private final CharCounter mPlainChars = new CharCounter();
+		private final CharCounter mSharedChars = new CharCounter();
+		private long mPlainNanos;
+		private long mSharedNanos;
+		private long mAssertions;
+		private long mDefinitions;
+
+		@Override
+		public LBool assertTerm(final Term term) throws SMTLIBException {
+			super.assertTerm(term);
+			try {
+				long startTime = System.nanoTime();
+				mPlainChars.append(SmtCommandUtils.AssertCommand.buildString(term)).append('\n');
+				mPlainNanos += System.nanoTime() - startTime;
+
+				startTime = System.nanoTime();
+				final List<Term> definitions = mSerializer.collectNewDefinitions(term);
+				for (final Term definition : definitions) {
+					mSerializer.appendDefinition(mSharedChars, definition);
+					mSharedChars.append('\n');
+				}
+				mSerializer.appendAssert(mSharedChars, term);
+				mSharedChars.append('\n');
+				mSharedNanos += System.nanoTime() - startTime;
+				++mAssertions;
+				mDefinitions += definitions.size();
+			} catch (final IOException e) {
+				throw new AssertionError(e);
+			}
+			return LBool.UNKNOWN;
+		}
+
+		@Override
+		public void push(final int levels) throws SMTLIBException {
+			super.push(levels);
+			mSerializer.push(levels);
+		}
+
+		@Override
+		public void pop(final int levels) throws SMTLIBException {
+			super.pop(levels);
+			mSerializer.pop(levels);
+		}
+
+		@Override
+		public void reset() {
+			super.reset();
+			mSerializer.reset();
+		}
+
+		void add(final SerializingScript other) {
+			mPlainChars.mCount += other.mPlainChars.mCount;
+			mSharedChars.mCount += other.mSharedChars.mCount;
+			mPlainNanos += other.mPlainNanos;
+			mSharedNanos += other.mSharedNanos;
+			mAssertions += other.mAssertions;
+			mDefinitions += other.mDefinitions;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%d | %d | %d | %d | %.3f | %.3f", mAssertions, mDefinitions, mPlainChars.mCount,
+					mSharedChars.mCount, mPlainNanos / 1e6, mSharedNanos / 1e6);
+		}
+	}
+
+	/**
+	 * An {@link Appendable} that only counts the characters that are written to it.
+	 */
+	private static final class CharCounter implements Appendable {
+		private long mCount;
+
+		@Override
+		public Appendable append(final CharSequence csq) {
+			mCount += csq.length();
+			return this;
+		}
+
+		@Override
+		public Appendable append(final CharSequence csq, final int start, final int end) {
+			mCount += end - start;
+			return this;
+		}
+
+		@Override
+		public Appendable append(final char c) {
+			++mCount;
+			return this;
+		}
+	}
+}
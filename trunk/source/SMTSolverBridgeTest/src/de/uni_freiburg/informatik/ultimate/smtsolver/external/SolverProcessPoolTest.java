@@ -0,0 +1,226 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE SMTSolverBridge.
+ *
+ * The ULTIMATE SMTSolverBridge is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE SMTSolverBridge is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE SMTSolverBridge. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE SMTSolverBridge, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE SMTSolverBridge grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.smtsolver.external;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IProgressMonitorService;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IToolchainStorage;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
+import de.uni_freiburg.informatik.ultimate.logic.Logics;
+import de.uni_freiburg.informatik.ultimate.logic.Script;
+import de.uni_freiburg.informatik.ultimate.logic.Script.LBool;
+import de.uni_freiburg.informatik.ultimate.logic.Sort;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+
+/**
+ * Tests leasing, resetting and releasing the processes of a {@link SolverProcessPool}. The processes run a fake solver
+ * (a shell script) in pipelined mode that writes every command it receives to a log, echoes strings (without quotes if
+ * its second argument is "unquoted", as Z3 does), and answers every check-sat with unsat.
+ */
+public class SolverProcessPoolTest {
+
+	private IUltimateServiceProvider mServices;
+	private IToolchainStorage mStorage;
+	private ILogger mLogger;
+	private File mSolver;
+	private File mLog;
+	private String mCommand;
+	private SolverProcessPool mPool;
+
+	@Before
+	public void setUp() throws IOException {
+		mServices = UltimateMocks.createUltimateServiceProviderMock();
+		mStorage = UltimateMocks.createToolchainStorageMock();
+		mLogger = mServices.getLoggingService().getLogger(getClass());
+		final String solver = "q='\"'; [ \"$2\" = unquoted ] && q=''\n"
+				+ "while read -r line; do\n"
+				+ "  echo \"$line\" >> \"$1\"\n"
+				+ "  case \"$line\" in\n"
+				+ "    '(echo \"'*) s=\"${line#???????}\"; echo \"$q${s%??}$q\" ;;\n"
+				+ "    '(check-sat)') echo unsat ;;\n"
+				+ "    '(exit)') exit 0 ;;\n"
+				+ "  esac\n"
+				+ "done\n";
+		mSolver = File.createTempFile("fakesolver", ".sh");
+		mLog = File.createTempFile("fakesolver", ".log");
+		Files.write(mSolver.toPath(), solver.getBytes(StandardCharsets.US_ASCII));
+		mCommand = "sh " + mSolver.getAbsolutePath() + " " + mLog.getAbsolutePath();
+		mPool = SolverProcessPool.getPool(mStorage, mLogger);
+	}
+
+	@After
+	public void tearDown() {
+		mPool.destroy();
+		mSolver.delete();
+		mLog.delete();
+	}
+
+	@Test
+	public void poolIsSharedByToolchain() {
+		Assert.assertSame(mPool, SolverProcessPool.getPool(mStorage, mLogger));
+	}
+
+	@Test
+	public void releasedProcessIsLeasedAgain() throws IOException {
+		final SolverProcess first = mPool.lease(mCommand, true, mServices, mStorage);
+		mPool.release(first, true);
+		Assert.assertTrue(readLog().contains("(reset-assertions)"));
+
+		final SolverProcess second = mPool.lease(mCommand, true, mServices, mStorage);
+		Assert.assertSame(first, second);
+		Assert.assertEquals(2, mPool.getLeases());
+		Assert.assertEquals(1, mPool.getHits());
+		Assert.assertEquals(1, mPool.getLiveProcesses());
+		mPool.release(second, true);
+	}
+
+	@Test
+	public void unquotedSentinelsAreRecognized() throws IOException {
+		final String command = mCommand + " unquoted";
+		final SolverProcess first = mPool.lease(command, true, mServices, mStorage);
+		mPool.release(first, true);
+		Assert.assertEquals(1, mPool.getLiveProcesses());
+		final SolverProcess second = mPool.lease(command, true, mServices, mStorage);
+		Assert.assertEquals(1, mPool.getHits());
+		Assert.assertTrue(mPool.resetProcess(second));
+		mPool.release(second, true);
+	}
+
+	@Test
+	public void processOutOfSyncIsKilledOnRelease() throws IOException {
+		final SolverProcess first = mPool.lease(mCommand, true, mServices, mStorage);
+		mPool.release(first, false);
+		Assert.assertEquals(0, mPool.getLiveProcesses());
+
+		final SolverProcess second = mPool.lease(mCommand, true, mServices, mStorage);
+		Assert.assertNotSame(first, second);
+		Assert.assertEquals(0, mPool.getHits());
+		mPool.release(second, true);
+	}
+
+	@Test
+	public void processOfCanceledServicesIsNotLeasedAgain() throws IOException {
+		final SolverProcess first = mPool.lease(mCommand, true, createCanceledServices(mServices), mStorage);
+		mPool.release(first, true);
+		Assert.assertEquals(0, mPool.getLiveProcesses());
+
+		final SolverProcess second = mPool.lease(mCommand, true, mServices, mStorage);
+		Assert.assertNotSame(first, second);
+		mPool.release(second, true);
+	}
+
+	@Test
+	public void processIsReleasedAfterDestroy() throws IOException {
+		final SolverProcess process = mPool.lease(mCommand, true, mServices, mStorage);
+		mPool.destroy();
+		mPool.release(process, true);
+		Assert.assertEquals(0, mPool.getLiveProcesses());
+	}
+
+	@Test
+	public void matchingPreambleIsSkipped() throws IOException {
+		runScript(Logics.QF_UF);
+		runScript(Logics.QF_UF);
+		Assert.assertEquals(1, mPool.getHits());
+		Assert.assertEquals(1, count(readLog(), "(set-logic QF_UF)"));
+		Assert.assertEquals(0, count(readLog(), "(reset)"));
+	}
+
+	@Test
+	public void differentPreambleResetsProcess() throws IOException {
+		runScript(Logics.QF_UF);
+		runScript(Logics.QF_LIA);
+		Assert.assertEquals(1, mPool.getHits());
+		final List<String> log = readLog();
+		Assert.assertEquals(1, count(log, "(reset)"));
+		Assert.assertTrue(log.indexOf("(reset)") < log.indexOf("(set-logic QF_LIA)"));
+		Assert.assertEquals(1, mPool.getLiveProcesses());
+	}
+
+	private void runScript(final Logics logic) throws IOException {
+		final Script script = new Scriptor(mCommand, mLogger, mServices, mStorage, "fake solver", true, mPool);
+		script.setLogic(logic);
+		script.declareFun("b", new Sort[0], script.sort("Bool"));
+		script.assertTerm(script.term("b"));
+		Assert.assertEquals(LBool.UNSAT, script.checkSat());
+		script.exit();
+	}
+
+	private List<String> readLog() throws IOException {
+		return Files.readAllLines(mLog.toPath(), StandardCharsets.US_ASCII);
+	}
+
+	private static int count(final List<String> log, final String command) {
+		return Collections.frequency(log, command);
+	}
+
+	/**
+	 * @return services whose progress monitor reports that processing has to stop, like the services of a canceled
+	 *         member of a portfolio
+	 */
+	private static IUltimateServiceProvider createCanceledServices(final IUltimateServiceProvider services) {
+		final IProgressMonitorService monitor = services.getProgressMonitorService();
+		final IProgressMonitorService canceledMonitor = (IProgressMonitorService) Proxy.newProxyInstance(
+				IProgressMonitorService.class.getClassLoader(), new Class<?>[] { IProgressMonitorService.class },
+				(proxy, method, args) -> {
+					if (method.getName().startsWith("continueProcessing")) {
+						return false;
+					}
+					return invoke(method, monitor, args);
+				});
+		return (IUltimateServiceProvider) Proxy.newProxyInstance(IUltimateServiceProvider.class.getClassLoader(),
+				new Class<?>[] { IUltimateServiceProvider.class }, (proxy, method, args) -> {
+					if ("getProgressMonitorService".equals(method.getName())) {
+						return canceledMonitor;
+					}
+					return invoke(method, services, args);
+				});
+	}
+
+	private static Object invoke(final Method method, final Object target, final Object[] args)
+			throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (final InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+}
@@ -0,0 +1,305 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE SMTSolverBridge.
+ *
+ * The ULTIMATE SMTSolverBridge is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE SMTSolverBridge is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE SMTSolverBridge. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE SMTSolverBridge, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE SMTSolverBridge grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.smtsolver.external;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.logic.Annotation;
+import de.uni_freiburg.informatik.ultimate.logic.FormulaLet;
+import de.uni_freiburg.informatik.ultimate.logic.Logics;
+import de.uni_freiburg.informatik.ultimate.logic.NoopScript;
+import de.uni_freiburg.informatik.ultimate.logic.Script;
+import de.uni_freiburg.informatik.ultimate.logic.Script.LBool;
+import de.uni_freiburg.informatik.ultimate.logic.Sort;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.logic.TermVariable;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.DefaultLogger;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.LogProxy;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.option.OptionMap;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.smtlib2.ParseEnvironment;
+import de.uni_freiburg.informatik.ultimate.smtinterpol.smtlib2.SMTInterpol;
+
+/**
+ * Sends the output of a {@link TermSharingSerializer} to a second script (the receiver) and checks that the receiver
+ * accepts it, e.g., that each name is defined in the current scope, and that it agrees with the script that built the
+ * terms (the sender) on satisfiability and unsat cores.
+ */
+public class TermSharingSerializerTest {
+
+	/**
+	 * Applications of f in a subterm that is long enough to be named.
+	 */
+	private static final int LONG_NESTING = 20;
+
+	private Script mSender;
+	private Script mReceiver;
+	private ParseEnvironment mParser;
+	private TermSharingSerializer mSerializer;
+	private String mLastOutput;
+	private List<Term> mLastDefinitions;
+
+	@Test
+	public void subtermOfEarlierAssertionIsDefined() throws IOException {
+		setUp(true);
+		final Term t = nested("x", LONG_NESTING);
+		assertTerm(mSender.term("p", t));
+		Assert.assertTrue(mLastDefinitions.isEmpty());
+		assertTerm(mSender.term("=", t, mSender.numeral("3")));
+		Assert.assertEquals(Arrays.asList(t), mLastDefinitions);
+		Assert.assertTrue(mLastOutput, mLastOutput.startsWith("(define-fun ~shared~0 () Int (f "));
+		Assert.assertTrue(mLastOutput, mLastOutput.endsWith("(assert (= ~shared~0 3))\n"));
+		checkSat(LBool.SAT);
+		assertTerm(mSender.term("not", mSender.term("p", mSender.numeral("3"))));
+		Assert.assertTrue(mLastDefinitions.isEmpty());
+		checkSat(LBool.UNSAT);
+	}
+
+	@Test
+	public void subtermRepeatedInOneAssertionIsDefined() throws IOException {
+		setUp(true);
+		final Term t = nested("x", LONG_NESTING);
+		assertTerm(mSender.term("and", mSender.term("p", t),
+				mSender.term("not", mSender.term("p", mSender.term("+", t, mSender.numeral("0"))))));
+		Assert.assertEquals(Arrays.asList(t), mLastDefinitions);
+		checkSat(LBool.UNSAT);
+	}
+
+	@Test
+	public void definitionsArePoppedWithTheirScope() throws IOException {
+		setUp(true);
+		final Term t = nested("x", LONG_NESTING);
+		final Term u = nested("y", LONG_NESTING);
+		assertTerm(mSender.term("p", t));
+
+		push(1);
+		// t was sent on the outer level, u is sent for the first time
+		assertTerm(mSender.term("and", mSender.term("=", t, mSender.numeral("3")), mSender.term("p", u)));
+		Assert.assertEquals(Arrays.asList(t), mLastDefinitions);
+		assertTerm(mSender.term("not", mSender.term("p", u)));
+		Assert.assertEquals(Arrays.asList(u), mLastDefinitions);
+		checkSat(LBool.UNSAT);
+		pop(1);
+
+		// the name of t was popped, but t is still known from the outer level
+		assertTerm(mSender.term("=", t, mSender.numeral("4")));
+		Assert.assertEquals(Arrays.asList(t), mLastDefinitions);
+		Assert.assertTrue(mLastOutput, mLastOutput.startsWith("(define-fun ~shared~2 "));
+		// u was only sent on the popped level
+		assertTerm(mSender.term("p", u));
+		Assert.assertTrue(mLastDefinitions.isEmpty());
+		checkSat(LBool.SAT);
+	}
+
+	@Test
+	public void resetForgetsNames() throws IOException {
+		setUp(true);
+		final Term t = nested("x", LONG_NESTING);
+		assertTerm(mSender.term("p", t));
+		assertTerm(mSender.term("=", t, mSender.numeral("3")));
+		Assert.assertEquals(Arrays.asList(t), mLastDefinitions);
+
+		// the sender keeps its assertions, which are equivalent to the one that follows
+		mReceiver.reset();
+		declare(mReceiver, true);
+		mSerializer.reset();
+
+		assertTerm(mSender.term("p", t));
+		Assert.assertTrue(mLastDefinitions.isEmpty());
+		Assert.assertTrue(mLastOutput, !mLastOutput.contains("~shared~"));
+		checkSat(LBool.SAT);
+	}
+
+	@Test
+	public void shortRepeatedSubtermsAreBoundByLets() throws IOException {
+		setUp(true);
+		final Term s = nested("x", 2);
+		final Term fs = mSender.term("f", mSender.term("+", s, mSender.numeral("1")));
+		final Term[] conjuncts = new Term[4];
+		for (int i = 0; i < conjuncts.length; ++i) {
+			conjuncts[i] = mSender.term("p", mSender.term("+", fs, s, mSender.numeral(String.valueOf(i))));
+		}
+		assertTerm(mSender.term("and", conjuncts));
+		Assert.assertTrue(mLastDefinitions.isEmpty());
+		// the let for f(s + 1) uses the let for s, hence it is in a second let
+		Assert.assertTrue(mLastOutput, mLastOutput.startsWith("(assert (let ((.cse"));
+		Assert.assertTrue(mLastOutput, mLastOutput.contains(") (let ((.cse"));
+		assertTerm(mSender.term("not", mSender.term("p", mSender.term("+", fs, s, mSender.numeral("2")))));
+		checkSat(LBool.UNSAT);
+	}
+
+	@Test
+	public void quantifiedFormulasAndLetTermsAreWrittenAsAWhole() throws IOException {
+		setUp(false);
+		final Term t = nested("x", LONG_NESTING);
+		final TermVariable v = mSender.variable("v", mSender.sort("Int"));
+		final Term quantified = mSender.quantifier(Script.FORALL, new TermVariable[] { v },
+				mSender.term("p", mSender.term("+", v, t)));
+		final TermVariable w = mSender.variable("w", mSender.sort("Int"));
+		final Term let = mSender.let(new TermVariable[] { w }, new Term[] { t }, mSender.term("p", w));
+
+		assertTerm(mSender.term("p", t));
+		assertTerm(mSender.term("and", mSender.term("=", t, mSender.numeral("3")), quantified));
+		// t is named outside of the quantifier, but the quantified formula is not searched for shared subterms
+		Assert.assertEquals(Arrays.asList(t), mLastDefinitions);
+		Assert.assertTrue(mLastOutput, mLastOutput.contains(new FormulaLet().let(quantified).toString()));
+		assertTerm(mSender.term("or", let, mSender.term("=", t, mSender.numeral("4"))));
+		Assert.assertTrue(mLastOutput, mLastOutput.contains(let.toString()));
+	}
+
+	@Test
+	public void namedAssertionKeepsItsNameAndLetsInside() throws IOException {
+		setUp(true);
+		final Term s = nested("x", 2);
+		final Term[] conjuncts = new Term[6];
+		for (int i = 0; i < conjuncts.length; ++i) {
+			conjuncts[i] = mSender.term("p", mSender.term("+", s, mSender.numeral(String.valueOf(i))));
+		}
+		assertTerm(mSender.annotate(mSender.term("and", conjuncts), new Annotation(":named", "a0")));
+		Assert.assertTrue(mLastOutput, mLastOutput.startsWith("(assert (! (let ((.cse0 "));
+		Assert.assertTrue(mLastOutput, mLastOutput.endsWith(" :named a0))\n"));
+		assertTerm(mSender.annotate(mSender.term("not", mSender.term("p", s)), new Annotation(":named", "a1")));
+		assertTerm(mSender.term("p", mSender.numeral("0")));
+		checkSat(LBool.UNSAT);
+		checkUnsatCore("a0", "a1");
+	}
+
+	@Test
+	public void nestedAnnotationsPreventLets() throws IOException {
+		setUp(true);
+		final Term s = nested("x", 2);
+		final Term[] conjuncts = new Term[6];
+		for (int i = 0; i < conjuncts.length; ++i) {
+			conjuncts[i] = mSender.term("p", mSender.term("+", s, mSender.numeral(String.valueOf(i))));
+		}
+		conjuncts[0] = mSender.annotate(conjuncts[0], new Annotation(":named", "n0"));
+		assertTerm(mSender.term("and", conjuncts));
+		Assert.assertTrue(mLastOutput, !mLastOutput.contains("(let "));
+		assertTerm(mSender.annotate(mSender.term("not", mSender.term("p", s)), new Annotation(":named", "a1")));
+		checkSat(LBool.UNSAT);
+		checkUnsatCore("a1");
+	}
+
+	/**
+	 * @param solve
+	 *            true if sender and receiver are solvers for quantifier-free formulas, false if they only check that
+	 *            the commands are well-formed (and may contain quantifiers)
+	 */
+	private void setUp(final boolean solve) {
+		final LogProxy logger = new DefaultLogger();
+		logger.setLoglevel(LogProxy.LOGLEVEL_OFF);
+		final OptionMap options = new OptionMap(logger, true);
+		if (solve) {
+			mSender = new SMTInterpol(logger);
+			mReceiver = new SMTInterpol(options);
+		} else {
+			mSender = new NoopScript();
+			mReceiver = new NoopScript();
+		}
+		options.set(":print-success", false);
+		mParser = new ParseEnvironment(mReceiver, options) {
+			@Override
+			public void printError(final String message) {
+				throw new AssertionError(message + " in " + mLastOutput);
+			}
+		};
+		declare(mSender, solve);
+		declare(mReceiver, solve);
+		mSerializer = new TermSharingSerializer();
+	}
+
+	private static void declare(final Script script, final boolean solve) {
+		script.setOption(":print-success", false);
+		if (solve) {
+			script.setOption(":produce-unsat-cores", true);
+		}
+		script.setLogic(solve ? Logics.QF_UFLIA : Logics.UFLIA);
+		final Sort intSort = script.sort("Int");
+		script.declareFun("x", new Sort[0], intSort);
+		script.declareFun("y", new Sort[0], intSort);
+		script.declareFun("f", new Sort[] { intSort }, intSort);
+		script.declareFun("p", new Sort[] { intSort }, script.sort("Bool"));
+	}
+
+	private Term nested(final String constant, final int applications) {
+		Term result = mSender.term(constant);
+		for (int i = 0; i < applications; ++i) {
+			result = mSender.term("f", result);
+		}
+		return result;
+	}
+
+	private void assertTerm(final Term term) throws IOException {
+		mSender.assertTerm(term);
+		final StringBuilder out = new StringBuilder();
+		mLastDefinitions = mSerializer.collectNewDefinitions(term);
+		for (final Term definition : mLastDefinitions) {
+			mSerializer.appendDefinition(out, definition);
+			out.append('\n');
+		}
+		mSerializer.appendAssert(out, term);
+		out.append('\n');
+		mLastOutput = out.toString();
+		mParser.parseStream(new StringReader(mLastOutput), "serializer output");
+	}
+
+	private void push(final int levels) {
+		mSender.push(levels);
+		mReceiver.push(levels);
+		mSerializer.push(levels);
+	}
+
+	private void pop(final int levels) {
+		mSender.pop(levels);
+		mReceiver.pop(levels);
+		mSerializer.pop(levels);
+	}
+
+	private void checkSat(final LBool expected) {
+		Assert.assertEquals(expected, mSender.checkSat());
+		Assert.assertEquals(expected, mReceiver.checkSat());
+	}
+
+	private void checkUnsatCore(final String... names) {
+		final List<String> core = toStrings(mSender.getUnsatCore());
+		Assert.assertTrue(core.toString(), core.containsAll(Arrays.asList(names)));
+		Assert.assertEquals(core, toStrings(mReceiver.getUnsatCore()));
+	}
+
+	private static List<String> toStrings(final Term[] terms) {
+		final String[] result = new String[terms.length];
+		for (int i = 0; i < terms.length; ++i) {
+			result[i] = terms[i].toString();
+		}
+		Arrays.sort(result);
+		return Arrays.asList(result);
+	}
+}
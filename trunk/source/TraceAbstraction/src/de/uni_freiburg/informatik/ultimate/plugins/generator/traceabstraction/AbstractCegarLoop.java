@@ -527,6 +527,8 @@ public abstract class AbstractCegarLoop<LETTER extends IAction> {
 
 	protected Result reportResult(final Result result) {
 		mCegarLoopBenchmark.setResult(result);
+		mCegarLoopBenchmark.addQuantifierEliminationCacheData(
+				mCsToolkit.getManagedScript().getQuantifierEliminationCache().takeStatistics());
 
 		if (CONTINUE_AFTER_ERROR_TRACE_FOUND) {
 			reportErrorAutomatonBenchmarks();
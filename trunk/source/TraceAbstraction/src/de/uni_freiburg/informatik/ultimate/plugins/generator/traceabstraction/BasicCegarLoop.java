@@ -107,6 +107,7 @@ import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.in
 import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.interpolantautomata.transitionappender.NondeterministicInterpolantAutomaton;
 import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.pathinvariants.PathInvariantsGenerator;
 import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.pathinvariants.internal.DangerInvariantGuesser;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.predicates.CompactHoareTripleCache;
 import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.predicates.InductivityCheck;
 import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.predicates.PredicateFactory;
 import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.preferences.TAPreferences;
@@ -226,6 +227,9 @@ public class BasicCegarLoop<LETTER extends IIcfgTransition<?>> extends AbstractC
 			mHoareAnnotationLocations = Collections.emptySet();
 		}
 		mStoreFloydHoareAutomata = taPrefs.getFloydHoareAutomataReuse() != FloydHoareAutomataReuse.NONE;
+		mCsToolkit.getManagedScript().getSimplificationCache().setCapacity(taPrefs.getSimplificationCacheSize());
+		mCsToolkit.getManagedScript().getQuantifierEliminationCache()
+				.setCapacity(taPrefs.getQuantifierEliminationCacheSize());
 		mErrorGeneralizationEngine = new ErrorGeneralizationEngine<>(services);
 		mHaf = new HoareAnnotationFragments<>(mLogger, mHoareAnnotationLocations, mPref.getHoareAnnotationPositions());
 		mStateFactoryForRefinement = new PredicateFactoryRefinement(mServices, super.mCsToolkit.getManagedScript(),
@@ -531,6 +535,11 @@ public class BasicCegarLoop<LETTER extends IIcfgTransition<?>> extends AbstractC
 		final IHoareTripleChecker htc;
 		if (mTraceCheckAndRefinementEngine.getHoareTripleChecker() != null) {
 			htc = mTraceCheckAndRefinementEngine.getHoareTripleChecker();
+		} else if (mPref.getSharedHoareTripleCacheSize() > 0) {
+			final CompactHoareTripleCache cache =
+					CompactHoareTripleCache.getOrCreate(mToolchainStorage, mPref.getSharedHoareTripleCacheSize());
+			htc = TraceAbstractionUtils.constructEfficientHoareTripleCheckerWithSharedCache(mServices,
+					mPref.getHoareTripleChecks(), mCsToolkit, predicateUnifier, cache);
 		} else {
 			htc = TraceAbstractionUtils.constructEfficientHoareTripleCheckerWithCaching(mServices,
 					mPref.getHoareTripleChecks(), mCsToolkit, mTraceCheckAndRefinementEngine.getPredicateUnifier());
@@ -632,8 +641,11 @@ public class BasicCegarLoop<LETTER extends IIcfgTransition<?>> extends AbstractC
 					diff = new DifferenceSenwa<>(new AutomataLibraryServices(mServices), mStateFactoryForRefinement,
 							minuend, subtrahend, psd, false);
 				} else {
+					if (mPref.getDifferenceThreads() > 1 && subtrahend instanceof AbstractInterpolantAutomaton) {
+						((AbstractInterpolantAutomaton<LETTER>) subtrahend).enableConcurrentSuccessorQueries();
+					}
 					diff = new Difference<>(new AutomataLibraryServices(mServices), mStateFactoryForRefinement, minuend,
-							subtrahend, psd, explointSigmaStarConcatOfIA);
+							subtrahend, psd, explointSigmaStarConcatOfIA, mPref.getDifferenceThreads());
 				}
 			} catch (final AutomataOperationCanceledException aoce) {
 				final RunningTaskInfo runningTaskInfo = executeDifferenceTimeoutActions(minuend, subtrahend,
@@ -49,6 +49,7 @@ public class CegarLoopStatisticsGenerator extends StatisticsGeneratorWithStopwat
 	private final StatisticsData mInterpolantConsolidationBenchmarks = new StatisticsData();
 	private final StatisticsData mPathInvariantsStatistics = new StatisticsData();
 	private final StatisticsData mRefinementEngineStatistics = new StatisticsData();
+	private final StatisticsData mQuantifierEliminationCacheData = new StatisticsData();
 	private int mIterations = 0;
 	private int mAbsIntIterations = 0;
 	private SizeIterationPair mBiggestAbstraction = new SizeIterationPair(-1, -1);
@@ -91,6 +92,10 @@ public class CegarLoopStatisticsGenerator extends StatisticsGeneratorWithStopwat
 		mRefinementEngineStatistics.aggregateBenchmarkData(res);
 	}
 
+	public void addQuantifierEliminationCacheData(final IStatisticsDataProvider qecd) {
+		mQuantifierEliminationCacheData.aggregateBenchmarkData(qecd);
+	}
+
 	public void addTotalInterpolationData(final IStatisticsDataProvider tibd) {
 		mTiData.aggregateBenchmarkData(tibd);
 	}
@@ -217,6 +222,8 @@ public class CegarLoopStatisticsGenerator extends StatisticsGeneratorWithStopwat
 			return mHoareAnnotationData;
 		case RefinementEngineStatistics:
 			return mRefinementEngineStatistics;
+		case QuantifierEliminationCacheStatistics:
+			return mQuantifierEliminationCacheData;
 		default:
 			throw new AssertionError("unknown data");
 		}
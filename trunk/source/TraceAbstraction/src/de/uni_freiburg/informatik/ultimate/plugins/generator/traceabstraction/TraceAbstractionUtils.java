@@ -70,6 +70,8 @@ import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.predicates.Pred
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.predicates.TermVarsProc;
 import de.uni_freiburg.informatik.ultimate.plugins.generator.rcfgbuilder.cfg.BoogieIcfgLocation;
 import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.predicates.CachingHoareTripleCheckerMap;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.predicates.CompactCachingHoareTripleChecker;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.predicates.CompactHoareTripleCache;
 import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.predicates.EfficientHoareTripleChecker;
 import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.predicates.IMLPredicate;
 import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.preferences.TraceAbstractionPreferenceInitializer.HoareAnnotationPositions;
@@ -155,6 +157,18 @@ public class TraceAbstractionUtils {
 				initialCallCache, initialReturnCache);
 	}
 
+	/**
+	 * Construct an efficient Hoare triple checker whose results are stored in the given (possibly shared) cache.
+	 */
+	public static IHoareTripleChecker constructEfficientHoareTripleCheckerWithSharedCache(
+			final IUltimateServiceProvider services, final HoareTripleChecks hoareTripleChecks,
+			final CfgSmtToolkit csToolkit, final IPredicateUnifier predicateUnifier,
+			final CompactHoareTripleCache cache) throws AssertionError {
+		final IHoareTripleChecker ehtc =
+				constructEfficientHoareTripleChecker(services, hoareTripleChecks, csToolkit, predicateUnifier);
+		return new CompactCachingHoareTripleChecker(ehtc, predicateUnifier, cache);
+	}
+
 	/**
 	 * Returns a predicate which states that old(g)=g for all global variables g that are modifiable by procedure proc
 	 * according to ModifiableGlobalVariableManager modGlobVarManager.
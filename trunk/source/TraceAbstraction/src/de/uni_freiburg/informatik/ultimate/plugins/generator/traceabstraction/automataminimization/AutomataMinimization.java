@@ -55,6 +55,7 @@ import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimi
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.MinimizeSevpa;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.ShrinkNwa;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.maxsat.arrays.MinimizeNwaMaxSAT;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.minimization.parallel.MinimizeNwaBisimulationParallel;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.simulation.delayed.BuchiReduce;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.simulation.delayed.nwa.ReduceNwaDelayedSimulation;
 import de.uni_freiburg.informatik.ultimate.automata.nestedword.operations.simulation.direct.nwa.ReduceNwaDirectSimulation;
@@ -245,6 +246,12 @@ public class AutomataMinimization<LCS, LCSP extends IPredicate, LETTER> {
 					predicateFactoryRefinement, operand, partition, computeOldState2NewStateMapping));
 			break;
 		}
+		case NWA_BISIMULATION_PARALLEL: {
+			minimizationResult = new MinimizationResult(true, true,
+					new MinimizeNwaBisimulationParallel<>(autServices, predicateFactoryRefinement, operand, partition,
+							computeOldState2NewStateMapping, Runtime.getRuntime().availableProcessors()));
+			break;
+		}
 		case NWA_MAX_SAT: {
 			minimizationResult = new MinimizationResult(true, true,
 					new MinimizeNwaMaxSAT<>(autServices, predicateFactoryRefinement, operand));
@@ -26,8 +26,11 @@
  */
 package de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.interpolantautomata.transitionappender;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import de.uni_freiburg.informatik.ultimate.automata.AutomataLibraryServices;
 import de.uni_freiburg.informatik.ultimate.automata.AutomatonDefinitionPrinter;
@@ -74,6 +77,10 @@ import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.Ac
  * the successors are constructed and then returned. The construction of successor is defined by the subclasses of this
  * class. Note that while constructing successor transitions new states may be added. In the construction of successors
  * information from the automaton {@code #mInputInterpolantAutomaton} can be used.
+ * <p>
+ * After {@link #enableConcurrentSuccessorQueries()} successor queries are synchronized and return copies of the
+ * transitions, hence several threads may ask for successors at the same time. The construction of successors, and
+ * with it the Hoare triple checks, is still done by one thread at a time.
  *
  * @author Matthias Heizmann
  *
@@ -94,7 +101,8 @@ public abstract class AbstractInterpolantAutomaton<LETTER>
 	protected final NestedWordAutomatonCache<LETTER, IPredicate> mAlreadyConstructedAutomaton;
 	protected final INestedWordAutomaton<LETTER, IPredicate> mInputInterpolantAutomaton;
 
-	private Mode mMode = Mode.ON_DEMAND_CONSTRUCTION;
+	private volatile Mode mMode = Mode.ON_DEMAND_CONSTRUCTION;
+	private volatile boolean mConcurrentSuccessorQueries;
 
 	private final InternalSuccessorComputationHelper mInSucComp;
 	private final CallSuccessorComputationHelper mCaSucComp;
@@ -155,6 +163,14 @@ public abstract class AbstractInterpolantAutomaton<LETTER>
 		mLogger.info(switchToOnDemandConstructionMessage());
 	}
 
+	/**
+	 * Allow several threads to ask for successors at the same time. Afterwards each query acquires the lock of this
+	 * automaton and returns a copy of the transitions. Without this call queries are neither synchronized nor copied.
+	 */
+	public final void enableConcurrentSuccessorQueries() {
+		mConcurrentSuccessorQueries = true;
+	}
+
 	protected abstract String startMessage();
 
 	protected abstract String switchToReadonlyMessage();
@@ -198,16 +214,31 @@ public abstract class AbstractInterpolantAutomaton<LETTER>
 
 	@Override
 	public final Iterable<IPredicate> getInitialStates() {
+		if (mConcurrentSuccessorQueries) {
+			synchronized (this) {
+				return mAlreadyConstructedAutomaton.getInitialStates();
+			}
+		}
 		return mAlreadyConstructedAutomaton.getInitialStates();
 	}
 
 	@Override
 	public final boolean isInitial(final IPredicate state) {
+		if (mConcurrentSuccessorQueries) {
+			synchronized (this) {
+				return mAlreadyConstructedAutomaton.isInitial(state);
+			}
+		}
 		return mAlreadyConstructedAutomaton.isInitial(state);
 	}
 
 	@Override
 	public final boolean isFinal(final IPredicate state) {
+		if (mConcurrentSuccessorQueries) {
+			synchronized (this) {
+				return mAlreadyConstructedAutomaton.isFinal(state);
+			}
+		}
 		return mAlreadyConstructedAutomaton.isFinal(state);
 	}
 
@@ -229,71 +260,114 @@ public abstract class AbstractInterpolantAutomaton<LETTER>
 	@Override
 	public final Iterable<OutgoingInternalTransition<LETTER, IPredicate>> internalSuccessors(final IPredicate state,
 			final LETTER letter) {
-		if (mMode == Mode.ON_DEMAND_CONSTRUCTION) {
-			if (!mSuccessorComputationBookkeeping.areInternalSuccsComputed(state, letter)) {
-				computeSuccs(state, null, letter, mInSucComp);
+		return query(() -> {
+			if (mMode == Mode.ON_DEMAND_CONSTRUCTION) {
+				if (!mSuccessorComputationBookkeeping.areInternalSuccsComputed(state, letter)) {
+					computeSuccs(state, null, letter, mInSucComp);
+				}
 			}
-		}
-		return mAlreadyConstructedAutomaton.internalSuccessors(state, letter);
+			return mAlreadyConstructedAutomaton.internalSuccessors(state, letter);
+		});
 	}
 
 	@Override
 	public final Iterable<OutgoingInternalTransition<LETTER, IPredicate>> internalSuccessors(final IPredicate state) {
-		if (mMode == Mode.ON_DEMAND_CONSTRUCTION) {
-			for (final LETTER letter : lettersInternal(state)) {
-				if (!mSuccessorComputationBookkeeping.areInternalSuccsComputed(state, letter)) {
-					computeSuccs(state, null, letter, mInSucComp);
+		return query(() -> {
+			if (mMode == Mode.ON_DEMAND_CONSTRUCTION) {
+				for (final LETTER letter : lettersInternal(state)) {
+					if (!mSuccessorComputationBookkeeping.areInternalSuccsComputed(state, letter)) {
+						computeSuccs(state, null, letter, mInSucComp);
+					}
 				}
 			}
-		}
-		return mAlreadyConstructedAutomaton.internalSuccessors(state);
+			return mAlreadyConstructedAutomaton.internalSuccessors(state);
+		});
 	}
 
 	@Override
 	public final Iterable<OutgoingCallTransition<LETTER, IPredicate>> callSuccessors(final IPredicate state,
 			final LETTER letter) {
-		if (mMode == Mode.ON_DEMAND_CONSTRUCTION) {
-			if (!mSuccessorComputationBookkeeping.areCallSuccsComputed(state, letter)) {
-				computeSuccs(state, null, letter, mCaSucComp);
+		return query(() -> {
+			if (mMode == Mode.ON_DEMAND_CONSTRUCTION) {
+				if (!mSuccessorComputationBookkeeping.areCallSuccsComputed(state, letter)) {
+					computeSuccs(state, null, letter, mCaSucComp);
+				}
 			}
-		}
-		return mAlreadyConstructedAutomaton.callSuccessors(state, letter);
+			return mAlreadyConstructedAutomaton.callSuccessors(state, letter);
+		});
 	}
 
 	@Override
 	public final Iterable<OutgoingCallTransition<LETTER, IPredicate>> callSuccessors(final IPredicate state) {
-		if (mMode == Mode.ON_DEMAND_CONSTRUCTION) {
-			for (final LETTER letter : lettersCall(state)) {
-				if (!mAlreadyConstructedAutomaton.callSuccessors(state, letter).iterator().hasNext()) {
-					computeSuccs(state, null, letter, mCaSucComp);
+		return query(() -> {
+			if (mMode == Mode.ON_DEMAND_CONSTRUCTION) {
+				for (final LETTER letter : lettersCall(state)) {
+					if (!mAlreadyConstructedAutomaton.callSuccessors(state, letter).iterator().hasNext()) {
+						computeSuccs(state, null, letter, mCaSucComp);
+					}
 				}
 			}
-		}
-		return mAlreadyConstructedAutomaton.callSuccessors(state);
+			return mAlreadyConstructedAutomaton.callSuccessors(state);
+		});
 	}
 
 	@Override
 	public final Iterable<OutgoingReturnTransition<LETTER, IPredicate>> returnSuccessors(final IPredicate state,
 			final IPredicate hier, final LETTER letter) {
-		if (mMode == Mode.ON_DEMAND_CONSTRUCTION) {
-			if (!mSuccessorComputationBookkeeping.areReturnSuccsComputed(state, hier, letter)) {
-				computeSuccs(state, hier, letter, mReSucComp);
+		return query(() -> {
+			if (mMode == Mode.ON_DEMAND_CONSTRUCTION) {
+				if (!mSuccessorComputationBookkeeping.areReturnSuccsComputed(state, hier, letter)) {
+					computeSuccs(state, hier, letter, mReSucComp);
+				}
 			}
-		}
-		return mAlreadyConstructedAutomaton.returnSuccessors(state, hier, letter);
+			return mAlreadyConstructedAutomaton.returnSuccessors(state, hier, letter);
+		});
 	}
 
 	@Override
 	public final Iterable<OutgoingReturnTransition<LETTER, IPredicate>>
 			returnSuccessorsGivenHier(final IPredicate state, final IPredicate hier) {
-		if (mMode == Mode.ON_DEMAND_CONSTRUCTION) {
-			for (final LETTER letter : lettersReturn(state, hier)) {
-				if (!mAlreadyConstructedAutomaton.returnSuccessors(state, hier, letter).iterator().hasNext()) {
-					computeSuccs(state, hier, letter, mReSucComp);
+		return query(() -> {
+			if (mMode == Mode.ON_DEMAND_CONSTRUCTION) {
+				for (final LETTER letter : lettersReturn(state, hier)) {
+					if (!mAlreadyConstructedAutomaton.returnSuccessors(state, hier, letter).iterator().hasNext()) {
+						computeSuccs(state, hier, letter, mReSucComp);
+					}
 				}
 			}
+			return mAlreadyConstructedAutomaton.returnSuccessorsGivenHier(state, hier);
+		});
+	}
+
+	/**
+	 * Successor queries are synchronized after {@link #enableConcurrentSuccessorQueries()}, the construction of new
+	 * transitions is not parallelized.
+	 */
+	@Override
+	public final boolean supportsConcurrentSuccessorQueries() {
+		return mConcurrentSuccessorQueries;
+	}
+
+	/**
+	 * @return result of the query; if concurrent successor queries are enabled, the query is done under the lock of
+	 *         this automaton and the result is a copy of the transitions, which may be iterated while other threads
+	 *         add transitions
+	 */
+	private <E> Iterable<E> query(final Supplier<Iterable<E>> query) {
+		if (!mConcurrentSuccessorQueries) {
+			return query.get();
+		}
+		synchronized (this) {
+			return copy(query.get());
+		}
+	}
+
+	private static <E> List<E> copy(final Iterable<E> transitions) {
+		final List<E> result = new ArrayList<>();
+		for (final E trans : transitions) {
+			result.add(trans);
 		}
-		return mAlreadyConstructedAutomaton.returnSuccessorsGivenHier(state, hier);
+		return result;
 	}
 
 	@Override
@@ -0,0 +1,253 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE TraceAbstraction plug-in.
+ *
+ * The ULTIMATE TraceAbstraction plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE TraceAbstraction plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE TraceAbstraction plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE TraceAbstraction plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE TraceAbstraction plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.predicates;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.structure.IAction;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.structure.ICallAction;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.structure.IInternalAction;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.structure.IReturnAction;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.hoaretriple.HoareTripleCheckerStatisticsGenerator;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.hoaretriple.IHoareTripleChecker;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.predicates.IPredicate;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.predicates.IPredicateCoverageChecker;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.predicates.IPredicateUnifier;
+import de.uni_freiburg.informatik.ultimate.util.InCaReCounter;
+
+/**
+ * {@link IHoareTripleChecker} that stores its results in a {@link CompactHoareTripleCache}, which may be shared with
+ * other checkers.
+ * <p>
+ * If a triple is not in the cache, we try to derive its validity from the cached triples of the same action (like
+ * {@link CachingHoareTripleCheckerMap}). The coverage relation of the predicate unifier provides the predicates that
+ * are stronger or weaker than the pre- and postcondition. We look up the pairs of these neighbors in the cached
+ * triples of the action, or, if there are more pairs than cached triples, we visit the cached triples and look up
+ * their predicates in the neighbors. Cached triples whose formulas are not known to our predicate unifier (e.g.,
+ * because they were added by a CEGAR loop for another error location) are only used for exact hits.
+ * <p>
+ * Hits, misses and evictions are counted in the {@link HoareTripleCheckerStatisticsGenerator} of the underlying
+ * checker.
+ */
+public class CompactCachingHoareTripleChecker implements IHoareTripleChecker {
+
+	private final IHoareTripleChecker mComputingHoareTripleChecker;
+	private final IPredicateUnifier mPredicateUnifier;
+	private final CompactHoareTripleCache mCache;
+
+	public CompactCachingHoareTripleChecker(final IHoareTripleChecker protectedHoareTripleChecker,
+			final IPredicateUnifier predicateUnifier, final CompactHoareTripleCache cache) {
+		mComputingHoareTripleChecker = Objects.requireNonNull(protectedHoareTripleChecker);
+		mPredicateUnifier = Objects.requireNonNull(predicateUnifier);
+		mCache = Objects.requireNonNull(cache);
+	}
+
+	@Override
+	public Validity checkInternal(final IPredicate pre, final IInternalAction act, final IPredicate succ) {
+		Validity result = mCache.get(pre, act, null, succ);
+		if (result != null) {
+			countHit(InCaReCounter::incIn);
+			return result;
+		}
+		result = extendedCacheCheck(pre, act, null, succ);
+		if (result == null) {
+			result = mComputingHoareTripleChecker.checkInternal(pre, act, succ);
+			countMiss(InCaReCounter::incIn);
+		} else {
+			countHit(InCaReCounter::incIn);
+		}
+		mCache.put(pre, act, null, succ, result, getEvictionCounter());
+		return result;
+	}
+
+	@Override
+	public Validity checkCall(final IPredicate pre, final ICallAction act, final IPredicate succ) {
+		Validity result = mCache.get(pre, act, null, succ);
+		if (result != null) {
+			countHit(InCaReCounter::incCa);
+			return result;
+		}
+		result = extendedCacheCheck(pre, act, null, succ);
+		if (result == null) {
+			result = mComputingHoareTripleChecker.checkCall(pre, act, succ);
+			countMiss(InCaReCounter::incCa);
+		} else {
+			countHit(InCaReCounter::incCa);
+		}
+		mCache.put(pre, act, null, succ, result, getEvictionCounter());
+		return result;
+	}
+
+	@Override
+	public Validity checkReturn(final IPredicate preLin, final IPredicate preHier, final IReturnAction act,
+			final IPredicate succ) {
+		Validity result = mCache.get(preLin, act, preHier, succ);
+		if (result != null) {
+			countHit(InCaReCounter::incRe);
+			return result;
+		}
+		result = extendedCacheCheck(preLin, act, preHier, succ);
+		if (result == null) {
+			result = mComputingHoareTripleChecker.checkReturn(preLin, preHier, act, succ);
+			countMiss(InCaReCounter::incRe);
+		} else {
+			countHit(InCaReCounter::incRe);
+		}
+		mCache.put(preLin, act, preHier, succ, result, getEvictionCounter());
+		return result;
+	}
+
+	/**
+	 * Derive the validity of the triple from cached triples of the same action. If {pre'} act {succ'} is not valid, pre'
+	 * implies pre and succ implies succ', then {pre} act {succ} is not valid. If {pre'} act {succ'} is valid, pre
+	 * implies pre' and succ' implies succ, then {pre} act {succ} is valid.
+	 *
+	 * @return the derived validity, {@link Validity#UNKNOWN} if only an unknown triple is related, or null
+	 */
+	private Validity extendedCacheCheck(final IPredicate pre, final IAction act, final IPredicate hier,
+			final IPredicate succ) {
+		if (!mPredicateUnifier.isRepresentative(pre) || !mPredicateUnifier.isRepresentative(succ)) {
+			return null;
+		}
+		final CompactHoareTripleCache.Table triples = mCache.getTriples(act, hier);
+		if (triples == null) {
+			return null;
+		}
+		final IPredicateCoverageChecker coverage = mPredicateUnifier.getCoverageRelation();
+		// the sets of the coverage relation contain the predicate itself
+		final int[] strongerPres = getSortedIds(coverage.getCoveredPredicates(pre));
+		final int[] weakerSuccs = getSortedIds(coverage.getCoveringPredicates(succ));
+		final int[] weakerPres = getSortedIds(coverage.getCoveringPredicates(pre));
+		final int[] strongerSuccs = getSortedIds(coverage.getCoveredPredicates(succ));
+		final Validity[] result = new Validity[1];
+		final CompactHoareTripleCache.ITripleVisitor visitor = (preId, succId, validity) -> {
+			if (validity == Validity.NOT_CHECKED) {
+				return true;
+			}
+			final boolean strongerPreWeakerSucc = Arrays.binarySearch(strongerPres, preId) >= 0
+					&& Arrays.binarySearch(weakerSuccs, succId) >= 0;
+			if (validity == Validity.INVALID && strongerPreWeakerSucc) {
+				result[0] = Validity.INVALID;
+				return false;
+			}
+			final boolean weakerPreStrongerSucc = validity != Validity.INVALID
+					&& Arrays.binarySearch(weakerPres, preId) >= 0 && Arrays.binarySearch(strongerSuccs, succId) >= 0;
+			if (validity == Validity.VALID && weakerPreStrongerSucc) {
+				result[0] = Validity.VALID;
+				return false;
+			}
+			if (validity == Validity.UNKNOWN && (strongerPreWeakerSucc || weakerPreStrongerSucc)) {
+				// we pass this result as a warning that the corresponding check might be expensive
+				result[0] = Validity.UNKNOWN;
+			}
+			return true;
+		};
+		final long pairs = (long) strongerPres.length * weakerSuccs.length
+				+ (long) weakerPres.length * strongerSuccs.length;
+		if (pairs <= triples.size()) {
+			if (visitPairs(triples, strongerPres, weakerSuccs, visitor)) {
+				visitPairs(triples, weakerPres, strongerSuccs, visitor);
+			}
+		} else {
+			triples.forEach(visitor);
+		}
+		if (result[0] == Validity.UNKNOWN && !CachingHoareTripleChecker.UNKNOWN_IF_SOME_EXTENDED_CHECK_IS_UNKNOWN) {
+			return null;
+		}
+		return result[0];
+	}
+
+	/**
+	 * Visit the cached triples whose pre- and postcondition have the given IDs.
+	 *
+	 * @return true iff the visitor did not stop the iteration
+	 */
+	private static boolean visitPairs(final CompactHoareTripleCache.Table triples, final int[] preIds,
+			final int[] succIds, final CompactHoareTripleCache.ITripleVisitor visitor) {
+		for (final int preId : preIds) {
+			for (final int succId : succIds) {
+				final Validity validity = triples.get(preId, succId);
+				if (validity != null && !visitor.visit(preId, succId, validity)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return the sorted IDs of the formulas of the given predicates that are used in the cache
+	 */
+	private int[] getSortedIds(final Collection<IPredicate> preds) {
+		final int[] ids = new int[preds.size()];
+		int size = 0;
+		for (final IPredicate pred : preds) {
+			final int id = mCache.findPredicateId(pred);
+			if (id >= 0) {
+				ids[size++] = id;
+			}
+		}
+		final int[] result = Arrays.copyOf(ids, size);
+		Arrays.sort(result);
+		return result;
+	}
+
+	private void countHit(final Consumer<InCaReCounter> inc) {
+		final HoareTripleCheckerStatisticsGenerator stats = getEdgeCheckerBenchmark();
+		if (stats != null) {
+			inc.accept(stats.getCacheHitCounter());
+		}
+	}
+
+	private void countMiss(final Consumer<InCaReCounter> inc) {
+		final HoareTripleCheckerStatisticsGenerator stats = getEdgeCheckerBenchmark();
+		if (stats != null) {
+			inc.accept(stats.getCacheMissCounter());
+		}
+	}
+
+	private InCaReCounter getEvictionCounter() {
+		final HoareTripleCheckerStatisticsGenerator stats = getEdgeCheckerBenchmark();
+		return stats == null ? new InCaReCounter() : stats.getCacheEvictionCounter();
+	}
+
+	@Override
+	public HoareTripleCheckerStatisticsGenerator getEdgeCheckerBenchmark() {
+		return mComputingHoareTripleChecker.getEdgeCheckerBenchmark();
+	}
+
+	public IHoareTripleChecker getProtectedHoareTripleChecker() {
+		return mComputingHoareTripleChecker;
+	}
+
+	@Override
+	public void releaseLock() {
+		mComputingHoareTripleChecker.releaseLock();
+	}
+}
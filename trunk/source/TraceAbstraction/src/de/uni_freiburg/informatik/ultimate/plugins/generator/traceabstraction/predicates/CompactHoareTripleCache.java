@@ -0,0 +1,518 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE TraceAbstraction plug-in.
+ *
+ * The ULTIMATE TraceAbstraction plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE TraceAbstraction plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE TraceAbstraction plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE TraceAbstraction plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE TraceAbstraction plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.predicates;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.uni_freiburg.informatik.ultimate.core.model.services.IStorable;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IToolchainStorage;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.structure.IAction;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.structure.ICallAction;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.hoaretriple.IHoareTripleChecker.Validity;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.predicates.IPredicate;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.predicates.IPredicateUnifier;
+import de.uni_freiburg.informatik.ultimate.util.InCaReCounter;
+
+/**
+ * Size-bounded cache for results of Hoare triple checks.
+ * <p>
+ * Predicates are identified by dense integer IDs of their formula and actions by dense integer IDs of the action
+ * object. Since the IDs do not depend on a particular {@link IPredicateUnifier}, the cache can be shared by all CEGAR
+ * loops that work on the same program, e.g., the loops for different error locations (see
+ * {@link #getOrCreate(IToolchainStorage, int)}). An ID only lives as long as some cached triple uses it. Lookups never
+ * create IDs, and IDs of evicted formulas and actions are reused.
+ * <p>
+ * There is one table per action (and hierarchical predecessor for returns) that maps the pair of the IDs of pre- and
+ * postcondition, packed into a <code>long</code>, to the validity. The tables use open addressing, so an entry needs
+ * 9 bytes instead of the several objects of a nested hash map. If the cache contains more than the maximal number of
+ * entries, entries are evicted by the clock algorithm, i.e., entries that were used since the clock hand passed them
+ * last get a second chance.
+ */
+public class CompactHoareTripleCache implements IStorable {
+
+	private static final String STORAGE_KEY = CompactHoareTripleCache.class.getName();
+
+	private static final int KIND_INTERNAL = 0;
+	private static final int KIND_CALL = 1;
+	private static final int KIND_RETURN = 2;
+
+	private static final byte EMPTY = 0;
+	private static final byte VALIDITY_MASK = 0x7;
+	private static final byte REFERENCED = 0x8;
+	private static final Validity[] VALIDITIES = Validity.values();
+
+	private final int mMaxSize;
+	/**
+	 * IDs of the formulas of the pre- and postconditions of all cached triples and of the hierarchical preconditions of
+	 * all tables.
+	 */
+	private final IdMap<Term> mPredicateIds = new IdMap<>();
+	/**
+	 * IDs of the actions of all tables.
+	 */
+	private final IdMap<IAction> mActionIds = new IdMap<>();
+	private final Map<Long, Table> mTables = new HashMap<>();
+	/**
+	 * All non-empty tables in the order in which the clock hand visits them.
+	 */
+	private final List<Table> mClock = new ArrayList<>();
+	private int mClockTable;
+	private int mClockSlot;
+	private int mSize;
+
+	public CompactHoareTripleCache(final int maxSize) {
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException("maximal size has to be positive");
+		}
+		mMaxSize = maxSize;
+	}
+
+	/**
+	 * Get the cache that is shared via the given storage, or create and store it if there is none yet.
+	 */
+	public static CompactHoareTripleCache getOrCreate(final IToolchainStorage storage, final int maxSize) {
+		CompactHoareTripleCache cache = (CompactHoareTripleCache) storage.getStorable(STORAGE_KEY);
+		if (cache == null) {
+			cache = new CompactHoareTripleCache(maxSize);
+			storage.putStorable(STORAGE_KEY, cache);
+		}
+		return cache;
+	}
+
+	/**
+	 * ID of a predicate. Predicates with the same formula have the same ID.
+	 *
+	 * @return the ID or -1 if no cached triple uses the formula of the predicate
+	 */
+	public int findPredicateId(final IPredicate pred) {
+		return mPredicateIds.find(pred.getFormula());
+	}
+
+	/**
+	 * Get the cached triples for the given action (and hierarchical precondition). The result must not be used after
+	 * the next modification of the cache.
+	 *
+	 * @param hier
+	 *            hierarchical precondition for return actions, null otherwise
+	 * @return the triples or null if there are none
+	 */
+	public Table getTriples(final IAction act, final IPredicate hier) {
+		final int actionId = mActionIds.find(act);
+		if (actionId < 0) {
+			return null;
+		}
+		final int hierId;
+		if (hier == null) {
+			hierId = -1;
+		} else {
+			hierId = findPredicateId(hier);
+			if (hierId < 0) {
+				return null;
+			}
+		}
+		return mTables.get(getTableKey(actionId, hierId));
+	}
+
+	private static long getTableKey(final int actionId, final int hierId) {
+		return ((long) actionId << 32) | (hierId + 1L);
+	}
+
+	private static long pack(final int preId, final int succId) {
+		return ((long) preId << 32) | (succId & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Get the cached validity of a Hoare triple.
+	 *
+	 * @param hier
+	 *            hierarchical precondition for return actions, null otherwise
+	 * @return the cached validity or null if the triple is not in the cache
+	 */
+	public Validity get(final IPredicate pre, final IAction act, final IPredicate hier, final IPredicate succ) {
+		final Table table = getTriples(act, hier);
+		if (table == null) {
+			return null;
+		}
+		final int preId = findPredicateId(pre);
+		final int succId = findPredicateId(succ);
+		if (preId < 0 || succId < 0) {
+			return null;
+		}
+		return table.get(preId, succId);
+	}
+
+	/**
+	 * Add the validity of a Hoare triple to the cache. Evicts other triples if the cache is full.
+	 *
+	 * @param hier
+	 *            hierarchical precondition for return actions, null otherwise
+	 * @param evictions
+	 *            counter that is increased for every evicted triple
+	 */
+	public void put(final IPredicate pre, final IAction act, final IPredicate hier, final IPredicate succ,
+			final Validity validity, final InCaReCounter evictions) {
+		Table table = getTriples(act, hier);
+		if (table == null) {
+			final int actionId = mActionIds.acquire(act);
+			final int hierId = hier == null ? -1 : mPredicateIds.acquire(hier.getFormula());
+			final int kind = hier != null ? KIND_RETURN : act instanceof ICallAction ? KIND_CALL : KIND_INTERNAL;
+			table = new Table(actionId, hierId, kind);
+			mTables.put(getTableKey(actionId, hierId), table);
+			mClock.add(table);
+		}
+		final int preId = mPredicateIds.acquire(pre.getFormula());
+		final int succId = mPredicateIds.acquire(succ.getFormula());
+		if (!table.put(pack(preId, succId), (byte) (validity.ordinal() + 1))) {
+			// the existing entry already holds the IDs
+			mPredicateIds.release(preId);
+			mPredicateIds.release(succId);
+			return;
+		}
+		mSize++;
+		while (mSize > mMaxSize) {
+			evictOne(evictions);
+		}
+	}
+
+	private void evictOne(final InCaReCounter evictions) {
+		while (true) {
+			if (mClockTable >= mClock.size()) {
+				mClockTable = 0;
+			}
+			final Table table = mClock.get(mClockTable);
+			if (mClockSlot >= table.mKeys.length) {
+				mClockTable++;
+				mClockSlot = 0;
+				continue;
+			}
+			final byte state = table.mStates[mClockSlot];
+			if (state == EMPTY) {
+				mClockSlot++;
+			} else if ((state & REFERENCED) != 0) {
+				table.mStates[mClockSlot] = (byte) (state & ~REFERENCED);
+				mClockSlot++;
+			} else {
+				final long key = table.mKeys[mClockSlot];
+				// do not advance the hand, the removal may have moved another entry into this slot
+				table.removeAt(mClockSlot);
+				mSize--;
+				mPredicateIds.release((int) (key >>> 32));
+				mPredicateIds.release((int) key);
+				switch (table.mKind) {
+				case KIND_INTERNAL:
+					evictions.incIn();
+					break;
+				case KIND_CALL:
+					evictions.incCa();
+					break;
+				case KIND_RETURN:
+					evictions.incRe();
+					break;
+				default:
+					throw new AssertionError("unknown kind");
+				}
+				if (table.mSize == 0) {
+					removeTable(table);
+				}
+				return;
+			}
+		}
+	}
+
+	private void removeTable(final Table table) {
+		mTables.remove(getTableKey(table.mActionId, table.mHierId));
+		mActionIds.release(table.mActionId);
+		if (table.mHierId >= 0) {
+			mPredicateIds.release(table.mHierId);
+		}
+		final Table last = mClock.remove(mClock.size() - 1);
+		if (last != table) {
+			mClock.set(mClockTable, last);
+		}
+		mClockSlot = 0;
+	}
+
+	public int size() {
+		return mSize;
+	}
+
+	public int getMaxSize() {
+		return mMaxSize;
+	}
+
+	/**
+	 * @return number of formulas that have an ID
+	 */
+	public int getNumberOfPredicateIds() {
+		return mPredicateIds.size();
+	}
+
+	/**
+	 * @return number of actions that have an ID
+	 */
+	public int getNumberOfActionIds() {
+		return mActionIds.size();
+	}
+
+	@Override
+	public void destroy() {
+		mPredicateIds.clear();
+		mActionIds.clear();
+		mTables.clear();
+		mClock.clear();
+		mSize = 0;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("CompactHoareTripleCache [size=%s, maxSize=%s, tables=%s, predicates=%s, actions=%s]",
+				mSize, mMaxSize, mTables.size(), mPredicateIds.size(), mActionIds.size());
+	}
+
+	/**
+	 * Visitor for the cached triples of one action.
+	 */
+	@FunctionalInterface
+	public interface ITripleVisitor {
+		/**
+		 * @return true iff the iteration should continue
+		 */
+		boolean visit(int preId, int succId, Validity validity);
+	}
+
+	/**
+	 * Assigns dense IDs to keys and counts the references to each ID. When the last reference is released, the key
+	 * loses its ID and the ID is reused for the next new key.
+	 */
+	private static final class IdMap<K> {
+		private static final int INITIAL_CAPACITY = 16;
+
+		private final Map<K, Integer> mIds = new HashMap<>();
+		private Object[] mKeys = new Object[INITIAL_CAPACITY];
+		private int[] mReferences = new int[INITIAL_CAPACITY];
+		private int[] mFreeIds = new int[INITIAL_CAPACITY];
+		private int mFreeIdsSize;
+
+		int find(final K key) {
+			final Integer id = mIds.get(key);
+			return id == null ? -1 : id;
+		}
+
+		int acquire(final K key) {
+			final Integer existing = mIds.get(key);
+			final int id;
+			if (existing != null) {
+				id = existing;
+			} else {
+				// without free IDs all IDs below the number of keys are used
+				id = mFreeIdsSize > 0 ? mFreeIds[--mFreeIdsSize] : mIds.size();
+				if (id >= mKeys.length) {
+					mKeys = Arrays.copyOf(mKeys, 2 * mKeys.length);
+					mReferences = Arrays.copyOf(mReferences, 2 * mReferences.length);
+				}
+				mIds.put(key, id);
+				mKeys[id] = key;
+			}
+			mReferences[id]++;
+			return id;
+		}
+
+		void release(final int id) {
+			if (--mReferences[id] > 0) {
+				return;
+			}
+			mIds.remove(mKeys[id]);
+			mKeys[id] = null;
+			if (mFreeIdsSize == mFreeIds.length) {
+				mFreeIds = Arrays.copyOf(mFreeIds, 2 * mFreeIds.length);
+			}
+			mFreeIds[mFreeIdsSize++] = id;
+		}
+
+		int size() {
+			return mIds.size();
+		}
+
+		void clear() {
+			mIds.clear();
+			mKeys = new Object[INITIAL_CAPACITY];
+			mReferences = new int[INITIAL_CAPACITY];
+			mFreeIdsSize = 0;
+		}
+	}
+
+	/**
+	 * Hash table with linear probing from packed (pre, succ) IDs to a validity and a reference bit.
+	 */
+	public static final class Table {
+		private static final int INITIAL_CAPACITY = 8;
+
+		private final int mActionId;
+		private final int mHierId;
+		private final int mKind;
+		private long[] mKeys = new long[INITIAL_CAPACITY];
+		private byte[] mStates = new byte[INITIAL_CAPACITY];
+		private int mSize;
+
+		Table(final int actionId, final int hierId, final int kind) {
+			mActionId = actionId;
+			mHierId = hierId;
+			mKind = kind;
+		}
+
+		static int hash(final long key) {
+			final long h = key * 0x9E3779B97F4A7C15L;
+			return (int) (h ^ (h >>> 32));
+		}
+
+		/**
+		 * @return number of cached triples
+		 */
+		public int size() {
+			return mSize;
+		}
+
+		/**
+		 * @return the cached validity of the triple with the given IDs of pre- and postcondition or null if the
+		 *         triple is not in the cache
+		 */
+		public Validity get(final int preId, final int succId) {
+			final int slot = find(pack(preId, succId));
+			if (slot < 0) {
+				return null;
+			}
+			mStates[slot] |= REFERENCED;
+			return VALIDITIES[(mStates[slot] & VALIDITY_MASK) - 1];
+		}
+
+		/**
+		 * Visit all cached triples until the visitor returns false.
+		 */
+		public void forEach(final ITripleVisitor visitor) {
+			for (int slot = 0; slot < mKeys.length; slot++) {
+				if (mStates[slot] != EMPTY) {
+					final long key = mKeys[slot];
+					if (!visitor.visit((int) (key >>> 32), (int) key, VALIDITIES[(mStates[slot] & VALIDITY_MASK) - 1])) {
+						return;
+					}
+				}
+			}
+		}
+
+		int find(final long key) {
+			final int mask = mKeys.length - 1;
+			for (int slot = hash(key) & mask;; slot = (slot + 1) & mask) {
+				if (mStates[slot] == EMPTY) {
+					return -1;
+				}
+				if (mKeys[slot] == key) {
+					return slot;
+				}
+			}
+		}
+
+		/**
+		 * @return true iff the key was not yet contained
+		 */
+		boolean put(final long key, final byte validity) {
+			final int existing = find(key);
+			if (existing >= 0) {
+				mStates[existing] = (byte) (validity | REFERENCED);
+				return false;
+			}
+			if (2 * (mSize + 1) > mKeys.length) {
+				grow();
+			}
+			final int mask = mKeys.length - 1;
+			int slot = hash(key) & mask;
+			while (mStates[slot] != EMPTY) {
+				slot = (slot + 1) & mask;
+			}
+			mKeys[slot] = key;
+			// new entries get a second chance, otherwise they could be evicted immediately
+			mStates[slot] = (byte) (validity | REFERENCED);
+			mSize++;
+			return true;
+		}
+
+		int capacity() {
+			return mKeys.length;
+		}
+
+		private void grow() {
+			final long[] oldKeys = mKeys;
+			final byte[] oldStates = mStates;
+			mKeys = new long[2 * oldKeys.length];
+			mStates = new byte[2 * oldKeys.length];
+			final int mask = mKeys.length - 1;
+			for (int i = 0; i < oldKeys.length; i++) {
+				if (oldStates[i] != EMPTY) {
+					int slot = hash(oldKeys[i]) & mask;
+					while (mStates[slot] != EMPTY) {
+						slot = (slot + 1) & mask;
+					}
+					mKeys[slot] = oldKeys[i];
+					mStates[slot] = oldStates[i];
+				}
+			}
+		}
+
+		/**
+		 * Remove the entry in the given slot and shift the following entries of its probe sequence backwards.
+		 */
+		void removeAt(final int removedSlot) {
+			final int mask = mKeys.length - 1;
+			int gap = removedSlot;
+			int slot = removedSlot;
+			while (true) {
+				slot = (slot + 1) & mask;
+				if (mStates[slot] == EMPTY) {
+					break;
+				}
+				final int home = hash(mKeys[slot]) & mask;
+				// move the entry into the gap if its home slot is not cyclically in (gap, slot]
+				final boolean homeBetween = gap <= slot ? gap < home && home <= slot : gap < home || home <= slot;
+				if (!homeBetween) {
+					mKeys[gap] = mKeys[slot];
+					mStates[gap] = mStates[slot];
+					gap = slot;
+				}
+			}
+			mStates[gap] = EMPTY;
+			mKeys[gap] = 0;
+			mSize--;
+			if (mSize == 0 && mKeys.length > INITIAL_CAPACITY) {
+				mKeys = new long[INITIAL_CAPACITY];
+				mStates = new byte[INITIAL_CAPACITY];
+			}
+		}
+	}
+}
@@ -261,6 +261,10 @@ public final class TAPreferences {
 		return mPrefs.getBoolean(TraceAbstractionPreferenceInitializer.LABEL_DIFFERENCE_SENWA);
 	}
 
+	public int getDifferenceThreads() {
+		return mPrefs.getInt(TraceAbstractionPreferenceInitializer.LABEL_DIFFERENCE_THREADS);
+	}
+
 	/**
 	 * @return The minimization.
 	 */
@@ -310,6 +314,18 @@ public final class TAPreferences {
 		return mPrefs.getBoolean(RcfgPreferenceInitializer.LABEL_FAKE_NON_INCREMENTAL_SCRIPT);
 	}
 
+	public boolean usePipelinedCommunication() {
+		return mPrefs.getBoolean(RcfgPreferenceInitializer.LABEL_PIPELINED_COMMUNICATION);
+	}
+
+	public boolean useSolverProcessPool() {
+		return mPrefs.getBoolean(RcfgPreferenceInitializer.LABEL_SOLVER_PROCESS_POOL);
+	}
+
+	public boolean shareTermsWithExternalSolver() {
+		return mPrefs.getBoolean(RcfgPreferenceInitializer.LABEL_SHARE_TERMS_WITH_EXTERNAL_SOLVER);
+	}
+
 	public RefinementStrategy getRefinementStrategy() {
 		return mPrefs.getEnum(TraceAbstractionPreferenceInitializer.LABEL_REFINEMENT_STRATEGY,
 				RefinementStrategy.class);
@@ -320,6 +336,30 @@ public final class TAPreferences {
 				RefinementStrategyExceptionBlacklist.class);
 	}
 
+	public boolean useTraceCheckPortfolio() {
+		return mPrefs.getBoolean(TraceAbstractionPreferenceInitializer.LABEL_TRACE_CHECK_PORTFOLIO);
+	}
+
+	public int getTraceCheckPortfolioThreads() {
+		return mPrefs.getInt(TraceAbstractionPreferenceInitializer.LABEL_TRACE_CHECK_PORTFOLIO_THREADS);
+	}
+
+	public int getTraceCheckPortfolioCollectTimeout() {
+		return mPrefs.getInt(TraceAbstractionPreferenceInitializer.LABEL_TRACE_CHECK_PORTFOLIO_COLLECT_TIMEOUT);
+	}
+
+	public int getSharedHoareTripleCacheSize() {
+		return mPrefs.getInt(TraceAbstractionPreferenceInitializer.LABEL_SHARED_HOARE_TRIPLE_CACHE_SIZE);
+	}
+
+	public int getSimplificationCacheSize() {
+		return mPrefs.getInt(TraceAbstractionPreferenceInitializer.LABEL_SIMPLIFICATION_CACHE_SIZE);
+	}
+
+	public int getQuantifierEliminationCacheSize() {
+		return mPrefs.getInt(TraceAbstractionPreferenceInitializer.LABEL_QUANTIFIER_ELIMINATION_CACHE_SIZE);
+	}
+
 	public boolean hasLimitTraceHistogram() {
 		return getLimitTraceHistogram() > 0;
 	}
@@ -32,6 +32,8 @@ import de.uni_freiburg.informatik.ultimate.core.lib.preferences.UltimatePreferen
 import de.uni_freiburg.informatik.ultimate.core.model.preferences.BaseUltimatePreferenceItem.PreferenceType;
 import de.uni_freiburg.informatik.ultimate.core.model.preferences.UltimatePreferenceItem;
 import de.uni_freiburg.informatik.ultimate.core.model.preferences.UltimatePreferenceItem.IUltimatePreferenceItemValidator;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.QuantifierEliminationCache;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.SimplificationCache;
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.SmtUtils.SimplificationTechnique;
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.SmtUtils.XnfConversionTechnique;
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.SolverBuilder.SolverMode;
@@ -59,6 +61,31 @@ public class TraceAbstractionPreferenceInitializer extends UltimatePreferenceIni
 					+ "current counterexample is larger than this value. 0 disables this limit.";
 	private static final int DEF_USERLIMIT_TRACE_HISTOGRAM = 0;
 
+	private static final String DESC_TRACE_CHECK_PORTFOLIO =
+			"Run the trace checks of all tracks of a multi-track refinement strategy (e.g., Camel or Wolf) in parallel "
+					+ "and continue with the tracks that agree with the first conclusive answer. Not supported by the "
+					+ "Taipan strategies, whose tracks depend on each other, and by the strategy that uses the fixed "
+					+ "preferences, which has only one track.";
+	private static final String DESC_TRACE_CHECK_PORTFOLIO_THREADS =
+			"Number of threads used for the parallel trace checks of a refinement strategy. 0 uses one thread per "
+					+ "available processor.";
+	private static final String DESC_TRACE_CHECK_PORTFOLIO_COLLECT_TIMEOUT =
+			"If the parallel trace checks prove infeasibility, continue computing interpolant sequences with the other "
+					+ "successful trace checks for this time. 0 stops after the first perfect interpolant sequence.";
+	private static final String DESC_SHARED_HOARE_TRIPLE_CACHE_SIZE =
+			"Maximal number of Hoare triples in a compact cache that is shared by all iterations and all error "
+					+ "locations. 0 uses a separate unbounded cache in each iteration.";
+	private static final String DESC_SIMPLIFICATION_CACHE_SIZE =
+			"Maximal number of formula simplification results that are stored and reused if the same formula is "
+					+ "simplified again. 0 disables the cache.";
+	private static final String DESC_QUANTIFIER_ELIMINATION_CACHE_SIZE =
+			"Maximal number of quantifier elimination results that are stored and reused if the same quantifiers are "
+					+ "eliminated from the same formula again. 0 disables the cache.";
+	private static final String DESC_DIFFERENCE_THREADS =
+			"If greater than 1, the difference of abstraction and interpolant automaton is constructed by several "
+					+ "threads that compute successors in parallel. The Hoare triple checks of the interpolant "
+					+ "automaton are still done by one thread at a time.";
+
 	public static final String LABEL_USERLIMIT_TIME = "Limit analysis time";
 	private static final String DESC_USERLIMIT_TIME =
 			"Abort the analysis of either a single error location or the whole program if more time than specified has "
@@ -105,7 +132,11 @@ public class TraceAbstractionPreferenceInitializer extends UltimatePreferenceIni
 	public static final String LABEL_DUMP_ONLY_REUSE = "Dump only reuse-automata";
 	public static final String LABEL_INTERPOLANT_AUTOMATON_ENHANCEMENT = "Interpolant automaton enhancement";
 	public static final String LABEL_HOARE_TRIPLE_CHECKS = "Hoare triple checks";
+	public static final String LABEL_SHARED_HOARE_TRIPLE_CACHE_SIZE = "Size of shared Hoare triple cache";
+	public static final String LABEL_SIMPLIFICATION_CACHE_SIZE = "Size of formula simplification cache";
+	public static final String LABEL_QUANTIFIER_ELIMINATION_CACHE_SIZE = "Size of quantifier elimination cache";
 	public static final String LABEL_DIFFERENCE_SENWA = "DifferenceSenwa operation instead classical Difference";
+	public static final String LABEL_DIFFERENCE_THREADS = "Number of threads for difference construction";
 	public static final String LABEL_MINIMIZE = "Minimization of abstraction";
 	public static final String LABEL_CONCURRENCY = "Automaton type used in concurrency analysis";
 	public static final String LABEL_ORDER = "Order in Petri net unfolding";
@@ -134,6 +165,10 @@ public class TraceAbstractionPreferenceInitializer extends UltimatePreferenceIni
 	public static final String LABEL_COUNTEREXAMPLE_SEARCH_STRATEGY = "Counterexample search strategy";
 	public static final String LABEL_REFINEMENT_STRATEGY = "Trace refinement strategy";
 	public static final String LABEL_REFINEMENT_STRATEGY_EXCEPTION_BLACKLIST = "Trace refinement exception blacklist";
+	public static final String LABEL_TRACE_CHECK_PORTFOLIO = "Run trace checks of refinement strategy in parallel";
+	public static final String LABEL_TRACE_CHECK_PORTFOLIO_THREADS = "Maximal number of parallel trace checks";
+	public static final String LABEL_TRACE_CHECK_PORTFOLIO_COLLECT_TIMEOUT =
+			"Time (in ms) for collecting further interpolant sequences after parallel trace checks";
 
 	public static final String VALUE_ABSTRACTION = "Abstraction";
 	public static final String VALUE_RCFG = "RecursiveControlFlowGraph";
@@ -182,6 +217,13 @@ public class TraceAbstractionPreferenceInitializer extends UltimatePreferenceIni
 	public static final RefinementStrategy DEF_REFINEMENT_STRATEGY = RefinementStrategy.FIXED_PREFERENCES;
 	public static final RefinementStrategyExceptionBlacklist DEF_REFINEMENT_STRATEGY_EXCEPTION_BLACKLIST =
 			RefinementStrategyExceptionBlacklist.DEPENDING;
+	public static final boolean DEF_TRACE_CHECK_PORTFOLIO = false;
+	public static final int DEF_TRACE_CHECK_PORTFOLIO_THREADS = 0;
+	public static final int DEF_TRACE_CHECK_PORTFOLIO_COLLECT_TIMEOUT = 0;
+	public static final int DEF_SHARED_HOARE_TRIPLE_CACHE_SIZE = 0;
+	public static final int DEF_SIMPLIFICATION_CACHE_SIZE = SimplificationCache.DEFAULT_CAPACITY;
+	public static final int DEF_QUANTIFIER_ELIMINATION_CACHE_SIZE = QuantifierEliminationCache.DEFAULT_CAPACITY;
+	public static final int DEF_DIFFERENCE_THREADS = 1;
 	// public static final boolean DEF_ALL_ERRORS_AT_ONCE = false;
 
 	public static final boolean DEF_CUTOFF = true;
@@ -313,9 +355,21 @@ public class TraceAbstractionPreferenceInitializer extends UltimatePreferenceIni
 						InterpolantAutomatonEnhancement.values()),
 				new UltimatePreferenceItem<>(LABEL_HOARE_TRIPLE_CHECKS, HoareTripleChecks.INCREMENTAL,
 						PreferenceType.Combo, HoareTripleChecks.values()),
+				new UltimatePreferenceItem<>(LABEL_SHARED_HOARE_TRIPLE_CACHE_SIZE, DEF_SHARED_HOARE_TRIPLE_CACHE_SIZE,
+						DESC_SHARED_HOARE_TRIPLE_CACHE_SIZE, PreferenceType.Integer,
+						new IUltimatePreferenceItemValidator.IntegerValidator(0, Integer.MAX_VALUE)),
+				new UltimatePreferenceItem<>(LABEL_SIMPLIFICATION_CACHE_SIZE, DEF_SIMPLIFICATION_CACHE_SIZE,
+						DESC_SIMPLIFICATION_CACHE_SIZE, PreferenceType.Integer,
+						new IUltimatePreferenceItemValidator.IntegerValidator(0, Integer.MAX_VALUE)),
+				new UltimatePreferenceItem<>(LABEL_QUANTIFIER_ELIMINATION_CACHE_SIZE,
+						DEF_QUANTIFIER_ELIMINATION_CACHE_SIZE, DESC_QUANTIFIER_ELIMINATION_CACHE_SIZE,
+						PreferenceType.Integer,
+						new IUltimatePreferenceItemValidator.IntegerValidator(0, Integer.MAX_VALUE)),
 				new UltimatePreferenceItem<>(LABEL_LANGUAGE_OPERATION, LanguageOperation.DIFFERENCE,
 						PreferenceType.Combo, LanguageOperation.values()),
 				new UltimatePreferenceItem<>(LABEL_DIFFERENCE_SENWA, DEF_DIFFERENCE_SENWA, PreferenceType.Boolean),
+				new UltimatePreferenceItem<>(LABEL_DIFFERENCE_THREADS, DEF_DIFFERENCE_THREADS, DESC_DIFFERENCE_THREADS,
+						PreferenceType.Integer, new IUltimatePreferenceItemValidator.IntegerValidator(1, 64)),
 				new UltimatePreferenceItem<>(LABEL_MINIMIZE, Minimization.MINIMIZE_SEVPA, PreferenceType.Combo,
 						Minimization.values()),
 				new UltimatePreferenceItem<>(LABEL_CONCURRENCY, Concurrency.FINITE_AUTOMATA, PreferenceType.Combo,
@@ -344,7 +398,15 @@ public class TraceAbstractionPreferenceInitializer extends UltimatePreferenceIni
 						RefinementStrategy.values()),
 				new UltimatePreferenceItem<>(LABEL_REFINEMENT_STRATEGY_EXCEPTION_BLACKLIST,
 						DEF_REFINEMENT_STRATEGY_EXCEPTION_BLACKLIST, PreferenceType.Combo,
-						RefinementStrategyExceptionBlacklist.values()), };
+						RefinementStrategyExceptionBlacklist.values()),
+				new UltimatePreferenceItem<>(LABEL_TRACE_CHECK_PORTFOLIO, DEF_TRACE_CHECK_PORTFOLIO,
+						DESC_TRACE_CHECK_PORTFOLIO, PreferenceType.Boolean),
+				new UltimatePreferenceItem<>(LABEL_TRACE_CHECK_PORTFOLIO_THREADS, DEF_TRACE_CHECK_PORTFOLIO_THREADS,
+						DESC_TRACE_CHECK_PORTFOLIO_THREADS, PreferenceType.Integer,
+						new IUltimatePreferenceItemValidator.IntegerValidator(0, 1_000)),
+				new UltimatePreferenceItem<>(LABEL_TRACE_CHECK_PORTFOLIO_COLLECT_TIMEOUT,
+						DEF_TRACE_CHECK_PORTFOLIO_COLLECT_TIMEOUT, DESC_TRACE_CHECK_PORTFOLIO_COLLECT_TIMEOUT,
+						PreferenceType.Integer, new IUltimatePreferenceItemValidator.IntegerValidator(0, 1_000_000)), };
 	}
 
 	/**
@@ -378,6 +440,7 @@ public class TraceAbstractionPreferenceInitializer extends UltimatePreferenceIni
 		NWA_OVERAPPROXIMATION, NWA_COMBINATOR_MULTI_DEFAULT, NWA_COMBINATOR_MULTI_SIMULATION, DELAYED_SIMULATION,
 		FAIR_SIMULATION_WITH_SCC, FAIR_SIMULATION_WITHOUT_SCC, FAIR_DIRECT_SIMULATION, RAQ_DELAYED_SIMULATION,
 		RAQ_DELAYED_SIMULATION_B, FULLMULTIPEBBLE_DELAYED_SIMULATION, FULLMULTIPEBBLE_DIRECT_SIMULATION,
+		NWA_BISIMULATION_PARALLEL,
 	}
 
 	/**
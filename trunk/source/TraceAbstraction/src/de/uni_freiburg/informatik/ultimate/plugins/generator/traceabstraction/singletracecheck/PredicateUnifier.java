@@ -33,6 +33,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
@@ -57,6 +58,7 @@ import de.uni_freiburg.informatik.ultimate.modelcheckerutils.hoaretriple.IHoareT
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.CommuhashNormalForm;
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.ContainsQuantifier;
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.MonolithicImplicationChecker;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.SatisfyingModelCache;
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.SmtUtils;
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.SmtUtils.SimplificationTechnique;
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.SmtUtils.XnfConversionTechnique;
@@ -75,6 +77,7 @@ import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.predicates.Pred
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.predicates.TermVarsProc;
 import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.Activator;
 import de.uni_freiburg.informatik.ultimate.util.DebugMessage;
+import de.uni_freiburg.informatik.ultimate.util.datastructures.poset.HasseDiagram;
 import de.uni_freiburg.informatik.ultimate.util.datastructures.poset.IPartialComparator;
 import de.uni_freiburg.informatik.ultimate.util.datastructures.poset.IPartialComparator.ComparisonResult;
 import de.uni_freiburg.informatik.ultimate.util.datastructures.poset.PosetUtils;
@@ -128,7 +131,7 @@ public class PredicateUnifier implements IPredicateUnifier {
 		mSymbolTable = symbolTable;
 		mServices = services;
 		mLogger = mServices.getLoggingService().getLogger(Activator.PLUGIN_ID);
-		mImplicationChecker = new MonolithicImplicationChecker(mServices, mMgnScript);
+		mImplicationChecker = new MonolithicImplicationChecker(mServices, mMgnScript, new SatisfyingModelCache());
 		mTerm2Predicates = new HashMap<>();
 		final Term trueTerm = mScript.term("true");
 		IPredicate truePredicate = null;
@@ -545,45 +548,49 @@ public class PredicateUnifier implements IPredicateUnifier {
 		return mPredicateFactory;
 	}
 
+	/**
+	 * Stores the validity of the implication between each pair of known predicates. Valid implications are stored in
+	 * a {@link HasseDiagram}, hence we need memory only for the implications between direct neighbors. Implications
+	 * whose validity is neither {@link Validity#VALID} nor {@link Validity#INVALID} are stored explicitly. All other
+	 * implications are invalid, we index them such that we do not have to iterate over all known predicates in
+	 * {@link #getNonCoveringPredicates(IPredicate)} and {@link #getNonCoveredPredicates(IPredicate)}.
+	 */
 	public class CoverageRelation implements IPredicateCoverageChecker {
 
-		private final NestedMap2<IPredicate, IPredicate, Validity> mLhs2RhsValidity = new NestedMap2<>();
-		private final HashRelation<IPredicate, IPredicate> mImpliedPredicates = new HashRelation<>();
-		private final HashRelation<IPredicate, IPredicate> mExpliedPredicates = new HashRelation<>();
-		private final HashRelation<IPredicate, IPredicate> mNotImpliedPredicates = new HashRelation<>();
-		private final HashRelation<IPredicate, IPredicate> mNotExpliedPredicates = new HashRelation<>();
+		private final HasseDiagram<IPredicate> mValidImplications = new HasseDiagram<>();
+		private final NestedMap2<IPredicate, IPredicate, Validity> mUndecidedImplications = new NestedMap2<>();
+		private final HashRelation<IPredicate, IPredicate> mNonCoveringPredicates = new HashRelation<>();
+		private final HashRelation<IPredicate, IPredicate> mNonCoveredPredicates = new HashRelation<>();
 
 		void addPredicate(final IPredicate pred, final Map<IPredicate, Validity> implied,
 				final Map<IPredicate, Validity> explied) {
 			assert !mKnownPredicates.contains(pred) : "predicate already known";
-			assert coverageMapIsComplete();
+			assert mValidImplications.size() == mKnownPredicates.size() : "coverage relation incomplete";
+			final List<IPredicate> impliedPredicates = new ArrayList<>();
+			final List<IPredicate> expliedPredicates = new ArrayList<>();
 			for (final IPredicate known : mKnownPredicates) {
 				final Validity implies = implied.get(known);
 				assert implies != null : "unknown implies for " + known;
 				final Validity explies = explied.get(known);
 				assert explies != null : "unknown explies for " + known;
-				final Validity oldimpl = mLhs2RhsValidity.put(pred, known, implies);
-				assert oldimpl == null : "entry existed !";
-				final Validity oldexpl = mLhs2RhsValidity.put(known, pred, explies);
-				assert oldexpl == null : "entry existed !";
 				if (implies == Validity.VALID) {
-					mImpliedPredicates.addPair(pred, known);
-					mExpliedPredicates.addPair(known, pred);
+					impliedPredicates.add(known);
 				} else if (implies == Validity.INVALID) {
-					mNotImpliedPredicates.addPair(pred, known);
-					mNotExpliedPredicates.addPair(known, pred);
+					mNonCoveringPredicates.addPair(pred, known);
+					mNonCoveredPredicates.addPair(known, pred);
+				} else {
+					mUndecidedImplications.put(pred, known, implies);
 				}
 				if (explies == Validity.VALID) {
-					mImpliedPredicates.addPair(known, pred);
-					mExpliedPredicates.addPair(pred, known);
-				} else if (implies == Validity.INVALID) {
-					mNotImpliedPredicates.addPair(known, pred);
-					mNotExpliedPredicates.addPair(pred, known);
+					expliedPredicates.add(known);
+				} else if (explies == Validity.INVALID) {
+					mNonCoveringPredicates.addPair(known, pred);
+					mNonCoveredPredicates.addPair(pred, known);
+				} else {
+					mUndecidedImplications.put(known, pred, explies);
 				}
 			}
-			mImpliedPredicates.addPair(pred, pred);
-			mExpliedPredicates.addPair(pred, pred);
-			assert coverageMapIsComplete();
+			mValidImplications.addElement(pred, impliedPredicates, expliedPredicates);
 		}
 
 		@Override
@@ -591,49 +598,73 @@ public class PredicateUnifier implements IPredicateUnifier {
 			if (lhs.equals(rhs)) {
 				return Validity.VALID;
 			}
-			final Validity result = mLhs2RhsValidity.get(lhs, rhs);
-			if (result == null) {
+			if (!mValidImplications.contains(lhs) || !mValidImplications.contains(rhs)) {
 				throw new AssertionError("at least one of both input predicates is unknown: " + lhs + " or " + rhs);
 			}
+			if (rhs == mTruePredicate || lhs == mFalsePredicate || mValidImplications.isSmallerOrEqual(lhs, rhs)) {
+				return Validity.VALID;
+			}
+			final Validity result = mUndecidedImplications.get(lhs, rhs);
+			if (result == null) {
+				return Validity.INVALID;
+			}
 			return result;
 		}
 
 		@Override
 		public Set<IPredicate> getCoveringPredicates(final IPredicate pred) {
-			return mImpliedPredicates.getImage(pred);
+			if (!mValidImplications.contains(pred)) {
+				return Collections.emptySet();
+			}
+			return mValidImplications.getGreaterOrEqual(pred);
 		}
 
 		public Set<IPredicate> getNonCoveringPredicates(final IPredicate pred) {
-			return mNotImpliedPredicates.getImage(pred);
+			return mNonCoveringPredicates.getImage(pred);
 		}
 
 		@Override
 		public Set<IPredicate> getCoveredPredicates(final IPredicate pred) {
-			return mExpliedPredicates.getImage(pred);
+			if (!mValidImplications.contains(pred)) {
+				return Collections.emptySet();
+			}
+			return mValidImplications.getSmallerOrEqual(pred);
 		}
 
 		public Set<IPredicate> getNonCoveredPredicates(final IPredicate pred) {
-			return mNotExpliedPredicates.getImage(pred);
+			return mNonCoveredPredicates.getImage(pred);
+		}
+
+		/**
+		 * @return all known predicates such that each predicate occurs after all predicates that it implies
+		 */
+		List<IPredicate> getWeakestFirstOrder() {
+			return mValidImplications.getTopDownOrder();
 		}
 
 		public CoverageRelationStatistics getCoverageRelationStatistics() {
-			return new CoverageRelationStatistics(mLhs2RhsValidity);
-		}
-
-		private boolean coverageMapIsComplete() {
-			boolean nothingMissing = true;
-			for (final IPredicate p1 : mKnownPredicates) {
-				for (final IPredicate p2 : mKnownPredicates) {
-					if (p1 != p2) {
-						final Validity validity = mLhs2RhsValidity.get(p1, p2);
-						assert validity != null : "value missing for pair " + p1 + ", " + p2;
-						if (validity == null) {
-							nothingMissing = false;
-						}
-					}
+			int valid = 0;
+			for (final IPredicate known : mKnownPredicates) {
+				valid += getCoveringPredicates(known).size() - 1;
+			}
+			int unknown = 0;
+			int notChecked = 0;
+			for (final Triple<IPredicate, IPredicate, Validity> entry : mUndecidedImplications.entrySet()) {
+				if (mValidImplications.isSmallerOrEqual(entry.getFirst(), entry.getSecond())) {
+					// became valid by transitivity
+					continue;
+				}
+				if (entry.getThird() == Validity.UNKNOWN) {
+					unknown++;
+				} else {
+					assert entry.getThird() == Validity.NOT_CHECKED;
+					notChecked++;
 				}
 			}
-			return nothingMissing;
+			final int size = mKnownPredicates.size();
+			final int invalid = size * (size - 1) - valid - unknown - notChecked;
+			return new CoverageRelationStatistics(valid, invalid, unknown, notChecked,
+					mValidImplications.getNumberOfEdges());
 		}
 
 		@Override
@@ -642,21 +673,18 @@ public class PredicateUnifier implements IPredicateUnifier {
 				if (o1.equals(o2)) {
 					return ComparisonResult.EQUAL;
 				}
-				final Validity implies = mLhs2RhsValidity.get(o1, o2);
-				if (implies == null) {
-					throwAssertionErrorWithMessage(o1, o2);
-				}
-				final Validity explies = mLhs2RhsValidity.get(o2, o1);
-				if (explies == null) {
+				if (!mValidImplications.contains(o1) || !mValidImplications.contains(o2)) {
 					throwAssertionErrorWithMessage(o1, o2);
 				}
-				if (implies == Validity.VALID) {
-					if (explies == Validity.VALID) {
+				final boolean implies = mValidImplications.isSmallerOrEqual(o1, o2);
+				final boolean explies = mValidImplications.isSmallerOrEqual(o2, o1);
+				if (implies) {
+					if (explies) {
 						return ComparisonResult.EQUAL;
 					}
 					return ComparisonResult.STRICTLY_SMALLER;
 				}
-				if (explies == Validity.VALID) {
+				if (explies) {
 					return ComparisonResult.STRICTLY_GREATER;
 				}
 				return ComparisonResult.INCOMPARABLE;
@@ -669,11 +697,11 @@ public class PredicateUnifier implements IPredicateUnifier {
 		 *
 		 */
 		private void throwAssertionErrorWithMessage(final IPredicate o1, final IPredicate o2) throws AssertionError {
-			if (!mLhs2RhsValidity.keySet().contains(o1)) {
+			if (!mValidImplications.contains(o1)) {
 				throw new AssertionError(
 						"PredicateUnifier does not know the following predicate " + String.valueOf(o1));
 			}
-			if (!mLhs2RhsValidity.keySet().contains(o2)) {
+			if (!mValidImplications.contains(o2)) {
 				throw new AssertionError(
 						"PredicateUnifier does not know the following predicate " + String.valueOf(o2));
 			}
@@ -681,7 +709,11 @@ public class PredicateUnifier implements IPredicateUnifier {
 		}
 
 		public HashRelation<IPredicate, IPredicate> getCopyOfImplicationRelation() {
-			return new HashRelation<>(mImpliedPredicates);
+			final HashRelation<IPredicate, IPredicate> result = new HashRelation<>();
+			for (final IPredicate known : mKnownPredicates) {
+				result.addAllPairs(known, getCoveringPredicates(known));
+			}
+			return result;
 		}
 	}
 
@@ -690,42 +722,25 @@ public class PredicateUnifier implements IPredicateUnifier {
 		private final int mInvalidCoverageRelations;
 		private final int mUnknownCoverageRelations;
 		private final int mNotCheckedCoverageRelations;
+		private final int mStoredValidCoverageRelations;
 
-		public CoverageRelationStatistics(final NestedMap2<IPredicate, IPredicate, Validity> lhs2RhsValidity) {
-			int invalid = 0;
-			int valid = 0;
-			int unknown = 0;
-			int notChecked = 0;
-			for (final Triple<IPredicate, IPredicate, Validity> entry : lhs2RhsValidity.entrySet()) {
-				switch (entry.getThird()) {
-				case INVALID:
-					invalid++;
-					break;
-				case NOT_CHECKED:
-					notChecked++;
-					break;
-				case UNKNOWN:
-					unknown++;
-					break;
-				case VALID:
-					valid++;
-					break;
-				default:
-					throw new AssertionError();
-				}
-			}
+		public CoverageRelationStatistics(final int valid, final int invalid, final int unknown, final int notChecked,
+				final int storedValid) {
 			mValidCoverageRelations = valid;
 			mInvalidCoverageRelations = invalid;
 			mUnknownCoverageRelations = unknown;
 			mNotCheckedCoverageRelations = notChecked;
+			mStoredValidCoverageRelations = storedValid;
 		}
 
 		@Override
 		public String toString() {
-			return String.format("CoverageRelationStatistics Valid=%s, Invalid=%s, Unknown=%s, NotChecked=%s, Total=%s",
+			return String.format(
+					"CoverageRelationStatistics Valid=%s, Invalid=%s, Unknown=%s, NotChecked=%s, Total=%s, StoredValid=%s",
 					mValidCoverageRelations, mInvalidCoverageRelations, mUnknownCoverageRelations,
 					mNotCheckedCoverageRelations, mValidCoverageRelations + mInvalidCoverageRelations
-							+ mUnknownCoverageRelations + mNotCheckedCoverageRelations);
+							+ mUnknownCoverageRelations + mNotCheckedCoverageRelations,
+					mStoredValidCoverageRelations);
 		}
 
 	}
@@ -748,6 +763,8 @@ public class PredicateUnifier implements IPredicateUnifier {
 
 		ImplicationChecksByTransitivity(Integer.class, StatisticsType.INTEGER_ADDITION, StatisticsType.DATA_BEFORE_KEY),
 
+		ImplicationChecksByModels(Integer.class, StatisticsType.INTEGER_ADDITION, StatisticsType.DATA_BEFORE_KEY),
+
 		Time(Integer.class, StatisticsType.LONG_ADDITION, StatisticsType.TIME_BEFORE_KEY),;
 
 		private final Class<?> mClazz;
@@ -887,6 +904,8 @@ public class PredicateUnifier implements IPredicateUnifier {
 				return mDeprecatedPredicatesCount;
 			case ImplicationChecksByTransitivity:
 				return mImplicationChecksByTransitivity;
+			case ImplicationChecksByModels:
+				return mImplicationChecker.getModelCache().getNumberOfRefutations();
 			case Time:
 				return getTime();
 			default:
@@ -1054,7 +1073,8 @@ public class PredicateUnifier implements IPredicateUnifier {
 				return null;
 			}
 
-			for (final IPredicate other : mKnownPredicates) {
+			final List<IPredicate> weakestFirst = new ArrayList<>();
+			for (final IPredicate other : mCoverageRelation.getWeakestFirstOrder()) {
 				if (other == mTruePredicate || other == mFalsePredicate) {
 					continue;
 				}
@@ -1064,78 +1084,59 @@ public class PredicateUnifier implements IPredicateUnifier {
 					mExpliedPredicates.put(other, Validity.NOT_CHECKED);
 					continue;
 				}
+				weakestFirst.add(other);
+			}
+
+			// An invalid implication (term ==> other) is propagated to all predicates that are stronger than other,
+			// hence we check these implications starting with the weakest predicates.
+			for (final IPredicate other : weakestFirst) {
+				if (mImpliedPredicates.get(other) != null) {
+					continue;
+				}
 				checkTimeout(mClosedTerm);
-				final Term otherClosedTerm = other.getClosedFormula();
-				Validity implies = mImpliedPredicates.get(other);
-				if (implies == null) {
-					implies = mImplicationChecker.checkImplication(mTerm, mClosedTerm, false, other.getFormula(),
-							other.getClosedFormula(), false);
-					if (implies == Validity.VALID) {
-						// if (this ==> other) and (other ==> impliedByOther) then
-						// we conclude (this ==> impliedByOther)
-						for (final IPredicate impliedByOther : getCoverageRelation().getCoveringPredicates(other)) {
-							if (impliedByOther != other) {
-								final Validity oldValue = mImpliedPredicates.put(impliedByOther, Validity.VALID);
-								if (oldValue == null || oldValue == Validity.UNKNOWN) {
-									mPredicateUnifierBenchmarkGenerator.incrementImplicationChecksByTransitivity();
-								} else {
-									assert oldValue == Validity.VALID : "implication result by transitivity: "
-											+ Validity.VALID + " old implication result: " + oldValue;
-								}
-							}
-						}
-					} else if (implies == Validity.INVALID) {
-						// if !(this ==> other) and (expliedbyOther ==> other)
-						// we conclude !(this ==> expliedbyOther)
-						for (final IPredicate expliedByOther : getCoverageRelation().getCoveredPredicates(other)) {
-							if (expliedByOther != other) {
-								final Validity oldValue = mImpliedPredicates.put(expliedByOther, Validity.INVALID);
-								if (oldValue == null || oldValue == Validity.UNKNOWN) {
-									mPredicateUnifierBenchmarkGenerator.incrementImplicationChecksByTransitivity();
-								} else {
-									assert oldValue == Validity.INVALID : "implication result by transitivity: "
-											+ Validity.INVALID + " old implication result: " + oldValue;
-								}
-							}
-						}
+				final Validity implies = mImplicationChecker.checkImplication(mTerm, mClosedTerm, false,
+						other.getFormula(), other.getClosedFormula(), false);
+				if (implies == Validity.VALID) {
+					// if (this ==> other) and (other ==> impliedByOther) then
+					// we conclude (this ==> impliedByOther)
+					for (final IPredicate impliedByOther : getCoverageRelation().getCoveringPredicates(other)) {
+						propagate(mImpliedPredicates, impliedByOther, other, Validity.VALID);
+					}
+				} else if (implies == Validity.INVALID) {
+					// if !(this ==> other) and (expliedbyOther ==> other)
+					// we conclude !(this ==> expliedbyOther)
+					for (final IPredicate expliedByOther : getCoverageRelation().getCoveredPredicates(other)) {
+						propagate(mImpliedPredicates, expliedByOther, other, Validity.INVALID);
 					}
-					mImpliedPredicates.put(other, implies);
 				}
+				mImpliedPredicates.put(other, implies);
+			}
+
+			// An invalid implication (other ==> term) is propagated to all predicates that are weaker than other,
+			// hence we check these implications starting with the strongest predicates.
+			for (int i = weakestFirst.size() - 1; i >= 0; i--) {
+				final IPredicate other = weakestFirst.get(i);
 				Validity explies = mExpliedPredicates.get(other);
 				if (explies == null) {
+					checkTimeout(mClosedTerm);
 					explies = mImplicationChecker.checkImplication(other.getFormula(), other.getClosedFormula(), false,
 							mTerm, mClosedTerm, false);
 					if (explies == Validity.VALID) {
 						// if (other ==> this) and (expliedByOther ==> other)
 						// we conclude (expliedByOther ==> this)
 						for (final IPredicate expliedByOther : getCoverageRelation().getCoveredPredicates(other)) {
-							if (expliedByOther != other) {
-								final Validity oldValue = mExpliedPredicates.put(expliedByOther, Validity.VALID);
-								if (oldValue == null || oldValue == Validity.UNKNOWN) {
-									mPredicateUnifierBenchmarkGenerator.incrementImplicationChecksByTransitivity();
-								} else {
-									assert oldValue == Validity.VALID : "explication result by transitivity: "
-											+ Validity.VALID + " old explication result: " + oldValue;
-								}
-							}
+							propagate(mExpliedPredicates, expliedByOther, other, Validity.VALID);
 						}
 					} else if (explies == Validity.INVALID) {
 						// if !(other ==> this) and (other ==> impliedByOther)
 						// we conclude !(impliedByOther ==> this)
 						for (final IPredicate impliedByOther : getCoverageRelation().getCoveringPredicates(other)) {
-							if (impliedByOther != other) {
-								final Validity oldValue = mExpliedPredicates.put(impliedByOther, Validity.INVALID);
-								if (oldValue == null || oldValue == Validity.UNKNOWN) {
-									mPredicateUnifierBenchmarkGenerator.incrementImplicationChecksByTransitivity();
-								} else {
-									assert oldValue == Validity.INVALID : "explication result by transitivity: "
-											+ Validity.INVALID + " old explication result: " + oldValue;
-								}
-							}
+							propagate(mExpliedPredicates, impliedByOther, other, Validity.INVALID);
 						}
 					}
 					mExpliedPredicates.put(other, explies);
 				}
+				final Validity implies = mImpliedPredicates.get(other);
 				if (implies == Validity.VALID && explies == Validity.VALID) {
 					if (mDeprecatedPredicates.containsKey(other)) {
 						return mDeprecatedPredicates.get(other);
@@ -1143,7 +1144,7 @@ public class PredicateUnifier implements IPredicateUnifier {
 					final boolean otherContainsQuantifiers =
 							new ContainsQuantifier().containsQuantifier(other.getFormula());
 					if (!otherContainsQuantifiers || mTermContainsQuantifiers
-							&& !thisIsLessQuantifiedThanOther(mClosedTerm, otherClosedTerm)) {
+							&& !thisIsLessQuantifiedThanOther(mClosedTerm, other.getClosedFormula())) {
 						return other;
 					}
 					if (mEquivalentGtQuantifiedPredicate == null) {
@@ -1157,6 +1158,22 @@ public class PredicateUnifier implements IPredicateUnifier {
 			return null;
 		}
 
+		/**
+		 * Store a result that we obtained by transitivity.
+		 */
+		private void propagate(final Map<IPredicate, Validity> map, final IPredicate pred, final IPredicate other,
+				final Validity validity) {
+			if (pred == other) {
+				return;
+			}
+			final Validity oldValue = map.put(pred, validity);
+			if (oldValue == null || oldValue == Validity.UNKNOWN || oldValue == Validity.NOT_CHECKED) {
+				mPredicateUnifierBenchmarkGenerator.incrementImplicationChecksByTransitivity();
+			} else {
+				assert oldValue == validity : "result by transitivity: " + validity + " old result: " + oldValue;
+			}
+		}
+
 		private void checkTimeout(final Term closedTerm) {
 			if (!mServices.getProgressMonitorService().continueProcessing()) {
 				final String quantifierInformation = generateQuantifierInformation(closedTerm);
@@ -59,6 +59,7 @@ import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.tracecheck.Trac
 import de.uni_freiburg.informatik.ultimate.plugins.generator.rcfgbuilder.cfg.CodeBlock;
 import de.uni_freiburg.informatik.ultimate.plugins.generator.rcfgbuilder.util.IcfgProgramExecution;
 import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.Activator;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.tracehandling.CancelableServices;
 
 /**
  * Check if a trace fulfills a specification. Provides an execution (that violates the specification) if the check was
@@ -223,6 +224,8 @@ public class TraceCheck<LETTER extends IAction> implements ITraceCheck {
 				}
 			} else {
 				if (computeRcfgProgramExecution && feasibilityResult.getLBool() == LBool.SAT) {
+					// the program execution is transferred to the CFG script, which concurrent trace checks share
+					CancelableServices.acquireSharedObjects(mServices);
 					icfgProgramExecution = computeRcfgProgramExecutionAndDecodeBranches();
 					if (icfgProgramExecution != null) {
 						providesIcfgProgramExecution = true;
@@ -247,6 +250,8 @@ public class TraceCheck<LETTER extends IAction> implements ITraceCheck {
 			mProvidesIcfgProgramExecution = providesIcfgProgramExecution;
 			mRcfgProgramExecution = icfgProgramExecution;
 		}
+		// subclasses continue with the predicate unifier, which concurrent trace checks share
+		CancelableServices.acquireSharedObjects(mServices);
 	}
 
 	@Override
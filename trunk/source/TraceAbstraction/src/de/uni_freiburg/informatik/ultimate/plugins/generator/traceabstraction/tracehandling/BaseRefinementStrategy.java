@@ -183,6 +183,10 @@ public abstract class BaseRefinementStrategy<LETTER extends IIcfgTransition<?>>
 	public LBool executeStrategy() {
 		final List<TracePredicates> perfectIpps = new LinkedList<>();
 		final List<TracePredicates> imperfectIpps = new LinkedList<>();
+		if (executePortfolio() == LBool.UNKNOWN) {
+			// no member of the portfolio could determine feasibility, a sequential run would not do better
+			return handleUnknownCase(perfectIpps, imperfectIpps);
+		}
 		while (true) {
 			/*
 			 * check feasibility using the strategy
@@ -214,6 +218,21 @@ public abstract class BaseRefinementStrategy<LETTER extends IIcfgTransition<?>>
 		}
 	}
 
+	/**
+	 * Strategies that support the portfolio mode run all their trace checks concurrently (see
+	 * {@link TraceCheckPortfolio}) and afterwards reorder their trace checks s.t. the sequential execution of the
+	 * strategy starts with the trace checks that were successful in the portfolio. These trace checks are not run
+	 * again.
+	 * <p>
+	 * The default implementation does not use a portfolio. Only {@link MultiTrackRefinementStrategy} overrides it; the
+	 * {@link RefinementStrategyFactory} rejects the portfolio setting for all other strategies.
+	 *
+	 * @return the feasibility determined by the portfolio, or {@code null} if no portfolio was executed
+	 */
+	protected LBool executePortfolio() {
+		return null;
+	}
+
 	private LBool checkFeasibility() {
 		while (true) {
 			// NOTE: Do not convert to method reference!
@@ -0,0 +1,291 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE TraceAbstraction plug-in.
+ *
+ * The ULTIMATE TraceAbstraction plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE TraceAbstraction plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE TraceAbstraction plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE TraceAbstraction plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE TraceAbstraction plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.tracehandling;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+import de.uni_freiburg.informatik.ultimate.core.lib.exceptions.ToolchainCanceledException;
+import de.uni_freiburg.informatik.ultimate.core.model.IServiceFactory;
+import de.uni_freiburg.informatik.ultimate.core.model.preferences.IPreferenceProvider;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IBacktranslationService;
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILoggingService;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IProgressAwareTimer;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IProgressMonitorService;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IResultService;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IService;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
+
+/**
+ * {@link IUltimateServiceProvider} for a task that runs concurrently with other tasks (e.g., a member of a
+ * {@link TraceCheckPortfolio}). Everything is delegated to the backing services except that the progress monitor
+ * and all timers obtained from it additionally report a timeout after {@link #cancel()} was called, i.e., SMTInterpol
+ * stops at its next termination check and external solver processes are shut down by their process monitor.
+ * <p>
+ * Tasks that run concurrently may additionally share a lock that protects the objects they have in common (e.g., the
+ * predicate unifier and the CFG script). A task acquires it by {@link #acquireSharedObjects(IUltimateServiceProvider)}
+ * and holds it until the owner of the task calls {@link #releaseSharedObjects()}.
+ */
+public final class CancelableServices implements IUltimateServiceProvider {
+	private final IUltimateServiceProvider mBackingServices;
+	private final CancelableProgressMonitor mProgressMonitor;
+	private final ReentrantLock mSharedObjectsLock;
+
+	public CancelableServices(final IUltimateServiceProvider backingServices) {
+		this(backingServices, null);
+	}
+
+	/**
+	 * @param backingServices
+	 *            services everything is delegated to
+	 * @param sharedObjectsLock
+	 *            lock that is shared by all tasks that access the same objects, or {@code null} if the task does not
+	 *            access shared objects
+	 */
+	public CancelableServices(final IUltimateServiceProvider backingServices, final ReentrantLock sharedObjectsLock) {
+		this(backingServices, new CancelableProgressMonitor(backingServices.getProgressMonitorService()),
+				sharedObjectsLock);
+	}
+
+	private CancelableServices(final IUltimateServiceProvider backingServices,
+			final CancelableProgressMonitor progressMonitor, final ReentrantLock sharedObjectsLock) {
+		mBackingServices = backingServices;
+		mProgressMonitor = progressMonitor;
+		mSharedObjectsLock = sharedObjectsLock;
+	}
+
+	/**
+	 * Cancel everything that uses these services (or services derived from them) without canceling the toolchain.
+	 */
+	public void cancel() {
+		mProgressMonitor.cancel();
+	}
+
+	/**
+	 * Called by a task before it modifies objects that it shares with other tasks. If the given services are
+	 * {@link CancelableServices} with a lock for shared objects, this method blocks until no other task holds the lock.
+	 * Otherwise, e.g., if the task runs sequentially, nothing happens.
+	 *
+	 * @param services
+	 *            services of the task
+	 * @throws ToolchainCanceledException
+	 *             if the task was canceled while it was waiting
+	 */
+	public static void acquireSharedObjects(final IUltimateServiceProvider services) {
+		if (!(services instanceof CancelableServices)) {
+			return;
+		}
+		final CancelableServices cancelableServices = (CancelableServices) services;
+		final ReentrantLock lock = cancelableServices.mSharedObjectsLock;
+		if (lock == null) {
+			return;
+		}
+		lock.lock();
+		if (!cancelableServices.getProgressMonitorService().continueProcessing()) {
+			// the owner of the task already went on and may use the shared objects
+			lock.unlock();
+			throw new ToolchainCanceledException(CancelableServices.class, "waiting for shared objects");
+		}
+	}
+
+	/**
+	 * Releases the lock for shared objects if the current thread holds it. Called by the owner of the task in the
+	 * thread of the task after the task finished.
+	 */
+	public void releaseSharedObjects() {
+		if (mSharedObjectsLock == null) {
+			return;
+		}
+		while (mSharedObjectsLock.isHeldByCurrentThread()) {
+			mSharedObjectsLock.unlock();
+		}
+	}
+
+	@Override
+	public IBacktranslationService getBacktranslationService() {
+		return mBackingServices.getBacktranslationService();
+	}
+
+	@Override
+	public ILoggingService getLoggingService() {
+		return mBackingServices.getLoggingService();
+	}
+
+	@Override
+	public IResultService getResultService() {
+		return mBackingServices.getResultService();
+	}
+
+	@Override
+	public IProgressMonitorService getProgressMonitorService() {
+		return mProgressMonitor;
+	}
+
+	@Override
+	public <T extends IService, F extends IServiceFactory<T>> T getServiceInstance(final Class<F> serviceType) {
+		return mBackingServices.getServiceInstance(serviceType);
+	}
+
+	@Override
+	public IPreferenceProvider getPreferenceProvider(final String pluginId) {
+		return mBackingServices.getPreferenceProvider(pluginId);
+	}
+
+	@Override
+	public IUltimateServiceProvider registerPreferenceLayer(final Class<?> creator, final String... pluginIds) {
+		return new CancelableServices(mBackingServices.registerPreferenceLayer(creator, pluginIds),
+				mProgressMonitor, mSharedObjectsLock);
+	}
+
+	/**
+	 * Progress monitor that can be canceled without canceling the toolchain.
+	 */
+	private static final class CancelableProgressMonitor implements IProgressMonitorService {
+		private final IProgressMonitorService mBackingMonitor;
+		private final AtomicBoolean mCanceled;
+
+		CancelableProgressMonitor(final IProgressMonitorService backingMonitor) {
+			mBackingMonitor = backingMonitor;
+			mCanceled = new AtomicBoolean(false);
+		}
+
+		void cancel() {
+			mCanceled.set(true);
+		}
+
+		@Override
+		public boolean continueProcessing() {
+			return !mCanceled.get() && mBackingMonitor.continueProcessing();
+		}
+
+		@Override
+		public boolean continueProcessingRoot() {
+			return !mCanceled.get() && mBackingMonitor.continueProcessingRoot();
+		}
+
+		@Override
+		public IProgressAwareTimer getChildTimer(final long timeout) {
+			return new CancelableTimer(mBackingMonitor.getChildTimer(timeout), mCanceled);
+		}
+
+		@Override
+		public IProgressAwareTimer getChildTimer(final double percentage) {
+			return new CancelableTimer(mBackingMonitor.getChildTimer(percentage), mCanceled);
+		}
+
+		@Override
+		public IProgressAwareTimer getTimer(final long timeout) {
+			return new CancelableTimer(mBackingMonitor.getTimer(timeout), mCanceled);
+		}
+
+		@Override
+		public IProgressAwareTimer getParent() {
+			return mBackingMonitor.getParent();
+		}
+
+		@Override
+		public long getDeadline() {
+			return mBackingMonitor.getDeadline();
+		}
+
+		@Override
+		public CountDownLatch cancelToolchain() {
+			return mBackingMonitor.cancelToolchain();
+		}
+
+		@Override
+		public void setSubtask(final String task) {
+			// cancelable services are used by tasks that run concurrently, only their owner names the subtask
+		}
+
+		/*
+		 * The deadline and the stack of child timers belong to the toolchain and are only modified by the toolchain
+		 * job and by TraceAbstractionStarter, which limits the analysis time per error location. Neither runs with
+		 * cancelable services. Tasks that run concurrently must not modify them, because the modification would affect
+		 * all other tasks; they can only use timers via getChildTimer and getTimer.
+		 */
+
+		@Override
+		public void setDeadline(final long date) {
+			throw new UnsupportedOperationException("Cancelable services cannot change the deadline");
+		}
+
+		@Override
+		public void addChildTimer(final IProgressAwareTimer timer) {
+			throw new UnsupportedOperationException("Cancelable services cannot add child timers");
+		}
+
+		@Override
+		public IProgressAwareTimer removeChildTimer() {
+			throw new UnsupportedOperationException("Cancelable services cannot remove child timers");
+		}
+	}
+
+	/**
+	 * Timer that additionally expires when the {@link CancelableProgressMonitor} it was derived from is canceled. Timers
+	 * derived from it are canceled together with it.
+	 */
+	private static final class CancelableTimer implements IProgressAwareTimer {
+		private final IProgressAwareTimer mBackingTimer;
+		private final AtomicBoolean mCanceled;
+
+		CancelableTimer(final IProgressAwareTimer backingTimer, final AtomicBoolean canceled) {
+			mBackingTimer = backingTimer;
+			mCanceled = canceled;
+		}
+
+		@Override
+		public boolean continueProcessing() {
+			return !mCanceled.get() && mBackingTimer.continueProcessing();
+		}
+
+		@Override
+		public IProgressAwareTimer getChildTimer(final long timeout) {
+			return new CancelableTimer(mBackingTimer.getChildTimer(timeout), mCanceled);
+		}
+
+		@Override
+		public IProgressAwareTimer getChildTimer(final double percentage) {
+			return new CancelableTimer(mBackingTimer.getChildTimer(percentage), mCanceled);
+		}
+
+		@Override
+		public IProgressAwareTimer getTimer(final long timeout) {
+			return new CancelableTimer(mBackingTimer.getTimer(timeout), mCanceled);
+		}
+
+		@Override
+		public IProgressAwareTimer getParent() {
+			return mBackingTimer.getParent();
+		}
+
+		@Override
+		public long getDeadline() {
+			return mBackingTimer.getDeadline();
+		}
+	}
+}
@@ -26,16 +26,25 @@
  */
 package de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.tracehandling;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 
 import de.uni_freiburg.informatik.ultimate.automata.IAutomaton;
 import de.uni_freiburg.informatik.ultimate.automata.IRun;
+import de.uni_freiburg.informatik.ultimate.automata.nestedword.NestedWord;
+import de.uni_freiburg.informatik.ultimate.core.lib.exceptions.ToolchainCanceledException;
 import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
 import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
 import de.uni_freiburg.informatik.ultimate.logic.Script;
+import de.uni_freiburg.informatik.ultimate.logic.Script.LBool;
 import de.uni_freiburg.informatik.ultimate.logic.Term;
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.CfgSmtToolkit;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.OldVarsAssignmentCache;
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.structure.IIcfgTransition;
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.SolverBuilder;
 import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.SolverBuilder.Settings;
@@ -55,6 +64,7 @@ import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.in
 import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.predicates.PredicateFactory;
 import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.preferences.TAPreferences;
 import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.preferences.TraceAbstractionPreferenceInitializer.InterpolationTechnique;
+import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.singletracecheck.DefaultTransFormulas;
 import de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.singletracecheck.PredicateUnifier;
 import de.uni_freiburg.informatik.ultimate.util.datastructures.DataStructureUtils;
 
@@ -137,7 +147,11 @@ public abstract class MultiTrackRefinementStrategy<LETTER extends IIcfgTransitio
 	// TODO Christian 2016-11-11: Matthias wants to get rid of this
 	private final TAPreferences mTaPrefsForInterpolantConsolidation;
 
-	private final Iterator<Track> mInterpolationTechniques;
+	private Iterator<Track> mInterpolationTechniques;
+	// deadline until which further interpolant sequences are collected after a portfolio run, 0 if not collecting
+	private long mCollectDeadline;
+	// trace checks of the tracks that agreed with the winner of the portfolio, they are not run again
+	private final Map<Track, ITraceCheck> mPortfolioTraceChecks;
 
 	private TraceCheckConstructor<LETTER> mTcConstructor;
 	private TraceCheckConstructor<LETTER> mPrevTcConstructor;
@@ -193,6 +207,7 @@ public abstract class MultiTrackRefinementStrategy<LETTER extends IIcfgTransitio
 		mTaskIdentifier = taskIdentifier;
 		mTaPrefsForInterpolantConsolidation = taPrefsForInterpolantConsolidation;
 		mRefinementEngineStatisticsGenerator = new RefinementEngineStatisticsGenerator();
+		mPortfolioTraceChecks = new HashMap<>();
 
 		mInterpolationTechniques = initializeInterpolationTechniquesList();
 		nextTraceCheck();
@@ -221,6 +236,11 @@ public abstract class MultiTrackRefinementStrategy<LETTER extends IIcfgTransitio
 
 	@Override
 	public ITraceCheck getTraceCheck() {
+		if (mTraceCheck == null && mTcConstructor == null && mPortfolioTraceChecks.containsKey(mNextTechnique)) {
+			// the statistics of this trace check were already reported by the portfolio
+			mTraceCheck = mPortfolioTraceChecks.remove(mNextTechnique);
+			mNextTechnique = null;
+		}
 		if (mTraceCheck == null) {
 			if (mTcConstructor == null) {
 				mTcConstructor = constructTraceCheckConstructor();
@@ -240,7 +260,7 @@ public abstract class MultiTrackRefinementStrategy<LETTER extends IIcfgTransitio
 
 		// stop after finding a perfect interpolant sequence; subclasses may have more sophisticated conditions
 		if (!perfectIpps.isEmpty()) {
-			return false;
+			return System.currentTimeMillis() < mCollectDeadline;
 		}
 		return imperfectIpps.size() < getInterpolantAcceptanceThreshold();
 	}
@@ -262,6 +282,107 @@ public abstract class MultiTrackRefinementStrategy<LETTER extends IIcfgTransitio
 		nextTraceCheck();
 	}
 
+	/**
+	 * Runs the trace checks of all tracks concurrently. The tracks that agree with the first conclusive answer are then
+	 * used for the sequential execution, in the order in which they finished. Their trace checks, including the
+	 * interpolants, are taken from the portfolio.
+	 */
+	@Override
+	protected LBool executePortfolio() {
+		if (!mPrefs.getUseTraceCheckPortfolio() || mNextTechnique == null || !mInterpolationTechniques.hasNext()) {
+			return null;
+		}
+		assert mTraceCheck == null && mTcConstructor == null : "portfolio must run before the first trace check";
+		final List<Track> tracks = new ArrayList<>();
+		tracks.add(mNextTechnique);
+		mInterpolationTechniques.forEachRemaining(tracks::add);
+
+		prepareSharedOldVarsAssignments(NestedWord.nestedWord(mCounterexample.getWord()),
+				mPredicateUnifier.getTruePredicate(), mPredicateUnifier.getFalsePredicate());
+
+		final TraceCheckPortfolio<Track> portfolio = new TraceCheckPortfolio<>(mServices, mLogger,
+				mPrefs.getTraceCheckPortfolioThreads(), mPrefs.getTraceCheckPortfolioCollectTimeout());
+		for (final Track track : tracks) {
+			final InterpolationTechnique interpolationTechnique = getInterpolationTechnique(track);
+			final AssertCodeBlockOrder assertionOrder =
+					mAssertionOrderModulation.get(mCounterexample, interpolationTechnique);
+			portfolio.addMember(track, memberServices -> {
+				final ManagedScript managedScript = constructManagedScript(memberServices, mPrefs, track, false);
+				final TraceCheckConstructor<LETTER> tcConstructor = new TraceCheckConstructor<>(mPrefs, managedScript,
+						memberServices, mPredicateFactory, mPredicateUnifier, mCounterexample, assertionOrder,
+						interpolationTechnique, mTaskIdentifier);
+				return () -> runTraceCheckInPortfolio(memberServices, managedScript, tcConstructor);
+			});
+		}
+		final LBool feasibility = portfolio.execute();
+		for (final ITraceCheck traceCheck : portfolio.getFinishedTraceChecks().values()) {
+			mRefinementEngineStatisticsGenerator.addTraceCheckStatistics(traceCheck);
+		}
+		mRefinementEngineStatisticsGenerator.addPortfolioStatistics(portfolio);
+
+		if (feasibility == LBool.UNKNOWN) {
+			mNextTechnique = null;
+			mInterpolationTechniques = Collections.emptyIterator();
+			return feasibility;
+		}
+		// continue sequentially with the tracks that agreed with the portfolio, fastest first
+		final List<Track> agreeingTracks = portfolio.getMembers(feasibility);
+		for (final Entry<Track, ITraceCheck> entry : portfolio.getFinishedTraceChecks().entrySet()) {
+			if (agreeingTracks.contains(entry.getKey())) {
+				mPortfolioTraceChecks.put(entry.getKey(), entry.getValue());
+			}
+		}
+		final Iterator<Track> successfulTracks = agreeingTracks.iterator();
+		mNextTechnique = successfulTracks.next();
+		mInterpolationTechniques = successfulTracks;
+		mLogger.info("Switched to mode " + mNextTechnique);
+		if (feasibility == LBool.UNSAT && mPrefs.getTraceCheckPortfolioCollectTimeout() > 0) {
+			mCollectDeadline = System.currentTimeMillis() + mPrefs.getTraceCheckPortfolioCollectTimeout();
+		}
+		return feasibility;
+	}
+
+	/**
+	 * Runs the trace check of a track in a thread of the portfolio. The trace check acquires the objects it shares with
+	 * the other tracks after its feasibility check (see {@link CancelableServices}), hence interpolants and program
+	 * executions are computed as in the sequential execution.
+	 */
+	private ITraceCheck runTraceCheckInPortfolio(final IUltimateServiceProvider memberServices,
+			final ManagedScript managedScript, final TraceCheckConstructor<LETTER> tcConstructor) {
+		ITraceCheck traceCheck = null;
+		try {
+			if (!memberServices.getProgressMonitorService().continueProcessing()) {
+				throw new ToolchainCanceledException(getClass(), "waiting for a portfolio thread");
+			}
+			traceCheck = tcConstructor.get();
+			return traceCheck;
+		} finally {
+			if (traceCheck == null || !mPrefs.getUseSeparateSolverForTracechecks()
+					|| !traceCheck.wasTracecheckFinishedNormally()) {
+				// otherwise the trace check constructor already closed the solver
+				managedScript.getScript().exit();
+			}
+		}
+	}
+
+	/**
+	 * The trace checks of the portfolio share the {@link OldVarsAssignmentCache} of the {@link CfgSmtToolkit}, which
+	 * fills itself lazily. We fill it for all calls of the trace before the trace checks run concurrently.
+	 */
+	private void prepareSharedOldVarsAssignments(final NestedWord<LETTER> trace, final IPredicate precondition,
+			final IPredicate postcondition) {
+		final DefaultTransFormulas dtf = new DefaultTransFormulas(trace, precondition, postcondition,
+				Collections.emptySortedMap(), mCsToolkit.getOldVarsAssignmentCache(), false);
+		for (int i = 0; i < trace.length(); i++) {
+			if (trace.isCallPosition(i)) {
+				dtf.getGlobalVarAssignment(i);
+				dtf.getOldVarAssignment(i);
+			} else if (trace.isPendingReturn(i)) {
+				dtf.getOldVarAssignment(i);
+			}
+		}
+	}
+
 	@Override
 	public IInterpolantGenerator<LETTER> getInterpolantGenerator() {
 		mHasShownInfeasibilityBefore = true;
@@ -44,6 +44,12 @@ public enum RefinementEngineStatisticsDefinitions implements IStatisticsElement
 	InterpolantConsolidationStatistics(StatisticsData.class, StatisticsType.STATISTICS_DATA_AGGREGATION,
 			StatisticsType.KEY_BEFORE_DATA),
 	
+	PortfolioMembers(Integer.class, StatisticsType.INTEGER_ADDITION, StatisticsType.DATA_BEFORE_KEY),
+
+	PortfolioCanceledMembers(Integer.class, StatisticsType.INTEGER_ADDITION, StatisticsType.DATA_BEFORE_KEY),
+
+	PortfolioTime(Long.class, StatisticsType.LONG_ADDITION, StatisticsType.KEY_BEFORE_TIME),
+
 	;
 	
 
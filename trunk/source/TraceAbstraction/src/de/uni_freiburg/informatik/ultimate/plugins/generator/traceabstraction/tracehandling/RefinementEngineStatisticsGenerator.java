@@ -41,6 +41,9 @@ public class RefinementEngineStatisticsGenerator implements IStatisticsDataProvi
 	private final StatisticsData mTraceCheckStatistics = new StatisticsData();
 	private final StatisticsData mInvariantSynthesisStatistics = new StatisticsData();
 	private final StatisticsData mInterpolantConsolidationStatistics = new StatisticsData();
+	private int mPortfolioMembers;
+	private int mPortfolioCanceledMembers;
+	private long mPortfolioTime;
 
 	@Override
 	public IStatisticsType getBenchmarkType() {
@@ -72,6 +75,12 @@ public class RefinementEngineStatisticsGenerator implements IStatisticsDataProvi
 		}
 	}
 
+	public void addPortfolioStatistics(final TraceCheckPortfolio<?> portfolio) {
+		mPortfolioMembers += portfolio.size();
+		mPortfolioCanceledMembers += portfolio.getCanceledMembers();
+		mPortfolioTime += portfolio.getTime();
+	}
+
 	@Override
 	public Object getValue(final String key) {
 		final RefinementEngineStatisticsDefinitions keyEnum =
@@ -83,6 +92,12 @@ public class RefinementEngineStatisticsGenerator implements IStatisticsDataProvi
 			return mInvariantSynthesisStatistics;
 		case TraceCheckStatistics:
 			return mTraceCheckStatistics;
+		case PortfolioMembers:
+			return mPortfolioMembers;
+		case PortfolioCanceledMembers:
+			return mPortfolioCanceledMembers;
+		case PortfolioTime:
+			return mPortfolioTime;
 		default:
 			throw new AssertionError("unknown data");
 		}
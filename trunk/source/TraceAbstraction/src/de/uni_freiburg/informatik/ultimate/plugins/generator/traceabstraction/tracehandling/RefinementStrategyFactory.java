@@ -102,9 +102,33 @@ public class RefinementStrategyFactory<LETTER extends IIcfgTransition<?>> {
 		mPredicateFactory = predicateFactory;
 		mPathProgramCache = pathProgramCache;
 		mStrategy = mPrefs.getRefinementStrategy();
+		checkTraceCheckPortfolioSupported(mStrategy, mPrefs);
 		mAssertionOrderModulation = createAssertionOrderModulation(logger, pathProgramCache, mStrategy);
 	}
 
+	/**
+	 * Only {@link MultiTrackRefinementStrategy}s run their trace checks in a {@link TraceCheckPortfolio}. The Taipan
+	 * strategies decide about their next track based on the result of the previous one (e.g., abstract interpretation
+	 * only runs after a trace check proved infeasibility), hence there is nothing to run in parallel.
+	 */
+	private static void checkTraceCheckPortfolioSupported(final RefinementStrategy strategy,
+			final TaCheckAndRefinementPreferences<?> prefs) {
+		if (!prefs.getUseTraceCheckPortfolio()) {
+			return;
+		}
+		switch (strategy) {
+		case FIXED_PREFERENCES:
+		case RUBBER_TAIPAN:
+		case TAIPAN:
+		case LAZY_TAIPAN:
+		case TOOTHLESS_TAIPAN:
+			throw new IllegalArgumentException(
+					"Parallel trace checks are not supported by the refinement strategy " + strategy);
+		default:
+			return;
+		}
+	}
+
 	private AssertionOrderModulation<LETTER> createAssertionOrderModulation(final ILogger logger,
 			final PathProgramCache<LETTER> pathProgramCache, final RefinementStrategy strategy) {
 		switch (strategy) {
@@ -223,7 +247,9 @@ public class RefinementStrategyFactory<LETTER extends IIcfgTransition<?>> {
 			final boolean dumpSmtScriptToFile = prefs.getDumpSmtScriptToFile();
 			final String pathOfDumpedScript = prefs.getPathOfDumpedScript();
 			final Settings solverSettings = SolverBuilder.constructSolverSettings(filename, solverMode,
-					fakeNonIncrementalSolver, commandExternalSolver, dumpSmtScriptToFile, pathOfDumpedScript);
+					fakeNonIncrementalSolver, commandExternalSolver, dumpSmtScriptToFile, pathOfDumpedScript,
+					prefs.getUsePipelinedCommunication(), prefs.getUseSolverProcessPool(),
+					prefs.getShareTermsWithExternalSolver());
 			final Script tcSolver = SolverBuilder.buildAndInitializeSolver(services, toolchainStorage,
 					prefs.getSolverMode(), solverSettings, false, false, prefs.getLogicForExternalSolver(), filename);
 			mgdScriptTc = new ManagedScript(services, tcSolver);
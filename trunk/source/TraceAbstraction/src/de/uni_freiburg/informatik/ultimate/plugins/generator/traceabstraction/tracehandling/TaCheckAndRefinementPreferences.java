@@ -67,10 +67,16 @@ public class TaCheckAndRefinementPreferences<LETTER extends IIcfgTransition<?>>
 	private final SolverMode mSolverMode;
 	private final boolean mFakeNonIncrementalSolver;
 	private final String mCommandExternalSolver;
+	private final boolean mUsePipelinedCommunication;
+	private final boolean mUseSolverProcessPool;
+	private final boolean mShareTermsWithExternalSolver;
 	private final boolean mDumpSmtScriptToFile;
 	private final String mPathOfDumpedScript;
 	private final String mLogicForExternalSolver;
 	private final RefinementStrategyExceptionBlacklist mExceptionBlacklist;
+	private final boolean mUseTraceCheckPortfolio;
+	private final int mTraceCheckPortfolioThreads;
+	private final int mTraceCheckPortfolioCollectTimeout;
 
 	// fields that can be read from the IUltimateServiceProvider
 	private final AssertCodeBlockOrder mAssertCodeBlocksOrder;
@@ -130,10 +136,16 @@ public class TaCheckAndRefinementPreferences<LETTER extends IIcfgTransition<?>>
 		mSolverMode = taPrefs.solverMode();
 		mFakeNonIncrementalSolver = taPrefs.fakeNonIncrementalSolver();
 		mCommandExternalSolver = taPrefs.commandExternalSolver();
+		mUsePipelinedCommunication = taPrefs.usePipelinedCommunication();
+		mUseSolverProcessPool = taPrefs.useSolverProcessPool();
+		mShareTermsWithExternalSolver = taPrefs.shareTermsWithExternalSolver();
 		mDumpSmtScriptToFile = taPrefs.dumpSmtScriptToFile();
 		mPathOfDumpedScript = taPrefs.pathOfDumpedScript();
 		mLogicForExternalSolver = taPrefs.logicForExternalSolver();
 		mExceptionBlacklist = taPrefs.getRefinementStrategyExceptionSpecification();
+		mUseTraceCheckPortfolio = taPrefs.useTraceCheckPortfolio();
+		mTraceCheckPortfolioThreads = taPrefs.getTraceCheckPortfolioThreads();
+		mTraceCheckPortfolioCollectTimeout = taPrefs.getTraceCheckPortfolioCollectTimeout();
 		mCollectInterpolantStatistics = taPrefs.collectInterpolantStatistics();
 
 		final IPreferenceProvider ultimatePrefs = services.getPreferenceProvider(Activator.PLUGIN_ID);
@@ -177,6 +189,18 @@ public class TaCheckAndRefinementPreferences<LETTER extends IIcfgTransition<?>>
 		return mCommandExternalSolver;
 	}
 
+	public boolean getUsePipelinedCommunication() {
+		return mUsePipelinedCommunication;
+	}
+
+	public boolean getUseSolverProcessPool() {
+		return mUseSolverProcessPool;
+	}
+
+	public boolean getShareTermsWithExternalSolver() {
+		return mShareTermsWithExternalSolver;
+	}
+
 	@Override
 	public boolean getDumpSmtScriptToFile() {
 		return mDumpSmtScriptToFile;
@@ -276,6 +300,18 @@ public class TaCheckAndRefinementPreferences<LETTER extends IIcfgTransition<?>>
 		return mExceptionBlacklist;
 	}
 
+	public boolean getUseTraceCheckPortfolio() {
+		return mUseTraceCheckPortfolio;
+	}
+
+	public int getTraceCheckPortfolioThreads() {
+		return mTraceCheckPortfolioThreads;
+	}
+
+	public int getTraceCheckPortfolioCollectTimeout() {
+		return mTraceCheckPortfolioCollectTimeout;
+	}
+
 	@Override
 	public boolean collectInterpolantStatistics() {
 		return mCollectInterpolantStatistics;
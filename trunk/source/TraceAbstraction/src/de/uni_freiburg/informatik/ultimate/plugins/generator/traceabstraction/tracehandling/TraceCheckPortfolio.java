@@ -0,0 +1,298 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE TraceAbstraction plug-in.
+ *
+ * The ULTIMATE TraceAbstraction plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE TraceAbstraction plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE TraceAbstraction plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE TraceAbstraction plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE TraceAbstraction plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.tracehandling;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import de.uni_freiburg.informatik.ultimate.core.lib.exceptions.ToolchainCanceledException;
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
+import de.uni_freiburg.informatik.ultimate.logic.Script.LBool;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.tracecheck.ITraceCheck;
+
+/**
+ * Runs the trace checks of several members (e.g., the {@link MultiTrackRefinementStrategy.Track}s of a strategy)
+ * concurrently, each on its own solver.
+ * <p>
+ * The first conclusive answer ({@link LBool#SAT} or {@link LBool#UNSAT}) wins. The remaining members are canceled
+ * through the progress monitor of the {@link IUltimateServiceProvider} they were started with, i.e., SMTInterpol
+ * stops at its next termination check and external solver processes are shut down by their process monitor. If a
+ * collection timeout is set and the winner showed infeasibility, the portfolio waits at most this long for further
+ * members to show infeasibility. The trace checks of all members that agree with the winner are available afterwards
+ * and are not run again.
+ * <p>
+ * The feasibility checks of the members run in parallel. Everything a member modifies during this phase has to be
+ * owned by the member, in particular its solver. Before a member modifies objects that are shared with other members
+ * (predicate unifier, CFG script), e.g., to compute interpolants or a program execution, it has to call
+ * {@link CancelableServices#acquireSharedObjects(IUltimateServiceProvider)} with the services it was started with.
+ * This serializes the members from then on until they finished. After the portfolio has decided, {@link #execute()}
+ * waits until no member holds the shared objects anymore, and members that were canceled cannot acquire them.
+ *
+ * @param <K>
+ *            type of the member keys
+ */
+public class TraceCheckPortfolio<K> {
+
+	private static final String THREAD_NAME_PREFIX = "TraceCheckPortfolio-";
+	private static final long POLL_INTERVAL_MILLIS = 100L;
+
+	private final IUltimateServiceProvider mServices;
+	private final ILogger mLogger;
+	private final int mMaxThreads;
+	private final long mCollectTimeout;
+	private final Map<K, Function<IUltimateServiceProvider, Callable<ITraceCheck>>> mMembers;
+
+	/* outputs */
+	private final Map<K, ITraceCheck> mFinishedMembers;
+	private int mCanceledMembers;
+	private long mTime;
+
+	/**
+	 * @param services
+	 *            Ultimate services
+	 * @param logger
+	 *            logger
+	 * @param maxThreads
+	 *            maximal number of members that run at the same time; non-positive values mean "number of available
+	 *            processors"
+	 * @param collectTimeout
+	 *            time in milliseconds we wait for further members after the first member showed infeasibility; 0
+	 *            disables the collection
+	 */
+	public TraceCheckPortfolio(final IUltimateServiceProvider services, final ILogger logger, final int maxThreads,
+			final long collectTimeout) {
+		mServices = services;
+		mLogger = logger;
+		mMaxThreads = maxThreads > 0 ? maxThreads : Runtime.getRuntime().availableProcessors();
+		mCollectTimeout = collectTimeout;
+		mMembers = new LinkedHashMap<>();
+		mFinishedMembers = new LinkedHashMap<>();
+	}
+
+	/**
+	 * Adds a member to the portfolio.
+	 *
+	 * @param key
+	 *            key of the member
+	 * @param member
+	 *            function that prepares the member with the given services (e.g., starts its solver) and returns the
+	 *            task that constructs (and thereby runs) the trace check; the function is applied in the thread that
+	 *            calls {@link #execute()} because solver construction registers the solver in the toolchain storage,
+	 *            the task is run in a thread of the portfolio; the services are {@link CancelableServices}
+	 */
+	public void addMember(final K key, final Function<IUltimateServiceProvider, Callable<ITraceCheck>> member) {
+		if (mMembers.put(key, member) != null) {
+			throw new IllegalArgumentException("Duplicate portfolio member " + key);
+		}
+	}
+
+	public int size() {
+		return mMembers.size();
+	}
+
+	/**
+	 * Runs all members and blocks until the portfolio has decided.
+	 *
+	 * @return feasibility of the trace according to the first conclusive member, {@link LBool#UNKNOWN} if no member
+	 *         was conclusive
+	 */
+	public LBool execute() {
+		final long startTime = System.nanoTime();
+		final int numberOfThreads = Math.max(1, Math.min(mMaxThreads, mMembers.size()));
+		mLogger.info(
+				"Running " + mMembers.size() + " trace checks in portfolio with " + numberOfThreads + " threads");
+		final ExecutorService executor =
+				Executors.newFixedThreadPool(numberOfThreads, new PortfolioThreadFactory());
+		final CompletionService<ITraceCheck> completionService = new ExecutorCompletionService<>(executor);
+		final Map<Future<ITraceCheck>, K> futures = new HashMap<>();
+		final Map<K, CancelableServices> memberServices = new HashMap<>();
+		final ReentrantLock sharedObjectsLock = new ReentrantLock();
+		for (final Entry<K, Function<IUltimateServiceProvider, Callable<ITraceCheck>>> entry : mMembers.entrySet()) {
+			final K key = entry.getKey();
+			final CancelableServices services = new CancelableServices(mServices, sharedObjectsLock);
+			final Callable<ITraceCheck> task;
+			try {
+				task = entry.getValue().apply(services);
+			} catch (final ToolchainCanceledException tce) {
+				throw tce;
+			} catch (final RuntimeException e) {
+				mLogger.warn("Could not start portfolio member " + key + ": " + e);
+				continue;
+			}
+			memberServices.put(key, services);
+			futures.put(completionService.submit(() -> {
+				try {
+					return task.call();
+				} finally {
+					services.releaseSharedObjects();
+				}
+			}), key);
+		}
+
+		LBool result = LBool.UNKNOWN;
+		long collectDeadline = Long.MAX_VALUE;
+		try {
+			while (!futures.isEmpty() && System.currentTimeMillis() < collectDeadline) {
+				if (!mServices.getProgressMonitorService().continueProcessing()) {
+					throw new ToolchainCanceledException(getClass(), getTaskDescription());
+				}
+				final Future<ITraceCheck> future =
+						completionService.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+				if (future == null) {
+					continue;
+				}
+				final K key = futures.remove(future);
+				final LBool memberResult = getMemberResult(key, future);
+				if (memberResult == LBool.UNKNOWN) {
+					continue;
+				}
+				if (result == LBool.UNKNOWN) {
+					result = memberResult;
+					mLogger.info("Portfolio member " + key + " decided first: " + memberResult);
+					if (memberResult == LBool.SAT || mCollectTimeout <= 0) {
+						break;
+					}
+					collectDeadline = System.currentTimeMillis() + mCollectTimeout;
+				} else if (memberResult != result) {
+					mLogger.warn("Portfolio member " + key + " contradicts previous members: " + memberResult);
+					mFinishedMembers.remove(key);
+				}
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ToolchainCanceledException(getClass(), getTaskDescription());
+		} finally {
+			// members that are still running or waiting notice the cancellation and clean up their solvers
+			for (final K key : futures.values()) {
+				memberServices.get(key).cancel();
+			}
+			// wait until no canceled member uses the shared objects anymore, the caller continues to use them
+			sharedObjectsLock.lock();
+			sharedObjectsLock.unlock();
+			mCanceledMembers = futures.size();
+			executor.shutdown();
+			mTime = System.nanoTime() - startTime;
+		}
+		if (mCanceledMembers > 0) {
+			mLogger.info("Canceled " + mCanceledMembers + " portfolio members");
+		}
+		return result;
+	}
+
+	private String getTaskDescription() {
+		return "running portfolio of " + mMembers.size() + " trace checks";
+	}
+
+	private LBool getMemberResult(final K key, final Future<ITraceCheck> future) throws InterruptedException {
+		final ITraceCheck traceCheck;
+		try {
+			traceCheck = future.get();
+		} catch (final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof ToolchainCanceledException) {
+				if (!mServices.getProgressMonitorService().continueProcessing()) {
+					throw (ToolchainCanceledException) cause;
+				}
+				mLogger.info("Portfolio member " + key + " was canceled");
+			} else {
+				mLogger.warn("Portfolio member " + key + " crashed: " + cause);
+			}
+			return LBool.UNKNOWN;
+		}
+		mFinishedMembers.put(key, traceCheck);
+		final LBool memberResult = traceCheck.isCorrect();
+		if (memberResult == LBool.UNKNOWN) {
+			mLogger.info("Portfolio member " + key + " was unsuccessful");
+		}
+		return memberResult;
+	}
+
+	/**
+	 * @param feasibility
+	 *            feasibility
+	 * @return keys of all members that finished with the given result, in the order in which they finished
+	 */
+	public List<K> getMembers(final LBool feasibility) {
+		final List<K> result = new ArrayList<>();
+		for (final Entry<K, ITraceCheck> entry : mFinishedMembers.entrySet()) {
+			if (entry.getValue().isCorrect() == feasibility) {
+				result.add(entry.getKey());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return all trace checks that finished before the portfolio decided, in the order in which they finished
+	 */
+	public Map<K, ITraceCheck> getFinishedTraceChecks() {
+		return Collections.unmodifiableMap(mFinishedMembers);
+	}
+
+	public int getCanceledMembers() {
+		return mCanceledMembers;
+	}
+
+	/**
+	 * @return wall time of {@link #execute()} in nanoseconds
+	 */
+	public long getTime() {
+		return mTime;
+	}
+
+	/**
+	 * Names the threads of the portfolio and makes them daemons s.t. canceled members that are still blocked in a
+	 * solver do not keep Ultimate alive.
+	 */
+	private static final class PortfolioThreadFactory implements ThreadFactory {
+		private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+		@Override
+		public Thread newThread(final Runnable runnable) {
+			final Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + THREAD_COUNTER.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
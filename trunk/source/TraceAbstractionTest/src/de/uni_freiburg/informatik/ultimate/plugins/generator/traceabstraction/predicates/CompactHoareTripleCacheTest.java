@@ -0,0 +1,493 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE TraceAbstraction plug-in.
+ *
+ * The ULTIMATE TraceAbstraction plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE TraceAbstraction plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE TraceAbstraction plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE TraceAbstraction plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE TraceAbstraction plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.predicates;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.logic.Logics;
+import de.uni_freiburg.informatik.ultimate.logic.Script;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.logic.Theory;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.structure.IAction;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.structure.ICallAction;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.structure.IInternalAction;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.structure.IReturnAction;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.transitions.UnmodifiableTransFormula;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.hoaretriple.HoareTripleCheckerStatisticsGenerator;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.hoaretriple.IHoareTripleChecker;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.hoaretriple.IHoareTripleChecker.Validity;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.predicates.BasicPredicate;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.predicates.BasicPredicateFactory;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.predicates.IPredicate;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.predicates.IPredicateCoverageChecker;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.predicates.IPredicateUnifier;
+import de.uni_freiburg.informatik.ultimate.util.InCaReCounter;
+import de.uni_freiburg.informatik.ultimate.util.datastructures.poset.IPartialComparator;
+import de.uni_freiburg.informatik.ultimate.util.statistics.IStatisticsDataProvider;
+
+/**
+ * Tests the eviction and the ID management of {@link CompactHoareTripleCache} and the use of a shared cache by
+ * {@link CompactCachingHoareTripleChecker}s.
+ */
+public class CompactHoareTripleCacheTest {
+
+	private static final int FORMULAS = 30;
+
+	private Term[] mFormulas;
+	private int mSerial;
+
+	@Before
+	public void setUp() {
+		final Theory theory = new Theory(Logics.CORE);
+		mFormulas = new Term[FORMULAS];
+		for (int i = 0; i < FORMULAS; i++) {
+			theory.declareFunction("x" + i, Script.EMPTY_SORT_ARRAY, theory.getBooleanSort());
+			mFormulas[i] = theory.term("x" + i);
+		}
+	}
+
+	@Test
+	public void lookupsDoNotCreateIds() {
+		final CompactHoareTripleCache cache = new CompactHoareTripleCache(10);
+		final IPredicate pre = predicate(0);
+		final IPredicate succ = predicate(1);
+		final IInternalAction act = new Action("a");
+		Assert.assertNull(cache.get(pre, act, null, succ));
+		Assert.assertNull(cache.getTriples(act, null));
+		Assert.assertEquals(-1, cache.findPredicateId(pre));
+		cache.put(pre, act, null, succ, Validity.VALID, new InCaReCounter());
+		Assert.assertNull(cache.get(pre, act, null, predicate(2)));
+		Assert.assertNull(cache.get(pre, new Action("b"), null, succ));
+		Assert.assertNull(cache.get(pre, new ReturnAction("r"), predicate(3), succ));
+		Assert.assertEquals(2, cache.getNumberOfPredicateIds());
+		Assert.assertEquals(1, cache.getNumberOfActionIds());
+		// predicates with the same formula share the triple
+		Assert.assertEquals(Validity.VALID, cache.get(predicate(0), act, null, predicate(1)));
+	}
+
+	@Test
+	public void idsAreReleasedWithTheirTriples() {
+		final CompactHoareTripleCache cache = new CompactHoareTripleCache(1);
+		final InCaReCounter evictions = new InCaReCounter();
+		final IReturnAction ret = new ReturnAction("r");
+		cache.put(predicate(0), ret, predicate(1), predicate(2), Validity.INVALID, evictions);
+		Assert.assertEquals(3, cache.getNumberOfPredicateIds());
+		Assert.assertEquals(1, cache.getNumberOfActionIds());
+
+		cache.put(predicate(3), new Action("a"), null, predicate(3), Validity.VALID, evictions);
+		Assert.assertEquals(1, cache.size());
+		Assert.assertEquals(1, evictions.getReturn());
+		Assert.assertNull(cache.getTriples(ret, predicate(1)));
+		Assert.assertEquals(1, cache.getNumberOfPredicateIds());
+		Assert.assertEquals(1, cache.getNumberOfActionIds());
+		Assert.assertEquals(-1, cache.findPredicateId(predicate(1)));
+
+		// the IDs 0, 1, 2 were freed and are reused, the formula of predicate 3 got ID 3
+		cache.put(predicate(4), new Action("b"), null, predicate(5), Validity.VALID, evictions);
+		Assert.assertTrue(cache.findPredicateId(predicate(4)) < 3);
+		Assert.assertTrue(cache.findPredicateId(predicate(5)) < 3);
+	}
+
+	@Test
+	public void clockEvictionGivesSecondChance() {
+		final CompactHoareTripleCache cache = new CompactHoareTripleCache(2);
+		final InCaReCounter evictions = new InCaReCounter();
+		final IInternalAction act = new Action("a");
+		final IPredicate succ = predicate(FORMULAS - 1);
+		final List<IPredicate> pres = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			pres.add(predicate(i));
+			cache.put(pres.get(i), act, null, succ, Validity.VALID, evictions);
+		}
+		// all entries were new, so the hand cleared all reference bits before it evicted one
+		Assert.assertEquals(2, cache.size());
+		Assert.assertEquals(1, evictions.getInternal());
+
+		// reference exactly one of the two remaining entries
+		IPredicate referenced = null;
+		for (final IPredicate pre : pres) {
+			if (cache.get(pre, act, null, succ) != null) {
+				referenced = pre;
+				break;
+			}
+		}
+		Assert.assertNotNull(referenced);
+		pres.remove(referenced);
+		final IPredicate added = predicate(3);
+		cache.put(added, act, null, succ, Validity.VALID, evictions);
+
+		Assert.assertEquals(2, cache.size());
+		Assert.assertEquals(2, evictions.getInternal());
+		Assert.assertEquals(Validity.VALID, cache.get(referenced, act, null, succ));
+		Assert.assertEquals(Validity.VALID, cache.get(added, act, null, succ));
+		for (final IPredicate pre : pres) {
+			Assert.assertNull(cache.get(pre, act, null, succ));
+		}
+	}
+
+	@Test
+	public void removeAtShiftsCollidingEntriesBackwards() {
+		final CompactHoareTripleCache.Table table = new CompactHoareTripleCache.Table(0, -1, 0);
+		final int mask = table.capacity() - 1;
+		// three keys with the same home slot and one whose home slot is the next one
+		final List<Long> sameHome = new ArrayList<>();
+		Long nextHome = null;
+		final int home = CompactHoareTripleCache.Table.hash(0L) & mask;
+		for (long key = 0; sameHome.size() < 3 || nextHome == null; key++) {
+			final int keyHome = CompactHoareTripleCache.Table.hash(key) & mask;
+			if (keyHome == home && sameHome.size() < 3) {
+				sameHome.add(key);
+			} else if (keyHome == ((home + 1) & mask) && nextHome == null) {
+				nextHome = key;
+			}
+		}
+		final List<Long> keys = new ArrayList<>(sameHome);
+		keys.add(nextHome);
+		for (final long key : keys) {
+			Assert.assertTrue(table.put(key, (byte) 1));
+		}
+		Assert.assertEquals(8, table.capacity());
+		for (final long removed : keys) {
+			table.removeAt(table.find(removed));
+			Assert.assertEquals(-1, table.find(removed));
+			for (final long key : keys.subList(keys.indexOf(removed) + 1, keys.size())) {
+				Assert.assertTrue("lost " + key + " after removing " + removed, table.find(key) >= 0);
+			}
+		}
+		Assert.assertEquals(0, table.size());
+	}
+
+	@Test
+	public void removeAtKeepsRandomEntriesReachable() {
+		final Random random = new Random(4711);
+		final CompactHoareTripleCache.Table table = new CompactHoareTripleCache.Table(0, -1, 0);
+		final Set<Long> contained = new HashSet<>();
+		for (int i = 0; i < 5000; i++) {
+			final long key = random.nextInt(200);
+			if (contained.contains(key) && random.nextBoolean()) {
+				table.removeAt(table.find(key));
+				contained.remove(key);
+			} else {
+				Assert.assertEquals(!contained.contains(key), table.put(key, (byte) 1));
+				contained.add(key);
+			}
+			Assert.assertEquals(contained.size(), table.size());
+		}
+		for (long key = 0; key < 200; key++) {
+			Assert.assertEquals(contained.contains(key), table.find(key) >= 0);
+		}
+	}
+
+	@Test
+	public void cacheIsSharedAcrossCheckers() {
+		final CompactHoareTripleCache cache = new CompactHoareTripleCache(100);
+		final IInternalAction act = new Action("a");
+		final CountingChecker computing1 = new CountingChecker(Validity.VALID);
+		final Unifier unifier1 = new Unifier();
+		final IPredicate pre1 = unifier1.add(predicate(0));
+		final IPredicate succ1 = unifier1.add(predicate(1));
+		final CompactCachingHoareTripleChecker checker1 =
+				new CompactCachingHoareTripleChecker(computing1, unifier1, cache);
+		Assert.assertEquals(Validity.VALID, checker1.checkInternal(pre1, act, succ1));
+		Assert.assertEquals(1, computing1.mChecks);
+
+		// another predicate unifier with its own predicates for the same formulas
+		final CountingChecker computing2 = new CountingChecker(Validity.INVALID);
+		final Unifier unifier2 = new Unifier();
+		final IPredicate pre2 = unifier2.add(predicate(0));
+		final IPredicate succ2 = unifier2.add(predicate(1));
+		final CompactCachingHoareTripleChecker checker2 =
+				new CompactCachingHoareTripleChecker(computing2, unifier2, cache);
+		Assert.assertEquals(Validity.VALID, checker2.checkInternal(pre2, act, succ2));
+		Assert.assertEquals(0, computing2.mChecks);
+		Assert.assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void validityIsDerivedFromCoverageNeighbors() {
+		// with few cached triples the checker visits all of them, with many it looks up the pairs of neighbors
+		for (final int fillers : new int[] { 0, 50 }) {
+			final CompactHoareTripleCache cache = new CompactHoareTripleCache(100);
+			final IInternalAction act = new Action("a");
+			final Unifier unifier = new Unifier();
+			final IPredicate pre = unifier.add(predicate(0));
+			final IPredicate strongerPre = unifier.add(predicate(1));
+			final IPredicate succ = unifier.add(predicate(2));
+			final IPredicate weakerSucc = unifier.add(predicate(3));
+			unifier.addImplication(strongerPre, pre);
+			unifier.addImplication(succ, weakerSucc);
+			// more neighbors of strongerPre that are used in the cache, but not for act
+			final IInternalAction unrelated = new Action("c");
+			for (int i = 4; i < 8; i++) {
+				final IPredicate neighbor = unifier.add(predicate(i));
+				unifier.addImplication(strongerPre, neighbor);
+				cache.put(neighbor, unrelated, null, neighbor, Validity.VALID, new InCaReCounter());
+			}
+			for (int i = 0; i < fillers; i++) {
+				cache.put(predicate(8 + i % 6), act, null, predicate(14 + i / 6), Validity.UNKNOWN,
+						new InCaReCounter());
+			}
+
+			final CountingChecker valid = new CountingChecker(Validity.VALID);
+			final CompactCachingHoareTripleChecker validChecker =
+					new CompactCachingHoareTripleChecker(valid, unifier, cache);
+			Assert.assertEquals(Validity.VALID, validChecker.checkInternal(pre, act, succ));
+			Assert.assertEquals(Validity.VALID, validChecker.checkInternal(strongerPre, act, weakerSucc));
+			Assert.assertEquals(1, valid.mChecks);
+
+			final CountingChecker invalid = new CountingChecker(Validity.INVALID);
+			final CompactCachingHoareTripleChecker invalidChecker =
+					new CompactCachingHoareTripleChecker(invalid, unifier, cache);
+			final IInternalAction other = new Action("b");
+			Assert.assertEquals(Validity.INVALID, invalidChecker.checkInternal(strongerPre, other, weakerSucc));
+			Assert.assertEquals(Validity.INVALID, invalidChecker.checkInternal(pre, other, succ));
+			Assert.assertEquals(1, invalid.mChecks);
+		}
+	}
+
+	private IPredicate predicate(final int formula) {
+		return new BasicPredicate(mSerial++, new String[0], mFormulas[formula], Collections.emptySet(),
+				mFormulas[formula]);
+	}
+
+	private abstract static class AbstractAction implements IAction {
+		private final String mName;
+
+		AbstractAction(final String name) {
+			mName = name;
+		}
+
+		@Override
+		public String getPrecedingProcedure() {
+			return "proc";
+		}
+
+		@Override
+		public String getSucceedingProcedure() {
+			return "proc";
+		}
+
+		@Override
+		public UnmodifiableTransFormula getTransformula() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public String toString() {
+			return mName;
+		}
+	}
+
+	private static final class Action extends AbstractAction implements IInternalAction {
+		Action(final String name) {
+			super(name);
+		}
+	}
+
+	private static final class ReturnAction extends AbstractAction implements IReturnAction {
+		ReturnAction(final String name) {
+			super(name);
+		}
+
+		@Override
+		public UnmodifiableTransFormula getAssignmentOfReturn() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public UnmodifiableTransFormula getLocalVarsAssignmentOfCall() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public UnmodifiableTransFormula getTransformula() {
+			return getAssignmentOfReturn();
+		}
+	}
+
+	/**
+	 * Hoare triple checker that answers every triple with the same validity and counts the checks.
+	 */
+	private static final class CountingChecker implements IHoareTripleChecker {
+		private final Validity mValidity;
+		private int mChecks;
+
+		CountingChecker(final Validity validity) {
+			mValidity = validity;
+		}
+
+		@Override
+		public Validity checkInternal(final IPredicate pre, final IInternalAction act, final IPredicate succ) {
+			mChecks++;
+			return mValidity;
+		}
+
+		@Override
+		public Validity checkCall(final IPredicate pre, final ICallAction act, final IPredicate succ) {
+			mChecks++;
+			return mValidity;
+		}
+
+		@Override
+		public Validity checkReturn(final IPredicate preLin, final IPredicate preHier, final IReturnAction act,
+				final IPredicate succ) {
+			mChecks++;
+			return mValidity;
+		}
+
+		@Override
+		public HoareTripleCheckerStatisticsGenerator getEdgeCheckerBenchmark() {
+			return null;
+		}
+
+		@Override
+		public void releaseLock() {
+			// no lock
+		}
+	}
+
+	/**
+	 * Predicate unifier that only knows the predicates and implications that were added explicitly.
+	 */
+	private static final class Unifier implements IPredicateUnifier, IPredicateCoverageChecker {
+		private final Map<IPredicate, Set<IPredicate>> mCovered = new HashMap<>();
+		private final Map<IPredicate, Set<IPredicate>> mCovering = new HashMap<>();
+
+		IPredicate add(final IPredicate pred) {
+			mCovered.put(pred, new HashSet<>(Collections.singleton(pred)));
+			mCovering.put(pred, new HashSet<>(Collections.singleton(pred)));
+			return pred;
+		}
+
+		void addImplication(final IPredicate lhs, final IPredicate rhs) {
+			mCovered.get(rhs).add(lhs);
+			mCovering.get(lhs).add(rhs);
+		}
+
+		@Override
+		public boolean isRepresentative(final IPredicate pred) {
+			return mCovered.containsKey(pred);
+		}
+
+		@Override
+		public IPredicateCoverageChecker getCoverageRelation() {
+			return this;
+		}
+
+		@Override
+		public Validity isCovered(final IPredicate lhs, final IPredicate rhs) {
+			return mCovering.get(lhs).contains(rhs) ? Validity.VALID : Validity.UNKNOWN;
+		}
+
+		@Override
+		public Set<IPredicate> getCoveredPredicates(final IPredicate pred) {
+			return mCovered.get(pred);
+		}
+
+		@Override
+		public Set<IPredicate> getCoveringPredicates(final IPredicate pred) {
+			return mCovering.get(pred);
+		}
+
+		@Override
+		public IPartialComparator<IPredicate> getPartialComperator() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public IPredicate getTruePredicate() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public IPredicate getFalsePredicate() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public IPredicate getOrConstructPredicateForConjunction(final Collection<IPredicate> conjunction) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public IPredicate getOrConstructPredicateForDisjunction(final Collection<IPredicate> disjunction) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public IPredicate getOrConstructPredicate(final Term term) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public IPredicate getOrConstructPredicate(final IPredicate predicate) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public String collectPredicateUnifierStatistics() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean isIntricatePredicate(final IPredicate pred) {
+			return false;
+		}
+
+		@Override
+		public Set<IPredicate> cannibalize(final boolean splitNumericEqualities, final Term term) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Set<IPredicate> cannibalizeAll(final boolean splitNumericEqualities,
+				final Collection<IPredicate> predicates) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public IStatisticsDataProvider getPredicateUnifierBenchmark() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public BasicPredicateFactory getPredicateFactory() {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
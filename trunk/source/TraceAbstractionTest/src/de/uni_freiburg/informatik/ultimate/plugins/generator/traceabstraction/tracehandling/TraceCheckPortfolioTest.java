@@ -0,0 +1,244 @@
+/*
+ * Copyright (C) 2018 University of Freiburg
+ *
+ * This file is part of the ULTIMATE TraceAbstraction plug-in.
+ *
+ * The ULTIMATE TraceAbstraction plug-in is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published
+ * by the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * The ULTIMATE TraceAbstraction plug-in is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with the ULTIMATE TraceAbstraction plug-in. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Additional permission under GNU GPL version 3 section 7:
+ * If you modify the ULTIMATE TraceAbstraction plug-in, or any covered work, by linking
+ * or combining it with Eclipse RCP (or a modified version of Eclipse RCP),
+ * containing parts covered by the terms of the Eclipse Public License, the
+ * licensors of the ULTIMATE TraceAbstraction plug-in grant you additional permission
+ * to convey the resulting work.
+ */
+package de.uni_freiburg.informatik.ultimate.plugins.generator.traceabstraction.tracehandling;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.uni_freiburg.informatik.ultimate.core.lib.exceptions.ToolchainCanceledException;
+import de.uni_freiburg.informatik.ultimate.core.model.services.ILogger;
+import de.uni_freiburg.informatik.ultimate.core.model.services.IUltimateServiceProvider;
+import de.uni_freiburg.informatik.ultimate.core.model.translation.IProgramExecution;
+import de.uni_freiburg.informatik.ultimate.logic.Script.LBool;
+import de.uni_freiburg.informatik.ultimate.logic.Term;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.cfg.structure.IcfgEdge;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.predicates.IPredicate;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.tracecheck.ITraceCheck;
+import de.uni_freiburg.informatik.ultimate.modelcheckerutils.smt.tracecheck.TraceCheckReasonUnknown;
+import de.uni_freiburg.informatik.ultimate.test.mocks.UltimateMocks;
+import de.uni_freiburg.informatik.ultimate.util.statistics.IStatisticsDataProvider;
+
+/**
+ * Tests the cancellation of the members of a {@link TraceCheckPortfolio} and the protection of the objects they share.
+ */
+public class TraceCheckPortfolioTest {
+
+	private static final long TIMEOUT_SECONDS = 10;
+
+	private IUltimateServiceProvider mServices;
+	private ILogger mLogger;
+
+	@Before
+	public void setUp() {
+		mServices = UltimateMocks.createUltimateServiceProviderMock();
+		mLogger = mServices.getLoggingService().getLogger(getClass());
+	}
+
+	@Test
+	public void slowMemberIsCanceled() throws InterruptedException {
+		final CountDownLatch slowMemberCanceled = new CountDownLatch(1);
+		final TraceCheckPortfolio<String> portfolio = new TraceCheckPortfolio<>(mServices, mLogger, 2, 0);
+		portfolio.addMember("fast", services -> () -> new FixedTraceCheck(LBool.UNSAT));
+		portfolio.addMember("slow", services -> () -> {
+			waitForCancellation(services);
+			slowMemberCanceled.countDown();
+			throw new ToolchainCanceledException(getClass(), "slow member");
+		});
+
+		Assert.assertEquals(LBool.UNSAT, portfolio.execute());
+		Assert.assertEquals(Collections.singletonList("fast"), portfolio.getMembers(LBool.UNSAT));
+		Assert.assertEquals(1, portfolio.getCanceledMembers());
+		Assert.assertTrue("slow member did not notice the cancellation",
+				slowMemberCanceled.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void satDecidesWithoutCollecting() {
+		final TraceCheckPortfolio<String> portfolio =
+				new TraceCheckPortfolio<>(mServices, mLogger, 2, TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+		portfolio.addMember("sat", services -> () -> new FixedTraceCheck(LBool.SAT));
+		portfolio.addMember("slow", services -> () -> {
+			waitForCancellation(services);
+			throw new ToolchainCanceledException(getClass(), "slow member");
+		});
+
+		final long start = System.nanoTime();
+		Assert.assertEquals(LBool.SAT, portfolio.execute());
+		Assert.assertTrue("portfolio waited for the collection timeout",
+				System.nanoTime() - start < TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS));
+		Assert.assertEquals(1, portfolio.getCanceledMembers());
+	}
+
+	@Test
+	public void unsatMembersAreCollected() {
+		final TraceCheckPortfolio<String> portfolio =
+				new TraceCheckPortfolio<>(mServices, mLogger, 2, TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+		portfolio.addMember("first", services -> () -> new FixedTraceCheck(LBool.UNSAT));
+		portfolio.addMember("second", services -> () -> new FixedTraceCheck(LBool.UNSAT));
+
+		Assert.assertEquals(LBool.UNSAT, portfolio.execute());
+		final Map<String, ITraceCheck> finished = portfolio.getFinishedTraceChecks();
+		Assert.assertEquals(2, finished.size());
+		Assert.assertEquals(2, portfolio.getMembers(LBool.UNSAT).size());
+		Assert.assertEquals(0, portfolio.getCanceledMembers());
+	}
+
+	@Test
+	public void canceledMemberCannotAcquireSharedObjects() throws InterruptedException {
+		final CountDownLatch portfolioDecided = new CountDownLatch(1);
+		final AtomicReference<Throwable> slowMemberOutcome = new AtomicReference<>();
+		final CountDownLatch slowMemberFinished = new CountDownLatch(1);
+		final TraceCheckPortfolio<String> portfolio = new TraceCheckPortfolio<>(mServices, mLogger, 2, 0);
+		portfolio.addMember("fast", services -> () -> {
+			CancelableServices.acquireSharedObjects(services);
+			return new FixedTraceCheck(LBool.UNSAT);
+		});
+		portfolio.addMember("slow", services -> () -> {
+			try {
+				portfolioDecided.await();
+				CancelableServices.acquireSharedObjects(services);
+				slowMemberOutcome.set(new AssertionError("canceled member acquired the shared objects"));
+			} catch (final ToolchainCanceledException tce) {
+				slowMemberOutcome.set(tce);
+				throw tce;
+			} finally {
+				slowMemberFinished.countDown();
+			}
+			return new FixedTraceCheck(LBool.UNSAT);
+		});
+
+		Assert.assertEquals(LBool.UNSAT, portfolio.execute());
+		portfolioDecided.countDown();
+		Assert.assertTrue(slowMemberFinished.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+		Assert.assertTrue(String.valueOf(slowMemberOutcome.get()),
+				slowMemberOutcome.get() instanceof ToolchainCanceledException);
+	}
+
+	@Test
+	public void sharedObjectsAreUsedByOneMemberAtATime() {
+		final AtomicInteger currentUsers = new AtomicInteger();
+		final AtomicInteger maxUsers = new AtomicInteger();
+		final Function<IUltimateServiceProvider, Callable<ITraceCheck>> member = services -> () -> {
+			CancelableServices.acquireSharedObjects(services);
+			final int users = currentUsers.incrementAndGet();
+			maxUsers.accumulateAndGet(users, Math::max);
+			Thread.sleep(50);
+			currentUsers.decrementAndGet();
+			return new FixedTraceCheck(LBool.UNSAT);
+		};
+		final TraceCheckPortfolio<String> portfolio =
+				new TraceCheckPortfolio<>(mServices, mLogger, 3, TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+		portfolio.addMember("first", member);
+		portfolio.addMember("second", member);
+		portfolio.addMember("third", member);
+
+		Assert.assertEquals(LBool.UNSAT, portfolio.execute());
+		Assert.assertEquals(3, portfolio.getMembers(LBool.UNSAT).size());
+		Assert.assertEquals(1, maxUsers.get());
+	}
+
+	private static void waitForCancellation(final IUltimateServiceProvider services) throws InterruptedException {
+		final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+		while (services.getProgressMonitorService().continueProcessing()) {
+			if (System.nanoTime() > deadline) {
+				throw new AssertionError("member was not canceled");
+			}
+			Thread.sleep(10);
+		}
+	}
+
+	/**
+	 * Trace check that only knows its result.
+	 */
+	private static final class FixedTraceCheck implements ITraceCheck {
+		private final LBool mResult;
+
+		FixedTraceCheck(final LBool result) {
+			mResult = result;
+		}
+
+		@Override
+		public LBool isCorrect() {
+			return mResult;
+		}
+
+		@Override
+		public IPredicate getPrecondition() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public IPredicate getPostcondition() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Map<Integer, IPredicate> getPendingContexts() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public boolean providesRcfgProgramExecution() {
+			return false;
+		}
+
+		@Override
+		public IProgramExecution<IcfgEdge, Term> getRcfgProgramExecution() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public IStatisticsDataProvider getTraceCheckBenchmark() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		@Deprecated
+		public ToolchainCanceledException getToolchainCanceledExpection() {
+			return null;
+		}
+
+		@Override
+		public TraceCheckReasonUnknown getTraceCheckReasonUnknown() {
+			return null;
+		}
+
+		@Override
+		public boolean wasTracecheckFinishedNormally() {
+			return true;
+		}
+	}
+}
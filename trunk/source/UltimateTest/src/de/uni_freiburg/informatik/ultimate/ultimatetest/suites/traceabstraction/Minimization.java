@@ -134,6 +134,7 @@ public class Minimization extends AbstractTraceAbstractionTestSuite {
 //		"automizer/minimization/TreeInterpolants-MINIMIZE_SEVPA.epf",
 		"automizer/minimization/TreeInterpolants-NONE.epf",
 //		"automizer/minimization/TreeInterpolants-SHRINK_NWA.epf",
+//		"automizer/minimization/TreeInterpolants-NWA_BISIMULATION_PARALLEL.epf",
 //		"automizer/minimization/TreeInterpolants-NWA_COMBINATOR.epf",
 //		"automizer/minimization/TreeInterpolants-NWA_MAX_SAT.epf", // use with caution, does not respect timeout
 //		"automizer/minimization/TreeInterpolants-NWA_MAX_SAT2.epf",